@@ -0,0 +1,75 @@
+package RTi.DMI;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+import RTi.Util.IO.BenchmarkUtil;
+
+/**
+ * Compare running queries from 8 threads through a pool with a single connection and a pool with 8 connections.
+ * An embedded database driver is not included in the library,
+ * so connections are simulated with proxies and each "query" sleeps for 10 ms.
+ */
+public class DMIConnectionPoolBenchmark {
+
+    private static final int THREAD_COUNT = 8;
+    private static final int QUERY_COUNT = 10;
+    private static final long QUERY_TIME = 10;
+
+    /**
+     * Create a simulated connection.
+     */
+    private static Connection createConnection() {
+        boolean [] closed = new boolean[1];
+        return (Connection)Proxy.newProxyInstance(DMIConnectionPoolBenchmark.class.getClassLoader(),
+            new Class<?>[] { Connection.class },
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "close": closed[0] = true; return null;
+                    case "isClosed": return closed[0];
+                    case "isValid": return !closed[0];
+                    case "getAutoCommit": return true;
+                    case "hashCode": return System.identityHashCode(proxy);
+                    case "equals": return proxy == args[0];
+                    default: return null;
+                }
+            });
+    }
+
+    /**
+     * Run queries from several threads, each borrowing a connection for each query.
+     */
+    private static void runQueries(DMIConnectionPool pool) throws Exception {
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < THREAD_COUNT; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    for (int j = 0; j < QUERY_COUNT; j++) {
+                        Connection connection = pool.borrowConnection();
+                        Thread.sleep(QUERY_TIME);
+                        pool.returnConnection(connection);
+                    }
+                }
+                catch (Exception e) {
+                    e.printStackTrace();
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        for (int poolSize : new int[] { 1, THREAD_COUNT }) {
+            DMIConnectionPool pool = new DMIConnectionPool(() -> createConnection(), poolSize, 0);
+            BenchmarkUtil.time(THREAD_COUNT + " threads x " + QUERY_COUNT + " queries of " + QUERY_TIME + " ms, "
+                + poolSize + ((poolSize == 1) ? " connection" : " connections"), () -> runQueries(pool));
+            pool.close();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package RTi.GIS.GeoView;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import RTi.Util.IO.BenchmarkUtil;
+import RTi.Util.Time.DateTime;
+
+/**
+ * Compare reading a year of hourly XMRG grids on request with reading ahead using XmrgFramePrefetcher,
+ * as when animating precipitation grids.  Runs headless.
+ * The grids cycle through a day of files so that the benchmark does not need a year of files on disk.
+ */
+public class XmrgFramePrefetcherBenchmark {
+
+    private static final int XOR = 100;
+    private static final int YOR = 200;
+    private static final int MAXX = 160;
+    private static final int MAXY = 120;
+
+    private static String writeFile(int seed, List<File> files) throws Exception {
+        Random random = new Random(seed);
+        DateTime date = new DateTime(DateTime.DATE_CURRENT);
+        XmrgGridLayer layer = new XmrgGridLayer(null, "benchmark", date, "RTM24", date, XOR, YOR, MAXX, MAXY);
+        GeoGrid grid = layer.getGrid();
+        for (int r = YOR; r < YOR + MAXY; r++) {
+            for (int c = XOR; c < XOR + MAXX; c++) {
+                grid.setDataValue(c, r, (random.nextInt(10) == 0) ? -999.0 : random.nextInt(20000) / 100.0);
+            }
+        }
+        File f = File.createTempFile("XmrgFramePrefetcherBenchmark", ".xmrg");
+        f.deleteOnExit();
+        files.add(f);
+        layer.writeXmrgFile(f.getPath(), (seed % 2) == 0);
+        return f.getPath();
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        List<File> files = new ArrayList<>();
+        List<String> day = new ArrayList<>();
+        for (int hour = 0; hour < 24; hour++) {
+            day.add(writeFile(hour, files));
+        }
+        List<String> year = new ArrayList<>();
+        for (int i = 0; i < 365 * 24; i++) {
+            year.add(day.get(i % 24));
+        }
+        BenchmarkUtil.time("Read " + year.size() + " hourly " + MAXX + "x" + MAXY + " XMRG grids on request", () -> {
+            for (String filename : year) {
+                new XmrgGridLayer(filename, true, false).getMaxValueHeader();
+            }
+        });
+        for (int threadCount : new int[] { 1, 2, 4 }) {
+            BenchmarkUtil.time("Read " + year.size() + " grids with prefetcher (8 ahead, " + threadCount + " threads)", () -> {
+                XmrgFramePrefetcher prefetcher = new XmrgFramePrefetcher(year, 8, threadCount);
+                try {
+                    for (int i = 0; i < prefetcher.getFrameCount(); i++) {
+                        prefetcher.getFrame(i).getMaxValueHeader();
+                    }
+                }
+                finally {
+                    prefetcher.shutdown();
+                }
+            });
+        }
+        for (File f : files) {
+            f.delete();
+        }
+    }
+}
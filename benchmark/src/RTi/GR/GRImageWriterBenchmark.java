@@ -0,0 +1,101 @@
+package RTi.GR;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+
+import RTi.Util.IO.BenchmarkUtil;
+
+/**
+ * Compare the time to draw and save large graph images with JpegEncoder, GRImageWriter,
+ * and GRImageWriter asynchronously while the next image is drawn.  Runs headless.
+ */
+public class GRImageWriterBenchmark {
+
+    private static final int COUNT = 6;
+    private static final int WIDTH = 2400;
+    private static final int HEIGHT = 1600;
+
+    /**
+     * Draw an image similar to a time series graph, with grid lines and several lines.
+     */
+    private static BufferedImage createGraphImage(int width, int height, int seed) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_4BYTE_ABGR);
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setColor(Color.white);
+        g.fillRect(0, 0, width, height);
+        g.setColor(Color.lightGray);
+        for (int x = 0; x < width; x += 50) {
+            g.drawLine(x, 0, x, height);
+        }
+        for (int y = 0; y < height; y += 50) {
+            g.drawLine(0, y, width, y);
+        }
+        Color[] colors = { Color.blue, Color.red, Color.green.darker(), Color.magenta };
+        g.setStroke(new BasicStroke(2.0F));
+        for (int ts = 0; ts < colors.length; ts++) {
+            g.setColor(colors[ts]);
+            int yPrev = height / 2;
+            for (int x = 1; x < width; x++) {
+                int y = (int)(height / 2 + (height / 3) * Math.sin((x + seed * 37 + ts * 200) / (40.0 + ts * 10)));
+                g.drawLine(x - 1, yPrev, x, y);
+                yPrev = y;
+            }
+        }
+        g.setColor(Color.black);
+        g.drawString("Graph " + seed, 20, 20);
+        g.dispose();
+        return image;
+    }
+
+    @SuppressWarnings("deprecation")
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        List<File> files = new ArrayList<>();
+        for (int i = 0; i < COUNT; i++) {
+            File f = File.createTempFile("GRImageWriterBenchmark", ".jpg");
+            f.deleteOnExit();
+            files.add(f);
+        }
+        String prefix = "Draw and save " + COUNT + " " + WIDTH + "x" + HEIGHT + " JPEG images, ";
+        BenchmarkUtil.time(prefix + "JpegEncoder", () -> {
+            for (int i = 0; i < COUNT; i++) {
+                BufferedImage image = createGraphImage(WIDTH, HEIGHT, i);
+                try (FileOutputStream os = new FileOutputStream(files.get(i))) {
+                    new JpegEncoder(image, GRImageWriter.DEFAULT_QUALITY, os).Compress();
+                }
+            }
+        });
+        GRImageWriter writer = new GRImageWriter();
+        BenchmarkUtil.time(prefix + "GRImageWriter", () -> {
+            for (int i = 0; i < COUNT; i++) {
+                writer.write(createGraphImage(WIDTH, HEIGHT, i), files.get(i).getPath());
+            }
+        });
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_4BYTE_ABGR);
+        BenchmarkUtil.time(prefix + "GRImageWriter async", () -> {
+            List<Future<File>> futures = new ArrayList<>();
+            for (int i = 0; i < COUNT; i++) {
+                // Reuse the same buffer, similar to a device.
+                Graphics2D g = image.createGraphics();
+                g.drawImage(createGraphImage(WIDTH, HEIGHT, i), 0, 0, null);
+                g.dispose();
+                futures.add(writer.writeAsync(image, files.get(i).getPath()));
+            }
+            for (Future<File> future : futures) {
+                future.get();
+            }
+        });
+        for (File f : files) {
+            f.delete();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package RTi.TS;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import RTi.Util.IO.BenchmarkUtil;
+import RTi.Util.Math.MathUtil;
+import RTi.Util.Time.DateTime;
+
+/**
+ * Compare computing statistics for a synthetic ensemble of 100 daily traces over 60 years
+ * by looking up each trace by date/time, as the original ensemble statistic code did, and with TSEnsembleMatrix.
+ */
+public class TSEnsembleMatrixBenchmark {
+
+    /**
+     * Create daily traces with random values, some of which are missing, and every other trace shorter.
+     */
+    private static List<TS> createEnsemble(int traceCount, DateTime start, DateTime end) throws Exception {
+        Random random = new Random(traceCount);
+        List<TS> tslist = new ArrayList<>();
+        for (int i = 0; i < traceCount; i++) {
+            TS ts = new DayTS();
+            DateTime traceStart = new DateTime(start);
+            DateTime traceEnd = new DateTime(end);
+            if ((i % 2) == 1) {
+                traceStart.addDay(i);
+                traceEnd.addDay(-i);
+            }
+            ts.setDate1(traceStart);
+            ts.setDate2(traceEnd);
+            ts.allocateDataSpace();
+            for (TSIterator it = ts.iterator(); it.next() != null; ) {
+                ts.setDataValue(it.getDate(), (random.nextInt(8) == 0) ? ts.getMissing() : random.nextInt(10000) / 100.0);
+            }
+            tslist.add(ts);
+        }
+        return tslist;
+    }
+
+    /**
+     * Compute a statistic for each day by looking up each trace by date/time.
+     */
+    private static double[] computeByDate(List<TS> tslist, DateTime start, DateTime end, TSStatisticType statisticType) {
+        List<Double> results = new ArrayList<>();
+        double[] sample = new double[tslist.size()];
+        for (DateTime date = new DateTime(start); date.lessThanOrEqualTo(end); date.addDay(1)) {
+            int n = 0;
+            for (TS ts : tslist) {
+                double value = ts.getDataValue(date);
+                if (!ts.isDataMissing(value)) {
+                    sample[n++] = value;
+                }
+            }
+            double result = Double.NaN;
+            if (n == 0) {
+                // Leave missing.
+            }
+            else if (statisticType == TSStatisticType.EXCEEDANCE_PROBABILITY_30) {
+                result = MathUtil.exceedanceProbabilityValue(n, sample, .3);
+            }
+            else if (statisticType == TSStatisticType.MAX) {
+                result = MathUtil.max(n, sample);
+            }
+            else if (statisticType == TSStatisticType.MEAN) {
+                result = MathUtil.mean(n, sample);
+            }
+            results.add(result);
+        }
+        double[] array = new double[results.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = results.get(i);
+        }
+        return array;
+    }
+
+    public static void main(String[] args) throws Exception {
+        DateTime start = DateTime.parse("1950-01-01");
+        DateTime end = DateTime.parse("2009-12-31");
+        List<TS> tslist = createEnsemble(100, start, end);
+        TSStatisticType[] statistics = { TSStatisticType.MEAN, TSStatisticType.EXCEEDANCE_PROBABILITY_30, TSStatisticType.MAX };
+        String prefix = "Mean, 30% exceedance and maximum for " + tslist.size() + " daily traces, 1950-2009, ";
+        BenchmarkUtil.time(prefix + "by date", () -> {
+            for (TSStatisticType statisticType : statistics) {
+                computeByDate(tslist, start, end, statisticType);
+            }
+        });
+        BenchmarkUtil.time(prefix + "create matrix", () -> new TSEnsembleMatrix(tslist, start, end));
+        TSEnsembleMatrix matrix = new TSEnsembleMatrix(tslist, start, end);
+        for (int threadCount : new int[] { 1, 0 }) {
+            BenchmarkUtil.time(prefix + "matrix with " + ((threadCount == 1) ? "1 thread" : "all threads"), () -> {
+                for (TSStatisticType statisticType : statistics) {
+                    matrix.computeStatistic(statisticType, 0.0, -1, -1, threadCount);
+                }
+            });
+        }
+    }
+}
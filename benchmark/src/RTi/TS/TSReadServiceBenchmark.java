@@ -0,0 +1,51 @@
+package RTi.TS;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import RTi.Util.IO.BenchmarkUtil;
+import RTi.Util.Time.DateTime;
+
+/**
+ * Compare reading 24 DateValue files, each with two daily time series for 1990-2019,
+ * serially and in parallel with TSReadService.
+ */
+public class TSReadServiceBenchmark {
+
+    private static final int FILE_COUNT = 24;
+
+    public static void main(String[] args) throws Exception {
+        List<File> files = new ArrayList<>();
+        List<TSReadService.Request> requests = new ArrayList<>();
+        for (int i = 0; i < FILE_COUNT; i++) {
+            List<TS> tslist = new ArrayList<>();
+            for (int j = 0; j < 2; j++) {
+                DayTS ts = new DayTS();
+                ts.setIdentifier("Loc" + i + "_" + j + ".Test.Streamflow.Day");
+                ts.setDataUnits("CFS");
+                ts.setDate1(DateTime.parse("1990-01-01"));
+                ts.setDate2(DateTime.parse("2019-12-31"));
+                ts.allocateDataSpace();
+                int k = 0;
+                for (TSIterator it = ts.iterator(); it.next() != null; k++) {
+                    ts.setDataValue(it.getDate(), ((k % 13) == 0) ? ts.getMissing() : i + j + (k % 101) / 4.0);
+                }
+                tslist.add(ts);
+            }
+            File f = File.createTempFile("TSReadServiceBenchmark", ".dv");
+            f.deleteOnExit();
+            files.add(f);
+            DateValueTS.writeTimeSeriesList(tslist, f.getPath());
+            requests.add(new TSReadService.Request(f.getPath()));
+        }
+        String prefix = "Read " + FILE_COUNT + " DateValue files, ";
+        for (int threadCount : new int[] { 1, 2, 4 }) {
+            BenchmarkUtil.time(prefix + threadCount + ((threadCount == 1) ? " thread" : " threads"),
+                () -> new TSReadService(threadCount).readTimeSeries(requests));
+        }
+        for (File f : files) {
+            f.delete();
+        }
+    }
+}
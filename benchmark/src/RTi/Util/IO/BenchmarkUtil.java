@@ -0,0 +1,37 @@
+package RTi.Util.IO;
+
+/**
+ * Timing helper for the benchmarks in benchmark/src, which are run with main() rather than with the unit tests.
+ */
+public class BenchmarkUtil {
+
+    /**
+     * Code to time.
+     */
+    public interface Task {
+        public void run() throws Exception;
+    }
+
+    /**
+     * Number of timed runs after the warm-up run.
+     */
+    private static final int RUN_COUNT = 3;
+
+    /**
+     * Run a task once to warm up and then several times, and print the best time.
+     * @param label description of the task, printed with the time
+     * @param task task to time
+     * @return the best time in milliseconds
+     */
+    public static long time(String label, Task task) throws Exception {
+        task.run();
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < RUN_COUNT; i++) {
+            long t0 = System.nanoTime();
+            task.run();
+            best = Math.min(best, (System.nanoTime() - t0) / 1000000);
+        }
+        System.out.println(label + ": " + best + " ms");
+        return best;
+    }
+}
@@ -0,0 +1,47 @@
+package riverside.ts.util;
+
+import RTi.Util.IO.BenchmarkUtil;
+
+/**
+ * Compare lookups in a 1000-row rating table using a linear scan, single binary-search lookups,
+ * batch lookups, and batch lookups with precomputed slopes, for ten years of hourly stages.
+ */
+public class TableLookupBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int nRows = 1000;
+        Table t = new Table(nRows);
+        for (int i = 0; i < nRows; i++) {
+            double stage = i * .01;
+            t.set(i, stage, 35.0 * Math.pow(stage, 1.6));
+        }
+        int nValues = 24 * 365 * 10;
+        double[] stages = new double[nValues];
+        for (int i = 0; i < nValues; i++) {
+            stages[i] = 5.0 + 4.9 * Math.sin(i * 2.0 * Math.PI / (24 * 30));
+        }
+        double[] column1 = t.getColumn(0);
+        double[] column2 = t.getColumn(1);
+        double[] out = new double[nValues];
+        String prefix = "Lookup of " + nValues + " values in " + nRows + "-row table, ";
+        BenchmarkUtil.time(prefix + "linear scan", () -> {
+            for (int i = 0; i < nValues; i++) {
+                double x = stages[i];
+                for (int j = 0; j < nRows - 1; j++) {
+                    if (x >= column1[j] && x < column1[j + 1]) {
+                        out[i] = column2[j] + (column2[j + 1] - column2[j]) * (x - column1[j]) / (column1[j + 1] - column1[j]);
+                        break;
+                    }
+                }
+            }
+        });
+        BenchmarkUtil.time(prefix + "binary search", () -> {
+            for (int i = 0; i < nValues; i++) {
+                out[i] = t.lookup(stages[i], 1, true);
+            }
+        });
+        BenchmarkUtil.time(prefix + "batch", () -> t.lookup(stages, out, 1, true));
+        t.setUsePrecomputedSlopes(true);
+        BenchmarkUtil.time(prefix + "batch with precomputed slopes", () -> t.lookup(stages, out, 1, true));
+    }
+}
@@ -23,6 +23,8 @@ NoticeEnd */
 
 package RTi.DMI;
 
+import java.sql.SQLException;
+
 import riverside.datastore.AbstractDataStore;
 
 /**
@@ -62,6 +64,23 @@ public DMI getDMI()
     return __dmi;
 }
 
+/**
+Open a DMI session for the current thread, after checking the database connection with checkDatabaseConnection().
+If the DMI uses a connection pool, the session uses a pooled connection so that
+the thread does not share a connection with other threads.
+The session must be closed by the same thread, typically using try-with-resources.
+@return a DMI session
+@exception SQLException if the database connection cannot be established
+*/
+public DMISession openDMISession ()
+throws SQLException
+{
+	if ( !checkDatabaseConnection() ) {
+		throw new SQLException ( "Database connection for datastore \"" + getName() + "\" is not open." );
+	}
+	return getDMI().openSession();
+}
+
 /**
 Set the DMI for the data store.
 @param dmi the DMI for the data store.
@@ -234,6 +234,33 @@ Connection that is used for the database interaction.
 */
 private Connection __connection;
 
+/**
+The connection URL and properties used to open the connection, used to open pooled connections.
+*/
+private String __connectionUrl = null;
+private Properties __connectionProps = null;
+
+/**
+Connection pool used by sessions, or null if sessions use the shared connection.
+The pool is created when the first session is opened, if the maximum pool size is > 0.
+*/
+private DMIConnectionPool __connectionPool = null;
+
+/**
+Maximum size of the connection pool, 0 to not use a pool.
+*/
+private int __connectionPoolMaxSize = 0;
+
+/**
+Idle timeout for the connection pool in milliseconds.
+*/
+private long __connectionPoolIdleTimeout = 300000;
+
+/**
+Session for each thread that has opened a session.
+*/
+private final ThreadLocal<DMISession> __session = new ThreadLocal<>();
+
 /**
  * Additional connection properties provided in the constructor:
  * - this are granular properties for the connection string that the engine must handle
@@ -780,6 +807,7 @@ any problems doing a Connection.close()
 public void close() throws SQLException {
 	String routine = getClass().getSimpleName() + ".close";
 	// Let the JDBC handle the close.
+	closeConnectionPool();
 	if (this.__connected) {
 		if ( Message.isDebugOn ) {
 			Message.printDebug(1, routine, "DMI database " + getDatabaseName() + " is connected.  Closing the connection.");
@@ -794,6 +822,17 @@ public void close() throws SQLException {
 	}
 }
 
+/**
+Close the connection pool, if used.
+Idle pooled connections are closed and connections used by open sessions are closed when the sessions are closed.
+*/
+private synchronized void closeConnectionPool () {
+	if ( this.__connectionPool != null ) {
+		this.__connectionPool.close();
+		this.__connectionPool = null;
+	}
+}
+
 /**
 Closes a result set and frees the resources associated with it.
 @param rs the ResultSet to close.
@@ -847,13 +886,22 @@ throws SQLException {
 /**
 Closes an statements that were opened during a transaction.
 Called automatically by commit() and rollback().
+If the current thread has a session with a pooled connection, only the session's statements are closed.
 */
 private void closeStatements() {
+	closeStatements ( getTransactionStatements() );
+}
+
+/**
+Close the statements that were created during a transaction and clear the list.
+@param statements statements to close
+*/
+private static void closeStatements ( List<Statement> statements ) {
 	String routine = "DMI.closeStatements()";
-	int size = this.__statementsVector.size();
+	int size = statements.size();
 	Statement s = null;
 	for (int i = 0; i < size; i++) {
-		s = this.__statementsVector.get(i);
+		s = statements.get(i);
 		try {
 			s.close();
 		}
@@ -862,10 +910,12 @@ private void closeStatements() {
 			Message.printWarning(3, routine, e);
 		}
 	}
+	statements.clear();
 }
 
 /**
 Commits any database operations that have been made since the beginning of the current transaction.
+If the current thread has a session with a pooled connection, the session's transaction is committed.
 @throws SQLException thrown if the java.sql code has any problems
 doing a Connection.commit() or in setAutoCommit(),
 or if the database was not connected when the call was made
@@ -877,21 +927,54 @@ public void commit() throws SQLException {
 		throw new SQLException ("Database not connected, cannot call DMI.commit().");
 	}
 
-	this.__inTransaction = false;
+	setInTransaction(false);
 
 	// Connection.commit() should only be used when autoCommit is turned off, so check that.
-	if (this.__autoCommit == false) {
-		this.__connection.commit();
+	if (getAutoCommit() == false) {
+		getConnection().commit();
 	}
 
 	// Since commit() marks the end of a transaction,
 	// turn autoCommit back on and mark the database as not dirty (clean).
 	setAutoCommit(true);
-	this.__dirty = false;
+	setDirty(false);
 
 	closeStatements();
 }
 
+/**
+Close a session, called by DMISession.close().
+If the session's connection was borrowed from a pool, it is returned to the pool that lent it,
+which closes the connection if the pool has since been closed.
+@param session session to close
+*/
+void closeSession ( DMISession session ) {
+	String routine = getClass().getSimpleName() + ".closeSession";
+	if ( session.isPooled() ) {
+		if ( !session.__autoCommit ) {
+			// Roll back an incomplete transaction using the session's connection,
+			// which is not necessarily the connection for the calling thread.
+			try {
+				session.getConnection().rollback();
+				session.getConnection().setAutoCommit ( true );
+			}
+			catch ( SQLException e ) {
+				Message.printWarning(3, routine, "Error rolling back transaction for closed session (" + e + ").");
+			}
+		}
+		session.__autoCommit = true;
+		session.__inTransaction = false;
+		session.__dirty = false;
+		closeStatements ( session.__statements );
+	}
+	if ( this.__session.get() == session ) {
+		this.__session.remove();
+	}
+	if ( session.isPooled() ) {
+		session.getPool().returnConnection ( session.getConnection() );
+	}
+}
+
 /**
 Indicate whether the database is connected.
 @return true if the database connection is made, false otherwise.
@@ -974,14 +1057,14 @@ public int dmiCount(String sql) throws SQLException{
 		Message.printDebug(dl, routine, "SQL to count (post): '" + sql + "'");
 	}
 
-	Statement s = this.__connection.createStatement();
+	Statement s = getConnection().createStatement();
 	ResultSet rs = s.executeQuery(sql);
 	rs.next();
 	int count = rs.getInt(1);
 
 	closeResultSet(rs);
-	if (this.__inTransaction) {
-		this.__statementsVector.add(s);
+	if (isInTransaction()) {
+		getTransactionStatements().add(s);
 	}
 	else {
 		s.close();
@@ -1081,7 +1164,7 @@ public int dmiDelete(String sql) throws SQLException {
 		throw new SQLException("Database in read-only mode, cannot execute a dmiDelete.");
 	}
 
-	Statement s = this.__connection.createStatement();
+	Statement s = getConnection().createStatement();
 	if (this.__capitalize) {
 		sql = sql.toUpperCase();
 	}
@@ -1097,8 +1180,8 @@ public int dmiDelete(String sql) throws SQLException {
 		throw ex;
 	}
 
-	if (this.__inTransaction) {
-		this.__statementsVector.add(s);
+	if (isInTransaction()) {
+		getTransactionStatements().add(s);
 	}
 	else {
 		s.close();
@@ -1134,15 +1217,15 @@ public int dmiExecute(String sql) throws SQLException {
 		Message.printDebug(dl, routine, "SQL: '" + sql + "'");
 	}
 
-	Statement s = this.__connection.createStatement();
+	Statement s = getConnection().createStatement();
 	if (this.__capitalize) {
 		sql = sql.toUpperCase();
 	}
 
 	int result = s.executeUpdate(sql);
 
-	if (this.__inTransaction) {
-		this.__statementsVector.add(s);
+	if (isInTransaction()) {
+		getTransactionStatements().add(s);
 	}
 	else {
 		s.close();
@@ -1237,7 +1320,7 @@ public ResultSet dmiSelect(String sql) throws SQLException {
 		Message.printDebug(dl, routine, "SQL: '" + sql + "'");
 	}
 
-	Statement s = this.__connection.createStatement();
+	Statement s = getConnection().createStatement();
 	ResultSet rs = null;
 	if (this.__capitalize) {
 		sql = sql.toUpperCase();
@@ -1331,7 +1414,7 @@ public int dmiWrite(String sql) throws SQLException {
 		Message.printDebug(dl, routine, "SQL: '" + sql + "'");
 	}
 
-	Statement s = this.__connection.createStatement();
+	Statement s = getConnection().createStatement();
 	if (this.__capitalize) {
 		sql = sql.toUpperCase();
 	}
@@ -1347,8 +1430,8 @@ public int dmiWrite(String sql) throws SQLException {
 		throw ex;
 	}
 
-	if (this.__inTransaction) {
-		this.__statementsVector.add(s);
+	if (isInTransaction()) {
+		getTransactionStatements().add(s);
 	}
 	else {
 		s.close();
@@ -1392,7 +1475,7 @@ throws SQLException, Exception {
 	// Set the DMIWriteStatement as the last statement executed.
 	setLastStatement(s);
 
-	Statement stmt = this.__connection.createStatement();
+	Statement stmt = getConnection().createStatement();
 
 	int rowCount = -1; // Number of rows inserted or updated.
 	switch (writeFlag) {
@@ -1591,8 +1674,8 @@ throws SQLException, Exception {
 			throw new Exception ("Unspecified WRITE type in DMI.dmiWrite:" + writeFlag);
 	}
 
-	if (this.__inTransaction) {
-		this.__statementsVector.add(stmt);
+	if (isInTransaction()) {
+		getTransactionStatements().add(stmt);
 	}
 	else {
 		stmt.close();
@@ -1785,9 +1868,14 @@ protected static List<String> getAllDatabaseTypes() {
 
 /**
 Returns the current value of the autoCommit setting.
+If the current thread has a session with a pooled connection, the session's setting is returned.
 @return the value of the autoCommit setting
 */
 public boolean getAutoCommit() {
+	DMISession session = getPooledSession();
+	if ( session != null ) {
+		return session.__autoCommit;
+	}
 	return this.__autoCommit;
 }
 
@@ -1801,12 +1889,26 @@ public boolean getCapitalize() {
 
 /**
 Returns the connection being used to interact with the database.
+If the current thread has opened a session with openSession(), the session's connection is returned.
+Otherwise the shared connection is returned.
 @return the connection being used to interact with the database
 */
 public Connection getConnection() {
+	DMISession session = this.__session.get();
+	if ( session != null ) {
+		return session.getConnection();
+	}
 	return this.__connection;
 }
 
+/**
+Return the connection pool used by sessions, or null if a pool is not used or has not been created.
+@return the connection pool used by sessions
+*/
+public DMIConnectionPool getConnectionPool() {
+	return this.__connectionPool;
+}
+
 /**
  * Get a connection property from this.connectionPropertiesMap as a string.
  * @param propertyName the name of the property
@@ -1831,7 +1933,7 @@ or null if there is no open connection.
 public DatabaseMetaData getDatabaseMetaData() {
 	if (this.__connected) {
 		try {
-			return this.__connection.getMetaData();
+			return getConnection().getMetaData();
 		}
 		catch (SQLException e) {
 			return null;
@@ -1976,12 +2078,31 @@ public static int getDefaultPort( DMIDatabaseType databaseType ) {
 
 /**
 Return the status of the dirty flag.
+If the current thread has a session with a pooled connection, the session's flag is returned.
 @return the status of the dirty flag
 */
 public boolean getDirty() {
+	DMISession session = getPooledSession();
+	if ( session != null ) {
+		return session.__dirty;
+	}
 	return this.__dirty;
 }
 
+/**
+Return the session for the current thread if it uses a pooled connection, or null if the thread
+does not have a session or the session uses the shared connection.
+Pooled sessions have their own transaction state.
+@return the session for the current thread if it uses a pooled connection
+*/
+private DMISession getPooledSession() {
+	DMISession session = this.__session.get();
+	if ( (session != null) && session.isPooled() ) {
+		return session;
+	}
+	return null;
+}
+
 /**
 Returns the ID string that identifies the connection.
 @return the ID string that identifies the connection.
@@ -2191,6 +2312,27 @@ public boolean isOpen() {
 	return this.__connected;
 }
 
+/**
+Indicate whether operations are currently being done in a transaction,
+for the current thread's pooled session if used.
+@return true if operations are being done in a transaction
+*/
+private boolean isInTransaction() {
+	DMISession session = getPooledSession();
+	if ( session != null ) {
+		return session.__inTransaction;
+	}
+	return this.__inTransaction;
+}
+
+/**
+Indicate whether the current thread has opened a session.
+@return true if the current thread has opened a session.
+*/
+public boolean isSessionOpen() {
+	return this.__session.get() != null;
+}
+
 /**
 Opens the connection to the DMI with information that was previously set,
 and sets printStatus to the given value while open() (the other version of the method,
@@ -2677,6 +2819,9 @@ throws SQLException, Exception {
     // - properties may contain the user and password from above
     // - properties may also contain other properties that cannot be passed in the connection URL
    	this.__connection = DriverManager.getConnection ( connUrl, connectionProps );
+   	// Save the URL and properties in case pooled connections are opened.
+   	this.__connectionUrl = connUrl;
+   	this.__connectionProps = connectionProps;
 
     if ( this.__loginTimeout >= 0 ) {
         // Now set back to the original timeout.
@@ -2695,6 +2840,54 @@ throws SQLException, Exception {
 	this.__connected = true;
 }
 
+/**
+Open a session, which binds a database connection to the current thread until the session is closed.
+While the session is open, DMI methods called from the thread use the session's connection.
+If a connection pool is enabled with setConnectionPool(), the connection is borrowed from the pool,
+which allows multiple threads to query the database concurrently.
+Otherwise, the shared connection is used, which is the same as not using a session.
+If the thread already has a session, the same session is returned and must be closed the same number of times.
+@return the session, which must be closed by the same thread
+@throws SQLException if the database is not connected or a pooled connection cannot be opened.
+*/
+public DMISession openSession()
+throws SQLException {
+	if (!this.__connected) {
+		throw new SQLException ("Database not connected.  Cannot make call to DMI.openSession().");
+	}
+	DMISession session = this.__session.get();
+	if ( session != null ) {
+		// Nested session.
+		return session.reopen();
+	}
+	DMIConnectionPool pool = null;
+	synchronized ( this ) {
+		if ( (this.__connectionPool == null) && (this.__connectionPoolMaxSize > 0) && (this.__connectionUrl != null) ) {
+			this.__connectionPool = new DMIConnectionPool ( () -> openPooledConnection(),
+				this.__connectionPoolMaxSize, this.__connectionPoolIdleTimeout );
+		}
+		pool = this.__connectionPool;
+	}
+	if ( pool == null ) {
+		session = new DMISession ( this, this.__connection, null );
+	}
+	else {
+		session = new DMISession ( this, pool.borrowConnection(), pool );
+	}
+	this.__session.set ( session );
+	return session;
+}
+
+/**
+Open a new connection for the connection pool, using the same URL and properties as the shared connection.
+*/
+private Connection openPooledConnection()
+throws SQLException {
+	Connection connection = DriverManager.getConnection ( this.__connectionUrl, this.__connectionProps );
+	connection.setAutoCommit ( true );
+	return connection;
+}
+
 /**
 A helper method called by the open() methods that determines whether output needs to go to debug as normal,
 or should be forced to status level 2.
@@ -2720,6 +2913,7 @@ public abstract void readGlobalData () throws SQLException, Exception;
 
 /**
 Attempts to perform a rollback to cancel database changes since the start of the last transaction.
+If the current thread has a session with a pooled connection, the session's transaction is rolled back.
 @throws SQLException thrown by Connection.rollback() or Connection.setAutoCommit,
 or when the database is not connected
 */
@@ -2733,16 +2927,16 @@ public void rollback() throws SQLException {
 	String routine = "DMI.rollback";
 	int dl = 25;
 
-	this.__inTransaction = false;
+	setInTransaction(false);
 	if (Message.isDebugOn) {
 		Message.printDebug(dl, routine, "[method called]");
 	}
 
-	__connection.rollback();
+	getConnection().rollback();
 
 	// Since a rollback signifies the end of a transaction, set the autoCommit setting back to being on.
 	setAutoCommit(true);
-	this.__dirty = false;
+	setDirty(false);
 	closeStatements();
 }
 
@@ -2759,6 +2953,7 @@ public void setAdditionalConnectionProperties ( String additionalConnectionPrope
 
 /**
 Sets the autoCommit setting for the database.
+If the current thread has a session with a pooled connection, only the session's connection is changed.
 @param autoCommitSetting the autoCommit setting.
 @throws SQLException thrown by Connection.setAutoCommit(), or if the database is not connected
 */
@@ -2778,13 +2973,33 @@ public void setAutoCommit(boolean autoCommitSetting) throws SQLException {
 		Message.printDebug(dl, routine, "autoCommit: " + autoCommitSetting);
 	}
 
-	this.__autoCommit = autoCommitSetting;
+	DMISession session = getPooledSession();
+	if ( session != null ) {
+		session.__autoCommit = autoCommitSetting;
+	}
+	else {
+		this.__autoCommit = autoCommitSetting;
+	}
 
 	if (this.__database_engine_String.equalsIgnoreCase("SOMETHING") ) {
 		// TODO handle this differently -- i.e., does MS Access blow up when trying to setAutoCommit?
 	}
 	else {
-		this.__connection.setAutoCommit(autoCommitSetting);
+		getConnection().setAutoCommit(autoCommitSetting);
+	}
+}
+
+/**
+Set the dirty flag, for the current thread's pooled session if used.
+@param dirty whether writes have been done to the database (uncommitted)
+*/
+private void setDirty(boolean dirty) {
+	DMISession session = getPooledSession();
+	if ( session != null ) {
+		session.__dirty = dirty;
+	}
+	else {
+		this.__dirty = dirty;
 	}
 }
 
@@ -2796,6 +3011,22 @@ public void setCapitalize(boolean capitalize) {
 	this.__capitalize = capitalize;
 }
 
+/**
+Set the connection pool used by sessions opened with openSession().
+The pool is created when the first session is opened and pooled connections are opened
+with the same URL and properties as the shared connection.
+Changing the pool settings closes the existing pool.
+@param maxSize maximum number of pooled connections, or 0 to not use a pool (sessions will use the shared connection).
+@param idleTimeoutSeconds time in seconds after which an idle pooled connection is closed, or 0 to keep open.
+*/
+public void setConnectionPool ( int maxSize, int idleTimeoutSeconds ) {
+	closeConnectionPool();
+	synchronized ( this ) {
+		this.__connectionPoolMaxSize = Math.max(0, maxSize);
+		this.__connectionPoolIdleTimeout = idleTimeoutSeconds*1000L;
+	}
+}
+
 /**
 Sets the connection used to interact with the database.
 In this way, the connection established with one DMI can be passed to a different one so
@@ -3135,6 +3366,20 @@ public void setUserPassword ( String password ) {
 	this.__user_password = password;
 }
 
+/**
+Set whether operations are currently being done in a transaction, for the current thread's pooled session if used.
+@param inTransaction whether operations are being done in a transaction
+*/
+private void setInTransaction(boolean inTransaction) {
+	DMISession session = getPooledSession();
+	if ( session != null ) {
+		session.__inTransaction = inTransaction;
+	}
+	else {
+		this.__inTransaction = inTransaction;
+	}
+}
+
 /**
 Starts a transaction, first rolling back any changes that may have been
 made to the database since the start of the last transaction.
@@ -3145,13 +3390,13 @@ public void startTransaction() throws SQLException {
 		throw new SQLException ("Database not connected.  Cannot make call to DMI.startTransaction().");
 	}
 
-	this.__dirty = false;
+	setDirty(false);
 	startTransaction(ROLLBACK);
 
 	// TODO (JTS - 2004-07-20) nothing in here to actually START a transaction.
 	// Other transactions are either committed or rolled back, but where is one started?
 
-	this.__inTransaction = true;
+	setInTransaction(true);
 }
 
 /**
@@ -3193,9 +3438,21 @@ public void startTransaction(int action) throws SQLException {
 Sets the dirty flag if autocommit is set to off.  otherwise, does nothing.
 */
 private void testAndSetDirty() {
-	if (this.__autoCommit == false) {
-		this.__dirty = true;
+	if (getAutoCommit() == false) {
+		setDirty(true);
+	}
+}
+
+/**
+Return the statements that were created during a transaction, for the current thread's pooled session if used.
+@return the statements that were created during a transaction
+*/
+private List<Statement> getTransactionStatements() {
+	DMISession session = getPooledSession();
+	if ( session != null ) {
+		return session.__statements;
 	}
+	return this.__statementsVector;
 }
 
 /**
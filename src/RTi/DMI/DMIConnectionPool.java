@@ -0,0 +1,401 @@
+// DMIConnectionPool - pool of JDBC connections for a DMI
+
+/* NoticeStart
+
+CDSS Common Java Library
+CDSS Common Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2026 Colorado Department of Natural Resources
+
+CDSS Common Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+CDSS Common Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with CDSS Common Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package RTi.DMI;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+import RTi.Util.Message.Message;
+
+/**
+Simple pool of JDBC connections, used by DMI so that multiple threads can each use their own connection.
+Connections are created as needed up to the maximum size.
+Idle connections are closed after the idle timeout and are validated with Connection.isValid()
+before being lent if they have been idle longer than the validation interval.
+If all connections are in use, borrowConnection() waits until a connection is returned.
+The pool is normally used via DMI.openSession() rather than directly.
+*/
+public class DMIConnectionPool
+{
+
+/**
+Interface to create a new connection for the pool.
+*/
+public interface ConnectionFactory {
+	/**
+	Create a new open connection.
+	@return a new connection
+	@exception SQLException if the connection cannot be created
+	*/
+	public Connection createConnection () throws SQLException;
+}
+
+/**
+Idle connection and the time that it was returned to the pool.
+*/
+private static class IdleConnection {
+	final Connection connection;
+	final long returnTime;
+
+	IdleConnection ( Connection connection, long returnTime ) {
+		this.connection = connection;
+		this.returnTime = returnTime;
+	}
+}
+
+/**
+Factory to create connections.
+*/
+private final ConnectionFactory __factory;
+
+/**
+Maximum number of connections, idle and in use.
+*/
+private final int __maxSize;
+
+/**
+Time in milliseconds after which an idle connection is closed, or 0 to keep idle connections open.
+*/
+private final long __idleTimeout;
+
+/**
+Time in milliseconds after which an idle connection is validated before being lent.
+*/
+private long __validationInterval = 5000;
+
+/**
+Timeout in seconds for Connection.isValid().
+*/
+private int __validationTimeout = 5;
+
+/**
+Maximum time in milliseconds to wait for a connection when all are in use.
+*/
+private long __maxWait = 60000;
+
+/**
+Idle connections, most recently returned last.
+*/
+private final ArrayDeque<IdleConnection> __idle = new ArrayDeque<>();
+
+/**
+Number of connections that are lent.
+*/
+private int __activeCount = 0;
+
+/**
+Whether the pool has been closed.
+*/
+private boolean __closed = false;
+
+/**
+Statistics.
+*/
+private long __borrowCount = 0;
+private long __createCount = 0;
+private long __waitCount = 0;
+private long __invalidCount = 0;
+
+/**
+Create a connection pool.
+@param factory factory to create connections
+@param maxSize maximum number of connections, idle and in use
+@param idleTimeout time in milliseconds after which an idle connection is closed, or 0 to keep idle connections open
+*/
+public DMIConnectionPool ( ConnectionFactory factory, int maxSize, long idleTimeout ) {
+	if ( maxSize < 1 ) {
+		throw new IllegalArgumentException ( "Connection pool size (" + maxSize + ") must be >= 1." );
+	}
+	this.__factory = factory;
+	this.__maxSize = maxSize;
+	this.__idleTimeout = Math.max(0, idleTimeout);
+}
+
+/**
+Borrow a connection from the pool, creating one if none are idle and the pool is not full.
+The connection must be returned with returnConnection().
+@return an open connection
+@exception SQLException if a connection cannot be created or the wait for a connection times out.
+*/
+public Connection borrowConnection ()
+throws SQLException {
+	String routine = getClass().getSimpleName() + ".borrowConnection";
+	long waitEnd = System.currentTimeMillis() + this.__maxWait;
+	while ( true ) {
+		IdleConnection idle = null;
+		synchronized ( this ) {
+			checkOpen ();
+			closeIdleConnections ( false );
+			idle = this.__idle.pollLast();
+			if ( idle == null ) {
+				if ( (this.__activeCount + this.__idle.size()) < this.__maxSize ) {
+					// Reserve a connection and create outside the lock below.
+					++this.__activeCount;
+					++this.__borrowCount;
+				}
+				else {
+					// Wait for a connection to be returned.
+					long wait = waitEnd - System.currentTimeMillis();
+					if ( wait <= 0 ) {
+						throw new SQLException ( "Timed out waiting for a database connection (all " +
+							this.__maxSize + " connections are in use)." );
+					}
+					++this.__waitCount;
+					try {
+						wait ( wait );
+					}
+					catch ( InterruptedException e ) {
+						Thread.currentThread().interrupt();
+						throw new SQLException ( "Interrupted waiting for a database connection." );
+					}
+					continue;
+				}
+			}
+			else {
+				++this.__activeCount;
+				++this.__borrowCount;
+			}
+		}
+		if ( idle == null ) {
+			// Create a new connection.
+			try {
+				Connection connection = this.__factory.createConnection();
+				synchronized ( this ) {
+					++this.__createCount;
+				}
+				return connection;
+			}
+			catch ( SQLException | RuntimeException e ) {
+				release ();
+				throw e;
+			}
+		}
+		// Validate the idle connection if it has been idle a while.
+		if ( (System.currentTimeMillis() - idle.returnTime) < this.__validationInterval ) {
+			return idle.connection;
+		}
+		try {
+			if ( idle.connection.isValid(this.__validationTimeout) ) {
+				return idle.connection;
+			}
+		}
+		catch ( SQLException e ) {
+			// Treat as invalid.
+		}
+		if ( Message.isDebugOn ) {
+			Message.printDebug ( 1, routine, "Pooled connection is no longer valid - closing and trying another." );
+		}
+		synchronized ( this ) {
+			++this.__invalidCount;
+		}
+		closeQuietly ( idle.connection );
+		release ();
+	}
+}
+
+/**
+Check that the pool is open.
+*/
+private void checkOpen ()
+throws SQLException {
+	if ( this.__closed ) {
+		throw new SQLException ( "Database connection pool has been closed." );
+	}
+}
+
+/**
+Close the pool, closing idle connections.
+Connections that are in use are closed when they are returned.
+*/
+public synchronized void close () {
+	this.__closed = true;
+	closeIdleConnections ( true );
+	notifyAll();
+}
+
+/**
+Close idle connections that have timed out.
+@param all if true, close all idle connections.
+*/
+private synchronized void closeIdleConnections ( boolean all ) {
+	long now = System.currentTimeMillis();
+	for ( Iterator<IdleConnection> it = this.__idle.iterator(); it.hasNext(); ) {
+		IdleConnection idle = it.next();
+		if ( all || ((this.__idleTimeout > 0) && ((now - idle.returnTime) > this.__idleTimeout)) ) {
+			it.remove();
+			closeQuietly ( idle.connection );
+		}
+	}
+}
+
+/**
+Close a connection, ignoring errors.
+*/
+private void closeQuietly ( Connection connection ) {
+	try {
+		connection.close();
+	}
+	catch ( SQLException e ) {
+		if ( Message.isDebugOn ) {
+			Message.printDebug ( 1, getClass().getSimpleName() + ".closeQuietly", "Error closing pooled connection (" + e + ")." );
+		}
+	}
+}
+
+/**
+Return the number of connections that are in use.
+@return the number of connections that are in use.
+*/
+public synchronized int getActiveCount () {
+	return this.__activeCount;
+}
+
+/**
+Return the number of times that a connection was borrowed.
+@return the number of times that a connection was borrowed.
+*/
+public synchronized long getBorrowCount () {
+	return this.__borrowCount;
+}
+
+/**
+Return the number of connections that have been created.
+@return the number of connections that have been created.
+*/
+public synchronized long getCreateCount () {
+	return this.__createCount;
+}
+
+/**
+Return the number of idle connections.
+@return the number of idle connections.
+*/
+public synchronized int getIdleCount () {
+	return this.__idle.size();
+}
+
+/**
+Return the idle timeout in milliseconds.
+@return the idle timeout in milliseconds.
+*/
+public long getIdleTimeout () {
+	return this.__idleTimeout;
+}
+
+/**
+Return the number of idle connections that failed validation.
+@return the number of idle connections that failed validation.
+*/
+public synchronized long getInvalidCount () {
+	return this.__invalidCount;
+}
+
+/**
+Return the maximum number of connections.
+@return the maximum number of connections.
+*/
+public int getMaxSize () {
+	return this.__maxSize;
+}
+
+/**
+Return the number of times that a thread had to wait for a connection.
+@return the number of waits.
+*/
+public synchronized long getWaitCount () {
+	return this.__waitCount;
+}
+
+/**
+Release a reserved connection that was not lent.
+*/
+private synchronized void release () {
+	--this.__activeCount;
+	notifyAll();
+}
+
+/**
+Return a connection to the pool.
+If the connection is not in auto-commit mode, uncommitted changes are rolled back and auto-commit is turned back on
+so that the next borrower gets a connection in the default mode.
+Closed connections, and connections that cannot be reset, are discarded.
+If the pool has been closed, the connection is closed.
+@param connection connection that was previously borrowed
+*/
+public void returnConnection ( Connection connection ) {
+	boolean keep = false;
+	try {
+		if ( !connection.isClosed() ) {
+			if ( !connection.getAutoCommit() ) {
+				connection.rollback();
+				connection.setAutoCommit ( true );
+			}
+			keep = true;
+		}
+	}
+	catch ( SQLException e ) {
+		// Connection is broken so don't reuse.
+		keep = false;
+	}
+	synchronized ( this ) {
+		--this.__activeCount;
+		if ( keep && !this.__closed ) {
+			this.__idle.addLast ( new IdleConnection(connection, System.currentTimeMillis()) );
+			connection = null;
+		}
+		notifyAll();
+	}
+	if ( connection != null ) {
+		closeQuietly ( connection );
+	}
+}
+
+/**
+Set the maximum time to wait for a connection when all connections are in use.
+@param maxWait maximum time to wait in milliseconds
+*/
+public synchronized void setMaxWait ( long maxWait ) {
+	this.__maxWait = maxWait;
+}
+
+/**
+Set the time after which an idle connection is validated before being lent.
+@param validationInterval time in milliseconds
+*/
+public synchronized void setValidationInterval ( long validationInterval ) {
+	this.__validationInterval = validationInterval;
+}
+
+/**
+Return a string representation of the pool, useful for troubleshooting.
+*/
+public synchronized String toString () {
+	return "DMIConnectionPool maxSize=" + this.__maxSize + " active=" + this.__activeCount +
+		" idle=" + this.__idle.size() + " created=" + this.__createCount + " borrowed=" + this.__borrowCount +
+		" waits=" + this.__waitCount + " invalid=" + this.__invalidCount;
+}
+
+}
@@ -0,0 +1,162 @@
+// DMISession - per-thread use of a pooled DMI connection
+
+/* NoticeStart
+
+CDSS Common Java Library
+CDSS Common Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2026 Colorado Department of Natural Resources
+
+CDSS Common Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+CDSS Common Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with CDSS Common Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package RTi.DMI;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+A DMI session binds a database connection to the current thread so that DMI methods called by the thread,
+including DMI.getConnection(), use that connection.
+Sessions are opened with DMI.openSession() and must be closed by the same thread, typically using try-with-resources:
+<pre>
+try ( DMISession session = dmi.openSession() ) {
+	... use dmi as usual ...
+}
+</pre>
+If the DMI has a connection pool, the connection is borrowed from the pool and is returned when the session is closed,
+so that threads using separate sessions do not share a connection.
+If the DMI does not use a pool, the session uses the DMI's shared connection.
+Nested sessions on the same thread use the same connection.
+<p>
+A session with a pooled connection has its own transaction state (autoCommit, dirty flag and transaction statements),
+so DMI.setAutoCommit(), commit(), rollback() and startTransaction() called by the thread only affect its own connection.
+A session that uses the shared connection uses the DMI's transaction state, as when a session is not used.
+If a pooled session is closed while autoCommit is off, uncommitted changes are rolled back before
+the connection is returned to the pool.
+*/
+public class DMISession implements AutoCloseable
+{
+
+/**
+DMI that opened the session.
+*/
+private final DMI __dmi;
+
+/**
+Connection used by the session.
+*/
+private final Connection __connection;
+
+/**
+Pool that lent the connection and to which it must be returned, or null if the DMI's shared connection is used.
+The DMI's pool may be replaced if the DMI reconnects, so the pool that lent the connection is retained.
+*/
+private final DMIConnectionPool __pool;
+
+/**
+Number of times the session has been opened on the thread, to handle nested sessions.
+*/
+private int __openCount = 1;
+
+/**
+Whether database changes are automatically committed, for a pooled connection.
+*/
+boolean __autoCommit = true;
+
+/**
+Whether operations are currently being done in a transaction, for a pooled connection.
+*/
+boolean __inTransaction = false;
+
+/**
+True if any writes have been done to the database (uncommitted), for a pooled connection.
+*/
+boolean __dirty = false;
+
+/**
+Statements that were created during a transaction, for a pooled connection,
+so they can be closed when the transaction is committed or rolled back.
+*/
+final List<Statement> __statements = new ArrayList<>();
+
+/**
+Construct a session.  Called by DMI.openSession().
+@param dmi DMI that opened the session
+@param connection connection used by the session
+@param pool pool that lent the connection, or null if the DMI's shared connection is used
+*/
+DMISession ( DMI dmi, Connection connection, DMIConnectionPool pool ) {
+	this.__dmi = dmi;
+	this.__connection = connection;
+	this.__pool = pool;
+}
+
+/**
+Close the session.  If this is the outermost session on the thread, the connection is returned to the pool.
+*/
+public void close () {
+	if ( this.__openCount <= 0 ) {
+		// Already closed.
+		return;
+	}
+	--this.__openCount;
+	if ( this.__openCount == 0 ) {
+		this.__dmi.closeSession ( this );
+	}
+}
+
+/**
+Return the connection used by the session.
+@return the connection used by the session.
+*/
+public Connection getConnection () {
+	return this.__connection;
+}
+
+/**
+Return the DMI that opened the session.
+@return the DMI that opened the session.
+*/
+public DMI getDMI () {
+	return this.__dmi;
+}
+
+/**
+Return the pool that lent the connection.
+@return the pool that lent the connection, or null if the DMI's shared connection is used.
+*/
+DMIConnectionPool getPool () {
+	return this.__pool;
+}
+
+/**
+Increment the open count for a nested session.
+*/
+DMISession reopen () {
+	++this.__openCount;
+	return this;
+}
+
+/**
+Indicate whether the connection was borrowed from a pool.
+@return true if the connection was borrowed from a pool.
+*/
+public boolean isPooled () {
+	return this.__pool != null;
+}
+
+}
@@ -29,6 +29,7 @@ import java.io.File;
 import java.io.IOException;
 import java.util.List;
 
+import RTi.GR.GRLimits;
 import RTi.GR.GRPoint;
 import RTi.GR.GRPointZM;
 import RTi.GR.GRPolygon;
@@ -44,6 +45,7 @@ import RTi.Util.IO.EndianRandomAccessFile;
 import RTi.Util.IO.IOUtil;
 import RTi.Util.IO.PropList;
 import RTi.Util.Message.Message;
+import RTi.Util.String.StringUtil;
 import RTi.Util.Table.DataTable;
 import RTi.Util.Table.DbaseDataTable;
 
@@ -65,7 +67,10 @@ large and it is impractical to read all data into memory.  With the
 implementation of the EndianRandomAccessFile, it is now possible to <b>not</b>
 read attribute data when the file is opened and only read it when necessary.
 This may slow performance if a full map is viewed; however, when zoomed in,
-performance is usually very fast and little memory is used.  A shapefile can
+performance is usually very fast and little memory is used.  Similarly, shapes
+can be read on demand (see the ReadShapesOnDemand property), in which case the
+.shp file is memory-mapped and each shape is read when first requested, using
+an ESRIShapefileShapeList.  A shapefile can
 be read using the ESRIShapefile constructor or by relying on the
 GeoLayer.readLayer() method.
 */
@@ -154,6 +159,17 @@ read and attributes will be read on the fly.
 */
 private boolean _read_attributes = false;
 
+/**
+Read shapes only when requested?  If true, the .shp file is memory-mapped and
+shapes are read on demand using an ESRIShapefileShapeList.
+*/
+private boolean _read_shapes_on_demand = false;
+
+/**
+Maximum number of shapes kept in memory when reading shapes on demand.
+*/
+private int _shape_cache_size = ESRIShapefileShapeList.DEFAULT_CACHE_SIZE;
+
 /**
 Construct a shapefile by reading its files, given the path to the shapefile.
 The file name should include the .shp file extension.
@@ -197,6 +213,21 @@ following options are recognized:
 <td>Indicates whether attributes should be read.</td>
 <td>false (true will result in slower performance but complete access to attribute data).</td>
 </tr>
+
+<tr>
+<td><b>ReadShapesOnDemand</b></td>
+<td>Indicates whether shapes should be read only when requested, which is faster and uses less memory
+for large shapefiles when only part of the layer is displayed.  The .shp file must be a local file and the
+.shx index file must be available.  If not, all shapes are read.</td>
+<td>false</td>
+</tr>
+
+<tr>
+<td><b>ShapeCacheSize</b></td>
+<td>Maximum number of shapes to keep in memory when reading shapes on demand.  Shapes that have been
+selected, hidden, or associated with an object are always kept in memory.</td>
+<td>1000</td>
+</tr>
 </table>
 */
 public ESRIShapefile ( PropList props )
@@ -218,6 +249,26 @@ throws IOException
 	}
 }
 
+/**
+Compute the spatial limits of the layer.  Use getLimits() to retrieve the limits.
+If shapes are read on demand, the bounding boxes from the file are used so that all shapes do not need to be read.
+@param include_invisible Indicate that invisible shapes should be considered in the limits computation.
+@exception Exception if the limits cannot be computed (e.g., all null data, all missing, etc.).
+*/
+public void computeLimits ( boolean include_invisible )
+throws Exception
+{	List<GRShape> shapes = getShapes();
+	if ( !(shapes instanceof ESRIShapefileShapeList) ) {
+		super.computeLimits ( include_invisible );
+		return;
+	}
+	GRLimits limits = ((ESRIShapefileShapeList)shapes).getLimits ( include_invisible );
+	if ( limits == null ) {
+		throw new Exception ( "Cannot find GeoLayer limits" );
+	}
+	setLimits ( limits );
+}
+
 /**
 Return the data value for a shape.  The object will be a Double, or String.
 Use the DataTable methods to get field formats for output.
@@ -266,6 +317,15 @@ private void initialize ()
 			_read_attributes = false;
 		}
 	}
+
+	prop_value = _props.getValue ( "ReadShapesOnDemand" );
+	if ( (prop_value != null) && prop_value.equalsIgnoreCase("true") ) {
+		_read_shapes_on_demand = true;
+	}
+	prop_value = _props.getValue ( "ShapeCacheSize" );
+	if ( (prop_value != null) && StringUtil.isInteger(prop_value.trim()) ) {
+		_shape_cache_size = Integer.parseInt(prop_value.trim());
+	}
 }
 
 /**
@@ -309,6 +369,30 @@ public static boolean isESRIShapefile ( String filename )
 	}
 }
 
+/**
+Project the layer using the given projection.
+If shapes are read on demand, shapes in memory are projected and other shapes are projected when read.
+@param projection to change to.
+*/
+public void project ( GeoProjection projection ) {
+	List<GRShape> shapes = getShapes();
+	if ( !(shapes instanceof ESRIShapefileShapeList) ) {
+		super.project ( projection );
+		return;
+	}
+	if ( !GeoProjection.needToProject(getProjection(), projection) ) {
+		return;
+	}
+	((ESRIShapefileShapeList)shapes).project ( getProjection(), projection );
+	try {
+		computeLimits ( true );
+	}
+	catch ( Exception e ) {
+		// Should not matter.
+	}
+	setProjection ( projection );
+}
+
 /**
 Read the three shapefile files, as appropriate (only the .dbf header will be read if reading attributes is false, which is the default).
 @exception IOException if an error occurs.
@@ -322,9 +406,24 @@ throws IOException {
 	}
 	readDBF ( _dbf_file, _read_attributes );
 
+	if ( _read_shapes_on_demand ) {
+		// Read the SHP header and then map the shapes using the SHX file.
+		readSHP ( false );
+		try {
+			setShapes ( new ESRIShapefileShapeList ( _shp_file, _shx_file, _shape_cache_size ) );
+			Message.printStatus ( 2, "ESRIShapefile.read", "Mapped " + getShapes().size() +
+				" shapes from \"" + _shp_file + "\" to read on demand." );
+			return;
+		}
+		catch ( Exception e ) {
+			Message.printWarning ( 2, "ESRIShapefile.read", "Unable to read shapes on demand from \"" +
+				_shp_file + "\" (" + e + ").  Reading all shapes." );
+		}
+	}
+
 	// Read the SHP file.
 
-	readSHP();
+	readSHP ( true );
 
 	// Read the SHX file.
 
@@ -367,9 +466,10 @@ throws IOException
 
 /**
 Read the shapes from the .shp file.
+@param readShapes if true, read the shapes, if false read only the header
 @exception if an error occurs.
 */
-private void readSHP ()
+private void readSHP ( boolean readShapes )
 throws IOException
 {	String message = null;
 	String routine = "ESRIShapefile.read";
@@ -498,22 +598,15 @@ throws IOException
 	buffer = new byte[32 - bytesExtraRead];
 	_shp_stream.read(buffer);
 
+	if ( !readShapes ) {
+		_shp_stream.close();
+		_shp_stream = null;
+		return;
+	}
+
 	// Read the data...
 
-	int content_length = 0, i = 0, iend = 0, j = 0,
-		npolygons = 0, npolylines = 0, npts = 0,
-		num_points = 0, pos_array[] = null,
-		recordNumber = 0, esriShapeType, total_npts = 0;
-	double x = 0.0, y = 0.0, z = 0.0, m = 0.0;
-	GRPoint point = null;
-	GRPointZM pointzm = null;
-	GRPolypoint polypoint = null;
-	GRPolygon polygon = null;
-	GRPolygonList polygonlist = null;
-	GRPolyline polyline = null;
-	GRPolylineZM polylinezm = null;
-	GRPolylineList polylinelist = null;
-	GRPolylineZMList polylinezmlist = null;
+	int content_length = 0, recordNumber = 0, esriShapeType;
 	List<GRShape> shapes = getShapes(); // From base class
 	while ( true ) {
 		try {
@@ -538,274 +631,9 @@ throws IOException
 			// Documentation says that shape types can't be
 			// mixed but we don't really care at this point so
 			// don't check against the file shape type.
-			if ( esriShapeType == UNKNOWN ) {
-				// No geometry data...  Instantiate a shape of unknown type...
-				shapes.add ( new GRShape(recordNumber - 1 ) );
-				//Message.printStatus(2, routine, "Adding null shape " + shapes.size() );
-				continue;
-			}
-			else if ( esriShapeType == ARC ) {
-				// Read the box.
-				xmin = _shp_stream.readLittleEndianDouble();
-				ymin = _shp_stream.readLittleEndianDouble();
-				xmax = _shp_stream.readLittleEndianDouble();
-				ymax = _shp_stream.readLittleEndianDouble();
-				// Read the number of polylines...
-				npolylines = _shp_stream.readLittleEndianInt();
-				// Allocate memory and set the limits...
-				polylinelist = new GRPolylineList (	npolylines );
-				polylinelist.index = recordNumber - 1;
-				polylinelist.xmin = xmin;
-				polylinelist.ymin = ymin;
-				polylinelist.xmax = xmax;
-				polylinelist.ymax = ymax;
-				polylinelist.limits_found = true;
-				// Read the total number of points...
-				total_npts = _shp_stream.readLittleEndianInt();
-				polylinelist.total_npts = total_npts;
-				// Read the position index.  Reuse this array to optimize performance...
-				if ( pos_array == null ) {
-					// Create it...
-					pos_array = new int[npolylines];
-				}
-				else if ( pos_array.length < npolylines ) {
-					// Resize bigger...
-					pos_array = new int[npolylines];
-				}
-				for ( i = 0; i < npolylines; i++ ) {
-					pos_array[i] =
-					_shp_stream.readLittleEndianInt();
-				}
-				// Loop through the polylines...
-				iend = npolylines - 1;
-				for ( i = 0; i < npolylines; i++ ) {
-					// Figure out how many points in the polyline...
-					if ( i == iend ) {
-						// Last polyline
-						npts = total_npts - pos_array[i];
-					}
-					else {
-						// Not last...
-						npts = pos_array[i + 1] - pos_array[i];
-					}
-					// Allocate the polyline and fill...
-					polyline = new GRPolyline ( npts );
-					polyline.index = recordNumber - 1;
-					for ( j = 0; j < npts; j++ ) {
-						x = _shp_stream.readLittleEndianDouble();
-						y = _shp_stream.readLittleEndianDouble();
-						polyline.setPoint ( j, new GRPoint(x,y) );
-					}
-					polylinelist.setPolyline ( i, polyline);
-				}
-				shapes.add ( polylinelist);
-			}
-			else if ( esriShapeType == MULTIPOINT ) {
-				// Read the box.
-				xmin = _shp_stream.readLittleEndianDouble();
-				ymin = _shp_stream.readLittleEndianDouble();
-				xmax = _shp_stream.readLittleEndianDouble();
-				ymax = _shp_stream.readLittleEndianDouble();
-				// Read the number of points...
-				num_points = _shp_stream.readLittleEndianInt();
-				// Save a GRPolypoint, using the record number as the attribute table index...
-				polypoint = new GRPolypoint ( (recordNumber - 1), num_points );
-				shapes.add ( polypoint);
-				for ( i = 0; i < num_points; i++ ) {
-					x =_shp_stream.readLittleEndianDouble();
-					y =_shp_stream.readLittleEndianDouble();
-					polypoint.setPoint ( i, x, y );
-				}
-			}
-			else if ( (esriShapeType == POINT) || (esriShapeType == POINT_ZM) ) {
-				x = _shp_stream.readLittleEndianDouble ();
-				y = _shp_stream.readLittleEndianDouble ();
-				if ( esriShapeType == POINT_ZM ) {
-					z = _shp_stream.readLittleEndianDouble ();
-					m = _shp_stream.readLittleEndianDouble ();
-				}
-				// Save a point, using the record number as the attribute table index...
-				if ( esriShapeType == POINT ) {
-					point = new GRPoint((recordNumber - 1),x,y);
-				}
-				else {
-					point = new GRPointZM((recordNumber - 1),x,y,z,m);
-				}
-				point.xmin = x;
-				point.ymin = y;
-				point.xmax = x;
-				point.ymax = y;
-				point.limits_found = true;
-				shapes.add ( point );
-				if ( Message.isDebugOn ) {
-					Message.printDebug ( dl, routine, "Point x,y =" + x + "," + y);
-				}
-				// TODO SAM 2006-01-23 Some CDSS point data are having very large
-				// negative values assigned, which results in
-				// erroneous displays.  Change to UNKNOWN shape type here in these cases.
-				if ( x < -1.0e50 ) {
-					// Will reset in base class...
-					point.type = UNKNOWN;
-					if ( Message.isDebugOn ) {
-						Message.printDebug ( dl,routine, "Resetting shape type to " + UNKNOWN );
-					}
-				}
-			}
-			else if ( esriShapeType == POLYGON ) {
-				// Read the box.
-				xmin = _shp_stream.readLittleEndianDouble();
-				ymin = _shp_stream.readLittleEndianDouble();
-				xmax = _shp_stream.readLittleEndianDouble();
-				ymax = _shp_stream.readLittleEndianDouble();
-				if ( Message.isDebugOn ) {
-					Message.printDebug ( dl, routine,
-					"Bounding box is " + xmin + "," + ymin + " " + xmax + "," + ymax );
-				}
-				// Read the number of polygons...
-				npolygons = _shp_stream.readLittleEndianInt();
-				if ( Message.isDebugOn ) {
-					Message.printDebug ( dl, routine, "Number of polygons is " + npolygons );
-				}
-				// Allocate memory and set the limits...
-				polygonlist = new GRPolygonList ( npolygons );
-				polygonlist.index = recordNumber - 1;
-				polygonlist.xmin = xmin;
-				polygonlist.ymin = ymin;
-				polygonlist.xmax = xmax;
-				polygonlist.ymax = ymax;
-				polygonlist.limits_found = true;
-				// Read the total number of points...
-				total_npts = _shp_stream.readLittleEndianInt();
-				if ( Message.isDebugOn ) {
-					Message.printDebug ( dl, routine, "Total number of points is " + total_npts );
-				}
-				polygonlist.total_npts = total_npts;
-				// Read the position index.  Reuse this array to optimize performance...
-				if ( pos_array == null ) {
-					// Create it...
-					pos_array = new int[npolygons];
-				}
-				else if ( pos_array.length < npolygons ) {
-					// Resize bigger...
-					pos_array = new int[npolygons];
-				}
-				// Now read the positions...
-				for ( i = 0; i < npolygons; i++ ) {
-					pos_array[i] = _shp_stream.readLittleEndianInt();
-					if ( Message.isDebugOn ) {
-						Message.printDebug ( dl,routine, "Position[" + i + "] is " + pos_array[i] );
-					}
-				}
-				// Loop through the polygons...
-				iend = npolygons - 1;
-				for ( i = 0; i < npolygons; i++ ) {
-					// Figure out how many points in the polygon...
-					if ( i == iend ) {
-						// Last polygon...
-						npts = total_npts - pos_array[i];
-					}
-					else {
-						// Not last...
-						npts = pos_array[i + 1] - pos_array[i];
-					}
-					// Allocate the polygon and fill...
-					polygon = new GRPolygon ( npts );
-					for ( j = 0; j < npts; j++ ) {
-						x = _shp_stream.readLittleEndianDouble();
-						y = _shp_stream.readLittleEndianDouble();
-						polygon.setPoint ( j, new GRPoint(x,y) );
-						if ( Message.isDebugOn ) {
-							Message.printDebug ( dl, routine, "x,y = " + x + "," + y);
-						}
-					}
-					polygonlist.setPolygon ( i, polygon);
-				}
-				shapes.add ( polygonlist);
-			}
-			else if ( esriShapeType == POLYLINE_ZM ) {
-				// Read the bounding box.
-				xmin = _shp_stream.readLittleEndianDouble();
-				ymin = _shp_stream.readLittleEndianDouble();
-				xmax = _shp_stream.readLittleEndianDouble();
-				ymax = _shp_stream.readLittleEndianDouble();
-				// Read the number of polylines...
-				npolylines = _shp_stream.readLittleEndianInt();
-				// Allocate memory and set the limits...
-				polylinezmlist = new GRPolylineZMList (	npolylines );
-				polylinezmlist.index = recordNumber - 1;
-				polylinezmlist.xmin = xmin;
-				polylinezmlist.ymin = ymin;
-				polylinezmlist.xmax = xmax;
-				polylinezmlist.ymax = ymax;
-				polylinezmlist.limits_found = true;
-				// Read the total number of points...
-				total_npts = _shp_stream.readLittleEndianInt();
-				polylinezmlist.total_npts = total_npts;
-				// Read the position index.  Reuse this array to optimize performance...
-				if ( pos_array == null ) {
-					// Create it...
-					pos_array = new int[npolylines];
-				}
-				else if ( pos_array.length < npolylines ) {
-					// Resize bigger...
-					pos_array = new int[npolylines];
-				}
-				for ( i = 0; i < npolylines; i++ ) {
-					pos_array[i] = _shp_stream.readLittleEndianInt();
-				}
-				// Loop through the polylines...
-				iend = npolylines - 1;
-				for ( i = 0; i < npolylines; i++ ) {
-					// Figure out how many points in the polyline...
-					if ( i == iend ) {
-						// Last polyline
-						npts = total_npts - pos_array[i];
-					}
-					else {
-						// Not last...
-						npts = pos_array[i + 1] - pos_array[i];
-					}
-					// Allocate the polyline and fill...
-					polylinezm = new GRPolylineZM ( npts );
-					polylinezm.index = recordNumber - 1;
-					for ( j = 0; j < npts; j++ ) {
-						x = _shp_stream.readLittleEndianDouble();
-						y = _shp_stream.readLittleEndianDouble();
-						polylinezm.setPoint ( j, new GRPointZM(x,y,z,m) );
-					}
-					// Set the polyline int the list (Z and M are modified below)
-					polylinezmlist.setPolyline ( i, polylinezm);
-				}
-				// Read the Z limits.
-				zmin = _shp_stream.readLittleEndianDouble();
-				zmax = _shp_stream.readLittleEndianDouble();
-				// Read the z coordinates for all points...
-				for ( i = 0; i < npolylines; i++ ) {
-					polylinezm = polylinezmlist.getPolyline(i);
-					npts = polylinezm.npts;
-					for ( j = 0; j < npts; j++ ) {
-						z = _shp_stream.readLittleEndianDouble();
-						pointzm = polylinezm.getPoint(j);
-						pointzm.z = z;
-					}
-				}
-				// Read the measure limits.
-				mmin = _shp_stream.readLittleEndianDouble();
-				mmax = _shp_stream.readLittleEndianDouble();
-				// Read the measure value for all points...
-				for ( i = 0; i < npolylines; i++ ) {
-					polylinezm = polylinezmlist.getPolyline(i);
-					npts = polylinezm.npts;
-					for ( j = 0; j < npts; j++ ) {
-						m = _shp_stream.readLittleEndianDouble();
-						pointzm = polylinezm.getPoint(j);
-						pointzm.m = m;
-					}
-				}
-				// Add the shape...
-				shapes.add ( polylinezmlist);
-				//Message.printStatus ( 2, routine, "Shape " + shapes.size() + " limits are " + xmin +","+ymin + " " +
-				//	xmax + "," + ymax );
+			GRShape shape = readShape ( _shp_stream, recordNumber, esriShapeType );
+			if ( shape != null ) {
+				shapes.add ( shape );
 			}
 		}
 		catch ( EOFException e ) {
@@ -822,6 +650,302 @@ throws IOException
 	Message.printStatus ( 2, routine, "Read " + shapes.size() + " shapes from \"" + _shp_file + "\"." );
 }
 
+/**
+Read the geometry for a shape record, after the record header and shape type have been read.
+This is used when reading all shapes from the .shp file and when reading shapes on demand.
+@param in stream positioned after the shape type in the record
+@param recordNumber record number from the record header (1+)
+@param esriShapeType shape type from the record
+@return the shape, or null if the shape type is not supported
+@exception IOException if an error occurs reading the record
+*/
+static GRShape readShape ( EndianDataInputStream in, int recordNumber, int esriShapeType )
+throws IOException
+{	String routine = "ESRIShapefile.readShape";
+	int dl = 50;
+	int i = 0, iend = 0, j = 0,
+		npolygons = 0, npolylines = 0, npts = 0,
+		num_points = 0, pos_array[] = null, total_npts = 0;
+	double x = 0.0, y = 0.0, z = 0.0, m = 0.0;
+	double xmin = 0.0, ymin = 0.0, xmax = 0.0, ymax = 0.0, zmin = 0.0, zmax = 0.0, mmin = 0.0, mmax = 0.0;
+	GRPoint point = null;
+	GRPointZM pointzm = null;
+	GRPolypoint polypoint = null;
+	GRPolygon polygon = null;
+	GRPolygonList polygonlist = null;
+	GRPolyline polyline = null;
+	GRPolylineZM polylinezm = null;
+	GRPolylineList polylinelist = null;
+	GRPolylineZMList polylinezmlist = null;
+	if ( esriShapeType == UNKNOWN ) {
+		// No geometry data...  Instantiate a shape of unknown type...
+		return new GRShape(recordNumber - 1 );
+	}
+	else if ( esriShapeType == ARC ) {
+		// Read the box.
+		xmin = in.readLittleEndianDouble();
+		ymin = in.readLittleEndianDouble();
+		xmax = in.readLittleEndianDouble();
+		ymax = in.readLittleEndianDouble();
+		// Read the number of polylines...
+		npolylines = in.readLittleEndianInt();
+		// Allocate memory and set the limits...
+		polylinelist = new GRPolylineList (	npolylines );
+		polylinelist.index = recordNumber - 1;
+		polylinelist.xmin = xmin;
+		polylinelist.ymin = ymin;
+		polylinelist.xmax = xmax;
+		polylinelist.ymax = ymax;
+		polylinelist.limits_found = true;
+		// Read the total number of points...
+		total_npts = in.readLittleEndianInt();
+		polylinelist.total_npts = total_npts;
+		// Read the position index...
+		if ( pos_array == null ) {
+			// Create it...
+			pos_array = new int[npolylines];
+		}
+		else if ( pos_array.length < npolylines ) {
+			// Resize bigger...
+			pos_array = new int[npolylines];
+		}
+		for ( i = 0; i < npolylines; i++ ) {
+			pos_array[i] =
+			in.readLittleEndianInt();
+		}
+		// Loop through the polylines...
+		iend = npolylines - 1;
+		for ( i = 0; i < npolylines; i++ ) {
+			// Figure out how many points in the polyline...
+			if ( i == iend ) {
+				// Last polyline
+				npts = total_npts - pos_array[i];
+			}
+			else {
+				// Not last...
+				npts = pos_array[i + 1] - pos_array[i];
+			}
+			// Allocate the polyline and fill...
+			polyline = new GRPolyline ( npts );
+			polyline.index = recordNumber - 1;
+			for ( j = 0; j < npts; j++ ) {
+				x = in.readLittleEndianDouble();
+				y = in.readLittleEndianDouble();
+				polyline.setPoint ( j, new GRPoint(x,y) );
+			}
+			polylinelist.setPolyline ( i, polyline);
+		}
+		return polylinelist;
+	}
+	else if ( esriShapeType == MULTIPOINT ) {
+		// Read the box.
+		xmin = in.readLittleEndianDouble();
+		ymin = in.readLittleEndianDouble();
+		xmax = in.readLittleEndianDouble();
+		ymax = in.readLittleEndianDouble();
+		// Read the number of points...
+		num_points = in.readLittleEndianInt();
+		// Save a GRPolypoint, using the record number as the attribute table index...
+		polypoint = new GRPolypoint ( (recordNumber - 1), num_points );
+		for ( i = 0; i < num_points; i++ ) {
+			x =in.readLittleEndianDouble();
+			y =in.readLittleEndianDouble();
+			polypoint.setPoint ( i, x, y );
+		}
+		return polypoint;
+	}
+	else if ( (esriShapeType == POINT) || (esriShapeType == POINT_ZM) ) {
+		x = in.readLittleEndianDouble ();
+		y = in.readLittleEndianDouble ();
+		if ( esriShapeType == POINT_ZM ) {
+			z = in.readLittleEndianDouble ();
+			m = in.readLittleEndianDouble ();
+		}
+		// Save a point, using the record number as the attribute table index...
+		if ( esriShapeType == POINT ) {
+			point = new GRPoint((recordNumber - 1),x,y);
+		}
+		else {
+			point = new GRPointZM((recordNumber - 1),x,y,z,m);
+		}
+		point.xmin = x;
+		point.ymin = y;
+		point.xmax = x;
+		point.ymax = y;
+		point.limits_found = true;
+		if ( Message.isDebugOn ) {
+			Message.printDebug ( dl, routine, "Point x,y =" + x + "," + y);
+		}
+		// TODO SAM 2006-01-23 Some CDSS point data are having very large
+		// negative values assigned, which results in
+		// erroneous displays.  Change to UNKNOWN shape type here in these cases.
+		if ( x < -1.0e50 ) {
+			// Will reset in base class...
+			point.type = UNKNOWN;
+			if ( Message.isDebugOn ) {
+				Message.printDebug ( dl,routine, "Resetting shape type to " + UNKNOWN );
+			}
+		}
+		return point;
+	}
+	else if ( esriShapeType == POLYGON ) {
+		// Read the box.
+		xmin = in.readLittleEndianDouble();
+		ymin = in.readLittleEndianDouble();
+		xmax = in.readLittleEndianDouble();
+		ymax = in.readLittleEndianDouble();
+		if ( Message.isDebugOn ) {
+			Message.printDebug ( dl, routine,
+			"Bounding box is " + xmin + "," + ymin + " " + xmax + "," + ymax );
+		}
+		// Read the number of polygons...
+		npolygons = in.readLittleEndianInt();
+		if ( Message.isDebugOn ) {
+			Message.printDebug ( dl, routine, "Number of polygons is " + npolygons );
+		}
+		// Allocate memory and set the limits...
+		polygonlist = new GRPolygonList ( npolygons );
+		polygonlist.index = recordNumber - 1;
+		polygonlist.xmin = xmin;
+		polygonlist.ymin = ymin;
+		polygonlist.xmax = xmax;
+		polygonlist.ymax = ymax;
+		polygonlist.limits_found = true;
+		// Read the total number of points...
+		total_npts = in.readLittleEndianInt();
+		if ( Message.isDebugOn ) {
+			Message.printDebug ( dl, routine, "Total number of points is " + total_npts );
+		}
+		polygonlist.total_npts = total_npts;
+		// Read the position index...
+		if ( pos_array == null ) {
+			// Create it...
+			pos_array = new int[npolygons];
+		}
+		else if ( pos_array.length < npolygons ) {
+			// Resize bigger...
+			pos_array = new int[npolygons];
+		}
+		// Now read the positions...
+		for ( i = 0; i < npolygons; i++ ) {
+			pos_array[i] = in.readLittleEndianInt();
+			if ( Message.isDebugOn ) {
+				Message.printDebug ( dl,routine, "Position[" + i + "] is " + pos_array[i] );
+			}
+		}
+		// Loop through the polygons...
+		iend = npolygons - 1;
+		for ( i = 0; i < npolygons; i++ ) {
+			// Figure out how many points in the polygon...
+			if ( i == iend ) {
+				// Last polygon...
+				npts = total_npts - pos_array[i];
+			}
+			else {
+				// Not last...
+				npts = pos_array[i + 1] - pos_array[i];
+			}
+			// Allocate the polygon and fill...
+			polygon = new GRPolygon ( npts );
+			for ( j = 0; j < npts; j++ ) {
+				x = in.readLittleEndianDouble();
+				y = in.readLittleEndianDouble();
+				polygon.setPoint ( j, new GRPoint(x,y) );
+				if ( Message.isDebugOn ) {
+					Message.printDebug ( dl, routine, "x,y = " + x + "," + y);
+				}
+			}
+			polygonlist.setPolygon ( i, polygon);
+		}
+		return polygonlist;
+	}
+	else if ( esriShapeType == POLYLINE_ZM ) {
+		// Read the bounding box.
+		xmin = in.readLittleEndianDouble();
+		ymin = in.readLittleEndianDouble();
+		xmax = in.readLittleEndianDouble();
+		ymax = in.readLittleEndianDouble();
+		// Read the number of polylines...
+		npolylines = in.readLittleEndianInt();
+		// Allocate memory and set the limits...
+		polylinezmlist = new GRPolylineZMList (	npolylines );
+		polylinezmlist.index = recordNumber - 1;
+		polylinezmlist.xmin = xmin;
+		polylinezmlist.ymin = ymin;
+		polylinezmlist.xmax = xmax;
+		polylinezmlist.ymax = ymax;
+		polylinezmlist.limits_found = true;
+		// Read the total number of points...
+		total_npts = in.readLittleEndianInt();
+		polylinezmlist.total_npts = total_npts;
+		// Read the position index...
+		if ( pos_array == null ) {
+			// Create it...
+			pos_array = new int[npolylines];
+		}
+		else if ( pos_array.length < npolylines ) {
+			// Resize bigger...
+			pos_array = new int[npolylines];
+		}
+		for ( i = 0; i < npolylines; i++ ) {
+			pos_array[i] = in.readLittleEndianInt();
+		}
+		// Loop through the polylines...
+		iend = npolylines - 1;
+		for ( i = 0; i < npolylines; i++ ) {
+			// Figure out how many points in the polyline...
+			if ( i == iend ) {
+				// Last polyline
+				npts = total_npts - pos_array[i];
+			}
+			else {
+				// Not last...
+				npts = pos_array[i + 1] - pos_array[i];
+			}
+			// Allocate the polyline and fill...
+			polylinezm = new GRPolylineZM ( npts );
+			polylinezm.index = recordNumber - 1;
+			for ( j = 0; j < npts; j++ ) {
+				x = in.readLittleEndianDouble();
+				y = in.readLittleEndianDouble();
+				polylinezm.setPoint ( j, new GRPointZM(x,y,z,m) );
+			}
+			// Set the polyline int the list (Z and M are modified below)
+			polylinezmlist.setPolyline ( i, polylinezm);
+		}
+		// Read the Z limits.
+		zmin = in.readLittleEndianDouble();
+		zmax = in.readLittleEndianDouble();
+		// Read the z coordinates for all points...
+		for ( i = 0; i < npolylines; i++ ) {
+			polylinezm = polylinezmlist.getPolyline(i);
+			npts = polylinezm.npts;
+			for ( j = 0; j < npts; j++ ) {
+				z = in.readLittleEndianDouble();
+				pointzm = polylinezm.getPoint(j);
+				pointzm.z = z;
+			}
+		}
+		// Read the measure limits.
+		mmin = in.readLittleEndianDouble();
+		mmax = in.readLittleEndianDouble();
+		// Read the measure value for all points...
+		for ( i = 0; i < npolylines; i++ ) {
+			polylinezm = polylinezmlist.getPolyline(i);
+			npts = polylinezm.npts;
+			for ( j = 0; j < npts; j++ ) {
+				m = in.readLittleEndianDouble();
+				pointzm = polylinezm.getPoint(j);
+				pointzm.m = m;
+			}
+		}
+		// Return the shape...
+		return polylinezmlist;
+	}
+	// Shape type is not supported.
+	return null;
+}
+
 /**
 Read the .SHX file contents.
 @exception IOException if an error occurs.
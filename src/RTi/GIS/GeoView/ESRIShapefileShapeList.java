@@ -0,0 +1,601 @@
+// ESRIShapefileShapeList - list of shapes that are read from an ESRI shapefile when requested
+
+
+/* NoticeStart
+
+CDSS Common Java Library
+CDSS Common Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2025 Colorado Department of Natural Resources
+
+CDSS Common Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+CDSS Common Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with CDSS Common Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package RTi.GIS.GeoView;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import RTi.GR.GRLimits;
+import RTi.GR.GRPoint;
+import RTi.GR.GRPolygon;
+import RTi.GR.GRPolygonList;
+import RTi.GR.GRPolyline;
+import RTi.GR.GRPolylineList;
+import RTi.GR.GRShape;
+import RTi.Util.IO.EndianDataInputStream;
+import RTi.Util.Message.Message;
+
+/**
+List of shapes for an ESRIShapefile that reads each shape from the .shp file only when the shape is requested.
+The .shp file is memory-mapped and the .shx index file is used to find each record.
+Only the bounding box of each shape is read when the list is created,
+so that shapes outside of the drawing area can be skipped without reading the coordinates (see intersects()).
+Shapes that have been read are kept in a cache of limited size, with the least recently used shapes removed first.
+Shapes that have been changed from their initial state (not visible, selected, or with an associated object),
+and shapes that are set with set(), are retained in memory so that the changes are not lost.
+Simplified versions of polygons and polylines can be requested for drawing zoomed out (see getSimplifiedShape()).
+The list is synchronized so that it can be used from more than one thread.
+Shapes can be removed from the list but not added.
+*/
+public class ESRIShapefileShapeList extends AbstractList<GRShape>
+{
+
+/**
+Default number of shapes to keep in the cache.
+*/
+public static final int DEFAULT_CACHE_SIZE = 1000;
+
+/**
+Memory-mapped .shp file.  Use duplicate() to read so that the position is not shared.
+*/
+private ByteBuffer shpBuffer = null;
+
+/**
+Number of shapes in the list.
+*/
+private int size = 0;
+
+/**
+Record (0+) in the .shp file for each position in the list.
+This allows shapes to be removed without changing the cache keys.
+*/
+private int [] records = null;
+
+/**
+Byte offset of each record in the .shp file, from the .shx file.
+*/
+private int [] offsets = null;
+
+/**
+Content length in bytes of each record, from the .shx file.
+*/
+private int [] contentLengths = null;
+
+/**
+Bounding box for each record (xmin, ymin, xmax, ymax), in the original projection, NaN for null shapes.
+*/
+private double [] originalBoxes = null;
+
+/**
+Bounding box for each record (xmin, ymin, xmax, ymax), in the current projection, NaN if not known.
+*/
+private double [] boxes = null;
+
+/**
+Maximum number of shapes in the cache.
+*/
+private int cacheSize = DEFAULT_CACHE_SIZE;
+
+/**
+Cache of shapes that have been read, by record, in access order.
+*/
+private LinkedHashMap<Integer,GRShape> cache = null;
+
+/**
+Shapes that have been changed or set, by record, which are not removed from memory.
+*/
+private Map<Integer,GRShape> retained = new HashMap<>();
+
+/**
+Cache of simplified shapes, by record, in access order.
+*/
+private LinkedHashMap<Integer,GRShape> simplifiedCache = null;
+
+/**
+Tolerance used for each simplified shape in simplifiedCache, by record.
+*/
+private double [] simplifiedTolerances = null;
+
+/**
+Projection of the shapefile data, if shapes are to be projected when read.
+*/
+private GeoProjection fromProjection = null;
+
+/**
+Projection to project shapes to when read, or null if no projection is needed.
+*/
+private GeoProjection toProjection = null;
+
+/**
+Create the list by memory-mapping the .shp file and reading the .shx file.
+@param shpFile path to the .shp file
+@param shxFile path to the .shx file
+@param cacheSize maximum number of shapes to keep in memory in addition to changed shapes
+@exception IOException if the files cannot be read
+*/
+public ESRIShapefileShapeList ( String shpFile, String shxFile, int cacheSize )
+throws IOException {
+	setCacheSize ( cacheSize );
+	// Read the index, which is 100 bytes of header and then 8 bytes per record (big endian offset and content length
+	// in 16-bit words).
+	ByteBuffer shx = ByteBuffer.wrap ( Files.readAllBytes(Paths.get(shxFile)) );
+	if ( (shx.capacity() < 100) || (shx.getInt(0) != 9994) ) {
+		throw new IOException ( "File \"" + shxFile + "\" is not a shapefile index file." );
+	}
+	this.size = (shx.capacity() - 100)/8;
+	this.records = new int[this.size];
+	this.offsets = new int[this.size];
+	this.contentLengths = new int[this.size];
+	for ( int i = 0; i < this.size; i++ ) {
+		this.records[i] = i;
+		this.offsets[i] = shx.getInt(100 + i*8)*2;
+		this.contentLengths[i] = shx.getInt(100 + i*8 + 4)*2;
+	}
+	this.simplifiedTolerances = new double[this.size];
+	try ( RandomAccessFile raf = new RandomAccessFile(shpFile, "r") ) {
+		FileChannel channel = raf.getChannel();
+		if ( channel.size() > Integer.MAX_VALUE ) {
+			throw new IOException ( "File \"" + shpFile + "\" is too large to memory-map." );
+		}
+		// The mapping remains valid after the file is closed.
+		this.shpBuffer = channel.map ( FileChannel.MapMode.READ_ONLY, 0, channel.size() );
+	}
+	// Read the bounding box for each shape, which is little endian after the record header and shape type.
+	ByteBuffer b = this.shpBuffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+	this.originalBoxes = new double[this.size*4];
+	Arrays.fill ( this.originalBoxes, Double.NaN );
+	for ( int i = 0; i < this.size; i++ ) {
+		int offset = this.offsets[i];
+		if ( (offset < 100) || ((offset + 12) > b.capacity()) ) {
+			throw new IOException ( "Shape record " + (i + 1) + " is beyond the end of file \"" + shpFile + "\"." );
+		}
+		// Some writers (including ESRIShapefile.write) include the 8-byte record header
+		// in the content length so limit the length to the end of the file.
+		this.contentLengths[i] = Math.min(this.contentLengths[i], b.capacity() - offset - 8);
+		int shapeType = b.getInt(offset + 8);
+		if ( (shapeType == GRShape.POINT) || (shapeType == GRShape.POINT_ZM) ) {
+			this.originalBoxes[i*4] = this.originalBoxes[i*4 + 2] = b.getDouble(offset + 12);
+			this.originalBoxes[i*4 + 1] = this.originalBoxes[i*4 + 3] = b.getDouble(offset + 20);
+		}
+		else if ( shapeType != GRShape.UNKNOWN ) {
+			for ( int j = 0; j < 4; j++ ) {
+				this.originalBoxes[i*4 + j] = b.getDouble(offset + 12 + j*8);
+			}
+		}
+	}
+	this.boxes = this.originalBoxes;
+}
+
+/**
+Remove all shapes from the caches, other than shapes that have been changed.
+*/
+public synchronized void clearCache () {
+	this.cache.clear();
+	this.simplifiedCache.clear();
+}
+
+/**
+Create a cache that moves changed shapes to the retained shapes rather than removing them.
+@param checkRetain if true, check whether removed shapes should be retained
+*/
+private LinkedHashMap<Integer,GRShape> createCache ( final boolean checkRetain ) {
+	return new LinkedHashMap<Integer,GRShape> ( 16, 0.75F, true ) {
+		private static final long serialVersionUID = 1L;
+		protected boolean removeEldestEntry ( Map.Entry<Integer,GRShape> eldest ) {
+			if ( size() <= cacheSize ) {
+				return false;
+			}
+			if ( checkRetain && isChanged(eldest.getValue()) ) {
+				retained.put ( eldest.getKey(), eldest.getValue() );
+			}
+			return true;
+		}
+	};
+}
+
+/**
+Return the shape at a position in the list, reading the shape from the file if it is not in memory.
+@param index position in the list (0+)
+@return the shape at the position, or null if the shape type is not supported
+*/
+public synchronized GRShape get ( int index ) {
+	int record = getRecord ( index );
+	GRShape shape = this.retained.get(record);
+	if ( shape == null ) {
+		shape = this.cache.get(record);
+	}
+	if ( shape == null ) {
+		shape = readShape ( record );
+		this.cache.put ( record, shape );
+	}
+	return shape;
+}
+
+/**
+Return the maximum number of shapes in the cache.
+@return the maximum number of shapes in the cache
+*/
+public int getCacheSize () {
+	return this.cacheSize;
+}
+
+/**
+Return the limits of the shapes in the list, using the bounding boxes from the file
+so that shapes do not need to be read.
+@param includeInvisible if true, include invisible shapes
+@return the limits of the shapes, or null if no shapes have limits
+*/
+public synchronized GRLimits getLimits ( boolean includeInvisible ) {
+	double xmin = Double.NaN, ymin = Double.NaN, xmax = Double.NaN, ymax = Double.NaN;
+	for ( int i = 0; i < this.size; i++ ) {
+		int record = this.records[i];
+		GRShape shape = this.retained.get(record);
+		if ( shape == null ) {
+			// Shapes that are not retained are visible and unchanged so use the box from the file.
+			if ( Double.isNaN(this.boxes[record*4]) ) {
+				continue;
+			}
+			shape = new GRShape();
+			shape.xmin = this.boxes[record*4];
+			shape.ymin = this.boxes[record*4 + 1];
+			shape.xmax = this.boxes[record*4 + 2];
+			shape.ymax = this.boxes[record*4 + 3];
+		}
+		else if ( !shape.limits_found || (!includeInvisible && !shape.is_visible) ) {
+			continue;
+		}
+		if ( Double.isNaN(xmin) ) {
+			xmin = shape.xmin;
+			ymin = shape.ymin;
+			xmax = shape.xmax;
+			ymax = shape.ymax;
+		}
+		else {
+			xmin = Math.min(xmin, shape.xmin);
+			ymin = Math.min(ymin, shape.ymin);
+			xmax = Math.max(xmax, shape.xmax);
+			ymax = Math.max(ymax, shape.ymax);
+		}
+	}
+	if ( Double.isNaN(xmin) ) {
+		return null;
+	}
+	return new GRLimits ( xmin, ymin, xmax, ymax );
+}
+
+/**
+Return the record in the file for a position in the list.
+*/
+private int getRecord ( int index ) {
+	if ( (index < 0) || (index >= this.size) ) {
+		throw new IndexOutOfBoundsException ( "Index " + index + " is out of bounds for size " + this.size );
+	}
+	return this.records[index];
+}
+
+/**
+Return a simplified version of a shape, for drawing when zoomed out.
+Polygons and polylines are simplified by removing points that are closer than the tolerance to the
+previous point that was kept.  Other shapes are returned as is.
+The simplified shape has the same visibility, selection, and associated object as the full shape.
+Simplified shapes are cached and are recomputed if a different tolerance is requested.
+@param index position in the list (0+)
+@param tolerance distance in data units (typically the size of a pixel), or zero to return the full shape
+@return the simplified shape, or the full shape if it is not simplified
+*/
+public synchronized GRShape getSimplifiedShape ( int index, double tolerance ) {
+	GRShape shape = get ( index );
+	if ( (shape == null) || !(tolerance > 0.0) ||
+		((shape.type != GRShape.POLYGON_LIST) && (shape.type != GRShape.POLYLINE_LIST)) ) {
+		return shape;
+	}
+	int record = this.records[index];
+	GRShape simplified = this.simplifiedCache.get(record);
+	if ( (simplified == null) || (this.simplifiedTolerances[record] != tolerance) ) {
+		simplified = simplifyShape ( shape, tolerance );
+		this.simplifiedCache.put ( record, simplified );
+		this.simplifiedTolerances[record] = tolerance;
+	}
+	simplified.is_visible = shape.is_visible;
+	simplified.is_selected = shape.is_selected;
+	simplified.associated_object = shape.associated_object;
+	return simplified;
+}
+
+/**
+Determine whether the bounding box of a shape intersects an area, without reading the shape.
+This can be used to skip shapes outside of the drawing area.
+@param index position in the list (0+)
+@param xmin minimum x of the area
+@param ymin minimum y of the area
+@param xmax maximum x of the area
+@param ymax maximum y of the area
+@return false if the shape is known to be outside of the area, true if it may intersect the area
+*/
+public synchronized boolean intersects ( int index, double xmin, double ymin, double xmax, double ymax ) {
+	int record = getRecord ( index );
+	GRShape shape = this.retained.get(record);
+	if ( shape != null ) {
+		// Use the current limits of changed shapes.
+		return !(shape.limits_found && ((shape.xmax < xmin) || (shape.xmin > xmax) ||
+			(shape.ymax < ymin) || (shape.ymin > ymax)));
+	}
+	int i = record*4;
+	if ( Double.isNaN(this.boxes[i]) ) {
+		// Null shape or not known.
+		return true;
+	}
+	return !((this.boxes[i + 2] < xmin) || (this.boxes[i] > xmax) ||
+		(this.boxes[i + 3] < ymin) || (this.boxes[i + 1] > ymax));
+}
+
+/**
+Determine whether a shape has been changed from the state when read from the file.
+*/
+private static boolean isChanged ( GRShape shape ) {
+	return (shape != null) && (!shape.is_visible || shape.is_selected || (shape.associated_object != null));
+}
+
+/**
+Indicate whether a shape is currently in memory, for troubleshooting and testing.
+@param index position in the list (0+)
+@return true if the shape is in memory
+*/
+public synchronized boolean isShapeInMemory ( int index ) {
+	int record = getRecord ( index );
+	return this.retained.containsKey(record) || this.cache.containsKey(record);
+}
+
+/**
+Project the shapes in the list.  Shapes in memory are projected and other shapes are projected when read.
+The bounding boxes used by intersects() and getLimits() are projected using the corners of the boxes,
+which may be approximate for projections that curve lines.
+@param from projection of the shapes in the list
+@param to projection to project to
+*/
+public synchronized void project ( GeoProjection from, GeoProjection to ) {
+	if ( this.toProjection == null ) {
+		this.fromProjection = from;
+	}
+	this.toProjection = to;
+	if ( !GeoProjection.needToProject(this.fromProjection, this.toProjection) ) {
+		this.toProjection = null;
+	}
+	// Retained shapes are projected in place since they cannot be read again.
+	for ( GRShape shape : this.retained.values() ) {
+		if ( shape != null ) {
+			GeoProjection.projectShape ( from, to, shape, true );
+		}
+	}
+	this.cache.clear();
+	this.simplifiedCache.clear();
+	if ( this.toProjection == null ) {
+		this.boxes = this.originalBoxes;
+		return;
+	}
+	this.boxes = new double[this.originalBoxes.length];
+	GRPoint [] corners = new GRPoint[4];
+	for ( int i = 0; i < this.boxes.length; i += 4 ) {
+		if ( Double.isNaN(this.originalBoxes[i]) ) {
+			this.boxes[i] = this.boxes[i + 1] = this.boxes[i + 2] = this.boxes[i + 3] = Double.NaN;
+			continue;
+		}
+		corners[0] = new GRPoint ( this.originalBoxes[i], this.originalBoxes[i + 1] );
+		corners[1] = new GRPoint ( this.originalBoxes[i + 2], this.originalBoxes[i + 1] );
+		corners[2] = new GRPoint ( this.originalBoxes[i], this.originalBoxes[i + 3] );
+		corners[3] = new GRPoint ( this.originalBoxes[i + 2], this.originalBoxes[i + 3] );
+		for ( int j = 0; j < 4; j++ ) {
+			GeoProjection.projectShape ( this.fromProjection, this.toProjection, corners[j], true );
+			if ( j == 0 ) {
+				this.boxes[i] = this.boxes[i + 2] = corners[j].x;
+				this.boxes[i + 1] = this.boxes[i + 3] = corners[j].y;
+			}
+			else {
+				this.boxes[i] = Math.min(this.boxes[i], corners[j].x);
+				this.boxes[i + 1] = Math.min(this.boxes[i + 1], corners[j].y);
+				this.boxes[i + 2] = Math.max(this.boxes[i + 2], corners[j].x);
+				this.boxes[i + 3] = Math.max(this.boxes[i + 3], corners[j].y);
+			}
+		}
+	}
+}
+
+/**
+Read a shape from the memory-mapped file.
+@param record record in the file (0+)
+@return the shape, or null if the shape type is not supported
+*/
+private GRShape readShape ( int record ) {
+	String routine = getClass().getSimpleName() + ".readShape";
+	ByteBuffer b = this.shpBuffer.duplicate();
+	int offset = this.offsets[record];
+	// Record number is big endian and content length includes the shape type.
+	int recordNumber = b.getInt(offset);
+	byte [] content = new byte[this.contentLengths[record]];
+	b.position ( offset + 8 );
+	b.get ( content );
+	GRShape shape = null;
+	try {
+		EndianDataInputStream in = new EndianDataInputStream ( new ByteArrayInputStream(content) );
+		int esriShapeType = in.readLittleEndianInt();
+		shape = ESRIShapefile.readShape ( in, recordNumber, esriShapeType );
+		in.close();
+	}
+	catch ( IOException e ) {
+		// Should not happen since the record is in memory.
+		Message.printWarning ( 3, routine, "Error reading shape record " + recordNumber + " (" + e + ")." );
+		return null;
+	}
+	if ( (shape != null) && (this.toProjection != null) ) {
+		GeoProjection.projectShape ( this.fromProjection, this.toProjection, shape, true );
+	}
+	return shape;
+}
+
+/**
+Remove a shape from the list.
+@param index position in the list (0+)
+@return the shape that was removed
+*/
+public synchronized GRShape remove ( int index ) {
+	GRShape shape = get ( index );
+	int record = this.records[index];
+	this.retained.remove(record);
+	this.cache.remove(record);
+	this.simplifiedCache.remove(record);
+	System.arraycopy ( this.records, index + 1, this.records, index, this.size - index - 1 );
+	--this.size;
+	++this.modCount;
+	return shape;
+}
+
+/**
+Replace a shape in the list.  The shape is retained in memory.
+@param index position in the list (0+)
+@param shape shape to set
+@return the previous shape at the position
+*/
+public synchronized GRShape set ( int index, GRShape shape ) {
+	GRShape previous = get ( index );
+	int record = this.records[index];
+	this.cache.remove(record);
+	this.simplifiedCache.remove(record);
+	this.retained.put ( record, shape );
+	return previous;
+}
+
+/**
+Set the maximum number of shapes in the cache.  Shapes that have been changed are not counted.
+@param cacheSize maximum number of shapes to keep in memory, at least 1
+*/
+public synchronized void setCacheSize ( int cacheSize ) {
+	this.cacheSize = Math.max(1, cacheSize);
+	LinkedHashMap<Integer,GRShape> cache0 = this.cache;
+	LinkedHashMap<Integer,GRShape> simplifiedCache0 = this.simplifiedCache;
+	this.cache = createCache ( true );
+	this.simplifiedCache = createCache ( false );
+	if ( cache0 != null ) {
+		this.cache.putAll ( cache0 );
+		this.simplifiedCache.putAll ( simplifiedCache0 );
+	}
+}
+
+/**
+Simplify a polygon or polyline list by removing points that are closer than the tolerance to the previous
+point that was kept.  The last point of each polygon and polyline is always kept.
+@param shape shape to simplify, a GRPolygonList or GRPolylineList
+@param tolerance distance in data units
+@return a new simplified shape
+*/
+private static GRShape simplifyShape ( GRShape shape, double tolerance ) {
+	if ( shape instanceof GRPolygonList ) {
+		GRPolygonList polygonlist = (GRPolygonList)shape;
+		GRPolygonList simplified = new GRPolygonList ( polygonlist.npolygons );
+		simplified.index = polygonlist.index;
+		for ( int i = 0; i < polygonlist.npolygons; i++ ) {
+			GRPolygon polygon = polygonlist.polygons[i];
+			GRPoint [] pts = simplifyPoints ( polygon.pts, polygon.npts, tolerance, 4 );
+			GRPolygon polygon2 = new GRPolygon ( pts.length );
+			for ( int j = 0; j < pts.length; j++ ) {
+				polygon2.setPoint ( j, pts[j] );
+			}
+			simplified.setPolygon ( i, polygon2 );
+			simplified.total_npts += pts.length;
+		}
+		return simplified;
+	}
+	else {
+		GRPolylineList polylinelist = (GRPolylineList)shape;
+		GRPolylineList simplified = new GRPolylineList ( polylinelist.npolylines );
+		simplified.index = polylinelist.index;
+		for ( int i = 0; i < polylinelist.npolylines; i++ ) {
+			GRPolyline polyline = polylinelist.polylines[i];
+			GRPoint [] pts = simplifyPoints ( polyline.pts, polyline.npts, tolerance, 2 );
+			GRPolyline polyline2 = new GRPolyline ( pts.length );
+			polyline2.index = polyline.index;
+			for ( int j = 0; j < pts.length; j++ ) {
+				polyline2.setPoint ( j, pts[j] );
+			}
+			simplified.setPolyline ( i, polyline2 );
+			simplified.total_npts += pts.length;
+		}
+		return simplified;
+	}
+}
+
+/**
+Simplify a list of points by removing points that are closer than the tolerance to the previous point that was kept.
+@param pts points to simplify
+@param npts number of points
+@param tolerance distance in data units
+@param minPoints minimum number of points to keep, if available, so that small polygons are still drawn
+@return simplified points, which are the original points (not copies)
+*/
+private static GRPoint [] simplifyPoints ( GRPoint [] pts, int npts, double tolerance, int minPoints ) {
+	if ( npts <= minPoints ) {
+		return Arrays.copyOf ( pts, npts );
+	}
+	GRPoint [] kept = new GRPoint[npts];
+	int nkept = 0;
+	double tolerance2 = tolerance*tolerance;
+	GRPoint last = null;
+	for ( int i = 0; i < (npts - 1); i++ ) {
+		GRPoint pt = pts[i];
+		if ( (last == null) || ((pt.x - last.x)*(pt.x - last.x) + (pt.y - last.y)*(pt.y - last.y) >= tolerance2) ) {
+			kept[nkept++] = pt;
+			last = pt;
+		}
+	}
+	kept[nkept++] = pts[npts - 1];
+	if ( nkept < minPoints ) {
+		// Keep evenly spaced points so that the shape is still visible.
+		for ( int i = 0; i < minPoints; i++ ) {
+			kept[i] = pts[(int)((long)i*(npts - 1)/(minPoints - 1))];
+		}
+		nkept = minPoints;
+	}
+	return Arrays.copyOf ( kept, nkept );
+}
+
+/**
+Return the number of shapes in the list.
+@return the number of shapes in the list
+*/
+public synchronized int size () {
+	return this.size;
+}
+
+}
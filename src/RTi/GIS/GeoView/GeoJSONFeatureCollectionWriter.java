@@ -0,0 +1,293 @@
+// GeoJSONFeatureCollectionWriter - write shapes and attributes as a GeoJSON FeatureCollection to a Writer
+
+
+/* NoticeStart
+
+CDSS Common Java Library
+CDSS Common Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2025 Colorado Department of Natural Resources
+
+CDSS Common Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+CDSS Common Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with CDSS Common Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package RTi.GIS.GeoView;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import RTi.GR.GRShape;
+import RTi.Util.Table.DataTable;
+
+/**
+This class writes a GeoJSON FeatureCollection to a Writer, one feature at a time.
+Geometry is formatted with GeoJSONGeometryFormatter and properties are written from a DataTable record,
+so memory use does not depend on the number of features.
+To use, call writeStart(), then writeFeature() for each feature (or writeLayer() for a layer), and then writeEnd().
+*/
+public class GeoJSONFeatureCollectionWriter
+{
+
+/**
+Writer to write to.
+*/
+private Writer out;
+
+/**
+Formatter for feature geometry.
+*/
+private GeoJSONGeometryFormatter formatter;
+
+/**
+Whether to format with newlines and indentation to be more readable.
+*/
+private boolean niceFormat;
+
+/**
+Newline and prefixes for each indent level, empty if not nice format.
+*/
+private String nl = "";
+private String prefix1 = "";
+private String prefix2 = "";
+private String prefix3 = "";
+
+/**
+Text for a feature, reused for each feature.
+*/
+private StringBuilder b = new StringBuilder();
+
+/**
+Number of features that have been written.
+*/
+private int featureCount = 0;
+
+/**
+Construct a writer.
+@param out Writer to write to, which should be buffered
+@param indent number of spaces to indent for nice formatting
+@param coordinatePrecision number of digits after decimal point for coordinates, or -1 to use the precision of the data
+@param niceFormat use newline at end of lines (improves readability but increases file size slightly)
+*/
+public GeoJSONFeatureCollectionWriter ( Writer out, int indent, int coordinatePrecision, boolean niceFormat )
+{	this.out = out;
+	this.formatter = new GeoJSONGeometryFormatter ( indent, coordinatePrecision, -1 );
+	this.niceFormat = niceFormat;
+	if ( niceFormat ) {
+		StringBuilder sb = new StringBuilder();
+		for ( int i = 0; i < indent; i++ ) {
+			sb.append(" ");
+		}
+		this.nl = "\n";
+		this.prefix1 = sb.toString();
+		this.prefix2 = this.prefix1 + this.prefix1;
+		this.prefix3 = this.prefix2 + this.prefix1;
+	}
+}
+
+/**
+Append a property value as JSON.
+Numbers and booleans are written as is, with NaN and infinite values written as null,
+and other objects are written as strings.
+*/
+private void appendValue ( Object value )
+{
+	if ( value == null ) {
+		this.b.append ( "null" );
+	}
+	else if ( value instanceof Double ) {
+		double d = (Double)value;
+		if ( Double.isNaN(d) || Double.isInfinite(d) ) {
+			this.b.append ( "null" );
+		}
+		else {
+			this.b.append ( d );
+		}
+	}
+	else if ( value instanceof Float ) {
+		float f = (Float)value;
+		if ( Float.isNaN(f) || Float.isInfinite(f) ) {
+			this.b.append ( "null" );
+		}
+		else {
+			this.b.append ( f );
+		}
+	}
+	else if ( (value instanceof Number) || (value instanceof Boolean) ) {
+		this.b.append ( value );
+	}
+	else {
+		appendString ( value.toString() );
+	}
+}
+
+/**
+Append a string as a quoted JSON string.
+*/
+private void appendString ( String s )
+{
+	this.b.append ( '"' );
+	for ( int i = 0; i < s.length(); i++ ) {
+		char c = s.charAt(i);
+		if ( (c == '"') || (c == '\\') ) {
+			this.b.append ( '\\' ).append ( c );
+		}
+		else if ( c == '\n' ) {
+			this.b.append ( "\\n" );
+		}
+		else if ( c == '\r' ) {
+			this.b.append ( "\\r" );
+		}
+		else if ( c == '\t' ) {
+			this.b.append ( "\\t" );
+		}
+		else if ( c < ' ' ) {
+			this.b.append ( String.format("\\u%04x", (int)c) );
+		}
+		else {
+			this.b.append ( c );
+		}
+	}
+	this.b.append ( '"' );
+}
+
+/**
+Return the number of features that have been written.
+*/
+public int getFeatureCount ()
+{
+	return this.featureCount;
+}
+
+/**
+Write the end of the FeatureCollection and flush the Writer.
+@exception IOException if there is an error writing.
+*/
+public void writeEnd ()
+throws IOException
+{
+	this.out.write ( this.nl + this.prefix1 + "]" + this.nl + "}" + this.nl );
+	this.out.flush();
+}
+
+/**
+Write a feature.
+@param shape shape for the feature geometry
+@param table attribute table for the feature properties, or null to write empty properties
+@param record record in the attribute table for the feature (0+)
+@exception IOException if there is an error writing or getting attribute values.
+@exception UnrecognizedGeometryException if the geometry is not recognized.
+*/
+public void writeFeature ( GRShape shape, DataTable table, long record )
+throws IOException
+{
+	String nl = this.nl;
+	StringBuilder b = this.b;
+	b.setLength ( 0 );
+	if ( this.featureCount > 0 ) {
+		b.append ( "," + nl );
+	}
+	b.append ( this.prefix2 + "{" + nl );
+	b.append ( this.prefix3 + "\"type\": \"Feature\"," + nl );
+	b.append ( this.prefix3 + "\"properties\": {" );
+	if ( table != null ) {
+		String [] fieldNames = table.getFieldNames();
+		for ( int i = 0; i < fieldNames.length; i++ ) {
+			if ( i > 0 ) {
+				b.append ( "," );
+			}
+			b.append ( nl + this.prefix3 + this.prefix1 );
+			appendString ( fieldNames[i] );
+			b.append ( ": " );
+			try {
+				appendValue ( table.getFieldValue(record, i) );
+			}
+			catch ( Exception e ) {
+				throw new IOException ( "Error getting attribute \"" + fieldNames[i] + "\" for record " + record +
+					" (" + e + ").", e );
+			}
+		}
+		if ( fieldNames.length > 0 ) {
+			b.append ( nl + this.prefix3 );
+		}
+	}
+	b.append ( "}," + nl );
+	b.append ( this.prefix3 + "\"geometry\": " );
+	this.formatter.format ( b, shape, this.niceFormat, this.prefix3 );
+	b.append ( this.prefix2 + "}" );
+	this.out.append ( b );
+	++this.featureCount;
+}
+
+/**
+Write the features for the shapes in a layer, with properties from the layer's attribute table.
+@param layer layer to write
+@exception IOException if there is an error writing or getting attribute values.
+@exception UnrecognizedGeometryException if a shape's geometry is not recognized.
+*/
+public void writeLayer ( GeoLayer layer )
+throws IOException
+{
+	DataTable table = layer.getAttributeTable();
+	List<GRShape> shapes = layer.getShapes();
+	// Use get() so that shapes that are read on demand are read one at a time.
+	int size = shapes.size();
+	for ( int i = 0; i < size; i++ ) {
+		GRShape shape = shapes.get(i);
+		if ( shape == null ) {
+			continue;
+		}
+		writeFeature ( shape, table, shape.index );
+	}
+}
+
+/**
+Write a layer to a GeoJSON file, using UTF-8 encoding.
+@param layer layer to write
+@param filename name of the file to write
+@param coordinatePrecision number of digits after decimal point for coordinates, or -1 to use the precision of the data
+@param niceFormat use newline at end of lines (improves readability but increases file size slightly)
+@return the number of features that were written
+@exception IOException if there is an error writing or getting attribute values.
+@exception UnrecognizedGeometryException if a shape's geometry is not recognized.
+*/
+public static int writeLayer ( GeoLayer layer, String filename, int coordinatePrecision, boolean niceFormat )
+throws IOException
+{
+	try ( Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(filename), StandardCharsets.UTF_8), 65536) ) {
+		GeoJSONFeatureCollectionWriter writer = new GeoJSONFeatureCollectionWriter ( out, 2, coordinatePrecision, niceFormat );
+		writer.writeStart();
+		writer.writeLayer ( layer );
+		writer.writeEnd();
+		return writer.getFeatureCount();
+	}
+}
+
+/**
+Write the start of the FeatureCollection.
+@exception IOException if there is an error writing.
+*/
+public void writeStart ()
+throws IOException
+{
+	this.out.write ( "{" + this.nl );
+	this.out.write ( this.prefix1 + "\"type\": \"FeatureCollection\"," + this.nl );
+	this.out.write ( this.prefix1 + "\"features\": [" + this.nl );
+}
+
+}
@@ -23,13 +23,17 @@ NoticeEnd */
 
 package RTi.GIS.GeoView;
 
+import java.io.IOException;
+
 import RTi.GR.GRPoint;
 import RTi.GR.GRPolygon;
 import RTi.GR.GRShape;
 
 /**
 This class formats shapes into GeoJSON feature text.  To use, declare an instance of this class
-and then call formatGeoJSON() to format a GRShape.
+and then call format() to format a GRShape.
+Shapes can be formatted to a String or appended to an Appendable such as a Writer,
+which is used by GeoJSONFeatureCollectionWriter to write large layers without building the document in memory.
 */
 public class GeoJSONGeometryFormatter
 {
@@ -91,14 +95,87 @@ public GeoJSONGeometryFormatter(int indent, int coordinatePrecision, int elevati
 	//}
 }
 
+/**
+Append a coordinate formatted with the coordinate precision.
+The result is the same as String.format(Locale.US) with the coordinate format ("%.6f", etc.) but is faster:
+the shortest digits that represent the value (as from Double.toString()) are rounded half up,
+which is how the Formatter class rounds.
+The decimal separator is always '.', as required by GeoJSON, regardless of the default locale.
+@param b StringBuilder to append to
+@param d value to format
+*/
+private void appendCoordinate ( StringBuilder b, double d )
+{
+	if ( Double.isNaN(d) || Double.isInfinite(d) ) {
+		b.append ( String.format(this.coordinateFormat, d) );
+		return;
+	}
+	int precision = this.coordinatePrecision;
+	String s = Double.toString(d);
+	int length = s.length();
+	boolean negative = (s.charAt(0) == '-');
+	// Digits of the value, which is 0.digits x 10^pointPos.
+	char [] digits = new char[length];
+	int ndigits = 0;
+	int pointPos = -1;
+	int i = (negative ? 1 : 0);
+	for ( ; i < length; i++ ) {
+		char c = s.charAt(i);
+		if ( c == '.' ) {
+			pointPos = ndigits;
+		}
+		else if ( c == 'E' ) {
+			pointPos += Integer.parseInt(s.substring(i + 1));
+			break;
+		}
+		else {
+			digits[ndigits++] = c;
+		}
+	}
+	// Digits of the rounded value x 10^precision, with a leading zero for a carry.
+	int keep = pointPos + precision;
+	int nrounded = Math.max(keep, 0) + 1;
+	char [] rounded = new char[Math.max(nrounded, precision + 1)];
+	int pad = rounded.length - nrounded;
+	for ( i = 0; i < rounded.length; i++ ) {
+		rounded[i] = '0';
+	}
+	for ( i = 0; i < keep; i++ ) {
+		if ( i < ndigits ) {
+			rounded[pad + i + 1] = digits[i];
+		}
+	}
+	if ( (keep >= 0) && (keep < ndigits) && (digits[keep] >= '5') ) {
+		// Round half up, carrying as needed.
+		i = rounded.length - 1;
+		while ( rounded[i] == '9' ) {
+			rounded[i--] = '0';
+		}
+		++rounded[i];
+	}
+	if ( negative ) {
+		b.append ( '-' );
+	}
+	int wholeEnd = rounded.length - precision;
+	int wholeStart = 0;
+	while ( (wholeStart < (wholeEnd - 1)) && (rounded[wholeStart] == '0') ) {
+		++wholeStart;
+	}
+	b.append ( rounded, wholeStart, (wholeEnd - wholeStart) );
+	if ( precision > 0 ) {
+		b.append ( '.' );
+		b.append ( rounded, wholeEnd, precision );
+	}
+}
+
 /**
 Format a GRPoint as a GeoJSON geometry string.
+@param b StringBuilder to append to
 @param point point object to process
 @param niceFormat if true format with newlines to be more readable
 */
-private String formatPoint ( GRPoint point, boolean niceFormat, String lineStart )
+private void formatPoint ( StringBuilder b, GRPoint point, boolean niceFormat, String lineStart )
 {
-    StringBuilder b = new StringBuilder();
     String nl = "";
     String prefix0 = "";
     String prefix1 = "";
@@ -120,7 +197,7 @@ private String formatPoint ( GRPoint point, boolean niceFormat, String lineStart
     }
     else {
     	// Format to specific precision
-    	b.append ( String.format(this.coordinateFormat, point.x) );
+    	appendCoordinate ( b, point.x );
     }
     b.append ( ", " );
     if ( this.coordinatePrecision < 0 ) {
@@ -129,22 +206,21 @@ private String formatPoint ( GRPoint point, boolean niceFormat, String lineStart
     }
     else {
     	// Format to specific precision
-    	b.append ( String.format(this.coordinateFormat, point.y) );
+    	appendCoordinate ( b, point.y );
     }
     b.append ( "]" + nl );
     b.append ( prefix0 );
     b.append ( "}" + nl );
-    return b.toString();
 }
 
 /**
 Format a GRPolygon as a GeoJSON geometry string.
+@param b StringBuilder to append to
 @param polygon polygon object to process
 @param niceFormat if true format with newlines to be more readable
 */
-private String formatPolygon ( GRPolygon polygon, boolean niceFormat, String lineStart )
+private void formatPolygon ( StringBuilder b, GRPolygon polygon, boolean niceFormat, String lineStart )
 {
-    StringBuilder b = new StringBuilder();
     String nl = "";
     String prefix0 = "";
     String prefix1 = "";
@@ -190,7 +266,6 @@ private String formatPolygon ( GRPolygon polygon, boolean niceFormat, String lin
     b.append ( nl + prefix1 + "]" + nl ); // Close coordinates
     b.append ( prefix0 );
     b.append ( "}" + nl );
-    return b.toString();
 }
 
 /**
@@ -206,16 +281,56 @@ Recognized geometry types include:
 @exception UnrecognizedGeometryException if the geometry is not recognized.
 */
 public String format ( GRShape shape, boolean niceFormat, String lineStart )
+{
+	StringBuilder b = new StringBuilder();
+	format ( b, shape, niceFormat, lineStart );
+	return b.toString();
+}
+
+/**
+Format a GRShape into a GeoJSON feature, appending to a StringBuilder.
+See format(GRShape,boolean,String).
+@param b StringBuilder to append to
+@param shape shape to format
+@param niceFormat use newline at end of lines (improves readability but increases file size slightly)
+@param lineStart a string with spaces to insert at the front of lines, to indent the geometry for nice formatting
+@exception UnrecognizedGeometryException if the geometry is not recognized.
+*/
+public void format ( StringBuilder b, GRShape shape, boolean niceFormat, String lineStart )
 {
     if ( shape instanceof GRPoint ) {
-    	return formatPoint ( (GRPoint)shape, niceFormat, lineStart );
+    	formatPoint ( b, (GRPoint)shape, niceFormat, lineStart );
     }
     else if ( shape instanceof GRPolygon ) {
-    	return formatPolygon ( (GRPolygon)shape, niceFormat, lineStart );
+    	formatPolygon ( b, (GRPolygon)shape, niceFormat, lineStart );
     }
     else {
         throw new UnrecognizedGeometryException("Unrecognized geometry type " + shape.getClass().getSimpleName() + " - don't know how to format GeoJSON" );
     }
 }
 
+/**
+Format a GRShape into a GeoJSON feature, appending to an Appendable such as a Writer.
+See format(GRShape,boolean,String).
+Only the text for the shape is held in memory.
+@param out Appendable to append to
+@param shape shape to format
+@param niceFormat use newline at end of lines (improves readability but increases file size slightly)
+@param lineStart a string with spaces to insert at the front of lines, to indent the geometry for nice formatting
+@exception UnrecognizedGeometryException if the geometry is not recognized.
+@exception IOException if there is an error appending to the Appendable.
+*/
+public void format ( Appendable out, GRShape shape, boolean niceFormat, String lineStart )
+throws IOException
+{
+	if ( out instanceof StringBuilder ) {
+		format ( (StringBuilder)out, shape, niceFormat, lineStart );
+	}
+	else {
+		StringBuilder b = new StringBuilder();
+		format ( b, shape, niceFormat, lineStart );
+		out.append ( b );
+	}
+}
+
 }
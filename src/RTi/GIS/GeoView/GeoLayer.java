@@ -29,9 +29,13 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Vector;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import RTi.GR.GRLimits;
 import RTi.GR.GRShape;
+import RTi.Util.IO.DaemonThreadPool;
 import RTi.Util.IO.IOUtil;
 import RTi.Util.IO.PropList;
 import RTi.Util.Message.Message;
@@ -154,6 +158,11 @@ Grid data, stored as GRGrid (not Esri grid).
 */
 public static final int GRID = 51;
 
+/**
+Number of shapes in each chunk when projecting shapes in parallel.
+*/
+private static final int PROJECT_CHUNK_SIZE = 500;
+
 /**
 Type of shapes in layer (e.g., POINT).
 */
@@ -722,7 +731,8 @@ public boolean isSourceAvailable () {
 Project a layer, resulting in the raw data changing.
 Note that if the data are saved,
 the projection will be different and some configuration files may need to be changed.
-The projection is accomplished by calling GeoProjection.projectShape() for each shape in the layer.
+The projection is accomplished by calling GeoProjection.projectShape() for each shape in the layer,
+with large layers being projected in parallel chunks of shapes.
 The overall limits are also changed.
 @param projection to change to.
 */
@@ -734,10 +744,7 @@ public void project ( GeoProjection projection ) {
 		return;
 	}
 	// Loop through all the shapes and project them.
-	int size = __shapes.size();
-	for ( int i = 0; i < size; i++ ) {
-		GeoProjection.projectShape ( __projection, projection, __shapes.get(i), true );
-	}
+	projectShapes ( __shapes, __projection, projection );
 	// Now reset the limits.
 	try {
 		computeLimits ( true );
@@ -749,14 +756,59 @@ public void project ( GeoProjection projection ) {
 	setProjection ( projection );
 }
 
+/**
+Project shapes in place, using parallel chunks of shapes on the shared DaemonThreadPool if the list is large.
+Each shape is projected independently so the chunks can be processed at the same time.
+@param shapes shapes to project
+@param from projection of the shapes
+@param to projection to change to
+*/
+static void projectShapes ( List<GRShape> shapes, GeoProjection from, GeoProjection to ) {
+	int size = shapes.size();
+	int threadCount = Math.min ( Runtime.getRuntime().availableProcessors(), size/PROJECT_CHUNK_SIZE );
+	if ( threadCount <= 1 ) {
+		for ( int i = 0; i < size; i++ ) {
+			GeoProjection.projectShape ( from, to, shapes.get(i), true );
+		}
+		return;
+	}
+	List<Callable<Object>> tasks = new ArrayList<>();
+	for ( int start = 0; start < size; start += PROJECT_CHUNK_SIZE ) {
+		int i1 = start;
+		int i2 = Math.min ( size, start + PROJECT_CHUNK_SIZE );
+		tasks.add ( () -> {
+			for ( int i = i1; i < i2; i++ ) {
+				GeoProjection.projectShape ( from, to, shapes.get(i), true );
+			}
+			return null;
+		});
+	}
+	try {
+		for ( Future<Object> future : DaemonThreadPool.invokeAll(tasks, threadCount) ) {
+			future.get();
+		}
+	}
+	catch ( ExecutionException e ) {
+		if ( e.getCause() instanceof RuntimeException ) {
+			throw (RuntimeException)e.getCause();
+		}
+		throw new RuntimeException ( e.getCause() );
+	}
+	catch ( InterruptedException e ) {
+		Thread.currentThread().interrupt();
+		throw new RuntimeException ( "Interrupted projecting shapes.", e );
+	}
+}
+
 /**
 Read a recognized layer type, returning a GeoLayer object (that can be cast to the specific type if necessary).
 This is a utility method to simplify reading GIS data.
 The file type is determined by calling each file's is*() method (e.g., ESRIShapefile.isESRIShapefile()).
 @param filename Name of layer file to read.
 @param props Properties to use during reading.
-Currently the only one recognized is "ReadAttributes",
-which indicates whether shapefile attributes should be read (if not, attributes will be read on the fly).
+"ReadAttributes" indicates whether shapefile attributes should be read (if not, attributes will be read on the fly).
+"ReadShapesOnDemand" and "ShapeCacheSize" indicate whether shapefile shapes should be read only when requested
+(see ESRIShapefile).
 The properties are passed directly to the layer type's read method (e.g., its constructor).
 @return the GeoLayer read from the file, or null if an error.
 @exception IOException if there is an error reading the layer.
@@ -769,9 +821,11 @@ throws IOException {
 		// Do this first because the filename for xmrg, etc. may match the other criteria but still be a shapefile.
 		PropList props2 = new PropList ( "ESRIShapefile" );
 		props2.set ( "InputName", filename );
-		String propValue = props.getValue("ReadAttributes");
-		if ( propValue != null ) {
-			props2.set ( "ReadAttributes", propValue );
+		for ( String propName : new String[] { "ReadAttributes", "ReadShapesOnDemand", "ShapeCacheSize" } ) {
+			String propValue = props.getValue(propName);
+			if ( propValue != null ) {
+				props2.set ( propName, propValue );
+			}
 		}
 		GeoLayer layer = new ESRIShapefile ( props2 );
 		return layer;
@@ -0,0 +1,267 @@
+// GeoLayerProjectionCache - cache of projected layer shapes
+
+/* NoticeStart
+
+CDSS Common Java Library
+CDSS Common Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2025 Colorado Department of Natural Resources
+
+CDSS Common Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+CDSS Common Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with CDSS Common Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package RTi.GIS.GeoView;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Vector;
+
+import RTi.GR.GRArc;
+import RTi.GR.GRPoint;
+import RTi.GR.GRPointZM;
+import RTi.GR.GRPolygon;
+import RTi.GR.GRPolygonList;
+import RTi.GR.GRPolyline;
+import RTi.GR.GRPolylineList;
+import RTi.GR.GRPolylineZM;
+import RTi.GR.GRPolylineZMList;
+import RTi.GR.GRPolypoint;
+import RTi.GR.GRShape;
+import RTi.Util.Message.Message;
+
+/**
+Cache of projected layer shapes, keyed by the layer source file, file modification time, and projections.
+Projecting a large layer (e.g., a statewide polygon layer) when it is read can be slow,
+and the same layer is often read again with the same projection, for example when a GeoView project is reopened.
+The cache holds copies of the projected shapes so that layers using the cache can modify their shapes
+without changing the cache.
+The cache should only be used for layers that have just been read, so that the shapes match the file.
+*/
+public class GeoLayerProjectionCache
+{
+
+/**
+Key for cached shapes.
+*/
+private static class Key
+{
+	private String path;
+	private long lastModified;
+	private GeoProjection from;
+	private GeoProjection to;
+
+	private Key ( String path, long lastModified, GeoProjection from, GeoProjection to ) {
+		this.path = path;
+		this.lastModified = lastModified;
+		this.from = from;
+		this.to = to;
+	}
+
+	public boolean equals ( Object o ) {
+		if ( !(o instanceof Key) ) {
+			return false;
+		}
+		Key other = (Key)o;
+		return this.path.equals(other.path) && (this.lastModified == other.lastModified) &&
+			sameProjection(this.from, other.from) && sameProjection(this.to, other.to);
+	}
+
+	public int hashCode () {
+		return this.path.hashCode()*31 + Long.hashCode(this.lastModified)*7 +
+			this.to.getProjectionName().toUpperCase().hashCode();
+	}
+}
+
+/**
+Determine whether two projections give the same projected coordinates.
+GeoProjection.equals() only compares the projection name, datum, and zone, but, for example,
+two UTM projections in the same zone can have different false easting and northing, central meridian,
+latitude of origin, and scale factor.
+@param p1 first projection
+@param p2 second projection
+@return true if the projections are the same type and have the same parameters
+*/
+private static boolean sameProjection ( GeoProjection p1, GeoProjection p2 ) {
+	return (p1.getClass() == p2.getClass()) && p1.equals(p2) &&
+		(p1._false_easting == p2._false_easting) && (p1._false_northing == p2._false_northing) &&
+		(p1._lon_center == p2._lon_center) && (p1._lat_origin == p2._lat_origin) &&
+		(p1._scale_factor == p2._scale_factor) && (p1._r_major == p2._r_major) && (p1._r_minor == p2._r_minor);
+}
+
+/**
+Cached projected shapes, in least recently used order.
+*/
+private static final LinkedHashMap<Key,List<GRShape>> cache = new LinkedHashMap<>(16, .75f, true);
+
+/**
+Maximum number of layers in the cache.
+*/
+private static int maxLayerCount = 4;
+
+/**
+Remove all layers from the cache.
+*/
+public static synchronized void clear () {
+	cache.clear();
+}
+
+/**
+Copy shapes.
+@param shapes shapes to copy
+@return a list of copies of the shapes, or null if a shape type cannot be copied
+*/
+private static List<GRShape> copyShapes ( List<GRShape> shapes ) {
+	List<GRShape> copies = new Vector<>(shapes.size());
+	for ( GRShape shape : shapes ) {
+		if ( shape == null ) {
+			copies.add ( null );
+		}
+		else if ( shape.type == GRShape.ARC ) {
+			copies.add ( new GRArc((GRArc)shape) );
+		}
+		else if ( shape.type == GRShape.POINT ) {
+			copies.add ( new GRPoint((GRPoint)shape) );
+		}
+		else if ( shape.type == GRShape.POINT_ZM ) {
+			copies.add ( new GRPointZM((GRPointZM)shape) );
+		}
+		else if ( shape.type == GRShape.POLYGON ) {
+			copies.add ( new GRPolygon((GRPolygon)shape) );
+		}
+		else if ( shape.type == GRShape.POLYGON_LIST ) {
+			copies.add ( new GRPolygonList((GRPolygonList)shape) );
+		}
+		else if ( shape.type == GRShape.POLYLINE ) {
+			copies.add ( new GRPolyline((GRPolyline)shape) );
+		}
+		else if ( shape.type == GRShape.POLYLINE_LIST ) {
+			copies.add ( new GRPolylineList((GRPolylineList)shape) );
+		}
+		else if ( shape.type == GRShape.POLYLINE_ZM ) {
+			copies.add ( new GRPolylineZM((GRPolylineZM)shape) );
+		}
+		else if ( shape.type == GRShape.POLYLINE_ZM_LIST ) {
+			copies.add ( new GRPolylineZMList((GRPolylineZMList)shape) );
+		}
+		else if ( shape.type == GRShape.POLYPOINT ) {
+			copies.add ( new GRPolypoint((GRPolypoint)shape) );
+		}
+		else {
+			return null;
+		}
+	}
+	return copies;
+}
+
+/**
+Create the cache key for a layer.
+@return the key, or null if the layer cannot be cached because it does not have a source file or
+its shapes are read on demand
+*/
+private static Key createKey ( GeoLayer layer, GeoProjection projection ) {
+	String filename = layer.getFileName();
+	if ( (filename == null) || filename.isEmpty() || (layer.getProjection() == null) ||
+		(layer.getShapes() instanceof ESRIShapefileShapeList) ) {
+		return null;
+	}
+	File file = new File ( filename );
+	if ( !file.isFile() ) {
+		return null;
+	}
+	return new Key ( file.getAbsolutePath(), file.lastModified(), layer.getProjection(), projection );
+}
+
+/**
+Return the number of layers in the cache.
+@return the number of layers in the cache
+*/
+public static synchronized int getLayerCount () {
+	return cache.size();
+}
+
+/**
+Return the maximum number of layers in the cache.
+@return the maximum number of layers in the cache
+*/
+public static synchronized int getMaxLayerCount () {
+	return maxLayerCount;
+}
+
+/**
+Project a layer that has just been read, using cached shapes if the same file has previously been projected.
+If the shapes are not in the cache, the layer is projected with GeoLayer.project() and copies of the projected
+shapes are added to the cache.
+@param layer layer to project
+@param projection projection to change to
+*/
+public static void project ( GeoLayer layer, GeoProjection projection ) {
+	String routine = GeoLayerProjectionCache.class.getSimpleName() + ".project";
+	if ( !GeoProjection.needToProject(layer.getProjection(), projection) ) {
+		return;
+	}
+	Key key = createKey ( layer, projection );
+	if ( key == null ) {
+		layer.project ( projection );
+		return;
+	}
+	List<GRShape> cachedShapes;
+	synchronized ( GeoLayerProjectionCache.class ) {
+		cachedShapes = cache.get ( key );
+	}
+	if ( (cachedShapes != null) && (cachedShapes.size() == layer.getShapes().size()) ) {
+		Message.printStatus ( 2, routine, "Using cached projected shapes for \"" + key.path + "\"." );
+		layer.setShapes ( copyShapes(cachedShapes) );
+		try {
+			layer.computeLimits ( true );
+		}
+		catch ( Exception e ) {
+			// Should not matter.
+		}
+		layer.setProjection ( projection );
+		return;
+	}
+	layer.project ( projection );
+	List<GRShape> copies = copyShapes ( layer.getShapes() );
+	if ( copies != null ) {
+		synchronized ( GeoLayerProjectionCache.class ) {
+			cache.put ( key, copies );
+			trim();
+		}
+	}
+}
+
+/**
+Set the maximum number of layers in the cache, removing the least recently used layers if necessary.
+@param maxLayerCount maximum number of layers in the cache, 0 to disable the cache
+*/
+public static synchronized void setMaxLayerCount ( int maxLayerCount ) {
+	GeoLayerProjectionCache.maxLayerCount = Math.max ( 0, maxLayerCount );
+	trim();
+}
+
+/**
+Remove the least recently used layers if the cache is too large.
+*/
+private static void trim () {
+	Iterator<Map.Entry<Key,List<GRShape>>> it = cache.entrySet().iterator();
+	while ( (cache.size() > maxLayerCount) && it.hasNext() ) {
+		it.next();
+		it.remove();
+	}
+}
+
+}
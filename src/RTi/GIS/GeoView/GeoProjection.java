@@ -526,6 +526,52 @@ public GRPoint project ( GRPoint p, boolean reuse_point )
 	return p;
 }
 
+/**
+Project arrays of latitude and longitude to the projection's coordinate system.
+Derived classes should override this method to project without creating a point object for each value.
+@param x Longitude values to project, which are replaced with projected X values.
+@param y Latitude values to project, which are replaced with projected Y values.
+@param n Number of values to project.
+*/
+public void project ( double [] x, double [] y, int n )
+{	GRPoint p = new GRPoint ( 0.0, 0.0 );
+	for ( int i = 0; i < n; i++ ) {
+		p.setXY ( x[i], y[i] );
+		p = project ( p, true );
+		x[i] = p.x;
+		y[i] = p.y;
+	}
+}
+
+/**
+Project points from one projection to another, using the array methods for the projections.
+The points are modified.
+@param from Projection to convert from.
+@param to Projection to convert to.
+@param pts Points to convert.
+@param npts Number of points to convert.
+*/
+private static void projectPoints ( GeoProjection from, GeoProjection to, GRPoint [] pts, int npts )
+{	double [] x = new double[npts];
+	double [] y = new double[npts];
+	for ( int i = 0; i < npts; i++ ) {
+		x[i] = pts[i].x;
+		y[i] = pts[i].y;
+	}
+	from.unProject ( x, y, npts );
+	to.project ( x, y, npts );
+	GRPoint p;
+	for ( int i = 0; i < npts; i++ ) {
+		p = pts[i];
+		p.x = x[i];
+		p.y = y[i];
+		p.xmax = p.x;
+		p.xmin = p.x;
+		p.ymax = p.y;
+		p.ymin = p.y;
+	}
+}
+
 /**
 Project a shape from one projection to another.  Note that GRArc radii are not currently projected.
 @param from Projection to convert from.
@@ -568,9 +614,8 @@ public static GRShape projectShape ( GeoProjection from, GeoProjection to, GRSha
 		else {
 			polygon = new GRPolygon ( (GRPolygon)shape );
 		}
+		projectPoints ( from, to, polygon.pts, polygon.npts );
 		for ( int i = 0; i < polygon.npts; i++ ) {
-			from.unProject(polygon.pts[i],true);
-			to.project(polygon.pts[i],true);
 			// This is necessary to recalculate the max/min values, which ultimately get used when
 			// deciding if the shape should be drawn...
 			polygon.setPoint ( i, polygon.pts[i] );
@@ -618,9 +663,8 @@ public static GRShape projectShape ( GeoProjection from, GeoProjection to, GRSha
 		else {
 			polyline = new GRPolyline ( (GRPolyline)shape );
 		}
+		projectPoints ( from, to, polyline.pts, polyline.npts );
 		for ( int i = 0; i < polyline.npts; i++ ) {
-			from.unProject(polyline.pts[i],true);
-			to.project(polyline.pts[i],true);
 			// This is necessary to recalculate the max/min values, which ultimately get used when
 			// deciding if the shape should be drawn...
 			polyline.setPoint ( i, polyline.pts[i] );
@@ -643,9 +687,8 @@ public static GRShape projectShape ( GeoProjection from, GeoProjection to, GRSha
 		else {
 			polyline = new GRPolylineZM ( (GRPolylineZM)shape );
 		}
+		projectPoints ( from, to, polyline.pts, polyline.npts );
 		for ( int i = 0; i < polyline.npts; i++ ) {
-			from.unProject(polyline.pts[i],true);
-			to.project(polyline.pts[i],true);
 			// This is necessary to recalculate the max/min values, which ultimately get used when
 			// deciding if the shape should be drawn...
 			polyline.setPoint ( i, polyline.pts[i] );
@@ -754,9 +797,8 @@ public static GRShape projectShape ( GeoProjection from, GeoProjection to, GRSha
 		else {
 			polypoint = new GRPolypoint ( (GRPolypoint)shape );
 		}
+		projectPoints ( from, to, polypoint.pts, polypoint.npts );
 		for ( int i = 0; i < polypoint.npts; i++ ) {
-			from.unProject(polypoint.pts[i],true);
-			to.project(polypoint.pts[i],true);
 			// This is necessary to recalculate the max/min values, which ultimately get used when
 			// deciding if the shape should be drawn...
 			polypoint.setPoint ( i, polypoint.pts[i] );
@@ -862,4 +904,21 @@ public GRPoint unProject ( GRPoint p, boolean reusePoint )
 	return p;
 }
 
+/**
+Un-project arrays of coordinates back to latitude and longitude.
+Derived classes should override this method to un-project without creating a point object for each value.
+@param x X values to un-project, which are replaced with longitude values.
+@param y Y values to un-project, which are replaced with latitude values.
+@param n Number of values to un-project.
+*/
+public void unProject ( double [] x, double [] y, int n )
+{	GRPoint p = new GRPoint ( 0.0, 0.0 );
+	for ( int i = 0; i < n; i++ ) {
+		p.setXY ( x[i], y[i] );
+		p = unProject ( p, true );
+		x[i] = p.x;
+		y[i] = p.y;
+	}
+}
+
 }
@@ -1306,6 +1306,17 @@ private void drawLayerView ( GeoLayerView layerView, boolean selectedOnly ) {
 		double xmax = __dataLimits.getMaxX();
 		double ymin = __dataLimits.getMinY();
 		double ymax = __dataLimits.getMaxY();
+		// Shapes that are read on demand can be skipped using the bounding box from the file without reading
+		// the shape, and are drawn simplified to the size of a pixel.
+		ESRIShapefileShapeList onDemandShapes = null;
+		double simplifyTolerance = 0.0;
+		if ( (shapes instanceof ESRIShapefileShapeList) && !doProject && !_printing && !__isReferenceGeoview ) {
+			onDemandShapes = (ESRIShapefileShapeList)shapes;
+			GRLimits drawingLimits = __grda.getDrawingLimits();
+			if ( drawingLimits.getWidth() > 0.0 ) {
+				simplifyTolerance = (xmax - xmin)/drawingLimits.getWidth();
+			}
+		}
 		label = null;
 		Message.printStatus ( 2, routine, __prefix + "Drawing layer \"" + layer.getFileName() + "\" type \""+
 			appType + "\" with layer limits " + layer.getLimits() + " labelField=\"" + labelField +
@@ -1361,7 +1372,16 @@ private void drawLayerView ( GeoLayerView layerView, boolean selectedOnly ) {
 		for ( int ishape = 0; ishape < nshapes; ishape++ ) {
 			props = null;
 
-			shape = shapes.get(ishape);
+			if ( onDemandShapes != null ) {
+				if ( !onDemandShapes.intersects(ishape, xmin, ymin, xmax, ymax) ) {
+					// No reason to read the shape because it will not be visible.
+					continue;
+				}
+				shape = onDemandShapes.getSimplifiedShape(ishape, simplifyTolerance);
+			}
+			else {
+				shape = shapes.get(ishape);
+			}
 			//Message.printStatus(2, routine, "Drawing shape " + ishape + " " + shape );
 			if ( shape == null ) {
 				// Null shape.
@@ -1667,7 +1687,15 @@ private void drawLayerView ( GeoLayerView layerView, boolean selectedOnly ) {
 			if ( (color != null) && !color.isTransparent() ) {
 				__grda.setColor ( color );
 				for ( int ishape = 0; ishape < nshapes; ishape++ ) {
-					shape = shapes.get(ishape);
+					if ( onDemandShapes != null ) {
+						if ( !onDemandShapes.intersects(ishape, xmin, ymin, xmax, ymax) ) {
+							continue;
+						}
+						shape = onDemandShapes.getSimplifiedShape(ishape, simplifyTolerance);
+					}
+					else {
+						shape = shapes.get(ishape);
+					}
 					if ( shape == null ) {
 						continue;
 					}
@@ -347,7 +347,8 @@ private void setLayerViewProperties ( GeoLayerView layerView, int index ) {
 			propValue = _proplist.getValue ( "GeoView.Projection");
 			if ( propValue != null ) {
 				Message.printStatus ( 1, routine, "Projecting to common projection..." );
-				layer.project( GeoProjection.parseProjection(propValue) );
+				// The layer was just read so shapes projected when previously read can be reused.
+				GeoLayerProjectionCache.project( layer, GeoProjection.parseProjection(propValue) );
 			}
 		}
 		catch ( Exception e ) {
@@ -82,6 +82,16 @@ public GRPoint project ( GRPoint p, boolean reuse_point)
 	}
 }
 
+/**
+This just leaves the original coordinates.
+@param x Longitude values to project.
+@param y Latitude values to project.
+@param n Number of values to project.
+*/
+public void project ( double [] x, double [] y, int n )
+{
+}
+
 /**
 Un-project coordinates back to latitude and longitude.  This returns the same coordinates.
 @return the un-projected points.  Assumes point comes in as (longitude, latitude)
@@ -97,5 +107,15 @@ public GRPoint unProject(GRPoint p, boolean reuse_point)
 		return new GRPoint ( p );
 	}
 }
+
+/**
+This just leaves the original coordinates.
+@param x X values to un-project.
+@param y Y values to un-project.
+@param n Number of values to un-project.
+*/
+public void unProject ( double [] x, double [] y, int n )
+{
+}
 	
 }
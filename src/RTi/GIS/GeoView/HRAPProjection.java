@@ -74,55 +74,15 @@ Project latitude and longitude to the HRAP coordinate system.
 */
 public GRPoint project( GRPoint p, boolean reuse_point) {
 	// Will be retrieving HRAP values.
-	double hrap_x = -999.0;
-	double hrap_y = -999.0;
-
-	// Get the lat and long out of the point passed in.
-	double rlon = 0.0;
-	double rlat = 0.0;
-	// HRAP needs positive longitude.
-	if ( p.x < 0 ) {
-		rlon = -p.x;
-	}
-	else {	rlon = p.x;
-	}
-	rlat = p.y;
-
-	// Set variables for calc.
-	double pi = 3.141592654;
-	double d2rad = 0.0;
-	double ref_lat = 0.0;
-	double ref_lon = 0.0;
-	double rmesh = 0.0;
-	double tlat = 0.0;
-	double re = 0.0;
-	double flat = 0.0;
-	double flon = 0.0;
-	double r = 0.0;
-	double x = 0.0;
-	double y = 0.0;
-
-	d2rad = pi/180.0;
-	ref_lat = 60.0;
-	ref_lon=105.0;
-	rmesh = 4.7625;
-	tlat = ref_lat*d2rad;
-	re=(_earthrad*(1.0+Math.sin(tlat)))/rmesh;
-	flat = rlat*d2rad;
-	flon=((rlon+180.0)-ref_lon)*d2rad;
-	r = re*Math.cos(flat)/(1.0+Math.sin(flat));
-	x = r*Math.sin(flon);
-	y = r*Math.cos(flon);
-
-	// Calc hraps x and y.
-	hrap_x = x+401.0;
-	hrap_y = y+1601.0;
+	double [] hrap_x = { p.x };
+	double [] hrap_y = { p.y };
+	project ( hrap_x, hrap_y, 1 );
 
 	// Now have a HRAP x and y (as doubles).
 	// Just reset point if reuse_point is true.
 	if (reuse_point) {
-		p.x=hrap_x;
-		p.y=hrap_y;
+		p.x=hrap_x[0];
+		p.y=hrap_y[0];
 		p.xmax = p.x;
 		p.xmin = p.x;
 		p.ymax = p.y;
@@ -131,7 +91,44 @@ public GRPoint project( GRPoint p, boolean reuse_point) {
 	}
 	// Create a new point to return.
 	else {
-		return new GRPoint(hrap_x,hrap_y);
+		return new GRPoint(hrap_x[0],hrap_y[0]);
+	}
+}
+
+/**
+Project arrays of longitude and latitude to the HRAP coordinate system.
+@param xa longitudes to project, which are replaced with HRAP X coordinates.
+@param ya latitudes to project, which are replaced with HRAP Y coordinates.
+@param n number of points to project.
+*/
+public void project ( double [] xa, double [] ya, int n ) {
+	// Set variables for calc.
+	double pi = 3.141592654;
+	double d2rad = pi/180.0;
+	double ref_lat = 60.0;
+	double ref_lon=105.0;
+	double rmesh = 4.7625;
+	double tlat = ref_lat*d2rad;
+	double re=(_earthrad*(1.0+Math.sin(tlat)))/rmesh;
+	for ( int i = 0; i < n; i++ ) {
+		// Get the lat and long out of the arrays.
+		double rlon = 0.0;
+		// HRAP needs positive longitude.
+		if ( xa[i] < 0 ) {
+			rlon = -xa[i];
+		}
+		else {	rlon = xa[i];
+		}
+		double rlat = ya[i];
+		double flat = rlat*d2rad;
+		double flon=((rlon+180.0)-ref_lon)*d2rad;
+		double r = re*Math.cos(flat)/(1.0+Math.sin(flat));
+		double x = r*Math.sin(flon);
+		double y = r*Math.cos(flon);
+
+		// Calc hraps x and y.
+		xa[i] = x+401.0;
+		ya[i] = y+1601.0;
 	}
 }
 
@@ -142,62 +139,14 @@ Un-project coordinates from HRAP back to longitude, latitude.
 @param reuse_point Indicates whether the point that is passed in should be re-used for the output (doing so saves memory).
 */
 public GRPoint unProject(GRPoint p, boolean reuse_point) {
-	// Will determine lat and long points.
-	double rlon = 0.0;
-	double rlat = 0.0;
-
-	// Get the HRAP-x and HRAP-y out of the point.
 	// Assumes they come in as (x, y). HRAP coords are ints but are converted to double for the calculations.
-	double hrap_x = -999.0;
-	double hrap_y = -999.0;
-	hrap_x = p.x;
-	hrap_y = p.y;
-
-	// Set variables for calc.
-	double pi = 3.141592654;
-	double stlon = 0.0;
-	double raddeg = 0.0;
-	double xmesh = 0.0;
-	double tlat = 0.0;
-	double x = 0.0;
-	double y = 0.0;
-	double rr = 0.0;
-	double gi = 0.0;
-	double ang = 0.0;
-
-	stlon = 105.0;
-	raddeg = 180.0/pi;
-	xmesh = 4.7625;
-	tlat = 60.0/raddeg;
-	x = hrap_x-401.0;
-	y = hrap_y-1601.0;
-	rr = x*x+y*y;
-	gi = ((_earthrad*(1.0 + Math.sin(tlat)))/xmesh);
-	gi = gi*gi;
-
-	// Get rlat.
-	rlat = Math.asin((gi-rr)/(gi+rr))*raddeg;
-
-	ang = Math.atan2(y,x)*raddeg;
-	if(ang<0) {
-		ang = ang+360.0;
-	}
-
-	// Get rlong.
-	rlon = 270.0 + stlon-ang;
-	if(rlon<0) {
-		rlon = rlon+360.0;
-	}
-	if(rlon>360.0) {
-		rlon = rlon-360.0;
-	}
-
-	// Assume for now that longitude should be negative since current applications are in the USA.
-	// Need to revisit if other than NW hemisphere is used.
+	double [] x = { p.x };
+	double [] y = { p.y };
+	unProject ( x, y, 1 );
 
 	if(reuse_point) {
-		p.x=-rlon;
-		p.y=rlat;
+		p.x=x[0];
+		p.y=y[0];
 		p.xmax = p.x;
 		p.xmin = p.x;
 		p.ymax = p.y;
@@ -205,7 +154,51 @@ public GRPoint unProject(GRPoint p, boolean reuse_point) {
 		return p;
 	}
 	// If reuse is false, create new GRPoint.
-	else {	return new GRPoint(-rlon,rlat);
+	else {	return new GRPoint(x[0],y[0]);
+	}
+}
+
+/**
+Un-project arrays of HRAP coordinates back to longitude, latitude.
+@param xa HRAP X coordinates to un-project, which are replaced with longitudes.
+@param ya HRAP Y coordinates to un-project, which are replaced with latitudes.
+@param n number of points to un-project.
+*/
+public void unProject ( double [] xa, double [] ya, int n ) {
+	// Set variables for calc.
+	double pi = 3.141592654;
+	double stlon = 105.0;
+	double raddeg = 180.0/pi;
+	double xmesh = 4.7625;
+	double tlat = 60.0/raddeg;
+	double gi = ((_earthrad*(1.0 + Math.sin(tlat)))/xmesh);
+	gi = gi*gi;
+	for ( int i = 0; i < n; i++ ) {
+		double x = xa[i]-401.0;
+		double y = ya[i]-1601.0;
+		double rr = x*x+y*y;
+
+		// Get rlat.
+		double rlat = Math.asin((gi-rr)/(gi+rr))*raddeg;
+
+		double ang = Math.atan2(y,x)*raddeg;
+		if(ang<0) {
+			ang = ang+360.0;
+		}
+
+		// Get rlong.
+		double rlon = 270.0 + stlon-ang;
+		if(rlon<0) {
+			rlon = rlon+360.0;
+		}
+		if(rlon>360.0) {
+			rlon = rlon-360.0;
+		}
+
+		// Assume for now that longitude should be negative since current applications are in the USA.
+		// Need to revisit if other than NW hemisphere is used.
+		xa[i] = -rlon;
+		ya[i] = rlat;
 	}
 }
 
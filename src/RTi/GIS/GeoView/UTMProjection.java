@@ -201,82 +201,120 @@ Project latitude and longitude to the UTM coordinate system.
 @param reuse_point Indicates whether the point that is passed in should be re-used for the output (doing so saves memory).
 */
 public GRPoint project ( GRPoint p, boolean reuse_point ) {
+	double [] x = { p.x };
+	double [] y = { p.y };
+	project ( x, y, 1 );
+	if (reuse_point) {
+		p.x = x[0];
+		p.y = y[0];
+		p.xmax = p.x;
+		p.xmin = p.x;
+		p.ymax = p.y;
+		p.ymin = p.y;
+		return p;
+	}
+	else {
+		return new GRPoint( x[0], y[0]);
+	}
+}
+
+/**
+Project arrays of longitude and latitude to the UTM coordinate system.
+@param xa longitudes to project, which are replaced with UTM X coordinates.
+@param ya latitudes to project, which are replaced with UTM Y coordinates.
+@param n number of points to project.
+*/
+public void project ( double [] xa, double [] ya, int n ) {
 	double delta_lon;	// Delta longitude (Given longitude - center).
 	double sin_phi, cos_phi;// Sin and cos value.
 	double al, als;		// Temporary values.
 	double b;		// Temporary values.
 	double c, t, tq;	// Temporary values.
-	double con, n, ml;	// Cone constant, small m.
+	double con, n2, ml;	// Cone constant, small m.
 
 	double D2R = 1.745329251994328e-2;
-	double lon = p.x*D2R;	// Longitude to project, radians.
-	double lat = p.y*D2R;	// Latitude to project, radians.
-	double x = 0.0;		// UTM X.
-	double y = 0.0;		// UTM Y.
-
-	// Forward equations
-	delta_lon = adjust_lon(lon - _lon_center);
-	sin_phi = Math.sin ( lat );
-	cos_phi = Math.cos ( lat );
-
-	// This part was in the fortran code and is for the spherical form.
-	if ( _ind ) {
-		b = cos_phi * Math.sin(delta_lon);
-		if ((Math.abs(Math.abs(b) - 1.0)) < .0000000001) {
-			Message.printWarning ( 2, "UTMProjection.project", "Point projects into infinity" );
-			x = 0.0;
-			y = 0.0;
+	for ( int i = 0; i < n; i++ ) {
+		double lon = xa[i]*D2R;	// Longitude to project, radians.
+		double lat = ya[i]*D2R;	// Latitude to project, radians.
+		double x = 0.0;		// UTM X.
+		double y = 0.0;		// UTM Y.
+
+		// Forward equations
+		delta_lon = adjust_lon(lon - _lon_center);
+		sin_phi = Math.sin ( lat );
+		cos_phi = Math.cos ( lat );
+
+		// This part was in the fortran code and is for the spherical form.
+		if ( _ind ) {
+			b = cos_phi * Math.sin(delta_lon);
+			if ((Math.abs(Math.abs(b) - 1.0)) < .0000000001) {
+				Message.printWarning ( 2, "UTMProjection.project", "Point projects into infinity" );
+				x = 0.0;
+				y = 0.0;
+			}
+			else {
+				x = .5*_r_major*_scale_factor * Math.log((1.0 + b)/(1.0 - b));
+				con = Math.acos(cos_phi * Math.cos(delta_lon)/Math.sqrt(1.0 - b*b));
+				if ( lat < 0 ) {
+					con = -con;
+				}
+				y = _r_major * _scale_factor * (con - _lat_origin);
+			}
 		}
 		else {
-			x = .5*_r_major*_scale_factor * Math.log((1.0 + b)/(1.0 - b));
-			con = Math.acos(cos_phi * Math.cos(delta_lon)/Math.sqrt(1.0 - b*b));
-			if ( lat < 0 ) {
-				con = -con;
-			}
-			y = _r_major * _scale_factor * (con - _lat_origin);
+			al  = cos_phi * delta_lon;
+			als = al*al;
+			c   = _esp*cos_phi*cos_phi;
+			tq  = Math.tan(lat);
+			t   = tq*tq;
+			con = 1.0 - _es*sin_phi*sin_phi;
+			n2  = _r_major / Math.sqrt(con);
+			ml  = _r_major * mlfn(_e0, _e1, _e2, _e3, lat);
+
+			x  = _scale_factor*n2*al*(1.0 + als/6.0*(1.0 - t + c + als/20.0 *
+	      			(5.0 - 18.0*t + t*t + 72.0*c - 58.0*_esp))) + _false_easting;
+
+			y  = _scale_factor*(ml - _ml0 + n2*tq*(als * (0.5 + als/24.0*
+	      			(5.0 - t + 9.0*c + 4.0*c*c + als/30.0*
+				(61.0 - 58.0*t + t*t + 600.0*c - 330.0*_esp))))) + _false_northing;
 		}
+		xa[i] = x;
+		ya[i] = y;
 	}
-	else {
-		al  = cos_phi * delta_lon;
-		als = al*al;
-		c   = _esp*cos_phi*cos_phi;
-		tq  = Math.tan(lat);
-		t   = tq*tq;
-		con = 1.0 - _es*sin_phi*sin_phi;
-		n   = _r_major / Math.sqrt(con);
-		ml  = _r_major * mlfn(_e0, _e1, _e2, _e3, lat);
-
-		x  = _scale_factor*n*al*(1.0 + als/6.0*(1.0 - t + c + als/20.0 *
-      			(5.0 - 18.0*t + t*t + 72.0*c - 58.0*_esp))) + _false_easting;
-
-		y  = _scale_factor*(ml - _ml0 + n*tq*(als * (0.5 + als/24.0*
-      			(5.0 - t + 9.0*c + 4.0*c*c + als/30.0*
-			(61.0 - 58.0*t + t*t + 600.0*c - 330.0*_esp))))) + _false_northing;
-	}
+}
 
-	if (reuse_point) {
-		p.x = x;
-		p.y = y;
+/**
+Un-project coordinates from UTM back to longitude, latitude.
+@return the un-projected (from UTM) points.
+@param p Point to un-project to longitude, latitude.
+@param reuse_point Indicates whether the point that is passed in should be re-used for the output (doing so saves memory).
+*/
+public GRPoint unProject(GRPoint p, boolean reuse_point) {
+	double [] x = { p.x };
+	double [] y = { p.y };
+	unProject ( x, y, 1 );
+	if(reuse_point) {
+		p.x=x[0];
+		p.y=y[0];
 		p.xmax = p.x;
 		p.xmin = p.x;
 		p.ymax = p.y;
 		p.ymin = p.y;
 		return p;
 	}
+	// If reuse is false, create new GRPoint.
 	else {
-		return new GRPoint( x, y);
+		return new GRPoint(x[0],y[0]);
 	}
 }
 
 /**
-Un-project coordinates from UTM back to longitude, latitude.
-@return the un-projected (from UTM) points.
-@param p Point to un-project to longitude, latitude.
-@param reuse_point Indicates whether the point that is passed in should be re-used for the output (doing so saves memory).
+Un-project arrays of UTM coordinates back to longitude, latitude.
+@param xa UTM X coordinates to un-project, which are replaced with longitudes.
+@param ya UTM Y coordinates to un-project, which are replaced with latitudes.
+@param npts number of points to un-project.
 */
-public GRPoint unProject(GRPoint p, boolean reuse_point) {
-	double x = p.x;
-	double y = p.y;
+public void unProject ( double [] xa, double [] ya, int npts ) {
 	double lon;
 	double lat;
 	double con,phi;		// Temporary angles.
@@ -288,89 +326,82 @@ public GRPoint unProject(GRPoint p, boolean reuse_point) {
 	long max_iter = 6;			// Maximun number of iterations.
 	double HALF_PI = Math.PI*.5;
 	double EPSLN = 1.0e-10;
+	double R2D = 57.2957795131;
 
-	// Fortran code for spherical form .
-
-	if ( _ind ) {
-		f = Math.exp(x/(_r_major * _scale_factor));
-		g = .5 * (f - 1/f);
-		temp = _lat_origin + y/(_r_major * _scale_factor);
-		h = Math.cos(temp);
-		con = Math.sqrt((1.0 - h * h)/(1.0 + g * g));
-		lat = asinz(con);
-		if ( temp < 0 ) {
-   			lat = -lat;
-		}
-		if ((g == 0) && (h == 0)) {
-			lon = _lon_center;
-		}
-		else {
-			lon = adjust_lon(Math.atan2(g,h) + _lon_center);
-		}
-	}
-	else {
-		// Inverse equations.
-		x = x - _false_easting;
-		y = y - _false_northing;
-
-		con = (_ml0 + y / _scale_factor) / _r_major;
-		phi = con;
-		for (i=0;;i++) {
-			delta_phi=((con + _e1 * Math.sin(2.0*phi) - _e2 * Math.sin(4.0*phi) + _e3 * Math.sin(6.0*phi))/_e0) - phi;
-			// Commented in GCTP code.
-			//delta_phi = ((con + e1 * sin(2.0*phi) - e2 * sin(4.0*phi)) / e0) - phi;
-			phi += delta_phi;
-			if (Math.abs(delta_phi) <= EPSLN) {
-				break;
+	for ( int ipt = 0; ipt < npts; ipt++ ) {
+		double x = xa[ipt];
+		double y = ya[ipt];
+		// Fortran code for spherical form .
+
+		if ( _ind ) {
+			f = Math.exp(x/(_r_major * _scale_factor));
+			g = .5 * (f - 1/f);
+			temp = _lat_origin + y/(_r_major * _scale_factor);
+			h = Math.cos(temp);
+			con = Math.sqrt((1.0 - h * h)/(1.0 + g * g));
+			lat = asinz(con);
+			if ( temp < 0 ) {
+	   			lat = -lat;
 			}
-			if (i >= max_iter) {
-				Message.printWarning ( 3, "UTMProjection.unProject", "Latitude failed to converge");
-				lat = 0.0;
-				lon = 0.0;
-				break;
+			if ((g == 0) && (h == 0)) {
+				lon = _lon_center;
+			}
+			else {
+				lon = adjust_lon(Math.atan2(g,h) + _lon_center);
 			}
-		}
-
-		if (Math.abs(phi) < HALF_PI) {
-			sin_phi = Math.sin(phi);
-			cos_phi = Math.cos(phi);
-			tan_phi = Math.tan(phi);
-			c = _esp*cos_phi*cos_phi;
-			cs   = c*c;
-			t    = tan_phi*tan_phi;
-			ts   = t*t;
-			con  = 1.0 - _es*sin_phi*sin_phi;
-			n    = _r_major /Math.sqrt(con);
-			r    = n * (1.0 - _es) / con;
-			d    = x / (n * _scale_factor);
-			ds   = d*d;
-			lat = phi - (n*tan_phi*ds/r)*(0.5 -
-				ds/24.0*(5.0 + 3.0*t + 10.0*c - 4.0*cs -
-				9.0*_esp - ds/30.0 * (61.0 + 90.0*t +
-				298.0*c + 45.0*ts - 252.0*_esp - 3.0*cs)));
-			lon = adjust_lon(_lon_center + (d*(1.0 -
-				ds/6.0*(1.0 + 2.0*t + c - ds/20.0*(5.0 - 2.0*c +
-				28.0*t - 3.0*cs + 8.0*_esp +
-				24.0*ts)))/cos_phi));
 		}
 		else {
-			lat = HALF_PI * sign(y);
-			lon = _lon_center;
+			// Inverse equations.
+			x = x - _false_easting;
+			y = y - _false_northing;
+
+			con = (_ml0 + y / _scale_factor) / _r_major;
+			phi = con;
+			for (i=0;;i++) {
+				delta_phi=((con + _e1 * Math.sin(2.0*phi) - _e2 * Math.sin(4.0*phi) + _e3 * Math.sin(6.0*phi))/_e0) - phi;
+				// Commented in GCTP code.
+				//delta_phi = ((con + e1 * sin(2.0*phi) - e2 * sin(4.0*phi)) / e0) - phi;
+				phi += delta_phi;
+				if (Math.abs(delta_phi) <= EPSLN) {
+					break;
+				}
+				if (i >= max_iter) {
+					Message.printWarning ( 3, "UTMProjection.unProject", "Latitude failed to converge");
+					lat = 0.0;
+					lon = 0.0;
+					break;
+				}
+			}
+
+			if (Math.abs(phi) < HALF_PI) {
+				sin_phi = Math.sin(phi);
+				cos_phi = Math.cos(phi);
+				tan_phi = Math.tan(phi);
+				c = _esp*cos_phi*cos_phi;
+				cs   = c*c;
+				t    = tan_phi*tan_phi;
+				ts   = t*t;
+				con  = 1.0 - _es*sin_phi*sin_phi;
+				n    = _r_major /Math.sqrt(con);
+				r    = n * (1.0 - _es) / con;
+				d    = x / (n * _scale_factor);
+				ds   = d*d;
+				lat = phi - (n*tan_phi*ds/r)*(0.5 -
+					ds/24.0*(5.0 + 3.0*t + 10.0*c - 4.0*cs -
+					9.0*_esp - ds/30.0 * (61.0 + 90.0*t +
+					298.0*c + 45.0*ts - 252.0*_esp - 3.0*cs)));
+				lon = adjust_lon(_lon_center + (d*(1.0 -
+					ds/6.0*(1.0 + 2.0*t + c - ds/20.0*(5.0 - 2.0*c +
+					28.0*t - 3.0*cs + 8.0*_esp +
+					24.0*ts)))/cos_phi));
+			}
+			else {
+				lat = HALF_PI * sign(y);
+				lon = _lon_center;
+			}
 		}
-	}
-	double R2D = 57.2957795131;
-	if(reuse_point) {
-		p.x=lon*R2D;
-		p.y=lat*R2D;
-		p.xmax = p.x;
-		p.xmin = p.x;
-		p.ymax = p.y;
-		p.ymin = p.y;
-		return p;
-	}
-	// If reuse is false, create new GRPoint.
-	else {
-		return new GRPoint(lon*R2D,lat*R2D);
+		xa[ipt] = lon*R2D;
+		ya[ipt] = lat*R2D;
 	}
 }
 
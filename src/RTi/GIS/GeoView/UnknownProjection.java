@@ -54,6 +54,15 @@ public GRPoint project ( GRPoint p, boolean reuse_point) {
 	}
 }
 
+/**
+This just leaves the original coordinates.
+@param x Longitude values to project.
+@param y Latitude values to project.
+@param n Number of values to project.
+*/
+public void project ( double [] x, double [] y, int n ) {
+}
+
 /**
 Un-project coordinates back to latitude and longitude.  This returns the same coordinates.
 @return the un-projected points.
@@ -69,4 +78,13 @@ public GRPoint unProject(GRPoint p, boolean reuse_point) {
 	}
 }
 
+/**
+This just leaves the original coordinates.
+@param x X values to un-project.
+@param y Y values to un-project.
+@param n Number of values to un-project.
+*/
+public void unProject ( double [] x, double [] y, int n ) {
+}
+
 }
\ No newline at end of file
@@ -0,0 +1,187 @@
+// XmrgFramePrefetcher - read a sequence of XMRG grids ahead of display
+
+/* NoticeStart
+
+CDSS Common Java Library
+CDSS Common Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2025 Colorado Department of Natural Resources
+
+CDSS Common Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+CDSS Common Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with CDSS Common Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package RTi.GIS.GeoView;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import RTi.Util.IO.DaemonThreadPool;
+import RTi.Util.Message.Message;
+
+/**
+This class reads a sequence of XMRG files, such as hourly precipitation grids to animate,
+reading the frames that follow the requested frame in background threads.
+Frames are held in a bounded cache that contains the most recently requested frame and
+the frames that are being read ahead, so that memory use does not grow with the length of the sequence.
+For example:
+<pre>
+XmrgFramePrefetcher prefetcher = new XmrgFramePrefetcher ( filenames, 6, 2 );
+for ( int i = 0; i < prefetcher.getFrameCount(); i++ ) {
+	XmrgGridLayer layer = prefetcher.getFrame ( i );
+	// Display the layer...
+}
+prefetcher.shutdown();
+</pre>
+*/
+public class XmrgFramePrefetcher
+{
+
+/**
+XMRG file names, in the order that frames will be requested.
+*/
+private List<String> __filenames = null;
+
+/**
+Number of frames after the requested frame to read ahead.
+*/
+private int __prefetchCount = 0;
+
+/**
+Frames that have been read or are being read, by frame index.
+*/
+private Map<Integer,Future<XmrgGridLayer>> __frames = new LinkedHashMap<>();
+
+/**
+Maximum number of frames to read ahead at the same time, using the shared DaemonThreadPool.
+*/
+private int __threadCount = 1;
+
+/**
+Construct a prefetcher for a list of XMRG files.
+@param filenames XMRG file names, in the order that frames will be requested.
+@param prefetchCount number of frames after the requested frame to read ahead (0 to only read on request).
+@param threadCount maximum number of frames to read in the background at the same time (1 or more).
+*/
+public XmrgFramePrefetcher ( List<String> filenames, int prefetchCount, int threadCount )
+{	__filenames = new ArrayList<>(filenames);
+	__prefetchCount = Math.max ( 0, prefetchCount );
+	__threadCount = Math.max ( 1, threadCount );
+}
+
+/**
+Return the grid for a frame, waiting for the frame to be read if necessary,
+and start reading the frames that follow.
+Frames that are before the requested frame or beyond the read-ahead range are removed from the cache.
+@param index frame index (0+).
+@return the grid layer for the frame, with all data read.
+@exception IOException if the frame cannot be read.
+*/
+public XmrgGridLayer getFrame ( int index )
+throws IOException
+{	if ( (index < 0) || (index >= __filenames.size()) ) {
+		throw new IOException ( "Frame " + index + " is out of range (0-" + (__filenames.size() - 1) + ")." );
+	}
+	Future<XmrgGridLayer> frame = null;
+	synchronized ( __frames ) {
+		// Remove frames that are no longer needed...
+		int last = Math.min ( index + __prefetchCount, __filenames.size() - 1 );
+		Iterator<Map.Entry<Integer,Future<XmrgGridLayer>>> it = __frames.entrySet().iterator();
+		while ( it.hasNext() ) {
+			Map.Entry<Integer,Future<XmrgGridLayer>> entry = it.next();
+			int i = entry.getKey().intValue();
+			if ( (i < index) || (i > last) ) {
+				entry.getValue().cancel ( false );
+				it.remove();
+			}
+		}
+		// Request the frame and the frames that follow, in order,
+		// limiting the frames being read ahead to the thread count (later calls request the remaining frames)...
+		int reading = 0;
+		for ( Future<XmrgGridLayer> f : __frames.values() ) {
+			if ( !f.isDone() ) {
+				++reading;
+			}
+		}
+		for ( int i = index; i <= last; i++ ) {
+			Integer key = Integer.valueOf(i);
+			if ( !__frames.containsKey(key) ) {
+				if ( (i > index) && (reading >= __threadCount) ) {
+					break;
+				}
+				String filename = __filenames.get(i);
+				__frames.put ( key, DaemonThreadPool.submit(() -> new XmrgGridLayer(filename, true, false)) );
+				++reading;
+			}
+		}
+		frame = __frames.get ( Integer.valueOf(index) );
+	}
+	try {
+		return frame.get();
+	}
+	catch ( InterruptedException e ) {
+		Thread.currentThread().interrupt();
+		throw new IOException ( "Interrupted reading \"" + __filenames.get(index) + "\"", e );
+	}
+	catch ( CancellationException e ) {
+		throw new IOException ( "Reading \"" + __filenames.get(index) + "\" was cancelled.", e );
+	}
+	catch ( ExecutionException e ) {
+		Throwable cause = e.getCause();
+		Message.printWarning ( 3, "XmrgFramePrefetcher.getFrame", "Error reading \"" + __filenames.get(index) + "\"" );
+		Message.printWarning ( 3, "XmrgFramePrefetcher.getFrame", cause );
+		if ( cause instanceof IOException ) {
+			throw (IOException)cause;
+		}
+		throw new IOException ( "Error reading \"" + __filenames.get(index) + "\"", cause );
+	}
+}
+
+/**
+Return the number of frames.
+@return the number of frames.
+*/
+public int getFrameCount ()
+{	return __filenames.size();
+}
+
+/**
+Return the XMRG file name for a frame.
+@param index frame index (0+).
+@return the XMRG file name for the frame.
+*/
+public String getFrameFilename ( int index )
+{	return __filenames.get(index);
+}
+
+/**
+Stop reading frames and release the cached frames.
+The prefetcher cannot be used after this method is called.
+*/
+public void shutdown ()
+{	synchronized ( __frames ) {
+		for ( Future<XmrgGridLayer> frame : __frames.values() ) {
+			frame.cancel ( false );
+		}
+		__frames.clear();
+	}
+}
+
+}
@@ -23,10 +23,16 @@ NoticeEnd */
 
 package RTi.GIS.GeoView;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
 import java.util.List;
 import java.util.Vector;
 
@@ -125,6 +131,17 @@ public class XmrgGridLayer extends GeoGridLayer
 // Random access file to read in data.
 private EndianRandomAccessFile __raf = null;
 
+// Memory-mapped file contents, used when the file remains open so that data
+// records can be decoded and single values read without seeking.
+private MappedByteBuffer __mappedFile = null;
+
+// Size of the header records in bytes (the first data record starts here).
+private static final int HEADER_SIZE = 98;
+
+// Approximate number of bytes of data records to decode at a time when the
+// file is not memory-mapped.
+private static final int ROW_BLOCK_SIZE = 256*1024;
+
 private String __oper_sys = "";		// Operating system creating the file.
 
 // User identifier.
@@ -814,6 +831,17 @@ throws IOException
 	else {	__raf.readLittleEndianInt();
 	}
 
+	// If the file will remain open, map it so that data can be decoded
+	// and individual values read without seeking.  The mapping is not used
+	// if the file is closed after reading because on some systems a mapped
+	// file cannot be deleted or replaced until the mapping is released.
+
+	if ( remain_open ) {
+		FileChannel channel = __raf.getChannel();
+		__mappedFile = channel.map ( FileChannel.MapMode.READ_ONLY, 0, channel.size() );
+		__mappedFile.order ( __big_endian ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN );
+	}
+
 	// If read_data is set to true, read in the data.
 
 	if ( !read_data ) {
@@ -853,12 +881,18 @@ throws IOException
 		+ 4
 		+ (c - grid.getMinColumnFull())*2;
 	// Now read the short and convert to 
-	__raf.seek ( pos );
 	double value = 0.0;
-	if ( __big_endian ) {
-		value = (double)__raf.readShort();
+	if ( __mappedFile != null ) {
+		// Absolute get does not change the buffer position so is safe
+		// for concurrent reads.
+		value = (double)__mappedFile.getShort ( (int)pos );
 	}
-	else {	value = (double)__raf.readLittleEndianShort();
+	else {	__raf.seek ( pos );
+		if ( __big_endian ) {
+			value = (double)__raf.readShort();
+		}
+		else {	value = (double)__raf.readLittleEndianShort();
+		}
 	}
 	double mm = 0.0;
 	if ( Message.isDebugOn ) {
@@ -879,9 +913,11 @@ throws IOException
 
 /**
 Read the double array that holds all the data points with the starting point
-being in the SouthWest corner of the grid. THIS CURRENTLY ASSUMES THE FULL GRID
-IS READ.  NEED TO CHANGE SO THE START AND END INTEGER READ ARE HANDLED CORRECTLY
-FOR A GRID SUBSET.
+being in the SouthWest corner of the grid.  Data records are decoded a block of
+rows at a time, either from the memory-mapped file or by reading the block into
+a buffer, and values are stored directly in the grid data space.  Only the
+cells in the active grid are stored, although each record's leading and
+trailing integers are checked for the full grid.
 @exception IOException if error occurs while reading.
 */
 private void readGridData ()
@@ -902,86 +938,126 @@ throws IOException
 	int endint = 0;
 	int startint = 0;
 
-	// Now try to read in all data.  Move cursor to the first data record,
-	// which is at byte 98.  Remember that there is an extra 4 bytes at the
-	// end and beginning of each record
-	__raf.seek(98);
-	if (Message.isDebugOn) {
-		Message.printDebug( dl, "XmrgGridLayer.readGridData",
-		"Cursor pointer is at: " + __raf.getFilePointer() +
-		" when beginning to read data.");
-	}
-
 	// For now assume the data are MM.  May need a method to set if flash
 	// flood guidance or other data are processed.
 	grid.setUnits ( "MM" );
 
 	short short_value = (short)0;
 	short max_mm = (short)-1;	// Maximum value in file (MM)
+	int rmin = grid.getMinRowFull();
 	int rmax = grid.getMaxRowFull();
+	int cmin = grid.getMinColumnFull();
 	int cmax = grid.getMaxColumnFull();
 	double missing = grid.getMissing();
 	short mm = (short)0;	// Millimeters
 	int num_positive_values = 0;
-	int cmin = grid.getMinColumnFull();
-	for ( r = grid.getMinRowFull(); r <= rmax; r++ ) {
-		// Integer at the start of the record...
-		if ( __big_endian ) {
-			startint = __raf.readInt();
-		}
-		else {	startint = __raf.readLittleEndianInt();
-		}
 
-		// read one row 
-		for ( c = cmin; c <= cmax; c++ ) {
-			if ( __big_endian ) {
-				short_value = __raf.readShort();
+	// Active columns, as positions in the record, and rows to store...
+	int ncols = cmax - cmin + 1;
+	int rmin_active = Math.max ( rmin, grid.getMinRow() );
+	int rmax_active = Math.min ( rmax, grid.getMaxRow() );
+	int cmin_active = Math.max ( cmin, grid.getMinColumn() );
+	int cmax_active = Math.min ( cmax, grid.getMaxColumn() );
+	int record_size = ncols*2 + 8;
+	short [] row_values = new short[ncols];
+
+	// Records are decoded in blocks of rows.  If the file is mapped, each
+	// block is a view of the mapping.  Otherwise read each block from the
+	// file channel, which is positioned at the first data record (byte 98).
+	int block_rows = Math.max ( 1, ROW_BLOCK_SIZE/record_size );
+	ByteOrder order = __big_endian ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+	ByteBuffer read_buffer = null;
+	FileChannel channel = null;
+	if ( __mappedFile == null ) {
+		read_buffer = ByteBuffer.allocate ( block_rows*record_size );
+		read_buffer.order ( order );
+		channel = __raf.getChannel();
+		channel.position ( HEADER_SIZE );
+	}
+	if (Message.isDebugOn) {
+		Message.printDebug( dl, "XmrgGridLayer.readGridData",
+		"Reading " + (rmax - rmin + 1) + " records of " + ncols +
+		" values, " + block_rows + " records at a time, mapped=" +
+		(__mappedFile != null) );
+	}
+
+	for ( int r0 = rmin; r0 <= rmax; r0 += block_rows ) {
+		int nrows = Math.min ( block_rows, rmax - r0 + 1 );
+		ByteBuffer block = null;
+		if ( __mappedFile != null ) {
+			long start = HEADER_SIZE + (long)(r0 - rmin)*record_size;
+			if ( (start + (long)nrows*record_size) > __mappedFile.capacity() ) {
+				throw new EOFException ( "[R" + r0 + "] End of file reading data records." );
 			}
-			else {	short_value = __raf.readLittleEndianShort();
+			block = __mappedFile.duplicate();
+			block.position ( (int)start );
+			block = block.slice();
+			block.order ( order );
+		}
+		else {	read_buffer.clear();
+			read_buffer.limit ( nrows*record_size );
+			while ( read_buffer.hasRemaining() ) {
+				if ( channel.read(read_buffer) < 0 ) {
+					throw new EOFException ( "[R" + r0 + "] End of file reading data records." );
+				}
 			}
-			if ( Message.isDebugOn ) {
-				Message.printDebug ( dl+2,
-				"XmrgGridLayer.readGridData",
-				"[C" + c + "][R" + r + "] = " + short_value );
+			block = read_buffer;
+		}
+		for ( int irow = 0; irow < nrows; irow++ ) {
+			r = r0 + irow;
+			int offset = irow*record_size;
+			// Integer at the start of the record...
+			startint = block.getInt ( offset );
+			// Read integer at the end of each record.
+			endint = block.getInt ( offset + 4 + ncols*2 );
+
+			// Check that startint and endint are the same.
+
+			if ( startint != endint ) {
+				throw new IOException("[C"+(cmax + 1)+"][R" + r+"] Starting and "
+					+ "ending integers for each record should be "+
+					"equal.  Begin = " + startint + ", end = " +
+					endint);
 			}
-			if ( short_value < 0 ) {
-				// If the value is less than 0, then there is
-				// no data for the cell so assign the missing
-				// value (-999)
-				grid.setDataValue ( c, r, missing );
+			if ( (r < rmin_active) || (r > rmax_active) ) {
+				continue;
 			}
-			else {	// Divide by 100 to get mm (values in the file
-				// are mm*100).
-				mm = (short)(short_value/100);
-				grid.setDataValue ( c, r, (double)mm );
 
-				//count the number of valid data points
-				if ( mm > 0 ) {
-					// Count the number of real values.
-					++num_positive_values;
+			// Decode one row into the grid data space...
+			block.position ( offset + 4 );
+			ShortBuffer shorts = block.asShortBuffer();
+			shorts.get ( row_values, 0, ncols );
+			double [] row_data = grid._double_data[r - grid.getMinRow()];
+			int col_offset = grid.getMinColumn();
+			for ( c = cmin_active; c <= cmax_active; c++ ) {
+				short_value = row_values[c - cmin];
+				if ( Message.isDebugOn ) {
+					Message.printDebug ( dl+2,
+					"XmrgGridLayer.readGridData",
+					"[C" + c + "][R" + r + "] = " + short_value );
+				}
+				if ( short_value < 0 ) {
+					// If the value is less than 0, then there is
+					// no data for the cell so assign the missing
+					// value (-999)
+					row_data[c - col_offset] = missing;
 				}
-				if ( mm > max_mm ) {
-					max_mm = mm;
+				else {	// Divide by 100 to get mm (values in the file
+					// are mm*100).
+					mm = (short)(short_value/100);
+					row_data[c - col_offset] = (double)mm;
+
+					//count the number of valid data points
+					if ( mm > 0 ) {
+						// Count the number of real values.
+						++num_positive_values;
+					}
+					if ( mm > max_mm ) {
+						max_mm = mm;
+					}
 				}
 			}
 		}
-	
-		// Read integer at the end of each record.
-
-		if ( __big_endian ) {
-			endint = __raf.readInt();
-		}
-		else {	endint = __raf.readLittleEndianInt();
-		}
-
-		// Check that startint and endint are the same.
-
-		if ( startint != endint ) {
-			throw new IOException("[C"+c+"][R" + r+"] Starting and "
-				+ "ending integers for each record should be "+
-				"equal.  Begin = " + startint + ", end = " +
-				endint);
-		}
 	}
 
 	// Reset the maximum value and count of positive values...
@@ -1014,6 +1090,7 @@ throws Exception {
 		__raf.close();
 		__raf = null;
 	}
+	__mappedFile = null;
 
 	GeoGrid grid = getGrid ();
 	grid.resize(leftX, bottomY, numColumns, numRows);
@@ -243,6 +243,11 @@ class Compressor {
     }
 }
 
+/**
+Write GIF files.
+@deprecated Use GRImageWriter, which uses ImageIO and is much faster.
+*/
+@Deprecated
 public class GIFEncode {
     static void putWord(OutputStream os, int v) throws IOException {
 	putByte(os, v);
@@ -28,14 +28,12 @@ import java.awt.Graphics; // Needed for standard 'paint' method.
 import java.awt.Graphics2D; // Used for enhanced graphics.
 import java.awt.Image;
 import java.awt.Rectangle;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.List;
 import java.util.Vector;
 
 import RTi.Util.IO.PropList;
 import RTi.Util.Message.Message;
-import RTi.Util.String.StringUtil;
 
 /**
 GR Device that corresponds to an AWT canvas.
@@ -552,8 +550,7 @@ public void resize2 ( int width, int height ) {
 }
 
 /**
-Save as an image file.  Currently the file is always a JPEG.
-In the future, the file name will be examined for the extension.
+Save as an image file.  See saveAsFile(String,PropList) for supported formats.
 @param filename File name to write.  An appropriate extension will be added.
 @throws IOException if the image used for double-buffering is null.
 */
@@ -563,16 +560,17 @@ throws IOException {
 }
 
 /**
-Save as an image file.  Currently the file is always a JPEG.
-In the future, the file name will be examined for the extension.
-For Java 1.1.8 or earlier, TrueColor screen resolution will save as gray-scale.
-There is no work-around unless an upgrade to Java 1.2.x is made.
+Save as an image file.
+The file name will be examined for the extension to determine what kind of file to save as
+(currently JPEG, JPG, PNG, and GIF are supported).
+If the file extension is not supported, a .jpg extension is added and it is saved as a JPEG.
+The image is written using GRImageWriter.
 @param filename File name to write.  An appropriate extension will be added.
-@param props Properties for the image.
-Currently the only accepted property is Quality, which can be 0 (low quality,
-high compression) to 100 (high quality, no compression).
+@param props Properties for the image.  Quality can be 0 (low quality, high compression) to 100 (high quality,
+no compression) and is used for JPEG.  PngCompressionLevel can be 0 (no compression) to 9 (best compression)
+and is used for PNG.
 It might be useful at some point to enable an Interactive=true option to allow a pop-up dialog to specify JPEG information.
-@throws IOException if the image used for double-buffering is null.
+@throws IOException if the image used for double-buffering is null or the file cannot be written.
 */
 public void saveAsFile ( String filename, PropList props )
 throws IOException {
@@ -580,44 +578,13 @@ throws IOException {
 	if ( _image == null ) {
 		throw new IOException ( "No internal image to save." );
 	}
-	// Else, create an image from the canvas?
-
-	// Defaults.
-
-	int image_quality = 90; // Go for quality versus compression.
-
-	// Make sure there is a property list.
-
-	PropList proplist = props;
-	if ( proplist == null ) {
-		proplist = new PropList ( "ImageProps" );
-	}
-	String prop_value = proplist.getValue ( "Quality" );
-	if ( prop_value != null ) {
-		image_quality = StringUtil.atoi(prop_value);
-	}
-
-	String newfilename = null;
-	if ( // Check for a standard extension.
-		filename.endsWith(".jpg") || filename.endsWith(".JPG") ||
-		filename.endsWith(".jpeg") || filename.endsWith(".JPEG") ) {
-		newfilename = filename;
-	}
-	else {
-		// Add a standard extension.
-		newfilename = filename + ".jpg";
-	}
 	try {
-		FileOutputStream os = new FileOutputStream ( newfilename );
-		JpegEncoder jpg = new JpegEncoder ( _image, image_quality, os );
-		jpg.Compress();
-		os.flush();
-		os.close();
+		new GRImageWriter ( props ).write ( _image, filename );
 	}
-	catch ( Exception e ) {
-		Message.printWarning ( 2, routine, "Error saving image file \"" + newfilename + "\"." );
+	catch ( IOException e ) {
+		Message.printWarning ( 2, routine, "Error saving image file \"" + filename + "\"." );
 		Message.printWarning ( 2, routine, e );
-		throw new IOException ( "Writing JPEG file \"" + newfilename + "\" failed." );
+		throw e;
 	}
 }
 
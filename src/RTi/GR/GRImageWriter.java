@@ -0,0 +1,310 @@
+// GRImageWriter - write images to files using ImageIO, optionally on a background thread
+
+
+/* NoticeStart
+
+CDSS Common Java Library
+CDSS Common Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2025 Colorado Department of Natural Resources
+
+CDSS Common Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+CDSS Common Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with CDSS Common Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package RTi.GR;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+import RTi.Util.IO.DaemonThreadPool;
+import RTi.Util.IO.PropList;
+import RTi.Util.Message.Message;
+import RTi.Util.String.StringUtil;
+
+/**
+Write images to JPEG, PNG, and GIF files using the ImageIO writers provided with Java.
+This replaces the JpegEncoder and GIFEncode classes, which are much slower.
+Images can be written on the calling thread with write() or on a background thread with writeAsync(),
+in which case the image is copied before returning so that the caller can immediately draw the next image
+into the same buffer while the previous image is encoded.
+Asynchronous writes use a shared pool of background threads so that several images can be encoded at the same time.
+*/
+public class GRImageWriter
+{
+
+/**
+Default JPEG quality, 0 (low quality, high compression) to 100 (high quality, low compression).
+*/
+public static final int DEFAULT_QUALITY = 90;
+
+/**
+Default PNG compression level, 0 (no compression, fastest) to 9 (best compression, slowest).
+*/
+public static final int DEFAULT_PNG_COMPRESSION_LEVEL = 4;
+
+/**
+JPEG quality, 0 to 100.
+*/
+private int quality = DEFAULT_QUALITY;
+
+/**
+PNG compression level, 0 to 9.
+*/
+private int pngCompressionLevel = DEFAULT_PNG_COMPRESSION_LEVEL;
+
+/**
+Construct with default quality and PNG compression level.
+*/
+public GRImageWriter () {
+}
+
+/**
+Construct using image properties.
+@param props Image properties, can be null.  Quality can be 0 (low quality, high compression) to 100 (high quality,
+low compression) and is used for JPEG files.  PngCompressionLevel can be 0 (no compression) to 9 (best compression)
+and is used for PNG files.
+*/
+public GRImageWriter ( PropList props ) {
+	if ( props != null ) {
+		String propValue = props.getValue ( "Quality" );
+		if ( (propValue != null) && StringUtil.isInteger(propValue.trim()) ) {
+			setQuality ( Integer.parseInt(propValue.trim()) );
+		}
+		propValue = props.getValue ( "PngCompressionLevel" );
+		if ( (propValue != null) && StringUtil.isInteger(propValue.trim()) ) {
+			setPngCompressionLevel ( Integer.parseInt(propValue.trim()) );
+		}
+	}
+}
+
+/**
+Copy an image into a new BufferedImage of the requested type.
+@param image image to copy
+@param width width of the image
+@param height height of the image
+@param type BufferedImage type for the copy
+@return the copied image
+*/
+private static BufferedImage copyImage ( Image image, int width, int height, int type ) {
+	BufferedImage copy = new BufferedImage ( width, height, type );
+	Graphics2D g = copy.createGraphics();
+	try {
+		if ( type == BufferedImage.TYPE_INT_RGB ) {
+			// Transparent pixels are written as white rather than black.
+			g.setColor ( Color.white );
+			g.fillRect ( 0, 0, width, height );
+		}
+		g.drawImage ( image, 0, 0, null );
+	}
+	finally {
+		g.dispose();
+	}
+	return copy;
+}
+
+/**
+Determine the image format from the file name extension.
+@param filename name of image file
+@return "jpg", "png", or "gif", or null if the extension is not recognized
+*/
+public static String getFormatFromFilename ( String filename ) {
+	String upFilename = filename.toUpperCase().trim();
+	if ( upFilename.endsWith(".JPG") || upFilename.endsWith(".JPEG") ) {
+		return "jpg";
+	}
+	else if ( upFilename.endsWith(".PNG") ) {
+		return "png";
+	}
+	else if ( upFilename.endsWith(".GIF") ) {
+		return "gif";
+	}
+	return null;
+}
+
+/**
+Return the PNG compression level, 0 to 9.
+@return the PNG compression level
+*/
+public int getPngCompressionLevel () {
+	return this.pngCompressionLevel;
+}
+
+/**
+Return the JPEG quality, 0 to 100.
+@return the JPEG quality
+*/
+public int getQuality () {
+	return this.quality;
+}
+
+/**
+Prepare an image for a format.  JPEG images cannot have an alpha channel and are converted to RGB.
+Other formats are converted to a BufferedImage if necessary.
+@param image image to prepare
+@param format image format, as returned by getFormatFromFilename()
+@param copy if true, always return a copy so that the original image can be modified after the call
+@return image to write
+*/
+private static BufferedImage prepareImage ( Image image, String format, boolean copy ) {
+	int width = image.getWidth(null);
+	int height = image.getHeight(null);
+	if ( format.equals("jpg") ) {
+		if ( !copy && (image instanceof BufferedImage) && !((BufferedImage)image).getColorModel().hasAlpha() ) {
+			return (BufferedImage)image;
+		}
+		return copyImage ( image, width, height, BufferedImage.TYPE_INT_RGB );
+	}
+	if ( !copy && (image instanceof BufferedImage) ) {
+		return (BufferedImage)image;
+	}
+	int type = BufferedImage.TYPE_INT_ARGB;
+	if ( (image instanceof BufferedImage) && (((BufferedImage)image).getType() != BufferedImage.TYPE_CUSTOM) ) {
+		type = ((BufferedImage)image).getType();
+	}
+	return copyImage ( image, width, height, type );
+}
+
+/**
+Set the PNG compression level.
+@param pngCompressionLevel 0 (no compression, fastest) to 9 (best compression, slowest), limited to the valid range.
+*/
+public void setPngCompressionLevel ( int pngCompressionLevel ) {
+	this.pngCompressionLevel = Math.max(0, Math.min(9, pngCompressionLevel));
+}
+
+/**
+Set the JPEG quality.
+@param quality 0 (low quality, high compression) to 100 (high quality, low compression), limited to the valid range.
+*/
+public void setQuality ( int quality ) {
+	this.quality = Math.max(0, Math.min(100, quality));
+}
+
+/**
+Write an image to a file on the calling thread.
+The format is determined from the file extension and if not recognized, a .jpg extension is added and JPEG is written.
+@param image image to write
+@param filename name of the file to write
+@return the file that was written, which may have an added extension
+@throws IOException if the image cannot be written
+*/
+public File write ( Image image, String filename )
+throws IOException {
+	String format = getFormatFromFilename ( filename );
+	if ( format == null ) {
+		format = "jpg";
+		filename = filename + ".jpg";
+	}
+	return writeImage ( prepareImage(image, format, false), format, new File(filename), this.quality, this.pngCompressionLevel );
+}
+
+/**
+Write an image to a file on a background thread, using the shared DaemonThreadPool.
+Pending writes do not prevent the application from exiting.
+The image is copied before returning so that the caller can continue to draw into the image.
+The format is determined from the file extension and if not recognized, a .jpg extension is added and JPEG is written.
+The quality and PNG compression level in effect when this method is called are used.
+@param image image to write
+@param filename name of the file to write
+@return Future that returns the file that was written, or throws an ExecutionException wrapping the IOException
+if the image cannot be written
+*/
+public Future<File> writeAsync ( Image image, String filename ) {
+	String format = getFormatFromFilename ( filename );
+	String filenameFinal = filename;
+	if ( format == null ) {
+		format = "jpg";
+		filenameFinal = filename + ".jpg";
+	}
+	final String formatFinal = format;
+	final File file = new File(filenameFinal);
+	final BufferedImage copy = prepareImage ( image, format, true );
+	final int qualityFinal = this.quality;
+	final int pngCompressionLevelFinal = this.pngCompressionLevel;
+	Callable<File> task = () -> writeImage ( copy, formatFinal, file, qualityFinal, pngCompressionLevelFinal );
+	return DaemonThreadPool.submit ( task );
+}
+
+/**
+Write a prepared image using the ImageIO writer for the format.
+@param image image to write
+@param format "jpg", "png", or "gif"
+@param file file to write
+@param quality JPEG quality, 0 to 100
+@param pngCompressionLevel PNG compression level, 0 to 9
+@return the file that was written
+*/
+private static File writeImage ( BufferedImage image, String format, File file, int quality, int pngCompressionLevel )
+throws IOException {
+	String routine = GRImageWriter.class.getSimpleName() + ".writeImage";
+	Iterator<ImageWriter> it = ImageIO.getImageWritersByFormatName ( format );
+	if ( !it.hasNext() ) {
+		throw new IOException ( "No image writer is available for format \"" + format + "\"." );
+	}
+	ImageWriter writer = it.next();
+	ImageWriteParam param = writer.getDefaultWriteParam();
+	if ( format.equals("jpg") ) {
+		param.setCompressionMode ( ImageWriteParam.MODE_EXPLICIT );
+		param.setCompressionQuality ( quality/100.0F );
+	}
+	else if ( format.equals("png") && param.canWriteCompressed() ) {
+		// The PNG writer uses deflate level (int)(9*(1 - quality)), so offset by half a level to avoid truncation.
+		param.setCompressionMode ( ImageWriteParam.MODE_EXPLICIT );
+		param.setCompressionQuality ( Math.max(0.0F, 1.0F - (pngCompressionLevel + 0.5F)/9.0F) );
+	}
+	File parent = file.getAbsoluteFile().getParentFile();
+	if ( (parent != null) && !parent.exists() ) {
+		throw new IOException ( "Error writing " + format + " file (parent folder does not exist): " + file.getPath() );
+	}
+	// Delete the file first because the output stream does not truncate an existing file.
+	if ( file.exists() && !file.delete() ) {
+		throw new IOException ( "Error writing " + format + " file (permissions?): " + file.getPath() );
+	}
+	ImageOutputStream ios = null;
+	try {
+		ios = ImageIO.createImageOutputStream ( file );
+		if ( ios == null ) {
+			throw new IOException ( "Error writing " + format + " file (permissions?): " + file.getPath() );
+		}
+		writer.setOutput ( ios );
+		writer.write ( null, new IIOImage(image, null, null), param );
+	}
+	catch ( IOException e ) {
+		Message.printWarning ( 3, routine, "Error writing image file \"" + file.getPath() + "\"" );
+		Message.printWarning ( 3, routine, e );
+		throw e;
+	}
+	finally {
+		writer.dispose();
+		if ( ios != null ) {
+			ios.close();
+		}
+	}
+	return file;
+}
+
+}
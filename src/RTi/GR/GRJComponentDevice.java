@@ -30,17 +30,15 @@ import java.awt.Rectangle;
 import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Future;
 
-import javax.imageio.ImageIO;
 import javax.swing.JComponent;
 
 import RTi.Util.IO.PropList;
 import RTi.Util.Message.Message;
-import RTi.Util.String.StringUtil;
 
 /**
 GR library device corresponding to a JComponent, which can be treated like a canvas for drawing.
@@ -702,7 +700,7 @@ public void setPaintGraphics ( Graphics2D graphics ) {
 /**
 Save as an image file.
 The file name will be examined for the extension to determine what kind of file to save as
-(currently JPEG, JPG, and PNG are supported).
+(currently JPEG, JPG, PNG, and GIF are supported).
 If the file extension is not supported, a .jpg extension is added and it is saved as a JPEG.
 @throws IOException if the image used for double-buffering is null.
 @param filename File name to write.  An appropriate extension will be added.
@@ -715,12 +713,14 @@ throws IOException {
 /**
 Save as an image file.
 The file name will be examined for the extension to determine what kind of file to save as
-(currently JPEG, JPG, and PNG are supported).
+(currently JPEG, JPG, PNG, and GIF are supported).
 If the file extension is not supported, a .jpg extension is added and it is saved as a JPEG.
-@throws IOException if the image used for double-buffering is null.
+The image is written using GRImageWriter.
+@throws IOException if the image used for double-buffering is null or the file cannot be written.
 @param filename File name to write.  An appropriate extension will be added.
-@param props Properties for the image.  Currently the only accepted property is Quality,
-which can be 0 (low quality, high compression) to 100 (high quality, no compression).
+@param props Properties for the image.  Quality can be 0 (low quality, high compression) to 100 (high quality,
+no compression) and is used for JPEG.  PngCompressionLevel can be 0 (no compression) to 9 (best compression)
+and is used for PNG.
 It might be useful at some point to enable an Interactive=true option to allow a pop-up dialog to specify JPEG information.
 TODO (JTS - 2003-05-05) Evaluate pop-up dialog to query for quality - not as important now that PNG is supported.
 */
@@ -731,68 +731,33 @@ throws IOException {
 	if (_buffer == null) {
 		throw new IOException ( "No internal image to save." );
 	}
-	// Else, create an image from the JComponent???
-
-	// Defaults.
-
-	int image_quality = 90; // Go for quality versus compression.
-
-	// Make sure there is a property list.
 
-	PropList proplist = props;
-	if ( proplist == null ) {
-		proplist = new PropList ( "ImageProps" );
+	try {
+		new GRImageWriter ( props ).write ( _buffer, filename );
 	}
-	String prop_value = proplist.getValue ( "Quality" );
-	if ( prop_value != null ) {
-		image_quality = StringUtil.atoi(prop_value);
-	}
-
-	String newfilename = null;
-	boolean jpeg = true;
-	String upFilename = filename.toUpperCase().trim();
-	if (upFilename.endsWith(".JPG") || upFilename.endsWith(".JPEG")) {
-		newfilename = filename;
-	}
-	else if (upFilename.endsWith(".PNG")) {
-		newfilename = filename;
-		jpeg = false;
-	}
-	else {
-		// Add a standard extension.
-		newfilename = filename + ".jpg";
+	catch ( IOException e ) {
+		Message.printWarning(2, routine, "Error saving image file \"" + filename + "\"");
+		Message.printWarning(2, routine, e);
+		throw e;
 	}
+}
 
-	if (jpeg) {
-		try {
-			FileOutputStream os = new FileOutputStream(newfilename);
-			JpegEncoder jpg = new JpegEncoder(_buffer, image_quality, os);
-			jpg.Compress();
-			os.flush();
-			os.close();
-		}
-		catch (Exception e) {
-			e.printStackTrace();
-			Message.printWarning(2, routine, "Error saving image file \"" + newfilename + "\"");
-			Message.printWarning(2, routine, e);
-			throw new IOException("Writing JPEG file \"" + newfilename + "\" failed." );
-		}
-	}
-	else {
-		// TODO SAM 2011-07-09 why not use ImageIO for all image types so can do away with the custom JPEG encoder?
-		File file = new File(newfilename);
-		try {
-			ImageIO.write(_buffer, "png", file);
-		}
-		catch (Exception e) {
-			if ( !file.getParentFile().exists() ) {
-				throw new IOException ( "Error writing png file (parent folder does not exist): " + newfilename);
-			}
-			else {
-				throw new IOException ( "Error writing png file (permissions?): " + newfilename);
-			}
-		}
+/**
+Save as an image file, encoding and writing the file on a background thread.
+The image is copied before returning so that the next graph can be drawn on the device while the file is written.
+See saveAsFile() for supported formats and properties.
+@param filename File name to write.  An appropriate extension will be added.
+@param props Properties for the image, as for saveAsFile().
+@return Future that returns the file that was written,
+or throws an ExecutionException wrapping the IOException if the file cannot be written.
+@throws IOException if the image used for double-buffering is null.
+*/
+public Future<File> saveAsFileAsync ( String filename, PropList props )
+throws IOException {
+	if (_buffer == null) {
+		throw new IOException ( "No internal image to save." );
 	}
+	return new GRImageWriter ( props ).writeAsync ( _buffer, filename );
 }
 
 /**
@@ -53,7 +53,9 @@ import RTi.Util.Message.Message;
 /**
  * JpegEncoder - The JPEG main program which performs a jpeg compression of
  * an image.
+ * @deprecated Use GRImageWriter, which uses ImageIO and is much faster.
  */
+@Deprecated
 public class JpegEncoder // extends Frame
 {
 /**
@@ -74,6 +74,12 @@ This is being tested to determine whether an application like TSTool can detect
 */
 private WindowListener _tsview_window_listener = null;
 
+/**
+Whether the PreviewOutput product property is used to display graphs.
+This is false when rendering products in batch mode so that windows are not opened.
+*/
+private boolean __previewOutputEnabled = true;
+
 public TSProcessor () {
 }
 
@@ -349,7 +355,7 @@ throws Exception {
 		}
 		// Put the on-screen graph second so that above image can be created first for troubleshooting.
 		try {
-			if ( (preview_output != null) && preview_output.equalsIgnoreCase("true") ) {
+			if ( __previewOutputEnabled && (preview_output != null) && preview_output.equalsIgnoreCase("true") ) {
 				// Create a TSViewJFrame (an output file can still be created below).
 				TSViewJFrame tsview = new TSViewJFrame ( tsproduct );
 				if ( tsview.needToCloseGraph() ) {
@@ -628,4 +634,12 @@ throws Exception {
 	throw new Exception ( "Unable to get time series \"" + tsident + "\" from " + size + " TSSupplier(s).");
 }
 
+/**
+Set whether the PreviewOutput product property is used to display graphs.
+@param previewOutputEnabled if false, graphs are not displayed, regardless of the PreviewOutput property
+*/
+public void setPreviewOutputEnabled ( boolean previewOutputEnabled ) {
+	__previewOutputEnabled = previewOutputEnabled;
+}
+
 }
\ No newline at end of file
@@ -1130,6 +1130,29 @@ These are specified as simple strings with no layering information (e.g., "Initi
 */
 private PropList __override_proplist = null;
 
+/**
+Snapshot of resolved layered property values, to avoid repeated list searches when graphs are laid out and drawn.
+The outer map is indexed by the lookup type (see getLayeredPropValue), then the sub-product and data item layer,
+and the inner map is indexed by property name, with null values indicating that the property was not found.
+The snapshot is cleared when the main or override PropList is modified, or when invalidateResolvedProps() is called.
+*/
+private final List<HashMap<Long,HashMap<String,String>>> __resolvedProps = new ArrayList<>(4);
+
+/**
+Modification count of the main PropList when __resolvedProps was last validated.
+*/
+private int __resolvedPropsModCount = -1;
+
+/**
+Override PropList when __resolvedProps was last validated, which is replaced if null when an override property is set.
+*/
+private PropList __resolvedPropsOverrideList = null;
+
+/**
+Modification count of the override PropList when __resolvedProps was last validated.
+*/
+private int __resolvedPropsOverrideModCount = -1;
+
 /**
 Time series associated with the product.
 */
@@ -3112,6 +3135,28 @@ rather than the number of a time series under the given sub-product.
 @return value of property or null if not found.
 */
 public String getLayeredPropValue (	String property, int subproduct,
+	int its, boolean allowLayeredProps, boolean isAnnotation ) {
+	if ( property == null ) {
+		return null;
+	}
+	synchronized ( this.__resolvedProps ) {
+		HashMap<String,String> layerProps = getResolvedProps ( subproduct, its, allowLayeredProps, isAnnotation );
+		String value = layerProps.get ( property );
+		if ( (value == null) && !layerProps.containsKey(property) ) {
+			value = getLayeredPropValueFromPropLists ( property, subproduct, its, allowLayeredProps, isAnnotation );
+			layerProps.put ( property, value );
+		}
+		return value;
+	}
+}
+
+/**
+Return the property value for a requested property by searching the PropLists.
+This is called by getLayeredPropValue() when the value is not in the resolved property snapshot.
+See getLayeredPropValue() for a description of the parameters.
+@return value of property or null if not found.
+*/
+private String getLayeredPropValueFromPropLists ( String property, int subproduct,
 	int its, boolean allowLayeredProps, boolean isAnnotation ) {
 	String value = null;
 	String value2 = null;
@@ -3209,6 +3254,40 @@ public String getLayeredPropValue (	String property, int subproduct,
 	return null;
 }
 
+/**
+Return the resolved property values for a sub-product and data item layer, clearing all resolved values first
+if the PropLists have been modified since the snapshot was last validated.
+The caller must synchronize on __resolvedProps.
+@param subproduct sub-product number (starting at zero), or negative
+@param its data item or annotation number (starting at zero), or negative
+@param allowLayeredProps whether layered properties are allowed (see getLayeredPropValue())
+@param isAnnotation whether its is an annotation number (see getLayeredPropValue())
+@return the map of property name to resolved value for the layer
+*/
+private HashMap<String,String> getResolvedProps ( int subproduct, int its, boolean allowLayeredProps, boolean isAnnotation ) {
+	int modCount = (this.__proplist == null) ? -1 : this.__proplist.getModificationCount();
+	int overrideModCount = (this.__override_proplist == null) ? -1 : this.__override_proplist.getModificationCount();
+	if ( this.__resolvedProps.isEmpty() || (modCount != this.__resolvedPropsModCount) ||
+		(this.__override_proplist != this.__resolvedPropsOverrideList) ||
+		(overrideModCount != this.__resolvedPropsOverrideModCount) ) {
+		this.__resolvedProps.clear();
+		for ( int i = 0; i < 4; i++ ) {
+			this.__resolvedProps.add ( new HashMap<>() );
+		}
+		this.__resolvedPropsModCount = modCount;
+		this.__resolvedPropsOverrideList = this.__override_proplist;
+		this.__resolvedPropsOverrideModCount = overrideModCount;
+	}
+	HashMap<Long,HashMap<String,String>> typeProps = this.__resolvedProps.get ( (allowLayeredProps ? 2 : 0) + (isAnnotation ? 1 : 0) );
+	Long layer = Long.valueOf ( ((long)subproduct << 32) | (its & 0xffffffffL) );
+	HashMap<String,String> layerProps = typeProps.get ( layer );
+	if ( layerProps == null ) {
+		layerProps = new HashMap<>();
+		typeProps.put ( layer, layerProps );
+	}
+	return layerProps;
+}
+
 /**
 Returns the number of annotations for the given sub-product.
 This is determined by determining the number of consecutive "ShapeType" definitions starting from 0 that return a valid value.
@@ -3504,6 +3583,17 @@ public boolean hasTimeSeries() {
 	}
 }
 
+/**
+Invalidate the resolved property snapshot used by getLayeredPropValue().
+Changes made through TSProduct and PropList methods are detected automatically,
+but this method must be called if the value or contents of a Prop in the product is changed directly.
+*/
+public void invalidateResolvedProps () {
+	synchronized ( this.__resolvedProps ) {
+		this.__resolvedProps.clear();
+	}
+}
+
 /**
 Checks to see whether the TSProduct has been modified in any way.
 First checks whether the TSProduct has been set as dirty, and then if that's not true,
@@ -0,0 +1,180 @@
+// TSProductBatchRenderer - render time series products to image files in parallel
+
+/* NoticeStart
+
+CDSS Common Java Library
+CDSS Common Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2025 Colorado Department of Natural Resources
+
+CDSS Common Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+CDSS Common Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with CDSS Common Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package RTi.GRTS;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import RTi.TS.TSSupplier;
+import RTi.Util.IO.DaemonThreadPool;
+import RTi.Util.IO.PropList;
+import RTi.Util.Message.Message;
+
+/**
+Render time series products to their output files (OutputFile product property) using the shared DaemonThreadPool.
+Each product is processed with its own TSProcessor and TSProduct, drawing to an offscreen image
+(or SVG for *.svg output files), and PreviewOutput is ignored so that no windows are opened.
+Products can therefore be rendered on a server running with -Djava.awt.headless=true.
+The TSSupplier instances are shared by the workers and must allow concurrent reads.
+*/
+public class TSProductBatchRenderer
+{
+
+/**
+Time series suppliers used to read time series for the products.
+*/
+private List<TSSupplier> suppliers = new ArrayList<>();
+
+/**
+Number of threads to render products, or -1 to use the number of processors.
+*/
+private int threads = -1;
+
+/**
+Construct a renderer with no time series suppliers.
+*/
+public TSProductBatchRenderer () {
+}
+
+/**
+Add a time series supplier, used by all products.
+@param supplier time series supplier, which must allow concurrent reads
+*/
+public void addTSSupplier ( TSSupplier supplier ) {
+	if ( supplier != null ) {
+		this.suppliers.add ( supplier );
+	}
+}
+
+/**
+Render products in parallel.  Either product files or products are specified.
+@return results in the same order as the products
+*/
+private List<TSProductRenderResult> render ( List<String> productFiles, List<TSProduct> products, PropList overrideProps )
+throws InterruptedException {
+	String routine = getClass().getSimpleName() + ".render";
+	int count = (productFiles != null) ? productFiles.size() : products.size();
+	int nthreads = this.threads;
+	if ( nthreads < 0 ) {
+		nthreads = Runtime.getRuntime().availableProcessors();
+	}
+	nthreads = Math.max(1, Math.min(nthreads, count));
+	long t0 = System.currentTimeMillis();
+	List<TSProductRenderResult> results = new ArrayList<>(count);
+	List<Callable<TSProductRenderResult>> tasks = new ArrayList<>(count);
+	for ( int i = 0; i < count; i++ ) {
+		String productFile = (productFiles != null) ? productFiles.get(i) : null;
+		TSProduct product = (products != null) ? products.get(i) : null;
+		tasks.add ( () -> renderProduct(productFile, product, overrideProps) );
+	}
+	for ( Future<TSProductRenderResult> future : DaemonThreadPool.invokeAll(tasks, nthreads) ) {
+		try {
+			results.add ( future.get() );
+		}
+		catch ( ExecutionException e ) {
+			// Should not happen because renderProduct() catches exceptions.
+			results.add ( new TSProductRenderResult(null, null, 0, new Exception(e.getCause())) );
+		}
+	}
+	int errorCount = 0;
+	for ( TSProductRenderResult result : results ) {
+		if ( !result.isSuccess() ) {
+			++errorCount;
+		}
+	}
+	Message.printStatus ( 2, routine, "Rendered " + count + " products using " + nthreads + " threads in " +
+		(System.currentTimeMillis() - t0) + " ms, " + errorCount + " errors." );
+	return results;
+}
+
+/**
+Render one product, called in a worker thread.
+@param productFile product file to read, or null if the product is provided
+@param product product to render, or null if reading a product file
+@param overrideProps properties that override product file properties, may be null
+@return the result of rendering the product
+*/
+private TSProductRenderResult renderProduct ( String productFile, TSProduct product, PropList overrideProps ) {
+	String routine = getClass().getSimpleName() + ".renderProduct";
+	long t0 = System.currentTimeMillis();
+	Exception exception = null;
+	try {
+		if ( product == null ) {
+			// Copy the override properties so that products do not share a PropList.
+			PropList props = (overrideProps == null) ? null : new PropList(overrideProps, true);
+			product = new TSProduct ( productFile, props );
+		}
+		TSProcessor processor = new TSProcessor();
+		processor.setPreviewOutputEnabled ( false );
+		for ( TSSupplier supplier : this.suppliers ) {
+			processor.addTSSupplier ( supplier );
+		}
+		processor.processProduct ( product );
+	}
+	catch ( Exception e ) {
+		Message.printWarning ( 3, routine, "Error rendering product \"" +
+			((productFile != null) ? productFile : product.getLayeredPropValue("ProductID", -1, -1)) + "\" (" + e + ")." );
+		Message.printWarning ( 3, routine, e );
+		exception = e;
+	}
+	TSProductRenderResult result = new TSProductRenderResult ( productFile, product, System.currentTimeMillis() - t0, exception );
+	Message.printStatus ( 2, routine, "Rendered \"" + result.getOutputFile() + "\" in " + result.getRenderTimeMs() + " ms." );
+	return result;
+}
+
+/**
+Read and render time series product files.
+@param productFiles time series product files (*.tsp) to render
+@param overrideProps properties that override the product file properties, may be null (each product uses a copy)
+@return results in the same order as the product files, which indicate errors for products that could not be rendered
+@exception InterruptedException if interrupted while waiting for products to render
+*/
+public List<TSProductRenderResult> renderProductFiles ( List<String> productFiles, PropList overrideProps )
+throws InterruptedException {
+	return render ( productFiles, null, overrideProps );
+}
+
+/**
+Render time series products.  The products must be distinct instances because they are modified when rendered.
+@param products time series products to render
+@return results in the same order as the products, which indicate errors for products that could not be rendered
+@exception InterruptedException if interrupted while waiting for products to render
+*/
+public List<TSProductRenderResult> renderProducts ( List<TSProduct> products )
+throws InterruptedException {
+	return render ( null, products, null );
+}
+
+/**
+Set the number of threads used to render products.
+@param threads number of threads, or -1 to use the number of processors
+*/
+public void setThreads ( int threads ) {
+	this.threads = threads;
+}
+
+}
@@ -0,0 +1,118 @@
+// TSProductRenderResult - result of rendering a time series product with TSProductBatchRenderer
+
+/* NoticeStart
+
+CDSS Common Java Library
+CDSS Common Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2025 Colorado Department of Natural Resources
+
+CDSS Common Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+CDSS Common Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with CDSS Common Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package RTi.GRTS;
+
+/**
+Result of rendering one time series product with TSProductBatchRenderer,
+including the time to read the time series and render the output file.
+*/
+public class TSProductRenderResult
+{
+
+/**
+Product file name, or null if the product was provided as a TSProduct.
+*/
+private String productFile = null;
+
+/**
+Time series product that was rendered, or null if the product file could not be read.
+*/
+private TSProduct product = null;
+
+/**
+Exception that occurred rendering the product, or null if successful.
+*/
+private Exception exception = null;
+
+/**
+Time to read and render the product, milliseconds.
+*/
+private long renderTimeMs = 0;
+
+/**
+Create a result.
+@param productFile product file name, or null if not rendered from a file
+@param product product that was rendered, or null if the product file could not be read
+@param renderTimeMs time to read and render the product, milliseconds
+@param exception exception that occurred, or null if successful
+*/
+TSProductRenderResult ( String productFile, TSProduct product, long renderTimeMs, Exception exception ) {
+	this.productFile = productFile;
+	this.product = product;
+	this.renderTimeMs = renderTimeMs;
+	this.exception = exception;
+}
+
+/**
+Return the exception that occurred rendering the product, or null if successful.
+@return the exception that occurred rendering the product, or null if successful
+*/
+public Exception getException () {
+	return this.exception;
+}
+
+/**
+Return the output file for the product, from the OutputFile product property.
+@return the output file for the product, or null if not known
+*/
+public String getOutputFile () {
+	if ( this.product == null ) {
+		return null;
+	}
+	return this.product.getLayeredPropValue ( "OutputFile", -1, -1 );
+}
+
+/**
+Return the time series product.
+@return the time series product, or null if the product file could not be read
+*/
+public TSProduct getProduct () {
+	return this.product;
+}
+
+/**
+Return the product file name.
+@return the product file name, or null if the product was not read from a file
+*/
+public String getProductFile () {
+	return this.productFile;
+}
+
+/**
+Return the time to read and render the product, milliseconds.
+@return the time to read and render the product, milliseconds
+*/
+public long getRenderTimeMs () {
+	return this.renderTimeMs;
+}
+
+/**
+Indicate whether the product was rendered successfully.
+@return true if the product was rendered without an exception
+*/
+public boolean isSuccess () {
+	return this.exception == null;
+}
+
+}
@@ -664,6 +664,15 @@ throws TSException {
     }
 }
 
+/**
+Values cannot be read in the background because getValueAt() uses the worksheet's visible area and a shared
+working date/time to determine the date/time for each row.
+@return false
+*/
+public boolean canReadValuesInBackground () {
+	return false;
+}
+
 /**
 Returns the class of the data stored in a given column.
 @param columnIndex the column for which to return the data class.
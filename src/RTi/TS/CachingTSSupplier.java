@@ -0,0 +1,129 @@
+// CachingTSSupplier - TSSupplier that uses a TSReadCache for another TSSupplier
+
+/* NoticeStart
+
+CDSS Common Java Library
+CDSS Common Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2025 Colorado Department of Natural Resources
+
+CDSS Common Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+CDSS Common Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with CDSS Common Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package RTi.TS;
+
+import java.util.List;
+
+import RTi.Util.Time.DateTime;
+
+/**
+This class implements TSSupplier by using a TSReadCache for another TSSupplier,
+so that repeated requests for the same time series identifier and period are read only once.
+Only readTimeSeries(String,...) is cached because it is the method used to read a single identified time series.
+Other methods are passed through to the supplier.
+Cache entries are keyed using the supplier name from getTSSupplierName().
+*/
+public class CachingTSSupplier implements TSSupplier
+{
+
+/**
+Supplier that reads time series.
+*/
+private final TSSupplier supplier;
+
+/**
+Cache for time series.
+*/
+private final TSReadCache cache;
+
+/**
+Create a caching supplier.
+@param supplier the supplier that reads time series
+@param cache the cache to use, which can be shared with other suppliers and datastores
+*/
+public CachingTSSupplier ( TSSupplier supplier, TSReadCache cache ) {
+	this.supplier = supplier;
+	this.cache = cache;
+}
+
+/**
+Return the cache used by the supplier.
+@return the cache used by the supplier
+*/
+public TSReadCache getCache () {
+	return this.cache;
+}
+
+/**
+Return the supplier that is wrapped.
+@return the supplier that is wrapped
+*/
+public TSSupplier getSupplier () {
+	return this.supplier;
+}
+
+/**
+Return the name of the wrapped supplier.
+*/
+public String getTSSupplierName () {
+	return this.supplier.getTSSupplierName();
+}
+
+/**
+Remove all cache entries for the supplier, for example if the supplier's files have been modified.
+@return the number of entries that were removed
+*/
+public int invalidateCache () {
+	return this.cache.invalidate ( getTSSupplierName() );
+}
+
+/**
+Read a time series given a time series identifier string, using the cache.
+See TSSupplier.readTimeSeries().
+*/
+public TS readTimeSeries ( String tsident_string, DateTime date1, DateTime date2, String req_units, boolean read_data )
+throws Exception {
+	return this.cache.readTimeSeries ( getTSSupplierName(), tsident_string, date1, date2, req_units, read_data,
+		() -> this.supplier.readTimeSeries ( tsident_string, date1, date2, req_units, read_data ) );
+}
+
+/**
+Read a time series given an existing time series and a file name, passing the request to the supplier.
+See TSSupplier.readTimeSeries().
+*/
+public TS readTimeSeries ( TS req_ts, String fname, DateTime date1, DateTime date2, String req_units, boolean read_data )
+throws Exception {
+	return this.supplier.readTimeSeries ( req_ts, fname, date1, date2, req_units, read_data );
+}
+
+/**
+Read a time series list from a file, passing the request to the supplier.
+See TSSupplier.readTimeSeriesList().
+*/
+public List<TS> readTimeSeriesList ( String fname, DateTime date1, DateTime date2, String req_units, boolean read_data )
+throws Exception {
+	return this.supplier.readTimeSeriesList ( fname, date1, date2, req_units, read_data );
+}
+
+/**
+Read a time series list using an identifier pattern, passing the request to the supplier.
+See TSSupplier.readTimeSeriesList().
+*/
+public List<TS> readTimeSeriesList ( TSIdent tsident, String fname, DateTime date1, DateTime date2,
+	String req_units, boolean read_data )
+throws Exception {
+	return this.supplier.readTimeSeriesList ( tsident, fname, date1, date2, req_units, read_data );
+}
+
+}
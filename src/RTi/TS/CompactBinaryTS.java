@@ -0,0 +1,982 @@
+// CompactBinaryTS - versioned compact binary file format for time series with block-compressed data
+
+
+/* NoticeStart
+
+CDSS Common Java Library
+CDSS Common Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2025 Colorado Department of Natural Resources
+
+CDSS Common Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+CDSS Common Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with CDSS Common Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package RTi.TS;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import RTi.Util.IO.IOUtil;
+import RTi.Util.Message.Message;
+import RTi.Util.Time.DateTime;
+
+/**
+Read and write a compact binary time series file, which is used to save intermediate results
+between runs without the cost of formatting and parsing text files such as DateValue files.
+Unlike BinaryTS, which is a scratch file with fixed-size headers and uncompressed data for time series with the same period,
+the file holds any number of regular interval time series with different intervals and periods,
+including the time series identifier, alias, description, units, missing value, properties, comments and data flags.
+<p>
+Data values are stored in blocks of values.  The bytes of the values in a block are grouped by position
+(all first bytes, then all second bytes, etc.) and then compressed with Deflater,
+which compresses much better than raw doubles because neighboring values usually have the same sign, exponent,
+and leading mantissa bytes.  Data flags, if used, are stored in a separate compressed block.
+A directory at the end of the file allows time series to be found without reading the data,
+and only the blocks that overlap a requested period are read.
+The file can optionally be memory-mapped for reading.
+All numbers are stored in big-endian byte order.
+The file layout is:
+
+<pre>
+MainHeader                                              Size    Cumulative Size
+        Magic "CDSSCBTS"                                8       8
+        FormatVersion int                               4       12
+        TimeSeriesCount int                             4       16
+        DirectoryPosition long                          8       24
+        DirectoryLength int                             4       28
+        (padding)                                       36      64
+DataBlock (for each time series, for each block of values)
+        Values (grouped bytes, compressed)              variable
+        Flags (UTF strings, compressed, if the time series has flags)  variable
+Directory (one record per time series, strings are int length and UTF-8 bytes)
+        TSID string, Alias string, Description string, Units string, UnitsOriginal string, SequenceID string
+        IntervalBase int, IntervalMult int, Date1 string, Date2 string, Missing double
+        PropertyCount int, and for each property: Name string, Type byte, Value
+        CommentCount int, and for each comment: Comment string
+        DataFlagMetadataCount int, and for each: Flag string, Description string
+        HasFlags boolean, ValueCount int, BlockSize int, BlockCount int
+        and for each block: Position long, ValuesLength int, FlagsLength int
+</pre>
+Date1 and Date2 are null (length -1) if the time series has no period, in which case there are no data blocks.
+Irregular interval time series are not supported.
+*/
+public class CompactBinaryTS
+{
+
+/**
+Default number of values in a block, 4096 values (32 KB before compression).
+*/
+public static final int DEFAULT_BLOCK_SIZE = 4096;
+
+/**
+Current file format version, increment when the format changes and retain the ability to read older versions.
+*/
+public static final int FORMAT_VERSION = 1;
+
+/**
+Input type for time series read from the file.
+*/
+public static final String INPUT_TYPE = "CompactBinary";
+
+/**
+Magic bytes at the start of the file.
+*/
+private static final byte [] MAGIC = "CDSSCBTS".getBytes(StandardCharsets.US_ASCII);
+
+/**
+Size of the main header (bytes).
+*/
+private static final int HEADER_SIZE = 64;
+
+/**
+Property types.
+*/
+private static final byte PROPERTY_NULL = 0;
+private static final byte PROPERTY_STRING = 1;
+private static final byte PROPERTY_BOOLEAN = 2;
+private static final byte PROPERTY_INTEGER = 3;
+private static final byte PROPERTY_LONG = 4;
+private static final byte PROPERTY_DOUBLE = 5;
+private static final byte PROPERTY_DATETIME = 6;
+
+/**
+Directory entry for one time series.
+*/
+private static class Entry
+{
+	private String tsid;
+	private String alias;
+	private String description;
+	private String units;
+	private String unitsOriginal;
+	private String sequenceID;
+	private int intervalBase;
+	private int intervalMult;
+	private DateTime date1;
+	private DateTime date2;
+	private double missing;
+	private List<String> propertyNames = new ArrayList<>();
+	private List<Object> propertyValues = new ArrayList<>();
+	private List<String> comments = new ArrayList<>();
+	private List<TSDataFlagMetadata> dataFlagMetadataList = new ArrayList<>();
+	private boolean hasFlags;
+	private int valueCount;
+	private int blockSize;
+	private long [] blockPositions;
+	private int [] blockValuesLengths;
+	private int [] blockFlagsLengths;
+}
+
+/**
+File that is being read.
+*/
+private final String filename;
+
+/**
+Random access file and channel for the file.
+*/
+private RandomAccessFile fp;
+private FileChannel channel;
+
+/**
+Memory-mapped file, or null if the file is read with the channel.
+*/
+private MappedByteBuffer mapped = null;
+
+/**
+Directory entries, in the order of the time series in the file.
+*/
+private final List<Entry> entries;
+
+/**
+Open a compact binary time series file for reading.
+The directory is read when opened and data are read when time series are requested.
+@param filename name of the file to read, IOUtil.getPathUsingWorkingDir() is applied
+@param useMemoryMapping if true, memory-map the file, which is faster when reading many time series
+and short periods from a file; if false, read blocks as needed.
+A mapped file cannot be unmapped explicitly and remains mapped after close() until the buffer is garbage collected,
+and on Windows the file cannot be deleted or replaced while mapped,
+so only use memory mapping for files that are opened for a long time and not rewritten.
+@exception IOException if the file cannot be opened or is not a compact binary time series file
+*/
+public CompactBinaryTS ( String filename, boolean useMemoryMapping )
+throws IOException {
+	this.filename = IOUtil.getPathUsingWorkingDir ( filename );
+	this.fp = new RandomAccessFile ( this.filename, "r" );
+	try {
+		this.channel = this.fp.getChannel();
+		ByteBuffer header = readFully ( 0, HEADER_SIZE );
+		byte [] magic = new byte[MAGIC.length];
+		header.get ( magic );
+		if ( !Arrays.equals(magic, MAGIC) ) {
+			throw new IOException ( "File is not a compact binary time series file: \"" + this.filename + "\"" );
+		}
+		int version = header.getInt();
+		if ( version > FORMAT_VERSION ) {
+			throw new IOException ( "File format version " + version + " is newer than the supported version " +
+				FORMAT_VERSION + ": \"" + this.filename + "\"" );
+		}
+		int nts = header.getInt();
+		long directoryPosition = header.getLong();
+		int directoryLength = header.getInt();
+		if ( useMemoryMapping && (this.channel.size() <= Integer.MAX_VALUE) ) {
+			this.mapped = this.channel.map ( FileChannel.MapMode.READ_ONLY, 0, this.channel.size() );
+		}
+		ByteBuffer directory = readFully ( directoryPosition, directoryLength );
+		byte [] bytes = new byte[directoryLength];
+		directory.get ( bytes );
+		this.entries = readDirectory ( new DataInputStream(new ByteArrayInputStream(bytes)), nts );
+	}
+	catch ( IOException | RuntimeException e ) {
+		close ();
+		throw e;
+	}
+}
+
+/**
+Close the file.
+@exception IOException if there is an error closing the file
+*/
+public void close ()
+throws IOException {
+	this.mapped = null;
+	if ( this.fp != null ) {
+		this.fp.close();
+		this.fp = null;
+		this.channel = null;
+	}
+}
+
+/**
+Compress bytes.
+@param deflater deflater to use, which is reset
+@param bytes bytes to compress
+@param length number of bytes to compress
+@return compressed bytes
+*/
+private static byte [] deflate ( Deflater deflater, byte [] bytes, int length ) {
+	deflater.reset();
+	deflater.setInput ( bytes, 0, length );
+	deflater.finish();
+	byte [] out = new byte[length/2 + 64];
+	int count = 0;
+	while ( !deflater.finished() ) {
+		if ( count == out.length ) {
+			out = Arrays.copyOf ( out, out.length*2 );
+		}
+		count += deflater.deflate ( out, count, out.length - count );
+	}
+	return Arrays.copyOf ( out, count );
+}
+
+/**
+Return the name of the file.
+@return the full path of the file
+*/
+public String getFilename () {
+	return this.filename;
+}
+
+/**
+Return the time series identifier for a time series in the file.
+@param its time series index (0+)
+@return the time series identifier string
+*/
+public String getTSID ( int its ) {
+	return this.entries.get(its).tsid;
+}
+
+/**
+Return the number of time series in the file.
+@return the number of time series in the file
+*/
+public int getTimeSeriesCount () {
+	return this.entries.size();
+}
+
+/**
+Return the index of a time series in the file.
+@param tsid time series identifier or alias to match, ignoring case,
+may contain wildcards as allowed by TSIdent.matches() and include the input type and name, which are ignored
+@return the index of the first matching time series (0+), or -1 if not found
+*/
+public int indexOf ( String tsid ) {
+	String tsidNoInput = tsid;
+	int pos = tsid.indexOf('~');
+	if ( pos >= 0 ) {
+		tsidNoInput = tsid.substring(0,pos);
+	}
+	for ( int its = 0; its < this.entries.size(); its++ ) {
+		Entry entry = this.entries.get(its);
+		if ( tsidNoInput.equalsIgnoreCase(entry.tsid) || tsidNoInput.equalsIgnoreCase(entry.alias) ) {
+			return its;
+		}
+	}
+	if ( tsidNoInput.indexOf('*') >= 0 ) {
+		for ( int its = 0; its < this.entries.size(); its++ ) {
+			try {
+				if ( new TSIdent(this.entries.get(its).tsid).matches(tsidNoInput) ) {
+					return its;
+				}
+			}
+			catch ( Exception e ) {
+				// Should not happen since the identifier was written from a time series.
+			}
+		}
+	}
+	return -1;
+}
+
+/**
+Decompress bytes.
+@param inflater inflater to use, which is reset
+@param compressed compressed bytes
+@param length expected length of the decompressed bytes
+@return decompressed bytes
+@exception IOException if the data are corrupt
+*/
+private static byte [] inflate ( Inflater inflater, byte [] compressed, int length )
+throws IOException {
+	inflater.reset();
+	inflater.setInput ( compressed );
+	byte [] out = new byte[length];
+	int count = 0;
+	try {
+		while ( (count < length) && !inflater.finished() ) {
+			int n = inflater.inflate ( out, count, length - count );
+			if ( (n == 0) && (inflater.needsInput() || inflater.needsDictionary()) ) {
+				break;
+			}
+			count += n;
+		}
+	}
+	catch ( DataFormatException e ) {
+		throw new IOException ( "Data block is corrupt (" + e + ").", e );
+	}
+	if ( count != length ) {
+		throw new IOException ( "Data block is corrupt (expected " + length + " bytes, found " + count + ")." );
+	}
+	return out;
+}
+
+/**
+Determine whether a file is a compact binary time series file, by checking the first bytes of the file.
+@param filename name of the file to check, IOUtil.getPathUsingWorkingDir() is applied
+@return true if the file is a compact binary time series file
+*/
+public static boolean isCompactBinaryTSFile ( String filename ) {
+	File f = new File ( IOUtil.getPathUsingWorkingDir(filename) );
+	if ( !f.isFile() || (f.length() < HEADER_SIZE) ) {
+		return false;
+	}
+	try ( FileInputStream in = new FileInputStream(f) ) {
+		byte [] magic = new byte[MAGIC.length];
+		return (in.read(magic) == magic.length) && Arrays.equals(magic, MAGIC);
+	}
+	catch ( IOException e ) {
+		return false;
+	}
+}
+
+/**
+Read the data blocks that overlap a range of values.
+@param entry directory entry for the time series
+@param ts time series to fill
+@param firstIndex index of the first value to read
+@param lastIndex index of the last value to read
+@param date date corresponding to firstIndex, will be modified
+*/
+private void readData ( Entry entry, TS ts, int firstIndex, int lastIndex, DateTime date )
+throws IOException {
+	Inflater inflater = new Inflater();
+	try {
+		int bs = entry.blockSize;
+		for ( int iblock = firstIndex/bs; iblock <= lastIndex/bs; iblock++ ) {
+			int blockStart = iblock*bs;
+			int n = Math.min ( bs, entry.valueCount - blockStart );
+			byte [] compressed = new byte[entry.blockValuesLengths[iblock]];
+			readFully(entry.blockPositions[iblock], compressed.length).get(compressed);
+			double [] values = unshuffle ( inflate(inflater, compressed, n*8), n );
+			String [] flags = null;
+			if ( entry.hasFlags ) {
+				compressed = new byte[entry.blockFlagsLengths[iblock]];
+				readFully(entry.blockPositions[iblock] + entry.blockValuesLengths[iblock], compressed.length).get(compressed);
+				// The length of the decompressed flags is saved at the start of the block.
+				ByteBuffer b = ByteBuffer.wrap ( compressed );
+				int length = b.getInt();
+				byte [] flagBytes = inflate ( inflater, Arrays.copyOfRange(compressed, 4, compressed.length), length );
+				DataInputStream in = new DataInputStream ( new ByteArrayInputStream(flagBytes) );
+				flags = new String[n];
+				for ( int i = 0; i < n; i++ ) {
+					flags[i] = in.readUTF();
+				}
+			}
+			int i1 = Math.max ( firstIndex, blockStart ) - blockStart;
+			int i2 = Math.min ( lastIndex, blockStart + n - 1 ) - blockStart;
+			for ( int i = i1; i <= i2; i++ ) {
+				if ( flags == null ) {
+					ts.setDataValue ( date, values[i] );
+				}
+				else {
+					ts.setDataValue ( date, values[i], flags[i], 0 );
+				}
+				date.addInterval ( entry.intervalBase, entry.intervalMult );
+			}
+		}
+	}
+	finally {
+		inflater.end();
+	}
+}
+
+/**
+Read the directory.
+@param in input stream positioned at the start of the directory
+@param nts number of time series in the file
+@return directory entries
+*/
+private static List<Entry> readDirectory ( DataInputStream in, int nts )
+throws IOException {
+	List<Entry> entries = new ArrayList<>(nts);
+	for ( int its = 0; its < nts; its++ ) {
+		Entry entry = new Entry();
+		entry.tsid = readString ( in );
+		entry.alias = readString ( in );
+		entry.description = readString ( in );
+		entry.units = readString ( in );
+		entry.unitsOriginal = readString ( in );
+		entry.sequenceID = readString ( in );
+		entry.intervalBase = in.readInt();
+		entry.intervalMult = in.readInt();
+		try {
+			// The period is null if the time series had no period when written, in which case there is no data.
+			String date1 = readString ( in );
+			String date2 = readString ( in );
+			entry.date1 = (date1 == null) ? null : DateTime.parse ( date1 );
+			entry.date2 = (date2 == null) ? null : DateTime.parse ( date2 );
+		}
+		catch ( Exception e ) {
+			throw new IOException ( "Invalid period for \"" + entry.tsid + "\" (" + e + ").", e );
+		}
+		entry.missing = in.readDouble();
+		int nprop = in.readInt();
+		for ( int i = 0; i < nprop; i++ ) {
+			entry.propertyNames.add ( readString(in) );
+			entry.propertyValues.add ( readProperty(in) );
+		}
+		int ncomment = in.readInt();
+		for ( int i = 0; i < ncomment; i++ ) {
+			entry.comments.add ( readString(in) );
+		}
+		int nflagMeta = in.readInt();
+		for ( int i = 0; i < nflagMeta; i++ ) {
+			String flag = readString ( in );
+			String description = readString ( in );
+			entry.dataFlagMetadataList.add ( new TSDataFlagMetadata(flag, description) );
+		}
+		entry.hasFlags = in.readBoolean();
+		entry.valueCount = in.readInt();
+		entry.blockSize = in.readInt();
+		int nblock = in.readInt();
+		entry.blockPositions = new long[nblock];
+		entry.blockValuesLengths = new int[nblock];
+		entry.blockFlagsLengths = new int[nblock];
+		for ( int i = 0; i < nblock; i++ ) {
+			entry.blockPositions[i] = in.readLong();
+			entry.blockValuesLengths[i] = in.readInt();
+			entry.blockFlagsLengths[i] = in.readInt();
+		}
+		entries.add ( entry );
+	}
+	return entries;
+}
+
+/**
+Read bytes from the file.
+@param position position in the file
+@param length number of bytes to read
+@return buffer containing the bytes, positioned at the start
+*/
+private ByteBuffer readFully ( long position, int length )
+throws IOException {
+	if ( this.mapped != null ) {
+		ByteBuffer b = this.mapped.duplicate();
+		b.position ( (int)position );
+		b.limit ( (int)position + length );
+		return b.slice();
+	}
+	ByteBuffer b = ByteBuffer.allocate ( length );
+	while ( b.hasRemaining() ) {
+		// Positional reads do not change the channel position so can be used by multiple threads.
+		if ( this.channel.read(b, position + b.position()) < 0 ) {
+			throw new IOException ( "Unexpected end of file reading \"" + this.filename + "\"" );
+		}
+	}
+	b.flip();
+	return b;
+}
+
+/**
+Read a property value.
+*/
+private static Object readProperty ( DataInputStream in )
+throws IOException {
+	byte type = in.readByte();
+	switch ( type ) {
+		case PROPERTY_NULL: return null;
+		case PROPERTY_STRING: return readString ( in );
+		case PROPERTY_BOOLEAN: return Boolean.valueOf ( in.readBoolean() );
+		case PROPERTY_INTEGER: return Integer.valueOf ( in.readInt() );
+		case PROPERTY_LONG: return Long.valueOf ( in.readLong() );
+		case PROPERTY_DOUBLE: return Double.valueOf ( in.readDouble() );
+		case PROPERTY_DATETIME:
+			String s = readString ( in );
+			try {
+				return DateTime.parse ( s );
+			}
+			catch ( Exception e ) {
+				return s;
+			}
+		default: throw new IOException ( "Property type " + type + " is not supported." );
+	}
+}
+
+/**
+Read a string, which is saved as the length followed by UTF-8 bytes, and -1 for null.
+*/
+private static String readString ( DataInputStream in )
+throws IOException {
+	int length = in.readInt();
+	if ( length < 0 ) {
+		return null;
+	}
+	byte [] bytes = new byte[length];
+	in.readFully ( bytes );
+	return new String ( bytes, StandardCharsets.UTF_8 );
+}
+
+/**
+Read a time series from the file.
+@param its time series index (0+)
+@param readStart starting date to read (null to read the full period)
+@param readEnd ending date to read (null to read the full period)
+@param readData whether to read data (false to only read the header)
+@return the time series
+@exception IOException if there is an error reading the file
+*/
+public TS readTimeSeries ( int its, DateTime readStart, DateTime readEnd, boolean readData )
+throws IOException {
+	Entry entry = this.entries.get(its);
+	TS ts = null;
+	try {
+		ts = TSUtil.newTimeSeries ( entry.tsid, true );
+		if ( ts == null ) {
+			throw new IOException ( "Unable to create time series for \"" + entry.tsid + "\"" );
+		}
+		ts.setIdentifier ( entry.tsid );
+	}
+	catch ( IOException e ) {
+		throw e;
+	}
+	catch ( Exception e ) {
+		throw new IOException ( "Unable to create time series for \"" + entry.tsid + "\" (" + e + ").", e );
+	}
+	ts.getIdentifier().setInputType ( INPUT_TYPE );
+	ts.getIdentifier().setInputName ( this.filename );
+	ts.setInputName ( this.filename );
+	if ( entry.alias != null ) {
+		ts.setAlias ( entry.alias );
+	}
+	if ( entry.description != null ) {
+		ts.setDescription ( entry.description );
+	}
+	if ( entry.units != null ) {
+		ts.setDataUnits ( entry.units );
+	}
+	if ( entry.unitsOriginal != null ) {
+		ts.setDataUnitsOriginal ( entry.unitsOriginal );
+	}
+	if ( entry.sequenceID != null ) {
+		ts.setSequenceID ( entry.sequenceID );
+	}
+	ts.setMissing ( entry.missing );
+	for ( int i = 0; i < entry.propertyNames.size(); i++ ) {
+		ts.setProperty ( entry.propertyNames.get(i), entry.propertyValues.get(i) );
+	}
+	ts.setComments ( new ArrayList<>(entry.comments) );
+	for ( TSDataFlagMetadata meta : entry.dataFlagMetadataList ) {
+		ts.addDataFlagMetadata ( meta );
+	}
+	if ( entry.date1 != null ) {
+		ts.setDate1Original ( new DateTime(entry.date1) );
+	}
+	if ( entry.date2 != null ) {
+		ts.setDate2Original ( new DateTime(entry.date2) );
+	}
+	DateTime date1 = (readStart == null) ? entry.date1 : readStart;
+	DateTime date2 = (readEnd == null) ? entry.date2 : readEnd;
+	if ( date1 != null ) {
+		ts.setDate1 ( new DateTime(date1) );
+	}
+	if ( date2 != null ) {
+		ts.setDate2 ( new DateTime(date2) );
+	}
+	if ( entry.hasFlags ) {
+		ts.hasDataFlags ( true, true );
+	}
+	if ( !readData ) {
+		return ts;
+	}
+	if ( (entry.date1 == null) || (entry.date2 == null) ) {
+		// No data were written.  Fill the requested period with missing values if one was given.
+		if ( (date1 != null) && (date2 != null) ) {
+			ts.allocateDataSpace();
+		}
+		return ts;
+	}
+	ts.allocateDataSpace();
+	// Read the values that overlap the requested period.
+	DateTime start = ts.getDate1().greaterThan(entry.date1) ? ts.getDate1() : entry.date1;
+	DateTime end = ts.getDate2().lessThan(entry.date2) ? ts.getDate2() : entry.date2;
+	if ( start.greaterThan(end) || (entry.valueCount == 0) ) {
+		return ts;
+	}
+	int firstIndex = TSUtil.calculateDataSize ( entry.date1, start, entry.intervalBase, entry.intervalMult ) - 1;
+	int lastIndex = Math.min ( entry.valueCount - 1,
+		TSUtil.calculateDataSize ( entry.date1, end, entry.intervalBase, entry.intervalMult ) - 1 );
+	DateTime date = new DateTime ( entry.date1 );
+	date.addInterval ( entry.intervalBase, entry.intervalMult*firstIndex );
+	readData ( entry, ts, firstIndex, lastIndex, date );
+	ts.addToGenesis ( "Read data from \"" + this.filename + "\" for period " + ts.getDate1() + " to " + ts.getDate2() );
+	return ts;
+}
+
+/**
+Read a time series from a compact binary time series file.
+@param tsid time series identifier or alias to read
+@param filename name of the file to read
+@param readStart starting date to read (null to read the full period)
+@param readEnd ending date to read (null to read the full period)
+@param units units to convert to (null or blank to not convert)
+@param readData whether to read data (false to only read the header)
+@return the time series, or null if not found in the file
+@exception IOException if there is an error reading the file
+*/
+public static TS readTimeSeries ( String tsid, String filename, DateTime readStart, DateTime readEnd,
+	String units, boolean readData )
+throws IOException {
+	CompactBinaryTS file = new CompactBinaryTS ( filename, false );
+	try {
+		int its = file.indexOf ( tsid );
+		if ( its < 0 ) {
+			Message.printWarning ( 3, "CompactBinaryTS.readTimeSeries",
+				"Time series \"" + tsid + "\" is not in file \"" + file.getFilename() + "\"" );
+			return null;
+		}
+		TS ts = file.readTimeSeries ( its, readStart, readEnd, readData );
+		convertUnits ( ts, units, readData );
+		return ts;
+	}
+	finally {
+		file.close();
+	}
+}
+
+/**
+Read all time series from a compact binary time series file.
+The file is read with channel reads rather than memory-mapped, so that the file is not locked after reading
+(see the constructor).
+@param filename name of the file to read
+@param readStart starting date to read (null to read the full period)
+@param readEnd ending date to read (null to read the full period)
+@param units units to convert to (null or blank to not convert)
+@param readData whether to read data (false to only read the header)
+@return list of time series in the order of the file
+@exception IOException if there is an error reading the file
+*/
+public static List<TS> readTimeSeriesList ( String filename, DateTime readStart, DateTime readEnd,
+	String units, boolean readData )
+throws IOException {
+	CompactBinaryTS file = new CompactBinaryTS ( filename, false );
+	try {
+		List<TS> tslist = new ArrayList<>(file.getTimeSeriesCount());
+		for ( int its = 0; its < file.getTimeSeriesCount(); its++ ) {
+			TS ts = file.readTimeSeries ( its, readStart, readEnd, readData );
+			convertUnits ( ts, units, readData );
+			tslist.add ( ts );
+		}
+		return tslist;
+	}
+	finally {
+		file.close();
+	}
+}
+
+/**
+Convert time series units after reading.
+*/
+private static void convertUnits ( TS ts, String units, boolean readData )
+throws IOException {
+	if ( readData && (units != null) && !units.isEmpty() && !units.equalsIgnoreCase(ts.getDataUnits()) ) {
+		try {
+			TSUtil.convertUnits ( ts, units );
+		}
+		catch ( Exception e ) {
+			throw new IOException ( "Unable to convert \"" + ts.getIdentifierString() + "\" units to \"" +
+				units + "\" (" + e + ").", e );
+		}
+	}
+}
+
+/**
+Group the bytes of values by position, so that similar bytes are adjacent for compression.
+@param values values to shuffle
+@param n number of values
+@param bytes output bytes, at least 8*n long
+*/
+private static void shuffle ( double [] values, int n, byte [] bytes ) {
+	for ( int i = 0; i < n; i++ ) {
+		long bits = Double.doubleToRawLongBits ( values[i] );
+		for ( int b = 0; b < 8; b++ ) {
+			bytes[b*n + i] = (byte)(bits >>> (56 - 8*b));
+		}
+	}
+}
+
+/**
+Restore values from bytes that were grouped by shuffle().
+@param bytes shuffled bytes
+@param n number of values
+@return values
+*/
+private static double [] unshuffle ( byte [] bytes, int n ) {
+	double [] values = new double[n];
+	for ( int i = 0; i < n; i++ ) {
+		long bits = 0;
+		for ( int b = 0; b < 8; b++ ) {
+			bits = (bits << 8) | (bytes[b*n + i] & 0xff);
+		}
+		values[i] = Double.longBitsToDouble ( bits );
+	}
+	return values;
+}
+
+/**
+Write a property value.
+*/
+private static void writeProperty ( DataOutputStream out, Object value )
+throws IOException {
+	if ( value == null ) {
+		out.writeByte ( PROPERTY_NULL );
+	}
+	else if ( value instanceof Boolean ) {
+		out.writeByte ( PROPERTY_BOOLEAN );
+		out.writeBoolean ( (Boolean)value );
+	}
+	else if ( value instanceof Integer ) {
+		out.writeByte ( PROPERTY_INTEGER );
+		out.writeInt ( (Integer)value );
+	}
+	else if ( value instanceof Long ) {
+		out.writeByte ( PROPERTY_LONG );
+		out.writeLong ( (Long)value );
+	}
+	else if ( value instanceof Double ) {
+		out.writeByte ( PROPERTY_DOUBLE );
+		out.writeDouble ( (Double)value );
+	}
+	else if ( value instanceof DateTime ) {
+		out.writeByte ( PROPERTY_DATETIME );
+		writeString ( out, value.toString() );
+	}
+	else {
+		// Other objects are saved as strings.
+		out.writeByte ( PROPERTY_STRING );
+		writeString ( out, value.toString() );
+	}
+}
+
+/**
+Write a string as the length followed by UTF-8 bytes, and -1 for null.
+*/
+private static void writeString ( DataOutputStream out, String s )
+throws IOException {
+	if ( s == null ) {
+		out.writeInt ( -1 );
+		return;
+	}
+	byte [] bytes = s.getBytes ( StandardCharsets.UTF_8 );
+	out.writeInt ( bytes.length );
+	out.write ( bytes );
+}
+
+/**
+Write a time series to a compact binary time series file, overwriting the file if it exists.
+@param ts time series to write
+@param filename name of the file to write, IOUtil.getPathUsingWorkingDir() is applied
+@exception IOException if there is an error writing the file
+*/
+public static void writeTimeSeries ( TS ts, String filename )
+throws IOException {
+	List<TS> tslist = new ArrayList<>(1);
+	tslist.add ( ts );
+	writeTimeSeriesList ( tslist, filename, DEFAULT_BLOCK_SIZE );
+}
+
+/**
+Write a list of time series to a compact binary time series file, overwriting the file if it exists.
+@param tslist list of time series to write, null time series are skipped
+@param filename name of the file to write, IOUtil.getPathUsingWorkingDir() is applied
+@exception IOException if there is an error writing the file
+*/
+public static void writeTimeSeriesList ( List<TS> tslist, String filename )
+throws IOException {
+	writeTimeSeriesList ( tslist, filename, DEFAULT_BLOCK_SIZE );
+}
+
+/**
+Write a list of time series to a compact binary time series file, overwriting the file if it exists.
+@param tslist list of time series to write, null time series are skipped
+@param filename name of the file to write, IOUtil.getPathUsingWorkingDir() is applied
+@param blockSize number of values in a data block, smaller blocks allow shorter periods to be read more quickly
+but do not compress as well
+@exception IOException if there is an error writing the file, or a time series is irregular interval
+*/
+public static void writeTimeSeriesList ( List<TS> tslist, String filename, int blockSize )
+throws IOException {
+	String fullFilename = IOUtil.getPathUsingWorkingDir ( filename );
+	if ( blockSize <= 0 ) {
+		blockSize = DEFAULT_BLOCK_SIZE;
+	}
+	ByteArrayOutputStream directoryBytes = new ByteArrayOutputStream();
+	DataOutputStream directory = new DataOutputStream ( directoryBytes );
+	Deflater deflater = new Deflater ( Deflater.BEST_SPEED );
+	try ( RandomAccessFile fp = new RandomAccessFile(fullFilename, "rw") ) {
+		fp.setLength ( 0 );
+		FileChannel channel = fp.getChannel();
+		long position = HEADER_SIZE;
+		double [] values = new double[blockSize];
+		String [] flags = new String[blockSize];
+		byte [] bytes = new byte[8*blockSize];
+		ByteArrayOutputStream flagBytes = new ByteArrayOutputStream();
+		TSData tsdata = new TSData();
+		int nts = 0;
+		for ( TS ts : tslist ) {
+			if ( ts == null ) {
+				continue;
+			}
+			int intervalBase = ts.getDataIntervalBase();
+			int intervalMult = ts.getDataIntervalMult();
+			if ( ts instanceof IrregularTS ) {
+				throw new IOException ( "Irregular interval time series are not supported for \"" +
+					ts.getIdentifierString() + "\"" );
+			}
+			DateTime date1 = ts.getDate1();
+			DateTime date2 = ts.getDate2();
+			boolean hasFlags = ts.hasDataFlags();
+			int valueCount = 0;
+			if ( (date1 != null) && (date2 != null) && ts.hasData() ) {
+				valueCount = TSUtil.calculateDataSize ( date1, date2, intervalBase, intervalMult );
+			}
+			int nblock = (valueCount + blockSize - 1)/blockSize;
+			long [] blockPositions = new long[nblock];
+			int [] blockValuesLengths = new int[nblock];
+			int [] blockFlagsLengths = new int[nblock];
+			DateTime date = (date1 == null) ? null : new DateTime ( date1 );
+			for ( int iblock = 0; iblock < nblock; iblock++ ) {
+				int n = Math.min ( blockSize, valueCount - iblock*blockSize );
+				for ( int i = 0; i < n; i++ ) {
+					if ( hasFlags ) {
+						tsdata = ts.getDataPoint ( date, tsdata );
+						values[i] = tsdata.getDataValue();
+						flags[i] = tsdata.getDataFlag();
+					}
+					else {
+						values[i] = ts.getDataValue ( date );
+					}
+					date.addInterval ( intervalBase, intervalMult );
+				}
+				shuffle ( values, n, bytes );
+				byte [] compressedValues = deflate ( deflater, bytes, 8*n );
+				byte [] compressedFlags = null;
+				if ( hasFlags ) {
+					flagBytes.reset();
+					DataOutputStream out = new DataOutputStream ( flagBytes );
+					for ( int i = 0; i < n; i++ ) {
+						out.writeUTF ( (flags[i] == null) ? "" : flags[i] );
+					}
+					out.flush();
+					byte [] compressed = deflate ( deflater, flagBytes.toByteArray(), flagBytes.size() );
+					// Save the decompressed length first so that the block can be decompressed in one call.
+					compressedFlags = ByteBuffer.allocate(4 + compressed.length).putInt(flagBytes.size()).put(compressed).array();
+				}
+				blockPositions[iblock] = position;
+				blockValuesLengths[iblock] = compressedValues.length;
+				position += writeFully ( channel, ByteBuffer.wrap(compressedValues), position );
+				if ( compressedFlags != null ) {
+					blockFlagsLengths[iblock] = compressedFlags.length;
+					position += writeFully ( channel, ByteBuffer.wrap(compressedFlags), position );
+				}
+			}
+			// Add the directory entry.
+			writeString ( directory, ts.getIdentifier().toString() );
+			writeString ( directory, ts.getAlias() );
+			writeString ( directory, ts.getDescription() );
+			writeString ( directory, ts.getDataUnits() );
+			writeString ( directory, ts.getDataUnitsOriginal() );
+			writeString ( directory, ts.getSequenceID() );
+			directory.writeInt ( intervalBase );
+			directory.writeInt ( intervalMult );
+			writeString ( directory, (date1 == null) ? null : date1.toString() );
+			writeString ( directory, (date2 == null) ? null : date2.toString() );
+			directory.writeDouble ( ts.getMissing() );
+			Map<String,Object> properties = ts.getProperties();
+			directory.writeInt ( properties.size() );
+			for ( Map.Entry<String,Object> property : properties.entrySet() ) {
+				writeString ( directory, property.getKey() );
+				writeProperty ( directory, property.getValue() );
+			}
+			List<String> comments = ts.getComments();
+			if ( comments == null ) {
+				comments = new ArrayList<>();
+			}
+			directory.writeInt ( comments.size() );
+			for ( String comment : comments ) {
+				writeString ( directory, comment );
+			}
+			List<TSDataFlagMetadata> dataFlagMetadataList = ts.getDataFlagMetadataList();
+			directory.writeInt ( dataFlagMetadataList.size() );
+			for ( TSDataFlagMetadata meta : dataFlagMetadataList ) {
+				writeString ( directory, meta.getDataFlag() );
+				writeString ( directory, meta.getDescription() );
+			}
+			directory.writeBoolean ( hasFlags );
+			directory.writeInt ( valueCount );
+			directory.writeInt ( blockSize );
+			directory.writeInt ( nblock );
+			for ( int iblock = 0; iblock < nblock; iblock++ ) {
+				directory.writeLong ( blockPositions[iblock] );
+				directory.writeInt ( blockValuesLengths[iblock] );
+				directory.writeInt ( blockFlagsLengths[iblock] );
+			}
+			++nts;
+		}
+		directory.flush();
+		int directoryLength = directoryBytes.size();
+		writeFully ( channel, ByteBuffer.wrap(directoryBytes.toByteArray()), position );
+		ByteBuffer header = ByteBuffer.allocate ( HEADER_SIZE );
+		header.put ( MAGIC );
+		header.putInt ( FORMAT_VERSION );
+		header.putInt ( nts );
+		header.putLong ( position );
+		header.putInt ( directoryLength );
+		header.position ( 0 );
+		writeFully ( channel, header, 0 );
+	}
+	finally {
+		deflater.end();
+	}
+}
+
+/**
+Write a buffer to the channel at a position.
+@return the number of bytes written
+*/
+private static int writeFully ( FileChannel channel, ByteBuffer b, long position )
+throws IOException {
+	int n = b.remaining();
+	while ( b.hasRemaining() ) {
+		channel.write ( b, position + n - b.remaining() );
+	}
+	return n;
+}
+
+}
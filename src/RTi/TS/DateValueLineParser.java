@@ -0,0 +1,446 @@
+// DateValueLineParser - parse DateValue header properties that control data lines, and parse data lines
+
+
+/* NoticeStart
+
+CDSS Common Java Library
+CDSS Common Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2025 Colorado Department of Natural Resources
+
+CDSS Common Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+CDSS Common Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with CDSS Common Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package RTi.TS;
+
+import java.util.List;
+
+import RTi.Util.Message.Message;
+import RTi.Util.String.StringUtil;
+import RTi.Util.Time.DateTime;
+import RTi.Util.Time.TimeInterval;
+
+/**
+Parser for the DateValue header properties that control how data lines are parsed
+(file version, Delimiter, NumTS, DataFlags, IncludeCount and IncludeTotalTime), and for the data lines.
+The header properties are parsed first, then setIntervalBase() is called, and then each data line is parsed
+with parseDataLine(), after which the columns of the line can be retrieved.
+This class is used by DateValueTS and DateValueTSIncrementalReader and is not intended to be used directly.
+*/
+class DateValueLineParser
+{
+
+/**
+Default delimiter for properties and data columns.
+*/
+private static final String DELIMITER_DEFAULT = " ";
+
+/**
+Delimiter for properties and data columns.
+*/
+private String delimiter = DELIMITER_DEFAULT;
+
+/**
+Flag used with StringUtil.breakStringList(), which depends on the file version.
+*/
+private int delimParseFlag = 0;
+
+/**
+Number of time series in the file.
+*/
+private int numts = 1;
+
+/**
+Indicates whether the DataFlags property was specified, in which case data lines are parsed allowing quoted strings.
+*/
+private boolean dataFlags = false;
+
+/**
+Indicates whether each time series has a data flag column, or null if not yet known.
+*/
+private boolean [] tsHasDataFlag = null;
+
+/**
+Indicates whether the data lines include a record count column.
+*/
+private boolean includeCount = false;
+
+/**
+Indicates whether the data lines include a total time column.
+*/
+private boolean includeTotalTime = false;
+
+/**
+Interval base of the time series, used to set the precision of date/times.
+*/
+private int intervalBase = 0;
+
+/**
+Indicates whether the date and time may be in separate columns, for hour, minute and irregular time series.
+*/
+private boolean useTime = false;
+
+/**
+Number of expected columns in a data line, with the date and time in a single column.
+*/
+private int numExpectedColumns = 0;
+
+/**
+Number of extra columns after the date (record count and total time).
+*/
+private int numExtraColumns = 0;
+
+/**
+Number of warnings from parsing header properties.
+*/
+private int warningCount = 0;
+
+/**
+Columns from the last data line that was parsed.
+*/
+private List<String> strings = null;
+
+/**
+Number of columns for the date/time in the last data line that was parsed (1 or 2).
+*/
+private int dateColumnCount = 1;
+
+/**
+Problem with the last data line that was parsed, or null if no problem.
+*/
+private String error = null;
+
+/**
+Return the column from the last data line.
+@param column column (0 is the date)
+@return the trimmed column string
+*/
+String getColumn ( int column ) {
+	return this.strings.get(column).trim();
+}
+
+/**
+Return the number of columns in the last data line.
+@return the number of columns in the last data line
+*/
+int getColumnCount () {
+	return (this.strings == null) ? 0 : this.strings.size();
+}
+
+/**
+Return the number of columns used for the date/time in the last data line,
+2 if the date and time are separated by the delimiter and 1 otherwise.
+@return the number of columns used for the date/time in the last data line
+*/
+int getDateColumnCount () {
+	return this.dateColumnCount;
+}
+
+/**
+Return the delimiter for properties and data columns.
+@return the delimiter for properties and data columns
+*/
+String getDelimiter () {
+	return this.delimiter;
+}
+
+/**
+Return the flag to use with StringUtil.breakStringList(), which depends on the file version.
+@return the flag to use with StringUtil.breakStringList()
+*/
+int getDelimParseFlag () {
+	return this.delimParseFlag;
+}
+
+/**
+Return the problem with the last data line, or null if there was no problem.
+@return the problem with the last data line
+*/
+String getError () {
+	return this.error;
+}
+
+/**
+Return the first column of data values in the last data line.
+@return the first column of data values in the last data line
+*/
+int getFirstDataColumn () {
+	return this.dateColumnCount + this.numExtraColumns;
+}
+
+/**
+Return the number of time series in the file.
+@return the number of time series in the file
+*/
+int getNumTS () {
+	return this.numts;
+}
+
+/**
+Return the data value from a column in the last data line, treating "NaN" as missing.
+@param column column containing the data value
+@param missing missing value for the time series
+@return the data value
+*/
+double getValue ( int column, double missing ) {
+	String svalue = getColumn ( column );
+	if ( svalue.equals("NaN") ) {
+		// This introduces a performance hit - maybe need to add a boolean array for each time series
+		// to be able to check whether NaN is the missing - then can avoid the check.
+		return missing;
+	}
+	else {
+		// A numerical missing value like -999 will just get assigned.
+		return StringUtil.atod ( svalue );
+	}
+}
+
+/**
+Return the column of the data value for a time series, when the date and time are in a single column.
+@param its time series index (0+)
+@return the column of the data value for the time series (0 is the date)
+*/
+int getValueColumn ( int its ) {
+	int column = its + 1 + this.numExtraColumns;
+	for ( int ia = 0; ia < its; ia++ ) {
+		if ( hasDataFlag(ia) ) {
+			++column;
+		}
+	}
+	return column;
+}
+
+/**
+Return the number of warnings from parsing header properties.
+@return the number of warnings from parsing header properties
+*/
+int getWarningCount () {
+	return this.warningCount;
+}
+
+/**
+Indicate whether a time series has a data flag column.
+@param its time series index (0+)
+@return true if the time series has a data flag column
+*/
+boolean hasDataFlag ( int its ) {
+	return (this.tsHasDataFlag != null) && this.tsHasDataFlag[its];
+}
+
+/**
+Parse a data line.  The date/time is parsed and the columns can then be retrieved with getColumn().
+@param line data line
+@return the date/time for the line, set to the precision of the time series,
+or null if the line is blank, a comment, or is not in the expected format, in which case getError() returns the problem
+@exception Exception if the date/time cannot be parsed
+*/
+DateTime parseDataLine ( String line )
+throws Exception {
+	this.strings = null;
+	this.error = null;
+	// Remove whitespace at front and back.
+	line = line.trim();
+	if ( (line.length() == 0) || (line.charAt(0) == '#') ) {
+		// Skip comments and blank lines.
+		return null;
+	}
+	if ( !Character.isDigit(line.charAt(0)) ) {
+		// Not a data line.
+		this.error = "Expecting number at start: \"" + line + "\"";
+		return null;
+	}
+	// If hour, or minute data, expect data line to be YYYY-MM-DD HH:MM Value
+	// If there is a space between date and time, assume that the first two need to be concatenated.
+	List<String> strings;
+	if ( this.dataFlags ) {
+		// Expect to have data flags so parse WITH handling quoted strings.  This will generally be slower.
+		strings = StringUtil.breakStringList ( line, this.delimiter, this.delimParseFlag|StringUtil.DELIM_ALLOW_STRINGS );
+	}
+	else {
+		// No data flags so parse without handling quoted strings.  This will in general be faster.
+		strings = StringUtil.breakStringList ( line, this.delimiter, this.delimParseFlag );
+	}
+	int nstrings = 0;
+	if ( strings != null ) {
+		nstrings = strings.size();
+	}
+	String dateString;
+	if ( nstrings == this.numExpectedColumns ) {
+		// Assume that there is NO space between date and time or that time field is not used.
+		dateString = strings.get(0).trim();
+		this.dateColumnCount = 1;
+	}
+	else if ( this.useTime && (nstrings == (this.numExpectedColumns + 1)) ) {
+		// Assume that there IS a space between the date and
+		// time.  Concatenate together so that the DateTime.parse will work.
+		dateString = strings.get(0).trim() + " " + strings.get(1).trim();
+		this.dateColumnCount = 2;
+	}
+	else {
+		this.error = "Have " + nstrings + " fields using delimiter \"" + this.delimiter + "\" but expecting " +
+			this.numExpectedColumns + ": \"" + line;
+		return null;
+	}
+	// Allow all common date formats, even if not the right precision.
+	DateTime date = DateTime.parse ( dateString );
+	// The input line date may not have the proper resolution, so
+	// set to the precision of the time series defined in the header.
+	if ( this.intervalBase == TimeInterval.MINUTE ) {
+		date.setPrecision ( DateTime.PRECISION_MINUTE );
+	}
+	else if ( this.intervalBase == TimeInterval.HOUR ) {
+		date.setPrecision ( DateTime.PRECISION_HOUR );
+	}
+	else if ( this.intervalBase == TimeInterval.DAY ) {
+		date.setPrecision ( DateTime.PRECISION_DAY );
+	}
+	else if ( this.intervalBase == TimeInterval.MONTH ) {
+		date.setPrecision ( DateTime.PRECISION_MONTH );
+	}
+	else if ( this.intervalBase == TimeInterval.YEAR ) {
+		date.setPrecision ( DateTime.PRECISION_YEAR );
+	}
+	this.strings = strings;
+	return date;
+}
+
+/**
+Parse the DataFlags property, which indicates whether each time series has a data flag column.
+@param value property value
+*/
+private void parseDataFlags ( String value ) {
+	String routine = getClass().getSimpleName() + ".parseDataFlags";
+	this.dataFlags = true;
+	// The data flags indicator may or may not be surrounded by quotes.
+	List<String> dataflag_v = StringUtil.breakStringList ( value, this.delimiter, this.delimParseFlag|StringUtil.DELIM_ALLOW_STRINGS );
+	int size = 0;
+	if ( dataflag_v != null ) {
+		size = dataflag_v.size();
+	}
+	if ( size != this.numts ) {
+		Message.printWarning ( 2, routine, "Number of DataFlag values using delimiter \"" + this.delimiter +
+			"\" (" + size + ") is != NumTS (" + this.numts + "). Assuming no data flags.  Read errors may occur." );
+		++this.warningCount;
+	}
+	// Need a boolean for each time series to indicate whether data flags are used.
+	// The width of the data flags may follow but is not needed to parse the data.
+	this.tsHasDataFlag = new boolean[this.numts];
+	for ( int ia = 0; (ia < this.numts) && (ia < size); ia++ ) {
+		List<String> v = StringUtil.breakStringList ( dataflag_v.get(ia).trim(), ",", 0 );
+		// If the first value is "true", assume that the data flag is used.
+		this.tsHasDataFlag[ia] = (v != null) && (v.size() > 0) && v.get(0).trim().equalsIgnoreCase("true");
+	}
+}
+
+/**
+Parse a header line, handling the file version comment and the properties that control data lines.
+Other comments and properties are ignored.
+@param line header line, trimmed
+*/
+void parseHeaderLine ( String line ) {
+	if ( line.startsWith("#") ) {
+		parseVersion ( line );
+		return;
+	}
+	int equalPos = line.indexOf('=');
+	if ( equalPos <= 0 ) {
+		return;
+	}
+	parseProperty ( line.substring(0,equalPos).trim(), line.substring(equalPos + 1).trim() );
+}
+
+/**
+Parse a header property if it controls how data lines are parsed.
+@param variable property name
+@param value property value, trimmed
+@return true if the property is Delimiter, NumTS, DataFlags, IncludeCount or IncludeTotalTime, false otherwise
+*/
+boolean parseProperty ( String variable, String value ) {
+	String routine = getClass().getSimpleName() + ".parseProperty";
+	if ( variable.equalsIgnoreCase("DataFlags") ) {
+		parseDataFlags ( value );
+	}
+	else if ( variable.equalsIgnoreCase("Delimiter") ) {
+		// Have the delimiter.  This value is probably quoted so remove quotes.
+		String delimiterPrevious = this.delimiter;
+		this.delimiter = StringUtil.remove ( StringUtil.remove(value, "\""), "\'" );
+		if ( value.length() == 0 ) {
+			this.delimiter = DELIMITER_DEFAULT;
+		}
+		Message.printStatus ( 2, routine, "Delimiter is \"" + this.delimiter +
+			"\" for remaining properties and data columns (previously was \"" + delimiterPrevious + "\").");
+	}
+	else if ( variable.equalsIgnoreCase("IncludeCount") ) {
+		// Will have data column for the count.
+		this.includeCount = value.equalsIgnoreCase("true");
+	}
+	else if ( variable.equalsIgnoreCase("IncludeTotalTime") ) {
+		// Will have data column for the total time.
+		this.includeTotalTime = value.equalsIgnoreCase("true");
+	}
+	else if ( variable.equalsIgnoreCase("NumTS") ) {
+		this.numts = StringUtil.atoi ( value );
+	}
+	else {
+		return false;
+	}
+	return true;
+}
+
+/**
+Parse a comment line that may contain the file version, which indicates how properties and data are parsed.
+This property should be at the top because it impacts how other data are parsed.
+@param line comment line, trimmed
+*/
+void parseVersion ( String line ) {
+	String version = "# DateValueTS";
+	if ( line.regionMatches(0,version,0,version.length()) ) {
+		// Do not allow consecutive delimiters in header or data values.  For example:
+		//   1,,2 will return
+		//   2 values for version 1.3 and 3 values for version 1.4 (middle value is missing).
+		double versionDouble = StringUtil.atod ( StringUtil.getToken(line," ",StringUtil.DELIM_SKIP_BLANKS, 2) );
+		if ( (versionDouble > 0.0) && (versionDouble < 1.4) ) {
+			// Older settings.
+			this.delimParseFlag = StringUtil.DELIM_SKIP_BLANKS;
+		}
+		else {
+			// Default and new settings.
+			this.delimParseFlag = 0;
+		}
+	}
+}
+
+/**
+Set the interval base of the time series, which must be called after the header is parsed and
+before data lines are parsed.
+@param intervalBase interval base of the time series, used to set the precision of date/times
+*/
+void setIntervalBase ( int intervalBase ) {
+	this.intervalBase = intervalBase;
+	// Hour, minute and irregular time series may have the date and time in separate columns.
+	this.useTime = (intervalBase == TimeInterval.HOUR) || (intervalBase == TimeInterval.MINUTE) ||
+		(intervalBase == TimeInterval.IRREGULAR);
+	// Column 1 is the date, followed by extra columns at the front (record count and total time),
+	// and a column for each time series and each data flag.
+	this.numExtraColumns = 0;
+	if ( this.includeCount ) {
+		++this.numExtraColumns;
+	}
+	if ( this.includeTotalTime ) {
+		++this.numExtraColumns;
+	}
+	this.numExpectedColumns = getValueColumn ( this.numts );
+}
+
+}
@@ -28,12 +28,15 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 
+import RTi.Util.IO.CommandProfileInputStream;
+import RTi.Util.IO.CommandProfileOutputStream;
 import RTi.Util.IO.DataUnits;
 import RTi.Util.IO.DataUnitsConversion;
 import RTi.Util.IO.GzipToolkit;
@@ -42,6 +45,7 @@ import RTi.Util.IO.Prop;
 import RTi.Util.IO.PropList;
 import RTi.Util.IO.ZipToolkit;
 import RTi.Util.Message.Message;
+import RTi.Util.String.NumberFormatter;
 import RTi.Util.String.StringUtil;
 import RTi.Util.Time.DateTime;
 import RTi.Util.Time.TimeInterval;
@@ -113,6 +117,30 @@ public static boolean isDateValueFile ( String filename )
 	}
 }
 
+/**
+Open a reader for a DateValue file, which may be compressed as a single file in a .zip or .gz file.
+The bytes that are read, after decompressing, are added to the current command profile when the reader is closed.
+@param full_fname full path to the file
+@return reader for the file
+@exception IOException if the file cannot be opened
+*/
+private static BufferedReader openReader ( String full_fname )
+throws IOException
+{	InputStream is;
+	if ( full_fname.toUpperCase().endsWith(".ZIP") ) {
+		// Handle case where DateValue file is compressed (single file in .zip).
+		is = new ZipToolkit().openInputStreamForSingleFile(full_fname);
+	}
+	else if ( full_fname.toUpperCase().endsWith(".GZ") ) {
+		// Handle case where DateValue file is compressed (single file in .gz).
+		is = new GzipToolkit().openInputStream(full_fname);
+	}
+	else {
+		is = IOUtil.getInputStream ( full_fname );
+	}
+	return new BufferedReader ( new InputStreamReader( new CommandProfileInputStream(is) ) );
+}
+
 /**
 Parse a data string of the form "{dataflag1:"description",dataflag2:"description"}"
 @param value the DateValue property value to parse
@@ -320,16 +348,8 @@ throws Exception
     if ( !IOUtil.fileReadable(full_fname) ) {
         Message.printWarning( 2, "DateValueTS.readTimeSeries", "File is not readable: \"" + full_fname + "\"" );
     }
-	BufferedReader in = null;
-	if ( full_fname.toUpperCase().endsWith(".ZIP") ) {
-		// Handle case where DateValue file is compressed (single file in .zip).
-		ZipToolkit zt = new ZipToolkit();
-		in = zt.openBufferedReaderForSingleFile(full_fname,0);
-	}
-	else {
-		// The following will throw an exception that is appropriate (like no file found).
-	    in = new BufferedReader ( new InputStreamReader(IOUtil.getInputStream ( full_fname )) );
-	}
+	// The following will throw an exception that is appropriate (like no file found).
+	BufferedReader in = openReader ( full_fname );
     try {
     	// Call the fully-loaded method.
     	if ( is_file ) {
@@ -392,15 +412,7 @@ throws Exception
 	if ( !IOUtil.fileReadable(full_fname) ) {
 		Message.printWarning( 2, "DateValueTS.readTimeSeries", "File is not readable: \"" + filename + "\"" );
 	}
-	BufferedReader in = null;
-	if ( full_fname.toUpperCase().endsWith(".ZIP") ) {
-		// Handle case where DateValue file is compressed (single file in .zip).
-		ZipToolkit zt = new ZipToolkit();
-		in = zt.openBufferedReaderForSingleFile(full_fname,0);
-	}
-	else {
-		in = new BufferedReader ( new InputStreamReader(IOUtil.getInputStream ( full_fname )) );
-	}
+	BufferedReader in = openReader ( full_fname );
 	// Pass the file pointer and an empty time series,
 	// which will be used to locate the time series in the file.
 	// The following is somewhat ugly because if we are using an alias we
@@ -491,15 +503,7 @@ throws Exception
     if ( !IOUtil.fileReadable(full_fname) ) {
         Message.printWarning( 2, "DateValueTS.readTimeSeries", "File is not readable: \"" + fname + "\"" );
     }
-	BufferedReader in = null;
-	if ( full_fname.toUpperCase().endsWith(".ZIP") ) {
-		// Handle case where DateValue file is compressed (single file in .zip).
-		ZipToolkit zt = new ZipToolkit();
-		in = zt.openBufferedReaderForSingleFile(full_fname,0);
-	}
-	else {
-		in = new BufferedReader ( new InputStreamReader( IOUtil.getInputStream ( full_fname )) );
-	}
+	BufferedReader in = openReader ( full_fname );
     try {
     	ts = readTimeSeries ( req_ts, in, date1, date2, units, read_data );
     	ts.setInputName ( full_fname );
@@ -564,19 +568,7 @@ throws Exception, IOException, FileNotFoundException
     }
 	BufferedReader in = null;
 	try {
-		if ( full_fname.toUpperCase().endsWith(".ZIP") ) {
-			// Handle case where DateValue file is compressed (single file in .zip).
-			ZipToolkit zt = new ZipToolkit();
-			in = zt.openBufferedReaderForSingleFile(full_fname,0);
-		}
-		else if ( full_fname.toUpperCase().endsWith(".GZ") ) {
-			// Handle case where DateValue file is compressed (single file in .gz).
-			GzipToolkit zt = new GzipToolkit();
-			in = zt.openBufferedReaderForSingleFile(full_fname,0);
-		}
-		else {
-			in = new BufferedReader ( new InputStreamReader( IOUtil.getInputStream ( full_fname )) );
-		}
+		in = openReader ( full_fname );
     	tslist = readTimeSeriesList ( null, in, date1, date2, units, read_data);
     	TS ts;
     	int nts = 0;
@@ -614,17 +606,15 @@ All data are reset, except for the identifier, which is assumed to have been set
 @param read_data Indicates whether data should be read.
 @exception Exception if there is an error reading the time series.
 */
-private static List<TS> readTimeSeriesList ( TS req_ts, BufferedReader in, DateTime req_date1,
+static List<TS> readTimeSeriesList ( TS req_ts, BufferedReader in, DateTime req_date1,
 						DateTime req_date2,	String req_units, boolean read_data )
 throws Exception
 {	String date_str, message = null, string = "", value, variable;
 	String routine = DateValueTS.class.getSimpleName() + ".readTimeSeriesList";
 	int	dl = 10, dl2 = 30, numts = 1;
 	DateTime date1 = new DateTime(), date2 = new DateTime();
-	// Do not allow consecutive delimiters in header or data values.  For example:
-	//   1,,2 will return
-	//   2 values for version 1.3 and 3 values for version 1.4 (middle value is missing).
-	int delimParseFlag = 0;
+	// Parser for the header properties that control data lines, and for the data lines.
+	DateValueLineParser parser = new DateValueLineParser();
 
 	// Always read the header.  Optional is whether the data are read.
 
@@ -632,14 +622,10 @@ throws Exception
 	if ( Message.isDebugOn ) {
 		Message.printDebug ( dl, routine, "Processing header..." );
 	}
-	String delimiter_default = " ";
-	String alias = "", dataflag = "", datatype = "", delimiter = delimiter_default,
+	String alias = "", dataflag = "", datatype = "",
 		description = "", identifier = "", missing = "", seqnum = "",
 		units = "";
 	List<String> alias_v = null;
-	List<String> dataflag_v = null;
-	boolean	[] ts_has_data_flag = null;
-	int	[] ts_data_flag_length = null;
 	List<String> datatype_v = null;
 	List<String> description_v = null;
 	List<String> identifier_v = null;
@@ -648,8 +634,6 @@ throws Exception
 	List<List<TSDataFlagMetadata>> dataFlagMetadataList = null;
 	List<String> seqnum_v = null;
 	List<String> units_v = null;
-	boolean	include_count = false;
-	boolean	include_total_time = false;
 	int	size = 0;
 	int	equal_pos = 0;	// Position of first '=' in line.
 	int warning_count = 0;
@@ -672,21 +656,8 @@ throws Exception
 			continue;
 		}
 		else if ( string.charAt(0) == '#' ) {
-		    String version = "# DateValueTS";
-	        if ( string.regionMatches(0,version,0,version.length()) ) {
-	            // Have the file version so use to indicate how file is processed.
-	            // This property should be used at the top because it impacts how other data are parsed.
-	            double version_double =
-	                StringUtil.atod ( StringUtil.getToken(string," ",StringUtil.DELIM_SKIP_BLANKS, 2) );
-	            if ( (version_double > 0.0) && (version_double < 1.4) ) {
-	                // Older settings.
-	                delimParseFlag = StringUtil.DELIM_SKIP_BLANKS;
-	            }
-	            else {
-	                // Default and new settings.
-	                delimParseFlag = 0;
-	            }
-	        }
+		    // Check for the file version, which indicates how the file is processed.
+		    parser.parseVersion ( string );
 	        continue;
 		}
 
@@ -724,16 +695,20 @@ throws Exception
 		}
 
 		// Deal with the tokens.
-		if ( variable.equalsIgnoreCase("Alias") ) {
+		if ( parser.parseProperty ( variable, value ) ) {
+			// Delimiter, NumTS, DataFlags, IncludeCount or IncludeTotalTime, which control how data lines are parsed.
+			numts = parser.getNumTS();
+		}
+		else if ( variable.equalsIgnoreCase("Alias") ) {
 			// Have the alias.
 			alias = value;
-			alias_v = StringUtil.breakStringList ( value, delimiter, delimParseFlag | StringUtil.DELIM_ALLOW_STRINGS );
+			alias_v = StringUtil.breakStringList ( value, parser.getDelimiter(), parser.getDelimParseFlag() | StringUtil.DELIM_ALLOW_STRINGS );
 			size = 0;
 			if ( alias_v != null ) {
 				size = alias_v.size();
 			}
 			if ( size != numts ) {
-				Message.printWarning ( 3, routine, "Number of Alias values using delimiter \"" + delimiter +
+				Message.printWarning ( 3, routine, "Number of Alias values using delimiter \"" + parser.getDelimiter() +
 				        "\" (" + size +	") is != NumTS (" +	numts +	").  Read errors may occur." );
 				++warning_count;
 				for ( int ia = size; ia < numts; ia++ ) {
@@ -757,64 +732,17 @@ throws Exception
 				dataFlagMetadataList.set((iprop - 1), parseDataFlagDescriptions(value));
 			}
 		}
-		else if ( variable.equalsIgnoreCase("DataFlags") ) {
-			// Have the data flags indicator which may or may not be surrounded by quotes.
-			dataflag = value;
-			dataflag_v = StringUtil.breakStringList (
-			        dataflag, delimiter,delimParseFlag|StringUtil.DELIM_ALLOW_STRINGS );
-			size = 0;
-			if ( dataflag_v != null ) {
-				size = dataflag_v.size();
-			}
-			if ( size != numts ) {
-				Message.printWarning ( 2, routine, "Number of DataFlag values using delimiter \"" + delimiter +
-				        "\" (" + size +	") is != NumTS (" + numts + "). Assuming no data flags.  Read errors may occur." );
-				++warning_count;
-				for ( int ia = size; ia < numts; ia++ ) {
-					dataflag_v.add ( "false" );
-				}
-			}
-			// Now further process the data flag indicators.
-			// Need a boolean for each time series to indicate whether data flags are used and need a width for the data flags.
-			ts_has_data_flag = new boolean[numts];
-			ts_data_flag_length = new int[numts];
-			for ( int ia = 0; ia < numts; ia++ ) {
-				dataflag = dataflag_v.get(ia).trim();
-				List<String> v = StringUtil.breakStringList (	dataflag,",",0);
-				size = 0;
-				if ( v != null ) {
-					size = v.size();
-				}
-				if ( size == 0 ) {
-					// Assume no data flag.
-					ts_has_data_flag[ia] = false;
-					continue;
-				}
-				// If the first value is "true", assume that the data flag is used.
-				if ( v.get(0).trim().equalsIgnoreCase("true") ) {
-					ts_has_data_flag[ia] = true;
-				}
-				else {
-				    ts_has_data_flag[ia] = false;
-				}
-				// Now set the length.
-				ts_data_flag_length[ia] = 2; // Default.
-				if ( size > 1 ) {
-					ts_data_flag_length[ia] = StringUtil.atoi(((String)v.get(1)).trim());
-				}
-			}
-		}
 		else if ( variable.equalsIgnoreCase("DataType") ) {
 			// Have the data type.
 			datatype = value;
 			datatype_v = StringUtil.breakStringList (
-			        datatype, delimiter, delimParseFlag|StringUtil.DELIM_ALLOW_STRINGS );
+			        datatype, parser.getDelimiter(), parser.getDelimParseFlag()|StringUtil.DELIM_ALLOW_STRINGS );
 			size = 0;
 			if ( datatype_v != null ) {
 				size = datatype_v.size();
 			}
 			if ( size != numts ) {
-				Message.printWarning ( 2, routine, "Number of DataType values using delimiter \"" + delimiter +
+				Message.printWarning ( 2, routine, "Number of DataType values using delimiter \"" + parser.getDelimiter() +
 				        "\" (" + size + ") is != NumTS (" + numts + "). Assuming blank.  Read errors may occur." );
 				++warning_count;
 				for ( int ia = size; ia < numts; ia++ ) {
@@ -822,28 +750,17 @@ throws Exception
 				}
 			}
 		}
-		else if ( variable.equalsIgnoreCase("Delimiter") ) {
-			// Have the delimiter.  This value is probably quoted so remove quotes.
-		    String delimiter_previous = delimiter;
-		    delimiter = StringUtil.remove(value, "\"");
-		    delimiter = StringUtil.remove(delimiter, "\'");
-			if ( value.length() == 0 ) {
-			    delimiter = delimiter_default;
-			}
-			Message.printStatus( 2, routine, "Delimiter is \"" + delimiter +
-			        "\" for remaining properties and data columns (previously was \"" + delimiter_previous + "\").");
-		}
 		else if ( variable.equalsIgnoreCase("Description") ) {
 			// Have the description.  The description may contain "=" so get the second token manually.
 			description = value;
 			description_v = StringUtil.breakStringList (
-			        description, delimiter, delimParseFlag|StringUtil.DELIM_ALLOW_STRINGS );
+			        description, parser.getDelimiter(), parser.getDelimParseFlag()|StringUtil.DELIM_ALLOW_STRINGS );
 			size = 0;
 			if ( description_v != null ) {
 				size = description_v.size();
 			}
 			if ( size != numts ) {
-				Message.printWarning ( 2, routine, "Number of Description values using delimiter \"" + delimiter +
+				Message.printWarning ( 2, routine, "Number of Description values using delimiter \"" + parser.getDelimiter() +
 				        "\" (" + size +	") is != NumTS (" + numts + ").  Assuming blank.  Read errors may occur." );
 				++warning_count;
 				for ( int ia = size; ia < numts; ia++ ) {
@@ -855,35 +772,17 @@ throws Exception
 			// Have the ending date.  This may be reset below by the requested end date.
 			date2 = DateTime.parse ( value );
 		}
-		else if ( variable.equalsIgnoreCase("IncludeCount") ) {
-			// Will have data column for the count.
-			if ( value.equalsIgnoreCase("true") ) {
-				include_count = true;
-			}
-			else {
-			    include_count = false;
-			}
-		}
-		else if ( variable.equalsIgnoreCase("IncludeTotalTime") ) {
-			// Will have data column for the total time.
-			if ( value.equalsIgnoreCase("true") ) {
-				include_total_time = true;
-			}
-			else {
-			    include_total_time = false;
-			}
-		}
 		else if ( variable.equalsIgnoreCase("MissingVal") ) {
 			// Have the missing data value.
 			missing = value;
 			missing_v = StringUtil.breakStringList (
-				missing, delimiter,	delimParseFlag|StringUtil.DELIM_ALLOW_STRINGS );
+				missing, parser.getDelimiter(), parser.getDelimParseFlag()|StringUtil.DELIM_ALLOW_STRINGS );
 			size = 0;
 			if ( missing_v != null ) {
 				size = missing_v.size();
 			}
 			if ( size != numts ) {
-				Message.printWarning ( 2, routine, "Number of Missing values using delimiter \"" + delimiter +
+				Message.printWarning ( 2, routine, "Number of Missing values using delimiter \"" + parser.getDelimiter() +
 				        "\" (" + size + ") is != NumTS (" + numts + ").  Assuming -999.  Read errors may occur." );
 				++warning_count;
 				for ( int ia = size; ia < numts; ia++ ) {
@@ -891,10 +790,6 @@ throws Exception
 				}
 			}
 		}
-		else if ( variable.equalsIgnoreCase("NumTS") ) {
-			// Have the number of time series.
-			numts = StringUtil.atoi(value);
-		}
 		else if ( variable.toUpperCase().startsWith("PROPERTIES_") ) {
 			// Found a properties string of the form Properties_NN = { ... }
 			if ( propertiesList == null ) {
@@ -915,7 +810,7 @@ throws Exception
 			// Have sequence numbers.
 			seqnum = value;
 			seqnum_v = StringUtil.breakStringList (
-				seqnum, delimiter, delimParseFlag|StringUtil.DELIM_ALLOW_STRINGS );
+				seqnum, parser.getDelimiter(), parser.getDelimParseFlag()|StringUtil.DELIM_ALLOW_STRINGS );
 			size = 0;
 			if ( seqnum_v != null ) {
 				size = seqnum_v.size();
@@ -927,7 +822,7 @@ throws Exception
 				}
 			}
 			if ( size != numts ) {
-				Message.printWarning ( 2, routine, "Number of SequenceID (or SequenceNum) values using delimiter \"" + delimiter +
+				Message.printWarning ( 2, routine, "Number of SequenceID (or SequenceNum) values using delimiter \"" + parser.getDelimiter() +
 				        "\" (" + size + ") is != NumTS (" + numts + ").  Assuming -1.  Read errors may occur." );
 				++warning_count;
 				for ( int ia = size; ia < numts; ia++ ) {
@@ -943,13 +838,13 @@ throws Exception
 			// Have the TSIdent.
 			identifier = value;
 			identifier_v = StringUtil.breakStringList (
-				identifier, delimiter, delimParseFlag|StringUtil.DELIM_ALLOW_STRINGS );
+				identifier, parser.getDelimiter(), parser.getDelimParseFlag()|StringUtil.DELIM_ALLOW_STRINGS );
 			size = 0;
 			if ( identifier_v != null ) {
 				 size = identifier_v.size();
 			}
 			if ( size != numts ) {
-				Message.printWarning ( 2, routine, "Number of TSID values using delimiter \"" + delimiter +
+				Message.printWarning ( 2, routine, "Number of TSID values using delimiter \"" + parser.getDelimiter() +
 				        "\" (" + size + ") is != NumTS (" + numts + "). Assuming blank.  Read errors may occur." );
 				++warning_count;
 				for ( int ia = size; ia < numts; ia++ ) {
@@ -961,12 +856,12 @@ throws Exception
 			// Have the data units.
 			units = value;
 			units_v = StringUtil.breakStringList (
-				units, delimiter, delimParseFlag|StringUtil.DELIM_ALLOW_STRINGS );
+				units, parser.getDelimiter(), parser.getDelimParseFlag()|StringUtil.DELIM_ALLOW_STRINGS );
 			if ( units_v != null ) {
 				size = units_v.size();
 			}
 			if ( size != numts ) {
-				Message.printWarning ( 2, routine, "Number of Units values using delimiter \"" + delimiter +
+				Message.printWarning ( 2, routine, "Number of Units values using delimiter \"" + parser.getDelimiter() +
 				        "\" (" + size + ") is != NumTS (" + numts + "). Assuming blank. Read errors may occur." );
 				++warning_count;
 				for ( int ia = size; ia < numts; ia++ ) {
@@ -985,6 +880,7 @@ throws Exception
 		Message.printWarning ( 3, routine, e );
 		throw new Exception ( message );
 	}
+	warning_count += parser.getWarningCount();
 	if ( warning_count > 0 ) {
 	    // Print a warning and throw an exception about the header not being properly
 	    message = "" + warning_count + " errors existing in file header.  Not reading data.";
@@ -995,15 +891,6 @@ throws Exception
 	// Reset for below.
 	warning_count = 0;
 
-	// Make sure the data flag boolean array is allocated.  This simplifies the logic below.
-
-	if ( ts_has_data_flag == null ) {
-		ts_has_data_flag = new boolean[numts];
-		for ( int i = 0; i < numts; i++ ) {
-			ts_has_data_flag[i] = false;
-		}
-	}
-
 	// Check required data lists and assign defaults if necessary.
 
 	if ( identifier_v == null ) {
@@ -1109,22 +996,8 @@ throws Exception
 		// It may be overwritten below if the DataType property is specified.
 		ts.setDataType ( ident.getType() );
 		// Reset the column to account for the date.
-		req_ts_column = req_ts_i + 1;	// 1 is date.
-		if ( include_count ) {
-			++req_ts_column;
-		}
-		if ( include_total_time ) {
-			++req_ts_column;
-		}
-		if ( dataflag_v != null ) {
-			// At least one of the time series in the file uses data flags so adjust the column for
-			// time series that may be before the requested time series.
-			for ( int ia = 0; ia < req_ts_i; ia++ ) {
-				if ( ts_has_data_flag[ia] ) {
-					++req_ts_column;
-				}
-			}
-		}
+		// This accounts for extra columns and data flags for time series before the requested time series.
+		req_ts_column = parser.getValueColumn ( req_ts_i );
 		if ( Message.isDebugOn ) {
 			Message.printDebug ( 1, routine, "Time series \"" + req_ts.getIdentifierString() +
 			"\" will be read from data column " + req_ts_column + " (date column = 0)" );
@@ -1229,7 +1102,7 @@ throws Exception
 				seqnum = seqnum_v.get(i).trim();
 				ts.setSequenceID ( seqnum );
 			}
-			if ( ts_has_data_flag[i] ) {
+			if ( parser.hasDataFlag(i) ) {
 				// Data flags are being used.
 				ts.hasDataFlags ( true, true );
 			}
@@ -1313,44 +1186,18 @@ throws Exception
 	}
 
 	DateTime date;
-	List<String> strings;
 	double dvalue;	// Double data value.
 	String svalue;	// String data value.
 	boolean first = true;
 	int nstrings = 0;
-	boolean use_time = false;
-	if ( (data_interval_base == TimeInterval.HOUR) || (data_interval_base == TimeInterval.MINUTE) ||
-		(data_interval_base == TimeInterval.IRREGULAR) ) {
-		if ( Message.isDebugOn ) {
-			Message.printDebug ( dl, routine, "Expect time to be given with dates - may be separate column." );
-		}
-		use_time = true;
-	}
-	// Compute the number of expected columns.
-	// Number of expected columns.
-	// Given the number of time series, extra columns at the front, data flag columns,
-	// and a column for times.
-	// Column 1 is the date.
-	int num_expected_columns = numts + 1;
-	// Number of extra columns at the front of the data (record count and total time).
-	int num_extra_columns = 0;
-	if ( include_count ) {  // Record count.
-		++num_expected_columns;
-		++num_extra_columns;
-	}
-	if ( include_total_time ) {  // Total time.
-		++num_expected_columns;
-		++num_extra_columns;
-	}
-	// Adjust the number of expected columns if data flags are included.
-	int its = 0, i = 0;
-	for ( its = 0; its < numts; its++ ) {
-		if ( ts_has_data_flag[its] ) {
-			++num_expected_columns;
-		}
+	if ( Message.isDebugOn && ((data_interval_base == TimeInterval.HOUR) ||
+		(data_interval_base == TimeInterval.MINUTE) || (data_interval_base == TimeInterval.IRREGULAR)) ) {
+		Message.printDebug ( dl, routine, "Expect time to be given with dates - may be separate column." );
 	}
-	int first_data_column = 0;
-	int num_expected_columns_p1 = num_expected_columns + 1;
+	// Compute the number of expected columns, given the number of time series, extra columns at the front,
+	// data flag columns, and a column for times.
+	parser.setIntervalBase ( data_interval_base );
+	int its = 0, i = 0;
 	// Read lines until the end of the file.
 	while ( true ) {
 		try {
@@ -1376,88 +1223,25 @@ throws Exception
 				break;
 			}
 		}
-		// Remove whitespace at front and back.
-		string = string.trim();
 		if ( Message.isDebugOn ) {
-			Message.printDebug ( dl2, routine, "Processing: \"" + string + "\"" );
-		}
-		if ( (string.length() == 0) || ((string.length() > 0) && (string.charAt(0) == '#')) ) {
-			// Skip comments and blank lines for now.
-			continue;
-		}
-		if ( !Character.isDigit(string.charAt(0)) ) {
-			// Not a data line.
-			Message.printWarning ( 2, routine,
-			"Error in data format for line " + line_count + ". Expecting number at start: \"" + string + "\"" );
-			++warning_count;
-			continue;
-		}
-		// Now parse the string.
-		// If hour, or minute data, expect data line to be YYYY-MM-DD HH:MM Value
-		// If there is a space between date and time, assume that the first two need to be concatenated.
-		string = string.trim();
-		if ( dataflag_v == null ) {
-			// No data flags so parse without handling quoted strings.  This will in general be faster.
-			strings = StringUtil.breakStringList ( string, delimiter, delimParseFlag );
-		}
-		else {
-		    // Expect to have data flags so parse WITH handling quoted strings.  This will generally be slower.
-			strings = StringUtil.breakStringList ( string,
-			delimiter, delimParseFlag|StringUtil.DELIM_ALLOW_STRINGS );
-		}
-		nstrings = 0;
-		if ( strings != null ) {
-			nstrings = strings.size();
-		}
-		if ( nstrings == num_expected_columns ) {
-			// Assume that there is NO space between date and time or that time field is not used.
-			date_str = ((String)strings.get(0)).trim();	
-			// Date + extra columns.
-			first_data_column = 1 + num_extra_columns;
-			req_ts_column2 = req_ts_column;
-		}
-		else if ( use_time && (nstrings == num_expected_columns_p1) ) {
-			// Assume that there IS a space between the date and
-			// time.  Concatenate together so that the DateTime.parse will work.
-			date_str = ((String)strings.get(0)).trim() + " " + ((String)strings.get(1)).trim();	
-			// Date + time + extra column.
-			first_data_column = 2 + num_extra_columns;
-			// Adjusted requested time series column.
-			req_ts_column2 = req_ts_column + 1;
-		}
-		else {
-		    Message.printWarning ( 2, routine, "Error in data format for line " + line_count + ". Have " +
-		            nstrings + " fields using delimiter \"" + delimiter + "\" but expecting " +
-		            num_expected_columns + ": \"" + string );
-		    ++warning_count;
-			//Message.printStatus ( 1, routine, "use_time=" + use_time + " num_expected_columns_p1=" +
-			//num_expected_columns_p1 );
-			// Ignore the line.
-			strings = null;
+			Message.printDebug ( dl2, routine, "Processing: \"" + string.trim() + "\"" );
+		}
+		// Parse the line, skipping comments and blank lines, and set the date to the precision of the
+		// time series defined in the header.
+		date = parser.parseDataLine ( string );
+		if ( date == null ) {
+			if ( parser.getError() != null ) {
+				Message.printWarning ( 2, routine,
+				"Error in data format for line " + line_count + ". " + parser.getError() );
+				++warning_count;
+			}
 			continue;
 		}
-		// Allow all common date formats, even if not the right precision.
-		date = DateTime.parse(date_str);
-		// The input line date may not have the proper resolution, so
-		// set to the precision of the time series defined in the header.
-		if ( data_interval_base == TimeInterval.MINUTE ) {
-			date.setPrecision ( DateTime.PRECISION_MINUTE );
-		}
-		else if ( data_interval_base == TimeInterval.HOUR ) {
-			date.setPrecision ( DateTime.PRECISION_HOUR );
-		}
-		else if ( data_interval_base == TimeInterval.DAY ) {
-			date.setPrecision ( DateTime.PRECISION_DAY );
-		}
-		else if ( data_interval_base == TimeInterval.MONTH ) {
-			date.setPrecision ( DateTime.PRECISION_MONTH );
-		}
-		else if ( data_interval_base == TimeInterval.YEAR ) {
-			date.setPrecision ( DateTime.PRECISION_YEAR );
-		}
+		nstrings = parser.getColumnCount();
+		// Adjust the requested time series column if the date and time are separate columns.
+		req_ts_column2 = req_ts_column + parser.getDateColumnCount() - 1;
 		if ( date.lessThan(date1) ) {
 			// No data of interest yet.
-			strings = null;
 			if ( Message.isDebugOn ) {
 				Message.printDebug ( 1, routine, "Ignoring data - before start date" );
 			}
@@ -1465,7 +1249,6 @@ throws Exception
 		}
 		else if ( date.greaterThan(date2) ) {
 			// No need to keep reading.
-			strings = null;
 			if ( Message.isDebugOn ) {
 				Message.printDebug ( 1, routine, "Stop reading data - after start date" );
 			}
@@ -1476,21 +1259,17 @@ throws Exception
 
 		if ( req_ts != null ) {
 			// Just have to process one column.
-			svalue = ((String)strings.get(req_ts_column2)).trim();
-			// This introduces a performance hit - maybe need to add a boolean array for each time series
-			// to be able to check whether NaN is the missing - then can avoid the check.
-			// For now just check the string.
-			if ( svalue.equals("NaN") || (svalue == null) || (svalue.length() == 0)) {
+			svalue = parser.getColumn(req_ts_column2);
+			if ( svalue.length() == 0 ) {
 			    // Treat the data value as missing.
 				dvalue = ts_array[0].getMissing();
 			}
 			else {
-			    // A numerical missing value like -999 will just get assigned.
-			    dvalue = StringUtil.atod ( svalue );
+			    dvalue = parser.getValue ( req_ts_column2, ts_array[0].getMissing() );
 			}
-			if ( ts_has_data_flag[req_ts_i] ) {
+			if ( parser.hasDataFlag(req_ts_i) ) {
 				// Has a data flag.
-				dataflag = ((String)strings.get( req_ts_column2 + 1)).trim();
+				dataflag = parser.getColumn( req_ts_column2 + 1);
 				ts_array[0].setDataValue ( date, dvalue, dataflag, 1 );
 				if ( Message.isDebugOn ) {
 					Message.printDebug ( dl2, routine, "For date " + date.toString() +
@@ -1506,24 +1285,13 @@ throws Exception
 		}
 		else {
 		    // Loop through all the columns.
-			for ( i = first_data_column, its = 0; i < nstrings; i++, its++ ) {
+			for ( i = parser.getFirstDataColumn(), its = 0; i < nstrings; i++, its++ ) {
 				// Set the data value in the requested time series.  If a requested time series is
 				// being used, the array will only contain one time series, which is the requested time
 				// series (SAMX 2002-09-05 so why the code above???).
-				//
-				// This introduces a performance hit - maybe need to add a boolean array for each time
-				// series to be able to check whether NaN is the missing - then can avoid the check.  For
-				// now just check the string.
-				svalue = ((String)strings.get(i)).trim();
-				if ( svalue.equals("NaN") ) {
-					dvalue = ts_array[its].getMissing();
-				}
-				else {
-				    dvalue = StringUtil.atod ( svalue );
-				}
-				if ( ts_has_data_flag[its] ) {
-					dataflag = ((String)
-					strings.get(++i)).trim();
+				dvalue = parser.getValue ( i, ts_array[its].getMissing() );
+				if ( parser.hasDataFlag(its) ) {
+					dataflag = parser.getColumn(++i);
 					ts_array[its].setDataValue ( date, dvalue, dataflag, 1 );
 					if ( Message.isDebugOn ) {
 						Message.printDebug ( dl2, routine, "For date " + date.toString() +
@@ -1539,10 +1307,6 @@ throws Exception
 				}
 			}
 		}
-
-		// Clean up memory.
-
-		strings = null;
 		}
 		catch ( Exception e ) {
 			Message.printWarning ( 2, routine, "Unexpected error processing line " + line_count + ": \"" +
@@ -1890,6 +1654,11 @@ throws Exception
     		// Use the default precision or what was specified with a passed-in property.
     		outputFormatList.add ("%." + precision + "f");
     	}
+    }
+    // Formatters for the output formats, to avoid parsing the format for each value.
+    NumberFormatter [] outputFormatters = new NumberFormatter[outputFormatList.size()];
+    for ( int i = 0; i < outputFormatters.length; i++ ) {
+    	outputFormatters[i] = NumberFormatter.getInstance ( outputFormatList.get(i) );
     }
 	String nodataString = "?";
 	StringBuffer aliasBuffer = new StringBuffer();
@@ -2207,7 +1976,7 @@ throws Exception
 	String string_value;
 
 	// Need to add iterator at some point - could use this to test performance.
-	StringBuffer buffer = new StringBuffer();
+	StringBuilder buffer = new StringBuilder();
 	TSData datapoint = new TSData(); // Data point associated with a date - used to get flags.
 	String dataflag; // Data flag associated with a data point.
 	if ( dataIntervalBase == TimeInterval.IRREGULAR ) {
@@ -2227,7 +1996,7 @@ throws Exception
     		int dataSize = alldata.size();
     		TSData tsdata = null;
     		DateTime date;
-    		buffer = new StringBuffer();
+    		buffer = new StringBuilder();
     		for ( int i = 0; i < dataSize; i++ ) {
     		    buffer.setLength(0);
     			tsdata = alldata.get(i);
@@ -2253,13 +2022,13 @@ throws Exception
         					string_value = "NaN";
         				}
         				else {
-        				    string_value = StringUtil.formatString( tsdata.getDataValue(), outputFormatList.get(0) );
+        				    string_value = outputFormatters[0].format( tsdata.getDataValue() );
         				}
     		        }
     			}
     			else {
     			    // Convert the units.
-    				string_value = StringUtil.formatString( (tsdata.getDataValue()*mult[0] + add[0]), outputFormatList.get(0) );
+    				string_value = outputFormatters[0].format( (tsdata.getDataValue()*mult[0] + add[0]) );
     			}
     			// Use the precision of the dates in the data - ISO formats will be used by default.
     			buffer.append ( date.toString() );
@@ -2414,13 +2183,13 @@ throws Exception
 	                            }
 	                            else {
 	                                // Format the missing value number.
-	                                string_value = StringUtil.formatString( value, outputFormatList.get(its));
+	                                string_value = outputFormatters[its].format( value );
 	                            }
 	                        }
 	                    }
 	                    else {
 	                        // Format the data value.
-	                        string_value = StringUtil.formatString( (value*mult[its] + add[its]),outputFormatList.get(its) );
+	                        string_value = outputFormatters[its].format( (value*mult[its] + add[its]) );
 	                    }
 	                    if ( its == 0 ) {
 	                        buffer.append ( string_value );
@@ -2470,30 +2239,27 @@ throws Exception
 				if ( ts != null ) {
 					value = ts.getDataValue(t);
 				}
+				if ( its > 0 ) {
+				    buffer.append ( delim );
+				}
 				if ( (ts == null) || ts.isDataMissing(value) ) {
 		            if ( missingValueString != null ) {
 		                // Property has specified the missing value to use.
-		                string_value = missingValueString;
+		                buffer.append ( missingValueString );
 		            }
 		            else {
     					if ( Double.isNaN(value) ) {
-    						string_value = "NaN";
+    						buffer.append ( "NaN" );
     					}
     					else {
     					    // Format the missing value number.
-    					    string_value = StringUtil.formatString( value, outputFormatList.get(its));
+    					    outputFormatters[its].append ( buffer, value );
     					}
 		            }
 				}
 				else {
-				    // Format the data value.
-				    string_value = StringUtil.formatString(	(value*mult[its] + add[its]),outputFormatList.get(its) );
-				}
-				if ( its == 0 ) {
-					buffer.append ( string_value );
-				}
-				else {
-				    buffer.append ( delim + string_value );
+				    // Format the data value directly into the output buffer.
+				    outputFormatters[its].append ( buffer, (value*mult[its] + add[its]) );
 				}
 				// Write the data flag.
 				if ( ts.hasDataFlags() && writeDataFlags ) {
@@ -2639,10 +2405,12 @@ throws Exception
 	String full_fname = IOUtil.getPathUsingWorkingDir(fname);
 	PrintWriter fout = null;
 	try {
-	    FileOutputStream fos = new FileOutputStream ( full_fname );
-		fout = new PrintWriter ( fos );
+		// Count the bytes for the command profile when the writer is closed.
+		fout = new PrintWriter ( new CommandProfileOutputStream(new FileOutputStream ( full_fname )) );
 
 		writeTimeSeriesList ( tslist, fout, date1, date2, units, writeData, props );
+		fout.close();
+		fout = null;
 	}
 	catch ( UnequalTimeIntervalException e ) {
 	    // Just rethrow because message will be specific.
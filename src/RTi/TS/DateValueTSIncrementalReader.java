@@ -0,0 +1,254 @@
+// DateValueTSIncrementalReader - read values that are appended to a DateValue file into existing time series
+
+
+/* NoticeStart
+
+CDSS Common Java Library
+CDSS Common Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2025 Colorado Department of Natural Resources
+
+CDSS Common Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+CDSS Common Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with CDSS Common Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package RTi.TS;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import RTi.Util.IO.IncrementalFileReader;
+import RTi.Util.Message.Message;
+import RTi.Util.Time.DateTime;
+
+/**
+Read time series from a DateValue file and then add values from data lines that are appended to the file,
+without reading the full file.  This is useful for real-time data feeds that append lines to a DateValue file
+every few minutes.
+The header is read with DateValueTS and the header properties that control the data lines
+(Delimiter, NumTS, DataFlags, IncludeCount and IncludeTotalTime) are retained to parse appended data lines.
+Data lines after the End date in the header are included, and the period of the time series is extended
+as data lines are appended, so the same time series objects can be used for each refresh.
+If the file is truncated or replaced, for example if the header is rewritten, the file is read again
+and new time series are created.
+*/
+public class DateValueTSIncrementalReader extends IncrementalFileReader
+{
+
+/**
+Data from a data line.
+*/
+private static class DataLine
+{
+	private final DateTime date;
+	private final double [] values;
+	private final String [] flags;
+
+	private DataLine ( DateTime date, int numts ) {
+		this.date = date;
+		this.values = new double[numts];
+		this.flags = new String[numts];
+	}
+}
+
+/**
+Time series that were read.
+*/
+private List<TS> tslist = Collections.emptyList();
+
+/**
+Parser for the header properties that control how data lines are parsed, and for the data lines.
+*/
+private DateValueLineParser parser = new DateValueLineParser();
+
+/**
+Number of data lines that could not be parsed, since the file was last read.
+*/
+private int errorCount = 0;
+
+/**
+Construct the reader.  The file is read when refresh() is first called.
+@param filename name of the file to read, IOUtil.getPathUsingWorkingDir() is applied
+*/
+public DateValueTSIncrementalReader ( String filename ) {
+	super ( filename );
+}
+
+/**
+Add values from appended data lines to the time series.
+*/
+@Override
+protected boolean append ( List<String> lines )
+throws Exception {
+	setData ( lines );
+	return true;
+}
+
+/**
+Return the number of data lines that could not be parsed since the file was last read.
+@return the number of data lines that could not be parsed
+*/
+public synchronized int getErrorCount () {
+	return this.errorCount;
+}
+
+/**
+Return the time series, which are the same objects after appending and are replaced when the file is read again.
+The reader should be used for synchronization if the time series are accessed while following the file.
+@return the time series, guaranteed to be non-null
+*/
+public synchronized List<TS> getTimeSeriesList () {
+	return this.tslist;
+}
+
+/**
+Parse a data line, consistent with DateValueTS.
+@param line data line
+@return the parsed data, or null if the line is not a data line
+*/
+private DataLine parseDataLine ( String line ) {
+	String routine = getClass().getSimpleName() + ".parseDataLine";
+	if ( line.trim().regionMatches(true,0,"date",0,4) ) {
+		// Column heading.
+		return null;
+	}
+	DateTime date;
+	try {
+		date = this.parser.parseDataLine ( line );
+	}
+	catch ( Exception e ) {
+		Message.printWarning ( 3, routine, "Error parsing date/time from: \"" + line.trim() + "\"" );
+		++this.errorCount;
+		return null;
+	}
+	if ( date == null ) {
+		if ( this.parser.getError() != null ) {
+			Message.printWarning ( 3, routine, "Error in data format.  " + this.parser.getError() );
+			++this.errorCount;
+		}
+		return null;
+	}
+	int numts = this.tslist.size();
+	int nstrings = this.parser.getColumnCount();
+	DataLine dataLine = new DataLine ( date, numts );
+	for ( int i = this.parser.getFirstDataColumn(), its = 0; (i < nstrings) && (its < numts); i++, its++ ) {
+		dataLine.values[its] = this.parser.getValue ( i, this.tslist.get(its).getMissing() );
+		if ( this.parser.hasDataFlag(its) ) {
+			dataLine.flags[its] = this.parser.getColumn(++i);
+		}
+	}
+	return dataLine;
+}
+
+/**
+Read all complete lines in the file.
+*/
+@Override
+protected void reload ( BufferedReader in )
+throws Exception {
+	this.tslist = Collections.emptyList();
+	this.parser = new DateValueLineParser();
+	this.errorCount = 0;
+	// Read the header, which ends with the first line that is not a comment and does not contain "=".
+	StringBuilder header = new StringBuilder();
+	String line;
+	String firstDataLine = null;
+	while ( (line = in.readLine()) != null ) {
+		String trimmed = line.trim();
+		if ( !trimmed.isEmpty() && (trimmed.charAt(0) != '#') && (trimmed.indexOf('=') < 0) ) {
+			firstDataLine = line;
+			break;
+		}
+		header.append ( line );
+		header.append ( "\n" );
+		this.parser.parseHeaderLine ( trimmed );
+	}
+	List<TS> tslist = DateValueTS.readTimeSeriesList ( null, new BufferedReader(new StringReader(header.toString())),
+		null, null, null, false );
+	if ( (tslist == null) || (tslist.size() != this.parser.getNumTS()) ) {
+		throw new Exception ( "Unable to read time series header from \"" + getFilename() + "\"" );
+	}
+	this.parser.setIntervalBase ( tslist.get(0).getDataIntervalBase() );
+	for ( TS ts : tslist ) {
+		ts.setInputName ( getFilename() );
+		ts.getIdentifier().setInputName ( getFilename() );
+		ts.addToGenesis ( "Read time series from \"" + getFilename() + "\"" );
+		ts.allocateDataSpace();
+	}
+	this.tslist = tslist;
+	// Read the data lines.
+	List<String> lines = new ArrayList<>();
+	if ( firstDataLine != null ) {
+		lines.add ( firstDataLine );
+	}
+	while ( (line = in.readLine()) != null ) {
+		lines.add ( line );
+		if ( lines.size() == 4096 ) {
+			setData ( lines );
+			lines.clear();
+		}
+	}
+	setData ( lines );
+}
+
+/**
+Set the data from data lines in the time series, extending the period if necessary.
+Lines before the start of the time series are ignored, consistent with DateValueTS.
+@param lines data lines
+*/
+private void setData ( List<String> lines )
+throws Exception {
+	if ( this.tslist.isEmpty() ) {
+		return;
+	}
+	List<DataLine> dataLines = new ArrayList<>(lines.size());
+	DateTime maxDate = null;
+	for ( String line : lines ) {
+		DataLine dataLine = parseDataLine ( line );
+		if ( dataLine != null ) {
+			dataLines.add ( dataLine );
+			if ( (maxDate == null) || dataLine.date.greaterThan(maxDate) ) {
+				maxDate = dataLine.date;
+			}
+		}
+	}
+	if ( dataLines.isEmpty() ) {
+		return;
+	}
+	TS ts0 = this.tslist.get(0);
+	if ( maxDate.greaterThan(ts0.getDate2()) ) {
+		// Extend the period once for all of the lines.
+		for ( TS ts : this.tslist ) {
+			ts.changePeriodOfRecord ( ts.getDate1(), maxDate );
+		}
+	}
+	DateTime date1 = ts0.getDate1();
+	for ( DataLine dataLine : dataLines ) {
+		if ( dataLine.date.lessThan(date1) ) {
+			continue;
+		}
+		for ( int its = 0; its < this.tslist.size(); its++ ) {
+			if ( this.parser.hasDataFlag(its) ) {
+				this.tslist.get(its).setDataValue ( dataLine.date, dataLine.values[its], dataLine.flags[its], 1 );
+			}
+			else {
+				this.tslist.get(its).setDataValue ( dataLine.date, dataLine.values[its] );
+			}
+		}
+	}
+}
+
+}
@@ -72,6 +72,7 @@ import RTi.Util.IO.IOUtil;
 import RTi.Util.IO.PropList;
 import RTi.Util.Math.MathUtil;
 import RTi.Util.Message.Message;
+import RTi.Util.String.NumberFormatter;
 import RTi.Util.String.StringUtil;
 import RTi.Util.Time.DateTime;
 import RTi.Util.Time.TimeInterval;
@@ -1009,6 +1010,8 @@ throws TSException {
 		double data_value;
 		DateTime date = new DateTime(start_date,DateTime.DATE_FAST);
 		StringBuffer buffer = null;
+		// Formatter for data values, parsed once for all values.
+		NumberFormatter dataFormatter = NumberFormatter.getInstance ( " " + data_format );
 		// Have adjusted the dates above, so always start in column 0 (first day of first month in year).
 		column = 0;
 		row = 0;
@@ -1115,7 +1118,7 @@ throws TSException {
 							buffer.append ( "    NC    " );
 						}
 						else {
-							buffer.append (StringUtil.formatString(data[irow][icolumn], " " + data_format) );
+							buffer.append ( dataFormatter.format(data[irow][icolumn]) );
 						}
 						if ( icolumn == 11 ) {
 							// Have processed the last month in the year print the row.
@@ -1796,4 +1799,46 @@ public int setDataValue ( DateTime date, double value, String data_flag, int dur
 	return 1;
 }
 
+/**
+Return the data values for the period as an array, in date order.
+The data space is copied directly rather than calling getDataValue() for each date.
+@return the data values for the period, including missing values
+*/
+public double [] getDataValues () {
+	if ( (_data == null) || (_date1 == null) || (_date2 == null) ) {
+		return new double[0];
+	}
+	// Months are rows and days are columns.
+	int lastRow = _date2.getAbsoluteMonth() - _date1.getAbsoluteMonth();
+	if ( lastRow >= _data.length ) {
+		return getDataValuesByDate ();
+	}
+	return getDataValues ( _data, lastRow, (_date1.getDay() - 1), (_date2.getDay() - 1) );
+}
+
+/**
+Transform the non-missing data values in the period, setting each value to add + value*mult.
+The data space is processed directly rather than calling setDataValue() for each date.
+@param mult multiplication factor
+@param add addition factor
+*/
+public void transformDataValues ( double mult, double add ) {
+	if ( (_data == null) || (_date1 == null) || (_date2 == null) ) {
+		return;
+	}
+	// Months are rows and days are columns.
+	int lastRow = Math.min ( _date2.getAbsoluteMonth() - _date1.getAbsoluteMonth(), _data.length - 1 );
+	for ( int row = 0; row <= lastRow; row++ ) {
+		int first = 0;
+		int last = _data[row].length - 1;
+		if ( row == 0 ) {
+			first = _date1.getDay() - 1;
+		}
+		if ( row == (_date2.getAbsoluteMonth() - _date1.getAbsoluteMonth()) ) {
+			last = Math.min ( last, _date2.getDay() - 1 );
+		}
+		transformDataValues ( _data[row], first, last, mult, add );
+	}
+}
+
 }
\ No newline at end of file
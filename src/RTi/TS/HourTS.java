@@ -71,6 +71,7 @@ import RTi.Util.IO.IOUtil;
 import RTi.Util.IO.PropList;
 import RTi.Util.Math.MathUtil;
 import RTi.Util.Message.Message;
+import RTi.Util.String.NumberFormatter;
 import RTi.Util.String.StringUtil;
 import RTi.Util.Time.DateTime;
 import RTi.Util.Time.TimeInterval;
@@ -99,7 +100,7 @@ private	double[][] _data;
 /**
 Data flags for each hourly value.  The dimensions are [month][value_in_month]
 */
-private String [][] _dataFlags;
+protected String [][] _dataFlags;
 
 // TODO SAM 2012-05-03 After initial addition, this feature is not currently needed.
 // Enable later if needed but don't have time to test impacts on performance and memory now.
@@ -1155,6 +1156,8 @@ private void formatOutput24Hour ( List<String> strings, PropList props, YearType
 	double dataValue;
 	DateTime date = new DateTime(startDate,DateTime.DATE_FAST);
 	StringBuffer buffer = new StringBuffer();	// Allocate up front and then reuse.
+	// Formatter for data values, parsed once for all values.
+	NumberFormatter dataFormatter = NumberFormatter.getInstance ( " " + dataFormat );
 	// Have adjusted the dates above, so always start in column 0 (first day of first month in year).
 	column = 0;
 	row = 0;
@@ -1260,7 +1263,7 @@ private void formatOutput24Hour ( List<String> strings, PropList props, YearType
 						buffer.append ( "    NC    " );
 					}
 					else {
-					    buffer.append (	StringUtil.formatString(data[irow][icolumn], " " + dataFormat) );
+					    buffer.append ( dataFormatter.format(data[irow][icolumn]) );
 					}
 					if ( icolumn == 11 ) {
 						// Have processed the last month in the year print the row.
@@ -1377,7 +1380,9 @@ The right column is the total for the day.  The data values are always a maximum
 */
 private void formatOutputNHour ( List<String> strings, PropList props, YearType calendar, String dataFormat,
 					DateTime startDate, DateTime endDate, String reqUnits, String totalColumn ) {
-	StringBuffer b = new StringBuffer();
+	StringBuilder b = new StringBuilder();
+	// Formatter for data values, parsed once for all values.
+	NumberFormatter dataFormatter = NumberFormatter.getInstance ( dataFormat );
 	// Loop through the data starting at the appropriate first hour for the period.
 	DateTime date = new DateTime ( startDate );
 	date.setHour ( 0 );	// Always want full days.
@@ -1440,8 +1445,8 @@ private void formatOutputNHour ( List<String> strings, PropList props, YearType
 			b.append ( "          " );
 		}
 		else {
-		    b.append(" " + StringUtil.formatString(value,
-			dataFormat) );
+		    b.append(" ");
+		    dataFormatter.append(b, value);
 			total += value;
 			++count;
 		}
@@ -1979,4 +1984,54 @@ public int setDataValue ( DateTime date, double value, String data_flag, int dur
 	return 1;
 }
 
+/**
+Return the data values for the period as an array, in date order.
+The data space is copied directly rather than calling getDataValue() for each date.
+@return the data values for the period, including missing values
+*/
+public double [] getDataValues () {
+	if ( (_data == null) || (_date1 == null) || (_date2 == null) ) {
+		return new double[0];
+	}
+	// Months are rows and intervals in the month are columns.
+	int lastRow = _date2.getAbsoluteMonth() - _date1.getAbsoluteMonth();
+	if ( ((24 % _data_interval_mult) != 0) || (lastRow >= _data.length) ) {
+		// Positions in the data space do not line up with dates.
+		return getDataValuesByDate ();
+	}
+	return getDataValues ( _data, lastRow,
+		((_date1.getDay() - 1)*24 + _date1.getHour())/_data_interval_mult,
+		((_date2.getDay() - 1)*24 + _date2.getHour())/_data_interval_mult );
+}
+
+/**
+Transform the non-missing data values in the period, setting each value to add + value*mult.
+The data space is processed directly rather than calling setDataValue() for each date.
+@param mult multiplication factor
+@param add addition factor
+*/
+public void transformDataValues ( double mult, double add ) {
+	if ( (_data == null) || (_date1 == null) || (_date2 == null) ) {
+		return;
+	}
+	if ( (24 % _data_interval_mult) != 0 ) {
+		// Positions in the data space do not line up with dates.
+		transformDataValuesByDate ( mult, add );
+		return;
+	}
+	// Months are rows and intervals in the month are columns.
+	int lastRow = Math.min ( _date2.getAbsoluteMonth() - _date1.getAbsoluteMonth(), _data.length - 1 );
+	for ( int row = 0; row <= lastRow; row++ ) {
+		int first = 0;
+		int last = _data[row].length - 1;
+		if ( row == 0 ) {
+			first = ((_date1.getDay() - 1)*24 + _date1.getHour())/_data_interval_mult;
+		}
+		if ( row == (_date2.getAbsoluteMonth() - _date1.getAbsoluteMonth()) ) {
+			last = Math.min ( last, ((_date2.getDay() - 1)*24 + _date2.getHour())/_data_interval_mult );
+		}
+		transformDataValues ( _data[row], first, last, mult, add );
+	}
+}
+
 }
\ No newline at end of file
@@ -34,6 +34,7 @@ import java.util.List;
 import RTi.Util.IO.DataUnits;
 import RTi.Util.IO.PropList;
 import RTi.Util.Message.Message;
+import RTi.Util.String.NumberFormatter;
 import RTi.Util.String.StringUtil;
 import RTi.Util.Time.DateTime;
 import RTi.Util.Time.TimeInterval;
@@ -728,6 +729,9 @@ throws TSException {
 
 		// Now loop through the time series and transfer to the proper location in the matrix.
 		double data_value;
+		// Formatters parsed once for all values.
+		NumberFormatter dateFormatter = NumberFormatter.getInstance ( "%-26.26s" );
+		NumberFormatter dataFormatter = NumberFormatter.getInstance ( data_format );
 		int nalltsdata = __tsDataList.size();
 		TSData tsdata = null;
 		DateTime date = null;
@@ -741,8 +745,7 @@ throws TSException {
 			if ( date.greaterThanOrEqualTo(start_date) ) {
 				data_value = tsdata.getDataValue();
 				// Format the date according to the active date precision but allow room for full date, to line up with headers.
-				strings.add ( StringUtil.formatString(date.toString(),
-				"%-26.26s") + "  " + StringUtil.formatString(data_value,data_format) );
+				strings.add ( dateFormatter.format(date.toString()) + "  " + dataFormatter.format(data_value) );
 			}
 		}
 		strings.add ( "--------------------------------------------" );
@@ -1737,4 +1740,27 @@ public int setDataValue ( DateTime date, double value, String data_flag, int dur
 	return 0;
 }
 
+/**
+Transform the non-missing data values, setting each value to add + value*mult.
+The data points are modified directly rather than calling setDataValue() for each date.
+@param mult multiplication factor
+@param add addition factor
+*/
+public void transformDataValues ( double mult, double add ) {
+	List<TSData> alltsdata = getData();
+	if ( alltsdata == null ) {
+		// No data for the time series.
+		return;
+	}
+	double value;
+	for ( TSData tsdata : alltsdata ) {
+		value = tsdata.getDataValue();
+		if ( !isDataMissing(value) ) {
+			tsdata.setDataValue ( add + value*mult );
+		}
+		// Have to do this manually since TSData are being modified directly to improve performance.
+		_dirty = true;
+	}
+}
+
 }
\ No newline at end of file
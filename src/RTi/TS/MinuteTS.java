@@ -37,6 +37,7 @@ import RTi.Util.IO.DataUnits;
 import RTi.Util.IO.IOUtil;
 import RTi.Util.IO.PropList;
 import RTi.Util.Message.Message;
+import RTi.Util.String.NumberFormatter;
 import RTi.Util.String.StringUtil;
 import RTi.Util.Time.DateTime;
 import RTi.Util.Time.TimeInterval;
@@ -1025,7 +1026,9 @@ private void formatOutputNMinute ( List<String> strings, PropList props,
 					YearType calendar, String data_format,
 					DateTime start_date, DateTime end_date,
 					String req_units, String total_column ) {
-	StringBuffer b = new StringBuffer();
+	StringBuilder b = new StringBuilder();
+	// Formatter for data values, parsed once for all values.
+	NumberFormatter dataFormatter = NumberFormatter.getInstance ( data_format );
 	// Loop through the data starting at the appropriate first hour for the period.
 	DateTime date = new DateTime ( start_date );
 	date.setMinute ( 0 );	// Always want full hours.
@@ -1089,8 +1092,8 @@ private void formatOutputNMinute ( List<String> strings, PropList props,
 			b.append ( "          " );
 		}
 		else {
-			b.append(" " + StringUtil.formatString(value,
-			data_format) );
+			b.append(" ");
+			dataFormatter.append(b, value);
 			total += value;
 			++count;
 		}
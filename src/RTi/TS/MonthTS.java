@@ -73,6 +73,7 @@ import RTi.Util.IO.IOUtil;
 import RTi.Util.IO.PropList;
 import RTi.Util.Math.MathUtil;
 import RTi.Util.Message.Message;
+import RTi.Util.String.NumberFormatter;
 import RTi.Util.String.StringUtil;
 import RTi.Util.Time.DateTime;
 import RTi.Util.Time.TimeInterval;
@@ -1089,7 +1090,9 @@ throws TSException {
 		double year_total = getMissing();
 		double data_value;
 		DateTime date = new DateTime(start_date,DateTime.DATE_FAST);
-		StringBuffer buffer = null;
+		StringBuilder buffer = null;
+		// Formatter for data values, parsed once for all values.
+		NumberFormatter dataFormatter = NumberFormatter.getInstance ( data_format );
 		int non_missing_in_row = 0;
 		// Have adjusted the dates above, so always start in column 0 (first month in year).
 		column = 0;
@@ -1106,7 +1109,7 @@ throws TSException {
 			// Print out the data value and total/ave, if necessary.
 			if ( column == 0 ) {
 				// Allocate a new buffer and print the year.
-				buffer = new StringBuffer();
+				buffer = new StringBuilder();
 				buffer.append ( StringUtil.formatString((date.getYear() + year_offset), "%04d") + " " );
 				non_missing_in_row = 0;
 			}
@@ -1117,7 +1120,7 @@ throws TSException {
 				data[row][column] = getMissing();
 			}
 			else {
-			    buffer.append ( StringUtil.formatString(data_value, data_format) + " " );
+			    dataFormatter.append ( buffer, data_value ).append ( " " );
 				if ( isDataMissing(year_total) ) {
 					year_total = 0.0;
 				}
@@ -1807,6 +1810,48 @@ public int setDataValue ( DateTime date, double value, String data_flag, int dur
     return 1;
 }
 
+/**
+Return the data values for the period as an array, in date order.
+The data space is copied directly rather than calling getDataValue() for each date.
+@return the data values for the period, including missing values
+*/
+public double [] getDataValues () {
+	if ( (_data == null) || (_date1 == null) || (_date2 == null) ) {
+		return new double[0];
+	}
+	// Years are rows and months are columns.
+	int lastRow = _date2.getYear() - _date1.getYear();
+	if ( lastRow >= _data.length ) {
+		return getDataValuesByDate ();
+	}
+	return getDataValues ( _data, lastRow, (_date1.getMonth() - 1), (_date2.getMonth() - 1) );
+}
+
+/**
+Transform the non-missing data values in the period, setting each value to add + value*mult.
+The data space is processed directly rather than calling setDataValue() for each date.
+@param mult multiplication factor
+@param add addition factor
+*/
+public void transformDataValues ( double mult, double add ) {
+	if ( (_data == null) || (_date1 == null) || (_date2 == null) ) {
+		return;
+	}
+	// Years are rows and months are columns.
+	int lastRow = Math.min ( _date2.getYear() - _date1.getYear(), _data.length - 1 );
+	for ( int row = 0; row <= lastRow; row++ ) {
+		int first = 0;
+		int last = _data[row].length - 1;
+		if ( row == 0 ) {
+			first = _date1.getMonth() - 1;
+		}
+		if ( row == (_date2.getYear() - _date1.getYear()) ) {
+			last = Math.min ( last, _date2.getMonth() - 1 );
+		}
+		transformDataValues ( _data[row], first, last, mult, add );
+	}
+}
+
 /**
  * Determine the maximum data value.
  * @return the maximum data value
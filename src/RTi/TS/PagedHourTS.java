@@ -0,0 +1,290 @@
+// PagedHourTS - hourly time series with data values paged from a TSPageFile
+
+/* NoticeStart
+
+CDSS Common Java Library
+CDSS Common Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2025 Colorado Department of Natural Resources
+
+CDSS Common Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+CDSS Common Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with CDSS Common Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package RTi.TS;
+
+import RTi.Util.Message.Message;
+import RTi.Util.Time.DateTime;
+import RTi.Util.Time.TimeInterval;
+
+/**
+Hourly time series that stores data values in a TSPageFile rather than in memory.
+Only recently used blocks of data values are kept in memory, which allows a large number of long
+hourly time series to be processed without a large heap.
+The time series can be used like HourTS, including getDataValue(), setDataValue() and iterators.
+Data flags, if used, are kept in memory as for HourTS.
+The data values are freed from the page file when the time series is garbage collected.
+*/
+@SuppressWarnings("serial")
+public class PagedHourTS extends HourTS
+{
+
+/**
+Page file used to store data values.
+*/
+private transient TSPageFile _pageFile;
+
+/**
+Data values in the page file, null if not allocated.
+*/
+private transient TSPagedData _pagedData = null;
+
+/**
+Construct a paged hourly time series.
+@param pageFile page file used to store data values, for example TSPageFile.getDefault().
+*/
+public PagedHourTS ( TSPageFile pageFile ) {
+	super ();
+	if ( pageFile == null ) {
+		throw new IllegalArgumentException ( "Page file is null." );
+	}
+	_pageFile = pageFile;
+}
+
+/**
+Allocate the data space in the page file.  The start and end dates and the interval multiplier should have been set.
+No space is used in the page file until values are set.
+@return 0 if success, 1 if failure.
+*/
+public int allocateDataSpace( ) {
+	String routine = getClass().getSimpleName() + ".allocateDataSpace";
+
+	if ( (_date1 == null) || (_date2 == null) ) {
+		Message.printWarning ( 2, routine, "No dates set for memory allocation." );
+		return 1;
+	}
+	if ( (_data_interval_mult < 1) || (_data_interval_mult > 24) ) {
+		Message.printWarning ( 2, routine,
+		"Only know how to handle 1-24 hour data, not " + _data_interval_mult + "-hour." );
+		return 1;
+	}
+	if ( _date2.getAbsoluteMonth() < _date1.getAbsoluteMonth() ) {
+		Message.printWarning( 2, routine, "TS has 0 months POR, maybe dates haven't been set yet or end is not after start." );
+		return 1;
+	}
+
+	if ( _pagedData != null ) {
+		_pagedData.free();
+	}
+	_pagedData = new TSPagedData ( _pageFile, this, TimeInterval.HOUR, _data_interval_mult, _date1, _date2, _missing );
+	if ( _has_data_flags ) {
+		try {
+			allocateDataFlagSpace ( "", false );
+		}
+		catch ( Exception e ) {
+			Message.printWarning ( 3, routine, "Error allocating data flag space (" + e + ") - will not use flags." );
+			_has_data_flags = false;
+		}
+	}
+
+	setDataSize ( calculateDataSize ( _date1, _date2, _data_interval_mult ) );
+	return 0;
+}
+
+/**
+Change the period of record to the specified dates.
+If the period is extended, missing data will be used to fill the time series.
+If the period is shortened, data will be lost.
+@param date1 New start date of time series.
+@param date2 New end date of time series.
+@exception RTi.TS.TSException if there is a problem extending the data.
+*/
+public void changePeriodOfRecord ( DateTime date1, DateTime date2 )
+throws TSException {
+	String routine = getClass().getSimpleName() + ".changePeriodOfRecord";
+
+	if ( (date1 == null) && (date2 == null) ) {
+		// No dates.  Cannot change.
+		String message = "\"" + _id + "\": period dates are null.  Cannot change the period.";
+		Message.printWarning ( 2, routine, message );
+		throw new TSException ( message );
+	}
+	DateTime newDate1 = new DateTime ( (date1 == null) ? _date1 : date1 );
+	DateTime newDate2 = new DateTime ( (date2 == null) ? _date2 : date2 );
+	if ( _date1.equals(newDate1) && _date2.equals(newDate2) ) {
+		// No need to change period.
+		return;
+	}
+
+	// Save the old data and reallocate for the new period.
+
+	DateTime oldDate1 = _date1;
+	DateTime oldDate2 = _date2;
+	TSPagedData dataSave = _pagedData;
+	String [][] dataFlagsSave = _dataFlags;
+	_pagedData = null;
+	setDate1 ( newDate1 );
+	setDate2 ( newDate2 );
+	allocateDataSpace();
+
+	// Transfer the values (and flags) for the overlapping period.
+
+	if ( dataSave != null ) {
+		DateTime transferDate1 = newDate1.lessThan(oldDate1) ? oldDate1 : newDate1;
+		DateTime transferDate2 = newDate2.greaterThan(oldDate2) ? oldDate2 : newDate2;
+		for ( DateTime date = new DateTime (transferDate1,DateTime.DATE_FAST);
+			date.lessThanOrEqualTo (transferDate2);
+			date.addInterval( _data_interval_base, _data_interval_mult ) ) {
+			if ( _has_data_flags && (dataFlagsSave != null) ) {
+				setDataValue ( date, dataSave.getDataValue(date), dataFlagsSave[dataSave.getRow(date)][dataSave.getColumn(date)], 1 );
+			}
+			else {
+				setDataValue ( date, dataSave.getDataValue(date) );
+			}
+		}
+		dataSave.free();
+	}
+
+	addToGenesis ( "Changed period from: " + oldDate1 + " - " + oldDate2 + " to " + newDate1 + " - " + newDate2 );
+}
+
+/**
+Clone the object.  The data values are copied to new blocks in the same page file.
+*/
+public Object clone () {
+	PagedHourTS ts = (PagedHourTS)super.clone();
+	if ( _pagedData != null ) {
+		ts._pagedData = _pagedData.copy ( ts );
+	}
+	return ts;
+}
+
+/**
+Free the data values in the page file.  The time series will have no data after this call.
+Calling this is optional because data values are also freed when the time series is garbage collected.
+*/
+public void freeDataSpace () {
+	if ( _pagedData != null ) {
+		_pagedData.free();
+		_pagedData = null;
+	}
+}
+
+/**
+Return the page file used to store data values.
+@return the page file used to store data values.
+*/
+public TSPageFile getPageFile () {
+	return _pageFile;
+}
+
+/**
+Return the data value for the date.
+@return The data value corresponding to the date, or the missing data value if the date is not found.
+@param date Date of interest (checked to hourly precision).
+*/
+public double getDataValue( DateTime date ) {
+	if ( (date == null) || (_pagedData == null) ) {
+		return _missing;
+	}
+	if ( (date.lessThan(_date1)) || (date.greaterThan(_date2)) ) {
+		if ( Message.isDebugOn ) {
+			Message.printWarning( 2, getClass().getSimpleName() + ".getDataValue",
+				date + " not within POR (" + _date1 + " - " + _date2 + ")" );
+		}
+		return _missing;
+	}
+	return _pagedData.getDataValue ( date );
+}
+
+/**
+Determine whether the time series has data.
+@return true if the data space has been allocated.
+*/
+public boolean hasData () {
+	return _pagedData != null;
+}
+
+/**
+Set the data value for the date.
+@param date Date of interest.
+@param value Data value corresponding to date.
+@param return the number of values set, 0 or 1, useful to know when a value is outside the allocated period
+*/
+public int setDataValue( DateTime date, double value ) {
+	if ( (date == null) || (_pagedData == null) ) {
+		return 0;
+	}
+	if ( (date.lessThan(_date1)) || (date.greaterThan(_date2)) ) {
+		if ( Message.isDebugOn ) {
+			Message.printWarning( 10, getClass().getSimpleName() + ".setDataValue",
+				"Date " + date + " is outside bounds " + _date1 + " - " + _date2 );
+		}
+		return 0;
+	}
+	_dirty = true;
+	_pagedData.setDataValue ( date, value );
+	return 1;
+}
+
+/**
+Set the data value and associated information for the date.
+@param date Date of interest.
+@param value Data value corresponding to date.
+@param data_flag data_flag Data flag for value.
+@param duration Duration for value (ignored).
+@param return the number of values set, 0 or 1, useful to know when a value is outside the allocated period
+*/
+public int setDataValue ( DateTime date, double value, String data_flag, int duration ) {
+	String routine = getClass().getSimpleName() + ".setDataValue";
+	if ( setDataValue ( date, value ) == 0 ) {
+		return 0;
+	}
+	if ( (data_flag != null) && (data_flag.length() > 0) && !_has_data_flags ) {
+		// Trying to set a data flag but space has not been allocated, so allocate the flag space.
+		try {
+			allocateDataFlagSpace(null, false );
+		}
+		catch ( Exception e ) {
+			if ( Message.isDebugOn ) {
+				Message.printDebug(30, routine, "Error allocating data flag space (" + e + ") - will not use flags." );
+			}
+			_has_data_flags = false;
+		}
+	}
+	if ( _has_data_flags && (data_flag != null) ) {
+		_dataFlags[_pagedData.getRow(date)][_pagedData.getColumn(date)] = _internDataFlagStrings ? data_flag.intern() : data_flag;
+	}
+	return 1;
+}
+
+/**
+Return the data values for the period as an array, in date order.
+The values are in the page file so are read by date rather than copying the HourTS data space.
+@return the data values for the period, including missing values
+*/
+public double [] getDataValues () {
+	return getDataValuesByDate ();
+}
+
+/**
+Transform the non-missing data values in the period, setting each value to add + value*mult.
+The values are in the page file so are processed by date rather than using the HourTS data space.
+@param mult multiplication factor
+@param add addition factor
+*/
+public void transformDataValues ( double mult, double add ) {
+	transformDataValuesByDate ( mult, add );
+}
+
+}
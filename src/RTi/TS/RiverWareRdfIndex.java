@@ -0,0 +1,424 @@
+// RiverWareRdfIndex - index of runs and slots in a RiverWare RDF file, for reading selected time series
+
+
+/* NoticeStart
+
+CDSS Common Java Library
+CDSS Common Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2025 Colorado Department of Natural Resources
+
+CDSS Common Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+CDSS Common Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with CDSS Common Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package RTi.TS;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import RTi.Util.IO.DaemonThreadPool;
+import RTi.Util.Message.Message;
+import RTi.Util.String.StringUtil;
+import RTi.Util.Time.DateTime;
+
+/**
+Index of the runs and slots in a RiverWare RDF file, used to read selected slots for selected runs without
+reading the entire file, which for multi-run (ensemble) output can be several gigabytes.
+The index contains the properties that apply to each run and slot and the byte offset of each slot's data,
+and is saved as a sidecar file (the RDF file name with ".idx" appended) so that the file only needs to be
+scanned once.  The sidecar file is rebuilt if the RDF file's size or modification time changes.
+Runs are read in parallel because each run's slots can be read independently.
+Time series that are read are the same as those read by RiverWareTS.readTimeSeriesListFromRdf().
+*/
+public class RiverWareRdfIndex
+{
+
+/**
+String at the start of the index file, used to recognize the file.
+*/
+private static final String INDEX_FILE_ID = "RiverWareRdfIndex";
+
+/**
+Version of the index file format, incremented if the format changes.
+*/
+private static final int INDEX_FILE_VERSION = 1;
+
+/**
+Index entry for a slot in a run.
+*/
+private static class SlotEntry {
+    RiverWareRdfParser.SlotPreamble preamble;
+    long dataOffset;
+    int dataLineCount;
+}
+
+/**
+Index entry for a run.
+*/
+private static class RunEntry {
+    RiverWareRdfParser.RunPreamble preamble;
+    List<SlotEntry> slots = new ArrayList<>();
+}
+
+/**
+RDF file that is indexed.
+*/
+private String filename;
+
+/**
+Size and modification time of the RDF file when indexed, used to check whether the index is current.
+*/
+private long fileLength;
+private long fileLastModified;
+
+/**
+Package properties.
+*/
+private RiverWareRdfParser.PackagePreamble packagePreamble;
+
+/**
+Runs in the file, in order.
+*/
+private List<RunEntry> runs = new ArrayList<>();
+
+/**
+Construct an empty index, filled by build() or readIndexFile().
+*/
+private RiverWareRdfIndex ( String filename ) {
+    this.filename = filename;
+    File f = new File(filename);
+    this.fileLength = f.length();
+    this.fileLastModified = f.lastModified();
+}
+
+/**
+Build the index by scanning the RDF file.  The index file is not written.
+@param filename name of the RDF file
+@return the index for the file
+@exception IOException if there is an error reading the file
+*/
+public static RiverWareRdfIndex build ( String filename )
+throws IOException {
+    String routine = RiverWareRdfIndex.class.getSimpleName() + ".build";
+    RiverWareRdfIndex index = new RiverWareRdfIndex ( filename );
+    try ( FileInputStream in = new FileInputStream(filename) ) {
+        RiverWareRdfParser parser = new RiverWareRdfParser ( in, 0, 0 );
+        parser.readPackagePreamble();
+        index.packagePreamble = parser.getPackagePreamble();
+        for ( int irun = 0; irun < index.packagePreamble.numberOfRuns; irun++ ) {
+            parser.readRunPreamble();
+            RunEntry run = new RunEntry();
+            // Copy because the parser's properties are updated as the file is read.
+            run.preamble = parser.getRunPreamble().clone();
+            index.runs.add ( run );
+            while ( parser.readSlotPreamble() ) {
+                SlotEntry slot = new SlotEntry();
+                slot.preamble = parser.getSlotPreamble().clone();
+                slot.dataOffset = parser.getLineOffset();
+                slot.dataLineCount = parser.getLineCount();
+                run.slots.add ( slot );
+                parser.readSlotData ( filename, irun, null, null, false, false );
+            }
+        }
+        Message.printStatus(2, routine, "Indexed " + index.runs.size() + " runs in \"" + filename + "\" (" +
+            parser.getLineCount() + " lines)." );
+    }
+    return index;
+}
+
+/**
+Return the index for an RDF file, reading the index file if it is current and otherwise building the index and
+writing the index file.  A warning is printed if the index file cannot be written but the index is still returned.
+@param filename name of the RDF file
+@return the index for the file
+@exception IOException if there is an error reading the file
+*/
+public static RiverWareRdfIndex getIndex ( String filename )
+throws IOException {
+    String routine = RiverWareRdfIndex.class.getSimpleName() + ".getIndex";
+    String indexFilename = getIndexFilename ( filename );
+    if ( new File(indexFilename).exists() ) {
+        try {
+            RiverWareRdfIndex index = readIndexFile ( filename, indexFilename );
+            if ( index != null ) {
+                return index;
+            }
+            Message.printStatus(2, routine, "Index file \"" + indexFilename + "\" is not current - rebuilding." );
+        }
+        catch ( IOException e ) {
+            Message.printWarning(3, routine, "Error reading index file \"" + indexFilename + "\" - rebuilding (" + e + ")." );
+        }
+    }
+    RiverWareRdfIndex index = build ( filename );
+    try {
+        index.writeIndexFile ( indexFilename );
+    }
+    catch ( IOException e ) {
+        Message.printWarning(3, routine, "Unable to write index file \"" + indexFilename + "\" (" + e + ")." );
+    }
+    return index;
+}
+
+/**
+Return the name of the index file for an RDF file.
+@param filename name of the RDF file
+@return the name of the index file, which is the RDF file name with ".idx" appended
+*/
+public static String getIndexFilename ( String filename ) {
+    return filename + ".idx";
+}
+
+/**
+Return the number of runs in the file.
+*/
+public int getRunCount () {
+    return this.runs.size();
+}
+
+/**
+Return the slot names for a run.
+@param irun run index (0+)
+@return the slot names for the run, as "ObjectName.SlotName", in the order of the file
+*/
+public List<String> getSlotNames ( int irun ) {
+    List<String> names = new ArrayList<>();
+    for ( SlotEntry slot : this.runs.get(irun).slots ) {
+        names.add ( slot.preamble.objectName + "." + slot.preamble.slotName );
+    }
+    return names;
+}
+
+/**
+Read the time series for a run.
+*/
+private List<TS> readRun ( int irun, List<String> slotNames, DateTime readStart, DateTime readEnd, boolean readData )
+throws IOException {
+    RunEntry run = this.runs.get(irun);
+    List<TS> tslist = new ArrayList<>();
+    try ( FileInputStream in = new FileInputStream(this.filename) ) {
+        RiverWareRdfParser parser = new RiverWareRdfParser ( in, 0, 0 );
+        for ( SlotEntry slot : run.slots ) {
+            if ( (slotNames != null) && (StringUtil.indexOfIgnoreCase(slotNames, slot.preamble.objectName + "." + slot.preamble.slotName) < 0) ) {
+                continue;
+            }
+            parser.setPreambles ( this.packagePreamble, run.preamble, slot.preamble );
+            parser.seek ( slot.dataOffset, slot.dataLineCount );
+            TS ts = parser.readSlotData ( this.filename, irun, readStart, readEnd, readData, true );
+            if ( ts != null ) {
+                tslist.add ( ts );
+            }
+        }
+    }
+    return tslist;
+}
+
+/**
+Read the index from an index file.
+@param filename name of the RDF file
+@param indexFilename name of the index file
+@return the index, or null if the index file is not for the current RDF file
+@exception IOException if there is an error reading the index file
+*/
+private static RiverWareRdfIndex readIndexFile ( String filename, String indexFilename )
+throws IOException {
+    RiverWareRdfIndex index = new RiverWareRdfIndex ( filename );
+    try ( DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFilename))) ) {
+        if ( !in.readUTF().equals(INDEX_FILE_ID) || (in.readInt() != INDEX_FILE_VERSION) ||
+            (in.readLong() != index.fileLength) || (in.readLong() != index.fileLastModified) ) {
+            return null;
+        }
+        RiverWareRdfParser.PackagePreamble pkg = new RiverWareRdfParser.PackagePreamble();
+        pkg.name = in.readUTF();
+        pkg.owner = in.readUTF();
+        pkg.description = in.readUTF();
+        pkg.setCreateDate ( in.readUTF() );
+        pkg.numberOfRuns = in.readInt();
+        index.packagePreamble = pkg;
+        int runCount = in.readInt();
+        for ( int irun = 0; irun < runCount; irun++ ) {
+            RunEntry run = new RunEntry();
+            RiverWareRdfParser.RunPreamble runPreamble = new RiverWareRdfParser.RunPreamble();
+            runPreamble.start = in.readUTF();
+            runPreamble.end = in.readUTF();
+            runPreamble.timeStepUnit = in.readUTF();
+            runPreamble.unitQuantity = in.readInt();
+            if ( in.readBoolean() ) {
+                runPreamble.setTimeStep ( in.readUTF(), in.readUTF() );
+            }
+            runPreamble.timeSteps = in.readInt();
+            runPreamble.slotSet = in.readUTF();
+            runPreamble.ruleSet = in.readUTF();
+            runPreamble.consecutive = in.readInt();
+            runPreamble.idxSequential = in.readInt();
+            run.preamble = runPreamble;
+            int slotCount = in.readInt();
+            for ( int islot = 0; islot < slotCount; islot++ ) {
+                SlotEntry slot = new SlotEntry();
+                RiverWareRdfParser.SlotPreamble slotPreamble = new RiverWareRdfParser.SlotPreamble();
+                slotPreamble.objectType = in.readUTF();
+                slotPreamble.objectName = in.readUTF();
+                slotPreamble.slotName = in.readUTF();
+                slotPreamble.rows = in.readInt();
+                slotPreamble.cols = in.readInt();
+                slotPreamble.isTable = in.readBoolean();
+                slot.preamble = slotPreamble;
+                slot.dataOffset = in.readLong();
+                slot.dataLineCount = in.readInt();
+                run.slots.add ( slot );
+            }
+            index.runs.add ( run );
+        }
+    }
+    return index;
+}
+
+/**
+Read time series for selected runs and slots, reading runs in parallel.
+Time series are the same as those read by RiverWareTS.readTimeSeriesListFromRdf() and are returned in the order
+of the file (by run and then by slot).
+@param runIndices run indices (0+) to read, or null to read all runs
+@param slotNames slot names to read, as "ObjectName.SlotName" (case-insensitive), or null to read all slots
+@param readStart Starting date to initialize period (null to read the entire time series).
+@param readEnd Ending date to initialize period (null to read the entire time series).
+@param readData Indicates whether data should be read (false=no, true=yes).
+@param threadCount number of threads to use to read runs from the shared DaemonThreadPool, or 0 to use the number of processors
+@return the time series that are read
+@exception IOException if there is an error reading the file
+*/
+public List<TS> readTimeSeriesList ( List<Integer> runIndices, List<String> slotNames,
+    DateTime readStart, DateTime readEnd, boolean readData, int threadCount )
+throws IOException {
+    String routine = RiverWareRdfIndex.class.getSimpleName() + ".readTimeSeriesList";
+    File f = new File(this.filename);
+    if ( (f.length() != this.fileLength) || (f.lastModified() != this.fileLastModified) ) {
+        throw new IOException ( "RDF file \"" + this.filename + "\" has changed since it was indexed." );
+    }
+    List<Integer> runList = new ArrayList<>();
+    if ( runIndices == null ) {
+        for ( int irun = 0; irun < this.runs.size(); irun++ ) {
+            runList.add ( irun );
+        }
+    }
+    else {
+        for ( Integer irun : runIndices ) {
+            if ( (irun < 0) || (irun >= this.runs.size()) ) {
+                throw new IOException ( "Run index " + irun + " is not in the file (have " + this.runs.size() + " runs)." );
+            }
+            if ( !runList.contains(irun) ) {
+                runList.add ( irun );
+            }
+        }
+        runList.sort ( null );
+    }
+    if ( threadCount <= 0 ) {
+        threadCount = Runtime.getRuntime().availableProcessors();
+    }
+    threadCount = Math.min ( threadCount, runList.size() );
+    List<TS> tslist = new ArrayList<>();
+    if ( threadCount <= 1 ) {
+        for ( Integer irun : runList ) {
+            tslist.addAll ( readRun ( irun, slotNames, readStart, readEnd, readData ) );
+        }
+    }
+    else {
+        List<Callable<List<TS>>> tasks = new ArrayList<>();
+        for ( Integer irun : runList ) {
+            tasks.add ( () -> readRun ( irun, slotNames, readStart, readEnd, readData ) );
+        }
+        try {
+            for ( Future<List<TS>> future : DaemonThreadPool.invokeAll(tasks, threadCount) ) {
+                tslist.addAll ( future.get() );
+            }
+        }
+        catch ( ExecutionException e ) {
+            if ( e.getCause() instanceof IOException ) {
+                throw (IOException)e.getCause();
+            }
+            else if ( e.getCause() instanceof RuntimeException ) {
+                throw (RuntimeException)e.getCause();
+            }
+            throw new RuntimeException ( e.getCause() );
+        }
+        catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException ( "Interrupted reading RDF file.", e );
+        }
+    }
+    Message.printStatus(2, routine, "Read " + tslist.size() + " time series from " + runList.size() + " runs of \"" +
+        this.filename + "\"." );
+    return tslist;
+}
+
+/**
+Write the index file.
+@param indexFilename name of the index file
+@exception IOException if there is an error writing the file
+*/
+public void writeIndexFile ( String indexFilename )
+throws IOException {
+    try ( DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFilename))) ) {
+        out.writeUTF ( INDEX_FILE_ID );
+        out.writeInt ( INDEX_FILE_VERSION );
+        out.writeLong ( this.fileLength );
+        out.writeLong ( this.fileLastModified );
+        out.writeUTF ( this.packagePreamble.name );
+        out.writeUTF ( this.packagePreamble.owner );
+        out.writeUTF ( this.packagePreamble.description );
+        out.writeUTF ( this.packagePreamble.createDate );
+        out.writeInt ( this.packagePreamble.numberOfRuns );
+        out.writeInt ( this.runs.size() );
+        for ( RunEntry run : this.runs ) {
+            RiverWareRdfParser.RunPreamble runPreamble = run.preamble;
+            out.writeUTF ( runPreamble.start );
+            out.writeUTF ( runPreamble.end );
+            out.writeUTF ( runPreamble.timeStepUnit );
+            out.writeInt ( runPreamble.unitQuantity );
+            // The time step is set from the start and end that were used when the file was read.
+            out.writeBoolean ( runPreamble.timeStep != null );
+            if ( runPreamble.timeStep != null ) {
+                out.writeUTF ( runPreamble.timeStepStart );
+                out.writeUTF ( runPreamble.timeStepEnd );
+            }
+            out.writeInt ( runPreamble.timeSteps );
+            out.writeUTF ( runPreamble.slotSet );
+            out.writeUTF ( runPreamble.ruleSet );
+            out.writeInt ( runPreamble.consecutive );
+            out.writeInt ( runPreamble.idxSequential );
+            out.writeInt ( run.slots.size() );
+            for ( SlotEntry slot : run.slots ) {
+                out.writeUTF ( slot.preamble.objectType );
+                out.writeUTF ( slot.preamble.objectName );
+                out.writeUTF ( slot.preamble.slotName );
+                out.writeInt ( slot.preamble.rows );
+                out.writeInt ( slot.preamble.cols );
+                out.writeBoolean ( slot.preamble.isTable );
+                out.writeLong ( slot.dataOffset );
+                out.writeInt ( slot.dataLineCount );
+            }
+        }
+    }
+}
+
+}
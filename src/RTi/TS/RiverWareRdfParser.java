@@ -0,0 +1,771 @@
+// RiverWareRdfParser - parse the blocks of a RiverWare RDF file, shared by sequential and indexed reading
+
+
+/* NoticeStart
+
+CDSS Common Java Library
+CDSS Common Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2025 Colorado Department of Natural Resources
+
+CDSS Common Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+CDSS Common Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with CDSS Common Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package RTi.TS;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+import RTi.Util.Message.Message;
+import RTi.Util.Time.DateTime;
+import RTi.Util.Time.TimeInterval;
+
+/**
+Parser for the package preamble, run preambles, slot preambles, and slot data of a RiverWare RDF file.
+The parser retains the most recent package, run, and slot properties between blocks, the same as when an RDF file
+is read from start to end, so that the index built with RiverWareRdfIndex contains the properties that apply to
+each slot.
+Lines are read from a BufferedReader or, when byte offsets are needed for the index, from an InputStream.
+This class is used by RiverWareTS and RiverWareRdfIndex and is not intended to be used directly.
+*/
+class RiverWareRdfParser
+{
+
+/**
+Package preamble properties.
+*/
+static class PackagePreamble {
+    String name = "";
+    String owner = "";
+    String description = "";
+    String createDate = ""; // Use string because use 24 hour clock.
+    DateTime createDateTime = null;
+    int numberOfRuns = 0;
+
+    /**
+    Set the create date/time from the create date string.
+    */
+    void setCreateDate ( String createDate ) {
+        this.createDate = createDate;
+        try {
+            // TODO SAM 2013-09-21 Looks like the date string can have single digits rather than zero padded.
+            // Need to add format to parse.
+            this.createDateTime = RiverWareTS.parseRiverWareDateTime(createDate,DateTime.PRECISION_MINUTE);
+        }
+        catch ( Exception e ) {
+            this.createDateTime = null;
+        }
+    }
+}
+
+/**
+Run preamble properties.
+*/
+static class RunPreamble implements Cloneable {
+    String start = "";
+    String end = "";
+    String timeStepUnit = "";
+    int unitQuantity = -1;
+    // Start and end strings when the time step was set, used to set the start and end date/time.
+    String timeStepStart = null;
+    String timeStepEnd = null;
+    TimeInterval timeStep = null;
+    DateTime startDateTime = null;
+    DateTime endDateTime = null;
+    int intervalBase = 0;
+    int intervalMult = 0;
+    int timeSteps = -1;
+    String slotSet = "";
+    String ruleSet = "";
+    int consecutive = -1;
+    int idxSequential = -1;
+
+    public RunPreamble clone () {
+        try {
+            return (RunPreamble)super.clone();
+        }
+        catch ( CloneNotSupportedException e ) {
+            throw new RuntimeException ( e );
+        }
+    }
+
+    /**
+    Set the time step from the time step unit and unit quantity,
+    and set the start and end date/time to the precision of the time step.
+    @param start the run start string to use for the start date/time
+    @param end the run end string to use for the end date/time
+    */
+    void setTimeStep ( String start, String end )
+    throws IOException {
+        if ( this.unitQuantity == 1 ) {
+            // Handles OK except for "week".
+            try {
+                this.timeStep = TimeInterval.parseInterval(this.timeStepUnit);
+            }
+            catch ( Exception e ) {
+                throw new IOException ( "time_step_unit (" + this.timeStepUnit + ") is not recognized." );
+            }
+        }
+        else {
+            try {
+                this.timeStep = TimeInterval.parseInterval("" + this.unitQuantity + this.timeStepUnit );
+            }
+            catch ( Exception e ) {
+                throw new IOException ( "time_step_unit (" + this.timeStepUnit + ") and unit_quantity (" + this.unitQuantity +
+                    ") are not recognized." );
+            }
+        }
+        this.intervalBase = this.timeStep.getBase();
+        this.intervalMult = this.timeStep.getMultiplier();
+        // Now know the interval so can get the start and end to the proper precision.
+        this.timeStepStart = start;
+        this.timeStepEnd = end;
+        this.startDateTime = RiverWareTS.parseRiverWareDateTime(start,this.timeStep.getBase());
+        this.endDateTime = RiverWareTS.parseRiverWareDateTime(end,this.timeStep.getBase());
+    }
+}
+
+/**
+Slot preamble properties.
+*/
+static class SlotPreamble implements Cloneable {
+    String objectType = "";
+    String objectName = "";
+    String slotName = "";
+    int rows = -1;
+    int cols = -1;
+    boolean isTable = false;
+
+    public SlotPreamble clone () {
+        try {
+            return (SlotPreamble)super.clone();
+        }
+        catch ( CloneNotSupportedException e ) {
+            throw new RuntimeException ( e );
+        }
+    }
+}
+
+/**
+Reader when reading lines from a BufferedReader.
+*/
+private BufferedReader in = null;
+
+/**
+Stream when reading lines from bytes, in which case the byte offset of lines is known.
+*/
+private InputStream stream = null;
+
+/**
+Buffer for bytes read from the stream.
+*/
+private byte [] buffer = null;
+
+/**
+Number of bytes in the buffer and position of the next byte to process.
+*/
+private int bufferCount = 0;
+private int bufferPos = 0;
+
+/**
+Bytes for the line being read from the stream.
+*/
+private byte [] lineBytes = new byte[256];
+
+/**
+Indicates that the last line read from the stream ended with carriage return,
+so a following newline is part of the line end.
+*/
+private boolean skipNewline = false;
+
+/**
+Byte offset in the stream of the next byte to process.
+*/
+private long offset = 0;
+
+/**
+Line being read (so increment before reading).
+*/
+private int lineCount = 0;
+
+/**
+Current package, run, and slot properties.
+*/
+private PackagePreamble packagePreamble = new PackagePreamble();
+private RunPreamble run = new RunPreamble();
+private SlotPreamble slot = new SlotPreamble();
+
+/**
+Construct a parser that reads lines from a BufferedReader.
+@param in reader for the RDF file, positioned at the start of the file
+*/
+RiverWareRdfParser ( BufferedReader in ) {
+    this.in = in;
+}
+
+/**
+Construct a parser that reads lines from a stream, tracking the byte offset of each line.
+@param stream stream for the RDF file
+@param offset byte offset of the stream's current position in the file
+@param lineCount number of lines before the stream's current position
+*/
+RiverWareRdfParser ( InputStream stream, long offset, int lineCount ) {
+    this.stream = stream;
+    this.buffer = new byte[65536];
+    this.offset = offset;
+    this.lineCount = lineCount;
+}
+
+/**
+Return the number of lines that have been read.
+*/
+int getLineCount () {
+    return this.lineCount;
+}
+
+/**
+Return the byte offset of the next line, when reading from a stream.
+*/
+long getLineOffset ()
+throws IOException {
+    if ( this.skipNewline ) {
+        // Consume the newline of a carriage return and newline line end so the offset is for the next line.
+        if ( (this.bufferPos < this.bufferCount) || fillBuffer() ) {
+            if ( this.buffer[this.bufferPos] == '\n' ) {
+                ++this.bufferPos;
+                ++this.offset;
+            }
+        }
+        this.skipNewline = false;
+    }
+    return this.offset;
+}
+
+/**
+Return the current package properties.
+*/
+PackagePreamble getPackagePreamble () {
+    return this.packagePreamble;
+}
+
+/**
+Return the current run properties.
+*/
+RunPreamble getRunPreamble () {
+    return this.run;
+}
+
+/**
+Return the current slot properties.
+*/
+SlotPreamble getSlotPreamble () {
+    return this.slot;
+}
+
+/**
+Fill the buffer from the stream.
+@return true if bytes were read, false if at the end of the stream
+*/
+private boolean fillBuffer ()
+throws IOException {
+    this.bufferPos = 0;
+    this.bufferCount = this.stream.read(this.buffer);
+    if ( this.bufferCount <= 0 ) {
+        this.bufferCount = 0;
+        return false;
+    }
+    return true;
+}
+
+/**
+Return the trimmed value following the colon in a "property: value" line, or "" if no value.
+*/
+private static String parseValue ( String s, int colonPos ) {
+    return ( s.length() >= (colonPos + 1) ? s.substring(colonPos + 1).trim() : "" );
+}
+
+/**
+Read a line, the same as BufferedReader.readLine(), incrementing the line count.
+@return the line without line end, or null if at the end of the file
+*/
+String readLine ()
+throws IOException {
+    ++this.lineCount;
+    if ( this.in != null ) {
+        return this.in.readLine();
+    }
+    int length = 0;
+    boolean haveLine = false;
+    while ( true ) {
+        if ( (this.bufferPos == this.bufferCount) && !fillBuffer() ) {
+            break;
+        }
+        byte b = this.buffer[this.bufferPos++];
+        ++this.offset;
+        haveLine = true;
+        if ( this.skipNewline ) {
+            this.skipNewline = false;
+            if ( b == '\n' ) {
+                haveLine = false;
+                continue;
+            }
+        }
+        if ( b == '\n' ) {
+            break;
+        }
+        else if ( b == '\r' ) {
+            this.skipNewline = true;
+            break;
+        }
+        if ( length == this.lineBytes.length ) {
+            byte [] lineBytes = new byte[length*2];
+            System.arraycopy(this.lineBytes, 0, lineBytes, 0, length);
+            this.lineBytes = lineBytes;
+        }
+        this.lineBytes[length++] = b;
+    }
+    if ( !haveLine ) {
+        return null;
+    }
+    // Decode the same as InputStreamReader does for the BufferedReader.
+    return new String ( this.lineBytes, 0, length, Charset.defaultCharset() );
+}
+
+/**
+Read the package preamble, ending with END_PACKAGE_PREAMBLE.
+*/
+void readPackagePreamble ()
+throws IOException {
+    String routine = RiverWareTS.class.getSimpleName() + ".readTimeSeriesListFromRdf";
+    String s, su, s2;
+    int colonPos;
+    while ( true ) {
+        s = readLine();
+        if ( s == null ) {
+            break;
+        }
+        // Parse package preamble strings, in order of documentation.
+        s = s.trim();
+        su = s.toUpperCase();
+        colonPos = s.indexOf(":");
+        if ( su.startsWith("#")) {
+            // Comment.
+            continue;
+        }
+        else if ( su.startsWith("NAME:") ) {
+            this.packagePreamble.name = parseValue(s, colonPos);
+        }
+        else if ( su.startsWith("OWNER:") ) {
+            this.packagePreamble.owner = parseValue(s, colonPos);
+        }
+        else if ( su.startsWith("DESCRIPTION:") ) {
+            this.packagePreamble.description = parseValue(s, colonPos);
+        }
+        else if ( su.startsWith("CREATE_DATE:") ) {
+            this.packagePreamble.setCreateDate(parseValue(s, colonPos));
+        }
+        else if ( su.startsWith("NUMBER_OF_RUNS:") ) {
+            s2 = ( s.length() >= (colonPos + 1) ? s.substring(colonPos + 1) : "" );
+            try {
+                this.packagePreamble.numberOfRuns = Integer.parseInt(s2);
+            }
+            catch ( NumberFormatException e ) {
+                throw new IOException ( "number_of_runs (" + s2 + ") is not an integer." );
+            }
+        }
+        else if ( s.equalsIgnoreCase("END_PACKAGE_PREAMBLE") ) {
+            // Break and continue reading run data below.
+            Message.printStatus(2, routine, "Detected END_PACKAGE_PREAMBLE at line " + this.lineCount );
+            break;
+        }
+    }
+}
+
+/**
+Read a run preamble, ending with END_RUN_PREAMBLE, and the run's date/times (or table row numbers).
+*/
+void readRunPreamble ()
+throws IOException {
+    String routine = RiverWareTS.class.getSimpleName() + ".readTimeSeriesListFromRdf";
+    String s, su, s2;
+    int colonPos;
+    RunPreamble run = this.run;
+    while ( true ) {
+        s = readLine();
+        if ( s == null ) {
+            break;
+        }
+        // Parse run preamble strings, in order of documentation.
+        s = s.trim();
+        su = s.toUpperCase();
+        colonPos = s.indexOf(":");
+        if ( su.startsWith("START:") ) {
+            run.start = parseValue(s, colonPos);
+        }
+        else if ( su.startsWith("END:") ) {
+            run.end = parseValue(s, colonPos);
+        }
+        else if ( su.startsWith("TIME_STEP_UNIT:") ) {
+            run.timeStepUnit = parseValue(s, colonPos);
+        }
+        else if ( su.startsWith("UNIT_QUANTITY:") ) {
+            s2 = parseValue(s, colonPos);
+            try {
+                run.unitQuantity = Integer.parseInt(s2);
+            }
+            catch ( NumberFormatException e ) {
+                throw new IOException ( "unit_quantity (" + s2 + ") is not an integer." );
+            }
+            run.setTimeStep(run.start, run.end);
+        }
+        else if ( su.startsWith("TIME_STEPS:") ) {
+            s2 = parseValue(s, colonPos);
+            try {
+                run.timeSteps = Integer.parseInt(s2);
+            }
+            catch ( NumberFormatException e ) {
+                throw new IOException ( "time_steps (" + s2 + ") is not an integer." );
+            }
+        }
+        else if ( su.startsWith("SLOT_SET:") ) {
+            run.slotSet = parseValue(s, colonPos);
+        }
+        else if ( su.startsWith("RULE_SET:") ) {
+            run.ruleSet = parseValue(s, colonPos);
+        }
+        else if ( su.startsWith("CONSECUTIVE:") ) {
+            s2 = parseValue(s, colonPos);
+            try {
+                run.consecutive = Integer.parseInt(s2);
+            }
+            catch ( NumberFormatException e ) {
+                throw new IOException ( "consecutive (" + s2 + ") is not an integer." );
+            }
+            if ( run.consecutive == 1 ) {
+                throw new IOException ( "Only consecutive=0 is currently supported." );
+            }
+        }
+        else if ( su.startsWith("IDX_SEQUENTIAL:") ) {
+            s2 = parseValue(s, colonPos);
+            try {
+                run.idxSequential = Integer.parseInt(s2);
+            }
+            catch ( NumberFormatException e ) {
+                throw new IOException ( "idx_sequential (" + s2 + ") is not an integer." );
+            }
+        }
+        else if ( s.equalsIgnoreCase("END_RUN_PREAMBLE") ) {
+            Message.printStatus(2, routine, "Detected END_RUN_PREAMBLE at line " + this.lineCount );
+            break;
+        }
+    }
+    // If here the run preamble has been read.
+    // Next read the dates for the run if time series or row numbers if a table.
+    // TODO SAM 2013-09-21 is there any need to keep these and use later?.
+    // If regular data the run start and end should match.
+    for ( int idate = 0; idate < run.timeSteps; idate++ ) {
+        s = readLine();
+        if ( (idate == 0) && (s.indexOf("-") > 0) ) {
+            // Assume this is a time series with a date string.
+            // Make sure date matches the run start.
+            DateTime d1 = RiverWareTS.parseRiverWareDateTime(s.trim(),run.timeStep.getBase());
+            if ( !d1.equals(run.startDateTime)) {
+                throw new IOException ( "At line " + this.lineCount + " date/time does not match start date/time." );
+            }
+        }
+        else if ( (idate == (run.timeSteps - 1)) && (s.indexOf("-") > 0) ) {
+            // Assume this is a time series with a date string.
+            // Make sure date matches the run end.
+            DateTime d2 = RiverWareTS.parseRiverWareDateTime(s.trim(),run.timeStep.getBase());
+            if ( !d2.equals(run.endDateTime)) {
+                throw new IOException ( "At line " + this.lineCount + " date/time does not match end date/time." );
+            }
+        }
+    }
+    Message.printStatus(2, routine, "Read last run date/time (or column row number) at line " + this.lineCount );
+}
+
+/**
+Read a slot preamble, ending with END_SLOT_PREAMBLE.
+@return true if a slot preamble was read, false if END_RUN (or the end of the file) was detected
+*/
+boolean readSlotPreamble ()
+throws IOException {
+    String routine = RiverWareTS.class.getSimpleName() + ".readTimeSeriesListFromRdf";
+    String s, su, s2 = null;
+    int colonPos;
+    SlotPreamble slot = this.slot;
+    Message.printStatus(2, routine, "Start reading slot data at line " + (this.lineCount + 1));
+    while ( true ) {
+        s = readLine();
+        if ( s == null ) {
+            // Premature end of file, break out of slot loop and let other code continue error handling.
+            return false;
+        }
+        s = s.trim();
+        su = s.toUpperCase();
+        if ( su.equals("END_RUN") ) {
+            // Done processing slots for run.
+            Message.printStatus(2, routine, "Detected END_RUN at line " + this.lineCount );
+            return false;
+        }
+        colonPos = s.indexOf(":");
+        // Parse slot preamble strings, in order of documentation.
+        if ( su.startsWith("OBJECT_TYPE:") ) {
+            slot.objectType = parseValue(s, colonPos);
+            Message.printStatus(2, routine, "Detected OBJECT_TYPE at line " + this.lineCount );
+            // TODO SAM 2013-09-21 Maybe this indicates whether a time series or table?
+        }
+        else if ( su.startsWith("OBJECT_NAME:") ) {
+            slot.objectName = parseValue(s, colonPos);
+            Message.printStatus(2, routine, "Detected OBJECT_NAME at line " + this.lineCount );
+        }
+        else if ( su.startsWith("SLOT_NAME:") ) {
+            slot.slotName = parseValue(s, colonPos);
+            Message.printStatus(2, routine, "Detected SLOT_NAME at line " + this.lineCount );
+        }
+        else if ( su.startsWith("ROWS:") ) {
+            // Indicates a table rather than time series.
+            slot.isTable = true;
+            try {
+                s2 = parseValue(s, colonPos);
+                slot.rows = Integer.parseInt(s2);
+            }
+            catch ( NumberFormatException e ) {
+                throw new IOException ( "At line " + this.lineCount + " \"rows\" (" + s2 + ") is not an integer." );
+            }
+            Message.printStatus(2, routine, "Detected ROWS at line " + this.lineCount + " data object is table.  Will read but ignore." );
+        }
+        else if ( su.startsWith("COLS:") ) {
+            // Used with table.
+            try {
+                s2 = parseValue(s, colonPos);
+                slot.cols = Integer.parseInt(s2);
+            }
+            catch ( NumberFormatException e ) {
+                throw new IOException ( "At line " + this.lineCount + " \"cols\" (" + s2 + ") is not an integer." );
+            }
+        }
+        else if ( su.equals("END_SLOT_PREAMBLE") ) {
+            Message.printStatus(2, routine, "Detected END_SLOT_PREAMBLE at line " + this.lineCount );
+            return true;
+        }
+    }
+}
+
+/**
+Read the data for a slot, following the slot preamble, through END_SLOT.
+@param filename name of the RDF file, used for the time series input name
+@param irun run index (0+), used for the sequence number
+@param readStart Starting date to initialize period (null to read the entire time series).
+@param readEnd Ending date to initialize period (null to read the entire time series).
+@param readData Indicates whether data should be read (false=no, true=yes).
+@param createTimeSeries if true, create the time series; if false, only read through the slot data
+@return the time series for the slot, or null if the slot is a table or the time series is not created
+*/
+TS readSlotData ( String filename, int irun, DateTime readStart, DateTime readEnd, boolean readData, boolean createTimeSeries )
+throws IOException {
+    String routine = RiverWareTS.class.getSimpleName() + ".readTimeSeriesListFromRdf";
+    String s, s2;
+    int colonPos;
+    RunPreamble run = this.run;
+    SlotPreamble slot = this.slot;
+    String slotUnits;
+    double slotScale;
+    TS ts = null;
+    // Read the data for the slot.
+    if ( slot.isTable ) {
+        // Reading a table.
+        // TODO SAM 2013-09-21 Need to actually handle table - for now just handle time series.
+        Message.printStatus(2, routine, "Start reading table at line " + this.lineCount );
+        for ( int irow = 0; irow < slot.rows; irow++ ) {
+            s = readLine();
+        }
+        for ( int icol = 0; icol < slot.cols; icol++ ) {
+            s = readLine();
+            colonPos = s.indexOf(":");
+            slotUnits = parseValue(s, colonPos);
+            s = readLine();
+            colonPos = s.indexOf(":");
+            s2 = parseValue(s, colonPos);
+            try {
+                slotScale = Double.parseDouble(s2);
+            }
+            catch ( NumberFormatException e ) {
+                throw new IOException ( "At line " + this.lineCount + " \"slot_scale\" (" + s2 + ") is not a number." );
+            }
+            for ( int irow = 0; irow < slot.rows; irow++ ) {
+                s = readLine();
+            }
+        }
+    }
+    else {
+        // Reading a time series, one value per dates that were read in the run preamble.
+        Message.printStatus(2, routine, "Slot is time series.  Starting to read at line " + (this.lineCount + 1) );
+        s = readLine();
+        colonPos = s.indexOf(":");
+        slotUnits = parseValue(s, colonPos);
+        s = readLine();
+        colonPos = s.indexOf(":");
+        s2 = parseValue(s, colonPos);
+        try {
+            slotScale = Double.parseDouble(s2);
+        }
+        catch ( NumberFormatException e ) {
+            throw new IOException ( "At line " + this.lineCount + " \"slot_scale\" (" + s2 + ") is not a number." );
+        }
+        if ( !createTimeSeries ) {
+            for ( int istep = 0; istep < run.timeSteps; istep++ ) {
+                readLine();
+            }
+        }
+        else {
+            ts = createTimeSeries ( filename, irun, slotUnits, readStart, readEnd, readData );
+            // Use the file date to read through data but time series will only have data within period.
+            DateTime date = new DateTime(run.startDateTime);
+            double value;
+            for ( int istep = 0; istep < run.timeSteps; istep++ ) {
+                s = readLine().trim();
+                if ( readData ) {
+                    if ( s.equalsIgnoreCase("NaN")) {
+                        // Missing value.  Don't need to set anything.
+                    }
+                    else {
+                        // Parse the value.
+                        value = Double.parseDouble(s);
+                        ts.setDataValue(date, slotScale*value);
+                    }
+                }
+                date.addInterval(run.intervalBase,run.intervalMult);
+            }
+        }
+        Message.printStatus(2, routine, "Read last slot time series value at line " + this.lineCount );
+    }
+    // Read and check for expected end of data.
+    s = readLine();
+    if ( !s.toUpperCase().equals("END_COLUMN") ) {
+        throw new IOException ( "At line " + this.lineCount + " expecting END_COLUMN, have: " + s );
+    }
+    Message.printStatus(2, routine, "Detected END_COLUMN at line " + this.lineCount );
+    s = readLine();
+    if ( !s.toUpperCase().equals("END_SLOT") ) {
+        throw new IOException ( "At line " + this.lineCount + " expecting END_SLOT, have: " + s );
+    }
+    Message.printStatus(2, routine, "Detected END_SLOT at line " + this.lineCount );
+    return ts;
+}
+
+/**
+Create the time series for the current slot, with properties from the package, run, and slot.
+*/
+private TS createTimeSeries ( String filename, int irun, String slotUnits, DateTime readStart, DateTime readEnd, boolean readData )
+throws IOException {
+    String routine = RiverWareTS.class.getSimpleName() + ".readTimeSeriesListFromRdf";
+    PackagePreamble pkg = this.packagePreamble;
+    RunPreamble run = this.run;
+    SlotPreamble slot = this.slot;
+    TS ts;
+    String tsid = slot.objectName + ".RiverWare." + slot.slotName + "." + run.timeStep;
+    DateTime fileStart = new DateTime(run.startDateTime);
+    DateTime fileEnd = new DateTime(run.endDateTime);
+    if ( ((run.consecutive == 0) && (pkg.numberOfRuns > 1)) || (run.idxSequential == 1) ) {
+        // runConsecutive=0 means that a single run was done over the period start to end (?).
+        // runIdxSequential means that overlapping runs were made, with resequenced historical input.
+        // The run dates are already overlapping.  Set the sequence number to the year of the date for the run..
+        // TODO SAM 2013-09-21 Are the index sequential years truly sequential or can they be mixed?.
+        //int sequenceNum = fileStart.getYear() + irun;
+        // TODO SAM what is the unique identifier for the sequence number?  Year of historical trace, some other
+        // metadata?
+        int sequenceNum = irun + 1;
+        tsid = tsid + TSIdent.SEQUENCE_NUMBER_LEFT + sequenceNum + TSIdent.SEQUENCE_NUMBER_RIGHT;
+    }
+    Message.printStatus(2, routine, "Creating time series \"" + tsid + "\"" );
+    try {
+        ts = TSUtil.newTimeSeries(tsid, true);
+    }
+    catch ( Exception e ) {
+        throw new IOException ( "Error creating time series using TSID \"" + tsid + "\" (" + e + ")." );
+    }
+    try {
+        ts.setIdentifier ( tsid );
+    }
+    catch ( Exception e ) {
+        throw new IOException ( "Error setting time seriies identifier \"" + tsid + "\" (" + e + ").");
+    }
+    if ( readStart != null ) {
+        ts.setDate1(readStart);
+    }
+    else {
+        ts.setDate1(fileStart);
+    }
+    if ( readEnd != null ) {
+        ts.setDate2(readEnd);
+    }
+    else {
+        ts.setDate2(fileEnd);
+    }
+    ts.setDate1Original(fileStart);
+    ts.setDate2Original(fileEnd);
+    ts.setDataUnits(slotUnits);
+    ts.setDataUnitsOriginal(slotUnits);
+    // Set all the properties (some of these also will be used for the ensemble if ensembles are read.
+    ts.setProperty("PackageName", pkg.name);
+    ts.setProperty("PackageOwner", pkg.owner);
+    ts.setProperty("PackageDescription", pkg.description);
+    ts.setProperty("PackageCreateDate", pkg.createDateTime);
+    ts.setProperty("PackageNumberOfRuns", Integer.valueOf(pkg.numberOfRuns));
+    ts.setProperty("RunConsecutive", Integer.valueOf(run.consecutive));
+    ts.setProperty("RunIdxSequential", Integer.valueOf(run.idxSequential));
+    ts.setProperty("RunSlotSet", run.slotSet);
+    ts.setProperty("RunRuleSet", run.ruleSet);
+    ts.setProperty("SlotObjectType", slot.objectType);
+    ts.setProperty("SlotObjectName", slot.objectName);
+    ts.setProperty("SlotSlotName", slot.slotName);
+    ts.getIdentifier().setInputType("RiverWare");
+    ts.getIdentifier().setInputName(filename);
+    if ( readData ) {
+        ts.allocateDataSpace();
+    }
+    return ts;
+}
+
+/**
+Position the stream at a byte offset, for example to read a slot's data using the index.
+The stream must be a FileInputStream.
+@param offset byte offset in the file of the next line to read
+@param lineCount number of lines before the offset, used in messages
+*/
+void seek ( long offset, int lineCount )
+throws IOException {
+    ((FileInputStream)this.stream).getChannel().position(offset);
+    this.bufferCount = 0;
+    this.bufferPos = 0;
+    this.skipNewline = false;
+    this.offset = offset;
+    this.lineCount = lineCount;
+}
+
+/**
+Set the package, run, and slot properties, for example from the index before reading a slot's data.
+*/
+void setPreambles ( PackagePreamble packagePreamble, RunPreamble run, SlotPreamble slot ) {
+    this.packagePreamble = packagePreamble;
+    this.run = run;
+    this.slot = slot;
+}
+
+}
@@ -196,7 +196,7 @@ This is the date format found in RDF files.
 For example, if year interval, then issues of 24-hour RiverWare time can be ignored.
 If @return parsed date/time or null
 */
-private static DateTime parseRiverWareDateTime(String dt, int precision ) {
+static DateTime parseRiverWareDateTime(String dt, int precision ) {
     if ( dt == null ) {
         return null;
     }
@@ -615,6 +615,28 @@ throws Exception {
     return tslist;
 }
 
+/**
+Read selected runs and slots from a RiverWare RDF format file, using the file's index to read only the
+requested data.  The index is read from the index file next to the RDF file, or is built and saved if the index
+file does not exist or is not current (see RiverWareRdfIndex).
+Runs are read in parallel.  The time series are the same as those read by
+readTimeSeriesListFromRdf(String,DateTime,DateTime,String,boolean) for the runs and slots.
+@return the time series that are read, in the order of the file.
+@param filename Name of file to read, which must be a local file.
+@param runIndices run indices (0+) to read, or null to read all runs.
+@param slotNames slot names to read, as "ObjectName.SlotName" (case-insensitive), or null to read all slots.
+@param readStart Starting date to initialize period (null to read the entire time series).
+@param readEnd Ending date to initialize period (null to read the entire time series).
+@param units Units to convert to.
+@param readData Indicates whether data should be read (false=no, true=yes).
+*/
+public static List<TS> readTimeSeriesListFromRdf ( String filename, List<Integer> runIndices, List<String> slotNames,
+    DateTime readStart, DateTime readEnd, String units, boolean readData )
+throws IOException {
+    RiverWareRdfIndex index = RiverWareRdfIndex.getIndex ( filename );
+    return index.readTimeSeriesList ( runIndices, slotNames, readStart, readEnd, readData, 0 );
+}
+
 /**
 Read multiple time series from a RiverWare RDF format file.
 @return a pointer to a newly-allocated time series if successful, or null if not.
@@ -627,431 +649,26 @@ Read multiple time series from a RiverWare RDF format file.
 public static List<TS> readTimeSeriesListFromRdf ( String filename, BufferedReader in, DateTime readStart, DateTime readEnd,
     String units, boolean readData )
 throws IOException {
-   String routine = RiverWareTS.class.getSimpleName() + ".readTimeSeriesListFromRdf";
-    TS ts = null;
+    String routine = RiverWareTS.class.getSimpleName() + ".readTimeSeriesListFromRdf";
     ArrayList<TS> tslist = new ArrayList<>();
-    String s, su, s2 = null;
-    int lineCount = 0; // Line being read (so increment before reading).
-    // Package properties.
-    String packageName = "";
-    String packageOwner = "";
-    String packageDescription = "";
-    String packageCreateDate = ""; // Use string because use 24 hour clock.
-    DateTime packageCreateDate_DateTime = null;
-    int packageNumberOfRuns = 0;
-    // Run properties
-    String runStart = "";
-    DateTime runStart_DateTime = null;
-    String runEnd = "";
-    DateTime runEnd_DateTime = null;
-    String runTimeStepUnit = "";
-    TimeInterval runTimeStep_TimeInterval = null;
-    int intervalBase = 0;
-    int intervalMult = 0;
-    int runUnitQuantity = -1;
-    int runTimeSteps = -1;
-    String runSlotSet = "";
-    String runRuleSet = "";
-    int runConsecutive = -1;
-    int runIdxSequential = -1;
-    // Slot properties
-    String slotObjectType = "";
-    String slotObjectName = "";
-    String slotSlotName = "";
-    String slotUnits = "";
-    double slotScale = 1.0;
-    int slotRows = -1;
-    int slotCols = -1;
-    double value = 0.0;
-    boolean slotIsTable = false;
-    // Loop over lines in file and parse - for now do it all linear rather than in separate methods because of data sharing.
-    int colonPos;
-    while ( true ) {
-        ++lineCount;
-        s = in.readLine();
-        if ( s == null ) {
-            break;
-        }
-        // Parse package preamble strings, in order of documentation.
-        s = s.trim();
-        su = s.toUpperCase();
-        colonPos = s.indexOf(":");
-        if ( su.startsWith("#")) {
-            // Comment.
-            continue;
-        }
-        else if ( su.startsWith("NAME:") ) {
-            packageName = ( s.length() >= (colonPos + 1) ? s.substring(colonPos + 1).trim() : "" );
-        }
-        else if ( su.startsWith("OWNER:") ) {
-            packageOwner = ( s.length() >= (colonPos + 1) ? s.substring(colonPos + 1).trim() : "" );
-        }
-        else if ( su.startsWith("DESCRIPTION:") ) {
-            packageDescription = ( s.length() >= (colonPos + 1) ? s.substring(colonPos + 1).trim() : "" );
-        }
-        else if ( su.startsWith("CREATE_DATE:") ) {
-            packageCreateDate = ( s.length() >= (colonPos + 1) ? s.substring(colonPos + 1).trim() : "" );
-            try {
-                // TODO SAM 2013-09-21 Looks like the date string can have single digits rather than zero padded.
-                // Need to add format to parse.
-                packageCreateDate_DateTime = parseRiverWareDateTime(packageCreateDate,DateTime.PRECISION_MINUTE);
-            }
-            catch ( Exception e ) {
-                packageCreateDate_DateTime = null;
-            }
-        }
-        else if ( su.startsWith("NUMBER_OF_RUNS:") ) {
-            s2 = ( s.length() >= (colonPos + 1) ? s.substring(colonPos + 1) : "" );
-            try {
-                packageNumberOfRuns = Integer.parseInt(s2);
-            }
-            catch ( NumberFormatException e ) {
-                throw new IOException ( "number_of_runs (" + s2 + ") is not an integer." );
-            }
-        }
-        else if ( s.equalsIgnoreCase("END_PACKAGE_PREAMBLE") ) {
-            // Break and continue reading run data below.
-            Message.printStatus(2, routine, "Detected END_PACKAGE_PREAMBLE at line " + lineCount );
-            break;
-        }
-    }
+    // The parser retains the package, run, and slot properties as each block of the file is read.
+    RiverWareRdfParser parser = new RiverWareRdfParser ( in );
+    parser.readPackagePreamble();
     // Have read the package preamble ending with END_PACKAGE_PREAMBLE, now start on the runs.
+    int packageNumberOfRuns = parser.getPackagePreamble().numberOfRuns;
     for ( int irun = 0; irun < packageNumberOfRuns; irun++ ) {
         Message.printStatus(2, routine, "Reading run [" + irun + "]" );
-        while ( true ) {
-            ++lineCount;
-            s = in.readLine();
-            if ( s == null ) {
-                break;
-            }
-            // Parse run preamble strings, in order of documentation.
-            s = s.trim();
-            su = s.toUpperCase();
-            colonPos = s.indexOf(":");
-            if ( su.startsWith("START:") ) {
-                runStart = ( s.length() >= (colonPos + 1) ? s.substring(colonPos + 1).trim() : "" );
-            }
-            else if ( su.startsWith("END:") ) {
-                runEnd = ( s.length() >= (colonPos + 1) ? s.substring(colonPos + 1).trim() : "" );
-            }
-            else if ( su.startsWith("TIME_STEP_UNIT:") ) {
-                runTimeStepUnit = ( s.length() >= (colonPos + 1) ? s.substring(colonPos + 1).trim() : "" );
-            }
-            else if ( su.startsWith("UNIT_QUANTITY:") ) {
-                s2 = ( s.length() >= (colonPos + 1) ? s.substring(colonPos + 1).trim() : "" );
-                try {
-                    runUnitQuantity = Integer.parseInt(s2);
-                }
-                catch ( NumberFormatException e ) {
-                    throw new IOException ( "unit_quantity (" + s2 + ") is not an integer." );
-                }
-                if ( runUnitQuantity == 1 ) {
-                    // Handles OK except for "week".
-                    try {
-                        runTimeStep_TimeInterval = TimeInterval.parseInterval(runTimeStepUnit);
-                    }
-                    catch ( Exception e ) {
-                        throw new IOException ( "time_step_unit (" + runTimeStepUnit + ") is not recognized." );
-                    }
-                }
-                else {
-                    try {
-                        runTimeStep_TimeInterval = TimeInterval.parseInterval("" + runUnitQuantity + runTimeStepUnit );
-                    }
-                    catch ( Exception e ) {
-                        throw new IOException ( "time_step_unit (" + runTimeStepUnit + ") and unit_quantity (" + runUnitQuantity +
-                            ") are not recognized." );
-                    }
-                }
-                intervalBase = runTimeStep_TimeInterval.getBase();
-                intervalMult = runTimeStep_TimeInterval.getMultiplier();
-                // Now know the interval so can get the start and end to the proper precision.
-                runStart_DateTime = parseRiverWareDateTime(runStart,runTimeStep_TimeInterval.getBase());
-                runEnd_DateTime = parseRiverWareDateTime(runEnd,runTimeStep_TimeInterval.getBase());
-            }
-            else if ( su.startsWith("TIME_STEPS:") ) {
-                s2 = ( s.length() >= (colonPos + 1) ? s.substring(colonPos + 1).trim() : "" );
-                try {
-                    runTimeSteps = Integer.parseInt(s2);
-                }
-                catch ( NumberFormatException e ) {
-                    throw new IOException ( "time_steps (" + s2 + ") is not an integer." );
-                }
-            }
-            else if ( su.startsWith("SLOT_SET:") ) {
-                runSlotSet = ( s.length() >= (colonPos + 1) ? s.substring(colonPos + 1).trim() : "" );
-            }
-            else if ( su.startsWith("RULE_SET:") ) {
-                runRuleSet = ( s.length() >= (colonPos + 1) ? s.substring(colonPos + 1).trim() : "" );
-            }
-            else if ( su.startsWith("CONSECUTIVE:") ) {
-                s2 = ( s.length() >= (colonPos + 1) ? s.substring(colonPos + 1).trim() : "" );
-                try {
-                    runConsecutive = Integer.parseInt(s2);
-                }
-                catch ( NumberFormatException e ) {
-                    throw new IOException ( "consecutive (" + s2 + ") is not an integer." );
-                }
-                if ( runConsecutive == 1 ) {
-                    throw new IOException ( "Only consecutive=0 is currently supported." );
-                }
-            }
-            else if ( su.startsWith("IDX_SEQUENTIAL:") ) {
-                s2 = ( s.length() >= (colonPos + 1) ? s.substring(colonPos + 1).trim() : "" );
-                try {
-                    runIdxSequential = Integer.parseInt(s2);
-                }
-                catch ( NumberFormatException e ) {
-                    throw new IOException ( "idx_sequential (" + s2 + ") is not an integer." );
-                }
-            }
-            else if ( s.equalsIgnoreCase("END_RUN_PREAMBLE") ) {
-                Message.printStatus(2, routine, "Detected END_RUN_PREAMBLE at line " + lineCount );
-                break;
-            }
-        }
-        // If here the run preamble has been read.
-        // Next read the dates for the run if time series or row numbers if a table.
-        // TODO SAM 2013-09-21 is there any need to keep these and use later?.
-        // If regular data the run start and end should match.
-        for ( int idate = 0; idate < runTimeSteps; idate++ ) {
-            ++lineCount;
-            s = in.readLine();
-            if ( (idate == 0) && (s.indexOf("-") > 0) ) {
-                // Assume this is a time series with a date string.
-                // Make sure date matches the run start.
-                DateTime d1 = parseRiverWareDateTime(s.trim(),runTimeStep_TimeInterval.getBase());
-                if ( !d1.equals(runStart_DateTime)) {
-                    throw new IOException ( "At line " + lineCount + " date/time does not match start date/time." );
-                }
-            }
-            else if ( (idate == (runTimeSteps - 1)) && (s.indexOf("-") > 0) ) {
-                // Assume this is a time series with a date string.
-                // Make sure date matches the run end.
-                DateTime d2 = parseRiverWareDateTime(s.trim(),runTimeStep_TimeInterval.getBase());
-                if ( !d2.equals(runEnd_DateTime)) {
-                    throw new IOException ( "At line " + lineCount + " date/time does not match end date/time." );
-                }
-            }
-        }
-        Message.printStatus(2, routine, "Read last run date/time (or column row number) at line " + lineCount );
+        parser.readRunPreamble();
         // Read the slot data.  There is not property to indicate how many slots so have to loop until END_RUN indicates
         // that all slots are read for the run.
-        boolean readingSlotsForRun = true;
-        while ( readingSlotsForRun ) {
-            // These two while statements could probably be joined but as shown clearly indicate separate blocks of data.
-            Message.printStatus(2, routine, "Start reading slot data at line " + (lineCount + 1));
-            while ( true ) {
-                ++lineCount;
-                s = in.readLine();
-                if ( s == null ) {
-                    // Premature end of file, break out of slot loop and let other code continue error handling.
-                    readingSlotsForRun = false;
-                    break;
-                }
-                s = s.trim();
-                su = s.toUpperCase();
-                if ( su.equals("END_RUN") ) {
-                    // Done processing slots for run - break out of while and go back to for loop for run.
-                    Message.printStatus(2, routine, "Detected END_RUN at line " + lineCount );
-                    readingSlotsForRun = false;
-                    break;
-                }
-                colonPos = s.indexOf(":");
-                // Parse slot preamble strings, in order of documentation.
-                if ( su.startsWith("OBJECT_TYPE:") ) {
-                    slotObjectType = ( s.length() >= (colonPos + 1) ? s.substring(colonPos + 1).trim() : "" );
-                    Message.printStatus(2, routine, "Detected OBJECT_TYPE at line " + lineCount );
-                    // TODO SAM 2013-09-21 Maybe this indicates whether a time series or table?
-                }
-                else if ( su.startsWith("OBJECT_NAME:") ) {
-                    slotObjectName = ( s.length() >= (colonPos + 1) ? s.substring(colonPos + 1).trim() : "" );
-                    Message.printStatus(2, routine, "Detected OBJECT_NAME at line " + lineCount );
-                }
-                else if ( su.startsWith("SLOT_NAME:") ) {
-                    slotSlotName = ( s.length() >= (colonPos + 1) ? s.substring(colonPos + 1).trim() : "" );
-                    Message.printStatus(2, routine, "Detected SLOT_NAME at line " + lineCount );
-                }
-                else if ( su.startsWith("ROWS:") ) {
-                    // Indicates a table rather than time series.
-                    slotIsTable = true;
-                    try {
-                        s2 = ( s.length() >= (colonPos + 1) ? s.substring(colonPos + 1).trim() : "" );
-                        slotRows = Integer.parseInt(s2);
-                    }
-                    catch ( NumberFormatException e ) {
-                        throw new IOException ( "At line " + lineCount + " \"rows\" (" + s2 + ") is not an integer." );
-                    }
-                    Message.printStatus(2, routine, "Detected ROWS at line " + lineCount + " data object is table.  Will read but ignore." );
-                }
-                else if ( su.startsWith("COLS:") ) {
-                    // Used with table.
-                    try {
-                        s2 = ( s.length() >= (colonPos + 1) ? s.substring(colonPos + 1).trim() : "" );
-                        slotCols = Integer.parseInt(s2);
-                    }
-                    catch ( NumberFormatException e ) {
-                        throw new IOException ( "At line " + lineCount + " \"cols\" (" + s2 + ") is not an integer." );
-                    }
-                }
-                else if ( su.equals("END_SLOT_PREAMBLE") ) {
-                    Message.printStatus(2, routine, "Detected END_SLOT_PREAMBLE at line " + lineCount );
-                    break;
-                }
-            }
-            if ( !readingSlotsForRun ) {
-                // Need to break out of this level also because END_RUN was detected.
-                break;
-            }
-            // If here the slot preamble has been read.
-            // Read the data for the slot.
-            if ( slotIsTable ) {
-                // Reading a table.
-                // TODO SAM 2013-09-21 Need to actually handle table - for now just handle time series.
-                Message.printStatus(2, routine, "Start reading table at line " + lineCount );
-                for ( int irow = 0; irow < slotRows; irow++ ) {
-                    ++lineCount;
-                    s = in.readLine();
-                }
-                for ( int icol = 0; icol < slotCols; icol++ ) {
-                    ++lineCount;
-                    s = in.readLine();
-                    colonPos = s.indexOf(":");
-                    slotUnits = ( s.length() >= (colonPos + 1) ? s.substring(colonPos + 1).trim() : "" );
-                    ++lineCount;
-                    s = in.readLine();
-                    colonPos = s.indexOf(":");
-                    s2 = ( s.length() >= (colonPos + 1) ? s.substring(colonPos + 1).trim() : "" );
-                    try {
-                        s2 = ( s.length() >= (colonPos + 1) ? s.substring(colonPos + 1).trim() : "" );
-                        slotScale = Double.parseDouble(s2);
-                    }
-                    catch ( NumberFormatException e ) {
-                        throw new IOException ( "At line " + lineCount + " \"slot_scale\" (" + s2 + ") is not a number." );
-                    }
-                    for ( int irow = 0; irow < slotRows; irow++ ) {
-                        ++lineCount;
-                        s = in.readLine();
-                    }
-                }
-            }
-            else {
-                // Reading a time series, one value per dates that were read in the run preamble.
-                Message.printStatus(2, routine, "Slot is time series.  Starting to read at line " + (lineCount + 1) );
-                ++lineCount;
-                s = in.readLine();
-                colonPos = s.indexOf(":");
-                slotUnits = ( s.length() >= (colonPos + 1) ? s.substring(colonPos + 1).trim() : "" );
-                ++lineCount;
-                s = in.readLine();
-                colonPos = s.indexOf(":");
-                s2 = ( s.length() >= (colonPos + 1) ? s.substring(colonPos + 1).trim() : "" );
-                try {
-                    slotScale = Double.parseDouble(s2);
-                }
-                catch ( NumberFormatException e ) {
-                    throw new IOException ( "At line " + lineCount + " \"slot_scale\" (" + s2 + ") is not a number." );
-                }
-                // Create the time series.
-                String tsid = slotObjectName + ".RiverWare." + slotSlotName + "." + runTimeStep_TimeInterval;
-                DateTime fileStart = new DateTime(runStart_DateTime);
-                DateTime fileEnd = new DateTime(runEnd_DateTime);
-                if ( ((runConsecutive == 0) && (packageNumberOfRuns > 1)) || (runIdxSequential == 1) ) {
-                    // runConsecutive=0 means that a single run was done over the period start to end (?).
-                    // runIdxSequential means that overlapping runs were made, with resequenced historical input.
-                    // The run dates are already overlapping.  Set the sequence number to the year of the date for the run..
-                    // TODO SAM 2013-09-21 Are the index sequential years truly sequential or can they be mixed?.
-                    //int sequenceNum = fileStart.getYear() + irun;
-                    // TODO SAM what is the unique identifier for the sequence number?  Year of historical trace, some other
-                    // metadata?
-                    int sequenceNum = irun + 1;
-                    tsid = tsid + TSIdent.SEQUENCE_NUMBER_LEFT + sequenceNum + TSIdent.SEQUENCE_NUMBER_RIGHT;
-                }
-                Message.printStatus(2, routine, "Creating time series \"" + tsid + "\"" );
-                try {
-                    ts = TSUtil.newTimeSeries(tsid, true);
-                }
-                catch ( Exception e ) {
-                    throw new IOException ( "Error creating time series using TSID \"" + tsid + "\" (" + e + ")." );
-                }
-                try {
-                    ts.setIdentifier ( tsid );
-                }
-                catch ( Exception e ) {
-                    throw new IOException ( "Error setting time seriies identifier \"" + tsid + "\" (" + e + ").");
-                }
-                if ( readStart != null ) {
-                    ts.setDate1(readStart);
-                }
-                else {
-                    ts.setDate1(fileStart);
-                }
-                if ( readEnd != null ) {
-                    ts.setDate2(readEnd);
-                }
-                else {
-                    ts.setDate2(fileEnd);
-                }
-                ts.setDate1Original(fileStart);
-                ts.setDate2Original(fileEnd);
-                ts.setDataUnits(slotUnits);
-                ts.setDataUnitsOriginal(slotUnits);
-                // Set all the properties (some of these also will be used for the ensemble if ensembles are read.
-                ts.setProperty("PackageName", packageName);
-                ts.setProperty("PackageOwner", packageOwner);
-                ts.setProperty("PackageDescription", packageDescription);
-                ts.setProperty("PackageCreateDate", packageCreateDate_DateTime);
-                ts.setProperty("PackageNumberOfRuns", Integer.valueOf(packageNumberOfRuns));
-                ts.setProperty("RunConsecutive", Integer.valueOf(runConsecutive));
-                ts.setProperty("RunIdxSequential", Integer.valueOf(runIdxSequential));
-                ts.setProperty("RunSlotSet", runSlotSet);
-                ts.setProperty("RunRuleSet", runRuleSet);
-                ts.setProperty("SlotObjectType", slotObjectType);
-                ts.setProperty("SlotObjectName", slotObjectName);
-                ts.setProperty("SlotSlotName", slotSlotName);
-                ts.getIdentifier().setInputType("RiverWare");
-                ts.getIdentifier().setInputName(filename);
-                if ( readData ) {
-                    ts.allocateDataSpace();
-                }
+        while ( parser.readSlotPreamble() ) {
+            TS ts = parser.readSlotData ( filename, irun, readStart, readEnd, readData, true );
+            if ( ts != null ) {
                 tslist.add ( ts );
-                // Use the file date to read through data but time series will only have data within period.
-                DateTime date = new DateTime(fileStart);
-                for ( int istep = 0; istep < runTimeSteps; istep++ ) {
-                    ++lineCount;
-                    s = in.readLine().trim();
-                    if ( readData ) {
-                        if ( s.equalsIgnoreCase("NaN")) {
-                            // Missing value.  Don't need to set anything.
-                        }
-                        else {
-                            // Parse the value.
-                            value = Double.parseDouble(s);
-                            //Message.printStatus(2,routine,"Setting " + date + " " + value );
-                            ts.setDataValue(date, slotScale*value);
-                        }
-                    }
-                    date.addInterval(intervalBase,intervalMult);
-                }
-                Message.printStatus(2, routine, "Read last slot time series value at line " + lineCount );
-            }
-            // Read and check for expected end of data.
-            ++lineCount;
-            s = in.readLine();
-            if ( !s.toUpperCase().equals("END_COLUMN") ) {
-                throw new IOException ( "At line " + lineCount + " expecting END_COLUMN, have: " + s );
-            }
-            Message.printStatus(2, routine, "Detected END_COLUMN at line " + lineCount );
-            ++lineCount;
-            s = in.readLine();
-            if ( !s.toUpperCase().equals("END_SLOT") ) {
-                throw new IOException ( "At line " + lineCount + " expecting END_SLOT, have: " + s );
             }
-            Message.printStatus(2, routine, "Detected END_SLOT at line " + lineCount );
-            // At top of loop will look for END_RUN and if that is not found, another slot for the run will be read.
-        } // Loop on slots in run.
-    } // Loop on runs.
-    Message.printStatus(2, routine, "Processed " + lineCount + " lines" );
+        }
+    }
+    Message.printStatus(2, routine, "Processed " + parser.getLineCount() + " lines" );
     return tslist;
 }
 
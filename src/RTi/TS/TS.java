@@ -78,6 +78,7 @@ import java.io.PrintWriter;
 import java.io.Serializable;
 import java.lang.String;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -2391,4 +2392,130 @@ public void setVersion( String version ) {
 	}
 }
 
+/**
+Return the data values for the period of a regular interval time series as an array, in date order.
+The base class calls getDataValue() for each date in the period.
+Derived classes that store data values in arrays override this method to copy the data space directly.
+@return the data values for the period, including missing values
+*/
+public double [] getDataValues () {
+	return getDataValuesByDate ();
+}
+
+/**
+Copy data values from a data space that is organized as rows of values, such as a month of days.
+This is called by derived classes that store data values in arrays.
+@param data data space to copy from
+@param lastRow last row in the data space to copy
+@param firstColumn first position in the first row to copy
+@param lastColumn last position in the last row to copy
+@return the data values in the data space, in date order
+*/
+protected double [] getDataValues ( double [][] data, int lastRow, int firstColumn, int lastColumn ) {
+	// First determine the number of values and then copy.
+	int size = 0;
+	for ( int row = 0; row <= lastRow; row++ ) {
+		size += Math.max ( 0, getDataValuesLastColumn(data, row, lastRow, lastColumn) - ((row == 0) ? firstColumn : 0) + 1 );
+	}
+	double [] values = new double[size];
+	int count = 0;
+	for ( int row = 0; row <= lastRow; row++ ) {
+		int first = (row == 0) ? firstColumn : 0;
+		int n = getDataValuesLastColumn(data, row, lastRow, lastColumn) - first + 1;
+		if ( n > 0 ) {
+			System.arraycopy ( data[row], first, values, count, n );
+			count += n;
+		}
+	}
+	return values;
+}
+
+/**
+Return the last position to copy in a row of the data space, used by getDataValues().
+*/
+private int getDataValuesLastColumn ( double [][] data, int row, int lastRow, int lastColumn ) {
+	if ( row == lastRow ) {
+		return Math.min ( (data[row].length - 1), lastColumn );
+	}
+	return data[row].length - 1;
+}
+
+/**
+Return the data values for the period of a regular interval time series as an array, in date order,
+by calling getDataValue() for each date in the period.
+Derived classes can call this method if the data space of the parent class is not used.
+@return the data values for the period, including missing values
+*/
+protected double [] getDataValuesByDate () {
+	if ( (getDate1() == null) || (getDate2() == null) ) {
+		return new double[0];
+	}
+	DateTime date = new DateTime ( getDate1() );
+	DateTime end_date = new DateTime ( getDate2() );
+	int interval_base = getDataIntervalBase();
+	int interval_mult = getDataIntervalMult();
+	double [] values = new double[Math.max(16,getDataSize())];
+	int count = 0;
+	for ( ; date.lessThanOrEqualTo(end_date); date.addInterval(interval_base, interval_mult) ) {
+		if ( count == values.length ) {
+			values = Arrays.copyOf ( values, values.length*2 );
+		}
+		values[count++] = getDataValue ( date );
+	}
+	return (count == values.length) ? values : Arrays.copyOf ( values, count );
+}
+
+/**
+Transform the non-missing data values in the period of the time series, setting each value to add + value*mult.
+This is used, for example, to convert data units.
+The base class calls getDataValue() and setDataValue() for each date in the period.
+Derived classes that store data values in arrays override this method to process the data space in one pass.
+@param mult multiplication factor
+@param add addition factor
+*/
+public void transformDataValues ( double mult, double add ) {
+	transformDataValuesByDate ( mult, add );
+}
+
+/**
+Transform the non-missing values in part of a data array, setting each value to add + value*mult.
+This is called by derived classes that store data values in arrays.
+@param data data array to transform
+@param first first position in the array to transform
+@param last last position in the array to transform
+@param mult multiplication factor
+@param add addition factor
+*/
+protected void transformDataValues ( double [] data, int first, int last, double mult, double add ) {
+	double value;
+	for ( int i = first; i <= last; i++ ) {
+		value = data[i];
+		if ( !isDataMissing(value) ) {
+			data[i] = add + value*mult;
+			_dirty = true;
+		}
+	}
+}
+
+/**
+Transform the non-missing data values in the period of a regular interval time series, setting each value to add + value*mult,
+by calling getDataValue() and setDataValue() for each date in the period.
+Derived classes can call this method if the data space of the parent class is not used.
+@param mult multiplication factor
+@param add addition factor
+*/
+protected void transformDataValuesByDate ( double mult, double add ) {
+	DateTime date = new DateTime ( getDate1() );
+	DateTime end_date = new DateTime ( getDate2() );
+	int interval_base = getDataIntervalBase();
+	int interval_mult = getDataIntervalMult();
+	double value;
+	for ( ; date.lessThanOrEqualTo(end_date); date.addInterval(interval_base, interval_mult) ) {
+		value = getDataValue ( date );
+		if ( !isDataMissing(value) ) {
+			setDataValue ( date, add + value*mult );
+		}
+	}
+}
+
 }
\ No newline at end of file
@@ -28,6 +28,8 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Vector;
 
+import RTi.Util.Time.DateTime;
+
 /**
 A collection for time series, to be represented as an ensemble.  At this time, it
 is expected that each time series has been created or read using code that
@@ -214,6 +216,19 @@ public Object getProperty ( String propertyName )
     return __property_HashMap.get ( propertyName );
 }
 
+/**
+Return an aligned, time-major matrix of the trace values, using the interval of the first trace.
+The matrix is created each time this method is called, so callers that compute several statistics should
+reuse the returned matrix.
+@param start first date/time for the matrix
+@param end last date/time for the matrix
+@return matrix of the trace values for the period
+*/
+public TSEnsembleMatrix getMatrix ( DateTime start, DateTime end )
+{
+    return new TSEnsembleMatrix ( __tslist, start, end );
+}
+
 /**
 Return the time series list.
 @param copyList if true, the list is copied (but the time series contents remain the same).
@@ -0,0 +1,563 @@
+// TSEnsembleMatrix - aligned, time-major matrix of ensemble trace values
+
+/* NoticeStart
+
+CDSS Common Java Library
+CDSS Common Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2025 Colorado Department of Natural Resources
+
+CDSS Common Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+CDSS Common Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with CDSS Common Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package RTi.TS;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import RTi.Util.IO.DaemonThreadPool;
+import RTi.Util.Math.MathUtil;
+import RTi.Util.Time.DateTime;
+import RTi.Util.Time.TimeInterval;
+
+/**
+Aligned, time-major matrix of the values of ensemble traces.
+The values for all traces are copied once into a single primitive array, with the values for each time step
+stored next to each other, so that ensemble statistics can be computed for a time step without looking up
+each trace by date/time.  Missing values are stored as NaN, regardless of the missing value for the trace.
+Traces that have the same regular interval as the matrix are copied using the trace data array,
+and other traces are copied by date/time.
+The matrix is a snapshot and does not change if the traces are modified after it is created.
+Statistics can be computed in parallel, with each thread processing a block of time steps.
+*/
+public class TSEnsembleMatrix
+{
+
+/**
+Minimum number of time steps in a block when computing statistics in parallel.
+*/
+private static final int MIN_BLOCK_SIZE = 256;
+
+/**
+First date/time in the matrix.
+*/
+private DateTime date1 = null;
+
+/**
+Interval base for the matrix time steps.
+*/
+private int intervalBase;
+
+/**
+Interval multiplier for the matrix time steps.
+*/
+private int intervalMult;
+
+/**
+Number of traces (columns).
+*/
+private int traceCount;
+
+/**
+Number of time steps (rows).
+*/
+private int timeCount;
+
+/**
+Values, indexed by [step*traceCount + trace], with missing values as NaN.
+*/
+private double [] values;
+
+/**
+Create a matrix for a list of traces, using the interval of the first trace.
+@param tslist traces to include in the matrix, null traces are treated as having all missing values
+@param start first date/time for the matrix
+@param end last date/time for the matrix
+*/
+public TSEnsembleMatrix ( List<TS> tslist, DateTime start, DateTime end ) {
+	this ( tslist, start, end, getFirstIntervalBase(tslist), getFirstIntervalMult(tslist) );
+}
+
+/**
+Create a matrix for a list of traces.
+@param tslist traces to include in the matrix, null traces are treated as having all missing values
+@param start first date/time for the matrix
+@param end last date/time for the matrix
+@param intervalBase interval base for matrix time steps, must be a regular interval
+@param intervalMult interval multiplier for matrix time steps
+*/
+public TSEnsembleMatrix ( List<TS> tslist, DateTime start, DateTime end, int intervalBase, int intervalMult ) {
+	if ( (start == null) || (end == null) ) {
+		throw new IllegalArgumentException ( "Start and end date/time must be specified to create ensemble matrix." );
+	}
+	if ( !TimeInterval.isRegularInterval(intervalBase) || (intervalMult <= 0) ) {
+		throw new IllegalArgumentException ( "Ensemble matrix requires a regular interval." );
+	}
+	this.date1 = new DateTime ( start );
+	this.intervalBase = intervalBase;
+	this.intervalMult = intervalMult;
+	this.traceCount = tslist.size();
+	int count = 0;
+	for ( DateTime date = new DateTime(start); date.lessThanOrEqualTo(end); date.addInterval(intervalBase, intervalMult) ) {
+		++count;
+	}
+	this.timeCount = count;
+	long size = (long)this.timeCount*this.traceCount;
+	if ( size > Integer.MAX_VALUE ) {
+		throw new IllegalArgumentException ( "Ensemble matrix with " + this.traceCount + " traces and " +
+			this.timeCount + " time steps is too large." );
+	}
+	this.values = new double[(int)size];
+	for ( int trace = 0; trace < this.traceCount; trace++ ) {
+		TS ts = tslist.get(trace);
+		if ( ts == null ) {
+			for ( int step = 0; step < this.timeCount; step++ ) {
+				this.values[step*this.traceCount + trace] = Double.NaN;
+			}
+		}
+		else if ( !fillFromArray ( ts, trace ) ) {
+			fillByDate ( ts, trace );
+		}
+	}
+}
+
+/**
+Compute a statistic for each time step.
+Values for the time step that are missing are not included in the sample.
+@param statisticType statistic to compute, see isStatisticSupported()
+@param testValue value used for statistics that compare sample values (e.g., GE_COUNT) or
+for EXCEEDANCE_PROBABILITY and NONEXCEEDANCE_PROBABILITY, the probability as a fraction
+@param allowMissingCount the number of missing values allowed in the sample to compute the statistic, or -1 to not check
+@param minimumSampleSize the minimum number of non-missing values in the sample to compute the statistic, or -1 to not check
+@param threadCount number of threads to use from the shared DaemonThreadPool, or 0 to use the number of available processors
+@return statistic value for each time step, NaN if the statistic could not be computed for the time step
+*/
+public double [] computeStatistic ( TSStatisticType statisticType, double testValue, int allowMissingCount,
+	int minimumSampleSize, int threadCount ) {
+	if ( !isStatisticSupported(statisticType) ) {
+		throw new IllegalArgumentException ( "Statistic " + statisticType + " is not supported for ensemble matrix." );
+	}
+	double [] results = new double[this.timeCount];
+	if ( threadCount <= 0 ) {
+		threadCount = Runtime.getRuntime().availableProcessors();
+	}
+	int blockCount = Math.min ( threadCount*4, (this.timeCount + MIN_BLOCK_SIZE - 1)/MIN_BLOCK_SIZE );
+	if ( (threadCount <= 1) || (blockCount <= 1) ) {
+		computeStatistic ( statisticType, testValue, allowMissingCount, minimumSampleSize, 0, this.timeCount, results );
+		return results;
+	}
+	List<Callable<Object>> tasks = new ArrayList<>(blockCount);
+	int blockSize = (this.timeCount + blockCount - 1)/blockCount;
+	for ( int step1 = 0; step1 < this.timeCount; step1 += blockSize ) {
+		int step1Final = step1;
+		int step2 = Math.min ( this.timeCount, step1 + blockSize );
+		tasks.add ( () -> {
+			computeStatistic ( statisticType, testValue, allowMissingCount, minimumSampleSize, step1Final, step2, results );
+			return null;
+		});
+	}
+	try {
+		for ( Future<Object> future : DaemonThreadPool.invokeAll(tasks, threadCount) ) {
+			future.get();
+		}
+	}
+	catch ( ExecutionException e ) {
+		if ( e.getCause() instanceof RuntimeException ) {
+			throw (RuntimeException)e.getCause();
+		}
+		throw new RuntimeException ( e.getCause() );
+	}
+	catch ( InterruptedException e ) {
+		Thread.currentThread().interrupt();
+		throw new RuntimeException ( "Interrupted computing ensemble statistic.", e );
+	}
+	return results;
+}
+
+/**
+Compute a statistic for a block of time steps.
+@param step1 first time step to process
+@param step2 time step after the last time step to process
+@param results array to receive the results
+*/
+private void computeStatistic ( TSStatisticType statisticType, double testValue, int allowMissingCount,
+	int minimumSampleSize, int step1, int step2, double [] results ) {
+	// Sample has the same size as the ensemble so results are the same as passing a full sample to MathUtil.
+	double [] sample = new double[this.traceCount];
+	for ( int step = step1; step < step2; step++ ) {
+		int offset = step*this.traceCount;
+		int countNonMissing = 0;
+		double sum = 0.0;
+		for ( int trace = 0; trace < this.traceCount; trace++ ) {
+			double value = this.values[offset + trace];
+			if ( !Double.isNaN(value) ) {
+				sample[countNonMissing++] = value;
+				sum += value;
+			}
+		}
+		int countMissing = this.traceCount - countNonMissing;
+		double result = Double.NaN;
+		if ( ((allowMissingCount >= 0) && (countMissing > allowMissingCount)) ||
+			((minimumSampleSize >= 0) && (countNonMissing < minimumSampleSize)) ) {
+			results[step] = result;
+			continue;
+		}
+		switch ( statisticType ) {
+			case EXCEEDANCE_PROBABILITY:
+				if ( countNonMissing > 0 ) {
+					result = MathUtil.exceedanceProbabilityValue(countNonMissing,sample,testValue);
+				}
+				break;
+			case EXCEEDANCE_PROBABILITY_10:
+			case EXCEEDANCE_PROBABILITY_30:
+			case EXCEEDANCE_PROBABILITY_50:
+			case EXCEEDANCE_PROBABILITY_70:
+			case EXCEEDANCE_PROBABILITY_90:
+				if ( countNonMissing > 0 ) {
+					result = MathUtil.exceedanceProbabilityValue(countNonMissing,sample,getProbability(statisticType));
+				}
+				break;
+			case NONEXCEEDANCE_PROBABILITY:
+				if ( countNonMissing > 0 ) {
+					result = MathUtil.nonexceedanceProbabilityValue(countNonMissing,sample,testValue);
+				}
+				break;
+			case NONEXCEEDANCE_PROBABILITY_10:
+			case NONEXCEEDANCE_PROBABILITY_30:
+			case NONEXCEEDANCE_PROBABILITY_50:
+			case NONEXCEEDANCE_PROBABILITY_70:
+			case NONEXCEEDANCE_PROBABILITY_90:
+				if ( countNonMissing > 0 ) {
+					result = MathUtil.nonexceedanceProbabilityValue(countNonMissing,sample,getProbability(statisticType));
+				}
+				break;
+			case GE_COUNT:
+			case GT_COUNT:
+			case LE_COUNT:
+			case LT_COUNT:
+				result = countTest ( statisticType, countNonMissing, sample, testValue );
+				break;
+			case GE_PERCENT:
+			case GT_PERCENT:
+			case LE_PERCENT:
+			case LT_PERCENT:
+				if ( countNonMissing > 0 ) {
+					result = 100.0*countTest ( statisticType, countNonMissing, sample, testValue )/(double)countNonMissing;
+				}
+				break;
+			case GEOMETRIC_MEAN:
+				if ( countNonMissing > 0 ) {
+					result = MathUtil.geometricMean(countNonMissing,sample);
+				}
+				break;
+			case MAX:
+				if ( countNonMissing > 0 ) {
+					result = sample[0];
+					for ( int i = 1; i < countNonMissing; i++ ) {
+						if ( sample[i] > result ) {
+							result = sample[i];
+						}
+					}
+				}
+				break;
+			case MEAN:
+				if ( countNonMissing > 0 ) {
+					result = sum/(double)countNonMissing;
+				}
+				break;
+			case MEDIAN:
+				if ( countNonMissing > 0 ) {
+					result = MathUtil.median(countNonMissing,sample);
+				}
+				break;
+			case MIN:
+				if ( countNonMissing > 0 ) {
+					result = sample[0];
+					for ( int i = 1; i < countNonMissing; i++ ) {
+						if ( sample[i] < result ) {
+							result = sample[i];
+						}
+					}
+				}
+				break;
+			case MISSING_COUNT:
+				result = countMissing;
+				break;
+			case MISSING_PERCENT:
+				result = 100.0*countMissing/(double)this.traceCount;
+				break;
+			case NONMISSING_COUNT:
+				result = countNonMissing;
+				break;
+			case NONMISSING_PERCENT:
+				result = 100.0*countNonMissing/(double)this.traceCount;
+				break;
+			case SKEW:
+				if ( countNonMissing >= 3 ) {
+					result = MathUtil.skew(countNonMissing,sample);
+				}
+				break;
+			case STD_DEV:
+				if ( countNonMissing >= 2 ) {
+					result = MathUtil.standardDeviation(countNonMissing,sample);
+				}
+				break;
+			case TOTAL:
+				if ( countNonMissing > 0 ) {
+					result = sum;
+				}
+				break;
+			default:
+				break;
+		}
+		results[step] = result;
+	}
+}
+
+/**
+Count the sample values that pass the test for a count or percent statistic.
+*/
+private static int countTest ( TSStatisticType statisticType, int countNonMissing, double [] sample, double testValue ) {
+	int count = 0;
+	if ( (statisticType == TSStatisticType.GE_COUNT) || (statisticType == TSStatisticType.GE_PERCENT) ) {
+		for ( int i = 0; i < countNonMissing; i++ ) {
+			if ( sample[i] >= testValue ) {
+				++count;
+			}
+		}
+	}
+	else if ( (statisticType == TSStatisticType.GT_COUNT) || (statisticType == TSStatisticType.GT_PERCENT) ) {
+		for ( int i = 0; i < countNonMissing; i++ ) {
+			if ( sample[i] > testValue ) {
+				++count;
+			}
+		}
+	}
+	else if ( (statisticType == TSStatisticType.LE_COUNT) || (statisticType == TSStatisticType.LE_PERCENT) ) {
+		for ( int i = 0; i < countNonMissing; i++ ) {
+			if ( sample[i] <= testValue ) {
+				++count;
+			}
+		}
+	}
+	else {
+		for ( int i = 0; i < countNonMissing; i++ ) {
+			if ( sample[i] < testValue ) {
+				++count;
+			}
+		}
+	}
+	return count;
+}
+
+/**
+Copy the values for a trace using the trace data array, if the trace is aligned with the matrix.
+@param ts trace to copy
+@param trace trace position in the matrix
+@return true if the values were copied, false if the trace must be copied by date/time
+*/
+private boolean fillFromArray ( TS ts, int trace ) {
+	if ( (ts.getDataIntervalBase() != this.intervalBase) || (ts.getDataIntervalMult() != this.intervalMult) ||
+		!TSUtil_ChangeInterval_InputArray.isSupported(ts) ) {
+		return false;
+	}
+	long delta = TSUtil_ChangeInterval_InputArray.getAbsolute(ts.getDate1(), this.intervalBase) -
+		TSUtil_ChangeInterval_InputArray.getAbsolute(this.date1, this.intervalBase);
+	if ( (delta % this.intervalMult) != 0 ) {
+		return false;
+	}
+	// Matrix time step for the first value in the trace array.
+	long firstStep = delta/this.intervalMult;
+	double [] tsValues = ts.getDataValues();
+	for ( int step = 0; step < this.timeCount; step++ ) {
+		long pos = step - firstStep;
+		double value = ts.getMissing();
+		if ( (pos >= 0) && (pos < tsValues.length) ) {
+			value = tsValues[(int)pos];
+		}
+		this.values[step*this.traceCount + trace] = ts.isDataMissing(value) ? Double.NaN : value;
+	}
+	return true;
+}
+
+/**
+Copy the values for a trace by date/time.
+@param ts trace to copy
+@param trace trace position in the matrix
+*/
+private void fillByDate ( TS ts, int trace ) {
+	DateTime date = new DateTime ( this.date1 );
+	for ( int step = 0; step < this.timeCount; step++, date.addInterval(this.intervalBase, this.intervalMult) ) {
+		double value = ts.getDataValue ( date );
+		this.values[step*this.traceCount + trace] = ts.isDataMissing(value) ? Double.NaN : value;
+	}
+}
+
+/**
+Return the first date/time in the matrix.
+@return the first date/time in the matrix (a copy)
+*/
+public DateTime getDate1 () {
+	return new DateTime ( this.date1 );
+}
+
+/**
+Return the interval base for the first trace, or TimeInterval.UNKNOWN if no traces.
+*/
+private static int getFirstIntervalBase ( List<TS> tslist ) {
+	for ( TS ts : tslist ) {
+		if ( ts != null ) {
+			return ts.getDataIntervalBase();
+		}
+	}
+	return TimeInterval.UNKNOWN;
+}
+
+/**
+Return the interval multiplier for the first trace, or 0 if no traces.
+*/
+private static int getFirstIntervalMult ( List<TS> tslist ) {
+	for ( TS ts : tslist ) {
+		if ( ts != null ) {
+			return ts.getDataIntervalMult();
+		}
+	}
+	return 0;
+}
+
+/**
+Return the interval base for the matrix time steps.
+@return the interval base for the matrix time steps
+*/
+public int getIntervalBase () {
+	return this.intervalBase;
+}
+
+/**
+Return the interval multiplier for the matrix time steps.
+@return the interval multiplier for the matrix time steps
+*/
+public int getIntervalMult () {
+	return this.intervalMult;
+}
+
+/**
+Return the probability as a fraction for an exceedance or non-exceedance statistic with a fixed probability.
+*/
+private static double getProbability ( TSStatisticType statisticType ) {
+	switch ( statisticType ) {
+		case EXCEEDANCE_PROBABILITY_10:
+		case NONEXCEEDANCE_PROBABILITY_10:
+			return .1;
+		case EXCEEDANCE_PROBABILITY_30:
+		case NONEXCEEDANCE_PROBABILITY_30:
+			return .3;
+		case EXCEEDANCE_PROBABILITY_50:
+		case NONEXCEEDANCE_PROBABILITY_50:
+			return .5;
+		case EXCEEDANCE_PROBABILITY_70:
+		case NONEXCEEDANCE_PROBABILITY_70:
+			return .7;
+		default:
+			return .9;
+	}
+}
+
+/**
+Return the number of time steps (rows) in the matrix.
+@return the number of time steps in the matrix
+*/
+public int getTimeCount () {
+	return this.timeCount;
+}
+
+/**
+Return the number of traces (columns) in the matrix.
+@return the number of traces in the matrix
+*/
+public int getTraceCount () {
+	return this.traceCount;
+}
+
+/**
+Return a value from the matrix.
+@param step time step, 0+
+@param trace trace position, 0+
+@return the value, NaN if missing
+*/
+public double getValue ( int step, int trace ) {
+	return this.values[step*this.traceCount + trace];
+}
+
+/**
+Return the matrix values, indexed by [step*getTraceCount() + trace], with missing values as NaN.
+The array is not copied and should not be modified.
+@return the matrix values
+*/
+public double [] getValues () {
+	return this.values;
+}
+
+/**
+Indicate whether a statistic can be computed with computeStatistic().
+@param statisticType statistic to check
+@return true if the statistic is supported
+*/
+public static boolean isStatisticSupported ( TSStatisticType statisticType ) {
+	if ( statisticType == null ) {
+		return false;
+	}
+	switch ( statisticType ) {
+		case EXCEEDANCE_PROBABILITY:
+		case EXCEEDANCE_PROBABILITY_10:
+		case EXCEEDANCE_PROBABILITY_30:
+		case EXCEEDANCE_PROBABILITY_50:
+		case EXCEEDANCE_PROBABILITY_70:
+		case EXCEEDANCE_PROBABILITY_90:
+		case GE_COUNT:
+		case GE_PERCENT:
+		case GEOMETRIC_MEAN:
+		case GT_COUNT:
+		case GT_PERCENT:
+		case LE_COUNT:
+		case LE_PERCENT:
+		case LT_COUNT:
+		case LT_PERCENT:
+		case MAX:
+		case MEAN:
+		case MEDIAN:
+		case MIN:
+		case MISSING_COUNT:
+		case MISSING_PERCENT:
+		case NONEXCEEDANCE_PROBABILITY:
+		case NONEXCEEDANCE_PROBABILITY_10:
+		case NONEXCEEDANCE_PROBABILITY_30:
+		case NONEXCEEDANCE_PROBABILITY_50:
+		case NONEXCEEDANCE_PROBABILITY_70:
+		case NONEXCEEDANCE_PROBABILITY_90:
+		case NONMISSING_COUNT:
+		case NONMISSING_PERCENT:
+		case SKEW:
+		case STD_DEV:
+		case TOTAL:
+			return true;
+		default:
+			return false;
+	}
+}
+
+}
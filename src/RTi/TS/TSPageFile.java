@@ -0,0 +1,638 @@
+// TSPageFile - block-paged, memory-mapped storage for time series data values
+
+/* NoticeStart
+
+CDSS Common Java Library
+CDSS Common Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2025 Colorado Department of Natural Resources
+
+CDSS Common Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+CDSS Common Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with CDSS Common Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package RTi.TS;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.lang.ref.Cleaner;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import RTi.Util.Message.Message;
+
+/**
+Block-paged storage for time series data values, used by PagedHourTS and PagedDayTS to hold
+large numbers of long time series without keeping all of the data in memory.
+Similar to BinaryTS, values are stored as doubles in a random-access binary file.
+However, rather than reserving space for a fixed number of time series with the same period,
+each time series is given a table of fixed-size blocks, which are assigned from the file as values are set.
+Blocks that have never been set are not stored and return the initial (missing) value.
+The file is memory-mapped in large regions and a bounded number of blocks are kept in memory as arrays,
+with the least recently used blocks written back to the file when the memory limit is reached.
+The file layout is:
+
+<pre>
+MainHeader                                              Size    Cumulative Size
+        Version         char-40                         80      80
+        BlockSize (number of values in block) int       4       84
+        (padding)                                       44      128
+DataBlock (one block per time series block, in order of assignment)
+        Value           double (native byte order)      8*BlockSize
+        ...
+</pre>
+
+The file is a scratch file that is only valid while the TSPageFile is open and is deleted when closed.
+Blocks that are no longer used by a time series, for example because the time series was garbage collected,
+are reused for other time series.
+All methods are synchronized so that a page file can be shared by time series used in multiple threads.
+*/
+public class TSPageFile
+{
+
+/**
+Default number of values in a block, 4096 values (32 KB), about 5.6 months of hourly data.
+*/
+public static final int DEFAULT_BLOCK_SIZE = 4096;
+
+/**
+Size of the main header (bytes).
+*/
+private static final int HEADER_SIZE = 128;
+
+/**
+Size of a memory-mapped region of the file (bytes), rounded down to a multiple of the block size.
+*/
+private static final long REGION_SIZE = 64L*1024*1024;
+
+/**
+Cleaner used to free time series blocks when the time series are garbage collected.
+*/
+private static final Cleaner __cleaner = Cleaner.create();
+
+/**
+Default page file, created when first requested.
+*/
+private static TSPageFile __defaultPageFile = null;
+
+/**
+File format version.
+*/
+private final String __version = "01.00.00 (2026-10-18)";
+
+/**
+Page file.
+*/
+private final File __file;
+
+/**
+Random access file and channel for the page file.
+*/
+private RandomAccessFile __fp;
+private FileChannel __channel;
+
+/**
+Memory-mapped regions of the file, mapped as needed.
+*/
+private final List<MappedByteBuffer> __regions = new ArrayList<>();
+
+/**
+Number of values in a block, a power of 2.
+*/
+private final int __blockSize;
+
+/**
+Shift and mask to convert a value index into block and position in the block.
+*/
+private final int __blockShift;
+private final int __blockMask;
+
+/**
+Number of blocks in a memory-mapped region.
+*/
+private final int __regionBlocks;
+
+/**
+Maximum number of blocks to keep in memory.
+*/
+private int __maxBlocks;
+
+/**
+Blocks in memory, in least recently used order, keyed by file block number.
+*/
+private final LinkedHashMap<Long,Block> __blocks = new LinkedHashMap<>(256, 0.75f, true);
+
+/**
+Next file block number to assign, when no free blocks are available.
+*/
+private long __nextFileBlock = 0;
+
+/**
+File blocks that have been freed and can be reused.
+*/
+private long [] __freeBlocks = new long[256];
+private int __freeBlockCount = 0;
+
+/**
+Statistics.
+*/
+private long __hitCount = 0;
+private long __missCount = 0;
+private long __pageOutCount = 0;
+
+/**
+A block of values in memory.
+*/
+private static final class Block {
+	final long fileBlock;
+	final double [] values;
+	boolean dirty = false;
+	boolean resident = true;
+
+	Block ( long fileBlock, double [] values ) {
+		this.fileBlock = fileBlock;
+		this.values = values;
+	}
+}
+
+/**
+Storage for one time series, which is a table of file blocks.
+*/
+static final class Segment {
+	/**
+	File block number for each block in the segment, or -1 if the block has not been set.
+	*/
+	long [] fileBlocks;
+
+	/**
+	Number of values in the segment.
+	*/
+	final int size;
+
+	/**
+	Initial value for values that have not been set.
+	*/
+	final double initialValue;
+
+	/**
+	The last block used, to avoid looking up the block when values are accessed in sequence.
+	*/
+	Block lastBlock = null;
+	int lastBlockIndex = -1;
+
+	Segment ( int size, int nblocks, double initialValue ) {
+		this.size = size;
+		this.initialValue = initialValue;
+		this.fileBlocks = new long[nblocks];
+		for ( int i = 0; i < nblocks; i++ ) {
+			this.fileBlocks[i] = -1;
+		}
+	}
+}
+
+/**
+Create a page file using the default block size.
+@param file page file to create, which will be overwritten if it exists.
+@param maxBytes maximum number of bytes of data values to keep in memory.
+@exception IOException if the file cannot be created.
+*/
+public TSPageFile ( File file, long maxBytes )
+throws IOException {
+	this ( file, DEFAULT_BLOCK_SIZE, maxBytes );
+}
+
+/**
+Create a page file.
+@param file page file to create, which will be overwritten if it exists.
+@param blockSize number of values in a block, which must be a power of 2 (e.g., 4096).
+@param maxBytes maximum number of bytes of data values to keep in memory.
+@exception IOException if the file cannot be created.
+*/
+public TSPageFile ( File file, int blockSize, long maxBytes )
+throws IOException {
+	if ( (blockSize < 64) || (Integer.bitCount(blockSize) != 1) ) {
+		throw new IllegalArgumentException ( "Block size (" + blockSize + ") must be a power of 2 >= 64." );
+	}
+	__file = file;
+	__blockSize = blockSize;
+	__blockShift = Integer.numberOfTrailingZeros(blockSize);
+	__blockMask = blockSize - 1;
+	__regionBlocks = (int)Math.max(1, REGION_SIZE/(blockSize*8L));
+	setMaxBytes ( maxBytes );
+	__fp = new RandomAccessFile ( file, "rw" );
+	__fp.setLength ( 0 );
+	__channel = __fp.getChannel();
+	writeHeader ();
+}
+
+/**
+Close the page file and delete the file.  Time series that use the page file can no longer be used.
+@exception IOException if there is an error closing the file.
+*/
+public synchronized void close ()
+throws IOException {
+	if ( __fp == null ) {
+		return;
+	}
+	for ( Block block : __blocks.values() ) {
+		block.resident = false;
+	}
+	__blocks.clear();
+	__regions.clear();
+	__fp.close();
+	__fp = null;
+	__channel = null;
+	if ( !__file.delete() ) {
+		// Can happen on Windows while regions are still mapped.
+		__file.deleteOnExit();
+	}
+}
+
+/**
+Create a copy of a segment, with new file blocks.
+@param segment segment to copy
+@return the new segment
+*/
+synchronized Segment copy ( Segment segment ) {
+	checkOpen ();
+	Segment copy = new Segment ( segment.size, segment.fileBlocks.length, segment.initialValue );
+	for ( int i = 0; i < segment.fileBlocks.length; i++ ) {
+		if ( segment.fileBlocks[i] >= 0 ) {
+			double [] values = getBlock ( segment.fileBlocks[i], true ).values.clone();
+			Block block = new Block ( assignFileBlock(), values );
+			block.dirty = true;
+			putBlock ( block );
+			copy.fileBlocks[i] = block.fileBlock;
+		}
+	}
+	return copy;
+}
+
+/**
+Allocate storage for a time series.
+No file space is used until values are set.
+@param size number of values in the time series
+@param initialValue initial value for all values, typically the missing value
+@return the new segment
+*/
+synchronized Segment allocate ( int size, double initialValue ) {
+	checkOpen ();
+	return new Segment ( size, (size + __blockMask) >>> __blockShift, initialValue );
+}
+
+/**
+Assign a file block, reusing a free block if available.
+*/
+private long assignFileBlock () {
+	if ( __freeBlockCount > 0 ) {
+		return __freeBlocks[--__freeBlockCount];
+	}
+	return __nextFileBlock++;
+}
+
+/**
+Check that the page file is open.
+*/
+private void checkOpen () {
+	if ( __fp == null ) {
+		throw new IllegalStateException ( "Time series page file \"" + __file + "\" has been closed." );
+	}
+}
+
+/**
+Evict the least recently used blocks until the number of blocks in memory is within the limit.
+*/
+private void evictBlocks () {
+	Iterator<Block> it = __blocks.values().iterator();
+	while ( (__blocks.size() > __maxBlocks) && it.hasNext() ) {
+		Block block = it.next();
+		if ( block.dirty ) {
+			writeBlock ( block );
+			++__pageOutCount;
+		}
+		block.resident = false;
+		it.remove();
+	}
+}
+
+/**
+Write all modified blocks in memory to the file.
+Blocks remain in memory.
+*/
+public synchronized void flush () {
+	checkOpen ();
+	for ( Block block : __blocks.values() ) {
+		if ( block.dirty ) {
+			writeBlock ( block );
+			++__pageOutCount;
+		}
+	}
+}
+
+/**
+Free the storage for a time series, after which the segment cannot be used.
+@param segment segment to free
+*/
+synchronized void free ( Segment segment ) {
+	if ( (__fp == null) || (segment.fileBlocks == null) ) {
+		return;
+	}
+	for ( int i = 0; i < segment.fileBlocks.length; i++ ) {
+		long fileBlock = segment.fileBlocks[i];
+		if ( fileBlock >= 0 ) {
+			Block block = __blocks.remove ( fileBlock );
+			if ( block != null ) {
+				block.resident = false;
+			}
+			if ( __freeBlockCount == __freeBlocks.length ) {
+				long [] freeBlocks = new long[__freeBlocks.length*2];
+				System.arraycopy ( __freeBlocks, 0, freeBlocks, 0, __freeBlockCount );
+				__freeBlocks = freeBlocks;
+			}
+			__freeBlocks[__freeBlockCount++] = fileBlock;
+		}
+	}
+	segment.fileBlocks = null;
+	segment.lastBlock = null;
+	segment.lastBlockIndex = -1;
+}
+
+/**
+Return a block, reading from the file if not in memory.
+@param fileBlock file block number
+@param read if true, read the block from the file if not in memory
+*/
+private Block getBlock ( long fileBlock, boolean read ) {
+	Block block = __blocks.get ( fileBlock );
+	if ( block != null ) {
+		++__hitCount;
+		return block;
+	}
+	++__missCount;
+	block = new Block ( fileBlock, new double[__blockSize] );
+	if ( read ) {
+		readBlock ( block );
+	}
+	putBlock ( block );
+	return block;
+}
+
+/**
+Return the number of values in a block.
+@return the number of values in a block.
+*/
+public int getBlockSize () {
+	return __blockSize;
+}
+
+/**
+Return the default page file, which is created in the temporary folder when first requested
+and uses up to 1/4 of the maximum heap for data values in memory.
+@return the default page file.
+@exception IOException if the page file cannot be created.
+*/
+public static synchronized TSPageFile getDefault ()
+throws IOException {
+	if ( (__defaultPageFile == null) || (__defaultPageFile.__fp == null) ) {
+		File file = File.createTempFile ( "TSPageFile-", ".bin" );
+		file.deleteOnExit();
+		__defaultPageFile = new TSPageFile ( file, Runtime.getRuntime().maxMemory()/4 );
+	}
+	return __defaultPageFile;
+}
+
+/**
+Return the page file.
+@return the page file.
+*/
+public File getFile () {
+	return __file;
+}
+
+/**
+Return the number of file blocks that are in use.
+@return the number of file blocks that are in use.
+*/
+public synchronized long getFileBlockCount () {
+	return __nextFileBlock - __freeBlockCount;
+}
+
+/**
+Return the number of times that a block was found in memory when requested.
+Repeated access to the same block of a time series is not counted.
+@return the number of block hits.
+*/
+public synchronized long getHitCount () {
+	return __hitCount;
+}
+
+/**
+Return the maximum number of bytes of data values kept in memory.
+@return the maximum number of bytes of data values kept in memory.
+*/
+public synchronized long getMaxBytes () {
+	return (long)__maxBlocks*__blockSize*8;
+}
+
+/**
+Return the number of times that a block was not in memory when requested.
+@return the number of block misses.
+*/
+public synchronized long getMissCount () {
+	return __missCount;
+}
+
+/**
+Return the number of times that a modified block was written to the file.
+@return the number of block writes.
+*/
+public synchronized long getPageOutCount () {
+	return __pageOutCount;
+}
+
+/**
+Return a memory-mapped region of the file, mapping the region if necessary.
+@param region region index
+*/
+private MappedByteBuffer getRegion ( int region )
+throws IOException {
+	while ( __regions.size() <= region ) {
+		__regions.add ( null );
+	}
+	MappedByteBuffer buffer = __regions.get(region);
+	if ( buffer == null ) {
+		long regionBytes = (long)__regionBlocks*__blockSize*8;
+		buffer = __channel.map ( FileChannel.MapMode.READ_WRITE, HEADER_SIZE + region*regionBytes, regionBytes );
+		buffer.order ( ByteOrder.nativeOrder() );
+		__regions.set ( region, buffer );
+	}
+	return buffer;
+}
+
+/**
+Return the number of blocks in memory.
+@return the number of blocks in memory.
+*/
+public synchronized int getResidentBlockCount () {
+	return __blocks.size();
+}
+
+/**
+Return a value.
+@param segment segment for the time series
+@param index index of the value in the time series
+@return the value
+*/
+synchronized double getValue ( Segment segment, int index ) {
+	int iblock = index >>> __blockShift;
+	Block block = segment.lastBlock;
+	if ( (iblock != segment.lastBlockIndex) || !block.resident ) {
+		checkOpen ();
+		long fileBlock = segment.fileBlocks[iblock];
+		if ( fileBlock < 0 ) {
+			// Block has never been set.
+			return segment.initialValue;
+		}
+		block = getBlock ( fileBlock, true );
+		segment.lastBlock = block;
+		segment.lastBlockIndex = iblock;
+	}
+	return block.values[index & __blockMask];
+}
+
+/**
+Add a block to memory, evicting other blocks if necessary.
+*/
+private void putBlock ( Block block ) {
+	__blocks.put ( block.fileBlock, block );
+	evictBlocks ();
+}
+
+/**
+Read a block from the file.
+*/
+private void readBlock ( Block block ) {
+	try {
+		MappedByteBuffer region = getRegion ( (int)(block.fileBlock/__regionBlocks) );
+		int offset = (int)(block.fileBlock%__regionBlocks)*__blockSize*8;
+		region.slice ( offset, __blockSize*8 ).order(ByteOrder.nativeOrder()).asDoubleBuffer().get ( block.values );
+	}
+	catch ( IOException e ) {
+		throw new UncheckedIOException ( "Error reading block " + block.fileBlock + " from \"" + __file + "\"", e );
+	}
+}
+
+/**
+Register a time series so that its segment is freed when the time series is garbage collected.
+@param ts time series that uses the segment
+@param segment segment to free
+@return the cleanable, which can be used to free the segment before the time series is garbage collected
+*/
+Cleaner.Cleanable register ( Object ts, Segment segment ) {
+	return __cleaner.register ( ts, () -> free(segment) );
+}
+
+/**
+Set the maximum number of bytes of data values to keep in memory.
+At least two blocks are always kept in memory.
+@param maxBytes maximum number of bytes of data values to keep in memory.
+*/
+public synchronized void setMaxBytes ( long maxBytes ) {
+	__maxBlocks = (int)Math.max(2, Math.min(Integer.MAX_VALUE, maxBytes/(__blockSize*8L)));
+	evictBlocks ();
+}
+
+/**
+Set a value.
+@param segment segment for the time series
+@param index index of the value in the time series
+@param value the value to set
+*/
+synchronized void setValue ( Segment segment, int index, double value ) {
+	int iblock = index >>> __blockShift;
+	Block block = segment.lastBlock;
+	if ( (iblock != segment.lastBlockIndex) || !block.resident ) {
+		checkOpen ();
+		long fileBlock = segment.fileBlocks[iblock];
+		if ( fileBlock < 0 ) {
+			// First value set in the block so assign and initialize the block.
+			double [] values = new double[__blockSize];
+			for ( int i = 0; i < __blockSize; i++ ) {
+				values[i] = segment.initialValue;
+			}
+			block = new Block ( assignFileBlock(), values );
+			segment.fileBlocks[iblock] = block.fileBlock;
+			++__missCount;
+			putBlock ( block );
+		}
+		else {
+			block = getBlock ( fileBlock, true );
+		}
+		segment.lastBlock = block;
+		segment.lastBlockIndex = iblock;
+	}
+	block.values[index & __blockMask] = value;
+	block.dirty = true;
+}
+
+/**
+Return a string representation of the page file, useful for troubleshooting.
+*/
+public synchronized String toString () {
+	return "TSPageFile \"" + __file + "\" blocks in memory=" + __blocks.size() + " (max " + __maxBlocks +
+		") file blocks=" + (__nextFileBlock - __freeBlockCount) + " hits=" + __hitCount +
+		" misses=" + __missCount + " page outs=" + __pageOutCount;
+}
+
+/**
+Write a block to the file.
+*/
+private void writeBlock ( Block block ) {
+	try {
+		MappedByteBuffer region = getRegion ( (int)(block.fileBlock/__regionBlocks) );
+		int offset = (int)(block.fileBlock%__regionBlocks)*__blockSize*8;
+		region.slice ( offset, __blockSize*8 ).order(ByteOrder.nativeOrder()).asDoubleBuffer().put ( block.values );
+		block.dirty = false;
+	}
+	catch ( IOException e ) {
+		throw new UncheckedIOException ( "Error writing block " + block.fileBlock + " to \"" + __file + "\"", e );
+	}
+}
+
+/**
+Write the file header.
+*/
+private void writeHeader ()
+throws IOException {
+	String routine = getClass().getSimpleName() + ".writeHeader";
+	__fp.seek ( 0 );
+	for ( int i = 0; i < 40; i++ ) {
+		__fp.writeChar ( (i < __version.length()) ? __version.charAt(i) : '\0' );
+	}
+	__fp.writeInt ( __blockSize );
+	__fp.setLength ( HEADER_SIZE );
+	if ( Message.isDebugOn ) {
+		Message.printDebug ( 1, routine, "Created time series page file \"" + __file + "\" with block size " +
+			__blockSize + " and " + __maxBlocks + " blocks in memory." );
+	}
+}
+
+}
@@ -0,0 +1,175 @@
+// TSPagedData - paged data values for a PagedHourTS or PagedDayTS
+
+/* NoticeStart
+
+CDSS Common Java Library
+CDSS Common Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2025 Colorado Department of Natural Resources
+
+CDSS Common Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+CDSS Common Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with CDSS Common Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package RTi.TS;
+
+import java.lang.ref.Cleaner;
+
+import RTi.Util.Time.DateTime;
+import RTi.Util.Time.TimeInterval;
+import RTi.Util.Time.TimeUtil;
+
+/**
+Data values for a paged time series, stored in a TSPageFile.
+Values are indexed in the same month and interval-in-month order as the data arrays in HourTS and DayTS,
+so that the row and column for a date are the same as for the in-memory time series
+and data flag arrays can be shared with the base classes.
+*/
+class TSPagedData
+{
+
+/**
+Page file that stores the values.
+*/
+private final TSPageFile pageFile;
+
+/**
+Segment in the page file.
+*/
+private final TSPageFile.Segment segment;
+
+/**
+Used to free the segment when the time series is garbage collected or reallocated.
+*/
+private final Cleaner.Cleanable cleanable;
+
+/**
+Interval base (TimeInterval.HOUR or TimeInterval.DAY) and multiplier.
+*/
+private final int intervalBase;
+private final int intervalMult;
+
+/**
+Absolute month of the first month.
+*/
+private final int amon1;
+
+/**
+Index of the first value in each month.
+*/
+private final int [] monthOffset;
+
+/**
+Allocate paged data for a period.
+@param pageFile page file to store values
+@param ts time series that will use the data, used to free the data when the time series is garbage collected
+@param intervalBase TimeInterval.HOUR or TimeInterval.DAY
+@param intervalMult interval multiplier
+@param date1 first date in the period
+@param date2 last date in the period
+@param initialValue initial value for all values
+*/
+TSPagedData ( TSPageFile pageFile, TS ts, int intervalBase, int intervalMult,
+	DateTime date1, DateTime date2, double initialValue ) {
+	this.pageFile = pageFile;
+	this.intervalBase = intervalBase;
+	this.intervalMult = intervalMult;
+	this.amon1 = date1.getAbsoluteMonth();
+	int nmonths = date2.getAbsoluteMonth() - this.amon1 + 1;
+	this.monthOffset = new int[nmonths + 1];
+	DateTime date = new DateTime ( DateTime.DATE_FAST );
+	date.setMonth( date1.getMonth() );
+	date.setYear( date1.getYear() );
+	int perDay = (intervalBase == TimeInterval.HOUR) ? 24/intervalMult : 1;
+	for ( int i = 0; i < nmonths; i++, date.addMonth(1) ) {
+		this.monthOffset[i + 1] = this.monthOffset[i] + TimeUtil.numDaysInMonth(date)*perDay;
+	}
+	this.segment = pageFile.allocate ( this.monthOffset[nmonths], initialValue );
+	this.cleanable = pageFile.register ( ts, this.segment );
+}
+
+/**
+Create a copy of other paged data.
+*/
+private TSPagedData ( TSPagedData data, TS ts ) {
+	this.pageFile = data.pageFile;
+	this.intervalBase = data.intervalBase;
+	this.intervalMult = data.intervalMult;
+	this.amon1 = data.amon1;
+	this.monthOffset = data.monthOffset;
+	this.segment = data.pageFile.copy ( data.segment );
+	this.cleanable = pageFile.register ( ts, this.segment );
+}
+
+/**
+Create a copy of the data, for a cloned time series.
+@param ts the time series that will use the copy
+@return a copy of the data
+*/
+TSPagedData copy ( TS ts ) {
+	return new TSPagedData ( this, ts );
+}
+
+/**
+Free the data in the page file.  The data cannot be used after this call.
+*/
+void free () {
+	this.cleanable.clean();
+}
+
+/**
+Return the column (position in month) for a date.
+@param date date within the period
+*/
+int getColumn ( DateTime date ) {
+	if ( this.intervalBase == TimeInterval.HOUR ) {
+		return ((date.getDay() - 1)*24 + date.getHour())/this.intervalMult;
+	}
+	else {
+		return date.getDay() - 1;
+	}
+}
+
+/**
+Return the page file that stores the data.
+*/
+TSPageFile getPageFile () {
+	return this.pageFile;
+}
+
+/**
+Return the row (month) for a date.
+@param date date within the period
+*/
+int getRow ( DateTime date ) {
+	return date.getAbsoluteMonth() - this.amon1;
+}
+
+/**
+Return the value for a date.
+@param date date within the period
+*/
+double getDataValue ( DateTime date ) {
+	return this.pageFile.getValue ( this.segment, this.monthOffset[getRow(date)] + getColumn(date) );
+}
+
+/**
+Set the value for a date.
+@param date date within the period
+@param value value to set
+*/
+void setDataValue ( DateTime date, double value ) {
+	this.pageFile.setValue ( this.segment, this.monthOffset[getRow(date)] + getColumn(date), value );
+}
+
+}
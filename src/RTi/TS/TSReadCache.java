@@ -0,0 +1,406 @@
+// TSReadCache - bounded read-through cache for time series that are read from datastores and suppliers
+
+/* NoticeStart
+
+CDSS Common Java Library
+CDSS Common Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2025 Colorado Department of Natural Resources
+
+CDSS Common Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+CDSS Common Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with CDSS Common Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package RTi.TS;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import RTi.Util.Message.Message;
+import RTi.Util.Time.DateTime;
+
+/**
+This class is a read-through cache for time series that are read from datastores and TSSupplier instances,
+which avoids repeatedly reading the same time series when the same identifier and period are requested
+by multiple commands or graph refreshes.
+<p>
+Entries are keyed by the datastore (or supplier) name, time series identifier, requested period,
+requested units and whether data were read.
+The cache is bounded by the approximate memory used by time series data and
+the least recently used entries are removed when the limit is exceeded.
+A copy of the time series is saved in the cache and a copy is returned for each request,
+so that callers can modify the returned time series without modifying the cache.
+<p>
+Datastores should call invalidate(datastoreName) when data are written,
+and applications can call invalidate() or invalidateAll() to force data to be read again.
+The cache is thread-safe.
+*/
+public class TSReadCache
+{
+
+/**
+Interface for the code that reads a time series when it is not found in the cache.
+*/
+public interface TSReader
+{
+	/**
+	Read the time series.
+	@return the time series or null if not found
+	@exception Exception if an error occurs reading
+	*/
+	public TS readTimeSeries () throws Exception;
+}
+
+/**
+Cache entry.
+*/
+private static class CacheEntry
+{
+	/**
+	Datastore name, used to invalidate entries for a datastore.
+	*/
+	private final String datastoreName;
+
+	/**
+	Time series identifier, used to invalidate entries for a time series.
+	*/
+	private final String tsidentString;
+
+	/**
+	Cached time series, which is never given to callers.
+	*/
+	private final TS ts;
+
+	/**
+	Approximate bytes used by the time series.
+	*/
+	private final long bytes;
+
+	private CacheEntry ( String datastoreName, String tsidentString, TS ts, long bytes ) {
+		this.datastoreName = datastoreName;
+		this.tsidentString = tsidentString;
+		this.ts = ts;
+		this.bytes = bytes;
+	}
+}
+
+/**
+Approximate overhead for each cached time series (identifier, properties, etc.), bytes.
+*/
+private static final long TS_OVERHEAD_BYTES = 2048;
+
+/**
+Cache entries in least recently used order (first entry is the least recently used).
+*/
+private final LinkedHashMap<String,CacheEntry> entries = new LinkedHashMap<>(64, 0.75f, true);
+
+/**
+Maximum bytes for the cache.
+*/
+private long maxBytes;
+
+/**
+Approximate bytes used by the cache.
+*/
+private long bytes = 0;
+
+/**
+Number of requests found in the cache.
+*/
+private long hitCount = 0;
+
+/**
+Number of requests not found in the cache.
+*/
+private long missCount = 0;
+
+/**
+Number of entries removed to stay within the maximum size.
+*/
+private long evictionCount = 0;
+
+/**
+Number of entries removed by invalidate() calls.
+*/
+private long invalidationCount = 0;
+
+/**
+Incremented each time entries are invalidated,
+so that a time series that was read before an invalidate() call is not added to the cache after the call.
+*/
+private long generation = 0;
+
+/**
+Construct a cache.
+@param maxBytes maximum approximate bytes of time series data to cache
+*/
+public TSReadCache ( long maxBytes ) {
+	this.maxBytes = maxBytes;
+}
+
+/**
+Copy a time series.
+@param ts time series to copy
+@return a copy of the time series
+*/
+private static TS copy ( TS ts ) {
+	return (TS)ts.clone();
+}
+
+/**
+Create the cache key.
+*/
+private static String createKey ( String datastoreName, String tsidentString, DateTime readStart, DateTime readEnd,
+	String units, boolean readData ) {
+	StringBuilder b = new StringBuilder();
+	b.append(datastoreName).append('|').append(tsidentString).append('|');
+	b.append((readStart == null) ? "" : readStart.toString()).append('|');
+	b.append((readEnd == null) ? "" : readEnd.toString()).append('|');
+	b.append((units == null) ? "" : units).append('|').append(readData);
+	return b.toString();
+}
+
+/**
+Estimate the memory used by a time series.
+@param ts time series
+@return approximate bytes used by the time series
+*/
+public static long estimateBytes ( TS ts ) {
+	long size = ts.getDataSize();
+	long bytesPerValue;
+	if ( ts instanceof IrregularTS ) {
+		// TSData object with DateTime.
+		bytesPerValue = 200;
+	}
+	else {
+		bytesPerValue = 8;
+		if ( ts.hasDataFlags() ) {
+			// Reference to a flag string, which are often shared.
+			bytesPerValue += 8;
+		}
+	}
+	return TS_OVERHEAD_BYTES + size*bytesPerValue;
+}
+
+/**
+Remove least recently used entries until the cache is within the maximum size.
+*/
+private void evict () {
+	Iterator<Map.Entry<String,CacheEntry>> it = this.entries.entrySet().iterator();
+	while ( (this.bytes > this.maxBytes) && it.hasNext() ) {
+		CacheEntry entry = it.next().getValue();
+		it.remove();
+		this.bytes -= entry.bytes;
+		++this.evictionCount;
+	}
+}
+
+/**
+Return the approximate bytes used by the cache.
+@return the approximate bytes used by the cache
+*/
+public synchronized long getBytes () {
+	return this.bytes;
+}
+
+/**
+Return the number of entries in the cache.
+@return the number of entries in the cache
+*/
+public synchronized int getEntryCount () {
+	return this.entries.size();
+}
+
+/**
+Return the number of entries that have been removed to stay within the maximum size.
+@return the number of entries that have been removed to stay within the maximum size
+*/
+public synchronized long getEvictionCount () {
+	return this.evictionCount;
+}
+
+/**
+Return the number of requests that were found in the cache.
+@return the number of requests that were found in the cache
+*/
+public synchronized long getHitCount () {
+	return this.hitCount;
+}
+
+/**
+Return the number of entries that have been removed by invalidate() calls.
+@return the number of entries that have been removed by invalidate() calls
+*/
+public synchronized long getInvalidationCount () {
+	return this.invalidationCount;
+}
+
+/**
+Return the maximum bytes for the cache.
+@return the maximum bytes for the cache
+*/
+public synchronized long getMaxBytes () {
+	return this.maxBytes;
+}
+
+/**
+Return the number of requests that were not found in the cache.
+@return the number of requests that were not found in the cache
+*/
+public synchronized long getMissCount () {
+	return this.missCount;
+}
+
+/**
+Remove all entries for a datastore.
+@param datastoreName name of datastore (or TSSupplier) for which to remove entries (case is ignored)
+@return the number of entries that were removed
+*/
+public synchronized int invalidate ( String datastoreName ) {
+	++this.generation;
+	int count = 0;
+	Iterator<CacheEntry> it = this.entries.values().iterator();
+	while ( it.hasNext() ) {
+		CacheEntry entry = it.next();
+		if ( entry.datastoreName.equalsIgnoreCase(datastoreName) ) {
+			it.remove();
+			this.bytes -= entry.bytes;
+			++count;
+		}
+	}
+	this.invalidationCount += count;
+	return count;
+}
+
+/**
+Remove all entries for a time series in a datastore, for all periods.
+@param datastoreName name of datastore (or TSSupplier) for which to remove entries (case is ignored)
+@param tsidentString time series identifier for which to remove entries
+@return the number of entries that were removed
+*/
+public synchronized int invalidate ( String datastoreName, String tsidentString ) {
+	++this.generation;
+	int count = 0;
+	Iterator<CacheEntry> it = this.entries.values().iterator();
+	while ( it.hasNext() ) {
+		CacheEntry entry = it.next();
+		if ( entry.datastoreName.equalsIgnoreCase(datastoreName) && entry.tsidentString.equals(tsidentString) ) {
+			it.remove();
+			this.bytes -= entry.bytes;
+			++count;
+		}
+	}
+	this.invalidationCount += count;
+	return count;
+}
+
+/**
+Remove all entries from the cache.
+*/
+public synchronized void invalidateAll () {
+	++this.generation;
+	this.invalidationCount += this.entries.size();
+	this.entries.clear();
+	this.bytes = 0;
+}
+
+/**
+Return a time series from the cache or read it if not in the cache.
+The reader is called, and time series are copied, without holding a lock so that slow reads and copies of
+large time series do not block other threads.
+If entries are invalidated while the reader is called, the time series is returned but is not cached.
+@param datastoreName name of the datastore (or TSSupplier) that is reading the time series
+@param tsidentString time series identifier
+@param readStart requested start of the period to read (null if full period)
+@param readEnd requested end of the period to read (null if full period)
+@param units requested units (null if not converted)
+@param readData whether data are read (false if only the header)
+@param reader the reader that is called if the time series is not in the cache
+@return a copy of the time series, or null if the reader returns null
+@exception Exception if the reader throws an exception
+*/
+public TS readTimeSeries ( String datastoreName, String tsidentString, DateTime readStart, DateTime readEnd,
+	String units, boolean readData, TSReader reader )
+throws Exception {
+	String key = createKey ( datastoreName, tsidentString, readStart, readEnd, units, readData );
+	long readGeneration;
+	CacheEntry entry;
+	synchronized ( this ) {
+		entry = this.entries.get(key);
+		if ( entry != null ) {
+			++this.hitCount;
+		}
+		else {
+			++this.missCount;
+		}
+		readGeneration = this.generation;
+	}
+	if ( entry != null ) {
+		if ( Message.isDebugOn ) {
+			Message.printDebug(1, "TSReadCache.readTimeSeries", "Found \"" + key + "\" in cache.");
+		}
+		// Cached time series are never modified so can be copied without holding the lock.
+		return copy(entry.ts);
+	}
+	TS ts = reader.readTimeSeries();
+	if ( ts == null ) {
+		// Don't cache because may be a temporary error.
+		return null;
+	}
+	long tsBytes = estimateBytes(ts);
+	if ( tsBytes > getMaxBytes() ) {
+		// Too large to cache.
+		return ts;
+	}
+	// Copy before locking so that other threads are not blocked while copying.
+	TS cacheTS = copy(ts);
+	synchronized ( this ) {
+		if ( tsBytes > this.maxBytes ) {
+			// The maximum was reduced while copying.
+			return ts;
+		}
+		if ( readGeneration != this.generation ) {
+			// Entries were invalidated during the read so the time series may be out of date.
+			return ts;
+		}
+		CacheEntry oldEntry = this.entries.put ( key, new CacheEntry(datastoreName, tsidentString, cacheTS, tsBytes) );
+		if ( oldEntry != null ) {
+			// Another thread read the same time series.
+			this.bytes -= oldEntry.bytes;
+		}
+		this.bytes += tsBytes;
+		evict();
+	}
+	return ts;
+}
+
+/**
+Set the maximum bytes for the cache, removing entries if necessary.
+@param maxBytes maximum approximate bytes of time series data to cache
+*/
+public synchronized void setMaxBytes ( long maxBytes ) {
+	this.maxBytes = maxBytes;
+	evict();
+}
+
+/**
+Return a string summarizing the cache statistics, suitable for logging.
+*/
+public synchronized String toString () {
+	return "TSReadCache entries=" + this.entries.size() + " bytes=" + this.bytes + " maxBytes=" + this.maxBytes +
+		" hits=" + this.hitCount + " misses=" + this.missCount + " evictions=" + this.evictionCount +
+		" invalidations=" + this.invalidationCount;
+}
+
+}
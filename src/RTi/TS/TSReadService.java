@@ -0,0 +1,452 @@
+// TSReadService - read time series from multiple files in parallel using the existing file readers
+
+
+/* NoticeStart
+
+CDSS Common Java Library
+CDSS Common Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2025 Colorado Department of Natural Resources
+
+CDSS Common Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+CDSS Common Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with CDSS Common Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package RTi.TS;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import RTi.Util.IO.DaemonThreadPool;
+import RTi.Util.IO.IOUtil;
+import RTi.Util.Message.Message;
+import RTi.Util.Time.DateTime;
+
+/**
+This class reads time series from a list of files, using the existing file readers
+(CompactBinaryTS, DateValueTS, RiverWareTS, UsgsNwisRdbTS and ModsimTS) on the shared DaemonThreadPool.
+Each request reads one file, either all time series in the file or a single time series matching a TSID.
+Results are returned in the order of the requests, regardless of the order in which files are read,
+and each result includes the warnings for its file, including warnings printed by the reader
+while the file is read (see Message.startWarningCapture()), so that callers can report problems by file
+rather than relying on the shared log file.
+<p>
+The static reader methods do not share mutable state and can be called from multiple threads.
+Reading is typically limited by parsing rather than disk access,
+so a thread count similar to the number of processors is appropriate.
+*/
+public class TSReadService
+{
+
+/**
+Input type for compact binary time series files.
+*/
+public static final String INPUT_TYPE_COMPACT_BINARY = CompactBinaryTS.INPUT_TYPE;
+
+/**
+Input type for DateValue files.
+*/
+public static final String INPUT_TYPE_DATEVALUE = "DateValue";
+
+/**
+Input type for MODSIM files.
+*/
+public static final String INPUT_TYPE_MODSIM = "MODSIM";
+
+/**
+Input type for RiverWare single time series files.
+*/
+public static final String INPUT_TYPE_RIVERWARE = "RiverWare";
+
+/**
+Input type for RiverWare RDF files.
+*/
+public static final String INPUT_TYPE_RIVERWARE_RDF = "RiverWareRdf";
+
+/**
+Input type for USGS NWIS RDB files.
+*/
+public static final String INPUT_TYPE_USGS_NWIS_RDB = "UsgsNwisRdb";
+
+/**
+Request to read time series from one file.
+*/
+public static class Request
+{
+	private final String inputType;
+	private final String tsid;
+	private final String filename;
+	private final DateTime readStart;
+	private final DateTime readEnd;
+	private final String units;
+	private final boolean readData;
+
+	/**
+	Construct a request to read all time series in a file, determining the file format from its contents.
+	@param filename name of file to read
+	*/
+	public Request ( String filename ) {
+		this ( null, null, filename, null, null, null, true );
+	}
+
+	/**
+	Construct a request.
+	@param inputType input type (one of the INPUT_TYPE_* values), or null to determine from the file contents
+	@param tsid time series identifier to read, or null to read all time series in the file
+	@param filename name of file to read, IOUtil.getPathUsingWorkingDir() is applied
+	@param readStart starting date to read (null to read the full period)
+	@param readEnd ending date to read (null to read the full period)
+	@param units units to convert to (null or blank to not convert)
+	@param readData whether to read data (false to only read headers)
+	*/
+	public Request ( String inputType, String tsid, String filename, DateTime readStart, DateTime readEnd,
+		String units, boolean readData ) {
+		this.inputType = inputType;
+		this.tsid = tsid;
+		this.filename = filename;
+		this.readStart = readStart;
+		this.readEnd = readEnd;
+		this.units = units;
+		this.readData = readData;
+	}
+
+	/**
+	Return the file name for the request.
+	@return the file name for the request
+	*/
+	public String getFilename () {
+		return this.filename;
+	}
+
+	/**
+	Return the input type for the request.
+	@return the input type for the request, or null if determined from the file contents
+	*/
+	public String getInputType () {
+		return this.inputType;
+	}
+
+	/**
+	Return the time series identifier for the request.
+	@return the time series identifier for the request, or null if all time series are read
+	*/
+	public String getTSID () {
+		return this.tsid;
+	}
+}
+
+/**
+Result of reading time series from one file.
+*/
+public static class Result
+{
+	private final Request request;
+	private String inputType = null;
+	private final List<TS> tslist = new ArrayList<>();
+	private final List<String> warnings = new ArrayList<>();
+	private Exception exception = null;
+
+	private Result ( Request request ) {
+		this.request = request;
+	}
+
+	/**
+	Return the exception thrown when reading, or null if the reader did not throw an exception.
+	@return the exception thrown when reading
+	*/
+	public Exception getException () {
+		return this.exception;
+	}
+
+	/**
+	Return the input type that was used to read the file.
+	@return the input type that was used to read the file, or null if the format could not be determined
+	*/
+	public String getInputType () {
+		return this.inputType;
+	}
+
+	/**
+	Return the request for the result.
+	@return the request for the result
+	*/
+	public Request getRequest () {
+		return this.request;
+	}
+
+	/**
+	Return the time series that were read.
+	@return the time series that were read, guaranteed to be non-null
+	*/
+	public List<TS> getTimeSeriesList () {
+		return this.tslist;
+	}
+
+	/**
+	Return the warnings for the file.
+	@return the warnings for the file, guaranteed to be non-null
+	*/
+	public List<String> getWarnings () {
+		return this.warnings;
+	}
+
+	/**
+	Indicate whether there were warnings reading the file.
+	@return true if there were warnings reading the file
+	*/
+	public boolean hasWarnings () {
+		return this.warnings.size() > 0;
+	}
+}
+
+/**
+Number of threads to use for reading.
+*/
+private final int threadCount;
+
+/**
+Construct a service.
+@param threadCount number of threads to use for reading, or &lt;= 0 to use the number of processors
+*/
+public TSReadService ( int threadCount ) {
+	if ( threadCount <= 0 ) {
+		threadCount = Runtime.getRuntime().availableProcessors();
+	}
+	this.threadCount = threadCount;
+}
+
+/**
+Determine the input type from the file contents.
+@param filename full path to the file
+@return the input type, or null if the format is not recognized
+*/
+public static String determineInputType ( String filename ) {
+	// Check RDF before single RiverWare time series, and DateValue early because it is the most common.
+	if ( CompactBinaryTS.isCompactBinaryTSFile(filename) ) {
+		return INPUT_TYPE_COMPACT_BINARY;
+	}
+	else if ( DateValueTS.isDateValueFile(filename) ) {
+		return INPUT_TYPE_DATEVALUE;
+	}
+	else if ( RiverWareTS.isRiverWareFile(filename, false) ) {
+		return INPUT_TYPE_RIVERWARE_RDF;
+	}
+	else if ( RiverWareTS.isRiverWareFile(filename, true) ) {
+		return INPUT_TYPE_RIVERWARE;
+	}
+	else if ( UsgsNwisRdbTS.isUsgsNwisRdbFile(filename) ) {
+		return INPUT_TYPE_USGS_NWIS_RDB;
+	}
+	else if ( ModsimTS.isMODSIMFile(filename) ) {
+		return INPUT_TYPE_MODSIM;
+	}
+	return null;
+}
+
+/**
+Read the time series for one request.
+@param request request to process
+@return the result, which is always returned even if there are errors
+*/
+public static Result read ( Request request ) {
+	Result result = new Result ( request );
+	String filename = request.filename;
+	if ( (filename == null) || filename.isEmpty() ) {
+		result.warnings.add ( "No file name is specified." );
+		return result;
+	}
+	String fullFilename = IOUtil.getPathUsingWorkingDir ( filename );
+	if ( !IOUtil.fileExists(fullFilename) ) {
+		result.warnings.add ( "File does not exist: \"" + fullFilename + "\"" );
+		return result;
+	}
+	if ( !IOUtil.fileReadable(fullFilename) ) {
+		result.warnings.add ( "File is not readable: \"" + fullFilename + "\"" );
+		return result;
+	}
+	String inputType = request.inputType;
+	if ( (inputType == null) || inputType.isEmpty() ) {
+		inputType = determineInputType ( fullFilename );
+		if ( inputType == null ) {
+			result.warnings.add ( "Unable to determine the time series file format for \"" + fullFilename + "\"" );
+			return result;
+		}
+	}
+	result.inputType = inputType;
+	String tsid = request.tsid;
+	if ( (tsid != null) && tsid.isEmpty() ) {
+		tsid = null;
+	}
+	DateTime readStart = request.readStart;
+	DateTime readEnd = request.readEnd;
+	String units = request.units;
+	boolean readData = request.readData;
+	List<TS> tslist = null;
+	// Capture the warnings printed by the reader in this thread so that they are associated with this file
+	Message.startWarningCapture();
+	try {
+		if ( inputType.equalsIgnoreCase(INPUT_TYPE_COMPACT_BINARY) ) {
+			if ( tsid == null ) {
+				tslist = CompactBinaryTS.readTimeSeriesList ( fullFilename, readStart, readEnd, units, readData );
+			}
+			else {
+				tslist = toList ( CompactBinaryTS.readTimeSeries ( tsid, fullFilename, readStart, readEnd, units, readData ) );
+			}
+		}
+		else if ( inputType.equalsIgnoreCase(INPUT_TYPE_DATEVALUE) ) {
+			if ( tsid == null ) {
+				tslist = DateValueTS.readTimeSeriesList ( fullFilename, readStart, readEnd, units, readData );
+			}
+			else {
+				tslist = toList ( DateValueTS.readTimeSeries ( tsid, fullFilename, readStart, readEnd, units, readData ) );
+			}
+		}
+		else if ( inputType.equalsIgnoreCase(INPUT_TYPE_MODSIM) ) {
+			if ( tsid == null ) {
+				tslist = ModsimTS.readTimeSeriesList ( fullFilename, readStart, readEnd, units, readData );
+			}
+			else {
+				tslist = toList ( ModsimTS.readTimeSeries ( tsid, fullFilename, readStart, readEnd, units, readData ) );
+			}
+		}
+		else if ( inputType.equalsIgnoreCase(INPUT_TYPE_RIVERWARE) ) {
+			if ( tsid == null ) {
+				tslist = toList ( RiverWareTS.readTimeSeries ( fullFilename, readStart, readEnd, units, readData ) );
+			}
+			else {
+				tslist = toList ( RiverWareTS.readTimeSeries ( tsid, fullFilename, readStart, readEnd, units, readData ) );
+			}
+		}
+		else if ( inputType.equalsIgnoreCase(INPUT_TYPE_RIVERWARE_RDF) ) {
+			tslist = RiverWareTS.readTimeSeriesListFromRdf ( fullFilename, readStart, readEnd, units, readData );
+			if ( (tslist != null) && (tsid != null) ) {
+				// Select the matching time series.
+				List<TS> matched = new ArrayList<>();
+				for ( TS ts : tslist ) {
+					if ( ts.getIdentifier().matches(tsid) || tsid.equalsIgnoreCase(ts.getAlias()) ) {
+						matched.add ( ts );
+					}
+				}
+				tslist = matched;
+			}
+		}
+		else if ( inputType.equalsIgnoreCase(INPUT_TYPE_USGS_NWIS_RDB) ) {
+			if ( tsid == null ) {
+				tslist = toList ( UsgsNwisRdbTS.readTimeSeries ( fullFilename, readStart, readEnd,
+					null, null, "", units, readData ) );
+			}
+			else {
+				tslist = toList ( UsgsNwisRdbTS.readTimeSeries ( tsid, fullFilename, readStart, readEnd, units, readData ) );
+			}
+		}
+		else {
+			result.warnings.add ( "Input type \"" + inputType + "\" is not supported." );
+			return result;
+		}
+	}
+	catch ( Exception e ) {
+		result.exception = e;
+		result.warnings.add ( "Error reading time series from \"" + fullFilename + "\" (" + e + ")." );
+		Message.printWarning ( 3, "TSReadService.read", e );
+	}
+	finally {
+		result.warnings.addAll ( 0, Message.stopWarningCapture() );
+	}
+	if ( (tslist == null) || (tslist.size() == 0) ) {
+		if ( result.exception == null ) {
+			if ( tsid == null ) {
+				result.warnings.add ( "No time series were read from \"" + fullFilename + "\"" );
+			}
+			else {
+				result.warnings.add ( "Time series \"" + tsid + "\" was not read from \"" + fullFilename + "\"" );
+			}
+		}
+	}
+	else {
+		result.tslist.addAll ( tslist );
+	}
+	return result;
+}
+
+/**
+Read the time series for a list of requests.
+Each request is read by one thread and the results are returned in the order of the requests.
+@param requests list of requests to process
+@return list of results, in the same order as the requests
+*/
+public List<Result> readTimeSeries ( List<Request> requests ) {
+	int n = requests.size();
+	List<Result> results = new ArrayList<>(n);
+	int nthread = Math.min ( this.threadCount, n );
+	if ( nthread <= 1 ) {
+		for ( Request request : requests ) {
+			results.add ( read(request) );
+		}
+		return results;
+	}
+	List<Callable<Result>> tasks = new ArrayList<>(n);
+	for ( Request request : requests ) {
+		tasks.add ( () -> read(request) );
+	}
+	try {
+		for ( Future<Result> future : DaemonThreadPool.invokeAll(tasks, nthread) ) {
+			results.add ( future.get() );
+		}
+	}
+	catch ( InterruptedException e ) {
+		Thread.currentThread().interrupt();
+		throw new RuntimeException ( "Interrupted reading time series.", e );
+	}
+	catch ( ExecutionException e ) {
+		// read() handles exceptions so this should only occur for errors.
+		Throwable cause = e.getCause();
+		if ( cause instanceof RuntimeException ) {
+			throw (RuntimeException)cause;
+		}
+		throw new RuntimeException ( cause );
+	}
+	return results;
+}
+
+/**
+Return the time series from a list of results, in the order of the results.
+@param results results from readTimeSeries()
+@return list of all time series that were read
+*/
+public static List<TS> getTimeSeriesList ( List<Result> results ) {
+	List<TS> tslist = new ArrayList<>();
+	for ( Result result : results ) {
+		tslist.addAll ( result.getTimeSeriesList() );
+	}
+	return tslist;
+}
+
+/**
+Convert a single time series to a list.
+@param ts time series, may be null
+@return a list containing the time series, or an empty list if null
+*/
+private static List<TS> toList ( TS ts ) {
+	if ( ts == null ) {
+		return Collections.emptyList();
+	}
+	List<TS> tslist = new ArrayList<>(1);
+	tslist.add ( ts );
+	return tslist;
+}
+
+}
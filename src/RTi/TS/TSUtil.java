@@ -1626,47 +1626,9 @@ public static void convertUnits ( TS ts, String req_units ) throws TSException {
 	mult = conversion.getMultFactor();
 	add = conversion.getAddFactor();
 
-	// Loop through the entire time series.
+	// Transform the entire time series, which processes the data space directly if possible.
 
-	int interval_base = ts.getDataIntervalBase();
-	int interval_mult = ts.getDataIntervalMult();
-	double data_value;
-	if ( interval_base == TimeInterval.IRREGULAR ) {
-		// Get the data and loop through the list.
-		IrregularTS irrts = (IrregularTS)ts;
-		List<TSData> alltsdata = irrts.getData();
-		if ( alltsdata == null ) {
-			// No data for the time series.
-			return;
-		}
-		int nalltsdata = alltsdata.size();
-		TSData tsdata = null;
-		for ( int i = 0; i < nalltsdata; i++ ) {
-			tsdata = alltsdata.get(i);
-			data_value = tsdata.getDataValue();
-			if ( !ts.isDataMissing(data_value) ) {
-				// Not missing, so do the conversion.
-				data_value = add + data_value*mult;
-			}
-			tsdata.setDataValue(data_value);
-			// Have to do this manually since TSData are being modified directly to improve performance.
-			ts.setDirty ( true );
-		}
-	}
-	else {
-	    // Loop using addInterval.
-		DateTime start_date = new DateTime ( ts.getDate1() );
-		DateTime end_date = new DateTime ( ts.getDate2() );
-		DateTime date = new DateTime ( start_date );
-		for ( ; date.lessThanOrEqualTo( end_date); date.addInterval(interval_base, interval_mult) ) {
-			data_value = ts.getDataValue ( date );
-			if ( !ts.isDataMissing(data_value) ) {
-				// Not missing, so do the conversion.
-				data_value = add + data_value*mult;
-				ts.setDataValue ( date, data_value );
-			}
-		}
-	}
+	ts.transformDataValues ( mult, add );
 
 	// Set the units field to reflect new units of data.
 
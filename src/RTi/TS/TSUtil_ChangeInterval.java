@@ -25,7 +25,11 @@ package RTi.TS;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
+import RTi.Util.IO.DaemonThreadPool;
 import RTi.Util.Math.MathUtil;
 import RTi.Util.Message.Message;
 import RTi.Util.Time.DateTime;
@@ -131,6 +135,12 @@ Tolerance (e.g., .01) used with convergence tests (when needed).
 */
 private double __tolerance = 0.01;
 
+/**
+Whether to use an array of input values when changing from a smaller regular interval to a larger regular interval.
+This is true by default and is only turned off to compare with the iterator-based code.
+*/
+private boolean __useInputArray = true;
+
 /**
 Legacy constructor used when running old methods in this class.
 For most conversions use the constructor with the full list of parameters.
@@ -815,6 +825,64 @@ public TSUtil_ChangeInterval ( TS oldTS, TimeInterval newInterval,
         return null;
     }
 
+    /**
+     * Change the interval of a list of time series, processing the time series in parallel using the shared DaemonThreadPool.
+     * Each time series is processed as if a TSUtil_ChangeInterval instance were constructed with the
+     * same parameters for each time series and changeInterval(true) were called.
+     * The time series in the list must be distinct instances because the iterator-based code
+     * is not thread safe for the same input time series.
+     * See the constructor for a description of the parameters that are passed to each conversion.
+     * @param tslist list of time series to process
+     * @param threadCount number of threads to use, or 0 to use the number of available processors
+     * @return list of new time series, in the same order as the input list
+     * @exception Exception if any time series could not be processed
+     * (all time series are processed and then the first exception is thrown)
+     */
+    public static List<TS> changeInterval ( List<TS> tslist, TimeInterval newInterval,
+        TimeScaleType oldTimeScale, TimeScaleType newTimeScale, TSStatisticType statisticType, YearType outputYearType,
+        String newDataType, String newUnits, Double tolerance,
+        TSUtil_ChangeInterval_HandleEndpointsHowType handleEndpointsHow,
+        TSUtil_ChangeInterval_OutputFillMethodType outputFillMethod,
+        TSUtil_ChangeInterval_HandleMissingInputHowType handleMissingInputHow,
+        Integer allowMissingCount, Double allowMissingPercent, Integer allowMissingConsecutive, int threadCount )
+    throws Exception {
+        List<TS> newTSList = new ArrayList<>(tslist.size());
+        if ( tslist.isEmpty() ) {
+            return newTSList;
+        }
+        int nthreads = threadCount;
+        if ( nthreads <= 0 ) {
+            nthreads = Runtime.getRuntime().availableProcessors();
+        }
+        nthreads = Math.min ( nthreads, tslist.size() );
+        List<Callable<TS>> tasks = new ArrayList<>(tslist.size());
+        for ( TS ts : tslist ) {
+            tasks.add ( () -> {
+                TSUtil_ChangeInterval tsu = new TSUtil_ChangeInterval ( ts, newInterval, oldTimeScale, newTimeScale,
+                    statisticType, outputYearType, newDataType, newUnits, tolerance, handleEndpointsHow,
+                    outputFillMethod, handleMissingInputHow, allowMissingCount, allowMissingPercent,
+                    allowMissingConsecutive );
+                return tsu.changeInterval ( true );
+            });
+        }
+        Exception exception = null;
+        for ( Future<TS> future : DaemonThreadPool.invokeAll(tasks, nthreads) ) {
+            try {
+                newTSList.add ( future.get() );
+            }
+            catch ( ExecutionException e ) {
+                newTSList.add ( null );
+                if ( exception == null ) {
+                    exception = (e.getCause() instanceof Exception) ? (Exception)e.getCause() : e;
+                }
+            }
+        }
+        if ( exception != null ) {
+            throw exception;
+        }
+        return newTSList;
+    }
+
     /**
      * Change intervals from INST to INST for regular interval time series.
      * @param oldTSi Reference to the iterator object for the old time series.
@@ -851,6 +919,12 @@ public TSUtil_ChangeInterval ( TS oldTS, TimeInterval newInterval,
             TS newTS = newTSi.getTS();
             TS oldTS = oldTSi.getTS();
 
+            TSUtil_ChangeInterval_InputArray inputArray = getInputArray ( oldTS );
+            if ( inputArray != null ) {
+                return changeInterval_fromINSTUsingInputArray ( inputArray, oldTS, newTSi, statistic,
+                    handleMissingInputHow, allowMissingCount, allowMissingConsecutive );
+            }
+
             double newMissing = newTS.getMissing();
             double oldMissing = oldTS.getMissing();
             double currentValue, lastValue = oldMissing;
@@ -1002,6 +1076,131 @@ public TSUtil_ChangeInterval ( TS oldTS, TimeInterval newInterval,
         return true;
     }
 
+    /**
+     * Change intervals from INST to INST for regular interval time series, from a smaller interval to a larger interval,
+     * using an array of input values rather than iterating through the input time series.
+     * The results are the same as the iterator-based code in changeInterval_fromINST().
+     * The number of input values through the end of each output interval is computed once for the output interval
+     * and input values are then processed in one pass through the array.
+     * @param inputArray input time series values
+     * @param oldTS the old time series, used to check for missing values
+     * @param newTSi iterator for the new time series, positioned at the first output date/time
+     * @param statistic statistic to compute, or null to use the input value at the output date/time
+     * @param handleMissingInputHow Indicates how to treat missing values in the input time series
+     * @param allowMissingCount the number of missing values allowed (only used with statistic).
+     * @param allowMissingConsecutive only compute the new data value if the number of consecutive missing in the
+     * input interval is <= the specified count.
+     * @return true if successful or false if an error.
+     */
+    private boolean changeInterval_fromINSTUsingInputArray ( TSUtil_ChangeInterval_InputArray inputArray, TS oldTS,
+        TSIterator newTSi, TSStatisticType statistic,
+        TSUtil_ChangeInterval_HandleMissingInputHowType handleMissingInputHow, int allowMissingCount,
+        int allowMissingConsecutive ) {
+        TS newTS = newTSi.getTS();
+        double newMissing = newTS.getMissing();
+        double [] values = inputArray.getDataValues();
+        int size = values.length;
+        double currentValue, lastValue = oldTS.getMissing();
+
+        double [] statisticSample = new double[500]; // Sample when computing statistic (guess at size).
+        int statisticSampleSize = 0; // For statistic - sample size from input (non-missing).
+        int statisticSampleMissingCount = 0; // For statistic - count of missing excluded from sample size.
+        int nMissingConsecutive = 0; // Number of consecutive missing values in input interval.
+        int nMissingConsecutiveMax = 0; // Maximum number of consecutive missing values in input interval.
+        boolean previousIsMissing = false; // Whether previous value in input interval was missing.
+        boolean okToCompute = true; // Whether an output interval value can be computed.
+        int pos = 0; // Position of the next input value to process.
+        int endPos; // Position after the last input value in the output interval.
+        int matchPos; // Position of the input value at the output date/time, or -1 if none.
+        DateTime newDate;
+        for (; newTSi.next() != null;) {
+            newDate = newTSi.getDate();
+            currentValue = newMissing;
+            statisticSampleSize = 0;
+            statisticSampleMissingCount = 0;
+            nMissingConsecutive = 0;
+            nMissingConsecutiveMax = 0;
+            previousIsMissing = false;
+
+            // Input values through the output date/time are in the output interval.
+            endPos = inputArray.getCountThrough ( newDate );
+            matchPos = -1;
+            if ( (endPos > 0) && inputArray.isDateAt ( (endPos - 1), newDate ) ) {
+                matchPos = endPos - 1;
+            }
+            for ( ; (pos < size) && (pos < endPos); pos++ ) {
+                if ( statistic == null ) {
+                    // Legacy behavior is to pick off values...assign value only if dates are equal.
+                    if ( pos == matchPos ) {
+                        currentValue = values[pos];
+                    }
+                }
+                else {
+                    currentValue = values[pos];
+                }
+
+                if (oldTS.isDataMissing(currentValue)) {
+                    currentValue = replaceDataValue(handleMissingInputHow, lastValue, newMissing);
+                }
+                else {
+                    lastValue = currentValue;
+                }
+
+                if ( statistic != null ) {
+                    if ( oldTS.isDataMissing(currentValue) ) {
+                        ++statisticSampleMissingCount;
+                        if ( previousIsMissing ) {
+                            ++nMissingConsecutive;
+                        }
+                        else {
+                            nMissingConsecutive = 1;
+                        }
+                        nMissingConsecutiveMax = Math.max(nMissingConsecutive, nMissingConsecutiveMax);
+                        previousIsMissing = true;
+                    }
+                    else {
+                        if ( statisticSampleSize == statisticSample.length ) {
+                            double [] statisticSampleNew = new double[statisticSample.length + 100];
+                            System.arraycopy(statisticSample, 0, statisticSampleNew, 0, statisticSample.length);
+                            statisticSample = statisticSampleNew;
+                        }
+                        statisticSample[statisticSampleSize++] = currentValue;
+                    }
+                }
+            }
+
+            if ( statistic == null ) {
+                newTS.setDataValue(newDate, currentValue);
+            }
+            else {
+                double statisticValue = newMissing;
+                okToCompute = true;
+                if ( statisticSampleSize == 0 ) {
+                    okToCompute = false;
+                }
+                else if ( statisticSampleMissingCount > allowMissingCount ) {
+                    okToCompute = false;
+                }
+                else if ( nMissingConsecutiveMax > allowMissingConsecutive ) {
+                    okToCompute = false;
+                }
+                if ( okToCompute ) {
+                    if ( statistic == TSStatisticType.COUNT ) {
+                        statisticValue = statisticSampleSize;
+                    }
+                    else if ( statistic == TSStatisticType.MAX ) {
+                        statisticValue = MathUtil.max(statisticSampleSize, statisticSample);
+                    }
+                    else if ( statistic == TSStatisticType.MIN ) {
+                        statisticValue = MathUtil.min(statisticSampleSize, statisticSample);
+                    }
+                }
+                newTS.setDataValue(newDate, statisticValue );
+            }
+        }
+        return true;
+    }
+
     /**
      * Change intervals from INST time series by interpolation. This method should only be used when
      * converting from larger to shorter interval where interpolation makes sense.  This method should
@@ -2314,18 +2513,6 @@ private void changeIntervalToDifferentYearType ( TS oldTS, TS newTS,
                 oldTsTimeStampedAtEnd = false;
             }
 
-            // The first next() call does not increment the date.
-            oldData = oldTSi.next();
-
-            // Save data at end point.
-            value = oldData.getDataValue();
-            firstEndpointValue = value;
-
-            // If the old ts is < Day (stamped in the end) we need to advance one old interval.
-            if (oldTsTimeStampedAtEnd) {
-                oldData = oldTSi.next();
-            }
-
             // Set a variable for how to handle the end points.
             // If the user has chosen to average the end points AND
             // the new time series interval is daily or finer, average the end points.
@@ -2340,6 +2527,25 @@ private void changeIntervalToDifferentYearType ( TS oldTS, TS newTS,
                 averageEndpoints = true;
             }
 
+            TSUtil_ChangeInterval_InputArray inputArray = getInputArray ( oldTS );
+            if ( inputArray != null ) {
+                return changeInterval_toMEANorACCMUsingInputArray ( inputArray, oldTS, newTSi, newTimeScale,
+                    handleMissingInputHow, maxMissingPerInterval, allowMissingConsecutive,
+                    oldTsTimeStampedAtEnd, newTsTimeStampedAtEnd, averageEndpoints );
+            }
+
+            // The first next() call does not increment the date.
+            oldData = oldTSi.next();
+
+            // Save data at end point.
+            value = oldData.getDataValue();
+            firstEndpointValue = value;
+
+            // If the old ts is < Day (stamped in the end) we need to advance one old interval.
+            if (oldTsTimeStampedAtEnd) {
+                oldData = oldTSi.next();
+            }
+
             // Save the previous newTS date.
             DateTime previousNewTSDate = new DateTime(newTSi.getDate());
 
@@ -2666,6 +2872,156 @@ private void changeIntervalToDifferentYearType ( TS oldTS, TS newTS,
         return true;
     }
 
+    /**
+     * Change intervals from a smaller interval to a larger interval for MEAN and ACCM output,
+     * using an array of input values rather than iterating through the input time series.
+     * The results are the same as the iterator-based code in changeInterval_toMEANorACCM().
+     * The number of input values through the end of each output interval is computed once for the output interval
+     * and input values are then processed in one pass through the array.
+     * @param inputArray input time series values
+     * @param oldTS the old time series, used to check for missing values
+     * @param newTSi iterator for the new time series, positioned at the first output date/time
+     * @param newTimeScale time scale of the new time series
+     * @param handleMissingInputHow indicates how to treat missing values in the input time series
+     * @param maxMissingPerInterval the number of missing values allowed in the input interval
+     * @param allowMissingConsecutive the number of consecutive missing values allowed in the input interval
+     * @param oldTsTimeStampedAtEnd whether old time series values are time stamped at the end of the interval
+     * @param newTsTimeStampedAtEnd whether new time series values are time stamped at the end of the interval
+     * @param averageEndpoints whether to use the average of the interval end-points rather than the first value
+     * @return true if successful or false if an error.
+     */
+    private boolean changeInterval_toMEANorACCMUsingInputArray ( TSUtil_ChangeInterval_InputArray inputArray, TS oldTS,
+        TSIterator newTSi, TimeScaleType newTimeScale,
+        TSUtil_ChangeInterval_HandleMissingInputHowType handleMissingInputHow, int maxMissingPerInterval,
+        int allowMissingConsecutive, boolean oldTsTimeStampedAtEnd, boolean newTsTimeStampedAtEnd,
+        boolean averageEndpoints ) {
+        TS newTS = newTSi.getTS();
+        int oldTSBase = oldTS.getDataIntervalBase();
+        int oldTSMult = oldTS.getDataIntervalMult();
+        double newMissing = newTS.getMissing();
+        double oldMissing = oldTS.getMissing();
+        double [] values = inputArray.getDataValues();
+        int size = values.length;
+
+        double lastValue = -999.99, value, sum, lastEndpointValue;
+        double firstEndpointValue = values[0];
+        int missingCount, dataCount;
+        int nMissingConsecutive; // Number of missing consecutive values in input interval.
+        int nMissingConsecutiveMax; // Maximum number of missing consecutive values in input interval.
+        boolean previousIsMissing; // Is previous value in input interval missing?
+        boolean okToCompute; // is it OK to compute the output interval value?
+        boolean missingFlag, firstTime;
+        // Position of the next input value to process.
+        // If the old time series is stamped at the end of the interval, the first value is in the previous interval.
+        int pos = oldTsTimeStampedAtEnd ? 1 : 0;
+        int endPos; // Position after the last input value in the output interval.
+        DateTime newDate;
+        DateTime previousNewTSDate = new DateTime(newTSi.getDate());
+        for (; newTSi.next() != null;) {
+            firstTime = true;
+            sum = 0.0;
+            missingCount = 0;
+            dataCount = 0;
+            nMissingConsecutive = 0;
+            nMissingConsecutiveMax = 0;
+            previousIsMissing = false;
+
+            // Input values through the end date/time are in the output interval, as in changeInterval_toMEANorACCM().
+            DateTime newTS_endDate = new DateTime(newTSi.getDate());
+            if (!oldTsTimeStampedAtEnd) {
+                newTS_endDate.addInterval(oldTSBase, -oldTSMult);
+            }
+            endPos = inputArray.getCountThrough ( newTS_endDate );
+
+            for ( ; (pos < size) && (pos < endPos); pos++ ) {
+                value = values[pos];
+                missingFlag = false;
+                if (oldTS.isDataMissing(value)) {
+                    value = replaceDataValue(handleMissingInputHow, lastValue, oldMissing);
+                    if (oldTS.isDataMissing(value)) {
+                        missingCount++;
+                        missingFlag = true;
+                        if ( previousIsMissing ) {
+                            ++nMissingConsecutive;
+                        }
+                        else {
+                            nMissingConsecutive = 1;
+                        }
+                        nMissingConsecutiveMax = Math.max(nMissingConsecutive, nMissingConsecutiveMax);
+                        previousIsMissing = true;
+                    }
+                }
+                else {
+                    lastValue = value;
+                }
+                if ( firstTime ) {
+                    firstEndpointValue = values[pos];
+                    firstTime = false;
+                }
+                if (!missingFlag) {
+                    sum += value;
+                    dataCount++;
+                }
+            }
+
+            // The last end-point is the first value after the interval, or the last value if at the end of the input.
+            lastEndpointValue = values[Math.min(pos, size - 1)];
+            if (oldTS.isDataMissing(lastEndpointValue)) {
+                lastEndpointValue = replaceDataValue(handleMissingInputHow, lastValue, oldMissing);
+            }
+            if ( averageEndpoints &&
+                !oldTS.isDataMissing(lastEndpointValue) && !oldTS.isDataMissing(firstEndpointValue) ) {
+                sum -= firstEndpointValue;
+                sum += (firstEndpointValue+lastEndpointValue)/2.0;
+            }
+
+            if (newTsTimeStampedAtEnd) {
+                newDate = new DateTime(newTSi.getDate());
+            }
+            else {
+                newDate = new DateTime(previousNewTSDate);
+            }
+
+            // If the input ended in this output interval, count input intervals after the end as missing.
+            if ( !firstTime && (pos == size) && !inputArray.isDateAt(size, newTS_endDate) ) {
+                for ( int i = size; i < endPos; i++ ) {
+                    missingCount++;
+                    if ( previousIsMissing ) {
+                        ++nMissingConsecutive;
+                    }
+                    else {
+                        nMissingConsecutive = 1;
+                    }
+                    nMissingConsecutiveMax = Math.max(nMissingConsecutive, nMissingConsecutiveMax);
+                    previousIsMissing = true;
+                }
+            }
+
+            okToCompute = true;
+            if ( dataCount == 0 ) {
+                okToCompute = false;
+            }
+            else if ( missingCount > maxMissingPerInterval ) {
+                okToCompute = false;
+            }
+            else if ( nMissingConsecutiveMax > allowMissingConsecutive ) {
+                okToCompute = false;
+            }
+            if ( !okToCompute ) {
+                newTS.setDataValue(newDate, newMissing);
+            }
+            else {
+                if (newTimeScale == TimeScaleType.MEAN) {
+                    sum /= dataCount;
+                }
+                newTS.setDataValue(newDate, sum);
+            }
+
+            previousNewTSDate = new DateTime(newTSi.getDate());
+        }
+        return true;
+    }
+
     /**
      * @return New DayTS that has been converted from an irregular time series.  This is used by some
      * legacy code that at some point could be converted to use the above methods.
@@ -3236,6 +3592,24 @@ private TSUtil_ChangeInterval_HandleMissingInputHowType getHandleMissingInputHow
     return __handleMissingInputHow;
 }
 
+/**
+Return the input array for the old time series, used when changing from a smaller regular interval
+to a larger regular interval, or null if the iterator-based code should be used.
+@param oldTS the old time series
+@return the input array, or null if the old time series cannot be processed as an array
+*/
+private TSUtil_ChangeInterval_InputArray getInputArray ( TS oldTS ) {
+    if ( !__useInputArray || !TSUtil_ChangeInterval_InputArray.isSupported(oldTS) ) {
+        return null;
+    }
+    TSUtil_ChangeInterval_InputArray inputArray = new TSUtil_ChangeInterval_InputArray ( oldTS );
+    if ( inputArray.size() == 0 ) {
+        // Let the iterator-based code handle an empty time series.
+        return null;
+    }
+    return inputArray;
+}
+
 /**
  * Get the interval relation between two time series while making sure they are multiples of each other.
  *
@@ -3544,4 +3918,13 @@ private void setTolerance ( double tolerance ) {
     __tolerance = tolerance;
 }
 
+/**
+Set whether to use an array of input values when changing from a smaller regular interval to a larger regular interval.
+This is used to compare the results with the iterator-based code.
+@param useInputArray whether to use an array of input values (default is true)
+*/
+void setUseInputArray ( boolean useInputArray ) {
+    __useInputArray = useInputArray;
+}
+
 }
\ No newline at end of file
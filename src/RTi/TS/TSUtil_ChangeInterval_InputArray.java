@@ -0,0 +1,180 @@
+// TSUtil_ChangeInterval_InputArray - input time series data values and positions used when changing interval
+
+/* NoticeStart
+
+CDSS Common Java Library
+CDSS Common Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2025 Colorado Department of Natural Resources
+
+CDSS Common Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+CDSS Common Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with CDSS Common Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package RTi.TS;
+
+import RTi.Util.Time.DateTime;
+import RTi.Util.Time.TimeInterval;
+import RTi.Util.Time.TimeUtil;
+
+/**
+Data values for a regular interval input time series, copied into an array, and date/time positions in the array.
+This is used by TSUtil_ChangeInterval when changing from a smaller interval to a larger interval,
+so that each output interval is computed from a range of array positions rather than iterating through dates.
+Date/time positions are computed from absolute minutes, hours, days, months, or years,
+which give the same result as comparing date/times at the precision of the input time series.
+*/
+class TSUtil_ChangeInterval_InputArray
+{
+
+/**
+Data values for the input time series period.
+*/
+private double [] values = null;
+
+/**
+Interval base for the input time series.
+*/
+private int intervalBase;
+
+/**
+Interval multiplier for the input time series.
+*/
+private int intervalMult;
+
+/**
+Absolute position (e.g., absolute day) of the first date/time in the input time series.
+*/
+private long absolute1;
+
+/**
+Construct the array for a time series.  Call isSupported() first to check whether the time series can be used.
+@param ts regular interval time series
+*/
+public TSUtil_ChangeInterval_InputArray ( TS ts ) {
+	this.intervalBase = ts.getDataIntervalBase();
+	this.intervalMult = ts.getDataIntervalMult();
+	this.absolute1 = getAbsolute ( ts.getDate1() );
+	this.values = ts.getDataValues();
+}
+
+/**
+Return the absolute position of a date/time at the precision of the input time series interval.
+@param date date/time to evaluate
+@return the absolute position of the date/time
+*/
+private long getAbsolute ( DateTime date ) {
+	return getAbsolute ( date, this.intervalBase );
+}
+
+/**
+Return the absolute position of a date/time at the precision of an interval base.
+Consecutive intervals have consecutive positions, so the difference between two positions divided by the
+interval multiplier is the number of intervals between the date/times.
+@param date date/time to evaluate
+@param intervalBase interval base, one of TimeInterval.MINUTE, HOUR, DAY, MONTH, or YEAR
+@return the absolute position of the date/time
+*/
+static long getAbsolute ( DateTime date, int intervalBase ) {
+	if ( intervalBase == TimeInterval.YEAR ) {
+		return date.getYear();
+	}
+	else if ( intervalBase == TimeInterval.MONTH ) {
+		return date.getAbsoluteMonth();
+	}
+	long day = TimeUtil.absoluteDay ( date.getYear(), date.getMonth(), date.getDay() );
+	if ( intervalBase == TimeInterval.DAY ) {
+		return day;
+	}
+	else if ( intervalBase == TimeInterval.HOUR ) {
+		return day*24 + date.getHour();
+	}
+	else {
+		return (day*24 + date.getHour())*60 + date.getMinute();
+	}
+}
+
+/**
+Return the number of input date/times that are less than or equal to the given date/time,
+comparing at the precision of the input time series.
+The count is not limited to the input period and can therefore be larger than size().
+@param date date/time to evaluate
+@return the number of input date/times, starting with the first date/time, that are <= the given date/time
+*/
+public int getCountThrough ( DateTime date ) {
+	long delta = getAbsolute ( date ) - this.absolute1;
+	if ( delta < 0 ) {
+		return 0;
+	}
+	return (int)Math.min ( Integer.MAX_VALUE, (delta/this.intervalMult + 1) );
+}
+
+/**
+Return the data value at a position.
+@param pos position in the array, 0+
+@return the data value
+*/
+public double getDataValue ( int pos ) {
+	return this.values[pos];
+}
+
+/**
+Return the data values.
+@return the data values array
+*/
+public double [] getDataValues () {
+	return this.values;
+}
+
+/**
+Determine whether the date/time for a position is the same as the given date/time,
+comparing at the precision of the input time series.
+The position can be beyond the end of the input period.
+@param pos position, 0+
+@param date date/time to compare
+@return true if the date/time at the position is the same as the given date/time
+*/
+public boolean isDateAt ( int pos, DateTime date ) {
+	return (this.absolute1 + (long)pos*this.intervalMult) == getAbsolute ( date );
+}
+
+/**
+Determine whether a time series can be handled with an input array.
+The time series must have a regular interval of minute, hour, day, month, or year and have a period.
+@param ts time series to check
+@return true if the time series can be used as input
+*/
+public static boolean isSupported ( TS ts ) {
+	if ( (ts == null) || (ts.getDate1() == null) || (ts.getDate2() == null) ) {
+		return false;
+	}
+	int base = ts.getDataIntervalBase();
+	if ( (base != TimeInterval.MINUTE) && (base != TimeInterval.HOUR) && (base != TimeInterval.DAY) &&
+		(base != TimeInterval.MONTH) && (base != TimeInterval.YEAR) ) {
+		return false;
+	}
+	if ( ts.getDataIntervalMult() <= 0 ) {
+		return false;
+	}
+	return true;
+}
+
+/**
+Return the number of data values.
+@return the number of data values in the input period
+*/
+public int size () {
+	return this.values.length;
+}
+
+}
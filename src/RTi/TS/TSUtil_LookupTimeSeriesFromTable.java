@@ -39,6 +39,7 @@ import RTi.Util.Table.OutOfRangeLookupMethodType;
 import RTi.Util.Table.TableRecord;
 import RTi.Util.Time.DateTime;
 import RTi.Util.Time.DateTimeWindow;
+import riverside.ts.util.Table;
 
 /**
 Lookup time series values from a time series and lookup table.
@@ -223,6 +224,34 @@ public TSUtil_LookupTimeSeriesFromTable ( TS inputTS, TS outputTS, DataTable loo
     }
 }
 
+/**
+Create a table of the lookup values in ascending order and the corresponding lookup table row,
+used to find rows with a binary search.
+@param lookupTable the lookup table
+@param lookupOrder the order of the lookup column (-1=descending, row 0 has max value; 1=ascending, row 0 has min value)
+@param value1Column the column to use for the lookup (0+)
+@return the table of lookup values (column 1) and lookup table rows (column 2),
+or null if the lookup column has values that are not numbers
+*/
+private Table createLookupRowTable ( DataTable lookupTable, int lookupOrder, int value1Column )
+{
+    int nRows = lookupTable.getNumberOfRecords();
+    Table rowTable = new Table(nRows);
+    for ( int iRow = 0; iRow < nRows; iRow++ ) {
+        double value = getTableCellDouble(lookupTable, iRow, value1Column);
+        if ( Double.isNaN(value) ) {
+            return null;
+        }
+        if ( lookupOrder == 1 ) {
+            rowTable.set(iRow, value, iRow);
+        }
+        else {
+            rowTable.set(nRows - 1 - iRow, value, iRow);
+        }
+    }
+    return rowTable;
+}
+
 /**
 Determine whether the lookup table is sorted by the lookup value.
 Any nulls in data will result in a zero.
@@ -414,14 +443,20 @@ private double getTableCellDouble(DataTable lookupTable, int iRow, int iColumn )
 }
 
 /**
-Lookup the last row for the input value that is less than or equal to the value being looked up.  This provides the lower bound.
+Lookup the row for the input value that is less than or equal to the value being looked up.  This provides the lower bound.
+@param lookupRowTable table of lookup values and lookup table rows from createLookupRowTable(), or null to search the lookup table
 @param lookupTable the lookup table
 @param lookupOrder the order of the lookup column (-1=descending, row 0 has max value; 1=ascending, row 0 has min value)
 @param value1Column the column to use for the lookup (0+)
 @param inputValue the value being looked up
 */
-private int lookupFloorRow ( DataTable lookupTable, int lookupOrder, int value1Column, double inputValue )
+private int lookupFloorRow ( Table lookupRowTable, DataTable lookupTable, int lookupOrder, int value1Column, double inputValue )
 {   double value;
+    if ( lookupRowTable != null ) {
+        // Binary search of the lookup values, which are in ascending order in the row table
+        int i = lookupRowTable.getSmallerIndex(inputValue, Table.GETCOLUMN_1);
+        return (int)lookupRowTable.get(i, Table.GETCOLUMN_2);
+    }
     if ( lookupOrder == 1 ) {
         // Ascending - start at last row and search up
         for ( int iRow = lookupTable.getNumberOfRecords() - 1; iRow >= 0; iRow-- ) {
@@ -500,6 +535,7 @@ public void lookupTimeSeriesValuesFromTable ()
     DataTable fullLookupTable = getLookupTable(); // TODO SAM 2012-02-11 Need to handle effectiveDate and return lookupOrder
     DataTable lookupTable = null; // Lookup table for the effective date
     DataTable lookupTablePrev = null; // The lookup table from the previous date, to optimize
+    Table lookupRowTable = null; // Lookup values in ascending order, to find lookup table rows
     int lookupOrder = 0; // The order of the table lookup column
     LookupMethodType lookupMethodType = __lookupMethodType;
     OutOfRangeLookupMethodType outOfRangelookupMethodType = __outOfRangeLookupMethodType;
@@ -557,6 +593,7 @@ public void lookupTimeSeriesValuesFromTable ()
             }
             // Need to get some information about the table for further calculations
             nRows = lookupTable.getNumberOfRecords();
+            lookupRowTable = createLookupRowTable ( lookupTable, lookupOrder, lookupTableValue1Column );
             if ( Message.isDebugOn ) {
             	Message.printDebug(1,routine,"Lookup table is sorted in order " + lookupOrder + " and has " + nRows + " rows (missing data removed).");
             }
@@ -760,7 +797,7 @@ public void lookupTimeSeriesValuesFromTable ()
                 // In the range of values so find the value to interpolate
                 // Need to interpolate or otherwise look up.
             	// Get the row where the value is less than or equal to the input value
-                lowRow = lookupFloorRow ( lookupTable, lookupOrder, lookupTableValue1Column, inputValue );
+                lowRow = lookupFloorRow ( lookupRowTable, lookupTable, lookupOrder, lookupTableValue1Column, inputValue );
                 if ( lookupOrder == 1 ) {
                 	// Ascending
                 	highRow = lowRow + 1;
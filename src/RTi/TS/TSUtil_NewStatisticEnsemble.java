@@ -169,35 +169,10 @@ public TSUtil_NewStatisticEnsemble ( List<TS> tslist, String newEnsembleID, Stri
     }
 }
 
-/**
-Calculate the number of values in the sample that meet the statistic criteria
-@param countNonMissing number of nonmissing values in the start of the sampleData array
-@param sampleData the sample data array to analyze
-@param testValue the test value to use when evaluating the statistic
-@param testType the type of test when comparing a sample value and test value
-@return the count of sample values that meet the statistic criteria
-*/
-private int calculateCount ( int countNonMissing, double [] sampleData, double testValue, TestType testType ) {
-    int count = 0;
-    for ( int i = 0; i < countNonMissing; i++ ) {
-        if ( (testType == TestType.GE) && (sampleData[i] >= testValue) ) {
-            ++count;
-        }
-        else if ( (testType == TestType.GT) && (sampleData[i] > testValue) ) {
-            ++count;
-        }
-        else if ( (testType == TestType.LE) && (sampleData[i] <= testValue) ) {
-            ++count;
-        }
-        else if ( (testType == TestType.LT) && (sampleData[i] < testValue) ) {
-            ++count;
-        }
-    }
-    return count;
-}
-
 /**
 Process a list of input time series to create output statistic time series.
+The trace values are copied once into a time-major matrix, which is then used to compute the statistic
+for each test value, with blocks of time steps processed in parallel.
 @param tslist time series to analyze
 @param stattsList list of output statistic time series, previously constructed and memory allocated
 @param statisticType statistic to calculate
@@ -213,71 +188,34 @@ private void calculateStatistic (
     String routine = getClass().getSimpleName() + ".calculateStatistic";
     int size = tslist.size();
     Message.printStatus(2,routine,"Have " + size + " time series to analyze.");
-    TS ts; // Time series in the ensemble.
-    // To improve performance, initialize an array of time series.
-    TS [] ts_array = tslist.toArray(new TS[tslist.size()]);
-    if ( ts_array.length == 0 ) {
+    if ( size == 0 ) {
         throw new RuntimeException ( "Ensemble has 0 traces - cannot analyze statistic.");
     }
-    DateTime date = new DateTime(analysisStart);
-    int i; // Index for time series in loop.
-    double value; // Value from the input time series.
-    double [] sampleData = new double[size]; // One value from each ensemble.
-    int countNonMissing; // Count of sampleData that are non-missing.
-    int countMissing; // Count of sampleData that are missing.
     Message.printStatus(2, routine, "Analyzing time series list for period " + analysisStart + " to " +
         analysisEnd );
-    // Loop through the analysis period.
-    int intervalBase = ts_array[0].getDataIntervalBase();
-    int intervalMult = ts_array[0].getDataIntervalMult();
-    int statCount;
-    boolean statisticIsCount = isStatisticCount(statisticType);
-    boolean statisticIsPercent = isStatisticPercent(statisticType);
-    TestType testType = getStatisticTestType(statisticType);
-    for ( ; date.lessThanOrEqualTo(analysisEnd); date.addInterval(intervalBase, intervalMult) ) {
-        // Loop through the time series for the date/time.
-        countNonMissing = 0;
-        countMissing = 0;
-        for ( i = 0; i < size; i++ ) {
-            ts = ts_array[i];
-            value = ts.getDataValue(date);
-            if ( ts.isDataMissing(value) ) {
-                // Ignore missing data.
-                ++countMissing;
-                continue;
+    TSEnsembleMatrix matrix = new TSEnsembleMatrix ( tslist, analysisStart, analysisEnd,
+        tslist.get(0).getDataIntervalBase(), tslist.get(0).getDataIntervalMult() );
+    // Now analyze the statistic for each output time series.
+    for ( int i = 0; i < testValues.length; i++ ) {
+        TS statts = stattsList.get(i);
+        // The statistic is not computed if missing values are a problem.
+        // TODO SAM 2012-07-13 Percent is of non-missing stations - evaluate whether should be percent of total stations?
+        double [] results = matrix.computeStatistic ( statisticType, testValues[i],
+            allowMissingCount, minimumSampleSize, 0 );
+        int notComputedCount = 0;
+        DateTime date = matrix.getDate1();
+        for ( int step = 0; step < results.length; step++, date.addInterval(matrix.getIntervalBase(),matrix.getIntervalMult()) ) {
+            if ( Double.isNaN(results[step]) ) {
+                ++notComputedCount;
             }
             else {
-                // Save non-missing value in the sample.
-                sampleData[countNonMissing++] = value;
+                statts.setDataValue ( date, results[step] );
             }
         }
-        // Now analyze the statistic for each output time series.
-        TS statts;
-        for ( i = 0; i < testValues.length; i++ ) {
-            statts = stattsList.get(i);
-            // Now compute the statistic from the sample if missing values are not a problem.
-            if ( (allowMissingCount >= 0) && (countMissing > allowMissingCount) ) {
-                // Too many missing values to compute statistic
-                Message.printStatus ( 2, routine, "Not computing time series statistic at " + date +
-                    " because number of missing values " + countMissing + " is > allowed (" + allowMissingCount + ").");
-                continue;
-            }
-            if ( (minimumSampleSize >= 0) && (countNonMissing < minimumSampleSize) ) {
-                // Sample size too small to compute statistic.
-                Message.printStatus ( 2, routine, "Not computing time series statistic at " + date +
-                    " because sample size " + countNonMissing + " is < minimum required (" + minimumSampleSize + ").");
-                continue;
-            }
-            // Else have enough data so compute the statistic.
-            statCount = calculateCount(countNonMissing,sampleData,testValues[i],testType);
-            if ( statisticIsCount ) {
-                statts.setDataValue ( date, (double)statCount );
-            }
-            else if ( statisticIsPercent && (countNonMissing > 0) ) {
-                // Default is percent of non-missing stations.
-                // TODO SAM 2012-07-13 Evaluate whether should be percent of total stations?
-                statts.setDataValue ( date, 100.0*(double)statCount/(double)countNonMissing );
-            }
+        if ( notComputedCount > 0 ) {
+            Message.printStatus ( 2, routine, "Did not compute time series statistic for test value " + testValues[i] +
+                " for " + notComputedCount + " of " + results.length + " time steps because the number of missing values " +
+                "is > allowed (" + allowMissingCount + ") or sample size is < minimum required (" + minimumSampleSize + ")." );
         }
     }
 }
@@ -29,7 +29,6 @@ import java.util.ArrayList;
 import java.util.List;
 
 import RTi.Util.Math.DistributionType;
-import RTi.Util.Math.MathUtil;
 import RTi.Util.Message.Message;
 import RTi.Util.Time.DateTime;
 
@@ -316,237 +315,52 @@ throws Exception
     }
     boolean isCountStatistic = getIsCountStatistic( statisticType );
 
-    // Initialize the iterators using the analysis period...
-    TSIterator tsi_stat = null;
-    try {
-        tsi_stat = stat_ts.iterator ( analysisStart, analysisEnd );
-    }
-    catch ( Exception e ) {
-        throw new RuntimeException ( "Error creating time series iterator (" + e + ").");
-    }
     int size = ensemble.size();
     Message.printStatus(2,routine,"Have " + size + " time series in ensemble to analyze.");
-    TS ts; // Time series in the ensemble
-    // To improve performance, initialize an array of time series...
-    TS [] ts_array = ensemble.toArray();
-    if ( ts_array.length == 0 ) {
+    if ( size == 0 ) {
         throw new RuntimeException ( "Ensemble has 0 traces - cannot analyze statistic.");
     }
-    // Now iterate through all of the traces and get data for each date/time...
-    DateTime date;
-    int i; // Index for time series in loop.
-    double value; // Value from the input time series
-    double sum_value = ts_array[0].getMissing(); // Value in the sum time series
-    double [] sampleData = new double[size]; // One value from each ensemble
-    int countNonMissing; // Count of sampleData that are non-missing
-    int countMissing; // Count of sampleData that are missing
+    if ( !TSEnsembleMatrix.isStatisticSupported(statisticType) ) {
+        // Statistic is a choice but is not computed for each time step - leave the output missing.
+        return stat_ts;
+    }
     Message.printStatus(2, routine, "Analyzing time series ensemble for period " + analysisStart + " to " + analysisEnd );
-    while ( tsi_stat.next() != null ) {
-        date = tsi_stat.getDate();
-        // Loop through the time series...
-        countNonMissing = 0;
-        countMissing = 0;
-        for ( i = 0; i < size; i++ ) {
-            // Loop through the time series at the date/time
-            ts = ts_array[i];
-            // Initialize for the list of time series - put here to make sure
-            // that the missing value is consistent with the time series
-            if ( i == 0 ) {
-                sum_value = ts.getMissing();
-            }
-            value = ts.getDataValue(date);
-            if ( ts.isDataMissing(value) ) {
-                // Ignore missing data...
-                ++countMissing;
-                continue;
-            }
-            else {
-                // Save non-missing value in the sample...
-                sampleData[countNonMissing++] = value;
-                if ( ts.isDataMissing(sum_value) ) {
-                    // Just assign the value
-                    sum_value = value;
-                }
-                else {
-                    // Increment the total...
-                    sum_value += value;
-                }
-            }
-        }
-        // Now compute the statistic from the sample if missing values are not a problem.
-        if ( !isCountStatistic ) {
-            // Have to check to see if enough data points are available
-            if ( (allowMissingCount >= 0) && (countMissing > allowMissingCount) ) {
-                // Too many missing values to compute statistic
-                Message.printStatus ( 2, routine, "Not computing time series statistic at " + date +
-                    " because number of missing values " + countMissing + " is > allowed (" + allowMissingCount + ").");
-                stat_ts.setDataValue ( date, stat_ts.getMissing() );
-                continue;
-            }
-            if ( (minimumSampleSize >= 0) && (countNonMissing < minimumSampleSize) ) {
-                // Sample size too small to compute statistic
-                Message.printStatus ( 2, routine, "Not computing time series statistic at " + date +
-                    " because sample size " + countNonMissing + " is < minimum required (" + minimumSampleSize + ").");
-                stat_ts.setDataValue ( date, stat_ts.getMissing() );
-                continue;
-            }
-        }
-        // Else have enough data so compute the statistic.
-        // TODO SAM 2009-10-26 Will need to rework if the time series that results in the statistic is needed
-        // (currently this is lost when calling the MathUtil methods).
-        // TODO SAM 2009-10-26 Trying to set the result in a time series that has a shorter period could
-        // generate low-level warnings, but for now allow this to occur rather than incurring the overhead
-        // of checking the output period.
-        if ( statisticType == TSStatisticType.EXCEEDANCE_PROBABILITY ) {
-        	if ( countNonMissing > 0 ) {
-                stat_ts.setDataValue ( date, MathUtil.exceedanceProbabilityValue(countNonMissing,sampleData,value1) );
-            }
-        }
-        else if ( statisticType == TSStatisticType.EXCEEDANCE_PROBABILITY_10 ) {
-            if ( countNonMissing > 0 ) {
-                stat_ts.setDataValue ( date, MathUtil.exceedanceProbabilityValue(countNonMissing,sampleData,.1) );
-            }
-        }
-        else if ( statisticType == TSStatisticType.EXCEEDANCE_PROBABILITY_30 ) {
-            if ( countNonMissing > 0 ) {
-                stat_ts.setDataValue ( date, MathUtil.exceedanceProbabilityValue(countNonMissing,sampleData,.3) );
-            }
-        }
-        else if ( statisticType == TSStatisticType.EXCEEDANCE_PROBABILITY_50 ) {
-            if ( countNonMissing > 0 ) {
-                stat_ts.setDataValue ( date, MathUtil.exceedanceProbabilityValue(countNonMissing,sampleData,.5) );
-            }
-        }
-        else if ( statisticType == TSStatisticType.EXCEEDANCE_PROBABILITY_70 ) {
-            if ( countNonMissing > 0 ) {
-                stat_ts.setDataValue ( date, MathUtil.exceedanceProbabilityValue(countNonMissing,sampleData,.7) );
-            }
-        }
-        else if ( statisticType == TSStatisticType.EXCEEDANCE_PROBABILITY_90 ) {
-            if ( countNonMissing > 0 ) {
-                stat_ts.setDataValue ( date, MathUtil.exceedanceProbabilityValue(countNonMissing,sampleData,.9) );
-            }
-        }
-        else if ( statisticType == TSStatisticType.GE_COUNT ) {
-        	int count = 0;
-        	for ( int isamp = 0; isamp < countNonMissing; isamp++ ) {
-        		if ( sampleData[isamp] >= value1 ) {
-        			++count;
-        		}
-        	}
-        	stat_ts.setDataValue ( date, count );
-        }
-        else if ( statisticType == TSStatisticType.GT_COUNT ) {
-        	int count = 0;
-        	for ( int isamp = 0; isamp < countNonMissing; isamp++ ) {
-        		if ( sampleData[isamp] > value1 ) {
-        			++count;
-        		}
-        	}
-        	stat_ts.setDataValue ( date, count );
-        }
-        else if ( statisticType == TSStatisticType.LT_COUNT ) {
-        	int count = 0;
-        	for ( int isamp = 0; isamp < countNonMissing; isamp++ ) {
-        		if ( sampleData[isamp] < value1 ) {
-        			++count;
-        		}
-        	}
-        	stat_ts.setDataValue ( date, count );
-        }
-        else if ( statisticType == TSStatisticType.LE_COUNT ) {
-        	int count = 0;
-        	for ( int isamp = 0; isamp < countNonMissing; isamp++ ) {
-        		if ( sampleData[isamp] <= value1 ) {
-        			++count;
-        		}
-        	}
-        	stat_ts.setDataValue ( date, count );
-        }
-        else if ( statisticType == TSStatisticType.GEOMETRIC_MEAN ) {
-            if ( countNonMissing > 0 ) {
-                stat_ts.setDataValue ( date, MathUtil.geometricMean(countNonMissing,sampleData) );
-            }
-        }
-        else if ( statisticType == TSStatisticType.MAX ) {
-            if ( countNonMissing > 0 ) {
-                stat_ts.setDataValue ( date, MathUtil.max(countNonMissing,sampleData) );
-            }
-        }
-        else if ( statisticType == TSStatisticType.MEAN ) {
-            if ( countNonMissing > 0 ) {
-                stat_ts.setDataValue ( date, MathUtil.mean(countNonMissing,sampleData) );
-            }
-        }
-        else if ( statisticType == TSStatisticType.MEDIAN ) {
-            // Remove the missing values and analyze only non-missing values
-            if ( countNonMissing > 0 ) {
-                stat_ts.setDataValue ( date, MathUtil.median(countNonMissing,sampleData) );
-            }
-        }
-        else if ( statisticType == TSStatisticType.MIN ) {
-            if ( countNonMissing > 0 ) {
-                stat_ts.setDataValue ( date, MathUtil.min(countNonMissing,sampleData) );
-            }
-        }
-        else if ( statisticType == TSStatisticType.MISSING_COUNT ) {
-            stat_ts.setDataValue ( date, countMissing );
-        }
-        else if ( statisticType == TSStatisticType.MISSING_PERCENT ) {
-            stat_ts.setDataValue ( date, 100.0*countMissing/(double)(countMissing + countNonMissing) );
-        }
-        else if ( statisticType == TSStatisticType.NONEXCEEDANCE_PROBABILITY ) {
-        	if ( countNonMissing > 0 ) {
-                stat_ts.setDataValue ( date, MathUtil.nonexceedanceProbabilityValue(countNonMissing,sampleData,value1) );
-            }
-        }
-        else if ( statisticType == TSStatisticType.NONEXCEEDANCE_PROBABILITY_10 ) {
-            if ( countNonMissing > 0 ) {
-                stat_ts.setDataValue ( date, MathUtil.nonexceedanceProbabilityValue(countNonMissing,sampleData,.1) );
-            }
-        }
-        else if ( statisticType == TSStatisticType.NONEXCEEDANCE_PROBABILITY_30 ) {
-            if ( countNonMissing > 0 ) {
-                stat_ts.setDataValue ( date, MathUtil.nonexceedanceProbabilityValue(countNonMissing,sampleData,.3) );
-            }
-        }
-        else if ( statisticType == TSStatisticType.NONEXCEEDANCE_PROBABILITY_50 ) {
-            if ( countNonMissing > 0 ) {
-                stat_ts.setDataValue ( date, MathUtil.nonexceedanceProbabilityValue(countNonMissing,sampleData,.5) );
-            }
-        }
-        else if ( statisticType == TSStatisticType.NONEXCEEDANCE_PROBABILITY_70 ) {
-            if ( countNonMissing > 0 ) {
-                stat_ts.setDataValue ( date, MathUtil.nonexceedanceProbabilityValue(countNonMissing,sampleData,.7) );
-            }
-        }
-        else if ( statisticType == TSStatisticType.NONEXCEEDANCE_PROBABILITY_90 ) {
-            if ( countNonMissing > 0 ) {
-                stat_ts.setDataValue ( date, MathUtil.nonexceedanceProbabilityValue(countNonMissing,sampleData,.9) );
-            }
-        }
-        else if ( statisticType == TSStatisticType.NONMISSING_COUNT ) {
-            stat_ts.setDataValue ( date, countNonMissing );
-        }
-        else if ( statisticType == TSStatisticType.NONMISSING_PERCENT ) {
-            stat_ts.setDataValue ( date, 100.0*countNonMissing/(double)(countMissing + countNonMissing) );
-        }
-        else if ( statisticType == TSStatisticType.SKEW ) {
-            if ( countNonMissing >= 3 ) { // Need 3 values to do calculation
-                stat_ts.setDataValue ( date, MathUtil.skew(countNonMissing,sampleData) );
-            }
-        }
-        else if ( statisticType == TSStatisticType.STD_DEV ) {
-            if ( countNonMissing >= 2 ) { // Need 2 values to do calculation
-                stat_ts.setDataValue ( date, MathUtil.standardDeviation(countNonMissing,sampleData) );
-            }
+    // Copy the trace values once into a time-major matrix using the interval of the statistic time series
+    // and then compute the statistic for blocks of time steps in parallel.
+    TSEnsembleMatrix matrix = new TSEnsembleMatrix ( ensemble.getTimeSeriesList(false), analysisStart, analysisEnd,
+        stat_ts.getDataIntervalBase(), stat_ts.getDataIntervalMult() );
+    double testValue = Double.NaN;
+    if ( value1 != null ) {
+        testValue = value1.doubleValue();
+    }
+    double [] results = null;
+    if ( isCountStatistic ) {
+        // Count statistics are computed regardless of the number of missing values.
+        results = matrix.computeStatistic ( statisticType, testValue, -1, -1, 0 );
+    }
+    else {
+        results = matrix.computeStatistic ( statisticType, testValue, allowMissingCount, minimumSampleSize, 0 );
+    }
+    // Save the results - time steps where the statistic was not computed are left missing.
+    // TODO SAM 2009-10-26 Trying to set the result in a time series that has a shorter period could
+    // generate low-level warnings, but for now allow this to occur rather than incurring the overhead
+    // of checking the output period.
+    int notComputedCount = 0;
+    DateTime date = matrix.getDate1();
+    for ( int step = 0; step < results.length; step++, date.addInterval(matrix.getIntervalBase(),matrix.getIntervalMult()) ) {
+        if ( Double.isNaN(results[step]) ) {
+            ++notComputedCount;
         }
-        else if ( statisticType == TSStatisticType.TOTAL ) {
-            if ( countNonMissing > 0 ) {
-                stat_ts.setDataValue ( date, sum_value );
-            }
+        else {
+            stat_ts.setDataValue ( date, results[step] );
         }
     }
+    if ( notComputedCount > 0 ) {
+        Message.printStatus ( 2, routine, "Did not compute time series statistic for " + notComputedCount + " of " +
+            results.length + " time steps because the sample had too many missing values (allowed=" +
+            allowMissingCount + "), was smaller than the minimum required (" + minimumSampleSize +
+            "), or was too small for the statistic." );
+    }
 
     // Return the result.
     return stat_ts;
@@ -245,7 +245,9 @@ public void timeSeriesToTable ()
                     }
                     else {
                         // Set as a double because non-missing or missing and the missing value should be used
-                        __table.setFieldValue(setRow, valueColumn, Double.valueOf(value), true );
+                        // - setDouble() creates the row if necessary, the same as setFieldValue()
+                        // - setDouble() avoids creating an object if the table uses a column store
+                        __table.setDouble(setRow, valueColumn, value, true );
                     }
                 }
                 catch ( Exception e ) {
@@ -505,7 +507,9 @@ public void timeSeriesToTable ()
                         }
                         else {
                             // Set as a double because non-missing or missing and the missing value should be used
-                            __table.setFieldValue(setRow, setColumn, Double.valueOf(value), true );
+                            // - setDouble() creates the row if necessary, the same as setFieldValue()
+                            // - setDouble() avoids creating an object if the table uses a column store
+                            __table.setDouble(setRow, setColumn, value, true );
                             if ( Message.isDebugOn ) {
                                 Message.printDebug(1,routine,"Set [" + setRow + "][" + setColumn + "]=" + value );
                             }
@@ -64,6 +64,7 @@ import RTi.Util.IO.DataUnits;
 import RTi.Util.IO.IOUtil;
 import RTi.Util.IO.PropList;
 import RTi.Util.Message.Message;
+import RTi.Util.String.NumberFormatter;
 import RTi.Util.String.StringUtil;
 import RTi.Util.Time.DateTime;
 import RTi.Util.Time.TimeInterval;
@@ -889,6 +890,8 @@ filling out the row.  The data values are always a maximum of 13 characters.
 */
 private void formatOutputNYear ( List<String> strings, PropList props, YearType calendar, String data_format,
 	DateTime start_date, DateTime end_date, String req_units, String total_column ) {
+	// Formatter for data values, parsed once for all values.
+	NumberFormatter dataFormatter = NumberFormatter.getInstance ( data_format );
 	DateTime date = new DateTime ( start_date );
 	DateTime end = new DateTime ( end_date );
 	strings.add ( "" );
@@ -911,7 +914,7 @@ private void formatOutputNYear ( List<String> strings, PropList props, YearType
 			}
 			else {
 				strings.add(date.toString(DateTime.FORMAT_YYYY)+
-				" " + StringUtil.formatString(value,data_format) + " " +
+				" " + dataFormatter.format(value) + " " +
 				StringUtil.formatString(getDataPoint(date,tsdata).getDataFlag(),"%4.4s") );
 			}
 		}
@@ -920,7 +923,7 @@ private void formatOutputNYear ( List<String> strings, PropList props, YearType
 				strings.add(date.toString(DateTime.FORMAT_YYYY)+ "               " );
 			}
 			else {
-				strings.add(date.toString(DateTime.FORMAT_YYYY)+ " " + StringUtil.formatString(value,data_format) );
+				strings.add(date.toString(DateTime.FORMAT_YYYY)+ " " + dataFormatter.format(value) );
 			}
 		}
 	}
@@ -44,6 +44,10 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.swing.DefaultCellEditor;
 import javax.swing.DefaultListSelectionModel;
@@ -70,11 +74,13 @@ import javax.swing.table.TableModel;
 
 import RTi.DMI.DMIUtil;
 import RTi.GR.GRColor;
+import RTi.Util.IO.DaemonThreadPool;
 import RTi.Util.IO.HTMLWriter;
 import RTi.Util.IO.IOUtil;
 import RTi.Util.IO.PropList;
 import RTi.Util.Math.MathUtil;
 import RTi.Util.Message.Message;
+import RTi.Util.String.NumberFormatter;
 import RTi.Util.String.StringUtil;
 import RTi.Util.Table.DataTable;
 import RTi.Util.Table.DataTable_CellRenderer;
@@ -681,6 +687,22 @@ The <b>visible</b> column on which the popup menu was last opened, used to keep
 */
 private int __popupColumn = -1;
 
+/**
+Executor used to sort columns in the background, shared by all worksheets.
+*/
+private static ExecutorService __sortExecutor = null;
+
+/**
+Sort that is running in the background, or null if no sort is running.
+*/
+private Future<?> __sortFuture = null;
+
+/**
+Sequence number for sorts, incremented for each sort and when a sort is canceled,
+used to ignore the results of sorts that have been canceled.
+*/
+private int __sortSequence = 0;
+
 /**
 The selection mode in which the table is currently operating.
 A -1 means the JWorksheet mode, as opposed to one of the JTable modes, is in effect.
@@ -1109,20 +1131,14 @@ public void actionPerformed(ActionEvent event) {
 	boolean popupMenuEvent = false;
 
 	if (command.equals(__MENU_SORT_ASCENDING)) {
-		setWaitCursor(true);
-		notifySortListenersSortAboutToChange(StringUtil.SORT_ASCENDING);
+		// Sorting is done in the background and listeners are notified of the change when the sort is done.
 		sortColumn (StringUtil.SORT_ASCENDING);
-		notifySortListenersSortChanged(StringUtil.SORT_ASCENDING);
-		setWaitCursor(false);
 	}
 	else if (command.equals(__MENU_SORT_DESCENDING)) {
-		setWaitCursor(true);
-		notifySortListenersSortAboutToChange(StringUtil.SORT_DESCENDING);
 		sortColumn (StringUtil.SORT_DESCENDING);
-		notifySortListenersSortChanged(StringUtil.SORT_DESCENDING);
-		setWaitCursor(false);
 	}
 	else if (command.equals(__MENU_ORIGINAL_ORDER)) {
+		cancelSort();
 		setWaitCursor(true);
 		notifySortListenersSortAboutToChange(-1);
 		((JWorksheet_AbstractTableModel)getModel()).setSortedOrder(null);
@@ -2087,6 +2103,21 @@ public void cancelEditing() {
 	}
 }
 
+/**
+Cancels a column sort that is running in the background, if any.
+The table remains in the order it was in before the sort was requested.
+This should be called on the Swing event thread.
+*/
+public void cancelSort() {
+	if (__sortFuture != null) {
+		__sortFuture.cancel(true);
+		__sortFuture = null;
+		// Increment the sequence so that results from the canceled sort are ignored.
+		++__sortSequence;
+		setWaitCursor(false);
+	}
+}
+
 /**
 Returns whether the specified cell has any attributes set.
 @param row the row of the cell to check
@@ -4227,6 +4258,19 @@ public int getSortedRowNumber(int unsortedRow) {
 	return -1;
 }
 
+/**
+Returns the executor used to sort columns in the background, creating it if necessary.
+A single daemon thread is used so that sorts do not compete with each other and do not prevent the
+application from exiting.
+@return the executor used to sort columns.
+*/
+private static synchronized ExecutorService getSortExecutor() {
+	if (__sortExecutor == null) {
+		__sortExecutor = Executors.newSingleThreadExecutor(DaemonThreadPool.newThreadFactory("JWorksheet.sort"));
+	}
+	return __sortExecutor;
+}
+
 /**
 For a number format (e.g., "%9d"),
 this returns an equivalent format that can be used to parse the number as a string.
@@ -4333,7 +4377,7 @@ public String getValueAtAsString(int row, int column, String format) {
 		}
 		else {
 			if (format != null) {
-				return StringUtil.formatString(I.intValue(), format);
+				return NumberFormatter.getInstance(format).format(I.intValue());
 			}
 			else {
 				return "" + I.intValue();
@@ -4348,7 +4392,7 @@ public String getValueAtAsString(int row, int column, String format) {
 		}
 		else {
 			if (format != null) {
-				return StringUtil.formatString(d.doubleValue(), format);
+				return NumberFormatter.getInstance(format).format(d.doubleValue());
 			}
 			else {
 				return "" + d.doubleValue();
@@ -6372,6 +6416,8 @@ Sets a new table model into the worksheet and populates the worksheet with the d
 @param tm the TableModel with which to populate the worksheet.
 */
 public void setModel(JWorksheet_AbstractTableModel tm) {
+	// A sort of the previous model should not be applied to the new model.
+	cancelSort();
 	__lastRowSelected = -1;
 	tm._worksheet = this;
 	super.setModel(tm);
@@ -6605,166 +6651,65 @@ which will paint an empty string ("") instead of -999 or -999.00, etc.
 When the empty string is attempted to be turned into a Double or an Integer,
 an exception is thrown and caught, and the appropriate DMIUtil.MISSING value is placed in the list to be sorted,
 so missing data will sort as much lower than other data.
+The sort is done on a background thread so that the user interface remains responsive for large tables.
+If the table model cannot be read from a background thread (see
+JWorksheet_AbstractTableModel.canReadValuesInBackground()), values are read on the Swing event thread and only
+the sort is done in the background.  The sorted order is set in the table model when the sort is done and then
+sort listeners are notified.  A sort that is running is canceled if another sort is requested or cancelSort()
+is called, in which case sort listeners are not notified that the sort changed.
 @param order the order in which to sort the column, either SORT_ASCENDING or SORT_DESCENDING as defined in StringUtil.
 */
 private void sortColumn(int order) {
-	// Clear out the sorted order for the table model if one has already been generated by a previous sort.
-	((JWorksheet_AbstractTableModel)getModel()).setSortedOrder(null);
-
-	int size = getRowCount();
-	int[] sortOrder = new int[size];
-
-	int absColumn = getAbsoluteColumn(__popupColumn);
-
-	// Sort numbers with MathUtil.sort().
-	int exceptionCount = 0;
-	if (getColumnClass(absColumn) == Integer.class) {
-		int[] unsorted = new int[size];
-		Integer I = null;
-		for (int i = 0; i < size; i++) {
-			try {
-				I = (Integer)getValueAt(i, __popupColumn);
-				if ( I == null ) {
-					unsorted[i] = DMIUtil.MISSING_INT;
-				}
-				else {
-					unsorted[i] = I.intValue();
-				}
-			}
-			catch (Exception e) {
-				++exceptionCount;
-				if ( exceptionCount < 10 ) {
-					Message.printWarning(3,"","Exception getting data for sort:");
-					Message.printWarning(3,"",e);
-				}
-				unsorted[i] = DMIUtil.MISSING_INT;
-			}
-		}
-		MathUtil.sort(unsorted, MathUtil.SORT_QUICK, order, sortOrder, true);
-	}
-	else if (getColumnClass(absColumn) == Long.class) {
-        long[] unsorted = new long[size];
-        Long l = null;
-        for (int i = 0; i < size; i++) {
-            try {
-                l = (Long)getValueAt(i, __popupColumn);
-				if ( l == null ) {
-					unsorted[i] = DMIUtil.MISSING_LONG;
-				}
-				else {
-					unsorted[i] = l.longValue();
-				}
-            }
-            catch (Exception e) {
-				++exceptionCount;
-				if ( exceptionCount < 10 ) {
-					Message.printWarning(3,"","Exception getting data for sort:");
-					Message.printWarning(3,"",e);
-				}
-                unsorted[i] = DMIUtil.MISSING_LONG;
-            }
-        }
-        MathUtil.sort(unsorted, MathUtil.SORT_QUICK, order, sortOrder, true);
-    }
-	else if ( (getColumnClass(absColumn) == Double.class) || (getColumnClass(absColumn) == Float.class) ) {
-		// Sort numbers with MathUtil.sort().
-		// Treat Float as Double since sort method does not handle float[].
-		double[] unsorted = new double[size];
-		Object o = null;
-		for (int i = 0; i < size; i++) {
-			try {
-				o = getValueAt(i, __popupColumn);
-				if ( o == null ) {
-					unsorted[i] = DMIUtil.MISSING_DOUBLE;
-				}
-				else if ( o instanceof Double ) {
-					unsorted[i] = ((Double)o).doubleValue();
-				}
-				else {
-					unsorted[i] = ((Float)o).doubleValue();
-				}
-			}
-			catch (Exception e) {
-				++exceptionCount;
-				if ( exceptionCount < 10 ) {
-					Message.printWarning(3,"","Exception getting data for sort:");
-					Message.printWarning(3,"",e);
-				}
-				unsorted[i] = DMIUtil.MISSING_DOUBLE;
-			}
+	cancelSort();
+	JWorksheet_AbstractTableModel<?> model = (JWorksheet_AbstractTableModel<?>)getModel();
+	int rowCount = getRowCount();
+	JWorksheet_ColumnSorter sorter = new JWorksheet_ColumnSorter(model, convertColumnIndexToModel(__popupColumn),
+		getColumnClass(getAbsoluteColumn(__popupColumn)), rowCount, model.getSortOrder(), order);
+	setWaitCursor(true);
+	notifySortListenersSortAboutToChange(order);
+	if (!model.canReadValuesInBackground()) {
+		sorter.readValues();
+	}
+	int sequence = ++__sortSequence;
+	__sortFuture = getSortExecutor().submit(() -> {
+		int[] sortOrder = null;
+		try {
+			sortOrder = sorter.sort();
 		}
-		MathUtil.sort(unsorted, MathUtil.SORT_QUICK, order, sortOrder, true);
-	}
-	// Sort Dates by turning them into Strings first and sorting with StringUtil.sort().
-	else if (getColumnClass(absColumn) == Date.class) {
-	    // Since sorting by dates, handle the dates generically.  This allows Date and DateTime to be used.
-		List<String> v = new ArrayList<>(size);
-		Object o = null;
-		for (int i = 0; i < size; i++) {
-			//d = (Date)
-		    o = getValueAt(i, __popupColumn);
-			if (o == null) {
-				v.add("");
-			}
-			else {
-				v.add("" + o);
-			}
+		catch (CancellationException e) {
+			return;
 		}
-		StringUtil.sortStringList(v, order, sortOrder, true, true);
-	}
-	// Sort booleans by converting to numbers and sorting with quick sort.
-	// trues are turned into -1 and false into 0 so that trues sort
-	// to the top when doing sort ascending, like in Microsoft Access.
-	else if (getColumnClass(absColumn) == Boolean.class) {
-		int[] unsorted = new int[size];
-		Boolean B = null;
-		for (int i = 0; i < size; i++) {
-			try {
-				B = (Boolean)getValueAt(i, __popupColumn);
-				if (B.booleanValue()) {
-					unsorted[i] = -1;
-				}
-				else {
-					unsorted[i] = 0;
-				}
-			}
-			catch (Exception e) {
-				++exceptionCount;
-				if ( exceptionCount < 10 ) {
-					Message.printWarning(3,"","Exception getting data for sort:");
-					Message.printWarning(3,"",e);
-				}
-				unsorted[i] = DMIUtil.MISSING_INT;
-			}
+		catch (Exception e) {
+			Message.printWarning(3, "JWorksheet.sortColumn", "Error sorting column (" + e + ").");
+			Message.printWarning(3, "JWorksheet.sortColumn", e);
 		}
-		MathUtil.sort(unsorted, MathUtil.SORT_QUICK, order, sortOrder, true);
+		int[] sortOrderFinal = sortOrder;
+		SwingUtilities.invokeLater(() -> finishSortColumn(sequence, order, sortOrderFinal, rowCount));
+	});
+}
+
+/**
+Finish sorting a column, called on the Swing event thread when a background sort is done.
+@param sequence the sort sequence number, used to ignore canceled sorts
+@param order the order of the sort, either SORT_ASCENDING or SORT_DESCENDING as defined in StringUtil.
+@param sortOrder the sorted order, or null if the sort failed
+@param rowCount the number of rows that were sorted
+*/
+private void finishSortColumn(int sequence, int order, int[] sortOrder, int rowCount) {
+	if (sequence != __sortSequence) {
+		// Sort was canceled.
+		return;
 	}
-	// Sort Strings with StringUtil.sort().
-	else {
-		List<String> v = new ArrayList<>(size);
-		Object o = null;
-		for (int i = 0; i < size; i++) {
-			o = getValueAt(i, __popupColumn);
-			if (o == null) {
-				v.add("");
-			}
-			else {
-				if ( o instanceof String ) {
-					v.add((String)o);
-				}
-				else {
-					v.add("" + o);
-				}
-			}
-		}
-		StringUtil.sortStringList(v, order, sortOrder, true, true);
+	__sortFuture = null;
+	if ((sortOrder != null) && (rowCount == getRowCount())) {
+		// Set the sorted order into the table model.
+		((JWorksheet_AbstractTableModel<?>)getModel()).setSortedOrder(sortOrder);
+		// And force a redraw on the table model.
+		((JWorksheet_AbstractTableModel<?>)getModel()).fireTableDataChanged();
+		__cancelMenuItem.setEnabled(true);
 	}
-	// Set the sorted order into the table model.
-	((JWorksheet_AbstractTableModel)getModel()).setSortedOrder(sortOrder);
-	// And force a redraw on the table model.
-	((JWorksheet_AbstractTableModel)getModel()).fireTableDataChanged();
-
-	__cancelMenuItem.setEnabled(true);
+	setWaitCursor(false);
+	notifySortListenersSortChanged(order);
 }
 
 /**
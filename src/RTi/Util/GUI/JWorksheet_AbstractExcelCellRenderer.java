@@ -39,6 +39,7 @@ import javax.swing.border.EmptyBorder;
 
 import RTi.DMI.DMIUtil;
 
+import RTi.Util.String.NumberFormatter;
 import RTi.Util.String.StringUtil;
 
 /**
@@ -114,6 +115,8 @@ boolean isSelected, boolean hasFocus, int row, int column) {
 
 	// Get the format from the cell renderer.
 	String format = getFormat(abscolumn);
+	// Formatter for numbers, shared for all cells that use the format.
+	NumberFormatter formatter = NumberFormatter.getInstance(format);
     //Message.printStatus(2, "SAMX", "formatting " + value + " with " + format );
 
 	int justification = SwingConstants.LEFT; // Default for strings, dates.
@@ -125,7 +128,7 @@ boolean isSelected, boolean hasFocus, int row, int column) {
 		}
 		else {
 			justification = SwingConstants.RIGHT;
-			str = StringUtil.formatString(i.intValue(), format);
+			str = formatter.format(i.intValue());
 		}
 	}
 	else if (value instanceof Double) {
@@ -142,7 +145,7 @@ boolean isSelected, boolean hasFocus, int row, int column) {
 		else {
 			justification = SwingConstants.RIGHT;
 			//Message.printStatus(2, "SAMX", "formatting " + d.doubleValue() + " with " + format );
-			str = StringUtil.formatString(d.doubleValue(), format);
+			str = formatter.format(d.doubleValue());
 		}
 	}
 	else if (value instanceof Date) {
@@ -160,7 +163,7 @@ boolean isSelected, boolean hasFocus, int row, int column) {
 		}
 		else {
 			justification = SwingConstants.RIGHT;
-			str = StringUtil.formatString(f.floatValue(), format);
+			str = formatter.format(f.floatValue());
 		}
 	}
 	else if (value instanceof Long) {
@@ -170,7 +173,7 @@ boolean isSelected, boolean hasFocus, int row, int column) {
         }
         else {
             justification = SwingConstants.RIGHT;
-            str = StringUtil.formatString(l.longValue(), format);
+            str = formatter.format(l.longValue());
         }
     }
 	else if (value instanceof Boolean && __renderBooleanAsCheckBox) {
@@ -43,11 +43,22 @@ NoticeEnd */
 
 package RTi.Util.GUI;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
 This is the class from which all the classes that will be used as RowTableModels
 in a JWorksheet, and which will have individual data objects in each row should
 be built.It implements a method to return the data stored at a given row.
 <P>
+Rows are normally stored in the _data list.  For very large data, a JWorksheet_RowProvider can instead be set
+with setRowProvider(), in which case rows are requested from the provider in windows of consecutive rows
+as they are needed, and only recently used windows are retained.  Table models that use a row provider should
+use getRowData() to get the row for a cell in getValueAt(), and should not use the methods that modify the
+_data list.
+<P>
 TODO (JTS - 2006-05-25)
 If I could do this over, I would combine this table model with 
 AbstractTableModel, in order to simplify things.  I don't see a very good reason
@@ -56,24 +67,108 @@ to require both of these, honestly.
 @SuppressWarnings("serial")
 public abstract class JWorksheet_AbstractRowTableModel<T> extends JWorksheet_AbstractTableModel<T> {
 
+/**
+Number of rows in each window of rows requested from the row provider.
+*/
+private static final int ROW_WINDOW_SIZE = 256;
+
+/**
+Maximum number of windows of rows from the row provider to retain.
+*/
+private static final int MAX_ROW_WINDOWS = 16;
+
+/**
+Provider of rows, or null if the rows are stored in the _data list.
+*/
+private JWorksheet_RowProvider<T> __rowProvider = null;
+
+/**
+Windows of rows from the row provider, keyed by the first row in the window, in least recently used order.
+*/
+private Map<Integer,List<T>> __rowWindows = null;
+
+/**
+Returns the row from the row provider, requesting the window containing the row if it is not retained.
+@param row the unsorted row for which to return data.
+@return the row from the row provider, or null if the provider did not provide the row.
+*/
+private synchronized T getProviderRow(int row) {
+	int firstRow = (row/ROW_WINDOW_SIZE)*ROW_WINDOW_SIZE;
+	List<T> window = __rowWindows.get(firstRow);
+	if (window == null) {
+		int count = Math.min(ROW_WINDOW_SIZE, _rows - firstRow);
+		window = new ArrayList<>(count);
+		__rowProvider.getRows(firstRow, count, window);
+		__rowWindows.put(firstRow, window);
+	}
+	int i = row - firstRow;
+	if (i < window.size()) {
+		return window.get(i);
+	}
+	return null;
+}
+
 /**
 Returns the Object stored in the Table Model data at the given position, or
 null if the given row is out of the range of the rows.
 @param row the row for which to return data.
-@return the Object stored in the _data list at the given position.
+@return the Object stored in the _data list (or from the row provider) at the given position.
 */
 public T getRowData(int row) {
 	if (row > _rows || row < 0) {
 		return null;
 	}
 
-	if (_sortOrder == null) {
-		return _data.get(row);
+	int realRow = row;
+	if (_sortOrder != null) {
+		realRow = _sortOrder[row];
+	}
+	if (__rowProvider != null) {
+		return getProviderRow(realRow);
+	}
+	return _data.get(realRow);
+}
+
+/**
+Returns the row provider.
+@return the row provider, or null if rows are stored in the table model.
+*/
+public JWorksheet_RowProvider<T> getRowProvider() {
+	return __rowProvider;
+}
+
+/**
+Discards rows retrieved from the row provider and resets the number of rows, for example when the data used
+by the row provider have changed.  The sorted order is also cleared.
+Call fireTableDataChanged() afterwards to redisplay the table.
+*/
+public synchronized void refreshRowProvider() {
+	__rowWindows = new LinkedHashMap<Integer,List<T>>(MAX_ROW_WINDOWS*2, .75f, true) {
+		private static final long serialVersionUID = 1L;
+		protected boolean removeEldestEntry(Map.Entry<Integer,List<T>> eldest) {
+			return size() > MAX_ROW_WINDOWS;
+		}
+	};
+	if (__rowProvider == null) {
+		_rows = (_data == null) ? 0 : _data.size();
 	}
 	else {
-		int realRow = _sortOrder[row];
-		return _data.get(realRow);
+		_rows = __rowProvider.getRowCount();
+	}
+	_sortOrder = null;
+}
+
+/**
+Sets the row provider, which provides rows on demand instead of the rows being stored in the table model.
+The _data list is emptied.
+@param rowProvider the row provider, or null to store rows in the table model.
+*/
+public synchronized void setRowProvider(JWorksheet_RowProvider<T> rowProvider) {
+	__rowProvider = rowProvider;
+	if (rowProvider != null) {
+		_data = new ArrayList<>();
 	}
+	refreshRowProvider();
 }
 
 }
\ No newline at end of file
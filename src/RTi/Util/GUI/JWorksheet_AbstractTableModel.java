@@ -222,6 +222,18 @@ public void insertRowAt(T o, int pos) {
 	_rows++;
 }
 
+/**
+Indicate whether getValueAt() can be called from a thread other than the Swing event thread while the
+worksheet is displayed, which allows JWorksheet to read column values for sorting in the background.
+Table models that use shared working objects in getValueAt() (e.g., to speed consecutive reads)
+should return false, in which case values are read on the Swing event thread and only the sort is done
+in the background.
+@return true if values can be read in the background (default).
+*/
+public boolean canReadValuesInBackground () {
+    return true;
+}
+
 /**
 Return the sort order array.
 If the data in the table have been sorted, this array is needed to access to original data in the proper order.
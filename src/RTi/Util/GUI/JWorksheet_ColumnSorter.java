@@ -0,0 +1,304 @@
+// JWorksheet_ColumnSorter - determine the sorted order of rows for a worksheet column
+
+/* NoticeStart
+
+CDSS Common Java Library
+CDSS Common Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2025 Colorado Department of Natural Resources
+
+CDSS Common Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+CDSS Common Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with CDSS Common Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package RTi.Util.GUI;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+import RTi.DMI.DMIUtil;
+import RTi.Util.Math.MathUtil;
+import RTi.Util.Message.Message;
+import RTi.Util.String.StringUtil;
+
+/**
+Determine the sorted order of rows for a worksheet column.
+The column values are read into primitive arrays (or strings) in the original (unsorted) row order and then sorted,
+which can be done on a thread other than the Swing event thread so that the user interface remains responsive.
+Reading values checks whether the thread has been interrupted so that a sort can be canceled.
+Missing data sort as much lower than other data, as described in JWorksheet.
+*/
+class JWorksheet_ColumnSorter
+{
+
+/**
+Table model to read values from.
+*/
+private JWorksheet_AbstractTableModel<?> model;
+
+/**
+Model column to sort.
+*/
+private int column;
+
+/**
+Class of the column values.
+*/
+private Class<?> columnClass;
+
+/**
+Number of rows to sort.
+*/
+private int rowCount;
+
+/**
+Sort order, either StringUtil.SORT_ASCENDING or StringUtil.SORT_DESCENDING.
+*/
+private int order;
+
+/**
+Table model row to read for each unsorted row, or null if the model is not sorted.
+*/
+private int [] modelRows = null;
+
+/**
+Values to sort, only one of which is used depending on the column class.
+*/
+private int [] intValues = null;
+private long [] longValues = null;
+private double [] doubleValues = null;
+private List<String> stringValues = null;
+
+/**
+Create a sorter.
+@param model table model to read values from
+@param column model column to sort
+@param columnClass class of the column values
+@param rowCount number of rows in the model
+@param currentSortOrder the sorted order currently used by the model, or null if not sorted
+@param order sort order, either StringUtil.SORT_ASCENDING or StringUtil.SORT_DESCENDING
+*/
+public JWorksheet_ColumnSorter ( JWorksheet_AbstractTableModel<?> model, int column, Class<?> columnClass,
+	int rowCount, int [] currentSortOrder, int order ) {
+	this.model = model;
+	this.column = column;
+	this.columnClass = columnClass;
+	this.rowCount = rowCount;
+	this.order = order;
+	if ( currentSortOrder != null ) {
+		// The model returns values in the current sorted order so determine the row to read for each unsorted row.
+		this.modelRows = new int[rowCount];
+		for ( int i = 0; (i < currentSortOrder.length) && (i < rowCount); i++ ) {
+			this.modelRows[currentSortOrder[i]] = i;
+		}
+	}
+}
+
+/**
+Check whether the sort has been canceled.
+@exception CancellationException if the thread has been interrupted
+*/
+private void checkCanceled ( int row ) {
+	if ( ((row % 1000) == 0) && Thread.currentThread().isInterrupted() ) {
+		throw new CancellationException ( "Sort was canceled." );
+	}
+}
+
+/**
+Return the number of rows being sorted.
+@return the number of rows being sorted
+*/
+public int getRowCount () {
+	return this.rowCount;
+}
+
+/**
+Return the value for an unsorted row.
+*/
+private Object getValue ( int row ) {
+	if ( this.modelRows != null ) {
+		row = this.modelRows[row];
+	}
+	return this.model.getValueAt ( row, this.column );
+}
+
+/**
+Indicate whether the values have been read.
+@return true if readValues() has been called
+*/
+public boolean isRead () {
+	return (this.intValues != null) || (this.longValues != null) || (this.doubleValues != null) ||
+		(this.stringValues != null);
+}
+
+/**
+Read the values to sort from the table model.
+@exception CancellationException if the thread is interrupted while reading
+*/
+public void readValues () {
+	int size = this.rowCount;
+	int exceptionCount = 0;
+	if ( this.columnClass == Integer.class ) {
+		int[] unsorted = new int[size];
+		Integer I = null;
+		for (int i = 0; i < size; i++) {
+			checkCanceled ( i );
+			try {
+				I = (Integer)getValue(i);
+				if ( I == null ) {
+					unsorted[i] = DMIUtil.MISSING_INT;
+				}
+				else {
+					unsorted[i] = I.intValue();
+				}
+			}
+			catch (Exception e) {
+				++exceptionCount;
+				warn ( exceptionCount, e );
+				unsorted[i] = DMIUtil.MISSING_INT;
+			}
+		}
+		this.intValues = unsorted;
+	}
+	else if ( this.columnClass == Long.class ) {
+		long[] unsorted = new long[size];
+		Long l = null;
+		for (int i = 0; i < size; i++) {
+			checkCanceled ( i );
+			try {
+				l = (Long)getValue(i);
+				if ( l == null ) {
+					unsorted[i] = DMIUtil.MISSING_LONG;
+				}
+				else {
+					unsorted[i] = l.longValue();
+				}
+			}
+			catch (Exception e) {
+				++exceptionCount;
+				warn ( exceptionCount, e );
+				unsorted[i] = DMIUtil.MISSING_LONG;
+			}
+		}
+		this.longValues = unsorted;
+	}
+	else if ( (this.columnClass == Double.class) || (this.columnClass == Float.class) ) {
+		// Treat Float as Double since sort method does not handle float[].
+		double[] unsorted = new double[size];
+		Object o = null;
+		for (int i = 0; i < size; i++) {
+			checkCanceled ( i );
+			try {
+				o = getValue(i);
+				if ( o == null ) {
+					unsorted[i] = DMIUtil.MISSING_DOUBLE;
+				}
+				else if ( o instanceof Double ) {
+					unsorted[i] = ((Double)o).doubleValue();
+				}
+				else {
+					unsorted[i] = ((Float)o).doubleValue();
+				}
+			}
+			catch (Exception e) {
+				++exceptionCount;
+				warn ( exceptionCount, e );
+				unsorted[i] = DMIUtil.MISSING_DOUBLE;
+			}
+		}
+		this.doubleValues = unsorted;
+	}
+	else if ( this.columnClass == Boolean.class ) {
+		// Trues are turned into -1 and false into 0 so that trues sort
+		// to the top when doing sort ascending, like in Microsoft Access.
+		int[] unsorted = new int[size];
+		Boolean B = null;
+		for (int i = 0; i < size; i++) {
+			checkCanceled ( i );
+			try {
+				B = (Boolean)getValue(i);
+				if (B.booleanValue()) {
+					unsorted[i] = -1;
+				}
+				else {
+					unsorted[i] = 0;
+				}
+			}
+			catch (Exception e) {
+				++exceptionCount;
+				warn ( exceptionCount, e );
+				unsorted[i] = DMIUtil.MISSING_INT;
+			}
+		}
+		this.intValues = unsorted;
+	}
+	else {
+		// Dates are handled generically as strings, which allows Date and DateTime to be used.
+		boolean isDate = (this.columnClass == Date.class);
+		List<String> v = new ArrayList<>(size);
+		Object o = null;
+		for (int i = 0; i < size; i++) {
+			checkCanceled ( i );
+			o = getValue(i);
+			if (o == null) {
+				v.add("");
+			}
+			else if ( !isDate && (o instanceof String) ) {
+				v.add((String)o);
+			}
+			else {
+				v.add("" + o);
+			}
+		}
+		this.stringValues = v;
+	}
+}
+
+/**
+Sort the values, reading them first if necessary.
+@return the sorted order, the unsorted row for each sorted row
+@exception CancellationException if the thread is interrupted while reading values
+*/
+public int [] sort () {
+	if ( !isRead() ) {
+		readValues();
+	}
+	int [] sortOrder = new int[this.rowCount];
+	if ( this.intValues != null ) {
+		MathUtil.sort(this.intValues, MathUtil.SORT_QUICK, this.order, sortOrder, true);
+	}
+	else if ( this.longValues != null ) {
+		MathUtil.sort(this.longValues, MathUtil.SORT_QUICK, this.order, sortOrder, true);
+	}
+	else if ( this.doubleValues != null ) {
+		MathUtil.sort(this.doubleValues, MathUtil.SORT_QUICK, this.order, sortOrder, true);
+	}
+	else {
+		StringUtil.sortStringList(this.stringValues, this.order, sortOrder, true, true);
+	}
+	return sortOrder;
+}
+
+/**
+Print a warning for an exception reading a value, limiting the number of warnings.
+*/
+private void warn ( int exceptionCount, Exception e ) {
+	if ( exceptionCount < 10 ) {
+		Message.printWarning(3,"","Exception getting data for sort:");
+		Message.printWarning(3,"",e);
+	}
+}
+
+}
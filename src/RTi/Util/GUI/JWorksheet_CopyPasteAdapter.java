@@ -46,6 +46,7 @@ import RTi.Util.GUI.ResponseJDialog;
 
 import RTi.Util.Message.Message;
 
+import RTi.Util.String.NumberFormatter;
 import RTi.Util.String.StringUtil;
 
 /**
@@ -557,7 +558,7 @@ private String getValue(int row, int absoluteCol) {
     			return "";
     		}
     		else {
-    			return StringUtil.formatString(DD,format);
+    			return NumberFormatter.getInstance(format).format(DD);
     		}
     	}
     	else if (__classes[visibleCol] == Float.class) {
@@ -566,7 +567,7 @@ private String getValue(int row, int absoluteCol) {
     			return "";
     		}
     		else {
-    			return StringUtil.formatString(F,format);
+    			return NumberFormatter.getInstance(format).format(F);
     		}
     	}
     	else if (__classes[visibleCol] == Long.class) {
@@ -575,7 +576,7 @@ private String getValue(int row, int absoluteCol) {
     			return "";
     		}
     		else {
-    			return StringUtil.formatString(L,format);
+    			return NumberFormatter.getInstance(format).format(L);
     		}
     	}
     	else if (__classes[visibleCol] == Integer.class) {
@@ -584,7 +585,7 @@ private String getValue(int row, int absoluteCol) {
     			return "";
     		}
     		else {
-    			return StringUtil.formatString(I,format);
+    			return NumberFormatter.getInstance(format).format(I);
     		}
     	}
     	else {
@@ -0,0 +1,57 @@
+// JWorksheet_RowProvider - interface for providing rows to a table model on demand
+
+/* NoticeStart
+
+CDSS Common Java Library
+CDSS Common Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2025 Colorado Department of Natural Resources
+
+CDSS Common Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+CDSS Common Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with CDSS Common Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package RTi.Util.GUI;
+
+import java.util.List;
+
+/**
+Interface for providing rows to a JWorksheet_AbstractRowTableModel on demand,
+rather than storing all rows in the table model.
+This allows table models for very large lists of row objects to create row objects only for the rows
+that are displayed or otherwise requested.
+Table models that compute cell values directly from their data, such as DataTable_TableModel
+(values are read from the DataTable by row and column) and TSViewTable_TableModel (each column is a time series),
+do not store row objects and do not need a row provider.
+Rows are requested in windows of consecutive rows, which the table model retains for reuse.
+Implementations should be safe to call from a thread other than the Swing event thread because rows may be
+requested when sorting in the background, or the table model should override
+JWorksheet_AbstractTableModel.canReadValuesInBackground() to return false.
+*/
+public interface JWorksheet_RowProvider<T> {
+
+/**
+Return the number of rows.
+@return the number of rows that can be provided.
+*/
+public int getRowCount();
+
+/**
+Return consecutive rows.
+@param firstRow the first row to return (0+), in the original (unsorted) order.
+@param count the number of rows to return.
+@param rows list to which the rows should be added.
+*/
+public void getRows(int firstRow, int count, List<T> rows);
+
+}
@@ -95,6 +95,16 @@ Although designed to have a profile for each command phase, focus on the run pha
 */
 private CommandProfile profile = new CommandProfile();
 
+/**
+The profile for the discovery phase, created when first requested.
+*/
+private CommandProfile discoveryProfile = null;
+
+/**
+The profile for the initialization phase, created when first requested.
+*/
+private CommandProfile initializationProfile = null;
+
 /**
 Default constructor for a command.
 */
@@ -281,14 +291,27 @@ public CommandProcessor getCommandProcessor () {
 }
 
 /**
-Return the command profile for the requested phase.  Currently a profile is only implemented for the run phase.
-@param phase the command phase (currently only CommandPhaseType.RUN is supported)
-@return the command profile (null if other than CommandPhaseType.RUN is requested)
+Return the command profile for the requested phase.
+The run phase profile always exists and other phase profiles are created when first requested.
+@param phase the command phase (CommandPhaseType.RUN, DISCOVERY, or INITIALIZATION)
+@return the command profile (null if CommandPhaseType.ANY is requested)
 */
 public CommandProfile getCommandProfile ( CommandPhaseType phase ) {
     if ( phase == CommandPhaseType.RUN ) {
         return this.profile;
     }
+    else if ( phase == CommandPhaseType.DISCOVERY ) {
+        if ( this.discoveryProfile == null ) {
+            this.discoveryProfile = new CommandProfile();
+        }
+        return this.discoveryProfile;
+    }
+    else if ( phase == CommandPhaseType.INITIALIZATION ) {
+        if ( this.initializationProfile == null ) {
+            this.initializationProfile = new CommandProfile();
+        }
+        return this.initializationProfile;
+    }
     return null;
 }
 
@@ -537,13 +560,19 @@ public void setCommandProcessor ( CommandProcessor processor ) {
 /**
 Set the command profile.
 This is used, for example, to track command performance (processing time) and memory usage.
-@param phase the command phase (currently only CommandPhaseType.RUN is implemented)
+@param phase the command phase (CommandPhaseType.RUN, DISCOVERY, or INITIALIZATION)
 @param profile the command profile
 */
 public void setCommandProfile ( CommandPhaseType phase, CommandProfile profile ) {
     if ( phase == CommandPhaseType.RUN ) {
         this.profile = profile;
     }
+    else if ( phase == CommandPhaseType.DISCOVERY ) {
+        this.discoveryProfile = profile;
+    }
+    else if ( phase == CommandPhaseType.INITIALIZATION ) {
+        this.initializationProfile = profile;
+    }
 }
 
 /**
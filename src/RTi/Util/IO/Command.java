@@ -85,7 +85,8 @@ public CommandProcessor getCommandProcessor ();
 
 /**
 Return the command profile.
-@return the command profile.
+@param phase the command phase for the profile
+@return the command profile, or null if a profile is not available for the phase.
 */
 public CommandProfile getCommandProfile ( CommandPhaseType phase );
 
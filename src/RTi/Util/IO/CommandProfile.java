@@ -23,9 +23,24 @@ NoticeEnd */
 
 package RTi.Util.IO;
 
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.Callable;
+
 /**
 This class provides profile information related to command execution.  This information can be used
 to evaluate command processor performance and memory use.
+In addition to wall time and heap memory, the profile can contain thread CPU time, bytes allocated by the thread,
+garbage collection count and time, and bytes read and written, all of which are determined by
+calling start() and end() around the command phase.
+Values that are not supported by the Java virtual machine are set to -1.
+If Java Flight Recorder is recording, a CommandProfileEvent is also committed for the profile when end() is called.
+Between start() and end() the profile is the current profile for the thread, so that code that reads and writes
+files without knowing about the command can call addCurrentBytesRead() and addCurrentBytesWritten(),
+or use CommandProfileInputStream and CommandProfileOutputStream.
+Tasks that are run in other threads for the command can be wrapped with withCurrent() so that they use the
+same profile, which DaemonThreadPool does for all tasks.
 */
 public class CommandProfile implements Cloneable
 {
@@ -50,6 +65,68 @@ Command end heap memory in bytes (from Date).
 */
 private long endHeap = 0;
 
+/**
+Thread CPU time in nanoseconds at the start of the command, or -1 if not supported.
+*/
+private long startCpuTime = -1;
+
+/**
+Thread CPU time in nanoseconds at the end of the command, or -1 if not supported.
+*/
+private long endCpuTime = -1;
+
+/**
+Bytes allocated by the thread at the start of the command, or -1 if not supported.
+*/
+private long startAllocatedBytes = -1;
+
+/**
+Bytes allocated by the thread at the end of the command, or -1 if not supported.
+*/
+private long endAllocatedBytes = -1;
+
+/**
+Total garbage collection count for the Java virtual machine at the start of the command, or -1 if not supported.
+*/
+private long startGcCount = -1;
+
+/**
+Total garbage collection count for the Java virtual machine at the end of the command, or -1 if not supported.
+*/
+private long endGcCount = -1;
+
+/**
+Total garbage collection time in milliseconds for the Java virtual machine at the start of the command,
+or -1 if not supported.
+*/
+private long startGcTime = -1;
+
+/**
+Total garbage collection time in milliseconds for the Java virtual machine at the end of the command,
+or -1 if not supported.
+*/
+private long endGcTime = -1;
+
+/**
+Bytes read by the command, or -1 if not known.  Commands that read files can add to this with addBytesRead().
+*/
+private long bytesRead = -1;
+
+/**
+Bytes written by the command, or -1 if not known.  Commands that write files can add to this with addBytesWritten().
+*/
+private long bytesWritten = -1;
+
+/**
+Flight recorder event for the profile, created in start() and committed in end().
+*/
+private CommandProfileEvent event = null;
+
+/**
+Profile for the command phase that is running in the thread, set in start() and cleared in end().
+*/
+private static final ThreadLocal<CommandProfile> currentProfile = new ThreadLocal<>();
+
 /**
 Construct and initialize all profile values to zero.
 */
@@ -72,12 +149,66 @@ public CommandProfile ( long startTime, long startHeap, long endTime, long endHe
     this.endHeap = endHeap;
 }
 
+/**
+Add to the bytes read by the command.
+This can be called from threads that do work for the command.
+@param bytes number of bytes that were read
+*/
+public synchronized void addBytesRead ( long bytes )
+{
+    if ( this.bytesRead < 0 ) {
+        this.bytesRead = 0;
+    }
+    this.bytesRead += bytes;
+}
+
+/**
+Add to the bytes written by the command.
+This can be called from threads that do work for the command.
+@param bytes number of bytes that were written
+*/
+public synchronized void addBytesWritten ( long bytes )
+{
+    if ( this.bytesWritten < 0 ) {
+        this.bytesWritten = 0;
+    }
+    this.bytesWritten += bytes;
+}
+
+/**
+Add to the bytes read by the command phase that is running in the current thread, if any.
+This is called by code that reads files, such as time series and table readers.
+@param bytes number of bytes that were read
+*/
+public static void addCurrentBytesRead ( long bytes )
+{
+    CommandProfile profile = currentProfile.get();
+    if ( profile != null ) {
+        profile.addBytesRead ( bytes );
+    }
+}
+
+/**
+Add to the bytes written by the command phase that is running in the current thread, if any.
+This is called by code that writes files, such as time series and table writers.
+@param bytes number of bytes that were written
+*/
+public static void addCurrentBytesWritten ( long bytes )
+{
+    CommandProfile profile = currentProfile.get();
+    if ( profile != null ) {
+        profile.addBytesWritten ( bytes );
+    }
+}
+
 /**
 Clone the instance.  All command data are cloned.
+The flight recorder event is not cloned because it is committed only once.
 */
 public Object clone ()
 {	try {
         CommandProfile profile = (CommandProfile)super.clone();
+        profile.event = null;
 		return profile;
 	}
 	catch ( CloneNotSupportedException e ) {
@@ -86,6 +217,81 @@ public Object clone ()
 	}
 }
 
+/**
+Determine the end values for the profile, which should be called when the command phase has completed.
+The flight recorder event is committed if recording.
+*/
+public void end ()
+{
+    if ( currentProfile.get() == this ) {
+        currentProfile.remove();
+    }
+    this.endTime = System.currentTimeMillis();
+    this.endHeap = getHeapUsed();
+    this.endCpuTime = getThreadCpuTime();
+    this.endAllocatedBytes = getThreadAllocatedBytes();
+    long [] gc = getGcCountAndTime();
+    this.endGcCount = gc[0];
+    this.endGcTime = gc[1];
+    if ( this.event != null ) {
+        this.event.end();
+        if ( this.event.shouldCommit() ) {
+            this.event.runTime = getRunTime();
+            this.event.cpuTime = getCpuTime();
+            this.event.allocatedBytes = getAllocatedBytes();
+            this.event.heapChange = this.endHeap - this.startHeap;
+            this.event.gcCount = getGcCount();
+            this.event.gcTime = getGcTime();
+            this.event.bytesRead = getBytesRead();
+            this.event.bytesWritten = getBytesWritten();
+            this.event.commit();
+        }
+        this.event = null;
+    }
+}
+
+/**
+Return the bytes allocated by the thread during the command, or -1 if not supported.
+@return the bytes allocated by the thread during the command
+*/
+public long getAllocatedBytes ()
+{
+    if ( (this.startAllocatedBytes < 0) || (this.endAllocatedBytes < 0) ) {
+        return -1;
+    }
+    return this.endAllocatedBytes - this.startAllocatedBytes;
+}
+
+/**
+Return the bytes read by the command, or -1 if not known.
+@return the bytes read by the command
+*/
+public synchronized long getBytesRead ()
+{
+    return this.bytesRead;
+}
+
+/**
+Return the bytes written by the command, or -1 if not known.
+@return the bytes written by the command
+*/
+public synchronized long getBytesWritten ()
+{
+    return this.bytesWritten;
+}
+
+/**
+Return the thread CPU time used by the command in nanoseconds, or -1 if not supported.
+@return the thread CPU time used by the command in nanoseconds
+*/
+public long getCpuTime ()
+{
+    if ( (this.startCpuTime < 0) || (this.endCpuTime < 0) ) {
+        return -1;
+    }
+    return this.endCpuTime - this.startCpuTime;
+}
+
 /**
 Return the heap memory at the end of the command execution, in bytes.
 @return the heap memory at the end of the command execution, in bytes
@@ -104,6 +310,72 @@ public long getEndTime ()
     return this.endTime;
 }
 
+/**
+Return the profile for the command phase that is running in the current thread, or null if none.
+@return the profile for the command phase that is running in the current thread
+*/
+public static CommandProfile getCurrent ()
+{
+    return currentProfile.get();
+}
+
+/**
+Return the number of garbage collections during the command, or -1 if not supported.
+Garbage collection is for the Java virtual machine and therefore may include collections due to other threads.
+@return the number of garbage collections during the command
+*/
+public long getGcCount ()
+{
+    if ( (this.startGcCount < 0) || (this.endGcCount < 0) ) {
+        return -1;
+    }
+    return this.endGcCount - this.startGcCount;
+}
+
+/**
+Return the total garbage collection count and time for the Java virtual machine.
+@return array with total count and time in milliseconds, or -1 values if not supported
+*/
+private static long [] getGcCountAndTime ()
+{
+    long count = -1;
+    long time = -1;
+    for ( GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans() ) {
+        long gcCount = gcBean.getCollectionCount();
+        long gcTime = gcBean.getCollectionTime();
+        if ( gcCount >= 0 ) {
+            count = (count < 0) ? gcCount : (count + gcCount);
+        }
+        if ( gcTime >= 0 ) {
+            time = (time < 0) ? gcTime : (time + gcTime);
+        }
+    }
+    return new long[] { count, time };
+}
+
+/**
+Return the garbage collection time during the command in milliseconds, or -1 if not supported.
+Garbage collection is for the Java virtual machine and therefore may include collections due to other threads.
+@return the garbage collection time during the command in milliseconds
+*/
+public long getGcTime ()
+{
+    if ( (this.startGcTime < 0) || (this.endGcTime < 0) ) {
+        return -1;
+    }
+    return this.endGcTime - this.startGcTime;
+}
+
+/**
+Return the heap memory that is used, in bytes.
+@return the heap memory that is used, in bytes
+*/
+private static long getHeapUsed ()
+{
+    Runtime runtime = Runtime.getRuntime();
+    return runtime.totalMemory() - runtime.freeMemory();
+}
+
 /**
 Return the run time in milliseconds (from 1970), computed as the end time minus the start time, or zero if
 the command has no end time.
@@ -137,6 +409,46 @@ public long getStartTime ()
     return this.startTime;
 }
 
+/**
+Return the bytes allocated by the current thread, or -1 if not supported.
+@return the bytes allocated by the current thread
+*/
+@SuppressWarnings("deprecation")
+private static long getThreadAllocatedBytes ()
+{
+    ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    if ( threadBean instanceof com.sun.management.ThreadMXBean ) {
+        com.sun.management.ThreadMXBean sunThreadBean = (com.sun.management.ThreadMXBean)threadBean;
+        try {
+            if ( sunThreadBean.isThreadAllocatedMemorySupported() && sunThreadBean.isThreadAllocatedMemoryEnabled() ) {
+                return sunThreadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        catch ( UnsupportedOperationException e ) {
+            // Not supported.
+        }
+    }
+    return -1;
+}
+
+/**
+Return the CPU time used by the current thread in nanoseconds, or -1 if not supported.
+@return the CPU time used by the current thread in nanoseconds
+*/
+private static long getThreadCpuTime ()
+{
+    ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    try {
+        if ( threadBean.isCurrentThreadCpuTimeSupported() && threadBean.isThreadCpuTimeEnabled() ) {
+            return threadBean.getCurrentThreadCpuTime();
+        }
+    }
+    catch ( UnsupportedOperationException e ) {
+        // Not supported.
+    }
+    return -1;
+}
+
 /**
 Set the heap memory in bytes at the end of the command execution.
 @param endheap the heap memory in bytes at the end of the command execution
@@ -173,13 +485,88 @@ public void setStartTime ( long startTime )
     this.startTime = startTime;
 }
 
+/**
+Determine the start values for the profile, which should be called when the command phase is started,
+from the thread that runs the command.  The end values and bytes read and written are reset.
+The profile is the current profile for the thread until end() is called.
+@param command the command being profiled, used for the flight recorder event (can be null)
+@param phase the command phase being profiled, used for the flight recorder event (can be null)
+*/
+public void start ( Command command, CommandPhaseType phase )
+{
+    this.endTime = 0;
+    this.endHeap = 0;
+    this.endCpuTime = -1;
+    this.endAllocatedBytes = -1;
+    this.endGcCount = -1;
+    this.endGcTime = -1;
+    this.bytesRead = -1;
+    this.bytesWritten = -1;
+    currentProfile.set(this);
+    CommandProfileEvent event = new CommandProfileEvent();
+    if ( event.isEnabled() ) {
+        if ( command != null ) {
+            event.commandName = command.getCommandName();
+            event.commandString = command.toString();
+        }
+        if ( phase != null ) {
+            event.phase = phase.toString();
+        }
+        event.begin();
+        this.event = event;
+    }
+    else {
+        this.event = null;
+    }
+    this.startTime = System.currentTimeMillis();
+    this.startHeap = getHeapUsed();
+    this.startAllocatedBytes = getThreadAllocatedBytes();
+    long [] gc = getGcCountAndTime();
+    this.startGcCount = gc[0];
+    this.startGcTime = gc[1];
+    // Get the CPU time last so that the above is not included.
+    this.startCpuTime = getThreadCpuTime();
+}
+
 /**
 Return a string representation of the problem, suitable for display in logging, etc.
 */
 public String toString ()
 {	return
 	"Runtime " + this.startTime + "/" + this.endTime + "/" + (this.endTime - this.startTime) +
-	" Heap " + this.startHeap + "/" + this.endHeap + "/" + (this.endHeap - this.startHeap);
+	" Heap " + this.startHeap + "/" + this.endHeap + "/" + (this.endHeap - this.startHeap) +
+	" CpuTime " + getCpuTime() + " AllocatedBytes " + getAllocatedBytes() +
+	" GcCount " + getGcCount() + " GcTime " + getGcTime() +
+	" BytesRead " + getBytesRead() + " BytesWritten " + getBytesWritten();
+}
+
+/**
+Return a task that runs with the profile that is current in the calling thread, so that bytes read and written
+by the task are counted for the command that created the task, even if the task is run in another thread.
+@param task task to run
+@return a task that sets the current profile while running the task, or the task if there is no current profile
+*/
+public static <T> Callable<T> withCurrent ( Callable<T> task )
+{
+    CommandProfile profile = currentProfile.get();
+    if ( profile == null ) {
+        return task;
+    }
+    return () -> {
+        CommandProfile previous = currentProfile.get();
+        currentProfile.set ( profile );
+        try {
+            return task.call();
+        }
+        finally {
+            if ( previous == null ) {
+                currentProfile.remove();
+            }
+            else {
+                currentProfile.set ( previous );
+            }
+        }
+    };
 }
 
 }
@@ -0,0 +1,119 @@
+// CommandProfileEvent - Java Flight Recorder event for command profiling
+
+/* NoticeStart
+
+CDSS Common Java Library
+CDSS Common Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2019 Colorado Department of Natural Resources
+
+CDSS Common Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    CDSS Common Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with CDSS Common Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package RTi.Util.IO;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+Java Flight Recorder event for a command phase, which is committed by CommandProfile.end().
+The event duration is the wall time for the command phase.
+Recordings can be analyzed with Java Mission Control by selecting the "CDSS / Commands" category.
+*/
+@Name("RTi.Util.IO.CommandProfile")
+@Label("Command Profile")
+@Category({"CDSS", "Commands"})
+@Description("Resource use for a command phase.")
+public class CommandProfileEvent extends Event
+{
+
+/**
+Command name.
+*/
+@Label("Command Name")
+String commandName;
+
+/**
+Command string.
+*/
+@Label("Command")
+String commandString;
+
+/**
+Command phase (see CommandPhaseType).
+*/
+@Label("Phase")
+String phase;
+
+/**
+Wall time in milliseconds.
+*/
+@Label("Run Time")
+@Timespan(Timespan.MILLISECONDS)
+long runTime;
+
+/**
+Thread CPU time in nanoseconds, or -1 if not supported.
+*/
+@Label("CPU Time")
+@Timespan(Timespan.NANOSECONDS)
+long cpuTime;
+
+/**
+Bytes allocated by the thread, or -1 if not supported.
+*/
+@Label("Allocated Bytes")
+@DataAmount(DataAmount.BYTES)
+long allocatedBytes;
+
+/**
+Change in used heap memory.
+*/
+@Label("Heap Change")
+@DataAmount(DataAmount.BYTES)
+long heapChange;
+
+/**
+Number of garbage collections, or -1 if not supported.
+*/
+@Label("GC Count")
+long gcCount;
+
+/**
+Garbage collection time in milliseconds, or -1 if not supported.
+*/
+@Label("GC Time")
+@Timespan(Timespan.MILLISECONDS)
+long gcTime;
+
+/**
+Bytes read, or -1 if not known.
+*/
+@Label("Bytes Read")
+@DataAmount(DataAmount.BYTES)
+long bytesRead;
+
+/**
+Bytes written, or -1 if not known.
+*/
+@Label("Bytes Written")
+@DataAmount(DataAmount.BYTES)
+long bytesWritten;
+
+}
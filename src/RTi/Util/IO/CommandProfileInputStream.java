@@ -0,0 +1,120 @@
+// CommandProfileInputStream - input stream that adds the bytes read to a command profile
+
+
+/* NoticeStart
+
+CDSS Common Java Library
+CDSS Common Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2025 Colorado Department of Natural Resources
+
+CDSS Common Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+CDSS Common Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with CDSS Common Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package RTi.Util.IO;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+Input stream that counts the bytes that are read and adds the count to the bytes read for the CommandProfile
+that was current when the stream was created, when the stream is closed.
+Wrap the stream for a file, or the decompressed stream for a compressed file, so that the count is the number
+of bytes of data that are read, and so that reads done in another thread are counted for the command.
+*/
+public class CommandProfileInputStream extends FilterInputStream
+{
+
+/**
+Number of bytes read that have not been added to the profile.
+*/
+private long count = 0;
+
+/**
+Profile to add the count to, or null if no command was running when the stream was created.
+*/
+private final CommandProfile profile;
+
+/**
+Create a stream for the current command profile.
+@param in input stream to read
+*/
+public CommandProfileInputStream ( InputStream in )
+{
+	super ( in );
+	this.profile = CommandProfile.getCurrent();
+}
+
+/**
+Close the stream and add the bytes read to the command profile.
+*/
+@Override
+public void close ()
+throws IOException
+{
+	try {
+		super.close();
+	}
+	finally {
+		if ( (this.profile != null) && (this.count > 0) ) {
+			this.profile.addBytesRead ( this.count );
+		}
+		this.count = 0;
+	}
+}
+
+@Override
+public int read ()
+throws IOException
+{
+	int b = super.read();
+	if ( b >= 0 ) {
+		++this.count;
+	}
+	return b;
+}
+
+@Override
+public int read ( byte [] b, int off, int len )
+throws IOException
+{
+	int n = super.read ( b, off, len );
+	if ( n > 0 ) {
+		this.count += n;
+	}
+	return n;
+}
+
+@Override
+public long skip ( long n )
+throws IOException
+{
+	long skipped = super.skip ( n );
+	if ( skipped > 0 ) {
+		this.count += skipped;
+	}
+	return skipped;
+}
+
+/**
+Mark is not supported so that bytes that are read again are not counted twice.
+*/
+@Override
+public boolean markSupported ()
+{
+	return false;
+}
+
+}
@@ -0,0 +1,93 @@
+// CommandProfileOutputStream - output stream that adds the bytes written to a command profile
+
+
+/* NoticeStart
+
+CDSS Common Java Library
+CDSS Common Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2025 Colorado Department of Natural Resources
+
+CDSS Common Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+CDSS Common Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with CDSS Common Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package RTi.Util.IO;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+Output stream that counts the bytes that are written and adds the count to the bytes written for the CommandProfile
+that was current when the stream was created, when the stream is closed.
+*/
+public class CommandProfileOutputStream extends FilterOutputStream
+{
+
+/**
+Number of bytes written that have not been added to the profile.
+*/
+private long count = 0;
+
+/**
+Profile to add the count to, or null if no command was running when the stream was created.
+*/
+private final CommandProfile profile;
+
+/**
+Create a stream for the current command profile.
+@param out output stream to write
+*/
+public CommandProfileOutputStream ( OutputStream out )
+{
+	super ( out );
+	this.profile = CommandProfile.getCurrent();
+}
+
+/**
+Close the stream and add the bytes written to the command profile.
+*/
+@Override
+public void close ()
+throws IOException
+{
+	try {
+		super.close();
+	}
+	finally {
+		if ( (this.profile != null) && (this.count > 0) ) {
+			this.profile.addBytesWritten ( this.count );
+		}
+		this.count = 0;
+	}
+}
+
+@Override
+public void write ( int b )
+throws IOException
+{
+	this.out.write ( b );
+	++this.count;
+}
+
+@Override
+public void write ( byte [] b, int off, int len )
+throws IOException
+{
+	// FilterOutputStream writes one byte at a time so write directly to the wrapped stream.
+	this.out.write ( b, off, len );
+	this.count += len;
+}
+
+}
@@ -0,0 +1,177 @@
+// DaemonThreadPool - shared pool of daemon threads for running tasks in parallel
+
+
+/* NoticeStart
+
+CDSS Common Java Library
+CDSS Common Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2025 Colorado Department of Natural Resources
+
+CDSS Common Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+CDSS Common Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with CDSS Common Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package RTi.Util.IO;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+This class provides a single shared pool of daemon threads for code that reads, computes, or writes in parallel,
+so that each call does not create and shut down its own threads, and the total number of threads is bounded
+by the number of processors.
+Daemon threads are used so that the pool does not prevent an application from exiting, and the pool is never shut down.
+<p>
+Tasks that wait for other tasks must not block pool threads indefinitely,
+so both invokeAll() and the futures returned by submit() run tasks that have not started in the calling thread.
+This allows code that is already running in the pool, such as a batch of file reads that each read in parallel,
+to use the pool without deadlock.
+<p>
+Tasks run with the CommandProfile that is current in the thread that submits them,
+so that bytes read and written by tasks are counted for the command.
+*/
+public class DaemonThreadPool
+{
+
+/**
+Shared executor, created when first used.
+*/
+private static ExecutorService executor = null;
+
+/**
+Number of threads in the shared executor.
+*/
+private static final int THREAD_COUNT = Math.max ( 1, Runtime.getRuntime().availableProcessors() );
+
+/**
+Future that runs its task in the calling thread when get() is called if the task has not been started by the pool.
+*/
+private static class CallerRunsFuture<T> extends FutureTask<T>
+{
+	CallerRunsFuture ( Callable<T> task ) {
+		super ( task );
+	}
+
+	/**
+	Run the task if not already started and wait for the result.
+	*/
+	@Override
+	public T get ()
+	throws InterruptedException, ExecutionException {
+		// Does nothing if the task has been started, completed, or cancelled.
+		run();
+		return super.get();
+	}
+}
+
+/**
+Return the shared executor, creating it if necessary.
+@return the shared executor
+*/
+private static synchronized ExecutorService getExecutor () {
+	if ( executor == null ) {
+		executor = Executors.newFixedThreadPool ( THREAD_COUNT, newThreadFactory("DaemonThreadPool") );
+	}
+	return executor;
+}
+
+/**
+Return the number of threads in the shared pool, which is the number of available processors.
+@return the number of threads in the shared pool
+*/
+public static int getThreadCount () {
+	return THREAD_COUNT;
+}
+
+/**
+Run a list of tasks using the shared pool and wait for all of the tasks to complete.
+At most threadCount tasks run at the same time, including a task run in the calling thread.
+@param tasks tasks to run
+@param threadCount maximum number of tasks to run at the same time (if &lt;= 0, use the number of threads in the pool)
+@return futures for the tasks, in the order of the tasks, all of which are complete;
+get() can be called on each to retrieve the result or exception
+@exception InterruptedException if interrupted while waiting for tasks run by the pool
+*/
+public static <T> List<Future<T>> invokeAll ( List<? extends Callable<T>> tasks, int threadCount )
+throws InterruptedException {
+	List<FutureTask<T>> futures = new ArrayList<>(tasks.size());
+	for ( Callable<T> task : tasks ) {
+		futures.add ( new FutureTask<>(CommandProfile.withCurrent(task)) );
+	}
+	if ( threadCount <= 0 ) {
+		threadCount = THREAD_COUNT;
+	}
+	// Each worker runs the next task that has not been started, until all tasks are started.
+	AtomicInteger next = new AtomicInteger(0);
+	Runnable worker = () -> {
+		int i;
+		while ( (i = next.getAndIncrement()) < futures.size() ) {
+			futures.get(i).run();
+		}
+	};
+	int nworker = Math.min ( Math.min(threadCount, THREAD_COUNT + 1), futures.size() );
+	for ( int i = 1; i < nworker; i++ ) {
+		getExecutor().execute ( worker );
+	}
+	// Also run tasks in the calling thread so that all tasks are started even if the pool is busy.
+	worker.run();
+	for ( FutureTask<T> future : futures ) {
+		try {
+			future.get();
+		}
+		catch ( ExecutionException | CancellationException e ) {
+			// Callers handle the exception when getting the result.
+		}
+	}
+	return new ArrayList<>(futures);
+}
+
+/**
+Create a thread factory for daemon threads, for code that needs its own executor,
+such as a single thread to serialize work or a scheduled executor.
+@param name name for the threads, to which a thread number is appended
+@return a thread factory that creates daemon threads
+*/
+public static ThreadFactory newThreadFactory ( String name ) {
+	AtomicInteger count = new AtomicInteger(0);
+	return r -> {
+		Thread t = new Thread ( r, name + "-" + count.incrementAndGet() );
+		t.setDaemon ( true );
+		return t;
+	};
+}
+
+/**
+Submit a task to run in the shared pool.
+If get() is called on the returned future before the pool starts the task, the task is run in the calling thread.
+If the future is cancelled before the task starts, the task is not run.
+@param task task to run
+@return future for the result of the task
+*/
+public static <T> Future<T> submit ( Callable<T> task ) {
+	CallerRunsFuture<T> future = new CallerRunsFuture<>(CommandProfile.withCurrent(task));
+	getExecutor().execute ( future );
+	return future;
+}
+
+}
@@ -27,7 +27,10 @@ import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import RTi.Util.IO.IOUtil;
 import RTi.Util.Message.Message;
@@ -35,7 +38,9 @@ import RTi.Util.String.StringUtil;
 
 /**
 The DataUnits class provides capabilities for reading and storing data units and conversion between units.
-Units are maintained internally using a list of DataUnits.
+Units are maintained internally using a list of DataUnits, with a case-insensitive index of abbreviations
+for lookups and a cache of conversions between units.
+The units data can be read and looked up from multiple threads.
 */
 public class DataUnits
 {
@@ -112,10 +117,34 @@ Note indicating source of the data units.
 */
 private String __source;
 
+/**
+Indicates whether the units are in the internal list of units, in which case changes to the units
+must clear the conversion cache.
+*/
+private boolean __inList = false;
+
 /**
 List of internally-maintained available units, make sure to be non-null.
+A copy-on-write list is used because units are rarely added after startup but are looked up often,
+possibly from multiple threads.
+*/
+private static List<DataUnits> __units_List = new CopyOnWriteArrayList<>();
+
+/**
+Index of units in __units_List, by upper case abbreviation.
 */
-private static List<DataUnits> __units_List = new ArrayList<>(20);
+private static ConcurrentHashMap<String,DataUnits> __units_Map = new ConcurrentHashMap<>();
+
+/**
+Conversions that have been determined by getConversion(), by original and new units strings.
+The cache is cleared when units are added or the conversion information for units is changed.
+*/
+private static ConcurrentHashMap<String,DataUnitsConversion> __conversion_Map = new ConcurrentHashMap<>();
+
+/**
+Incremented each time the conversion cache is cleared, so that a conversion determined while units are changing is not cached.
+*/
+private static volatile int __conversion_Generation = 0;
 
 /**
 Construct and set all data members to empty strings and zeros.
@@ -202,11 +231,12 @@ Add a set of units to the internal list of units.
 After adding, the units can be used throughout the application.
 @param units Instance of DataUnits to add to the list.
 */
-public static void addUnits ( DataUnits units ) {
+public static synchronized void addUnits ( DataUnits units ) {
 	// First see if the units are already in the list.
 
 	int size = __units_List.size();
 	DataUnits pt = null;
+	clearConversionCache();
 	for ( int i = 0; i < size; i ++ ) {
 		// Get the units for the loop index.
 		pt = __units_List.get(i);
@@ -214,11 +244,16 @@ public static void addUnits ( DataUnits units ) {
 		if ( units.getAbbreviation().equalsIgnoreCase(pt.getAbbreviation() ) ) {
 			// The requested units match something that is already in the list.  Reset the list.
 			__units_List.set ( i, units );
+			__units_Map.put ( units.getAbbreviation().toUpperCase(), units );
+			pt.__inList = false;
+			units.__inList = true;
 			return;
 		}
 	}
 	// Need to add the units to the list.
 	__units_List.add ( units );
+	__units_Map.put ( units.getAbbreviation().toUpperCase(), units );
+	units.__inList = true;
 }
 
 /**
@@ -297,6 +332,17 @@ public static boolean areUnitsStringsCompatible ( List<String> units_strings, bo
 	return true;
 }
 
+/**
+Clear the cache of conversions determined by getConversion().
+This is called automatically when units are added or units in the list are modified.
+*/
+public static void clearConversionCache ( ) {
+	synchronized ( __conversion_Map ) {
+		++__conversion_Generation;
+		__conversion_Map.clear();
+	}
+}
+
 /**
 This routine checks the internal list of units data for integrity.
 This consists of making sure that for units of a dimension, there is base unit only.
@@ -355,9 +401,30 @@ Get the conversion from units string to another.
 */
 public static DataUnitsConversion getConversion ( String u1_string, String u2_string )
 throws Exception {
+	// Use a previous conversion if available.
+	// A copy is returned because DataUnitsConversion can be modified by the caller.
+	String key = null;
+	if ( (u1_string != null) && (u2_string != null) ) {
+		key = u1_string + "\n" + u2_string;
+		DataUnitsConversion c = __conversion_Map.get ( key );
+		if ( c != null ) {
+			return new DataUnitsConversion ( c );
+		}
+	}
+	int generation = __conversion_Generation;
 	// Call the routine that takes the auxiliary information.
 	// This is not fully implemented at this time but provides a migration path from the legacy code.
-	return getConversion ( u1_string, u2_string, 0.0, "" );
+	DataUnitsConversion c = getConversion ( u1_string, u2_string, 0.0, "" );
+	if ( key != null ) {
+		// Check the generation and save while holding the lock used by clearConversionCache(),
+		// so that a conversion determined before the units were changed is not saved after the cache is cleared.
+		synchronized ( __conversion_Map ) {
+			if ( generation == __conversion_Generation ) {
+				__conversion_Map.put ( key, new DataUnitsConversion(c) );
+			}
+		}
+	}
+	return c;
 }
 
 /**
@@ -663,11 +730,12 @@ public String getSystemString ( ) {
 
 /**
 Return the list of units data.
+The list cannot be modified - use addUnits() to add units so that the index and conversion cache are updated.
 @return the list of units data (useful for debugging and GUI displays).
 Perhaps later overload to request by dimension, system, etc.
 */
 public static List<DataUnits> getUnitsData() {
-	return __units_List;
+	return Collections.unmodifiableList(__units_List);
 }
 
 /**
@@ -698,7 +766,13 @@ public static DataUnits lookupUnits ( String units_string )
 throws Exception {
 	String routine = "DataUnits.lookupUnits";
 
-	// First see if the units are already in the list.
+	// First check the index.  Search the list if not found in the index,
+	// in case the abbreviation for units in the list has been changed.
+
+	DataUnits units = __units_Map.get ( units_string.toUpperCase() );
+	if ( (units != null) && units_string.equalsIgnoreCase(units.getAbbreviation()) ) {
+		return units;
+	}
 
 	int size = __units_List.size();
 	DataUnits pt = null;
@@ -1092,6 +1166,10 @@ public void setAbbreviation ( String abbreviation ) {
 		return;
 	}
 	__abbreviation = abbreviation;
+	if ( __inList ) {
+		// Conversions may use the units.
+		clearConversionCache();
+	}
 }
 
 /**
@@ -1100,6 +1178,10 @@ Set the addition factor when converting to the base units for the dimension.
 */
 public void setAddFactor ( double add_factor ) {
 	__add_factor = add_factor;
+	if ( __inList ) {
+		// Conversions may use the units.
+		clearConversionCache();
+	}
 }
 
 /**
@@ -1151,6 +1233,10 @@ throws Exception {
 	// Now set the dimension.
 
 	__dimension = dim;
+	if ( __inList ) {
+		// Conversions may use the units.
+		clearConversionCache();
+	}
 }
 
 /**
@@ -1170,6 +1256,10 @@ Set the multiplication factor used when converting to the base units.
 */
 public void setMultFactor ( double mult_factor ) {
 	__mult_factor = mult_factor;
+	if ( __inList ) {
+		// Conversions may use the units.
+		clearConversionCache();
+	}
 }
 
 /**
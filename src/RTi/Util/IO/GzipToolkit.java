@@ -25,18 +25,18 @@ package RTi.Util.IO;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedReader;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.zip.GZIPInputStream;
 
 /**
 Toolkit to work with gzip files.
+A gzip file can be read directly with IOUtil.getInputStream(), which decompresses files with .gz extension.
 */
 public class GzipToolkit {
 
@@ -112,29 +112,32 @@ public class GzipToolkit {
 	/**
 	 * Open a BufferedReader for a gzip file that contains a single file that is gzipped.
 	 * This is useful when a large data input file has been gzipped.
+	 * The file is decompressed as it is read.  Close the reader when done.
 	 * See:  ZipToolkit
 	 * @param gzipFile zip file to read
 	 * @param useTempFile if 1, save the zipped file to a temporary file; if -1, keep in memory,
-	 * if 0 default based on size of file (parameter is currently not enabled).
+	 * if 0 default based on size of file (parameter is currently not enabled because the file is not saved).
 	 */
 	public BufferedReader openBufferedReaderForSingleFile ( String gzipFile, int useTempFile )
 	throws FileNotFoundException, IOException {
-	    int BUFFER = 1024;
-	    byte data[] = new byte[BUFFER];
-	    BufferedReader bufferedReader = null;
-	    ByteArrayInputStream bais = null;
-	    ByteArrayOutputStream baos = new ByteArrayOutputStream();
-	    FileInputStream fis = new FileInputStream(new File(gzipFile));
-	    GZIPInputStream zis = new GZIPInputStream(new BufferedInputStream(fis));
-        int count;
-        while ((count = zis.read(data, 0, BUFFER)) != -1) {
-            baos.write(data, 0, count);
-            bais = new ByteArrayInputStream(baos.toByteArray());
-        }
-        // Currently only process the first entry and then return
-        InputStreamReader isr = new InputStreamReader(bais);
-        bufferedReader = new BufferedReader(isr);
-        zis.close();
-        return bufferedReader;
+        return new BufferedReader(new InputStreamReader(openInputStream(gzipFile)), ZipToolkit.BUFFER_SIZE);
+	}
+
+	/**
+	 * Open an input stream for a gzip file, which is decompressed as it is read.
+	 * @param gzipFile gzip file to read
+	 * @return input stream for the uncompressed data
+	 */
+	public InputStream openInputStream ( String gzipFile )
+	throws FileNotFoundException, IOException {
+		FileInputStream fis = new FileInputStream(new File(gzipFile));
+		try {
+			return new GZIPInputStream(new BufferedInputStream(fis, ZipToolkit.BUFFER_SIZE), ZipToolkit.BUFFER_SIZE);
+		}
+		catch ( IOException e ) {
+			// Not a gzip file.
+			fis.close();
+			throw e;
+		}
 	}
 }
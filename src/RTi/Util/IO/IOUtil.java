@@ -75,6 +75,7 @@ import java.util.Map;
 import java.util.jar.Attributes;
 import java.util.jar.JarFile;
 import java.util.jar.Manifest;
+import java.util.zip.ZipFile;
 
 import RTi.Util.GUI.SimpleFileFilter;
 import RTi.Util.Message.Message;
@@ -571,6 +572,16 @@ public static boolean fileExists ( String filename ) {
 	if ( filename == null ) {
 		return false;
 	}
+	String [] memberParts = ZipToolkit.parseMemberPath ( filename );
+	if ( memberParts != null ) {
+		// File in a zip file.
+		try ( ZipFile zip = new ZipFile(memberParts[0]) ) {
+			return zip.getEntry(memberParts[1]) != null;
+		}
+		catch ( IOException e ) {
+			return false;
+		}
+	}
 	File file = new File(filename);
 	boolean exists = file.exists();
 	file = null;
@@ -1655,6 +1666,9 @@ Open an input stream given a URL or regular file name.
 @return An InputStream given a URL or file name.
 If the string starts with "http:", "ftp:", or "file:", a URL is created and the associated stream is returned.
 Otherwise, a file is opened and the associated stream is returned.
+Compressed files are decompressed as they are read, without extracting to a temporary file:
+a file in a zip file can be read using a path of the form "archive.zip!/folder/file.csv" (see ZipToolkit),
+and a file with .gz extension is read as a gzip file (see GzipToolkit).
 @param url_string
 @exception IOException if the input stream cannot be initialized.
 */
@@ -1689,6 +1703,13 @@ throws IOException {
 	}
 	else {
 	    try {
+	    	String [] memberParts = ZipToolkit.parseMemberPath ( url_string );
+	    	if ( memberParts != null ) {
+	    		return new ZipToolkit().openInputStream ( memberParts[0], memberParts[1] );
+	    	}
+	    	else if ( StringUtil.endsWithIgnoreCase(url_string, ".gz") ) {
+	    		return new GzipToolkit().openInputStream ( url_string );
+	    	}
 	        fileStream = new FileInputStream(url_string);
 			return ( fileStream );
 		}
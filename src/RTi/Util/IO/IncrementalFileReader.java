@@ -0,0 +1,420 @@
+// IncrementalFileReader - base class for readers that process lines appended to a file since the previous read
+
+
+/* NoticeStart
+
+CDSS Common Java Library
+CDSS Common Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2025 Colorado Department of Natural Resources
+
+CDSS Common Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+CDSS Common Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with CDSS Common Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package RTi.Util.IO;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import RTi.Util.Message.Message;
+
+/**
+Base class for readers of files that are appended to, for example by real-time data feeds that add rows
+every few minutes.  Rather than reading the entire file for each refresh, the reader remembers the byte offset
+after the last complete line that was read and only reads lines that have been appended since the previous refresh.
+<p>
+The first refresh calls reload() with all complete lines in the file.
+Later refreshes call append() with the lines appended since the previous refresh.
+A full reload is done instead if append() indicates that the lines cannot be appended, or if the file has been truncated (is shorter than the previous offset)
+or has been replaced, for example when a log file is rotated,
+which is detected by a change in the file key (inode) or in the first bytes of the file.
+The last line in the file is assumed to be still being written if it does not end with a line ending,
+and is read by a later refresh after the line ending has been written.
+<p>
+Refreshes can be requested by calling refresh() or can be done on a schedule by calling startFollowing().
+The refresh methods are synchronized, and subclasses should synchronize on the reader when
+accessing the data that are modified by reload() and append().
+*/
+public abstract class IncrementalFileReader
+{
+
+/**
+Maximum number of bytes at the start of the file used to detect that the file was replaced.
+*/
+private static final int FINGERPRINT_SIZE = 4096;
+
+/**
+Full path to the file.
+*/
+private final String filename;
+
+/**
+Offset after the last complete line that was read, or -1 if the file has not been read.
+*/
+private long offset = -1;
+
+/**
+File key (inode) when the file was last loaded, or null if not available.
+*/
+private Object fileKey = null;
+
+/**
+First bytes of the file when the file was last loaded, up to the offset.
+*/
+private byte [] fingerprint = new byte[0];
+
+/**
+Number of times the file has been fully loaded.
+*/
+private int reloadCount = 0;
+
+/**
+Number of lines appended since the last reload.
+*/
+private long appendedLineCount = 0;
+
+/**
+Executor used to refresh on a schedule, or null if not following the file.
+*/
+private ScheduledExecutorService follower = null;
+
+/**
+Construct the reader.
+@param filename name of the file to read, IOUtil.getPathUsingWorkingDir() is applied
+*/
+protected IncrementalFileReader ( String filename ) {
+	this.filename = IOUtil.getPathUsingWorkingDir ( filename );
+}
+
+/**
+Process lines that were appended to the file.
+@param lines complete lines that were appended, without line endings
+@return true if the lines were processed, or false if the file must be fully reloaded,
+for example because the appended lines are not consistent with the data that were previously read
+@exception Exception if the lines cannot be processed, in which case the next refresh will do a full reload
+*/
+protected abstract boolean append ( List<String> lines )
+throws Exception;
+
+/**
+Return the number of lines appended since the last full reload.
+@return the number of lines appended since the last full reload
+*/
+public synchronized long getAppendedLineCount () {
+	return this.appendedLineCount;
+}
+
+/**
+Return the full path to the file.
+@return the full path to the file
+*/
+public String getFilename () {
+	return this.filename;
+}
+
+/**
+Return the file key, which identifies the file independent of its name, if supported by the file system.
+*/
+private Object getFileKey ( File f ) {
+	try {
+		return Files.readAttributes(f.toPath(), BasicFileAttributes.class).fileKey();
+	}
+	catch ( IOException e ) {
+		return null;
+	}
+}
+
+/**
+Return the offset after the last complete line that was read.
+@return the offset after the last complete line that was read, or -1 if the file has not been read
+*/
+public synchronized long getOffset () {
+	return this.offset;
+}
+
+/**
+Return the number of times that the file has been fully loaded.
+@return the number of times that the file has been fully loaded
+*/
+public synchronized int getReloadCount () {
+	return this.reloadCount;
+}
+
+/**
+Determine whether the file must be fully reloaded because it was truncated or replaced.
+*/
+private boolean isReloadRequired ( File f, long length, RandomAccessFile fp )
+throws IOException {
+	if ( length < this.offset ) {
+		// File was truncated.
+		return true;
+	}
+	Object key = getFileKey ( f );
+	if ( (key != null) && (this.fileKey != null) && !key.equals(this.fileKey) ) {
+		// File was replaced.
+		return true;
+	}
+	byte [] bytes = new byte[this.fingerprint.length];
+	fp.seek ( 0 );
+	fp.readFully ( bytes );
+	// File was rewritten, for example with a new header.
+	return !Arrays.equals ( bytes, this.fingerprint );
+}
+
+/**
+Determine whether the file is being followed.
+@return true if startFollowing() has been called and stopFollowing() has not been called
+*/
+public synchronized boolean isFollowing () {
+	return this.follower != null;
+}
+
+/**
+Find the offset after the last line ending in the first bytes of the file.
+@return the offset after the last line ending, or 0 if no line ending is found
+*/
+private static long findEndOfLastLine ( RandomAccessFile fp, long start, long length )
+throws IOException {
+	byte [] buffer = new byte[8192];
+	long end = length;
+	while ( end > start ) {
+		int n = (int)Math.min ( buffer.length, end - start );
+		fp.seek ( end - n );
+		fp.readFully ( buffer, 0, n );
+		for ( int i = n - 1; i >= 0; i-- ) {
+			if ( buffer[i] == '\n' ) {
+				return end - n + i + 1;
+			}
+		}
+		end -= n;
+	}
+	return start;
+}
+
+/**
+Refresh the data from the file, reading all complete lines the first time and appended lines after that,
+or reloading all lines if the file was truncated or replaced.
+If the file does not exist after it has been read, for example while a log file is being rotated,
+the previous data are retained.
+@return true if the data changed (reloaded or lines were appended), false if no change
+@exception Exception if the file cannot be read or the lines cannot be processed
+*/
+public synchronized boolean refresh ()
+throws Exception {
+	File f = new File ( this.filename );
+	if ( (this.offset >= 0) && !f.exists() ) {
+		return false;
+	}
+	if ( this.offset >= 0 ) {
+		try ( RandomAccessFile fp = new RandomAccessFile(f, "r") ) {
+			long length = fp.length();
+			if ( !isReloadRequired(f, length, fp) ) {
+				if ( length == this.offset ) {
+					return false;
+				}
+				long end = findEndOfLastLine ( fp, this.offset, length );
+				if ( end == this.offset ) {
+					// Only a partial line was appended.
+					return false;
+				}
+				byte [] bytes = new byte[(int)(end - this.offset)];
+				fp.seek ( this.offset );
+				fp.readFully ( bytes );
+				List<String> lines = splitLines ( bytes );
+				boolean appended;
+				try {
+					appended = append ( lines );
+				}
+				catch ( Exception e ) {
+					// Force a reload on the next refresh since the state of the data is unknown.
+					this.offset = -1;
+					throw e;
+				}
+				if ( appended ) {
+					this.offset = end;
+					this.appendedLineCount += lines.size();
+					return true;
+				}
+			}
+			else {
+				Message.printStatus ( 2, "IncrementalFileReader.refresh",
+					"File was truncated or replaced - reloading \"" + this.filename + "\"" );
+			}
+		}
+	}
+	reload ( f );
+	return true;
+}
+
+/**
+Reload all complete lines in the file.
+*/
+private void reload ( File f )
+throws Exception {
+	this.offset = -1;
+	Object key = getFileKey ( f );
+	long end;
+	byte [] bytes;
+	try ( RandomAccessFile fp = new RandomAccessFile(f, "r") ) {
+		end = findEndOfLastLine ( fp, 0, fp.length() );
+		bytes = new byte[(int)Math.min(end, FINGERPRINT_SIZE)];
+		fp.seek ( 0 );
+		fp.readFully ( bytes );
+	}
+	try ( BufferedReader in = new BufferedReader(new InputStreamReader(
+		new BoundedInputStream(new FileInputStream(f), end), Charset.defaultCharset())) ) {
+		reload ( in );
+	}
+	this.offset = end;
+	this.fileKey = key;
+	this.fingerprint = bytes;
+	this.appendedLineCount = 0;
+	++this.reloadCount;
+}
+
+/**
+Process all complete lines in the file, replacing any previous data.
+@param in reader for the complete lines in the file
+@exception Exception if the file cannot be processed
+*/
+protected abstract void reload ( BufferedReader in )
+throws Exception;
+
+/**
+Split bytes into lines, removing line endings.
+*/
+private static List<String> splitLines ( byte [] bytes ) {
+	String s = new String ( bytes, Charset.defaultCharset() );
+	List<String> lines = new ArrayList<>();
+	int start = 0;
+	int len = s.length();
+	while ( start < len ) {
+		int pos = s.indexOf ( '\n', start );
+		if ( pos < 0 ) {
+			pos = len;
+		}
+		int end = pos;
+		if ( (end > start) && (s.charAt(end - 1) == '\r') ) {
+			--end;
+		}
+		lines.add ( s.substring(start, end) );
+		start = pos + 1;
+	}
+	return lines;
+}
+
+/**
+Refresh the data on a schedule, using a daemon thread.
+Errors are logged and do not stop following the file.
+@param pollMillis time between refreshes, milliseconds
+@param listener called after each refresh that changes the data, or null if not needed;
+the listener is called in the follower thread while synchronized on the reader
+*/
+public synchronized void startFollowing ( long pollMillis, Runnable listener ) {
+	stopFollowing ();
+	this.follower = Executors.newSingleThreadScheduledExecutor ( DaemonThreadPool.newThreadFactory("IncrementalFileReader.follow") );
+	this.follower.scheduleWithFixedDelay ( () -> {
+		try {
+			synchronized ( this ) {
+				if ( refresh() && (listener != null) ) {
+					listener.run();
+				}
+			}
+		}
+		catch ( Exception e ) {
+			Message.printWarning ( 3, "IncrementalFileReader.follow", "Error refreshing \"" + this.filename + "\" (" + e + ")." );
+			Message.printWarning ( 3, "IncrementalFileReader.follow", e );
+		}
+	}, 0, pollMillis, TimeUnit.MILLISECONDS );
+}
+
+/**
+Stop refreshing the data on a schedule.
+*/
+public synchronized void stopFollowing () {
+	if ( this.follower != null ) {
+		this.follower.shutdownNow();
+		this.follower = null;
+	}
+}
+
+/**
+Input stream that reads a limited number of bytes, used to read only complete lines.
+*/
+private static class BoundedInputStream extends FilterInputStream
+{
+	private long remaining;
+
+	private BoundedInputStream ( InputStream in, long limit ) {
+		super ( in );
+		this.remaining = limit;
+	}
+
+	@Override
+	public int read ()
+	throws IOException {
+		if ( this.remaining <= 0 ) {
+			return -1;
+		}
+		int b = super.read();
+		if ( b >= 0 ) {
+			--this.remaining;
+		}
+		return b;
+	}
+
+	@Override
+	public int read ( byte [] b, int off, int len )
+	throws IOException {
+		if ( this.remaining <= 0 ) {
+			return -1;
+		}
+		int n = super.read ( b, off, (int)Math.min(len, this.remaining) );
+		if ( n > 0 ) {
+			this.remaining -= n;
+		}
+		return n;
+	}
+
+	@Override
+	public long skip ( long n )
+	throws IOException {
+		long skipped = super.skip ( Math.min(n, this.remaining) );
+		this.remaining -= skipped;
+		return skipped;
+	}
+
+	@Override
+	public int available ()
+	throws IOException {
+		return (int)Math.min ( super.available(), this.remaining );
+	}
+}
+
+}
@@ -114,6 +114,21 @@ public NetworkFeature ( String id, String name, String type )
 	setType ( type );
 }
 
+/**
+Link a feature downstream of this feature.  The downstream feature is added to this feature's
+downstream features and this feature is added to the downstream feature's upstream features.
+Existing links are not changed, so more than one downstream feature indicates a divergence.
+@param downstream_feature Downstream feature to link.
+*/
+public void addDownstreamFeature ( NetworkFeature downstream_feature )
+{	if ( !_downstream_feature_Vector.contains(downstream_feature) ) {
+		_downstream_feature_Vector.add ( downstream_feature );
+	}
+	if ( !downstream_feature._upstream_feature_Vector.contains(this) ) {
+		downstream_feature._upstream_feature_Vector.add ( this );
+	}
+}
+
 //REVISIT - put in the network?
 /**
 Add a NetworkFeature downstream from this feature.
@@ -88,6 +88,13 @@ and should never be able to save hidden properties to a persistent source.
 */
 public static final int SET_HIDDEN = 5;
 
+/**
+PropList that the property was most recently added to, which is notified when the key, value or contents change,
+so that the list's key index and modification count are updated for changes made directly to the property.
+If the property is in more than one PropList, only the most recent list is notified.
+*/
+private PropList __owner = null;
+
 /**
 Indicates whether property is read from a persistent source, set internally as a run-time default,
 or is set at runtime by the user.
@@ -313,6 +320,17 @@ private void initialize ( int howSet, int intKey, String key, Object contents, S
 	}
 }
 
+/**
+Notify the owning PropList, if any, that the property has changed.
+@param keyChanged true if the key changed (other than case), false if the value or contents changed
+*/
+private void notifyOwner ( boolean keyChanged ) {
+	PropList owner = __owner;
+	if ( owner != null ) {
+		owner.propChanged ( keyChanged );
+	}
+}
+
 /**
 Refresh the contents by resetting the value by expanding the contents.
 @param props PropList to search.
@@ -325,7 +343,12 @@ public void refresh ( PropList props ) {
 		(persistent_format == PropList.FORMAT_PROPERTIES) ) {
 		// Try to expand the contents...
 		if ( __contents instanceof String ) {
-			__value = PropListManager.resolveContentsValue(props,(String)__contents);
+			String value = PropListManager.resolveContentsValue(props,(String)__contents);
+			if ( (value == null) ? (__value != null) : !value.equals(__value) ) {
+				// Only a change in the resolved value is a modification, not each lookup.
+				__value = value;
+				notifyOwner ( false );
+			}
 		}
 	}
 }
@@ -339,6 +362,7 @@ public void setContents ( Object contents ) {
 
 	if ( contents != null ) {
 		__contents = contents;
+		notifyOwner ( false );
 	}
 }
 
@@ -365,6 +389,7 @@ Indicate whether the property is a literal string.
 */
 public void setIsLiteral ( boolean isLiteral ) {
     __isLiteral = isLiteral;
+    notifyOwner ( false );
 }
 
 /**
@@ -373,7 +398,11 @@ Set the string key for the property.
 */
 public void setKey ( String key ) {
 	if ( key != null ) {
+		boolean keyChanged = !key.equalsIgnoreCase(__key);
 		__key = key;
+		if ( keyChanged ) {
+			notifyOwner ( true );
+		}
 	}
 }
 
@@ -384,9 +413,18 @@ Set the string value for the property.
 public void setValue ( String value ) {
 	if ( value != null ) {
 		__value = value;
+		notifyOwner ( false );
 	}
 }
 
+/**
+Set the PropList that the property was added to, called by PropList when the property is added to its list.
+@param owner the PropList that contains the property
+*/
+void setOwner ( PropList owner ) {
+	__owner = owner;
+}
+
 /**
 Return a string representation of the property (a verbose output).
 @return a string representation of the property.
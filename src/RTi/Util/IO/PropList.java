@@ -27,8 +27,11 @@ import java.lang.Object;
 import java.lang.String;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Vector;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.io.BufferedReader;
 import java.io.FileOutputStream;
 import java.io.InputStreamReader;
@@ -48,6 +51,12 @@ Often, only a PropList needs to be used (and Prop, PropListManager) can be avoid
 Note that the standard Java Hashtable can also be used for properties but does not have some of the features of PropList.
 <p>
 
+Properties are kept in the order that they are set, and multiple properties with the same key are allowed.
+Lookups by string key use a case-insensitive index of the first property for each key,
+which is rebuilt as needed when the list is modified, including through getList().
+Methods that find and then modify a property are synchronized so that a PropList can be shared between threads.
+<p>
+
 Often, a PropList will contain only simple string properties.
 However, it is possible to store any Object in a PropList, keyed by a name.
 Internally, each property has a String key, a String value, an Object contents,
@@ -146,7 +155,45 @@ private String __listName;
 /**
 List of Prop.
 */
-private List<Prop> __list;
+private PropVector __list;
+
+/**
+Case-insensitive index of property keys, giving the position of the first property with each key.
+The index is rebuilt lazily when the list has been modified since the index was built.
+*/
+private HashMap<String,Integer> __keyIndex = null;
+
+/**
+List modification count when __keyIndex was built.
+*/
+private int __keyIndexModCount = -1;
+
+/**
+Prop key change count when __keyIndex was built.
+*/
+private int __keyIndexKeyChangeCount = -1;
+
+/**
+Indicates whether __keyIndex can be used, false if any key contains non-ASCII characters,
+in which case the case-insensitive comparison cannot be done with a simple lower case key.
+*/
+private boolean __keyIndexUsable = false;
+
+/**
+Count of changes made to properties in the list that do not change the list itself,
+for example resetting the value of an existing property.
+*/
+private final AtomicInteger __valueChangeCount = new AtomicInteger(0);
+
+/**
+Count of changes to the keys of properties in the list, made directly with Prop.setKey().
+*/
+private final AtomicInteger __keyChangeCount = new AtomicInteger(0);
+
+/**
+Minimum list size for which the key index is used.  Smaller lists are searched sequentially.
+*/
+private static final int KEY_INDEX_MIN_SIZE = 8;
 
 /**
 File to save in.
@@ -184,7 +231,7 @@ public PropList(PropList props) {
 
 	setPropListName(props.getPropListName());
 
-	this.__list = new Vector<>();
+	this.__list = new PropVector(this);
 	// Duplicate all the props.
 	int size = props.size();
 	Prop prop = null;
@@ -209,7 +256,7 @@ Not cloning is safe for immutable properties.
 */
 public PropList (PropList props, boolean cloneContents) {
 	// The code is the mostly same as the other method but clone the data object.
-	this.__list = new Vector<>();
+	this.__list = new PropVector(this);
 	// Duplicate all the props.
 	int size = props.size();
 	Prop prop = null;
@@ -371,8 +418,21 @@ Find a property in the list.
 @return The index position of the property corresponding to the string key, or -1 if not found.
 @param key The string key used to look up the property.
 */
-public int findProp ( String key ) {
+public synchronized int findProp ( String key ) {
 	int	size = __list.size();
+	if ( size >= KEY_INDEX_MIN_SIZE ) {
+		String indexKey = toIndexKey ( key );
+		if ( (indexKey != null) && updateKeyIndex() ) {
+			Integer pos = __keyIndex.get ( indexKey );
+			if ( pos == null ) {
+				return -1;
+			}
+			if ( Message.isDebugOn ) {
+				Message.printDebug ( 100, "PropList.findProp", "Found property \"" + key + "\" at index " + pos);
+			}
+			return pos.intValue();
+		}
+	}
 	Prop prop_i;
 	String propKey;
 	for ( int i = 0; i < size; i++ ) {
@@ -396,11 +456,16 @@ Find a property in the list.
 @param inst Instance number of property (0+). If inst is one, then
 the second property with that name is returned, etc.
 */
-public int findProp ( String key, int inst ) {
+public synchronized int findProp ( String key, int inst ) {
+	// Start with the first instance, which uses the key index, and then search the rest of the list.
+	int first = findProp ( key );
+	if ( (first < 0) || (inst == 0) ) {
+		return first;
+	}
 	int size = size();
-	for ( int i = 0; i < size; i++ ) {
+	for ( int i = first + 1; i < size; i++ ) {
 		if ( propAt(i).getKey().equalsIgnoreCase( key ) ) {
-			if ( (inst--) != 0 ) {
+			if ( (--inst) != 0 ) {
 				 continue;
 			}
 			return i;
@@ -433,7 +498,7 @@ Return property contents.
 @return The contents of the property as an Object, or null if not found.
 @param key The string key used to look up the property.
 */
-public Object getContents ( String key ) {
+public synchronized Object getContents ( String key ) {
 	int	pos = findProp ( key );
 	if ( pos >= 0 ) {
 		// We have a match.  Return the contents object.
@@ -455,6 +520,8 @@ public int getHowSet () {
 
 /**
 Returns the list of Props.
+Changes to the list are detected by the key index;
+however, if the list is shared between threads, synchronize on the list when modifying it directly.
 @return the list of Props.
 */
 public List<Prop> getList() {
@@ -470,6 +537,18 @@ public boolean getLiteralQuotes () {
 	return __literalQuotes;
 }
 
+/**
+Return a count that changes whenever the list is changed through PropList methods or getList(),
+or the key, value or contents of a property in the list is changed.
+This can be used by code that caches values from the list to know when cached values need to be refreshed.
+Changes made directly to a Prop are only detected by the PropList that the Prop was most recently added to,
+which matters only if the same Prop instance is added to more than one list.
+@return a count that changes whenever the list is modified.
+*/
+public synchronized int getModificationCount () {
+	return __list.getModificationCount() + __valueChangeCount.get() + __keyChangeCount.get();
+}
+
 /**
 Return the name of the property list.
 @return The name of the property list.
@@ -483,7 +562,7 @@ Returns a count of the number of the properties in the list that have the specif
 @param key the key for which to find matching properties.  Can not be null.
 @return the number of properties in the list with the same key.
 */
-public int getPropCount ( String key ) {
+public synchronized int getPropCount ( String key ) {
 	int count = 0;
 	int size = size();
 	for ( int i = 0; i < size; i++ ) {
@@ -545,7 +624,7 @@ Search the list using the string key.
 @return The property corresponding to the string key, or null if not found.
 @param key The string key used to look up the property.
 */
-public Prop getProp ( String key ) {
+public synchronized Prop getProp ( String key ) {
 	int	pos = findProp ( key );
 	if ( pos >= 0 ) {
 		Prop prop = __list.get(pos);
@@ -613,7 +692,7 @@ If the Prop was set using setUsingContents, the string value will not have been
 @return The string value of the property corresponding to the string key.
 @param key The string key used to look up the property.
 */
-public String getValue ( String key ) {
+public synchronized String getValue ( String key ) {
 	int pos = findProp ( key );
 	if ( pos >= 0 ) {
 		// Have a match.  Return the value.
@@ -681,7 +760,7 @@ private void initialize ( String listName, String persistentName, int persistent
 	    __persistentName = persistentName;
 	}
 	__persistentFormat = persistentFormat;
-	__list = new Vector<>();
+	__list = new PropVector(this);
 	__lastLineNumberRead = 0;
 }
 
@@ -1035,7 +1114,7 @@ Otherwise, a duplicate property will be added to the list.
 @param replace if true, if the key already exists in the PropList, its value
 will be replaced.  If false, a duplicate key will be added.
 */
-public void set ( String key, String value, boolean replace ) {
+public synchronized void set ( String key, String value, boolean replace ) {
 	int index = findProp ( key );
 
 	if ( index < 0 || !replace) {
@@ -1049,6 +1128,7 @@ public void set ( String key, String value, boolean replace ) {
 		prop.setContents ( value );
 		prop.setValue ( value );
 		prop.setHowSet ( __howSet );
+		__valueChangeCount.incrementAndGet();
 	}
 }
 
@@ -1073,7 +1153,7 @@ Otherwise, a duplicate property will be added to the list.
 @param replace if true, if the key already exists in the PropList, its value
 will be replaced.  If false, a duplicate key will be added.
 */
-public void set ( String key, String contents, String value, boolean replace ) {
+public synchronized void set ( String key, String contents, String value, boolean replace ) {
 	// Find if this is already a property in this list.
 
 	int index = findProp ( key );
@@ -1088,6 +1168,7 @@ public void set ( String key, String contents, String value, boolean replace ) {
 		prop.setContents ( contents );
 		prop.setValue ( value );
 		prop.setHowSet ( __howSet );
+		__valueChangeCount.incrementAndGet();
 	}
 }
 
@@ -1105,7 +1186,7 @@ it will be replaced if the replace parameter is true.  Otherwise, a duplicate pr
 If the property key exists, reset the property to the new information.
 @param prop The contents of the property.
 */
-public void set ( Prop prop, boolean replace ) {
+public synchronized void set ( Prop prop, boolean replace ) {
 	// Find if this is already a property in this list.
 	if ( prop == null ) {
 		return;
@@ -1139,6 +1220,7 @@ If set to false, the quotes will be discarded when contents are converted to a s
 */
 public void setLiteralQuotes ( boolean literal_quotes ) {
 	__literalQuotes = literal_quotes;
+	__valueChangeCount.incrementAndGet();
 }
 
 /**
@@ -1168,6 +1250,7 @@ Set the configuration file format.
 */
 public void setPersistentFormat ( int persistent_format ) {
 	__persistentFormat = persistent_format;
+	__valueChangeCount.incrementAndGet();
 }
 
 /**
@@ -1179,7 +1262,7 @@ If the property key exists, reset the property to the new information.
 The value is determined by calling the object's toString() method.
 If contents are null, then the String value is also set to null.
 */
-public void setUsingObject ( String key, Object contents ) {
+public synchronized void setUsingObject ( String key, Object contents ) {
 	// Ignore null keys.
 
 	if ( key == null ) {
@@ -1204,6 +1287,7 @@ public void setUsingObject ( String key, Object contents ) {
 		prop.setContents ( contents );
 		prop.setValue ( value );
 		prop.setHowSet ( __howSet );
+		__valueChangeCount.incrementAndGet();
 	}
 	value = null;
 }
@@ -1217,12 +1301,13 @@ Additional checks are being added to make setValue more universal).</b>
 @param key String key for property.
 @param value String value for property.
 */
-public void setValue ( String key, String value ) {
+public synchronized void setValue ( String key, String value ) {
 	int pos = findProp(key);
 	if ( pos >= 0 ) {
 		// Have a match.  Reset the value in the corresponding Prop.
 		Prop prop = __list.get(pos);
 		prop.setValue(value);
+		__valueChangeCount.incrementAndGet();
 		return;
 	}
 	// If we get to here we did not find a match and need to add a new item to the list.
@@ -1282,6 +1367,51 @@ public String toString ( String delim ) {
 	return b.toString();
 }
 
+/**
+Called by a Prop in the list when it is changed directly.
+This does not lock the list so that a Prop can be changed while another thread is using the list.
+@param keyChanged true if the key changed (other than case), false if the value or contents changed
+*/
+void propChanged ( boolean keyChanged ) {
+	if ( keyChanged ) {
+		__keyChangeCount.incrementAndGet();
+	}
+	else {
+		__valueChangeCount.incrementAndGet();
+	}
+}
+
+/**
+Return the key used with the key index, the key converted to lower case,
+or null if the key contains non-ASCII characters and cannot be indexed.
+@param key property key
+@return the key used with the key index, or null if the key cannot be indexed
+*/
+private static String toIndexKey ( String key ) {
+	int length = key.length();
+	boolean hasUpper = false;
+	for ( int i = 0; i < length; i++ ) {
+		char c = key.charAt(i);
+		if ( c > 127 ) {
+			return null;
+		}
+		else if ( (c >= 'A') && (c <= 'Z') ) {
+			hasUpper = true;
+		}
+	}
+	if ( !hasUpper ) {
+		return key;
+	}
+	char [] chars = key.toCharArray();
+	for ( int i = 0; i < length; i++ ) {
+		char c = chars[i];
+		if ( (c >= 'A') && (c <= 'Z') ) {
+			chars[i] = (char)(c + ('a' - 'A'));
+		}
+	}
+	return new String ( chars );
+}
+
 /**
 Unset a value (remove from the list).
 Remove the property from the property list.
@@ -1298,7 +1428,7 @@ Unset a value (remove from the list).
 Remove the property from the property list.
 @param key String key for property to remove.
 */
-public void unSet ( String key ) {
+public synchronized void unSet ( String key ) {
 	int pos = findProp ( key );
 	if ( pos >= 0 ) {
 		__list.remove(pos);
@@ -1309,13 +1439,46 @@ public void unSet ( String key ) {
 Unsets all properties with matching keys from the list.
 @param key String key for the properties to remove.
 */
-public void unSetAll ( String key ) {
+public synchronized void unSetAll ( String key ) {
 	int count = getPropCount(key);
 	for (int i = 0; i < count; i++) {
 		unSet(key);
 	}
 }
 
+/**
+Rebuild the key index if the list has changed since the index was last built.
+The first instance of each key is indexed so that lookups return the same position as a sequential search.
+@return true if the key index can be used, false if the list contains keys that cannot be indexed
+*/
+private boolean updateKeyIndex () {
+	int modCount = __list.getModificationCount();
+	int keyChangeCount = __keyChangeCount.get();
+	if ( (__keyIndex != null) && (modCount == __keyIndexModCount) && (keyChangeCount == __keyIndexKeyChangeCount) ) {
+		return __keyIndexUsable;
+	}
+	int size = __list.size();
+	HashMap<String,Integer> keyIndex = new HashMap<>(size*2);
+	boolean usable = true;
+	for ( int i = 0; i < size; i++ ) {
+		String key = __list.get(i).getKey();
+		if ( key == null ) {
+			continue;
+		}
+		String indexKey = toIndexKey ( key );
+		if ( indexKey == null ) {
+			usable = false;
+			break;
+		}
+		keyIndex.putIfAbsent ( indexKey, Integer.valueOf(i) );
+	}
+	__keyIndex = keyIndex;
+	__keyIndexModCount = modCount;
+	__keyIndexKeyChangeCount = keyChangeCount;
+	__keyIndexUsable = usable;
+	return usable;
+}
+
 /**
 Checks all the property names in the PropList to make sure only valid and deprecated ones are in the list,
 and returns a list with warning messages about deprecated and invalid properties.
@@ -1570,4 +1733,105 @@ throws IOException {
 	out.close();
 }
 
+/**
+List of Prop that counts all modifications, including replacing an element,
+so that the key index can detect changes made through getList().
+Props that are added to the list are told the owning PropList so that direct changes to the Prop are detected.
+*/
+@SuppressWarnings("serial")
+private static class PropVector extends Vector<Prop> {
+
+	/**
+	PropList that owns the list.
+	*/
+	private final PropList owner;
+
+	/**
+	Number of elements that have been replaced.
+	This is separate from modCount because replacing an element is not a structural change for iterators.
+	*/
+	private int setCount = 0;
+
+	/**
+	Construct the list.
+	@param owner PropList that owns the list
+	*/
+	PropVector ( PropList owner ) {
+		this.owner = owner;
+	}
+
+	@Override
+	public synchronized boolean add ( Prop prop ) {
+		setOwner ( prop );
+		return super.add ( prop );
+	}
+
+	@Override
+	public void add ( int index, Prop prop ) {
+		setOwner ( prop );
+		super.add ( index, prop );
+	}
+
+	@Override
+	public synchronized boolean addAll ( Collection<? extends Prop> props ) {
+		for ( Prop prop : props ) {
+			setOwner ( prop );
+		}
+		return super.addAll ( props );
+	}
+
+	@Override
+	public synchronized boolean addAll ( int index, Collection<? extends Prop> props ) {
+		for ( Prop prop : props ) {
+			setOwner ( prop );
+		}
+		return super.addAll ( index, props );
+	}
+
+	@Override
+	public synchronized void addElement ( Prop prop ) {
+		setOwner ( prop );
+		super.addElement ( prop );
+	}
+
+	@Override
+	public synchronized void insertElementAt ( Prop prop, int index ) {
+		setOwner ( prop );
+		super.insertElementAt ( prop, index );
+	}
+
+	@Override
+	public synchronized void setElementAt ( Prop prop, int index ) {
+		setOwner ( prop );
+		++this.setCount;
+		super.setElementAt ( prop, index );
+	}
+
+	/**
+	Set the owner of a Prop that is added to the list.
+	*/
+	private void setOwner ( Prop prop ) {
+		if ( prop != null ) {
+			prop.setOwner ( this.owner );
+		}
+	}
+
+	/**
+	Return the modification count for the list, including replaced elements.
+	*/
+	synchronized int getModificationCount () {
+		return this.modCount + this.setCount;
+	}
+
+	/**
+	Replace an element, counting the replacement as a modification.
+	*/
+	@Override
+	public synchronized Prop set ( int index, Prop prop ) {
+		setOwner ( prop );
+		++this.setCount;
+		return super.set ( index, prop );
+	}
+}
+
 }
\ No newline at end of file
@@ -25,26 +25,42 @@ package RTi.Util.IO;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedReader;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
+import java.util.Enumeration;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 
 import RTi.Util.Message.Message;
 
 /**
 Toolkit to work with zip files.
+A file in a zip file can be read directly using a path of the form "archive.zip!/folder/file.csv",
+for example with IOUtil.getInputStream(), without first extracting the file.
 */
 public class ZipToolkit {
 
+	/**
+	 * Separator between the zip file and the path of a file in the zip file, as in "archive.zip!/file.csv".
+	 */
+	public static final String MEMBER_SEPARATOR = "!/";
+
+	/**
+	 * Size of buffers used when reading compressed data.
+	 */
+	static final int BUFFER_SIZE = 65536;
+
 	/**
 	 * Constructor.
 	 */
@@ -152,43 +168,156 @@ public class ZipToolkit {
 		return outputFileList;
 	}
 	
+	/**
+	 * Unzip a zip file to a folder, extracting files in parallel using the shared DaemonThreadPool.
+	 * Each file in the zip file is compressed independently so files can be extracted at the same time.
+	 * @param zipFile path to file to unzip
+	 * @param destinationFolder 
+	 * @param returnList if true, return the list of unzipped file paths, if false return an empty list.
+	 * @param threadCount number of threads to use, or 0 to use the number of processors
+	 * (if 1, the same as unzipFileToFolder(String,String,boolean))
+	 * @return the list if extracted files, as per 'returnList', in the order of the zip file
+	 */
+	public List<String> unzipFileToFolder ( String zipFile, String destinationFolder, boolean returnList, int threadCount )
+	throws IOException, FileNotFoundException {
+		if ( threadCount <= 0 ) {
+			threadCount = Runtime.getRuntime().availableProcessors();
+		}
+		if ( threadCount == 1 ) {
+			return unzipFileToFolder ( zipFile, destinationFolder, returnList );
+		}
+		String routine = getClass().getSimpleName() + ".unzipFileToFolder";
+		List<String> outputFileList = new ArrayList<>();
+		try ( ZipFile zip = new ZipFile(zipFile) ) {
+			List<Callable<Object>> tasks = new ArrayList<>();
+			Enumeration<? extends ZipEntry> entries = zip.entries();
+			while ( entries.hasMoreElements() ) {
+				ZipEntry entry = entries.nextElement();
+				String unzippedFile = destinationFolder + File.separator + entry.getName();
+				File file = new File(unzippedFile);
+				// Create folders before extracting files so that threads don't create the same folders.
+				File folder = entry.isDirectory() ? file : file.getParentFile();
+				if ( !folder.exists() && !folder.mkdirs() ) {
+					Message.printWarning(3,routine,"Problem creating folder \"" + folder.getAbsolutePath() + "\"");
+				}
+				if ( entry.isDirectory() ) {
+					continue;
+				}
+				tasks.add ( () -> {
+					try ( InputStream in = zip.getInputStream(entry);
+						FileOutputStream fOutput = new FileOutputStream(file) ) {
+						byte[] buffer = new byte[BUFFER_SIZE];
+						int count = 0;
+						while ((count = in.read(buffer)) > 0) {
+							fOutput.write(buffer, 0, count);
+						}
+					}
+					return null;
+				});
+				if ( returnList ) {
+					outputFileList.add(unzippedFile);
+				}
+			}
+			try {
+				for ( Future<Object> future : DaemonThreadPool.invokeAll(tasks, threadCount) ) {
+					future.get();
+				}
+			}
+			catch ( ExecutionException e ) {
+				if ( e.getCause() instanceof IOException ) {
+					throw (IOException)e.getCause();
+				}
+				throw new RuntimeException ( e.getCause() );
+			}
+			catch ( InterruptedException e ) {
+				Thread.currentThread().interrupt();
+				throw new RuntimeException ( "Interrupted unzipping \"" + zipFile + "\".", e );
+			}
+		}
+		return outputFileList;
+	}
+
+	/**
+	 * Determine whether a path is for a file in a zip file, of the form "archive.zip!/file.csv".
+	 * @param path path to check
+	 * @return the zip file path and the path of the file in the zip file, or null if the path is not for a file
+	 * in a zip file
+	 */
+	public static String [] parseMemberPath ( String path ) {
+		if ( path == null ) {
+			return null;
+		}
+		int pos = path.toUpperCase().indexOf(".ZIP" + MEMBER_SEPARATOR);
+		if ( pos <= 0 ) {
+			return null;
+		}
+		return new String[] { path.substring(0, pos + 4), path.substring(pos + 4 + MEMBER_SEPARATOR.length()) };
+	}
+
 	/**
 	 * Open a BufferedReader for a zip file that contains a single file that is zipped.
 	 * This is useful when a large data input file has been zipped.
+	 * The file is decompressed as it is read.  Close the reader when done.
 	 * See:  http://www.oracle.com/technetwork/articles/java/compress-1565076.html
 	 * @param zipFile zip file to read
 	 * @param useTempFile if 1, save the zipped file to a temporary file; if -1, keep in memory,
-	 * if 0 default based on size of file (parameter is currently not enabled).
+	 * if 0 default based on size of file (parameter is currently not enabled because the file is not saved).
 	 */
 	public BufferedReader openBufferedReaderForSingleFile ( String zipFile, int useTempFile )
 	throws FileNotFoundException, IOException {
-	    int BUFFER = 1024;
-	    byte data[] = new byte[BUFFER];
-	    BufferedReader bufferedReader = null;
+		return new BufferedReader(new InputStreamReader(openInputStreamForSingleFile(zipFile)), BUFFER_SIZE);
+	}
+
+	/**
+	 * Open an input stream for a zip file that contains a single file that is zipped.
+	 * The file is decompressed as it is read.  Close the stream when done.
+	 * @param zipFile zip file to read
+	 * @return input stream for the uncompressed data of the first file in the zip file
+	 */
+	public InputStream openInputStreamForSingleFile ( String zipFile )
+	throws FileNotFoundException, IOException {
 	    ZipEntry entry;
-	    ByteArrayInputStream bais = null;
-	    ByteArrayOutputStream baos = new ByteArrayOutputStream();
 	    FileInputStream fis = new FileInputStream(new File(zipFile));
-	    ZipInputStream zis = new ZipInputStream(new BufferedInputStream(fis));
-	    while ((entry = zis.getNextEntry()) != null) {
+	    ZipInputStream zis = new ZipInputStream(new BufferedInputStream(fis, BUFFER_SIZE));
+	    if ((entry = zis.getNextEntry()) != null) {
 	    	if ( entry.isDirectory() ) {
 	    		zis.close();
 	    		throw new IOException ( "Zip file \"" + zipFile + "\" contains directory - expecting single file." );
 	    	}
-	        int count;
-	        while ((count = zis.read(data, 0, BUFFER)) != -1) {
-	            baos.write(data, 0, count);
-	            bais = new ByteArrayInputStream(baos.toByteArray());
-	        }
 	        // Currently only process the first entry and then return
-	        InputStreamReader isr = new InputStreamReader(bais);
-	        bufferedReader = new BufferedReader(isr);
-	        zis.close();
 	        Message.printStatus(2,"","Opened zip file \"" + zipFile + "\".");
-	        return bufferedReader;
+	        return zis;
 	    }
 	    // If here something is probably wrong but clean up
 	    zis.close();
 	    throw new IOException ( "No file found in zip file \"" + zipFile + "\"." );
 	}
+
+	/**
+	 * Open an input stream for a file in a zip file.
+	 * The file is decompressed as it is read.  Closing the stream closes the zip file.
+	 * @param zipFile zip file to read
+	 * @param memberPath path of the file in the zip file, using / as the separator
+	 * @return input stream for the file
+	 * @exception FileNotFoundException if the zip file does not contain the file
+	 */
+	public InputStream openInputStream ( String zipFile, String memberPath )
+	throws FileNotFoundException, IOException {
+		ZipFile zip = new ZipFile(zipFile);
+		ZipEntry entry = zip.getEntry(memberPath);
+		if ( (entry == null) || entry.isDirectory() ) {
+			zip.close();
+			throw new FileNotFoundException ( "Zip file \"" + zipFile + "\" does not contain file \"" + memberPath + "\"." );
+		}
+		return new BufferedInputStream(zip.getInputStream(entry), BUFFER_SIZE) {
+			public void close () throws IOException {
+				try {
+					super.close();
+				}
+				finally {
+					zip.close();
+				}
+			}
+		};
+	}
 }
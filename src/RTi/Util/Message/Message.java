@@ -26,6 +26,7 @@ package RTi.Util.Message;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.io.PrintWriter;
+import java.util.ArrayList;
 import java.util.List;
 import javax.swing.JFrame;
 
@@ -176,6 +177,12 @@ public final static int FLUSH_OUTPUT = 0x8;
 
 private static final MessageImpl impl = getImpl();
 
+/**
+Lists of warnings being captured for the current thread, innermost capture last,
+used by startWarningCapture() and stopWarningCapture().
+*/
+private static final ThreadLocal<List<List<String>>> warningCaptures = new ThreadLocal<>();
+
 private static MessageImpl getImpl() {
     String prop = System.getProperty("RTi.Util.MessageImpl");
     MessageImpl impl = null;
@@ -196,6 +203,20 @@ private static MessageImpl getImpl() {
     return impl;
 }
 
+/**
+Add a warning message to the warning lists being captured for the current thread, if any.
+The routine is not captured, so that the warnings can be shown to users as is.
+@param message Warning message.
+*/
+private static void captureWarning ( String message ) {
+	List<List<String>> captures = warningCaptures.get();
+	if ( (captures != null) && (message != null) ) {
+		for ( List<String> warnings : captures ) {
+			warnings.add ( message );
+		}
+	}
+}
+
 /**
 Adds a listener to the list of listeners that can respond to actions from the MessageLogJFrame.
 The listeners are updated by the MessageLogJFrame every time its processLogFile() method is called and a log file is read and displayed.
@@ -366,6 +387,7 @@ This is useful when you are printing a warning of level 1 and want to specify wh
 that WarningDialog should be associated with, without changing the top level window that should be typically used.
 */
 public static void printWarning ( int level, String routine, String message, JFrame top_level ) {
+	captureWarning ( message );
 	if ( top_level == null ) {
 		impl.printWarning(level,routine,message);
 	}
@@ -394,6 +416,7 @@ The tag will be printed with the message if the ShowMessageTag property is "true
 @param message Warning message.
 */
 public static void printWarning ( int level, String tag, String routine, String message ) {
+	captureWarning ( message );
 	impl.printWarning(level,tag,routine,message);
 }
 
@@ -407,6 +430,39 @@ public static void printWarning ( int level, String routine, Throwable e ) {
     impl.printWarning(level,routine,e);
 }
 
+/**
+Start capturing the warning messages that are printed by the current thread, in addition to printing them as usual.
+This allows code that runs tasks in multiple threads to associate warnings with each task.
+Each call must be matched by a call to stopWarningCapture() in the same thread, typically in a finally block.
+Captures can be nested, in which case warnings are added to the inner and outer captures.
+Stack traces printed with printWarning(int,String,Throwable) are not captured.
+*/
+public static void startWarningCapture () {
+	List<List<String>> captures = warningCaptures.get();
+	if ( captures == null ) {
+		captures = new ArrayList<>();
+		warningCaptures.set ( captures );
+	}
+	captures.add ( new ArrayList<>() );
+}
+
+/**
+Stop capturing warning messages for the current thread, started with startWarningCapture().
+@return the warning messages that were printed by the thread since the matching startWarningCapture() call,
+guaranteed to be non-null
+*/
+public static List<String> stopWarningCapture () {
+	List<List<String>> captures = warningCaptures.get();
+	if ( (captures == null) || captures.isEmpty() ) {
+		return new ArrayList<>();
+	}
+	List<String> warnings = captures.remove ( captures.size() - 1 );
+	if ( captures.isEmpty() ) {
+		warningCaptures.remove();
+	}
+	return warnings;
+}
+
 /**
 Removes a listener from the Vector of listeners that are set to listen to actions from the MessageLogJFrame.
 @param listener the listener to remove from the Vector of MessageLogListeners.
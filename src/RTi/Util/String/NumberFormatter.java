@@ -0,0 +1,610 @@
+// NumberFormatter - precompiled formatter for StringUtil.formatString() number formats
+
+/* NoticeStart
+
+CDSS Common Java Library
+CDSS Common Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2025 Colorado Department of Natural Resources
+
+CDSS Common Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+CDSS Common Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with CDSS Common Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package RTi.Util.String;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+Formatter for a single value using the C-style format understood by StringUtil.formatString(),
+for example "%10.2f", " %8d", or "%-12.12s".
+The format is parsed once when the formatter is created and values are appended directly to a StringBuilder,
+which avoids the list, boxing, and format parsing that occur for each call to StringUtil.formatString().
+The output is the same as StringUtil.formatString() for the same value and format.
+Use this class when formatting many values with the same format, for example when writing output files or rendering tables.
+Formats that contain more than one value specifier, or that StringUtil.formatString() does not fully recognize,
+are handled by calling StringUtil.formatString().
+Instances are immutable and can be shared between threads.
+*/
+public class NumberFormatter
+{
+
+/**
+Cache of formatters, used by getInstance().
+*/
+private static final ConcurrentHashMap<String,NumberFormatter> formatterCache = new ConcurrentHashMap<>();
+
+/**
+Maximum number of formatters in the cache, which is cleared if the size is exceeded.
+*/
+private static final int MAX_CACHE_SIZE = 1000;
+
+/**
+Spaces used for padding.
+*/
+private static final char [] SPACES = "                                                                ".toCharArray();
+
+/**
+Zeros used for padding.
+*/
+private static final char [] ZEROS = "0000000000000000000000000000000000000000000000000000000000000000".toCharArray();
+
+/**
+The original format.
+*/
+private final String format;
+
+/**
+Whether the format was parsed into a single specifier with surrounding literal text.
+If false, StringUtil.formatString() is called.
+*/
+private final boolean compiled;
+
+/**
+Literal text before the specifier, with %% replaced by %.
+*/
+private final String prefix;
+
+/**
+Literal text after the specifier, with %% replaced by %.
+*/
+private final String suffix;
+
+/**
+The specifier type:  'd', 'f', 'F', 's', 'c', or 0 if the format has no specifier.
+*/
+private final char type;
+
+/**
+Width from the specifier, 0 if not specified.
+*/
+private final int width;
+
+/**
+Precision from the specifier, 0 if not specified.
+*/
+private final int precision;
+
+/**
+Whether the precision was specified.
+*/
+private final boolean precisionSpecified;
+
+/**
+Whether the - flag was specified (left justify).
+*/
+private final boolean leftShift;
+
+/**
+Whether the 0 flag was specified (pad numbers with zeros).
+*/
+private final boolean zeroFormat;
+
+/**
+Whether the # flag was specified (always include a decimal point for floating point numbers).
+*/
+private final boolean poundFormat;
+
+/**
+Create a formatter for the format.
+@param format format as used with StringUtil.formatString(), for example "%10.2f".
+*/
+public NumberFormatter ( String format ) {
+	this.format = format;
+	StringBuilder prefixBuilder = new StringBuilder();
+	StringBuilder suffixBuilder = new StringBuilder();
+	StringBuilder literal = prefixBuilder;
+	boolean compiled = (format != null);
+	char type = 0;
+	int width = 0;
+	int precision = 0;
+	boolean precisionSpecified = false;
+	boolean leftShift = false;
+	boolean zeroFormat = false;
+	boolean poundFormat = false;
+	int length = (format == null) ? 0 : format.length();
+	for ( int iformat = 0; compiled && (iformat < length); iformat++ ) {
+		char cformat = format.charAt(iformat);
+		if ( cformat != '%' ) {
+			literal.append ( cformat );
+			continue;
+		}
+		// Parse the specifier in the same way as StringUtil.formatString().
+		++iformat;
+		if ( iformat >= length ) {
+			// StringUtil.formatString() ignores the remainder of the format.
+			compiled = false;
+			break;
+		}
+		boolean first = true;
+		boolean dotFound = false;
+		int specWidth = 0;
+		int specPrecision = 0;
+		boolean specPrecisionSpecified = false;
+		boolean specLeftShift = false;
+		boolean specZeroFormat = false;
+		boolean specPoundFormat = false;
+		char specType = 0;
+		for ( ; iformat < length; iformat++ ) {
+			cformat = format.charAt(iformat);
+			if ( first ) {
+				if ( cformat == '%' ) {
+					// Literal percent.
+					literal.append ( '%' );
+					break;
+				}
+				else if ( cformat == 'c' ) {
+					specType = 'c';
+					break;
+				}
+				else if ( cformat == '-' ) {
+					specLeftShift = true;
+					continue;
+				}
+				else if ( cformat == '#' ) {
+					specPoundFormat = true;
+					continue;
+				}
+				else if ( cformat == '0' ) {
+					specZeroFormat = true;
+					continue;
+				}
+				first = false;
+			}
+			if ( cformat == '.' ) {
+				dotFound = true;
+				continue;
+			}
+			if ( Character.isDigit(cformat) ) {
+				if ( dotFound ) {
+					specPrecision = specPrecision*10 + (cformat - '0');
+					specPrecisionSpecified = true;
+				}
+				else {
+					specWidth = specWidth*10 + (cformat - '0');
+				}
+				continue;
+			}
+			if ( (cformat != 'd') && (cformat != 'f') && (cformat != 'F') && (cformat != 's') ) {
+				// Invalid format, let StringUtil.formatString() handle.
+				compiled = false;
+			}
+			specType = cformat;
+			break;
+		}
+		if ( !compiled || (specType == 0) ) {
+			continue;
+		}
+		if ( (type != 0) || (specWidth > 100000) || (specPrecision > 100000) ) {
+			// Only one value specifier is handled (or an unreasonable size).
+			compiled = false;
+			break;
+		}
+		type = specType;
+		if ( type != 'c' ) {
+			width = specWidth;
+			if ( specPrecisionSpecified ) {
+				precision = specPrecision;
+			}
+			precisionSpecified = specPrecisionSpecified;
+			leftShift = specLeftShift;
+			zeroFormat = specZeroFormat;
+			poundFormat = specPoundFormat;
+		}
+		literal = suffixBuilder;
+	}
+	this.compiled = compiled;
+	this.prefix = prefixBuilder.toString();
+	this.suffix = suffixBuilder.toString();
+	this.type = type;
+	this.width = width;
+	this.precision = precision;
+	this.precisionSpecified = precisionSpecified;
+	this.leftShift = leftShift;
+	this.zeroFormat = zeroFormat;
+	this.poundFormat = poundFormat;
+}
+
+/**
+Append a formatted double to a StringBuilder.
+@param b StringBuilder to append to
+@param d value to format
+@return the StringBuilder, to allow chaining
+*/
+public StringBuilder append ( StringBuilder b, double d ) {
+	if ( this.compiled ) {
+		int start = b.length();
+		b.append ( this.prefix );
+		if ( this.type != 0 ) {
+			int valueStart = b.length();
+			b.append ( d );
+			if ( !formatValue(b, valueStart, true, d) ) {
+				b.setLength ( start );
+				return b.append ( StringUtil.formatString(d, this.format) );
+			}
+		}
+		return b.append ( this.suffix );
+	}
+	else {
+		return b.append ( StringUtil.formatString(d, this.format) );
+	}
+}
+
+/**
+Append a formatted float to a StringBuilder.
+@param b StringBuilder to append to
+@param f value to format
+@return the StringBuilder, to allow chaining
+*/
+public StringBuilder append ( StringBuilder b, float f ) {
+	if ( this.compiled ) {
+		int start = b.length();
+		b.append ( this.prefix );
+		if ( this.type != 0 ) {
+			int valueStart = b.length();
+			b.append ( f );
+			if ( !formatValue(b, valueStart, false, 0.0) ) {
+				b.setLength ( start );
+				return b.append ( StringUtil.formatString(f, this.format) );
+			}
+		}
+		return b.append ( this.suffix );
+	}
+	else {
+		return b.append ( StringUtil.formatString(f, this.format) );
+	}
+}
+
+/**
+Append a formatted integer to a StringBuilder.
+@param b StringBuilder to append to
+@param i value to format
+@return the StringBuilder, to allow chaining
+*/
+public StringBuilder append ( StringBuilder b, int i ) {
+	if ( this.compiled ) {
+		b.append ( this.prefix );
+		if ( this.type != 0 ) {
+			// Integers never need to be rounded so the value can always be formatted.
+			int valueStart = b.length();
+			b.append ( i );
+			formatValue ( b, valueStart, false, 0.0 );
+		}
+		return b.append ( this.suffix );
+	}
+	else {
+		return b.append ( StringUtil.formatString(i, this.format) );
+	}
+}
+
+/**
+Append a formatted long to a StringBuilder.
+@param b StringBuilder to append to
+@param l value to format
+@return the StringBuilder, to allow chaining
+*/
+public StringBuilder append ( StringBuilder b, long l ) {
+	if ( this.compiled ) {
+		b.append ( this.prefix );
+		if ( this.type != 0 ) {
+			int valueStart = b.length();
+			b.append ( l );
+			formatValue ( b, valueStart, false, 0.0 );
+		}
+		return b.append ( this.suffix );
+	}
+	else {
+		return b.append ( StringUtil.formatString(l, this.format) );
+	}
+}
+
+/**
+Append a formatted object to a StringBuilder.
+Numbers are formatted without creating intermediate strings.
+Other objects are formatted using the toString() value, as with StringUtil.formatString(Object,String).
+@param b StringBuilder to append to
+@param o value to format, can be null
+@return the StringBuilder, to allow chaining
+*/
+public StringBuilder append ( StringBuilder b, Object o ) {
+	if ( o instanceof Double ) {
+		return append ( b, ((Double)o).doubleValue() );
+	}
+	else if ( o instanceof Integer ) {
+		return append ( b, ((Integer)o).intValue() );
+	}
+	else if ( o instanceof Float ) {
+		return append ( b, ((Float)o).floatValue() );
+	}
+	else if ( o instanceof Long ) {
+		return append ( b, ((Long)o).longValue() );
+	}
+	else if ( !this.compiled || ((o == null) && (this.type == 'c')) ) {
+		return b.append ( StringUtil.formatString(o, this.format) );
+	}
+	b.append ( this.prefix );
+	if ( o == null ) {
+		// Null values are output as spaces for the width, or precision for strings.
+		if ( this.type == 's' ) {
+			appendPadding ( b, b.length(), this.precision, SPACES );
+		}
+		else if ( this.type != 0 ) {
+			appendPadding ( b, b.length(), this.width, SPACES );
+		}
+	}
+	else if ( this.type != 0 ) {
+		int start = b.length() - this.prefix.length();
+		int valueStart = b.length();
+		b.append ( o.toString() );
+		if ( !formatValue(b, valueStart, false, 0.0) ) {
+			b.setLength ( start );
+			return b.append ( StringUtil.formatString(o, this.format) );
+		}
+	}
+	return b.append ( this.suffix );
+}
+
+/**
+Insert padding characters.
+@param b StringBuilder to modify
+@param pos position at which to insert
+@param count number of characters to insert, nothing is inserted if &lt;= 0
+@param padding characters to use for padding (SPACES or ZEROS)
+*/
+private static void appendPadding ( StringBuilder b, int pos, int count, char [] padding ) {
+	while ( count > 0 ) {
+		int n = Math.min(count, padding.length);
+		b.insert ( pos, padding, 0, n );
+		count -= n;
+	}
+}
+
+/**
+Format a double.
+@param d value to format
+@return the formatted string
+*/
+public String format ( double d ) {
+	return append(new StringBuilder(), d).toString();
+}
+
+/**
+Format a float.
+@param f value to format
+@return the formatted string
+*/
+public String format ( float f ) {
+	return append(new StringBuilder(), f).toString();
+}
+
+/**
+Format an integer.
+@param i value to format
+@return the formatted string
+*/
+public String format ( int i ) {
+	return append(new StringBuilder(), i).toString();
+}
+
+/**
+Format a long.
+@param l value to format
+@return the formatted string
+*/
+public String format ( long l ) {
+	return append(new StringBuilder(), l).toString();
+}
+
+/**
+Format an object.
+@param o value to format
+@return the formatted string
+*/
+public String format ( Object o ) {
+	return append(new StringBuilder(), o).toString();
+}
+
+/**
+Format the value that has been appended to the end of the StringBuilder, modifying the StringBuilder in place.
+@param b StringBuilder containing the value text, starting at valueStart
+@param valueStart position of the value text in the StringBuilder
+@param isDouble whether the value text is from Double.toString() for the value d
+@param d the value, used if isDouble is true
+@return true if formatted, false if the value must be formatted with StringUtil.formatString()
+*/
+private boolean formatValue ( StringBuilder b, int valueStart, boolean isDouble, double d ) {
+	int length = b.length() - valueStart;
+	if ( this.type == 'c' ) {
+		// Text as is.
+		return true;
+	}
+	if ( length == 0 ) {
+		// Empty string is output as spaces for the width.
+		appendPadding ( b, valueStart, this.width, SPACES );
+		return true;
+	}
+	if ( this.type == 's' ) {
+		if ( this.precisionSpecified ) {
+			// Pad to the precision and then truncate.
+			if ( length < this.precision ) {
+				appendPadding ( b, (this.leftShift ? b.length() : valueStart), (this.precision - length), SPACES );
+			}
+			b.setLength ( valueStart + this.precision );
+		}
+		return true;
+	}
+	boolean negative = (b.charAt(valueStart) == '-');
+	if ( this.type == 'd' ) {
+		int diff = this.width - length;
+		if ( diff > 0 ) {
+			if ( this.zeroFormat ) {
+				appendPadding ( b, (negative ? valueStart + 1 : valueStart), diff, ZEROS );
+			}
+			else if ( this.leftShift ) {
+				appendPadding ( b, b.length(), diff, SPACES );
+			}
+			else {
+				appendPadding ( b, valueStart, diff, SPACES );
+			}
+		}
+		return true;
+	}
+	// Floating point format 'f' or 'F'.
+	if ( (length == 3) && (b.charAt(valueStart) == 'N') && (b.charAt(valueStart + 1) == 'a') && (b.charAt(valueStart + 2) == 'N') ) {
+		appendPadding ( b, (this.leftShift ? b.length() : valueStart), (this.width - 3), SPACES );
+		return true;
+	}
+	int pointPos = -1;
+	for ( int i = valueStart; i < b.length(); i++ ) {
+		char c = b.charAt(i);
+		if ( c == 'E' ) {
+			// Scientific notation must be expanded.
+			return false;
+		}
+		else if ( (c == '.') && (pointPos < 0) ) {
+			pointPos = i;
+		}
+	}
+	int remainderLength = (pointPos < 0) ? 0 : (b.length() - pointPos - 1);
+	if ( this.precision < remainderLength ) {
+		// Round to the precision.
+		if ( this.precision == 0 ) {
+			if ( !isDouble ) {
+				return false;
+			}
+			b.setLength ( valueStart );
+			b.append ( Math.round(d) );
+			pointPos = -1;
+		}
+		else {
+			// Round the remainder digits half up, as done by StringUtil.round().
+			// The digit after the precision digits determines the rounding.
+			// StringUtil.round() parses the digits as a double so '4' followed by many 9s may round up,
+			// in which case StringUtil.formatString() is used, as it is for carrying into the whole number.
+			char next = b.charAt(pointPos + this.precision + 1);
+			if ( this.precision > 13 ) {
+				return false;
+			}
+			if ( next == '4' ) {
+				int nines = 0;
+				for ( int i = pointPos + this.precision + 2; (i < b.length()) && (b.charAt(i) == '9'); i++ ) {
+					++nines;
+				}
+				if ( (this.precision + nines) > 13 ) {
+					return false;
+				}
+			}
+			if ( !isDouble ) {
+				// Text that is not from a number may not be valid.
+				for ( int i = pointPos + 1; i < b.length(); i++ ) {
+					if ( !Character.isDigit(b.charAt(i)) ) {
+						return false;
+					}
+				}
+			}
+			int lastDigit = pointPos + this.precision;
+			if ( next >= '5' ) {
+				int i = lastDigit;
+				while ( (i > pointPos) && (b.charAt(i) == '9') ) {
+					--i;
+				}
+				if ( i == pointPos ) {
+					// Would carry into the whole number.
+					return false;
+				}
+				b.setCharAt ( i, (char)(b.charAt(i) + 1) );
+				for ( ++i; i <= lastDigit; i++ ) {
+					b.setCharAt ( i, '0' );
+				}
+			}
+			b.setLength ( lastDigit + 1 );
+		}
+	}
+	else if ( this.precision > 0 ) {
+		// Fill with zeros to the precision.
+		if ( pointPos < 0 ) {
+			b.append ( '.' );
+		}
+		appendPadding ( b, b.length(), (this.precision - remainderLength), ZEROS );
+	}
+	if ( this.precision == 0 ) {
+		if ( pointPos >= 0 ) {
+			b.setLength ( pointPos );
+		}
+		if ( this.poundFormat ) {
+			// Always add a decimal point.
+			b.append ( '.' );
+		}
+	}
+	length = b.length() - valueStart;
+	if ( length < this.width ) {
+		if ( this.leftShift ) {
+			appendPadding ( b, b.length(), (this.width - length), SPACES );
+		}
+		else {
+			// Zeros are inserted before the sign, as done by StringUtil.formatString().
+			appendPadding ( b, valueStart, (this.width - length), (this.zeroFormat ? ZEROS : SPACES) );
+		}
+	}
+	return true;
+}
+
+/**
+Return a formatter for the format, using a shared instance if available.
+@param format format as used with StringUtil.formatString()
+@return formatter for the format
+*/
+public static NumberFormatter getInstance ( String format ) {
+	if ( format == null ) {
+		return new NumberFormatter ( format );
+	}
+	NumberFormatter formatter = formatterCache.get ( format );
+	if ( formatter == null ) {
+		if ( formatterCache.size() >= MAX_CACHE_SIZE ) {
+			formatterCache.clear();
+		}
+		formatter = new NumberFormatter ( format );
+		formatterCache.put ( format, formatter );
+	}
+	return formatter;
+}
+
+/**
+Return the format.
+@return the format used to create the formatter
+*/
+public String getFormat () {
+	return this.format;
+}
+
+}
@@ -0,0 +1,131 @@
+// CommandProfileToDataTableFactory - create a DataTable from command profiles
+
+/* NoticeStart
+
+CDSS Common Java Library
+CDSS Common Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2025 Colorado Department of Natural Resources
+
+CDSS Common Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+CDSS Common Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with CDSS Common Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package RTi.Util.Table;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import RTi.Util.IO.Command;
+import RTi.Util.IO.CommandPhaseType;
+import RTi.Util.IO.CommandProcessor;
+import RTi.Util.IO.CommandProfile;
+import RTi.Util.Time.DateTime;
+
+/**
+This class creates a DataTable from the command profiles for commands in a command processor,
+which is useful to review where time and memory are used for a command file run.
+One row is created for each command and phase.
+Values that are not available are set to null.
+*/
+public class CommandProfileToDataTableFactory
+{
+
+/**
+Constructor.
+*/
+public CommandProfileToDataTableFactory () {
+}
+
+/**
+Add a long value to a record, using null if the value is not available (negative).
+@param rec record to add to
+@param value value to add
+*/
+private void addLong ( TableRecord rec, long value ) {
+	rec.addFieldValue ( (value < 0) ? null : Long.valueOf(value) );
+}
+
+/**
+Create a DataTable from the command profiles for the commands in a command processor.
+@param processor command processor that was run
+@param phases the command phases to include, or null to include the run phase
+@param tableID the identifier to use for the table
+@return a new table containing the command profiles
+*/
+public DataTable createDataTable ( CommandProcessor processor, CommandPhaseType [] phases, String tableID )
+throws Exception {
+	return createDataTable ( processor.getCommands(), phases, tableID );
+}
+
+/**
+Create a DataTable from the command profiles for a list of commands.
+@param commands commands that were run
+@param phases the command phases to include, or null to include the run phase
+@param tableID the identifier to use for the table
+@return a new table containing the command profiles
+*/
+public DataTable createDataTable ( List<Command> commands, CommandPhaseType [] phases, String tableID )
+throws Exception {
+	if ( phases == null ) {
+		phases = new CommandPhaseType[] { CommandPhaseType.RUN };
+	}
+	List<TableField> fields = new ArrayList<>();
+	fields.add ( new TableField(TableField.DATA_TYPE_INT, "CommandNumber", -1) );
+	fields.add ( new TableField(TableField.DATA_TYPE_STRING, "CommandName", -1) );
+	fields.add ( new TableField(TableField.DATA_TYPE_STRING, "Phase", -1) );
+	fields.add ( new TableField(TableField.DATA_TYPE_DATETIME, "StartTime", -1) );
+	fields.add ( new TableField(TableField.DATA_TYPE_LONG, "RunTimeMs", -1) );
+	fields.add ( new TableField(TableField.DATA_TYPE_DOUBLE, "CpuTimeMs", -1, 3) );
+	fields.add ( new TableField(TableField.DATA_TYPE_LONG, "AllocatedBytes", -1) );
+	fields.add ( new TableField(TableField.DATA_TYPE_LONG, "StartHeapBytes", -1) );
+	fields.add ( new TableField(TableField.DATA_TYPE_LONG, "EndHeapBytes", -1) );
+	fields.add ( new TableField(TableField.DATA_TYPE_LONG, "GcCount", -1) );
+	fields.add ( new TableField(TableField.DATA_TYPE_LONG, "GcTimeMs", -1) );
+	fields.add ( new TableField(TableField.DATA_TYPE_LONG, "BytesRead", -1) );
+	fields.add ( new TableField(TableField.DATA_TYPE_LONG, "BytesWritten", -1) );
+	fields.add ( new TableField(TableField.DATA_TYPE_STRING, "Command", -1) );
+	DataTable table = new DataTable ( fields );
+	table.setTableID ( tableID );
+	int commandNumber = 0;
+	for ( Command command : commands ) {
+		++commandNumber;
+		for ( CommandPhaseType phase : phases ) {
+			CommandProfile profile = command.getCommandProfile(phase);
+			if ( (profile == null) || (profile.getStartTime() == 0) ) {
+				// Command phase was not run.
+				continue;
+			}
+			TableRecord rec = new TableRecord ( fields.size() );
+			rec.addFieldValue ( Integer.valueOf(commandNumber) );
+			rec.addFieldValue ( command.getCommandName() );
+			rec.addFieldValue ( phase.toString() );
+			rec.addFieldValue ( new DateTime(new java.util.Date(profile.getStartTime())) );
+			rec.addFieldValue ( (profile.getEndTime() == 0) ? null : Long.valueOf(profile.getRunTime()) );
+			long cpuTime = profile.getCpuTime();
+			rec.addFieldValue ( (cpuTime < 0) ? null : Double.valueOf(cpuTime/1.0e6) );
+			addLong ( rec, profile.getAllocatedBytes() );
+			rec.addFieldValue ( Long.valueOf(profile.getStartHeap()) );
+			rec.addFieldValue ( Long.valueOf(profile.getEndHeap()) );
+			addLong ( rec, profile.getGcCount() );
+			addLong ( rec, profile.getGcTime() );
+			addLong ( rec, profile.getBytesRead() );
+			addLong ( rec, profile.getBytesWritten() );
+			rec.addFieldValue ( command.toString() );
+			table.addRecord ( rec );
+		}
+	}
+	return table;
+}
+
+}
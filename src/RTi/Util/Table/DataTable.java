@@ -25,9 +25,10 @@ package RTi.Util.Table;
 
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.Date;
@@ -39,10 +40,12 @@ import java.util.List;
 import java.util.Map;
 
 import RTi.DMI.DMIUtil;
+import RTi.Util.IO.CommandProfileOutputStream;
 import RTi.Util.IO.IOUtil;
 import RTi.Util.IO.PropList;
 import RTi.Util.Math.MathUtil;
 import RTi.Util.Message.Message;
+import RTi.Util.String.NumberFormatter;
 import RTi.Util.String.StringDictionary;
 import RTi.Util.String.StringUtil;
 import RTi.Util.Time.DateTime;
@@ -104,6 +107,12 @@ List of TableRecord, that contains the table data.
 */
 protected List<TableRecord> _table_records;
 
+/**
+Column store that contains the table data, if column storage is used (see setUseColumnStore()).
+If not null, _table_records is the record list of the column store.
+*/
+private DataTableColumnStore __columnStore = null;
+
 /**
 List of comments for the table.
 For example, an analysis that creates a table of results may need explanatory comments corresponding to column headings.
@@ -206,6 +215,10 @@ throws Exception {
 	_add_record_called = true;
 	if ( num_new_record_fields == num_table_fields ) {
 		_table_records.add ( record );
+		if ( this.__columnStore != null ) {
+			// The record was copied into the column store so return the view of the record.
+			return _table_records.get(_table_records.size() - 1);
+		}
 		return record;
 	}
 	else {
@@ -265,6 +278,10 @@ public int addField ( int insertPos, TableField tableField, Object initValue, Da
     	}
         _table_fields.add ( insertPos, tableField );
     }
+    if ( this.__columnStore != null ) {
+    	// Add the column to the column store, values are set below.
+    	this.__columnStore.insertColumn ( (addAtEnd ? -1 : insertPos), tableField.getDataType() );
+    }
     // Add value to each record in the table to be consistent with the field data.
 	int num = _table_records.size();
 	TableRecord tableRecord;
@@ -277,12 +294,7 @@ public int addField ( int insertPos, TableField tableField, Object initValue, Da
 		int dataType = tableField.getDataType();
 		if ( dataType == TableField.DATA_TYPE_BOOLEAN ) {
 			// Initial function is not applicable.
-		    if ( addAtEnd ) {
-		        tableRecord.addFieldValue( initValue );
-		    }
-		    else {
-		        tableRecord.addFieldValue( insertPos, initValue );
-		    }
+		    addField_SetValue ( tableRecord, i, addAtEnd, insertPos, initValue );
 		}
 		else if ( dataType == TableField.DATA_TYPE_STRING ) {
 			if ( initFunction != null ) {
@@ -293,12 +305,7 @@ public int addField ( int insertPos, TableField tableField, Object initValue, Da
 					initValue = "" + i;
 				}
 			}
-		    if ( addAtEnd ) {
-		        tableRecord.addFieldValue( initValue );
-		    }
-		    else {
-		        tableRecord.addFieldValue( insertPos, initValue );
-		    }
+		    addField_SetValue ( tableRecord, i, addAtEnd, insertPos, initValue );
 		}
 		else if ( dataType == TableField.DATA_TYPE_INT ) {
 			if ( initFunction != null ) {
@@ -309,12 +316,7 @@ public int addField ( int insertPos, TableField tableField, Object initValue, Da
 					initValue = Integer.valueOf(i);
 				}
 			}
-		    if ( addAtEnd ) {
-		        tableRecord.addFieldValue( initValue );
-		    }
-            else {
-                tableRecord.addFieldValue( insertPos, initValue );
-            }
+		    addField_SetValue ( tableRecord, i, addAtEnd, insertPos, initValue );
 		}
 		else if ( dataType == TableField.DATA_TYPE_DOUBLE ) {
 			if ( initFunction != null ) {
@@ -325,12 +327,7 @@ public int addField ( int insertPos, TableField tableField, Object initValue, Da
 					initValue = Double.valueOf(i);
 				}
 			}
-		    if ( addAtEnd ) {
-		        tableRecord.addFieldValue( initValue );
-		    }
-            else {
-                tableRecord.addFieldValue( insertPos, initValue );
-            }
+		    addField_SetValue ( tableRecord, i, addAtEnd, insertPos, initValue );
 		}
 		else if ( dataType == TableField.DATA_TYPE_SHORT ) {
 			if ( initFunction != null ) {
@@ -341,12 +338,7 @@ public int addField ( int insertPos, TableField tableField, Object initValue, Da
 					initValue = Short.valueOf((short)(i));
 				}
 			}
-		    if ( addAtEnd ) {
-		        tableRecord.addFieldValue( initValue );
-		    }
-            else {
-                tableRecord.addFieldValue( insertPos, initValue );
-            }
+		    addField_SetValue ( tableRecord, i, addAtEnd, insertPos, initValue );
 		}
 		else if ( dataType == TableField.DATA_TYPE_FLOAT ) {
 			if ( initFunction != null ) {
@@ -357,12 +349,7 @@ public int addField ( int insertPos, TableField tableField, Object initValue, Da
 					initValue = Float.valueOf(i);
 				}
 			}
-		    if ( addAtEnd ) {
-		        tableRecord.addFieldValue( initValue );
-		    }
-            else {
-                tableRecord.addFieldValue( insertPos, initValue );
-            }
+		    addField_SetValue ( tableRecord, i, addAtEnd, insertPos, initValue );
 		}
         else if ( dataType == TableField.DATA_TYPE_LONG ) {
 			if ( initFunction != null ) {
@@ -373,40 +360,20 @@ public int addField ( int insertPos, TableField tableField, Object initValue, Da
 					initValue = Long.valueOf(i);
 				}
 			}
-            if ( addAtEnd ) {
-                tableRecord.addFieldValue( initValue );
-            }
-            else {
-                tableRecord.addFieldValue( insertPos, initValue );
-            }
+            addField_SetValue ( tableRecord, i, addAtEnd, insertPos, initValue );
         }
         else if ( dataType == TableField.DATA_TYPE_DATE ) {
         	// Function not relevant.
-            if ( addAtEnd ) {
-                tableRecord.addFieldValue( initValue );
-            }
-            else {
-                tableRecord.addFieldValue( insertPos, initValue );
-            }
+            addField_SetValue ( tableRecord, i, addAtEnd, insertPos, initValue );
         }
         else if ( dataType == TableField.DATA_TYPE_DATETIME ) {
         	// Function not relevant.
-            if ( addAtEnd ) {
-                tableRecord.addFieldValue( initValue );
-            }
-            else {
-                tableRecord.addFieldValue( insertPos, initValue );
-            }
+            addField_SetValue ( tableRecord, i, addAtEnd, insertPos, initValue );
         }
         else {
         	// No initial function, may be OK if the data type does not handle.
         	Message.printWarning(3, routine, "Don't know how to add table filed type " + dataType + ". Setting to initial value.");
-            if ( addAtEnd ) {
-                tableRecord.addFieldValue( initValue );
-            }
-            else {
-                tableRecord.addFieldValue( insertPos, initValue );
-            }
+            addField_SetValue ( tableRecord, i, addAtEnd, insertPos, initValue );
         }
 	}
 	if ( addAtEnd ) {
@@ -417,6 +384,27 @@ public int addField ( int insertPos, TableField tableField, Object initValue, Da
 	}
 }
 
+/**
+Set the initial value for a field that is being added to a record, used by addField().
+@param tableRecord the record being modified
+@param row the row (0+) for the record
+@param addAtEnd whether the field is being added at the end of the record
+@param insertPos the field insert position, if not adding at the end
+@param initValue the initial value to set (can be null)
+*/
+private void addField_SetValue ( TableRecord tableRecord, int row, boolean addAtEnd, int insertPos, Object initValue ) {
+	if ( this.__columnStore != null ) {
+		// The column has already been inserted in the column store so only need to set the value.
+		this.__columnStore.setValue ( row, (addAtEnd ? (getNumberOfFields() - 1) : insertPos), initValue );
+	}
+	else if ( addAtEnd ) {
+		tableRecord.addFieldValue( initValue );
+	}
+	else {
+		tableRecord.addFieldValue( insertPos, initValue );
+	}
+}
+
 /**
 Append one table to another.
 @param table original table
@@ -884,6 +872,10 @@ throws Exception {
 	        }
 	    }
 	}
+	if ( this.__columnStore != null ) {
+		// Values that did not match the old column storage will have been stored as objects so use the new type.
+		this.__columnStore.rebuildColumn(fieldNum, newDataType);
+	}
 }
 
 /**
@@ -1303,6 +1295,10 @@ throws Exception {
 	}
 	_table_fields.remove(fieldNum);
 
+	if ( this.__columnStore != null ) {
+		this.__columnStore.deleteColumn(fieldNum);
+		return;
+	}
 	int size = _table_records.size();
 	TableRecord record = null;
 	for (int i = 0; i < size; i++) {
@@ -1519,7 +1515,7 @@ so as to avoid duplication.
 @param name the name of the field to check.
 @return true if the field name already is present in the table fields, false if not.
 */
-private static boolean findPreviousFieldNameOccurances(List<TableField> tableFields, String name) {
+static boolean findPreviousFieldNameOccurances(List<TableField> tableFields, String name) {
 	int size = tableFields.size();
 	TableField field = null;
 	String fieldName = null;
@@ -1803,6 +1799,28 @@ public List<String> getComments () {
     return __comments;
 }
 
+/**
+Return a field value as a double, which avoids creating objects when the table uses a column store.
+@param row the row (0+)
+@param col the column (0+)
+@return the value as a double, or NaN if the value is null
+@exception Exception if the row or column is invalid or the value is not a number
+*/
+public double getDouble ( int row, int col )
+throws Exception {
+	if ( this.__columnStore != null ) {
+		return this.__columnStore.getDouble(row, col);
+	}
+	Object o = getFieldValue ( row, col );
+	if ( o == null ) {
+		return Double.NaN;
+	}
+	else if ( o instanceof Number ) {
+		return ((Number)o).doubleValue();
+	}
+	throw new Exception ( "Value \"" + o + "\" for row [" + row + "] column [" + col + "] is not a number." );
+}
+
 /**
 Return the field data type, given an index.
 @return Data type for specified zero-based index.
@@ -2051,6 +2069,50 @@ public int getFieldWidth ( int index ) {
 	return (_table_fields.get ( index )).getWidth();
 }
 
+/**
+Return a field value as an int, which avoids creating objects when the table uses a column store.
+@param row the row (0+)
+@param col the column (0+)
+@return the value as an int, or DMIUtil.MISSING_INT if the value is null
+@exception Exception if the row or column is invalid or the value is not a number
+*/
+public int getInt ( int row, int col )
+throws Exception {
+	if ( this.__columnStore != null ) {
+		return this.__columnStore.getInt(row, col);
+	}
+	Object o = getFieldValue ( row, col );
+	if ( o == null ) {
+		return DMIUtil.MISSING_INT;
+	}
+	else if ( o instanceof Number ) {
+		return ((Number)o).intValue();
+	}
+	throw new Exception ( "Value \"" + o + "\" for row [" + row + "] column [" + col + "] is not a number." );
+}
+
+/**
+Return a field value as a long, which avoids creating objects when the table uses a column store.
+@param row the row (0+)
+@param col the column (0+)
+@return the value as a long, or DMIUtil.MISSING_LONG if the value is null
+@exception Exception if the row or column is invalid or the value is not a number
+*/
+public long getLong ( int row, int col )
+throws Exception {
+	if ( this.__columnStore != null ) {
+		return this.__columnStore.getLong(row, col);
+	}
+	Object o = getFieldValue ( row, col );
+	if ( o == null ) {
+		return DMIUtil.MISSING_LONG;
+	}
+	else if ( o instanceof Number ) {
+		return ((Number)o).longValue();
+	}
+	throw new Exception ( "Value \"" + o + "\" for row [" + row + "] column [" + col + "] is not a number." );
+}
+
 /**
 Return the number of fields in the table.
 @return number of fields in the table.
@@ -3036,7 +3098,7 @@ throws Exception {
 	int lineCount = 0;
 	DataTable table;
 
-	BufferedReader in = new BufferedReader ( new FileReader ( filename ));
+	BufferedReader in = new BufferedReader ( new InputStreamReader ( IOUtil.getInputStream ( filename )));
 
 	table = new DataTable( tableFields );
 	table._haveDataInMemory = true;
@@ -3170,7 +3232,7 @@ throws Exception {
 	int num_fields=0;
 	TableField newTableField = null;
 
-	BufferedReader in = new BufferedReader ( new FileReader ( filename ));
+	BufferedReader in = new BufferedReader ( new InputStreamReader ( IOUtil.getInputStream ( filename )));
 
 	try {
     	while (( iline = in.readLine ()) != null ) {
@@ -3245,6 +3307,15 @@ If specified, the HeaderLines parameter will be ignored.</td>
 <td></td>
 </tr>
 
+<tr>
+<td><b>ColumnTypeSampleSize</b></td>
+<td>If ColumnDataTypes=Auto, the number of data lines to examine to determine column types,
+which allows the data to be converted while reading.
+If the remaining data indicate different column types, the data are converted again using all data,
+so the result is the same as examining all data.</td>
+<td>All data are examined before converting.</td>
+</tr>
+
 <tr>
 <td><b>CommentLineIndicator</b></td>
 <td>The characters with which comment lines begin.
@@ -3306,6 +3377,13 @@ StringUtil.breakStringList(line,delimiters,StringUtil.DELIM_SKIP_BLANKS.</td>
 <td>False (do not merge blank columns).</td>
 </tr>
 
+<tr>
+<td><b>ParseThreads</b></td>
+<td>The number of threads used to parse data lines, which are processed in chunks.
+Records are added to the table in file order.</td>
+<td>1, or up to 8 (limited by the number of processors) for files 32 MB and larger.</td>
+</tr>
+
 <tr>
 <td><b>SkipLines (previously SkipRows)</b></td>
 <td>Lines from the original file to skip (each value 0+), as list of comma-separated individual row or ranges like 3-6.
@@ -3346,795 +3424,7 @@ Indicates whether strings should be trimmed before being placed in the data tabl
 */
 public static DataTable parseFile(String filename, PropList props)
 throws Exception {
-    String routine = DataTable.class.getSimpleName() + ".parseFile";
-	if ( props == null ) {
-		props = new PropList(""); // To simplify code below.
-	}
-	// TODO SAM 2005-11-16 why is FixedFormat included?  Future feature?
-	/*String propVal = props.getValue("FixedFormat");
-	if (propVal != null) {
-		if (propVal.equalsIgnoreCase("false")) {
-			fixed = false;
-		}
-	}
-	*/
-
-	// Default is to treat column types as all strings, which is fastest:
-	// - setting ColumnDataTypes=Auto will determine column types by data
-    boolean ColumnDataTypes_Auto_boolean = false;
-    // TODO SAM 2008-04-15 Evaluate whether the following should be used.
-    //String ColumnDataTypes = "AllStrings";  // Default for historical reasons.
-    String propVal = props.getValue("ColumnDataTypes");
-    if ( propVal != null ) {
-    	if ( propVal.equalsIgnoreCase("Auto") ) {
-    		ColumnDataTypes_Auto_boolean = true;
-    	}
-    	else if ( propVal.equalsIgnoreCase("AllStrings") ) {
-    		//ColumnDataTypes = "Auto";
-    		ColumnDataTypes_Auto_boolean = false;
-    	}
-    }
-
-    String Delimiter = "";
-	propVal = props.getValue("Delimiter");
-	if (propVal != null) {
-        Delimiter = propVal;
-	}
-	else {
-        Delimiter = ",";
-	}
-
-    propVal = props.getValue("HeaderLines");
-    if ( propVal == null ) {
-        // Use older form.
-        propVal = props.getValue("HeaderRows");
-        if ( propVal != null ) {
-            Message.printWarning(3, routine, "Need to convert HeaderRows parameter to HeaderLines in software." );
-        }
-    }
-    List<Integer> HeaderLineList = new ArrayList<>();
-    int HeaderLinesList_maxval = -1; // Used to optimize code below.
-    boolean HeaderLines_Auto_boolean = false; // Are header rows to be determined automatically?
-    if ( (propVal == null) || (propVal.length() == 0) ) {
-        // Default is determine header lines automatically.
-        HeaderLines_Auto_boolean = true;
-    }
-    else {
-        // Interpret the HeaderLines property.
-        Message.printStatus ( 2, routine, "HeaderLines=\"" + propVal + "\"" );
-        if ( propVal.equalsIgnoreCase("Auto")) {
-            HeaderLines_Auto_boolean = true;
-        }
-        else {
-            // Determine the list of rows for the header.
-            List<String> headerRowList = StringUtil.breakStringList ( propVal, ", ", StringUtil.DELIM_SKIP_BLANKS );
-            if ( headerRowList.size() > 1 ) {
-            	Message.printWarning(3, routine,
-            		"Currently only know how to handle a single header line (headers must be on one line in file).");
-            	// Remove the remaining header line numbers.
-            	for ( int i = (headerRowList.size() - 1); i > 0; --i ) {
-            		headerRowList.remove(i);
-            	}
-            }
-            // Code below can handle multiple header lines but will only parse one line for now.
-            for ( String vi : headerRowList) {
-                if ( StringUtil.isInteger(vi)) {
-                	// Single integer.
-                    int row = Integer.parseInt(vi);
-                    Message.printStatus ( 2, routine, "Header row is [" + row + "]");
-                    HeaderLineList.add(Integer.valueOf(row));
-                    HeaderLinesList_maxval = Math.max(HeaderLinesList_maxval, row);
-                }
-                else {
-                	// Check whether a range of integers such as 0-1.
-                    int pos = vi.indexOf("-");
-                    if ( pos >= 0 ) {
-                        // Specifying a range of values.
-                        int first_header = -1;
-                        int last_header = -1;
-                        if ( pos == 0 ) {
-                            // First index is 0.
-                            first_header = 0;
-                        }
-                        else {
-                            // Get first header row, zero index.
-                            first_header = Integer.parseInt(vi.substring(0,pos).trim());
-                        }
-                        // Get the last header row, zero index.
-                        last_header = Integer.parseInt(vi.substring(pos+1).trim());
-                        // Add a list of integers corresponding to the header rows, zero index.
-                        for ( int is = first_header; is <= last_header; is++ ) {
-                            HeaderLineList.add(Integer.valueOf(is));
-                            HeaderLinesList_maxval = Math.max(HeaderLinesList_maxval, is);
-                        }
-                    }
-                }
-            }
-        }
-    }
-    // Use to speed up code below when checking for header rows.
-    int HeaderLinesList_size = HeaderLineList.size();
-
-	String [] columnNames = new String[0];
-    propVal = props.getValue("ColumnNames");
-    if ( (propVal != null) && !propVal.isEmpty() ) {
-    	// Use the column names that are specified (otherwise headers may be found below).
-		columnNames = propVal.split(",");
-		for ( int i = 0; i < columnNames.length; i++ ) {
-			columnNames[i] = columnNames[i].trim();
-		}
-    }
-
-    String [] dateTimeColumns = null;
-    propVal = props.getValue("DateTimeColumns");
-    if ( (propVal != null) && !propVal.isEmpty() ) {
-        dateTimeColumns = propVal.split(",");
-        for ( int i = 0; i < dateTimeColumns.length; i++ ) {
-            dateTimeColumns[i] = dateTimeColumns[i].trim();
-        }
-    }
-
-    String [] doubleColumns = null;
-    propVal = props.getValue("DoubleColumns");
-    if ( (propVal != null) && !propVal.isEmpty() ) {
-    	doubleColumns = propVal.split(",");
-        for ( int i = 0; i < doubleColumns.length; i++ ) {
-        	doubleColumns[i] = doubleColumns[i].trim();
-        }
-    }
-
-    String [] integerColumns = null;
-    propVal = props.getValue("IntegerColumns");
-    if ( (propVal != null) && !propVal.isEmpty() ) {
-    	integerColumns = propVal.split(",");
-        for ( int i = 0; i < integerColumns.length; i++ ) {
-        	integerColumns[i] = integerColumns[i].trim();
-        }
-    }
-
-    String [] textColumns = null;
-    propVal = props.getValue("TextColumns");
-    if ( (propVal != null) && !propVal.isEmpty() ) {
-        textColumns = propVal.split(",");
-        for ( int i = 0; i < textColumns.length; i++ ) {
-            textColumns[i] = textColumns[i].trim();
-        }
-    }
-
-    int top = -1;
-    int topm1 = -1; // Used for 0-index comparison.
-    propVal = props.getValue("Top");
-    if ( (propVal != null) && !propVal.isEmpty() ) {
-    	try {
-    		top = Integer.parseInt(propVal);
-    	    topm1 = top - 1;
-    	}
-    	catch ( NumberFormatException e ) {
-    		// Just process all.
-    	}
-    }
-
-	int parseFlagHeader = StringUtil.DELIM_ALLOW_STRINGS;
-	// Retain the quotes in data records makes sure that quoted numbers come across as intended as literal strings.
-    // This is important when numbers are zero padded, such as for station identifiers.
-	// The problem is that it will result in embedded escaped quotes "" in the output.
-	int parseFlag = StringUtil.DELIM_ALLOW_STRINGS | StringUtil.DELIM_ALLOW_STRINGS_RETAIN_QUOTES;
-	propVal = props.getValue("MergeDelimiters");
-	if (propVal != null) {
-		parseFlag |= StringUtil.DELIM_SKIP_BLANKS;
-		parseFlagHeader |= StringUtil.DELIM_SKIP_BLANKS;
-	}
-
-    String CommentLineIndicator = null;
-	propVal = props.getValue("CommentLineIndicator");
-	if (propVal != null) {
-        CommentLineIndicator = propVal;
-	}
-
-    propVal = props.getValue("SkipLines");
-    if ( propVal == null ) {
-        // Try the older form.
-        propVal = props.getValue("SkipRows");
-        if ( propVal != null ) {
-            Message.printWarning(3, routine, "Need to convert SkipRows parameter to SkipLines in software." );
-        }
-    }
-    List<Integer> skipLinesList = new ArrayList<>();
-    int skipLinesList_maxval = - 1;
-    if ( (propVal != null) && (propVal.length() > 0) ) {
-        // Determine the list of rows to skip.
-        List<String> v = StringUtil.breakStringList ( propVal, ", ", StringUtil.DELIM_SKIP_BLANKS );
-        int vsize = 0;
-        if ( v != null ) {
-            vsize = v.size();
-        }
-        for ( int i = 0; i < vsize; i++ ) {
-            String vi = v.get(i);
-            if ( StringUtil.isInteger(vi)) {
-                int row = Integer.parseInt(vi);
-                skipLinesList.add(Integer.valueOf(row));
-                skipLinesList_maxval = Math.max(skipLinesList_maxval, row);
-            }
-            else {
-                int pos = vi.indexOf("-");
-                if ( pos >= 0 ) {
-                    // Specifying a range of values.
-                    int first_to_skip = -1;
-                    int last_to_skip = -1;
-                    if ( pos == 0 ) {
-                        // First index is 0.
-                        first_to_skip = 0;
-                    }
-                    else {
-                        // Get first to skip.
-                        first_to_skip = Integer.parseInt(vi.substring(0,pos).trim());
-                    }
-                    last_to_skip = Integer.parseInt(vi.substring(pos+1).trim());
-                    for ( int is = first_to_skip; is <= last_to_skip; is++ ) {
-                        skipLinesList.add(Integer.valueOf(is));
-                        skipLinesList_maxval = Math.max(skipLinesList_maxval, is);
-                    }
-                }
-            }
-        }
-    }
-    // Use to speed up code below.
-    int skipLinesList_size = skipLinesList.size();
-
-	propVal = props.getValue("TrimInput");
-	boolean TrimInput_Boolean = false; // Default.
-	if ( (propVal != null) && propVal.equalsIgnoreCase("true") ) {
-		TrimInput_Boolean = true;
-	}
-
-    boolean TrimStrings_boolean = false;
-	propVal = props.getValue("TrimStrings");
-	if ( (propVal != null) && propVal.equalsIgnoreCase("true") ) {
-		TrimStrings_boolean = true;
-	}
-
-	// 'data_record_tokens' is all strings from the initial read:
-	// - TODO smalers 2022-05-11 evaluate using string arrays to use less memory, especially for tokens in a row
-	List<List<String>> data_record_tokens = new ArrayList<>();
-	List<String> tokens = null;
-	int maxColumns = 0;
-	int numColumnsParsed = 0;
-
-	Object object = props.getContents("BufferedReader");
-	BufferedReader in = null;
-	if ( object != null ) {
-		// Use the provided BufferedReader.
-		in = (BufferedReader)object;
-	}
-	else {
-		// Open the file.
-		in = new BufferedReader(new FileReader(filename));
-	}
-	String line;
-
-	// TODO JTS 2006-06-05
-	// Found a bug in DataTable.
-	// If attempt to call parseFile() on a file of size 0 (no lines, no characters) it will throw an exception.
-	// This should be checked out in the future.
-
-	// If the column names were specified, set them up front.
-	List<TableField> tableFields = null; // Table fields as controlled by header or examination of data records.
-	boolean headers_found = false; // Indicates whether the headers have been found.
-	int numFields = -1; // Number of table fields.
-	if ( columnNames.length > 0 ) {
-        tableFields = parseFile_SetColumnNames ( columnNames );
-        numFields = tableFields.size();
-        headers_found = true;
-	}
-
-	// Read until the end of the file.
-
-	int linecount = 0; // linecount = 1 for first line in file, for user perspective.
-	int dataLineCount = 0; // Count of data lines (comments and header lines are not included).
-	int linecount0; // linecount0 = linecount - 1 (zero index), for code perspective.
-	int headerLineCount = 0; // Count of header lines.
-	int noncommentLineCount0 = -1; // Count of noncomment lines, could be header or data.
-	TableField tableField = null; // Table field added below.
-	while ( true ) {
-		line = in.readLine();
-		if ( line == null ) {
-		    // End of file.
-		    break;
-		}
-		++linecount;
-		linecount0 = linecount - 1; // Zero index.
-
-		if ( Message.isDebugOn ) {
-			Message.printDebug ( 10, routine, "Line [" + linecount0 + "]: " + line );
-		}
-
-		// Skip any comments anywhere in the file.
-		if ( (CommentLineIndicator != null) && line.startsWith(CommentLineIndicator) ) {
-		    continue;
-		}
-		++noncommentLineCount0;
-
-		// Also skip the requested lines to skip linecount is 1+ while lines to skip are 0+.
-
-		if ( linecount0 <= skipLinesList_maxval ) {
-		    // Need to check it.
-		    if ( parseFile_LineMatchesLineFromList(linecount0,skipLinesList, skipLinesList_size)) {
-		        // Skip the line as requested.
-                continue;
-		    }
-		}
-
-		// "line" now contains the latest non-comment line:
-		// - evaluate whether the line contains the column names (header lines)
-		// - header lines MUST come before data lines
-		// - currently only handle one header line
-
-        //Message.printStatus(2, routine, "headers_found=" + headers_found + ", dataLineCount=" + dataLineCount +
-        //	", HeaderLines_Auto_boolean=" + HeaderLines_Auto_boolean + ", HeaderLineList=" + HeaderLineList );
-		if ( !headers_found && (dataLineCount == 0) &&
-			(HeaderLines_Auto_boolean || ((HeaderLineList != null) && (dataLineCount == 0)) ) ) { //&& (headerLineCount <= HeaderLinesList_maxval)) ) ) {}
-		    if ( HeaderLines_Auto_boolean ) {
-		        // If a quote is detected, then this line is assumed to contain the name of the columns.
-        	    if (line.startsWith("\"")) {
-        	    	// HeaderLineCount
-		            Message.printStatus(2, routine, "Header line to parse:" + line);
-        	        tableFields = parseFile_ParseHeaderLine ( line, linecount0, TrimInput_Boolean, Delimiter, parseFlagHeader );
-        	        numFields = tableFields.size();
-        	        // Go to the top of the loop to read another line.
-        	        ++headerLineCount;
-        	        headers_found = true;
-        	        continue;
-        	    }
-		    }
-		    else if ( HeaderLineList != null ) {
-		        // Calling code has specified the header rows.  Check to see if this is a header row:
-		    	// - 'linecount0' is the line position, zero index
-		    	// - the HeaderLines line index is also zero index
-		        if ( parseFile_LineMatchesLineFromList(noncommentLineCount0, HeaderLineList, HeaderLinesList_size)) {
-		            // This row has been specified as a header row so process it.
-		            Message.printStatus(2, routine, "Header line to parse:" + line);
-		            tableFields = parseFile_ParseHeaderLine ( line, linecount0, TrimInput_Boolean, Delimiter, parseFlagHeader );
-		            numFields = tableFields.size();
-
-                    //FIXME SAM 2008-01-27 Figure out how to deal with multi-row headings.
-                    // What is the column name?
-		            // If the maximum header row has been processed, indicate that headers have been found.
-		            //if ( linecount0 == HeaderLines_Vector_maxval ) {
-        	        ++headerLineCount;
-		                headers_found = true;
-		            //}
-        	        // Go to the top of the loop to read another line.
-		            continue;
-		        }
-		    }
-		}
-
-		if ( linecount0 <= HeaderLinesList_maxval ) {
-		    // Currently only allow one header row so need to ignore other rows that are found
-		    // (don't want them considered as data).
-		    if ( parseFile_LineMatchesLineFromList(linecount0,HeaderLineList, HeaderLinesList_size)) {
-		        continue;
-		    }
-		}
-
-    	// Now evaluate the data lines.  Parse into tokens to allow evaluation of the number of columns below.
-
-		++dataLineCount;
-		// If "Top" was specified as a parameter, skip lines after top.
-		if ( (top >= 0) && (dataLineCount > top) ) {
-			break;
-		}
-
-        if ( TrimInput_Boolean ) {
-			tokens = StringUtil.breakStringList(line.trim(), Delimiter, parseFlag );
-		}
-		else {
-            tokens = StringUtil.breakStringList(line, Delimiter, parseFlag );
-		}
-		numColumnsParsed = tokens.size();
-		if (numColumnsParsed > maxColumns) {
-			maxColumns = numColumnsParsed;
-		}
-		// Save the tokens from the data rows - this will NOT include comments, headers, or lines to be excluded.
-		data_record_tokens.add(tokens);
-	}
-	// Close the file.
-	in.close();
-
-	// Make sure that the table fields are in place for the maximum number of columns.
-
-	if (tableFields == null) {
-		tableFields = new ArrayList<>();
-		for (int i = 0; i < maxColumns; i++) {
-			// Default field definition builds String fields.
-			tableFields.add(new TableField());
-		}
-	}
-	else {
-		// Add enough fields to account for the maximum number of columns in the table.
-		String temp = null;
-		for (int i = numFields; i < maxColumns; i++) {
-			tableField = new TableField();
-			temp = "Field_" + (i + 1);
-			while (findPreviousFieldNameOccurances(tableFields,temp)) {
-				temp = temp + "_2";
-			}
-			tableField.setName(temp);
-			tableField.setDataType(TableField.DATA_TYPE_STRING);
-			tableFields.add(tableField);
-		}
-	}
-
-	// Loop through the data and determine what type of data are in each column.
-	// Do this in any case because the length of the string columns and precision for floating point columns need to be determined.
-
-	numFields = tableFields.size();
-	int numRecords = data_record_tokens.size(); // Number of data records.
-	int [] count_int = new int[maxColumns];
-    int [] count_double = new int[maxColumns];
-    int [] count_string = new int[maxColumns];
-    int [] count_blank = new int[maxColumns];
-    int [] lenmax_string = new int[maxColumns];
-    int [] precision = new int[maxColumns];
-    for ( int icol = 0; icol < maxColumns; icol++ ) {
-        count_int[icol] = 0;
-        count_double[icol] = 0;
-        count_string[icol] = 0;
-        count_blank[icol] = 0;
-        lenmax_string[icol] = 0;
-        precision[icol] = 0;
-    }
-    // Loop through all rows of data that were read.
-    int numTokens;
-    String cell;
-    String cellTrimmed; // Must have when checking for types.
-    String cellTrimmed2; // Used if string is quoted.
-    int periodPos; // Position of period in floating point numbers.
-    boolean isTypeFound = false;
-	for ( int irow = 0; irow < numRecords; irow++ ) {
-		// If "Top" was specified as a parameter, skip lines after top.
-		if ( (top >= 0) && (irow > topm1) ) {
-			break;
-		}
-	    tokens = data_record_tokens.get(irow);
-	    numTokens = tokens.size();
-	    // Loop through all columns in the row.
-	    for ( int icol = 0; icol < numTokens; icol++ ) {
-	        cell = tokens.get(icol);
-	        cellTrimmed = cell.trim();
-    		// Some data has quotes so remove for the purpose of checking precision, etc.:
-	        // - quoted strings are treated as string column data unless overruled
-	    	cellTrimmed2 = cellTrimmed.replace("\"", "");
-	        isTypeFound = false;
-	        if ( Message.isDebugOn ) {
-	        	//Message.printStatus(2, routine, "Checking irow=" + irow + " icol=" + icol + " cellTrimmed=" + cellTrimmed);
-	        }
-	        if ( cellTrimmed.length() == 0 ) {
-	        	// Blank cell - can be any type and should not impact result.
-	        	++count_blank[icol];
-	        	isTypeFound = true;
-	        }
-	        if ( StringUtil.isInteger(cellTrimmed2)) {
-	        	if ( StringUtil.isInteger(cellTrimmed)) {
-	        		// Only count as an integer if not quoted.
-	        		++count_int[icol];
-	        		isTypeFound = true;
-	        	}
-	            // Length needed in case handled as string data.
-	            lenmax_string[icol] = Math.max(lenmax_string[icol], cellTrimmed2.length());
-	        }
-	        // TODO SAM 2012-05-31 Evaluate whether this needs a more robust solution.
-	        // Sometimes long integers won't parse in the above but do get parsed as doubles below.
-	        // This can lead to treatment as a floating point number.
-	        // Instead, the column likely should be treated as strings.
-	        // An example is very long identifiers like "394359105411900".
-	        // For now the work-around is to add quotes in the original data to make sure the column is treated like a string.
-	        // Could add a long but this cascades through a lot of code since the long type is not yet supported in DataTable.
-            if ( StringUtil.isDouble(cellTrimmed2)) {
-            	if ( StringUtil.isDouble(cellTrimmed) ) {
-	        		// Only count as a double if not quoted.
-            		++count_double[icol];
-            		isTypeFound = true;
-            	}
-                // Length needed in case handled as string data and also to format the double.
-                lenmax_string[icol] = Math.max(lenmax_string[icol], cellTrimmed2.length());
-                // Precision to help with visualization, such as table views.
-                periodPos = cellTrimmed2.indexOf(".");
-                if ( periodPos >= 0 ) {
-                	// String cell has a period so process the precision:
-                	// - precision is the number of digits after the decimal
-                	// - TODO smalers 2022-05-11 what if in scientific notation?
-                    precision[icol] = Math.max(precision[icol], (cellTrimmed2.length() - periodPos - 1) );
-                }
-            }
-            // TODO SAM 2008-01-27 Need to handle date/time?
-            if ( !isTypeFound ) {
-                // Assume string, but strip off the quotes if necessary.
-                ++count_string[icol];
-                if ( TrimStrings_boolean ) {
-                    lenmax_string[icol] = Math.max(lenmax_string[icol], cellTrimmed.length());
-                }
-                else {
-                    lenmax_string[icol] = Math.max(lenmax_string[icol], cell.length());
-                }
-            }
-	    }
-	}
-
-	// TODO SAM 2016-08-25 Could optimize so that if all column types are specified, don't need to scan data for type.
-
-	// Loop through the table fields and based on the examination of data above,
-	// set the table field type and if a string, max width.
-
-	int [] tableFieldType = new int[tableFields.size()];
-	boolean isString = false;
-	boolean isDateTime = false;
-	boolean isInteger = false;
-	boolean isDouble = false;
-	if ( ColumnDataTypes_Auto_boolean ) {
-    	for ( int icol = 0; icol < maxColumns; icol++ ) {
-    		isDateTime = false;
-    	    tableField = (TableField)tableFields.get(icol);
-    		if ( dateTimeColumns != null ) {
-    			for ( int i = 0; i < dateTimeColumns.length; i++ ) {
-    				if ( dateTimeColumns[i].equalsIgnoreCase(tableField.getName()) ) {
-    					isDateTime = true;
-    				}
-    			}
-    		}
-    		isDouble = false;
-    		if ( doubleColumns != null ) {
-    			for ( int i = 0; i < doubleColumns.length; i++ ) {
-    				if ( doubleColumns[i].equalsIgnoreCase(tableField.getName()) ) {
-    					isDouble = true;
-    				}
-    			}
-    		}
-    		isInteger = false;
-    		if ( integerColumns != null ) {
-    			for ( int i = 0; i < integerColumns.length; i++ ) {
-    				if ( integerColumns[i].equalsIgnoreCase(tableField.getName()) ) {
-    					isInteger = true;
-    				}
-    			}
-    		}
-    		isString = false;
-    		if ( textColumns != null ) {
-    			for ( int i = 0; i < textColumns.length; i++ ) {
-    				if ( textColumns[i].equalsIgnoreCase(tableField.getName()) ) {
-    					isString = true;
-    				}
-    			}
-    		}
-    		// Set column type based on calling code specified type and then discovery from data.
-    	    if ( isDateTime ) {
-    	    	tableField.setDataType(TableField.DATA_TYPE_DATETIME);
-    	        tableFieldType[icol] = TableField.DATA_TYPE_DATETIME;
-    	        Message.printStatus ( 2, routine, "Column [" + icol +
-    	            "] \"" + tableField.getName() + "\" type \"" + TableField.getDataTypeAsString(tableField.getDataType()) +
-    	            "\" is date/time as determined from specified column type (" + count_int[icol] +
-                    " integers, " + count_double[icol] + " doubles, " + count_string[icol] + " strings, " +
-                    count_blank[icol] + " blanks, width=" + lenmax_string[icol] + ", precision=" + precision[icol] + ".");
-    	    }
-    	    else if ( isDouble ) {
-    	    	tableField.setDataType(TableField.DATA_TYPE_DOUBLE);
-    	        tableFieldType[icol] = TableField.DATA_TYPE_DOUBLE;
-    	        Message.printStatus ( 2, routine, "Column [" + icol +
-    	            "] \"" + tableField.getName() + "\" type \"" + TableField.getDataTypeAsString(tableField.getDataType()) +
-    	            "\" is double as determined from specified column type (" + count_int[icol] +
-                    " integers, " + count_double[icol] + " doubles, " + count_string[icol] + " strings, " +
-                    count_blank[icol] + " blanks, width=" + lenmax_string[icol] + ", precision=" + precision[icol] + ".");
-                tableField.setWidth (lenmax_string[icol] );
-                tableField.setPrecision ( precision[icol] );
-    	        // Default the following.
-                //tableField.setWidth (-1);
-                //tableField.setPrecision ( 6 );
-    	    }
-    	    else if ( isInteger ) {
-    	    	tableField.setDataType(TableField.DATA_TYPE_INT);
-    	        tableFieldType[icol] = TableField.DATA_TYPE_INT;
-    	        Message.printStatus ( 2, routine, "Column [" + icol +
-    	            "] \"" + tableField.getName() + "\" type \"" + TableField.getDataTypeAsString(tableField.getDataType()) +
-    	            "\" is integer as determined from specified column type (" + count_int[icol] +
-                    " integers, " + count_double[icol] + " doubles, " + count_string[icol] + " strings, " +
-                    count_blank[icol] + " blanks, width=" + lenmax_string[icol] + ", precision=" + precision[icol] + ".");
-    	    }
-    	    else if ( isString ) {
-    	    	tableField.setDataType(TableField.DATA_TYPE_STRING);
-    	        tableFieldType[icol] = TableField.DATA_TYPE_STRING;
-    	        if ( lenmax_string[icol] <= 0 ) {
-    	            // Likely that the entire column of numbers is empty so set the width to the field name width if available).
-    	            tableField.setWidth (tableFields.get(icol).getName().length() );
-    	        }
-    	        else {
-    	            tableField.setWidth (lenmax_string[icol] );
-    	        }
-    	        Message.printStatus ( 2, routine, "Column [" + icol +
-    	            "] \"" + tableField.getName() + "\" type \"" + TableField.getDataTypeAsString(tableField.getDataType()) +
-    	            "\" is string as determined from specified column type (" + count_int[icol] +
-                    " integers, " + count_double[icol] + " doubles, " + count_string[icol] + " strings, " +
-                    count_blank[icol] + " blanks, width=" + lenmax_string[icol] + ", precision=" + precision[icol] + ".");
-    	    }
-    	    else if ( (count_int[icol] > 0) && (count_string[icol] == 0) &&
-    	        ((count_double[icol] == 0) || (count_int[icol] == count_double[icol])) ) {
-    	        // All data are integers so assume column type is integer.
-    	        // Note that integers also meet the criteria of double, hence the extra check above.
-    	        // TODO SAM 2013-02-17 Need to handle DATA_TYPE_LONG.
-    	        tableField.setDataType(TableField.DATA_TYPE_INT);
-    	        tableFieldType[icol] = TableField.DATA_TYPE_INT;
-    	        tableField.setWidth (lenmax_string[icol] );
-    	        Message.printStatus ( 2, routine, "Column [" + icol +
-    	            "] \"" + tableField.getName() + "\" type \"" + TableField.getDataTypeAsString(tableField.getDataType()) +
-    	            "\" is integer as determined from examining data (" + count_int[icol] +
-    	            " integers, " + count_double[icol] + " doubles, " + count_string[icol] + " strings, " +
-                    count_blank[icol] + " blanks).");
-    	    }
-    	    else if ( (count_double[icol] > 0) && (count_string[icol] == 0) ) {
-    	        // All data are double (integers will also count as double) so assume column type is double.
-                tableField.setDataType(TableField.DATA_TYPE_DOUBLE);
-                tableFieldType[icol] = TableField.DATA_TYPE_DOUBLE;
-                tableField.setWidth (lenmax_string[icol] );
-                tableField.setPrecision ( precision[icol] );
-                Message.printStatus ( 2, routine, "Column [" + icol +
-                    "] \"" + tableField.getName() + "\" type \"" + TableField.getDataTypeAsString(tableField.getDataType()) +
-    	            "\" is double as determined from examining data (" + count_int[icol] +
-                    " integers, " + count_double[icol] + " doubles, " + count_string[icol] + " strings, " +
-                    count_blank[icol] + " blanks, width=" + lenmax_string[icol] + ", precision=" + precision[icol] + ".");
-            }
-    	    else {
-    	        // Based on what is known, can only treat column as containing strings.
-    	        tableField.setDataType(TableField.DATA_TYPE_STRING);
-    	        tableFieldType[icol] = TableField.DATA_TYPE_STRING;
-    	        if ( lenmax_string[icol] <= 0 ) {
-    	            // Likely that the entire column of numbers is empty so set the width to the field name width if available).
-    	            tableField.setWidth (tableFields.get(icol).getName().length() );
-    	        }
-    	        else {
-    	            tableField.setWidth (lenmax_string[icol] );
-    	        }
-    	        Message.printStatus ( 2, routine, "Column [" + icol +
-                    "] \"" + tableField.getName() + "\" type \"" + TableField.getDataTypeAsString(tableField.getDataType()) +
-    	            "\" is string as determined from examining data (" + count_int[icol] +
-                    " integers, " + count_double[icol] + " doubles, " + count_string[icol] + " strings), " +
-                    count_blank[icol] + " blanks.");
-    	       // Message.printStatus ( 2, routine, "length max=" + lenmax_string[icol] );
-    	    }
-    	}
-	}
-	else {
-	    // All are strings (from above but reset just in case).
-	    for ( int icol = 0; icol < maxColumns; icol++ ) {
-	        tableField = (TableField)tableFields.get(icol);
-	        tableField.setDataType(TableField.DATA_TYPE_STRING);
-	        tableFieldType[icol] = TableField.DATA_TYPE_STRING;
-	        tableField.setWidth (lenmax_string[icol] );
-	        Message.printStatus ( 2, routine,"Column [" + icol + "] \"" + tableField.getName() +
-	        	"\" type \"" + TableField.getDataTypeAsString(tableField.getDataType()) +
-    	        "\" is " + tableField.getDataType() + " all strings assumed, width=" + tableField.getWidth() );
-	    }
-	}
-	// The data fields may have less columns than the headers and if so set the field type of the unknown columns to string.
-	for ( int icol = maxColumns; icol < tableFields.size(); icol++) {
-	    tableFieldType[icol] = TableField.DATA_TYPE_STRING;
-	}
-
-	// Create the table from the field information.
-
-	DataTable table = new DataTable(tableFields);
-	table._haveDataInMemory = true;
-	TableRecord tablerec = null;
-
-	// Now transfer the data records to table records.
-
-	int cols = 0;
-	int errorCount = 0;
-	for (int irow = 0; irow < numRecords; irow++) {
-		// If "Top" was specified as a parameter, skip lines after top.
-		if ( (top >= 0) && (irow > topm1) ) {
-			break;
-		}
-		tokens = data_record_tokens.get(irow);
-
-		tablerec = new TableRecord(maxColumns);
-		cols = tokens.size();
-		for (int icol = 0; icol < cols; icol++) {
-			if (TrimStrings_boolean) {
-			    cell = tokens.get(icol).trim();
-			}
-			else {
-				cell = tokens.get(icol);
-			}
-			if ( ColumnDataTypes_Auto_boolean ) {
-			    // Set the data as an object of the column type.
-			    if ( tableFieldType[icol] == TableField.DATA_TYPE_INT ) {
-		    		// Some data has quotes around numbers so remove.
-			    	cell = cell.trim().replace("\"","");
-			    	if ( parseFile_CellContentsNull(cell) ) {
-			    		tablerec.addFieldValue ( null );
-			    	}
-			    	else {
-			    		tablerec.addFieldValue( Integer.valueOf(cell) );
-			    	}
-			    }
-			    else if ( tableFieldType[icol] == TableField.DATA_TYPE_DATETIME ) {
-			    	cell = cell.trim();
-			    	if ( parseFile_CellContentsNull(cell) ) {
-			    		tablerec.addFieldValue ( null );
-			    	}
-			    	else {
-			    		try {
-			    			// Some data has quotes around date/times so remove.
-			    			tablerec.addFieldValue( DateTime.parse(cell.replace("\"", "")) );
-			    		}
-			    		catch ( Exception e ) {
-			    			tablerec.addFieldValue ( null );
-			    		}
-			    	}
-	            }
-			    else if ( tableFieldType[icol] == TableField.DATA_TYPE_DOUBLE ) {
-		    		// Some data has quotes around numbers so remove.
-			    	cell = cell.trim().replace("\"", "");
-			    	if ( parseFile_CellContentsNull(cell) ) {
-			    		tablerec.addFieldValue ( null );
-			    	}
-			    	else {
-			    		tablerec.addFieldValue( Double.valueOf(cell) );
-			    	}
-	            }
-			    else if ( tableFieldType[icol] == TableField.DATA_TYPE_STRING ) {
-			    	// Know that it is a string.
-			    	// Could contain embedded "" that need to be replaced with single ".
-			    	tablerec.addFieldValue( parseFile_ProcessString(cell) );
-			    }
-			    else {
-			        // Add as string.
-	                tablerec.addFieldValue( parseFile_ProcessString(cell) );
-	            }
-			}
-			else {
-			    // Set as the string value.
-			    tablerec.addFieldValue( parseFile_ProcessString(cell) );
-	        }
-		}
-
-		// If the specific record does not have enough columns, pad the columns at the end with blanks,
-		// using blank strings or NaN for number fields.  This depends on whether headings were read.
-		// Sometimes the header row has more columns than data rows,
-		// in particular because breakStringList() will drop an empty field at the end.
-
-		for ( int icol = cols; icol < table.getNumberOfFields(); icol++) {
-		    if ( ColumnDataTypes_Auto_boolean ) {
-		        // Add values based on the column type.
-		        if ( tableFieldType[icol] == TableField.DATA_TYPE_STRING ) {
-		            tablerec.addFieldValue( "" );
-		        }
-		        else {
-                    tablerec.addFieldValue( null );
-                }
-		    }
-		    else {
-		        // Add a blank string.
-		        tablerec.addFieldValue("");
-		    }
-		}
-
-		try {
-		    table.addRecord(tablerec);
-		}
-		catch ( Exception e ) {
-		    Message.printWarning ( 3, routine, "Error adding row to table at included data row [" + irow +
-		        "] (" + e + ")." );
-		    ++errorCount;
-		}
-	}
-	if ( errorCount > 0 ) {
-	    // There were errors processing the data.
-	    String message = "There were " + errorCount + " errors processing the data.";
-	    Message.printWarning ( 3, routine, message );
-	    throw new Exception ( message );
-	}
-
-	return table;
+	return new DataTableDelimitedFileParser ( filename, props ).parse();
 }
 
 /**
@@ -4142,7 +3432,7 @@ throws Exception {
  * This will be the case if the cell is empty, "null" (upper or lower case).
  * Call this when processing non-text cells that need to store a value (double, integer, boolean, date/time, etc.).
  */
-private static boolean parseFile_CellContentsNull ( String cell ) {
+static boolean parseFile_CellContentsNull ( String cell ) {
 	if ( (cell == null) || cell.isEmpty() || cell.toUpperCase().equals("NULL") ) {
 		return true;
 	}
@@ -4158,7 +3448,7 @@ Determine whether a line from the file matches the list of rows that are of inte
 @param rows_List_size Size of rows_List - used to speed up performance.
 @return true if the line matches an item in the list.
 */
-private static boolean parseFile_LineMatchesLineFromList( int linecount0, List<Integer> rows_List, int rows_List_size ) {
+static boolean parseFile_LineMatchesLineFromList( int linecount0, List<Integer> rows_List, int rows_List_size ) {
     Integer int_object;
     if ( rows_List != null ) {
         rows_List_size = rows_List.size();
@@ -4183,7 +3473,7 @@ All fields are set to type String, although this will be reset when data records
 @param parse_flag the flag to be passed to StringUtil.breakStringList() when parsing the line.
 @return A list of TableField describing the table columns.
 */
-private static List<TableField> parseFile_ParseHeaderLine (
+static List<TableField> parseFile_ParseHeaderLine (
     String line, int linecount0, boolean TrimInput_Boolean, String Delimiter, int parse_flag ) {
     String routine = DataTable.class.getSimpleName() + ".parseFile_ParseHeaderLine";
     Message.printStatus ( 2, routine, "Adding column headers from line [" + linecount0 + "]: " + line );
@@ -4219,7 +3509,7 @@ Process a string table field value before setting as data in the table.
 Remote surrounding quotes.
 @param cell table cell value as string
 */
-private static String parseFile_ProcessString ( String cell ) {
+static String parseFile_ProcessString ( String cell ) {
     if ( (cell == null) || (cell.length() == 0) ) {
         return cell;
     }
@@ -4249,7 +3539,7 @@ All fields are set to type String, although this will be reset when data records
 @param columnNames column names to use for table fields.
 @return A list of TableField describing the table columns.
 */
-private static List<TableField> parseFile_SetColumnNames ( String [] columnNames ) {
+static List<TableField> parseFile_SetColumnNames ( String [] columnNames ) {
     List<TableField> tableFields = new ArrayList<>();
     TableField tableField = null;
     String temp = null;
@@ -4330,7 +3620,12 @@ public void reorderFields ( String [] columnNames, List<String> problems ) throw
 
     	// Swap the data row fields:
     	// - have to process each record because the table is row-based
+    	// - a column store only needs to move the column
 
+    	if ( this.__columnStore != null ) {
+    		this.__columnStore.moveColumn(columnNumberOld, columnNumberNew);
+    		continue;
+    	}
     	Object dataOld = null;
     	for ( TableRecord rec : this._table_records ) {
     		// These methods will throw an Exception if something bad happens:
@@ -4354,6 +3649,46 @@ public void setComments ( List<String> comments ) {
     }
 }
 
+/**
+Set a field value as a double, which avoids creating objects when the table uses a column store.
+If the column store does not use double storage for the column, a Double object is set.
+@param row the row (0+)
+@param col the column (0+)
+@param value the value to set
+@exception Exception if the row or column is invalid
+*/
+public void setDouble ( int row, int col, double value )
+throws Exception {
+	setDouble ( row, col, value, false );
+}
+
+/**
+Set a field value as a double, which avoids creating objects when the table uses a column store.
+If the column store does not use double storage for the column, a Double object is set.
+@param row the row (0+)
+@param col the column (0+)
+@param value the value to set
+@param createIfNecessary if true and the requested row is not in the existing rows, create
+intervening rows, initialize to missing (null objects), and then set the data.
+@exception Exception if the row or column is invalid
+*/
+public void setDouble ( int row, int col, double value, boolean createIfNecessary )
+throws Exception {
+	if ( this.__columnStore != null ) {
+		int nRows = getNumberOfRecords();
+		if ( (row > (nRows - 1)) && createIfNecessary ) {
+			// Create empty rows.
+			for ( int i = nRows; i <= row; i++ ) {
+				addRecord(emptyRecord());
+			}
+		}
+		this.__columnStore.setDouble(row, col, value);
+	}
+	else {
+		setFieldValue ( row, col, Double.valueOf(value), createIfNecessary );
+	}
+}
+
 /**
 Sets the precision of the field.
 @param col the column (0+) for which to set the precision.
@@ -4410,6 +3745,42 @@ throws Exception {
 	field.setWidth(width);
 }
 
+/**
+Set a field value as an int, which avoids creating objects when the table uses a column store.
+If the column store does not use int storage for the column, an Integer object is set.
+@param row the row (0+)
+@param col the column (0+)
+@param value the value to set
+@exception Exception if the row or column is invalid
+*/
+public void setInt ( int row, int col, int value )
+throws Exception {
+	if ( this.__columnStore != null ) {
+		this.__columnStore.setInt(row, col, value);
+	}
+	else {
+		setFieldValue ( row, col, Integer.valueOf(value) );
+	}
+}
+
+/**
+Set a field value as a long, which avoids creating objects when the table uses a column store.
+If the column store does not use long storage for the column, a Long object is set.
+@param row the row (0+)
+@param col the column (0+)
+@param value the value to set
+@exception Exception if the row or column is invalid
+*/
+public void setLong ( int row, int col, long value )
+throws Exception {
+	if ( this.__columnStore != null ) {
+		this.__columnStore.setLong(row, col, value);
+	}
+	else {
+		setFieldValue ( row, col, Long.valueOf(value) );
+	}
+}
+
 /**
 Set the number of records in the table.
 This method should typically only be called when data are read on-the-fly
@@ -4442,6 +3813,10 @@ Set the table fields to define the table.
 */
 public void setTableFields ( List<TableField> tableFieldsList ) {
 	_table_fields = tableFieldsList;
+	if ( this.__columnStore != null ) {
+		// Columns can only be redefined if the table is empty.
+		this.__columnStore.resetColumns ( getFieldDataTypes() );
+	}
 }
 
 /**
@@ -4920,6 +4295,44 @@ public void setTableValues ( Hashtable<String,String> columnFilters, HashMap<Str
     }
 }
 
+/**
+Set whether the table data are stored by column rather than by row.
+Column storage uses primitive arrays for numeric columns and dictionary-encoded strings for string columns,
+which requires much less memory for large tables, such as tables created from time series.
+Records are then views of the column store (see DataTableColumnStore) and the following should be noted:
+<ul>
+<li>	Records passed to addRecord() are copied into the store.
+	Use the record returned by addRecord() if the record needs to be modified after adding.</li>
+<li>	The record list for the table is replaced when storage is changed,
+	so this method should be called before other code uses getTableRecords().</li>
+<li>	Use getDouble(), setDouble(), and similar methods to avoid creating objects for each value.</li>
+</ul>
+@param useColumnStore if true, store the data by column; if false, store the data as TableRecord with object arrays
+*/
+public void setUseColumnStore ( boolean useColumnStore ) {
+	if ( useColumnStore == (this.__columnStore != null) ) {
+		// No change.
+		return;
+	}
+	if ( useColumnStore ) {
+		DataTableColumnStore columnStore = new DataTableColumnStore ( getFieldDataTypes(), _table_records.size() );
+		List<TableRecord> records = columnStore.getRecords();
+		for ( TableRecord record : _table_records ) {
+			records.add ( record );
+		}
+		this.__columnStore = columnStore;
+		_table_records = records;
+	}
+	else {
+		List<TableRecord> records = new ArrayList<>(_table_records.size());
+		for ( TableRecord record : _table_records ) {
+			records.add ( new TableRecord(record) );
+		}
+		this.__columnStore = null;
+		_table_records = records;
+	}
+}
+
 /**
 Sort the table rows by sorting a column's values.
 @param sortColumns the name of the columns to be sorted, allowed to be integer, double, string, or DateTime type.
@@ -5382,6 +4795,15 @@ public boolean trimStrings ( ) {
 	return _trim_strings;
 }
 
+
+/**
+Indicate whether the table data are stored by column.
+@return true if the table data are stored by column (see setUseColumnStore()).
+*/
+public boolean usesColumnStore () {
+	return this.__columnStore != null;
+}
+
 /**
 Writes a table to a delimited file.  If the data items contain the delimiter,
 they will be written surrounded by double quotes.
@@ -5529,15 +4951,9 @@ throws Exception {
 		excludeColumns = (String [])propO;
 	}
 
-	PrintWriter out = null;
-	if ( append ) {
-		// Open in append mode.
-		out = new PrintWriter( new BufferedWriter(new FileWriter(filename,true)));
-	}
-	else {
-		// Open in write (not append) mode.
-		out = new PrintWriter( new BufferedWriter(new FileWriter(filename)));
-	}
+	// Open in append or write mode, counting the bytes for the command profile when closed.
+	PrintWriter out = new PrintWriter( new BufferedWriter(new OutputStreamWriter(
+		new CommandProfileOutputStream(new FileOutputStream(filename,append)))));
 	int irow = 0, icol = 0;
 	try {
     	// If any comments have been passed in, write them at the top of the file.
@@ -5558,7 +4974,7 @@ throws Exception {
     	// - default is to write all
        	boolean [] columnOkToWrite = determineColumnsToInclude(includeColumns, excludeColumns);
 
-    	StringBuffer line = new StringBuffer();
+    	StringBuilder line = new StringBuilder();
 
         int nonBlank = 0; // Number of non-blank table headings.
     	if ( writeColumnNames && !append ) {
@@ -5592,9 +5008,19 @@ throws Exception {
     	}
 
     	int rows = getNumberOfRecords();
-    	String cell;
     	int tableFieldType;
     	int precision;
+    	// Formatters for floating point columns, created once for the precision.
+    	NumberFormatter [] precisionFormatters = new NumberFormatter[cols];
+    	for ( icol = 0; icol < cols; icol++ ) {
+    		tableFieldType = getFieldDataType(icol);
+    		precision = getFieldPrecision(icol);
+    		if ( ((tableFieldType == TableField.DATA_TYPE_FLOAT) || (tableFieldType == TableField.DATA_TYPE_DOUBLE)) && (precision >= 0) ) {
+    			precisionFormatters[icol] = NumberFormatter.getInstance ( "%." + precision + "f" );
+    		}
+    	}
+    	String cell;
+    	int cellStart;
     	Object fieldValue;
     	Double fieldValueDouble;
     	Float fieldValueFloat;
@@ -5628,8 +5054,15 @@ throws Exception {
                         cell = NaNValue;
                     }
                     else if ( precision >= 0 ) {
-                        // Format according to the precision if floating point.
-                        cell = StringUtil.formatString(fieldValue,"%." + precision + "f");
+                        // Format according to the precision if floating point, directly into the line.
+                        cellStart = line.length();
+                        precisionFormatters[icol].append(line, fieldValueFloat.floatValue());
+                        if ( line.indexOf(delimiter, cellStart) < 0 ) {
+                            // No need to quote.
+                            continue;
+                        }
+                        cell = line.substring(cellStart);
+                        line.setLength(cellStart);
                     }
                     else {
                         // Use default formatting.
@@ -5643,8 +5076,15 @@ throws Exception {
     		            cell = NaNValue;
     		        }
     		        else if ( precision >= 0 ) {
-                        // Format according to the precision if floating point.
-                        cell = StringUtil.formatString(fieldValue,"%." + precision + "f");
+                        // Format according to the precision if floating point, directly into the line.
+                        cellStart = line.length();
+                        precisionFormatters[icol].append(line, fieldValueDouble.doubleValue());
+                        if ( line.indexOf(delimiter, cellStart) < 0 ) {
+                            // No need to quote.
+                            continue;
+                        }
+                        cell = line.substring(cellStart);
+                        line.setLength(cellStart);
     		        }
     		        else {
     		            // Use default formatting.
@@ -0,0 +1,1013 @@
+// DataTableColumnStore - column-oriented storage for DataTable records
+
+/* NoticeStart
+
+CDSS Common Java Library
+CDSS Common Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2025 Colorado Department of Natural Resources
+
+CDSS Common Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+CDSS Common Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with CDSS Common Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package RTi.Util.Table;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+import RTi.DMI.DMIUtil;
+
+/**
+This class stores DataTable values by column rather than by row,
+using primitive arrays for numeric columns and dictionary-encoded strings for string columns.
+Null values are tracked with a bitmap for each column, so that numeric values are never boxed in storage.
+<p>
+The store is used by a DataTable when DataTable.setUseColumnStore(true) is called.
+The DataTable then uses the list returned by getRecords() as its record list,
+where each TableRecord is a view of one row in the store.
+Records that are added to the list are copied into the store and are replaced by a view,
+so code that adds records should use the record returned by DataTable.addRecord() for later modification.
+<p>
+Column data types are determined from the table field data types when the store is created.
+If a value is set that does not match the column storage type (e.g., a String in a double column),
+the column is converted to object storage so that DataTable behavior is the same as with row storage.
+Date/time, boolean, array and other object columns are always stored as objects.
+*/
+public class DataTableColumnStore
+{
+
+/**
+Maximum number of distinct strings in a dictionary-encoded string column.
+If exceeded, the column is converted to object storage because the dictionary no longer saves memory.
+*/
+private static final int STRING_DICTIONARY_MAX_SIZE = 65536;
+
+/**
+Columns in the store, in table field order.
+Record views hold a reference to this list so that views of cleared records are not corrupted.
+*/
+private List<Column> columns;
+
+/**
+Number of slots that have been used in the column arrays (high-water mark).
+A slot is the physical position of a row in the column arrays.
+*/
+private int slotCount = 0;
+
+/**
+Capacity of the column arrays.
+*/
+private int capacity = 0;
+
+/**
+Slots that have been released by removing rows, which are reused before increasing slotCount.
+*/
+private int [] freeSlots = new int[16];
+
+/**
+Number of values in freeSlots.
+*/
+private int freeSlotCount = 0;
+
+/**
+List of records that is used by DataTable, in row order.
+*/
+private final RecordList records = new RecordList();
+
+/**
+Create a column store.
+@param dataTypes the data types (TableField.DATA_TYPE_*) for columns, can be null if no columns
+@param initialCapacity the initial number of rows to allocate
+*/
+public DataTableColumnStore ( int [] dataTypes, int initialCapacity ) {
+	this.columns = createColumns ( dataTypes );
+	ensureCapacity ( Math.max(initialCapacity,16) );
+}
+
+/**
+Allocate a slot for a new row, reusing a slot from a removed row if possible.
+All column values for the slot are initialized to null.
+@return the slot index (0+)
+*/
+private int allocateSlot () {
+	int slot;
+	if ( this.freeSlotCount > 0 ) {
+		slot = this.freeSlots[--this.freeSlotCount];
+	}
+	else {
+		ensureCapacity ( this.slotCount + 1 );
+		slot = this.slotCount++;
+	}
+	for ( Column column : this.columns ) {
+		column.setNull ( slot, true );
+	}
+	return slot;
+}
+
+/**
+Create a column for a data type.
+@param dataType the data type (TableField.DATA_TYPE_*)
+@return a new empty column
+*/
+private static Column createColumn ( int dataType ) {
+	switch ( dataType ) {
+		case TableField.DATA_TYPE_DOUBLE: return new DoubleColumn();
+		case TableField.DATA_TYPE_FLOAT: return new FloatColumn();
+		case TableField.DATA_TYPE_INT: return new IntColumn();
+		case TableField.DATA_TYPE_SHORT: return new ShortColumn();
+		case TableField.DATA_TYPE_LONG: return new LongColumn();
+		case TableField.DATA_TYPE_STRING: return new StringColumn();
+		default: return new ObjectColumn();
+	}
+}
+
+/**
+Create the columns for data types.
+@param dataTypes the data types (TableField.DATA_TYPE_*) for columns, can be null
+@return list of new empty columns
+*/
+private static List<Column> createColumns ( int [] dataTypes ) {
+	List<Column> columns = new ArrayList<>();
+	if ( dataTypes != null ) {
+		for ( int dataType : dataTypes ) {
+			columns.add ( createColumn(dataType) );
+		}
+	}
+	return columns;
+}
+
+/**
+Delete a column from the store.
+@param col column index (0+)
+*/
+public void deleteColumn ( int col ) {
+	this.columns.remove ( col );
+}
+
+/**
+Ensure that the column arrays can hold the requested number of slots.
+@param required number of slots required
+*/
+private void ensureCapacity ( int required ) {
+	if ( required <= this.capacity ) {
+		return;
+	}
+	int newCapacity = Math.max ( required, this.capacity + (this.capacity >> 1) );
+	for ( Column column : this.columns ) {
+		column.resize ( newCapacity );
+	}
+	this.capacity = newCapacity;
+}
+
+/**
+Return the column for a column index, checking the index.
+@param col column index (0+)
+@return the column
+*/
+private Column getColumn ( int col ) {
+	if ( (col < 0) || (col >= this.columns.size()) ) {
+		throw new IndexOutOfBoundsException ( "Column index [" + col + "] is invalid (store has " +
+			this.columns.size() + " columns ([0] to [" + (this.columns.size() - 1) + "]))." );
+	}
+	return this.columns.get(col);
+}
+
+/**
+Return a value as a double.
+@param row row index (0+)
+@param col column index (0+)
+@return the value as a double, or NaN if the value is null
+@exception RuntimeException if the value is not a number
+*/
+public double getDouble ( int row, int col ) {
+	return getColumn(col).getDouble ( this.records.rows.get(row).slot );
+}
+
+/**
+Return a value as an int.
+@param row row index (0+)
+@param col column index (0+)
+@return the value as an int, or DMIUtil.MISSING_INT if the value is null
+@exception RuntimeException if the value is not a number
+*/
+public int getInt ( int row, int col ) {
+	return getColumn(col).getInt ( this.records.rows.get(row).slot );
+}
+
+/**
+Return a value as a long.
+@param row row index (0+)
+@param col column index (0+)
+@return the value as a long, or DMIUtil.MISSING_LONG if the value is null
+@exception RuntimeException if the value is not a number
+*/
+public long getLong ( int row, int col ) {
+	return getColumn(col).getLong ( this.records.rows.get(row).slot );
+}
+
+/**
+Return the number of columns in the store.
+@return the number of columns in the store
+*/
+public int getNumberOfColumns () {
+	return this.columns.size();
+}
+
+/**
+Return the list of records, in row order.
+Each record in the list is a view of the values in the store.
+@return the list of records
+*/
+public List<TableRecord> getRecords () {
+	return this.records;
+}
+
+/**
+Return the object value for a row and column.
+@param row row index (0+)
+@param col column index (0+)
+@return the value, or null if the value is null
+*/
+public Object getValue ( int row, int col ) {
+	return getColumn(col).get ( this.records.rows.get(row).slot );
+}
+
+/**
+Insert a column into the store, with all values initialized to null.
+@param col column index (0+) at which to insert, or -1 (or >= number of columns) to add at the end
+@param dataType the data type (TableField.DATA_TYPE_*)
+@return the index of the new column
+*/
+public int insertColumn ( int col, int dataType ) {
+	Column column = createColumn ( dataType );
+	column.resize ( this.capacity );
+	column.setAllNull ();
+	if ( (col < 0) || (col >= this.columns.size()) ) {
+		this.columns.add ( column );
+		return this.columns.size() - 1;
+	}
+	else {
+		this.columns.add ( col, column );
+		return col;
+	}
+}
+
+/**
+Indicate whether a value is null.
+@param row row index (0+)
+@param col column index (0+)
+@return true if the value is null
+*/
+public boolean isNull ( int row, int col ) {
+	return getColumn(col).isNull ( this.records.rows.get(row).slot );
+}
+
+/**
+Move a column to a new position.
+@param colOld the current column index (0+)
+@param colNew the new column index (0+)
+*/
+public void moveColumn ( int colOld, int colNew ) {
+	Column column = this.columns.remove ( colOld );
+	this.columns.add ( colNew, column );
+}
+
+/**
+Rebuild a column for a new data type, converting the existing values with the new column storage.
+This is called after the data type of a table field has been changed and the values have been converted.
+@param col column index (0+)
+@param dataType the new data type (TableField.DATA_TYPE_*)
+*/
+public void rebuildColumn ( int col, int dataType ) {
+	Column oldColumn = getColumn ( col );
+	Column newColumn = createColumn ( dataType );
+	newColumn.resize ( this.capacity );
+	newColumn.setAllNull ();
+	for ( int slot = 0; slot < this.slotCount; slot++ ) {
+		if ( !oldColumn.isNull(slot) ) {
+			Object value = oldColumn.get(slot);
+			if ( !newColumn.accepts(value) ) {
+				// Values are not consistent with the type so keep the old column.
+				return;
+			}
+			newColumn.set ( slot, value );
+		}
+	}
+	this.columns.set ( col, newColumn );
+}
+
+/**
+Release a slot so that it can be reused.
+@param slot slot to release
+*/
+private void releaseSlot ( int slot ) {
+	if ( this.freeSlotCount == this.freeSlots.length ) {
+		this.freeSlots = Arrays.copyOf ( this.freeSlots, this.freeSlots.length*2 );
+	}
+	this.freeSlots[this.freeSlotCount++] = slot;
+	for ( Column column : this.columns ) {
+		// Set to null so that objects can be garbage collected.
+		column.setNull ( slot, true );
+	}
+}
+
+/**
+Reset the columns for new data types.  This is only allowed if the store does not contain any rows.
+@param dataTypes the data types (TableField.DATA_TYPE_*) for columns, can be null if no columns
+@return true if the columns were reset, false if the store contains rows
+*/
+public boolean resetColumns ( int [] dataTypes ) {
+	if ( this.records.size() > 0 ) {
+		return false;
+	}
+	this.records.clear();
+	this.columns = createColumns ( dataTypes );
+	this.slotCount = 0;
+	this.freeSlotCount = 0;
+	this.capacity = 0;
+	ensureCapacity ( 16 );
+	return true;
+}
+
+/**
+Set a value as a double.
+If the column is not a double column, the value is set as a Double object.
+@param row row index (0+)
+@param col column index (0+)
+@param value the value to set
+*/
+public void setDouble ( int row, int col, double value ) {
+	Column column = getColumn ( col );
+	int slot = this.records.rows.get(row).slot;
+	if ( column instanceof DoubleColumn ) {
+		((DoubleColumn)column).values[slot] = value;
+		column.setNull ( slot, false );
+	}
+	else {
+		setSlotValue ( slot, col, Double.valueOf(value) );
+	}
+}
+
+/**
+Set a value as an int.
+If the column is not an int column, the value is set as an Integer object.
+@param row row index (0+)
+@param col column index (0+)
+@param value the value to set
+*/
+public void setInt ( int row, int col, int value ) {
+	Column column = getColumn ( col );
+	int slot = this.records.rows.get(row).slot;
+	if ( column instanceof IntColumn ) {
+		((IntColumn)column).values[slot] = value;
+		column.setNull ( slot, false );
+	}
+	else {
+		setSlotValue ( slot, col, Integer.valueOf(value) );
+	}
+}
+
+/**
+Set a value as a long.
+If the column is not a long column, the value is set as a Long object.
+@param row row index (0+)
+@param col column index (0+)
+@param value the value to set
+*/
+public void setLong ( int row, int col, long value ) {
+	Column column = getColumn ( col );
+	int slot = this.records.rows.get(row).slot;
+	if ( column instanceof LongColumn ) {
+		((LongColumn)column).values[slot] = value;
+		column.setNull ( slot, false );
+	}
+	else {
+		setSlotValue ( slot, col, Long.valueOf(value) );
+	}
+}
+
+/**
+Set a value in a slot, converting the column to object storage if the value does not match the column type.
+@param slot slot index (0+)
+@param col column index (0+)
+@param value value to set, can be null
+*/
+private void setSlotValue ( int slot, int col, Object value ) {
+	Column column = getColumn ( col );
+	if ( value == null ) {
+		column.setNull ( slot, true );
+		return;
+	}
+	if ( !column.accepts(value) ) {
+		column = toObjectColumn ( column );
+		this.columns.set ( col, column );
+	}
+	column.set ( slot, value );
+}
+
+/**
+Set the object value for a row and column.
+@param row row index (0+)
+@param col column index (0+)
+@param value the value to set, can be null
+*/
+public void setValue ( int row, int col, Object value ) {
+	setSlotValue ( this.records.rows.get(row).slot, col, value );
+}
+
+/**
+Convert a column to object storage.
+@param column column to convert
+@return new object column containing the values of the original column
+*/
+private ObjectColumn toObjectColumn ( Column column ) {
+	ObjectColumn objectColumn = new ObjectColumn();
+	objectColumn.resize ( this.capacity );
+	objectColumn.setAllNull ();
+	for ( int slot = 0; slot < this.slotCount; slot++ ) {
+		if ( !column.isNull(slot) ) {
+			objectColumn.set ( slot, column.get(slot) );
+		}
+	}
+	return objectColumn;
+}
+
+/**
+Base class for column storage.
+Null values are tracked with a bitmap so that primitive storage does not need a special missing value.
+*/
+private static abstract class Column {
+	/**
+	Bitmap indicating null values, one bit per slot.
+	*/
+	long [] nulls = new long[0];
+
+	/**
+	Indicate whether a non-null value can be stored in the column without conversion.
+	*/
+	abstract boolean accepts ( Object value );
+
+	/**
+	Return the value for a slot as an object, or null.
+	*/
+	abstract Object get ( int slot );
+
+	/**
+	Return the value as a double, or NaN if null.
+	*/
+	double getDouble ( int slot ) {
+		Object o = get ( slot );
+		if ( o == null ) {
+			return Double.NaN;
+		}
+		else if ( o instanceof Number ) {
+			return ((Number)o).doubleValue();
+		}
+		throw new RuntimeException ( "Value \"" + o + "\" is not a number." );
+	}
+
+	/**
+	Return the value as an int, or DMIUtil.MISSING_INT if null.
+	*/
+	int getInt ( int slot ) {
+		Object o = get ( slot );
+		if ( o == null ) {
+			return DMIUtil.MISSING_INT;
+		}
+		else if ( o instanceof Number ) {
+			return ((Number)o).intValue();
+		}
+		throw new RuntimeException ( "Value \"" + o + "\" is not a number." );
+	}
+
+	/**
+	Return the value as a long, or DMIUtil.MISSING_LONG if null.
+	*/
+	long getLong ( int slot ) {
+		Object o = get ( slot );
+		if ( o == null ) {
+			return DMIUtil.MISSING_LONG;
+		}
+		else if ( o instanceof Number ) {
+			return ((Number)o).longValue();
+		}
+		throw new RuntimeException ( "Value \"" + o + "\" is not a number." );
+	}
+
+	boolean isNull ( int slot ) {
+		return (this.nulls[slot >> 6] & (1L << slot)) != 0;
+	}
+
+	/**
+	Resize the storage arrays to the capacity.
+	*/
+	void resize ( int capacity ) {
+		this.nulls = Arrays.copyOf ( this.nulls, (capacity + 63) >> 6 );
+	}
+
+	/**
+	Set a non-null value that has been checked with accepts().
+	*/
+	abstract void set ( int slot, Object value );
+
+	/**
+	Set all values to null.
+	*/
+	void setAllNull () {
+		Arrays.fill ( this.nulls, -1L );
+	}
+
+	void setNull ( int slot, boolean isNull ) {
+		if ( isNull ) {
+			this.nulls[slot >> 6] |= (1L << slot);
+			clear ( slot );
+		}
+		else {
+			this.nulls[slot >> 6] &= ~(1L << slot);
+		}
+	}
+
+	/**
+	Clear the storage for a slot when set to null.  Object storage releases the reference.
+	*/
+	void clear ( int slot ) {
+	}
+}
+
+/**
+Column of double values.
+*/
+private static class DoubleColumn extends Column {
+	double [] values = new double[0];
+
+	boolean accepts ( Object value ) {
+		return value instanceof Double;
+	}
+
+	Object get ( int slot ) {
+		return isNull(slot) ? null : Double.valueOf(this.values[slot]);
+	}
+
+	double getDouble ( int slot ) {
+		return isNull(slot) ? Double.NaN : this.values[slot];
+	}
+
+	void resize ( int capacity ) {
+		super.resize ( capacity );
+		this.values = Arrays.copyOf ( this.values, capacity );
+	}
+
+	void set ( int slot, Object value ) {
+		this.values[slot] = (Double)value;
+		setNull ( slot, false );
+	}
+}
+
+/**
+Column of float values.
+*/
+private static class FloatColumn extends Column {
+	float [] values = new float[0];
+
+	boolean accepts ( Object value ) {
+		return value instanceof Float;
+	}
+
+	Object get ( int slot ) {
+		return isNull(slot) ? null : Float.valueOf(this.values[slot]);
+	}
+
+	double getDouble ( int slot ) {
+		return isNull(slot) ? Double.NaN : this.values[slot];
+	}
+
+	void resize ( int capacity ) {
+		super.resize ( capacity );
+		this.values = Arrays.copyOf ( this.values, capacity );
+	}
+
+	void set ( int slot, Object value ) {
+		this.values[slot] = (Float)value;
+		setNull ( slot, false );
+	}
+}
+
+/**
+Column of int values.
+*/
+private static class IntColumn extends Column {
+	int [] values = new int[0];
+
+	boolean accepts ( Object value ) {
+		return value instanceof Integer;
+	}
+
+	Object get ( int slot ) {
+		return isNull(slot) ? null : Integer.valueOf(this.values[slot]);
+	}
+
+	double getDouble ( int slot ) {
+		return isNull(slot) ? Double.NaN : this.values[slot];
+	}
+
+	int getInt ( int slot ) {
+		return isNull(slot) ? DMIUtil.MISSING_INT : this.values[slot];
+	}
+
+	long getLong ( int slot ) {
+		return isNull(slot) ? DMIUtil.MISSING_LONG : this.values[slot];
+	}
+
+	void resize ( int capacity ) {
+		super.resize ( capacity );
+		this.values = Arrays.copyOf ( this.values, capacity );
+	}
+
+	void set ( int slot, Object value ) {
+		this.values[slot] = (Integer)value;
+		setNull ( slot, false );
+	}
+}
+
+/**
+Column of short values.
+*/
+private static class ShortColumn extends Column {
+	short [] values = new short[0];
+
+	boolean accepts ( Object value ) {
+		return value instanceof Short;
+	}
+
+	Object get ( int slot ) {
+		return isNull(slot) ? null : Short.valueOf(this.values[slot]);
+	}
+
+	void resize ( int capacity ) {
+		super.resize ( capacity );
+		this.values = Arrays.copyOf ( this.values, capacity );
+	}
+
+	void set ( int slot, Object value ) {
+		this.values[slot] = (Short)value;
+		setNull ( slot, false );
+	}
+}
+
+/**
+Column of long values.
+*/
+private static class LongColumn extends Column {
+	long [] values = new long[0];
+
+	boolean accepts ( Object value ) {
+		return value instanceof Long;
+	}
+
+	Object get ( int slot ) {
+		return isNull(slot) ? null : Long.valueOf(this.values[slot]);
+	}
+
+	double getDouble ( int slot ) {
+		return isNull(slot) ? Double.NaN : this.values[slot];
+	}
+
+	long getLong ( int slot ) {
+		return isNull(slot) ? DMIUtil.MISSING_LONG : this.values[slot];
+	}
+
+	void resize ( int capacity ) {
+		super.resize ( capacity );
+		this.values = Arrays.copyOf ( this.values, capacity );
+	}
+
+	void set ( int slot, Object value ) {
+		this.values[slot] = (Long)value;
+		setNull ( slot, false );
+	}
+}
+
+/**
+Column of dictionary-encoded strings, which saves memory when strings repeat, such as TSID or flag columns.
+*/
+private static class StringColumn extends Column {
+	int [] codes = new int[0];
+	List<String> dictionary = new ArrayList<>();
+	Map<String,Integer> dictionaryIndex = new HashMap<>();
+
+	boolean accepts ( Object value ) {
+		if ( !(value instanceof String) ) {
+			return false;
+		}
+		return (this.dictionary.size() < STRING_DICTIONARY_MAX_SIZE) || this.dictionaryIndex.containsKey(value);
+	}
+
+	Object get ( int slot ) {
+		return isNull(slot) ? null : this.dictionary.get(this.codes[slot]);
+	}
+
+	void resize ( int capacity ) {
+		super.resize ( capacity );
+		this.codes = Arrays.copyOf ( this.codes, capacity );
+	}
+
+	void set ( int slot, Object value ) {
+		String s = (String)value;
+		Integer code = this.dictionaryIndex.get(s);
+		if ( code == null ) {
+			code = Integer.valueOf(this.dictionary.size());
+			this.dictionary.add ( s );
+			this.dictionaryIndex.put ( s, code );
+		}
+		this.codes[slot] = code;
+		setNull ( slot, false );
+	}
+}
+
+/**
+Column of objects, used for types that do not have primitive storage and for columns with mixed types.
+*/
+private static class ObjectColumn extends Column {
+	Object [] values = new Object[0];
+
+	boolean accepts ( Object value ) {
+		return true;
+	}
+
+	void clear ( int slot ) {
+		if ( slot < this.values.length ) {
+			this.values[slot] = null;
+		}
+	}
+
+	Object get ( int slot ) {
+		return this.values[slot];
+	}
+
+	void resize ( int capacity ) {
+		super.resize ( capacity );
+		this.values = Arrays.copyOf ( this.values, capacity );
+	}
+
+	void set ( int slot, Object value ) {
+		this.values[slot] = value;
+		setNull ( slot, false );
+	}
+}
+
+/**
+List of record views in row order, used as the DataTable record list.
+Records that are not views of this store are copied into the store when added or set.
+*/
+private class RecordList extends AbstractList<TableRecord> implements RandomAccess {
+	/**
+	Record views in row order.
+	*/
+	private final ArrayList<StoreRecord> rows = new ArrayList<>();
+
+	/**
+	Return a view for a record, copying a record that is not a view of this store into a new slot.
+	*/
+	private StoreRecord adopt ( TableRecord record ) {
+		if ( record instanceof StoreRecord ) {
+			StoreRecord storeRecord = (StoreRecord)record;
+			if ( (storeRecord.getStore() == DataTableColumnStore.this) && (storeRecord.columns == columns) &&
+				(storeRecord.detachedValues == null) ) {
+				return storeRecord;
+			}
+		}
+		Object [] values = record.getFieldValueArray();
+		int nValues = record.getNumberOfFields();
+		if ( nValues != columns.size() ) {
+			throw new IllegalArgumentException ( "Number of fields in the record (" + nValues +
+				") does not match the number of columns in the store (" + columns.size() + ")." );
+		}
+		int slot = allocateSlot();
+		for ( int col = 0; col < nValues; col++ ) {
+			setSlotValue ( slot, col, values[col] );
+		}
+		return new StoreRecord ( slot, record );
+	}
+
+	public void add ( int index, TableRecord record ) {
+		StoreRecord storeRecord = adopt ( record );
+		++storeRecord.listReferenceCount;
+		this.rows.add ( index, storeRecord );
+		++this.modCount;
+	}
+
+	public void clear () {
+		// Views of the cleared records keep the old columns so that they can still be used.
+		this.rows.clear();
+		++this.modCount;
+		List<Column> newColumns = new ArrayList<>(columns.size());
+		for ( Column column : columns ) {
+			Column newColumn;
+			if ( column instanceof DoubleColumn ) {
+				newColumn = new DoubleColumn();
+			}
+			else if ( column instanceof FloatColumn ) {
+				newColumn = new FloatColumn();
+			}
+			else if ( column instanceof IntColumn ) {
+				newColumn = new IntColumn();
+			}
+			else if ( column instanceof ShortColumn ) {
+				newColumn = new ShortColumn();
+			}
+			else if ( column instanceof LongColumn ) {
+				newColumn = new LongColumn();
+			}
+			else if ( column instanceof StringColumn ) {
+				newColumn = new StringColumn();
+			}
+			else {
+				newColumn = new ObjectColumn();
+			}
+			newColumns.add ( newColumn );
+		}
+		columns = newColumns;
+		slotCount = 0;
+		freeSlotCount = 0;
+		capacity = 0;
+		ensureCapacity ( 16 );
+	}
+
+	public TableRecord get ( int index ) {
+		return this.rows.get(index);
+	}
+
+	public TableRecord remove ( int index ) {
+		StoreRecord storeRecord = this.rows.remove(index);
+		++this.modCount;
+		if ( --storeRecord.listReferenceCount == 0 ) {
+			// Copy the values out of the store so that the removed record can still be used.
+			storeRecord.detach();
+			releaseSlot ( storeRecord.slot );
+		}
+		return storeRecord;
+	}
+
+	public TableRecord set ( int index, TableRecord record ) {
+		// Setting a view of this store (e.g., when sorting) only changes the row order.
+		// The slot of a replaced record is not released because the record may be set again.
+		StoreRecord storeRecord = adopt ( record );
+		++storeRecord.listReferenceCount;
+		StoreRecord oldRecord = this.rows.set ( index, storeRecord );
+		--oldRecord.listReferenceCount;
+		return oldRecord;
+	}
+
+	public int size () {
+		return this.rows.size();
+	}
+}
+
+/**
+TableRecord that is a view of a row in the store.
+A record that is removed from the store is detached and then holds a copy of its values.
+*/
+private class StoreRecord extends TableRecord {
+	/**
+	Slot in the column arrays for the record.
+	*/
+	private int slot;
+
+	/**
+	Columns for the record, which are the store columns unless the store has been cleared.
+	*/
+	private final List<Column> columns;
+
+	/**
+	Number of times the record is referenced in the record list (normally 1, can be more when sorting).
+	*/
+	private int listReferenceCount = 0;
+
+	/**
+	Values for the record after it has been removed from the store, or null if in the store.
+	*/
+	private Object [] detachedValues = null;
+
+	/**
+	Create a record view.
+	@param slot slot in the column arrays
+	@param record original record, used to copy the dirty and selected state
+	*/
+	private StoreRecord ( int slot, TableRecord record ) {
+		super(0);
+		this.slot = slot;
+		this.columns = DataTableColumnStore.this.columns;
+		setDirty ( record.isDirty() );
+		setIsSelected ( record.getIsSelected() );
+	}
+
+	/**
+	Deletes a field's data value from the record, which is not allowed for a view - use DataTable.deleteField().
+	*/
+	public void deleteField ( int fieldIndex )
+	throws Exception {
+		throw new Exception ( "Cannot delete a field from a column store record - delete the table field." );
+	}
+
+	/**
+	Adding a field value is not allowed for a view - use DataTable.addField().
+	*/
+	public void addFieldValue ( int insertPos, Object newElement ) {
+		throw new UnsupportedOperationException ( "Cannot add a field to a column store record - add a table field." );
+	}
+
+	/**
+	Copy the values out of the store.
+	*/
+	private void detach () {
+		this.detachedValues = getFieldValueArray();
+	}
+
+	Object [] getFieldValueArray () {
+		if ( this.detachedValues != null ) {
+			return this.detachedValues;
+		}
+		Object [] values = new Object[this.columns.size()];
+		for ( int col = 0; col < values.length; col++ ) {
+			values[col] = this.columns.get(col).get(this.slot);
+		}
+		return values;
+	}
+
+	public Object getFieldValue ( int index )
+	throws Exception {
+		int nFields = getNumberOfFields();
+		if ( (index < 0) || (index >= nFields) ) {
+			throw new Exception ("Column index [" + index + "] is invalid (record has " +
+				nFields + " columns ([0] to [" + (nFields - 1) + "])).");
+		}
+		if ( this.detachedValues != null ) {
+			return this.detachedValues[index];
+		}
+		return this.columns.get(index).get(this.slot);
+	}
+
+	public String getFieldValueString ( int index )
+	throws Exception {
+		Object o = getFieldValue ( index );
+		if ( o == null ) {
+			return null;
+		}
+		else {
+			return "" + o;
+		}
+	}
+
+	public int getNumberOfFields () {
+		if ( this.detachedValues != null ) {
+			return this.detachedValues.length;
+		}
+		return this.columns.size();
+	}
+
+	/**
+	Return the store that the record belongs to.
+	*/
+	private DataTableColumnStore getStore () {
+		return DataTableColumnStore.this;
+	}
+
+	public TableRecord setFieldValue ( int col, Object contents )
+	throws Exception {
+		int nFields = getNumberOfFields();
+		if ( (col < 0) || (col >= nFields) ) {
+			throw new Exception ("Column index [" + col + "] is invalid (record has " +
+				nFields + " columns ([0] to [" + (nFields - 1) + "])).");
+		}
+		if ( this.detachedValues != null ) {
+			this.detachedValues[col] = contents;
+		}
+		else if ( this.columns == DataTableColumnStore.this.columns ) {
+			setSlotValue ( this.slot, col, contents );
+		}
+		else {
+			// Store has been cleared so detach the record before modifying.
+			detach();
+			this.detachedValues[col] = contents;
+		}
+		return this;
+	}
+}
+
+}
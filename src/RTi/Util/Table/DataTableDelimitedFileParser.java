@@ -0,0 +1,1393 @@
+// DataTableDelimitedFileParser - streaming parser for DataTable.parseFile()
+
+/* NoticeStart
+
+CDSS Common Java Library
+CDSS Common Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2025 Colorado Department of Natural Resources
+
+CDSS Common Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+CDSS Common Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with CDSS Common Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package RTi.Util.Table;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import RTi.Util.IO.CommandProfileInputStream;
+import RTi.Util.IO.DaemonThreadPool;
+import RTi.Util.IO.IOUtil;
+import RTi.Util.IO.PropList;
+import RTi.Util.Message.Message;
+import RTi.Util.String.StringUtil;
+import RTi.Util.Time.DateTime;
+
+/**
+Parser for delimited files, used by DataTable.parseFile().
+See DataTable.parseFile() for the properties that control parsing.
+Data lines are processed in chunks as they are read and are not retained after being converted to table records,
+so that large files can be read without holding all of the parsed tokens in memory.
+Chunks can optionally be parsed in parallel, with records added to the table in file order.
+When column types are determined from the data (ColumnDataTypes=Auto), the data are examined before being converted:
+<ul>
+<li>	By default all data lines are examined in a first pass and then converted in a second pass.
+	The file is read twice, or if a BufferedReader is provided, the data lines are retained in memory.</li>
+<li>	If ColumnTypeSampleSize is specified, column types are determined from the first data lines,
+	and all lines are then converted in one pass while examining the remaining data.
+	If the remaining data indicate different column types, the file is converted again using types for all of the data,
+	so that the result is always the same as examining all of the data.</li>
+</ul>
+*/
+class DataTableDelimitedFileParser
+{
+
+/**
+Number of data lines in a chunk.
+*/
+private static final int CHUNK_SIZE = 4096;
+
+/**
+File size above which chunks are parsed in parallel by default.
+*/
+private static final long PARALLEL_FILE_SIZE = 32L*1024*1024;
+
+// Properties, named as in DataTable.parseFile().
+
+private final String filename;
+private BufferedReader bufferedReader = null;
+private boolean ColumnDataTypes_Auto_boolean = false;
+private String Delimiter = ",";
+private List<Integer> HeaderLineList = new ArrayList<>();
+private int HeaderLinesList_maxval = -1;
+private boolean HeaderLines_Auto_boolean = false;
+private int HeaderLinesList_size = 0;
+private String [] columnNames = new String[0];
+private String [] dateTimeColumns = null;
+private String [] doubleColumns = null;
+private String [] integerColumns = null;
+private String [] textColumns = null;
+private int top = -1;
+private int parseFlagHeader = StringUtil.DELIM_ALLOW_STRINGS;
+private int parseFlag = StringUtil.DELIM_ALLOW_STRINGS | StringUtil.DELIM_ALLOW_STRINGS_RETAIN_QUOTES;
+private String CommentLineIndicator = null;
+private List<Integer> skipLinesList = new ArrayList<>();
+private int skipLinesList_maxval = -1;
+private int skipLinesList_size = 0;
+private boolean TrimInput_Boolean = false;
+private boolean TrimStrings_boolean = false;
+private int columnTypeSampleSize = -1;
+private int parseThreads = -1;
+
+/**
+Data lines retained in memory when a BufferedReader is provided and multiple passes are needed.
+*/
+private List<String> dataLines = null;
+
+/**
+Table fields determined from the column names or header line.
+*/
+private List<TableField> headerFields = null;
+
+/**
+Whether the header line has been printed to the log.
+*/
+private boolean headerPrinted = false;
+
+/**
+Number of threads for parsing, 1 if parsing in the calling thread.
+Parallel parsing uses the shared DaemonThreadPool.
+*/
+private int threadCount = 1;
+
+/**
+Counts of data types, string widths and precision for each column, used to determine column types.
+*/
+private static class ColumnStats {
+	int maxColumns = 0;
+	int [] count_int = new int[0];
+	int [] count_double = new int[0];
+	int [] count_string = new int[0];
+	int [] count_blank = new int[0];
+	int [] lenmax_string = new int[0];
+	int [] precision = new int[0];
+
+	/**
+	Make sure that the arrays can hold the number of columns.
+	*/
+	private void ensureColumns ( int numColumns ) {
+		if ( numColumns > this.maxColumns ) {
+			this.maxColumns = numColumns;
+		}
+		if ( numColumns > this.count_int.length ) {
+			int n = Math.max(numColumns, this.count_int.length*2);
+			this.count_int = java.util.Arrays.copyOf(this.count_int, n);
+			this.count_double = java.util.Arrays.copyOf(this.count_double, n);
+			this.count_string = java.util.Arrays.copyOf(this.count_string, n);
+			this.count_blank = java.util.Arrays.copyOf(this.count_blank, n);
+			this.lenmax_string = java.util.Arrays.copyOf(this.lenmax_string, n);
+			this.precision = java.util.Arrays.copyOf(this.precision, n);
+		}
+	}
+
+	/**
+	Examine the tokens for a data row.
+	*/
+	void add ( List<String> tokens, boolean TrimStrings_boolean ) {
+		int numTokens = tokens.size();
+		ensureColumns ( numTokens );
+	    String cell;
+	    String cellTrimmed; // Must have when checking for types.
+	    String cellTrimmed2; // Used if string is quoted.
+	    int periodPos; // Position of period in floating point numbers.
+	    boolean isTypeFound = false;
+	    // Loop through all columns in the row.
+	    for ( int icol = 0; icol < numTokens; icol++ ) {
+	        cell = tokens.get(icol);
+	        cellTrimmed = cell.trim();
+    		// Some data has quotes so remove for the purpose of checking precision, etc.:
+	        // - quoted strings are treated as string column data unless overruled
+	    	cellTrimmed2 = cellTrimmed.replace("\"", "");
+	        isTypeFound = false;
+	        if ( cellTrimmed.length() == 0 ) {
+	        	// Blank cell - can be any type and should not impact result.
+	        	++this.count_blank[icol];
+	        	isTypeFound = true;
+	        }
+	        // Avoid the cost of the number parse exceptions for cells that cannot be numbers.
+	        boolean maybeNumber = maybeNumber(cellTrimmed2);
+	        if ( maybeNumber && StringUtil.isInteger(cellTrimmed2)) {
+	        	if ( StringUtil.isInteger(cellTrimmed)) {
+	        		// Only count as an integer if not quoted.
+	        		++this.count_int[icol];
+	        		isTypeFound = true;
+	        	}
+	            // Length needed in case handled as string data.
+	            this.lenmax_string[icol] = Math.max(this.lenmax_string[icol], cellTrimmed2.length());
+	        }
+            if ( maybeNumber && StringUtil.isDouble(cellTrimmed2)) {
+            	if ( StringUtil.isDouble(cellTrimmed) ) {
+	        		// Only count as a double if not quoted.
+            		++this.count_double[icol];
+            		isTypeFound = true;
+            	}
+                // Length needed in case handled as string data and also to format the double.
+                this.lenmax_string[icol] = Math.max(this.lenmax_string[icol], cellTrimmed2.length());
+                // Precision to help with visualization, such as table views.
+                periodPos = cellTrimmed2.indexOf(".");
+                if ( periodPos >= 0 ) {
+                	// String cell has a period so process the precision:
+                	// - precision is the number of digits after the decimal
+                    this.precision[icol] = Math.max(this.precision[icol], (cellTrimmed2.length() - periodPos - 1) );
+                }
+            }
+            if ( !isTypeFound ) {
+                // Assume string, but strip off the quotes if necessary.
+                ++this.count_string[icol];
+                if ( TrimStrings_boolean ) {
+                    this.lenmax_string[icol] = Math.max(this.lenmax_string[icol], cellTrimmed.length());
+                }
+                else {
+                    this.lenmax_string[icol] = Math.max(this.lenmax_string[icol], cell.length());
+                }
+            }
+	    }
+	}
+
+	/**
+	Add the statistics from another instance, for example from a chunk of rows.
+	*/
+	void add ( ColumnStats other ) {
+		ensureColumns ( other.maxColumns );
+		for ( int icol = 0; icol < other.maxColumns; icol++ ) {
+			this.count_int[icol] += other.count_int[icol];
+			this.count_double[icol] += other.count_double[icol];
+			this.count_string[icol] += other.count_string[icol];
+			this.count_blank[icol] += other.count_blank[icol];
+			this.lenmax_string[icol] = Math.max(this.lenmax_string[icol], other.lenmax_string[icol]);
+			this.precision[icol] = Math.max(this.precision[icol], other.precision[icol]);
+		}
+	}
+
+	/**
+	Quick check for whether a string might be a number, as accepted by Integer.parseInt() or Double.valueOf().
+	Returns false only if the first non-whitespace character cannot start a number.
+	*/
+	private static boolean maybeNumber ( String s ) {
+		int len = s.length();
+		for ( int i = 0; i < len; i++ ) {
+			char c = s.charAt(i);
+			if ( c <= ' ' ) {
+				// Whitespace is trimmed by the number parsing.
+				continue;
+			}
+			return ((c >= '0') && (c <= '9')) || (c == '-') || (c == '+') || (c == '.') || (c == 'N') || (c == 'I');
+		}
+		return false;
+	}
+}
+
+/**
+Result of processing a chunk of data lines.
+*/
+private static class ChunkResult {
+	final ColumnStats stats = new ColumnStats();
+	List<TableRecord> records = null;
+	/**
+	Indicates that a cell could not be converted using the column types, when the types were determined from a sample.
+	*/
+	boolean typeMismatch = false;
+}
+
+/**
+Receives chunk results in file order.
+*/
+private interface ChunkSink {
+	/**
+	Accept a chunk result.
+	@return true to continue processing, false to stop
+	*/
+	boolean accept ( ChunkResult result ) throws Exception;
+}
+
+/**
+Reads lines from the input, skipping comments, lines to skip, and header lines, and returns data lines.
+The table fields are set from the header line.
+*/
+private class DataLineReader {
+	private final BufferedReader in;
+	private final boolean closeInput;
+	private final List<String> lines;
+	private int linePos = 0;
+	private boolean headers_found = false; // Indicates whether the headers have been found.
+	private int linecount = 0; // linecount = 1 for first line in file, for user perspective.
+	private int dataLineCount = 0; // Count of data lines (comments and header lines are not included).
+	private int noncommentLineCount0 = -1; // Count of noncomment lines, could be header or data.
+	private boolean done = false;
+
+	/**
+	Read data lines from the input.
+	*/
+	DataLineReader ( BufferedReader in, boolean closeInput ) {
+		this.in = in;
+		this.closeInput = closeInput;
+		this.lines = null;
+		if ( columnNames.length > 0 ) {
+	        headerFields = DataTable.parseFile_SetColumnNames ( columnNames );
+	        this.headers_found = true;
+		}
+	}
+
+	/**
+	Return data lines that were previously read, the header has already been processed.
+	*/
+	DataLineReader ( List<String> lines ) {
+		this.in = null;
+		this.closeInput = false;
+		this.lines = lines;
+	}
+
+	void close ()
+	throws IOException {
+		if ( this.closeInput ) {
+			this.in.close();
+		}
+	}
+
+	/**
+	Return the next data line, or null if no more data lines.
+	*/
+	String next ()
+	throws IOException {
+		String routine = DataTable.class.getSimpleName() + ".parseFile";
+		if ( this.done ) {
+			return null;
+		}
+		if ( this.lines != null ) {
+			return (this.linePos < this.lines.size()) ? this.lines.get(this.linePos++) : null;
+		}
+		String line;
+		int linecount0;
+		while ( true ) {
+			line = this.in.readLine();
+			if ( line == null ) {
+			    // End of file.
+				this.done = true;
+			    return null;
+			}
+			++this.linecount;
+			linecount0 = this.linecount - 1; // Zero index.
+
+			if ( Message.isDebugOn ) {
+				Message.printDebug ( 10, routine, "Line [" + linecount0 + "]: " + line );
+			}
+
+			// Skip any comments anywhere in the file.
+			if ( (CommentLineIndicator != null) && line.startsWith(CommentLineIndicator) ) {
+			    continue;
+			}
+			++this.noncommentLineCount0;
+
+			// Also skip the requested lines to skip linecount is 1+ while lines to skip are 0+.
+
+			if ( linecount0 <= skipLinesList_maxval ) {
+			    // Need to check it.
+			    if ( DataTable.parseFile_LineMatchesLineFromList(linecount0,skipLinesList, skipLinesList_size)) {
+			        // Skip the line as requested.
+	                continue;
+			    }
+			}
+
+			// "line" now contains the latest non-comment line:
+			// - evaluate whether the line contains the column names (header lines)
+			// - header lines MUST come before data lines
+			// - currently only handle one header line
+
+			if ( !this.headers_found && (this.dataLineCount == 0) ) {
+			    if ( HeaderLines_Auto_boolean ) {
+			        // If a quote is detected, then this line is assumed to contain the name of the columns.
+	        	    if (line.startsWith("\"")) {
+	        	    	printHeaderLine ( line );
+	        	        headerFields = DataTable.parseFile_ParseHeaderLine ( line, linecount0, TrimInput_Boolean, Delimiter, parseFlagHeader );
+	        	        this.headers_found = true;
+	        	        continue;
+	        	    }
+			    }
+			    else {
+			        // Calling code has specified the header rows.  Check to see if this is a header row:
+			    	// - 'linecount0' is the line position, zero index
+			    	// - the HeaderLines line index is also zero index
+			        if ( DataTable.parseFile_LineMatchesLineFromList(this.noncommentLineCount0, HeaderLineList, HeaderLinesList_size)) {
+			            // This row has been specified as a header row so process it.
+			        	printHeaderLine ( line );
+			            headerFields = DataTable.parseFile_ParseHeaderLine ( line, linecount0, TrimInput_Boolean, Delimiter, parseFlagHeader );
+		                this.headers_found = true;
+			            continue;
+			        }
+			    }
+			}
+
+			if ( linecount0 <= HeaderLinesList_maxval ) {
+			    // Currently only allow one header row so need to ignore other rows that are found
+			    // (don't want them considered as data).
+			    if ( DataTable.parseFile_LineMatchesLineFromList(linecount0,HeaderLineList, HeaderLinesList_size)) {
+			        continue;
+			    }
+			}
+
+			++this.dataLineCount;
+			// If "Top" was specified as a parameter, skip lines after top.
+			if ( (top >= 0) && (this.dataLineCount > top) ) {
+				this.done = true;
+				return null;
+			}
+			return line;
+		}
+	}
+
+	/**
+	Print the header line, only for the first pass through the file.
+	*/
+	private void printHeaderLine ( String line ) {
+		if ( !headerPrinted ) {
+			Message.printStatus(2, DataTable.class.getSimpleName() + ".parseFile", "Header line to parse:" + line);
+			headerPrinted = true;
+		}
+	}
+}
+
+/**
+Construct the parser and interpret the properties.
+@param filename the name of the file from which to read the table data,
+will be ignored if the BufferedReader property is provided.
+@param props properties to control parsing, as described in DataTable.parseFile().
+*/
+DataTableDelimitedFileParser ( String filename, PropList props ) {
+    String routine = DataTable.class.getSimpleName() + ".parseFile";
+    this.filename = filename;
+	if ( props == null ) {
+		props = new PropList(""); // To simplify code below.
+	}
+
+	// Default is to treat column types as all strings, which is fastest:
+	// - setting ColumnDataTypes=Auto will determine column types by data
+    String propVal = props.getValue("ColumnDataTypes");
+    if ( propVal != null ) {
+    	if ( propVal.equalsIgnoreCase("Auto") ) {
+    		this.ColumnDataTypes_Auto_boolean = true;
+    	}
+    	else if ( propVal.equalsIgnoreCase("AllStrings") ) {
+    		this.ColumnDataTypes_Auto_boolean = false;
+    	}
+    }
+
+	propVal = props.getValue("Delimiter");
+	if (propVal != null) {
+        this.Delimiter = propVal;
+	}
+
+    propVal = props.getValue("HeaderLines");
+    if ( propVal == null ) {
+        // Use older form.
+        propVal = props.getValue("HeaderRows");
+        if ( propVal != null ) {
+            Message.printWarning(3, routine, "Need to convert HeaderRows parameter to HeaderLines in software." );
+        }
+    }
+    if ( (propVal == null) || (propVal.length() == 0) ) {
+        // Default is determine header lines automatically.
+        this.HeaderLines_Auto_boolean = true;
+    }
+    else {
+        // Interpret the HeaderLines property.
+        Message.printStatus ( 2, routine, "HeaderLines=\"" + propVal + "\"" );
+        if ( propVal.equalsIgnoreCase("Auto")) {
+            this.HeaderLines_Auto_boolean = true;
+        }
+        else {
+            // Determine the list of rows for the header.
+            List<String> headerRowList = StringUtil.breakStringList ( propVal, ", ", StringUtil.DELIM_SKIP_BLANKS );
+            if ( headerRowList.size() > 1 ) {
+            	Message.printWarning(3, routine,
+            		"Currently only know how to handle a single header line (headers must be on one line in file).");
+            	// Remove the remaining header line numbers.
+            	for ( int i = (headerRowList.size() - 1); i > 0; --i ) {
+            		headerRowList.remove(i);
+            	}
+            }
+            // Code below can handle multiple header lines but will only parse one line for now.
+            for ( String vi : headerRowList) {
+                if ( StringUtil.isInteger(vi)) {
+                	// Single integer.
+                    int row = Integer.parseInt(vi);
+                    Message.printStatus ( 2, routine, "Header row is [" + row + "]");
+                    this.HeaderLineList.add(Integer.valueOf(row));
+                    this.HeaderLinesList_maxval = Math.max(this.HeaderLinesList_maxval, row);
+                }
+                else {
+                	// Check whether a range of integers such as 0-1.
+                    int pos = vi.indexOf("-");
+                    if ( pos >= 0 ) {
+                        // Specifying a range of values.
+                        int first_header = -1;
+                        int last_header = -1;
+                        if ( pos == 0 ) {
+                            // First index is 0.
+                            first_header = 0;
+                        }
+                        else {
+                            // Get first header row, zero index.
+                            first_header = Integer.parseInt(vi.substring(0,pos).trim());
+                        }
+                        // Get the last header row, zero index.
+                        last_header = Integer.parseInt(vi.substring(pos+1).trim());
+                        // Add a list of integers corresponding to the header rows, zero index.
+                        for ( int is = first_header; is <= last_header; is++ ) {
+                            this.HeaderLineList.add(Integer.valueOf(is));
+                            this.HeaderLinesList_maxval = Math.max(this.HeaderLinesList_maxval, is);
+                        }
+                    }
+                }
+            }
+        }
+    }
+    // Use to speed up code below when checking for header rows.
+    this.HeaderLinesList_size = this.HeaderLineList.size();
+
+    propVal = props.getValue("ColumnNames");
+    if ( (propVal != null) && !propVal.isEmpty() ) {
+    	// Use the column names that are specified (otherwise headers may be found below).
+		this.columnNames = propVal.split(",");
+		for ( int i = 0; i < this.columnNames.length; i++ ) {
+			this.columnNames[i] = this.columnNames[i].trim();
+		}
+    }
+
+    this.dateTimeColumns = parseColumnList ( props.getValue("DateTimeColumns") );
+    this.doubleColumns = parseColumnList ( props.getValue("DoubleColumns") );
+    this.integerColumns = parseColumnList ( props.getValue("IntegerColumns") );
+    this.textColumns = parseColumnList ( props.getValue("TextColumns") );
+
+    propVal = props.getValue("Top");
+    if ( (propVal != null) && !propVal.isEmpty() ) {
+    	try {
+    		this.top = Integer.parseInt(propVal);
+    	}
+    	catch ( NumberFormatException e ) {
+    		// Just process all.
+    	}
+    }
+
+	// Retain the quotes in data records makes sure that quoted numbers come across as intended as literal strings.
+    // This is important when numbers are zero padded, such as for station identifiers.
+	// The problem is that it will result in embedded escaped quotes "" in the output.
+	propVal = props.getValue("MergeDelimiters");
+	if (propVal != null) {
+		this.parseFlag |= StringUtil.DELIM_SKIP_BLANKS;
+		this.parseFlagHeader |= StringUtil.DELIM_SKIP_BLANKS;
+	}
+
+	propVal = props.getValue("CommentLineIndicator");
+	if (propVal != null) {
+        this.CommentLineIndicator = propVal;
+	}
+
+    propVal = props.getValue("SkipLines");
+    if ( propVal == null ) {
+        // Try the older form.
+        propVal = props.getValue("SkipRows");
+        if ( propVal != null ) {
+            Message.printWarning(3, routine, "Need to convert SkipRows parameter to SkipLines in software." );
+        }
+    }
+    if ( (propVal != null) && (propVal.length() > 0) ) {
+        // Determine the list of rows to skip.
+        List<String> v = StringUtil.breakStringList ( propVal, ", ", StringUtil.DELIM_SKIP_BLANKS );
+        int vsize = 0;
+        if ( v != null ) {
+            vsize = v.size();
+        }
+        for ( int i = 0; i < vsize; i++ ) {
+            String vi = v.get(i);
+            if ( StringUtil.isInteger(vi)) {
+                int row = Integer.parseInt(vi);
+                this.skipLinesList.add(Integer.valueOf(row));
+                this.skipLinesList_maxval = Math.max(this.skipLinesList_maxval, row);
+            }
+            else {
+                int pos = vi.indexOf("-");
+                if ( pos >= 0 ) {
+                    // Specifying a range of values.
+                    int first_to_skip = -1;
+                    int last_to_skip = -1;
+                    if ( pos == 0 ) {
+                        // First index is 0.
+                        first_to_skip = 0;
+                    }
+                    else {
+                        // Get first to skip.
+                        first_to_skip = Integer.parseInt(vi.substring(0,pos).trim());
+                    }
+                    last_to_skip = Integer.parseInt(vi.substring(pos+1).trim());
+                    for ( int is = first_to_skip; is <= last_to_skip; is++ ) {
+                        this.skipLinesList.add(Integer.valueOf(is));
+                        this.skipLinesList_maxval = Math.max(this.skipLinesList_maxval, is);
+                    }
+                }
+            }
+        }
+    }
+    // Use to speed up code below.
+    this.skipLinesList_size = this.skipLinesList.size();
+
+	propVal = props.getValue("TrimInput");
+	if ( (propVal != null) && propVal.equalsIgnoreCase("true") ) {
+		this.TrimInput_Boolean = true;
+	}
+
+	propVal = props.getValue("TrimStrings");
+	if ( (propVal != null) && propVal.equalsIgnoreCase("true") ) {
+		this.TrimStrings_boolean = true;
+	}
+
+	propVal = props.getValue("ColumnTypeSampleSize");
+	if ( (propVal != null) && !propVal.isEmpty() ) {
+		try {
+			this.columnTypeSampleSize = Integer.parseInt(propVal.trim());
+		}
+		catch ( NumberFormatException e ) {
+			Message.printWarning(3, routine, "ColumnTypeSampleSize (" + propVal + ") is invalid - examining all data.");
+		}
+	}
+
+	propVal = props.getValue("ParseThreads");
+	if ( (propVal != null) && !propVal.isEmpty() ) {
+		try {
+			this.parseThreads = Integer.parseInt(propVal.trim());
+		}
+		catch ( NumberFormatException e ) {
+			Message.printWarning(3, routine, "ParseThreads (" + propVal + ") is invalid - using default.");
+		}
+	}
+
+	Object object = props.getContents("BufferedReader");
+	if ( object != null ) {
+		// Use the provided BufferedReader.
+		this.bufferedReader = (BufferedReader)object;
+	}
+}
+
+/**
+Add a chunk of converted records to the table, adding columns if the chunk has more columns than the table
+and padding records that have fewer columns.
+@param table table being filled
+@param result chunk result containing the records
+@param tableFieldType column types, or null if all strings
+@param firstRow the included data row index (0+) for the first record in the chunk, for messages
+@return the number of errors adding records
+*/
+private int addChunkRecords ( DataTable table, ChunkResult result, int [] tableFieldType, int firstRow ) {
+	String routine = DataTable.class.getSimpleName() + ".parseFile";
+	int errorCount = 0;
+	List<TableField> tableFields = table._table_fields;
+	for ( int icol = tableFields.size(); icol < result.stats.maxColumns; icol++ ) {
+		// All strings are being read and the chunk has more columns than previous chunks.
+		table.addField ( newExtraField(tableFields, icol), "" );
+	}
+	int numFields = table.getNumberOfFields();
+	int irow = firstRow;
+	for ( TableRecord tablerec : result.records ) {
+		// If the specific record does not have enough columns, pad the columns at the end with blanks,
+		// using blank strings or NaN for number fields.  This depends on whether headings were read.
+		// Sometimes the header row has more columns than data rows,
+		// in particular because breakStringList() will drop an empty field at the end.
+		for ( int icol = tablerec.getNumberOfFields(); icol < numFields; icol++) {
+		    if ( tableFieldType != null ) {
+		        // Add values based on the column type.
+		        if ( tableFieldType[icol] == TableField.DATA_TYPE_STRING ) {
+		            tablerec.addFieldValue( "" );
+		        }
+		        else {
+                    tablerec.addFieldValue( null );
+                }
+		    }
+		    else {
+		        // Add a blank string.
+		        tablerec.addFieldValue("");
+		    }
+		}
+		try {
+		    table.addRecord(tablerec);
+		}
+		catch ( Exception e ) {
+		    Message.printWarning ( 3, routine, "Error adding row to table at included data row [" + irow +
+		        "] (" + e + ")." );
+		    ++errorCount;
+		}
+		++irow;
+	}
+	return errorCount;
+}
+
+/**
+Add fields for columns in the data that are not in the header.
+@param tableFields table fields to add to
+@param maxColumns maximum number of columns in the data
+*/
+private void addExtraFields ( List<TableField> tableFields, int maxColumns ) {
+	for ( int icol = tableFields.size(); icol < maxColumns; icol++ ) {
+		tableFields.add ( newExtraField(tableFields, icol) );
+	}
+}
+
+/**
+Throw an exception if there were errors adding records.
+*/
+private void checkErrors ( int errorCount )
+throws Exception {
+	if ( errorCount > 0 ) {
+	    // There were errors processing the data.
+	    String message = "There were " + errorCount + " errors processing the data.";
+	    Message.printWarning ( 3, DataTable.class.getSimpleName() + ".parseFile", message );
+	    throw new Exception ( message );
+	}
+}
+
+/**
+Convert the tokens for a data row into a table record.
+The record will have only the columns that were parsed and is padded when added to the table.
+@param tokens tokens for the data row
+@param tableFieldType column types, or null if all strings
+@return the record
+@exception NumberFormatException if a cell cannot be converted to the column type
+@exception ArrayIndexOutOfBoundsException if the row has more columns than the column types
+*/
+private TableRecord convertRecord ( List<String> tokens, int [] tableFieldType ) {
+	TableRecord tablerec = new TableRecord(tokens.size());
+	int cols = tokens.size();
+	String cell;
+	for (int icol = 0; icol < cols; icol++) {
+		if (this.TrimStrings_boolean) {
+		    cell = tokens.get(icol).trim();
+		}
+		else {
+			cell = tokens.get(icol);
+		}
+		if ( tableFieldType != null ) {
+		    // Set the data as an object of the column type.
+		    if ( tableFieldType[icol] == TableField.DATA_TYPE_INT ) {
+	    		// Some data has quotes around numbers so remove.
+		    	cell = cell.trim().replace("\"","");
+		    	if ( DataTable.parseFile_CellContentsNull(cell) ) {
+		    		tablerec.addFieldValue ( null );
+		    	}
+		    	else {
+		    		tablerec.addFieldValue( Integer.valueOf(cell) );
+		    	}
+		    }
+		    else if ( tableFieldType[icol] == TableField.DATA_TYPE_DATETIME ) {
+		    	cell = cell.trim();
+		    	if ( DataTable.parseFile_CellContentsNull(cell) ) {
+		    		tablerec.addFieldValue ( null );
+		    	}
+		    	else {
+		    		try {
+		    			// Some data has quotes around date/times so remove.
+		    			tablerec.addFieldValue( DateTime.parse(cell.replace("\"", "")) );
+		    		}
+		    		catch ( Exception e ) {
+		    			tablerec.addFieldValue ( null );
+		    		}
+		    	}
+            }
+		    else if ( tableFieldType[icol] == TableField.DATA_TYPE_DOUBLE ) {
+	    		// Some data has quotes around numbers so remove.
+		    	cell = cell.trim().replace("\"", "");
+		    	if ( DataTable.parseFile_CellContentsNull(cell) ) {
+		    		tablerec.addFieldValue ( null );
+		    	}
+		    	else {
+		    		tablerec.addFieldValue( Double.valueOf(cell) );
+		    	}
+            }
+		    else {
+		    	// Know that it is a string.
+		    	// Could contain embedded "" that need to be replaced with single ".
+		    	tablerec.addFieldValue( DataTable.parseFile_ProcessString(cell) );
+		    }
+		}
+		else {
+		    // Set as the string value.
+		    tablerec.addFieldValue( DataTable.parseFile_ProcessString(cell) );
+        }
+	}
+	return tablerec;
+}
+
+/**
+Determine the column type, using the specified column types and then the data.
+@param tableField table field for the column
+@param icol column index
+@param stats statistics for the data
+@return the column type
+*/
+private int getColumnType ( TableField tableField, int icol, ColumnStats stats ) {
+	int specifiedType = getSpecifiedColumnType ( tableField.getName() );
+	if ( specifiedType >= 0 ) {
+		return specifiedType;
+	}
+	else if ( (stats.count_int[icol] > 0) && (stats.count_string[icol] == 0) &&
+	    ((stats.count_double[icol] == 0) || (stats.count_int[icol] == stats.count_double[icol])) ) {
+		// All data are integers so assume column type is integer.
+		// Note that integers also meet the criteria of double, hence the extra check above.
+		return TableField.DATA_TYPE_INT;
+	}
+	else if ( (stats.count_double[icol] > 0) && (stats.count_string[icol] == 0) ) {
+		// All data are double (integers will also count as double) so assume column type is double.
+		return TableField.DATA_TYPE_DOUBLE;
+	}
+	else {
+		// Based on what is known, can only treat column as containing strings.
+		return TableField.DATA_TYPE_STRING;
+	}
+}
+
+/**
+Determine the column types for all table fields, without modifying the fields.
+@param tableFields table fields, which must include a field for each data column
+@param stats statistics for the data
+@return the type for each table field
+*/
+private int [] getColumnTypes ( List<TableField> tableFields, ColumnStats stats ) {
+	int [] tableFieldType = new int[tableFields.size()];
+	for ( int icol = 0; icol < tableFieldType.length; icol++ ) {
+		if ( icol < stats.maxColumns ) {
+			tableFieldType[icol] = getColumnType ( tableFields.get(icol), icol, stats );
+		}
+		else {
+			tableFieldType[icol] = TableField.DATA_TYPE_STRING;
+		}
+	}
+	return tableFieldType;
+}
+
+/**
+Get the result from a future, unwrapping exceptions.
+*/
+private static ChunkResult getResult ( Future<ChunkResult> future )
+throws Exception {
+	try {
+		return future.get();
+	}
+	catch ( ExecutionException e ) {
+		Throwable cause = e.getCause();
+		if ( cause instanceof Exception ) {
+			throw (Exception)cause;
+		}
+		throw e;
+	}
+}
+
+/**
+Return the column type that is specified with the DateTimeColumns, DoubleColumns, IntegerColumns,
+or TextColumns properties, or -1 if not specified.
+*/
+private int getSpecifiedColumnType ( String name ) {
+	if ( isColumnInList(this.dateTimeColumns, name) ) {
+		return TableField.DATA_TYPE_DATETIME;
+	}
+	else if ( isColumnInList(this.doubleColumns, name) ) {
+		return TableField.DATA_TYPE_DOUBLE;
+	}
+	else if ( isColumnInList(this.integerColumns, name) ) {
+		return TableField.DATA_TYPE_INT;
+	}
+	else if ( isColumnInList(this.textColumns, name) ) {
+		return TableField.DATA_TYPE_STRING;
+	}
+	return -1;
+}
+
+/**
+Determine whether a column name is in a list, ignoring case.
+*/
+private static boolean isColumnInList ( String [] columns, String name ) {
+	if ( columns != null ) {
+		for ( int i = 0; i < columns.length; i++ ) {
+			if ( columns[i].equalsIgnoreCase(name) ) {
+				return true;
+			}
+		}
+	}
+	return false;
+}
+
+/**
+Create a table field for a column that is in the data but not the header.
+@param tableFields existing table fields, used to make sure that the name is unique
+@param icol column index (0+)
+@return a new string table field
+*/
+private TableField newExtraField ( List<TableField> tableFields, int icol ) {
+	if ( this.headerFields == null ) {
+		// Default field definition builds String fields.
+		return new TableField();
+	}
+	TableField tableField = new TableField();
+	String temp = "Field_" + (icol + 1);
+	while (DataTable.findPreviousFieldNameOccurances(tableFields,temp)) {
+		temp = temp + "_2";
+	}
+	tableField.setName(temp);
+	tableField.setDataType(TableField.DATA_TYPE_STRING);
+	return tableField;
+}
+
+/**
+Open the data lines for a pass through the data.
+*/
+private DataLineReader openDataLines ()
+throws IOException {
+	if ( this.dataLines != null ) {
+		// Data lines were retained in memory.
+		return new DataLineReader ( this.dataLines );
+	}
+	else if ( this.bufferedReader != null ) {
+		return new DataLineReader ( this.bufferedReader, true );
+	}
+	else {
+		// Use IOUtil so that files in zip files and gzip files can be read without extracting.
+		// Count the bytes for the command profile when the reader is closed (each pass through the file is counted).
+		return new DataLineReader ( new BufferedReader(new InputStreamReader(
+			new CommandProfileInputStream(IOUtil.getInputStream(this.filename)))), true );
+	}
+}
+
+/**
+Append data lines to a table that was read with the same properties, used by DataTableIncrementalReader.
+Comment lines are skipped and the lines are converted using the column types of the table.
+@param table table that was previously read
+@param lines data lines that were appended to the file
+@return true if the lines were appended, or false if the lines would change the column types
+(for example a double value in an integer column) or add columns to a table with types,
+in which case the file must be read again to get the same result as reading the full file
+*/
+boolean appendLines ( DataTable table, List<String> lines ) {
+	String routine = DataTable.class.getSimpleName() + ".parseFile";
+	int [] tableFieldType = null;
+	if ( this.ColumnDataTypes_Auto_boolean ) {
+		tableFieldType = table.getFieldDataTypes();
+		if ( tableFieldType == null ) {
+			tableFieldType = new int[0];
+		}
+	}
+	ChunkResult result = new ChunkResult();
+	result.records = new ArrayList<>(lines.size());
+	int numRecords = table.getNumberOfRecords();
+	List<String> tokens;
+	for ( String line : lines ) {
+		if ( (this.CommentLineIndicator != null) && line.startsWith(this.CommentLineIndicator) ) {
+		    continue;
+		}
+		if ( (this.top >= 0) && ((numRecords + result.records.size()) >= this.top) ) {
+			break;
+		}
+        if ( this.TrimInput_Boolean ) {
+			tokens = StringUtil.breakStringList(line.trim(), this.Delimiter, this.parseFlag );
+		}
+		else {
+            tokens = StringUtil.breakStringList(line, this.Delimiter, this.parseFlag );
+		}
+		if ( (tableFieldType != null) && (tokens.size() > tableFieldType.length) ) {
+			Message.printStatus ( 2, routine, "Appended line has more columns than the table - need to read all data." );
+			return false;
+		}
+		try {
+			result.records.add ( convertRecord(tokens, tableFieldType) );
+		}
+		catch ( NumberFormatException e ) {
+			Message.printStatus ( 2, routine, "Appended line does not match column types - need to read all data." );
+			return false;
+		}
+		result.stats.add ( tokens, this.TrimStrings_boolean );
+	}
+	int errorCount = addChunkRecords ( table, result, tableFieldType, numRecords );
+	if ( errorCount > 0 ) {
+		Message.printWarning ( 3, routine, "There were " + errorCount + " errors appending data." );
+	}
+	// Increase the width and precision for the appended data, consistent with examining all data.
+	List<TableField> tableFields = table._table_fields;
+	for ( int icol = 0; (icol < result.stats.maxColumns) && (icol < tableFields.size()); icol++ ) {
+		TableField tableField = tableFields.get(icol);
+		int type = tableField.getDataType();
+		if ( (type == TableField.DATA_TYPE_DATETIME) ||
+			(this.ColumnDataTypes_Auto_boolean && (getSpecifiedColumnType(tableField.getName()) >= 0)) ) {
+			continue;
+		}
+		if ( result.stats.lenmax_string[icol] > tableField.getWidth() ) {
+			tableField.setWidth ( result.stats.lenmax_string[icol] );
+		}
+		if ( (type == TableField.DATA_TYPE_DOUBLE) && (result.stats.precision[icol] > tableField.getPrecision()) ) {
+			tableField.setPrecision ( result.stats.precision[icol] );
+		}
+	}
+	return true;
+}
+
+/**
+Parse the file.
+@return the DataTable that was created.
+@throws Exception if an error occurs
+*/
+DataTable parse ()
+throws Exception {
+	String routine = DataTable.class.getSimpleName() + ".parseFile";
+	int nthreads = this.parseThreads;
+	if ( nthreads < 0 ) {
+		// Default is to parse in parallel only for large files.
+		nthreads = 1;
+		if ( (this.bufferedReader == null) && (new File(this.filename).length() >= PARALLEL_FILE_SIZE) ) {
+			nthreads = Math.min(8, Runtime.getRuntime().availableProcessors());
+		}
+	}
+	this.threadCount = nthreads;
+	if ( !this.ColumnDataTypes_Auto_boolean ) {
+		// All strings so convert the data in one pass.
+		return parseAllStrings();
+	}
+	if ( this.bufferedReader != null ) {
+		// The data need to be read more than once so retain the data lines.
+		List<String> lines = new ArrayList<>();
+		DataLineReader in = openDataLines ();
+		try {
+			String line;
+			while ( (line = in.next()) != null ) {
+				lines.add ( line );
+			}
+		}
+		finally {
+			in.close();
+		}
+		this.dataLines = lines;
+	}
+	if ( this.columnTypeSampleSize > 0 ) {
+		DataTable table = parseWithSample();
+		if ( table != null ) {
+			return table;
+		}
+		Message.printStatus(2, routine, "Column types from the first " + this.columnTypeSampleSize +
+			" data lines do not match all data - examining all data to determine column types.");
+	}
+	return parseWithAllData();
+}
+
+/**
+Parse the file when all columns are read as strings, converting the data in one pass.
+*/
+private DataTable parseAllStrings ()
+throws Exception {
+	DataLineReader in = openDataLines ();
+	try {
+		// Read the first data line so that the header is processed before creating the table.
+		String firstLine = in.next();
+		List<TableField> tableFields = (this.headerFields == null) ? new ArrayList<>() : this.headerFields;
+		DataTable table = new DataTable(tableFields);
+		table._haveDataInMemory = true;
+		ColumnStats stats = new ColumnStats();
+		int [] errorCount = new int[1];
+		int [] row = new int[1];
+		processLines ( in, firstLine, null, true, result -> {
+			stats.add ( result.stats );
+			errorCount[0] += addChunkRecords ( table, result, null, row[0] );
+			row[0] += result.records.size();
+			return true;
+		});
+		setColumnTypes ( table._table_fields, stats );
+		checkErrors ( errorCount[0] );
+		return table;
+	}
+	finally {
+		in.close();
+	}
+}
+
+/**
+Parse a comma-separated list of column names, returning null if not specified.
+*/
+private static String [] parseColumnList ( String propVal ) {
+    if ( (propVal != null) && !propVal.isEmpty() ) {
+    	String [] columns = propVal.split(",");
+        for ( int i = 0; i < columns.length; i++ ) {
+        	columns[i] = columns[i].trim();
+        }
+        return columns;
+    }
+    return null;
+}
+
+/**
+Parse the file by examining all data to determine column types and then converting the data.
+*/
+private DataTable parseWithAllData ()
+throws Exception {
+	// First pass to examine the data.
+	ColumnStats stats = new ColumnStats();
+	List<TableField> tableFields = null;
+	DataLineReader in = openDataLines ();
+	try {
+		processLines ( in, in.next(), null, false, result -> {
+			stats.add(result.stats);
+			return true;
+		});
+		// The header is processed when reading the first line so the fields are known.
+		tableFields = (this.headerFields == null) ? new ArrayList<>() : this.headerFields;
+	}
+	finally {
+		in.close();
+	}
+	// Make sure that the table fields are in place for the maximum number of columns.
+	addExtraFields ( tableFields, stats.maxColumns );
+	int [] tableFieldType = setColumnTypes ( tableFields, stats );
+
+	// Second pass to convert the data.
+	DataTable table = new DataTable(tableFields);
+	table._haveDataInMemory = true;
+	int [] errorCount = new int[1];
+	int [] row = new int[1];
+	in = openDataLines ();
+	try {
+		processLines ( in, in.next(), tableFieldType, true, result -> {
+			errorCount[0] += addChunkRecords ( table, result, tableFieldType, row[0] );
+			row[0] += result.records.size();
+			return true;
+		});
+	}
+	finally {
+		in.close();
+	}
+	checkErrors ( errorCount[0] );
+	return table;
+}
+
+/**
+Parse the file using column types determined from the first data lines.
+@return the table, or null if the remaining data indicate different column types,
+in which case all data must be examined.
+*/
+private DataTable parseWithSample ()
+throws Exception {
+	DataLineReader in = openDataLines ();
+	try {
+		// Read the sample lines, which also processes the header.
+		List<String> sampleLines = new ArrayList<>();
+		String line;
+		while ( (sampleLines.size() < this.columnTypeSampleSize) && ((line = in.next()) != null) ) {
+			sampleLines.add ( line );
+		}
+		ColumnStats sampleStats = processChunk ( sampleLines, null, false, false ).stats;
+		List<TableField> tableFields = (this.headerFields == null) ? new ArrayList<>() : this.headerFields;
+		addExtraFields ( tableFields, sampleStats.maxColumns );
+		int [] tableFieldType = getColumnTypes ( tableFields, sampleStats );
+		for ( int icol = 0; icol < tableFieldType.length; icol++ ) {
+			tableFields.get(icol).setDataType ( tableFieldType[icol] );
+		}
+		// Convert the sample and remaining lines, checking that the column types remain valid.
+		DataTable table = new DataTable(tableFields);
+		table._haveDataInMemory = true;
+		ColumnStats stats = new ColumnStats();
+		int [] errorCount = new int[1];
+		int [] row = new int[1];
+		boolean [] typeMismatch = new boolean[1];
+		ChunkSink sink = result -> {
+			stats.add ( result.stats );
+			if ( result.typeMismatch || (stats.maxColumns > tableFieldType.length) ) {
+				typeMismatch[0] = true;
+				return false;
+			}
+			errorCount[0] += addChunkRecords ( table, result, tableFieldType, row[0] );
+			row[0] += result.records.size();
+			return true;
+		};
+		if ( sink.accept(processChunk(sampleLines, tableFieldType, true, true)) ) {
+			sampleLines = null;
+			processLines ( in, in.next(), tableFieldType, true, sink );
+		}
+		if ( typeMismatch[0] || !java.util.Arrays.equals(tableFieldType, getColumnTypes(tableFields, stats)) ) {
+			return null;
+		}
+		// Set the width and precision from all data.
+		setColumnTypes ( tableFields, stats );
+		checkErrors ( errorCount[0] );
+		return table;
+	}
+	finally {
+		in.close();
+	}
+}
+
+/**
+Process a chunk of data lines, examining the data and optionally converting to records.
+This may be called from multiple threads.
+@param lines data lines to process
+@param tableFieldType column types for conversion, or null if all strings
+@param convert whether to convert the lines to records
+@param checkTypes whether to check that the data can be converted to the column types,
+used when the column types were determined from a sample
+@return the result for the chunk
+*/
+private ChunkResult processChunk ( List<String> lines, int [] tableFieldType, boolean convert, boolean checkTypes ) {
+	ChunkResult result = new ChunkResult();
+	if ( convert ) {
+		result.records = new ArrayList<>(lines.size());
+	}
+	List<String> tokens;
+	for ( String line : lines ) {
+        if ( this.TrimInput_Boolean ) {
+			tokens = StringUtil.breakStringList(line.trim(), this.Delimiter, this.parseFlag );
+		}
+		else {
+            tokens = StringUtil.breakStringList(line, this.Delimiter, this.parseFlag );
+		}
+		result.stats.add ( tokens, this.TrimStrings_boolean );
+		if ( convert && !result.typeMismatch ) {
+			if ( checkTypes ) {
+				if ( tokens.size() > tableFieldType.length ) {
+					result.typeMismatch = true;
+					continue;
+				}
+				try {
+					result.records.add ( convertRecord(tokens, tableFieldType) );
+				}
+				catch ( NumberFormatException e ) {
+					result.typeMismatch = true;
+				}
+			}
+			else {
+				result.records.add ( convertRecord(tokens, tableFieldType) );
+			}
+		}
+	}
+	return result;
+}
+
+/**
+Process data lines in chunks, in parallel if more than one thread is used, passing results to the sink in file order.
+@param in data lines
+@param firstLine first data line, which has already been read, or null if no data
+@param tableFieldType column types for conversion, or null if all strings
+@param convert whether to convert the lines to records
+@param sink consumer for the chunk results
+*/
+private void processLines ( DataLineReader in, String firstLine, int [] tableFieldType, boolean convert, ChunkSink sink )
+throws Exception {
+	// Limit the number of chunks that are read ahead of the sink, which also limits the threads that are used.
+	int maxPending = 2*this.threadCount;
+	boolean checkTypes = convert && (tableFieldType != null) && (this.columnTypeSampleSize > 0);
+	ArrayDeque<Future<ChunkResult>> pending = new ArrayDeque<>();
+	String line = firstLine;
+	try {
+		while ( line != null ) {
+			List<String> lines = new ArrayList<>(CHUNK_SIZE);
+			while ( (line != null) && (lines.size() < CHUNK_SIZE) ) {
+				lines.add ( line );
+				line = in.next();
+			}
+			if ( this.threadCount <= 1 ) {
+				if ( !sink.accept(processChunk(lines, tableFieldType, convert, checkTypes)) ) {
+					return;
+				}
+			}
+			else {
+				pending.add ( DaemonThreadPool.submit(() -> processChunk(lines, tableFieldType, convert, checkTypes)) );
+				if ( (pending.size() >= maxPending) && !sink.accept(getResult(pending.poll())) ) {
+					return;
+				}
+			}
+		}
+		while ( !pending.isEmpty() ) {
+			if ( !sink.accept(getResult(pending.poll())) ) {
+				return;
+			}
+		}
+	}
+	finally {
+		for ( Future<ChunkResult> future : pending ) {
+			future.cancel ( true );
+		}
+	}
+}
+
+/**
+Set the table field types, width, and precision based on the specified column types and examination of the data.
+@param tableFields table fields, which must include a field for each data column
+@param stats statistics for all data
+@return the type for each table field
+*/
+private int [] setColumnTypes ( List<TableField> tableFields, ColumnStats stats ) {
+	String routine = DataTable.class.getSimpleName() + ".parseFile";
+	int maxColumns = stats.maxColumns;
+	int [] count_int = stats.count_int;
+	int [] count_double = stats.count_double;
+	int [] count_string = stats.count_string;
+	int [] count_blank = stats.count_blank;
+	int [] lenmax_string = stats.lenmax_string;
+	int [] precision = stats.precision;
+	int [] tableFieldType = new int[tableFields.size()];
+	TableField tableField;
+	if ( this.ColumnDataTypes_Auto_boolean ) {
+    	for ( int icol = 0; icol < maxColumns; icol++ ) {
+    	    tableField = tableFields.get(icol);
+    		// Set column type based on calling code specified type and then discovery from data.
+    	    int specifiedType = getSpecifiedColumnType ( tableField.getName() );
+    	    int type = getColumnType ( tableField, icol, stats );
+    	    tableField.setDataType(type);
+    	    tableFieldType[icol] = type;
+    	    if ( type == TableField.DATA_TYPE_DATETIME ) {
+    	        Message.printStatus ( 2, routine, "Column [" + icol +
+    	            "] \"" + tableField.getName() + "\" type \"" + TableField.getDataTypeAsString(tableField.getDataType()) +
+    	            "\" is date/time as determined from specified column type (" + count_int[icol] +
+                    " integers, " + count_double[icol] + " doubles, " + count_string[icol] + " strings, " +
+                    count_blank[icol] + " blanks, width=" + lenmax_string[icol] + ", precision=" + precision[icol] + ".");
+    	    }
+    	    else if ( (type == TableField.DATA_TYPE_DOUBLE) && (specifiedType >= 0) ) {
+    	        Message.printStatus ( 2, routine, "Column [" + icol +
+    	            "] \"" + tableField.getName() + "\" type \"" + TableField.getDataTypeAsString(tableField.getDataType()) +
+    	            "\" is double as determined from specified column type (" + count_int[icol] +
+                    " integers, " + count_double[icol] + " doubles, " + count_string[icol] + " strings, " +
+                    count_blank[icol] + " blanks, width=" + lenmax_string[icol] + ", precision=" + precision[icol] + ".");
+                tableField.setWidth (lenmax_string[icol] );
+                tableField.setPrecision ( precision[icol] );
+    	    }
+    	    else if ( (type == TableField.DATA_TYPE_INT) && (specifiedType >= 0) ) {
+    	        Message.printStatus ( 2, routine, "Column [" + icol +
+    	            "] \"" + tableField.getName() + "\" type \"" + TableField.getDataTypeAsString(tableField.getDataType()) +
+    	            "\" is integer as determined from specified column type (" + count_int[icol] +
+                    " integers, " + count_double[icol] + " doubles, " + count_string[icol] + " strings, " +
+                    count_blank[icol] + " blanks, width=" + lenmax_string[icol] + ", precision=" + precision[icol] + ".");
+    	    }
+    	    else if ( (type == TableField.DATA_TYPE_STRING) && (specifiedType >= 0) ) {
+    	        if ( lenmax_string[icol] <= 0 ) {
+    	            // Likely that the entire column of numbers is empty so set the width to the field name width if available).
+    	            tableField.setWidth (tableFields.get(icol).getName().length() );
+    	        }
+    	        else {
+    	            tableField.setWidth (lenmax_string[icol] );
+    	        }
+    	        Message.printStatus ( 2, routine, "Column [" + icol +
+    	            "] \"" + tableField.getName() + "\" type \"" + TableField.getDataTypeAsString(tableField.getDataType()) +
+    	            "\" is string as determined from specified column type (" + count_int[icol] +
+                    " integers, " + count_double[icol] + " doubles, " + count_string[icol] + " strings, " +
+                    count_blank[icol] + " blanks, width=" + lenmax_string[icol] + ", precision=" + precision[icol] + ".");
+    	    }
+    	    else if ( type == TableField.DATA_TYPE_INT ) {
+    	        // TODO SAM 2013-02-17 Need to handle DATA_TYPE_LONG.
+    	        tableField.setWidth (lenmax_string[icol] );
+    	        Message.printStatus ( 2, routine, "Column [" + icol +
+    	            "] \"" + tableField.getName() + "\" type \"" + TableField.getDataTypeAsString(tableField.getDataType()) +
+    	            "\" is integer as determined from examining data (" + count_int[icol] +
+    	            " integers, " + count_double[icol] + " doubles, " + count_string[icol] + " strings, " +
+                    count_blank[icol] + " blanks).");
+    	    }
+    	    else if ( type == TableField.DATA_TYPE_DOUBLE ) {
+                tableField.setWidth (lenmax_string[icol] );
+                tableField.setPrecision ( precision[icol] );
+                Message.printStatus ( 2, routine, "Column [" + icol +
+                    "] \"" + tableField.getName() + "\" type \"" + TableField.getDataTypeAsString(tableField.getDataType()) +
+    	            "\" is double as determined from examining data (" + count_int[icol] +
+                    " integers, " + count_double[icol] + " doubles, " + count_string[icol] + " strings, " +
+                    count_blank[icol] + " blanks, width=" + lenmax_string[icol] + ", precision=" + precision[icol] + ".");
+            }
+    	    else {
+    	        if ( lenmax_string[icol] <= 0 ) {
+    	            // Likely that the entire column of numbers is empty so set the width to the field name width if available).
+    	            tableField.setWidth (tableFields.get(icol).getName().length() );
+    	        }
+    	        else {
+    	            tableField.setWidth (lenmax_string[icol] );
+    	        }
+    	        Message.printStatus ( 2, routine, "Column [" + icol +
+                    "] \"" + tableField.getName() + "\" type \"" + TableField.getDataTypeAsString(tableField.getDataType()) +
+    	            "\" is string as determined from examining data (" + count_int[icol] +
+                    " integers, " + count_double[icol] + " doubles, " + count_string[icol] + " strings), " +
+                    count_blank[icol] + " blanks.");
+    	    }
+    	}
+	}
+	else {
+	    // All are strings (from above but reset just in case).
+	    for ( int icol = 0; icol < maxColumns; icol++ ) {
+	        tableField = tableFields.get(icol);
+	        tableField.setDataType(TableField.DATA_TYPE_STRING);
+	        tableFieldType[icol] = TableField.DATA_TYPE_STRING;
+	        tableField.setWidth (lenmax_string[icol] );
+	        Message.printStatus ( 2, routine,"Column [" + icol + "] \"" + tableField.getName() +
+	        	"\" type \"" + TableField.getDataTypeAsString(tableField.getDataType()) +
+    	        "\" is " + tableField.getDataType() + " all strings assumed, width=" + tableField.getWidth() );
+	    }
+	}
+	// The data fields may have less columns than the headers and if so set the field type of the unknown columns to string.
+	for ( int icol = maxColumns; icol < tableFields.size(); icol++) {
+	    tableFieldType[icol] = TableField.DATA_TYPE_STRING;
+	}
+	return tableFieldType;
+}
+
+}
@@ -0,0 +1,105 @@
+// DataTableIncrementalReader - read rows that are appended to a delimited file into a DataTable
+
+
+/* NoticeStart
+
+CDSS Common Java Library
+CDSS Common Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2025 Colorado Department of Natural Resources
+
+CDSS Common Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+CDSS Common Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with CDSS Common Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package RTi.Util.Table;
+
+import java.io.BufferedReader;
+import java.util.List;
+
+import RTi.Util.IO.IncrementalFileReader;
+import RTi.Util.IO.PropList;
+
+/**
+Read a delimited file into a DataTable and then add rows that are appended to the file, without reading the full file.
+This is useful for real-time data feeds that append rows to a CSV file every few minutes.
+The file is first read with DataTable.parseFile() and each refresh adds the appended rows to the same table,
+using the column types that were determined when the file was read.
+If appended rows would change the column types (for example a double value in an integer column when
+ColumnDataTypes=Auto) or add columns, or the file was truncated or replaced,
+the file is read again so that the table is always the same as reading the full file.
+A new table is created when the file is read again.
+<p>
+The properties are the same as for DataTable.parseFile().
+HeaderLines, SkipLines and Top are applied when the full file is read,
+and comment lines and Top are also applied to appended lines.
+*/
+public class DataTableIncrementalReader extends IncrementalFileReader
+{
+
+/**
+Properties for parsing, as for DataTable.parseFile().
+*/
+private final PropList props;
+
+/**
+Parser used to append lines, configured with the properties.
+*/
+private final DataTableDelimitedFileParser parser;
+
+/**
+Table that was read.
+*/
+private DataTable table = null;
+
+/**
+Construct the reader.  The file is read when refresh() is first called.
+@param filename name of the file to read, IOUtil.getPathUsingWorkingDir() is applied
+@param props properties to control parsing, as for DataTable.parseFile() (the BufferedReader property is ignored)
+*/
+public DataTableIncrementalReader ( String filename, PropList props ) {
+	super ( filename );
+	this.props = (props == null) ? new PropList("") : new PropList(props, false);
+	this.props.unSetAll ( "BufferedReader" );
+	this.parser = new DataTableDelimitedFileParser ( getFilename(), this.props );
+}
+
+/**
+Append lines to the table.
+*/
+@Override
+protected boolean append ( List<String> lines ) {
+	return this.parser.appendLines ( this.table, lines );
+}
+
+/**
+Return the table, which is replaced when the file is read again.
+The reader should be used for synchronization if the table is accessed while following the file.
+@return the table, or null if the file has not been read
+*/
+public synchronized DataTable getTable () {
+	return this.table;
+}
+
+/**
+Read all complete lines in the file.
+*/
+@Override
+protected void reload ( BufferedReader in )
+throws Exception {
+	PropList readProps = new PropList ( this.props, false );
+	readProps.setUsingObject ( "BufferedReader", in );
+	this.table = DataTable.parseFile ( getFilename(), readProps );
+}
+
+}
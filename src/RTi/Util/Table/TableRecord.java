@@ -106,17 +106,19 @@ public TableRecord ( TableRecord rec ) {
 	// Copy primitives.
 	this.__dirty = rec.__dirty;
 	this.__useArray = rec.__useArray;
-	this.__colIndexMax = rec.__colIndexMax;
+	// Use methods rather than data members because the record may be a view (e.g., of a DataTableColumnStore).
+	this.__colIndexMax = rec.getNumberOfFields() - 1;
+	Object [] recordArray = rec.getFieldValueArray();
 	// Now clone the record array including the objects in the record.
-	if ( rec.__recordArray == null ) {
+	if ( recordArray == null ) {
 		this.__recordArray = null;
 	}
 	else {
-		this.__recordArray = new Object[rec.__recordArray.length];
+		this.__recordArray = new Object[recordArray.length];
 		Object o;
-		for ( int i = 0; i < rec.__recordArray.length; i++ ) {
+		for ( int i = 0; i < recordArray.length; i++ ) {
 			// Could serialize but since only certain classes are handled by DataTable, can handle.
-			o = rec.__recordArray[i];
+			o = recordArray[i];
 			if ( o == null ) {
 				this.__recordArray[i] = null;
 			}
@@ -130,7 +132,7 @@ public TableRecord ( TableRecord rec ) {
 			else {
 				// Just set the value.
 				// TODO SAM 2014-01-09 Could be an issue since object is shared.
-				this.__recordArray[i] = rec.__recordArray[i];
+				this.__recordArray[i] = o;
 			}
 		}
 	}
@@ -274,6 +276,16 @@ throws Exception {
 	}      */
 }
 
+/**
+Return the array of field values, used when copying records.
+The array may be larger than the number of fields and must not be modified.
+Derived classes that are views of other storage should return a new array.
+@return the array of field values
+*/
+Object [] getFieldValueArray () {
+	return this.__recordArray;
+}
+
 /**
 Return the contents of a string record field.
 If the field is not of type string then the string version of the field is used from "" + field cast.
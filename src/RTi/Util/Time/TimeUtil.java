@@ -2335,7 +2335,7 @@ public static boolean isValidMonth ( String month ) {
 	}
 }
 
-private static String [] __validTimeZones = new String[0];
+private static volatile String [] __validTimeZones = new String[0];
 /**
 Determine whether a time zone is valid.
 This is needed because ava.util.TimeZone.getTimeZone(tz) will return GMT if the time zone is invalid.
@@ -2346,8 +2346,10 @@ public static boolean isValidTimeZone ( String timeZone ) {
 	// Surely the time zone data are static and there is no need to store another static copy?
 	// However, to improve performance, save a static array of previously validated time zones.
 	// First check the valid time zones.
-	for ( int i = 0; i < __validTimeZones.length; i++ ) {
-		if ( __validTimeZones[i].equals(timeZone) ) {
+	// Use a local reference because the array may be replaced by another thread.
+	String [] validTimeZones = __validTimeZones;
+	for ( int i = 0; i < validTimeZones.length; i++ ) {
+		if ( validTimeZones[i].equals(timeZone) ) {
 			return true;
 		}
 	}
@@ -2356,10 +2358,13 @@ public static boolean isValidTimeZone ( String timeZone ) {
 	for (String str : validIDs) {
 	    if ( str.equals(timeZone) ) {
 	    	// Add to the valid list by resizing the array and adding the new value.
-	    	String [] validTimeZones2 = new String[__validTimeZones.length + 1];
-	    	System.arraycopy(__validTimeZones, 0, validTimeZones2, 0, __validTimeZones.length);
+	    	// The new array is filled before it is saved so that other threads never see a null element.
+	    	// A time zone may be lost if threads add at the same time, which only means it will be checked again.
+	    	validTimeZones = __validTimeZones;
+	    	String [] validTimeZones2 = new String[validTimeZones.length + 1];
+	    	System.arraycopy(validTimeZones, 0, validTimeZones2, 0, validTimeZones.length);
+	    	validTimeZones2[validTimeZones2.length - 1] = timeZone;
 	    	__validTimeZones = validTimeZones2;
-	    	__validTimeZones[__validTimeZones.length -1] = timeZone;
 	       	return true;
 	    }
 	}
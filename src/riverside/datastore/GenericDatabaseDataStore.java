@@ -37,10 +37,12 @@ import java.util.Vector;
 import RTi.DMI.AbstractDatabaseDataStore;
 import RTi.DMI.DMI;
 import RTi.DMI.DMISelectStatement;
+import RTi.DMI.DMISession;
 import RTi.DMI.DMIUtil;
 import RTi.DMI.GenericDMI;
 import RTi.TS.TS;
 import RTi.TS.TSIdent;
+import RTi.TS.TSReadCache;
 import RTi.TS.TSUtil;
 import RTi.Util.GUI.InputFilter;
 import RTi.Util.GUI.InputFilter_JPanel;
@@ -83,6 +85,24 @@ public static final String TS_DATA_TABLE_DATETIME_COLUMN_PROP = "TimeSeriesDataT
 public static final String TS_DATA_TABLE_VALUE_COLUMN_PROP = "TimeSeriesDataTable_ValueColumn";
 public static final String TS_DATA_TABLE_FLAG_COLUMN_PROP = "TimeSeriesDataTable_FlagColumn";
 
+/**
+Property to enable the time series read cache, specified as the maximum size in megabytes.
+The cache is not used if the property is not specified or is 0.
+*/
+public static final String TS_CACHE_MAX_SIZE_PROP = "TimeSeriesCacheMaxSizeMB";
+
+/**
+Property to enable a connection pool so that threads reading from the datastore use separate connections,
+specified as the maximum number of pooled connections.
+A pool is not used if the property is not specified or is 0.
+*/
+public static final String CONNECTION_POOL_MAX_SIZE_PROP = "ConnectionPoolMaxSize";
+
+/**
+Property for the time in seconds after which an idle pooled connection is closed (default is 300).
+*/
+public static final String CONNECTION_POOL_IDLE_TIMEOUT_PROP = "ConnectionPoolIdleTimeout";
+
 /**
 Hashtable that stores list of data types for different time series metadata inputs.
 The key is a string consisting of locType, locID, dataSource, interval, scenario as passed to getTimeSeriesMetaDataTypeList.
@@ -93,6 +113,16 @@ private Hashtable<String,List<String>> timeSeriesMetaHash = new Hashtable<String
 Database metadata, stored here to speed up database interactions.
 */
 private DatabaseMetaData databaseMetadata = null;
+
+/**
+Cache for time series that are read, or null if not used.
+*/
+private TSReadCache tsReadCache = null;
+
+/**
+Whether the time series read cache has been configured from the datastore properties.
+*/
+private boolean tsReadCacheConfigured = false;
     
 /**
 Construct a data store given a DMI instance, which is assumed to be open.
@@ -233,6 +263,10 @@ Return the database metadata associated with the database.  If metadata have not
 private DatabaseMetaData getDatabaseMetaData ()
 throws SQLException
 {
+    if ( getDMI().isSessionOpen() ) {
+        // Use the metadata for the session's connection, which may be a pooled connection that is later closed
+        return getDMI().getConnection().getMetaData();
+    }
     if ( this.databaseMetadata == null ) {
         // Metadata have not previously been retrieved so get now
         this.databaseMetadata = getDMI().getConnection().getMetaData();
@@ -457,10 +491,129 @@ public boolean hasTimeSeriesInterface ( boolean checkDatabase )
     return true;
 }
 
+/**
+Configure the DMI connection pool from the ConnectionPoolMaxSize and ConnectionPoolIdleTimeout datastore properties.
+This is called by the factory after the datastore properties are set.
+*/
+public void configureConnectionPool ()
+{   String routine = getClass().getSimpleName() + ".configureConnectionPool";
+    String maxSize = getProperty ( CONNECTION_POOL_MAX_SIZE_PROP );
+    if ( (getDMI() == null) || (maxSize == null) || maxSize.isEmpty() ) {
+        return;
+    }
+    String idleTimeout = getProperty ( CONNECTION_POOL_IDLE_TIMEOUT_PROP );
+    try {
+        int idleTimeoutSeconds = 300;
+        if ( (idleTimeout != null) && !idleTimeout.isEmpty() ) {
+            idleTimeoutSeconds = Integer.parseInt(idleTimeout.trim());
+        }
+        getDMI().setConnectionPool ( Integer.parseInt(maxSize.trim()), idleTimeoutSeconds );
+    }
+    catch ( NumberFormatException e ) {
+        Message.printWarning(3, routine, "Datastore \"" + getName() + "\" " + CONNECTION_POOL_MAX_SIZE_PROP + " (" + maxSize +
+            ") or " + CONNECTION_POOL_IDLE_TIMEOUT_PROP + " (" + idleTimeout + ") is invalid - not using connection pool.");
+    }
+}
+
+/**
+Return the time series read cache, or null if not used.
+The cache is configured from the TimeSeriesCacheMaxSizeMB datastore property the first time this method is called,
+unless setTimeSeriesReadCache() has been called.
+The method is synchronized so that threads reading time series share one cache.
+@return the time series read cache, or null if not used
+*/
+public synchronized TSReadCache getTimeSeriesReadCache ()
+{
+    if ( !this.tsReadCacheConfigured ) {
+        this.tsReadCacheConfigured = true;
+        String maxSize = getProperty ( TS_CACHE_MAX_SIZE_PROP );
+        if ( (maxSize != null) && !maxSize.isEmpty() ) {
+            try {
+                double maxSizeMB = Double.parseDouble(maxSize.trim());
+                if ( maxSizeMB > 0.0 ) {
+                    this.tsReadCache = new TSReadCache ( (long)(maxSizeMB*1024*1024) );
+                }
+            }
+            catch ( NumberFormatException e ) {
+                Message.printWarning(3, "GenericDatabaseDataStore.getTimeSeriesReadCache",
+                    "Datastore \"" + getName() + "\" " + TS_CACHE_MAX_SIZE_PROP + " (" + maxSize +
+                    ") is invalid - not using time series cache.");
+            }
+        }
+    }
+    return this.tsReadCache;
+}
+
+/**
+Remove all entries for this datastore from the time series read cache, if a cache is used.
+This should be called if the database time series data are modified.
+*/
+public void invalidateTimeSeriesReadCache ()
+{
+    TSReadCache cache = getTimeSeriesReadCache();
+    if ( cache != null ) {
+        cache.invalidate ( getName() );
+    }
+}
+
 /**
 Read a time series from the datastore.
+If the time series read cache is enabled, the cache is checked first and a copy of the cached time series is returned.
 */
 public TS readTimeSeries ( String tsidentString, DateTime inputStart, DateTime inputEnd, boolean readData )
+{
+    TSReadCache cache = getTimeSeriesReadCache();
+    if ( cache == null ) {
+        return readTimeSeriesInSession ( tsidentString, inputStart, inputEnd, readData );
+    }
+    try {
+        return cache.readTimeSeries ( getName(), tsidentString, inputStart, inputEnd, null, readData,
+            () -> readTimeSeriesInSession ( tsidentString, inputStart, inputEnd, readData ) );
+    }
+    catch ( RuntimeException e ) {
+        throw e;
+    }
+    catch ( Exception e ) {
+        // Should not happen because the database read does not throw checked exceptions.
+        throw new RuntimeException ( e );
+    }
+}
+
+/**
+Read a time series from the database using a DMI session,
+so that a pooled connection is used if the connection pool is enabled.
+*/
+private TS readTimeSeriesInSession ( String tsidentString, DateTime inputStart, DateTime inputEnd, boolean readData )
+{   String routine = "GenericDatabaseDataStore.readTimeSeries", message;
+    if ( !checkDatabaseConnection() ) {
+        // Let the read handle the error as before.
+        return readTimeSeriesFromDatabase ( null, tsidentString, inputStart, inputEnd, readData );
+    }
+    DMISession session = null;
+    try {
+        session = getDMI().openSession();
+    }
+    catch ( SQLException e ) {
+        // For example, timeout waiting for a pooled connection.
+        message = "Unable to get a database connection to read time series \"" + tsidentString + "\" (" + e + ").";
+        Message.printWarning(3, routine, message);
+        throw new RuntimeException ( message );
+    }
+    try {
+        return readTimeSeriesFromDatabase ( session, tsidentString, inputStart, inputEnd, readData );
+    }
+    finally {
+        session.close();
+    }
+}
+
+/**
+Read a time series from the database.
+@param session the DMI session for the current thread, or null if not using a session.
+DMI queries use the session's connection because the session is bound to the thread.
+*/
+private TS readTimeSeriesFromDatabase ( DMISession session, String tsidentString, DateTime inputStart, DateTime inputEnd,
+    boolean readData )
 {   String routine = "GenericDatabaseDataStore.readTimeSeries", message;
     TS ts = null;
     TSIdent tsident = null;
@@ -513,7 +666,8 @@ public TS readTimeSeries ( String tsidentString, DateTime inputStart, DateTime i
     boolean dateTimeInt = false; // true=integer year, false=timestamp
     int dtColumnType = -1;
     try {
-        dtColumnType = getColumnType(getDatabaseMetaData(), dataTable, dtColumn);
+        DatabaseMetaData metadata = (session == null) ? getDatabaseMetaData() : session.getConnection().getMetaData();
+        dtColumnType = getColumnType(metadata, dataTable, dtColumn);
         if ( (dtColumnType == Types.TIMESTAMP) || (dtColumnType == Types.DATE)) {
             dateTimeInt = false;
         }
@@ -1337,4 +1491,14 @@ public List<String> readTimeSeriesMetaScenarioList ( String locType, String locI
     return scenarios;
 }
 
+/**
+Set the time series read cache, for example to share a cache between datastores.
+@param cache the cache to use, or null to not use a cache
+*/
+public synchronized void setTimeSeriesReadCache ( TSReadCache cache )
+{
+    this.tsReadCache = cache;
+    this.tsReadCacheConfigured = true;
+}
+
 }
@@ -97,6 +97,8 @@ public DataStore create ( PropList props )
         dmi.setAdditionalConnectionProperties(connectionProperties);
         try {
         	dmi.open();
+        	// Enable the connection pool if configured.
+        	ds.configureConnectionPool();
         }
         catch ( Exception e ) {
         	Message.printWarning(3, routine, e);
@@ -131,6 +131,18 @@ public class LagK {
         return _sizeInflowCO;
     }
     
+    /**
+     * Set the inflow time series to route, which must have the same interval as the time series
+     * used with LagKBuilder.  This is used when the inflow is not known until upstream reaches are routed.
+     * @param inflows total inflow time series for the reach.
+     */
+    void setInflows(TS inflows) {
+        _t_mult = inflows.getDataIntervalMult();
+        _t_int = inflows.getDataIntervalBase();
+        forecastDate1 = new DateTime(inflows.getDate1());
+        totalInflows = inflows;
+    }
+    
     public void doCarryOver(DateTime cur_date) {
         // TODO SAM 2009-04-21 Evaluate whether +1 needed
         //Table coTable = new Table(_sizeInflowCO + 1);
@@ -180,8 +192,10 @@ public class LagK {
             for ( int i = 0; i < numIntervals; i++ ) {
                 data = tsi.next();
                 _co_inflow[_sizeInflowCO - numIntervals + i] = data.getDataValue();
-                Message.printStatus(2, routine,
-                    "Assigning initial carryover at " + data.getDate() + " to " + data.getDataValue());
+                if ( Message.isDebugOn ) {
+                    Message.printDebug(1, routine,
+                        "Assigning initial carryover at " + data.getDate() + " to " + data.getDataValue());
+                }
             }
         }
     }
@@ -257,7 +271,6 @@ public class LagK {
         // LagK_SetGet.cxx.  Changes here need to be duplicated there.
         boolean   add = true;      // State variable - inside/outside of lagged TS
         Table  calcTable = new Table();       // Q,T pairs, after repeats/missing are removed
-        double currentFlow = 0. ;// Flow variable used for lagging calcTable
         DateTime date1 ;           // date of the last carryover
         int    i ;               // loop counter
         int    j ;               // loop counter
@@ -291,13 +304,18 @@ public class LagK {
         getCarryOverValues( cur_date , laggedTable ) ;
         
         // Lag the values in the working array
+        // For variable lag, look up the lag for all carryover flows at once
+        double [] variableLagHours = null ;
+        if ( variableLag ) {
+            double [] flows = Arrays.copyOf( laggedTable.getColumn( Table.GETCOLUMN_1 ), requiredCO ) ;
+            variableLagHours = new double[requiredCO] ;
+            _in_lag_tbl.lookup( flows, variableLagHours, Table.GETCOLUMN_2, true ) ;
+        }
         for ( i = 0 ; i < requiredCO ; i++ ) {
-            currentFlow = laggedTable.lookup( i, Table.GETCOLUMN_1 ) ;
             timeHours = laggedTable.lookup( i, Table.GETCOLUMN_2 ) ;
             lagHours = _lag ;
             if ( variableLag ) {
-                lagHours = _in_lag_tbl.lookup( currentFlow, Table.GETCOLUMN_2,
-                    true ) ;
+                lagHours = variableLagHours[i] ;
             }
             
             laggedTable.populate( i, Table.GETCOLUMN_2, timeHours + lagHours ) ;
@@ -0,0 +1,326 @@
+// LagKNetwork - route a network of Lag/K reaches, in parallel where possible
+
+/* NoticeStart
+
+CDSS Common Java Library
+CDSS Common Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2019 Colorado Department of Natural Resources
+
+CDSS Common Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    CDSS Common Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with CDSS Common Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package riverside.ts.routing.lagk;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import RTi.TS.TS;
+import RTi.TS.TSIterator;
+import RTi.TS.TSUtil;
+import RTi.Util.IO.DaemonThreadPool;
+import RTi.Util.IO.Network;
+import RTi.Util.IO.NetworkFeature;
+import RTi.Util.Message.Message;
+import RTi.Util.Time.DateTime;
+
+/**
+ * Route a network of reaches using Lag/K.  Reaches are routed in waves in upstream to downstream order,
+ * where each wave contains the reaches for which all upstream reaches have been routed.
+ * Reaches in a wave are independent and are routed in parallel.
+ * The outflow time series for a reach is used directly as the inflow for the downstream reach
+ * if it is the only inflow, and otherwise inflows are added to a new time series.
+ */
+public class LagKNetwork {
+
+    /**
+     * Reaches in the order added, by identifier.
+     */
+    private Map<String,LagKNetworkReach> reaches = new LinkedHashMap<>();
+
+    /**
+     * Number of threads for routing, or -1 to use the number of processors.
+     */
+    private int threads = -1;
+
+    /**
+     * Create an empty network.
+     */
+    public LagKNetwork() {
+    }
+
+    /**
+     * Add a reach to the network.
+     * @param reach the reach to add.
+     * @exception IllegalArgumentException if a reach with the same identifier has already been added.
+     */
+    public void addReach(LagKNetworkReach reach) {
+        if (reaches.containsKey(reach.getID())) {
+            throw new IllegalArgumentException("Reach \"" + reach.getID() + "\" has already been added to the network.");
+        }
+        reaches.put(reach.getID(), reach);
+    }
+
+    /**
+     * Return the reach with the given identifier, or null if not found.
+     */
+    public LagKNetworkReach getReach(String id) {
+        return reaches.get(id);
+    }
+
+    /**
+     * Return the reaches in the order added.
+     */
+    public List<LagKNetworkReach> getReaches() {
+        return new ArrayList<>(reaches.values());
+    }
+
+    /**
+     * Return the upstream reaches for each reach, in the order reaches were added.
+     * Downstream identifiers that do not match a reach are treated as the bottom of the network.
+     */
+    private Map<String,List<LagKNetworkReach>> getUpstreamReaches() {
+        Map<String,List<LagKNetworkReach>> upstreamReaches = new HashMap<>();
+        for (LagKNetworkReach reach : reaches.values()) {
+            upstreamReaches.put(reach.getID(), new ArrayList<LagKNetworkReach>());
+        }
+        for (LagKNetworkReach reach : reaches.values()) {
+            List<LagKNetworkReach> upstream = (reach.getDownstreamID() == null) ? null : upstreamReaches.get(reach.getDownstreamID());
+            if (upstream != null) {
+                upstream.add(reach);
+            }
+        }
+        return upstreamReaches;
+    }
+
+    /**
+     * Determine the waves of reaches that can be routed in parallel.  Wave 0 contains the reaches that
+     * have no upstream reaches and each following wave contains the reaches whose upstream reaches are
+     * in previous waves.  The wave for each reach is also set.
+     * @return the list of waves, each containing reaches in the order added.
+     * @exception RuntimeException if the network contains a loop.
+     */
+    public List<List<LagKNetworkReach>> getWaves() {
+        Map<String,List<LagKNetworkReach>> upstreamReaches = getUpstreamReaches();
+        Map<String,Integer> remainingUpstream = new HashMap<>();
+        for (LagKNetworkReach reach : reaches.values()) {
+            remainingUpstream.put(reach.getID(), upstreamReaches.get(reach.getID()).size());
+            reach.setWave(-1);
+        }
+        List<List<LagKNetworkReach>> waves = new ArrayList<>();
+        List<LagKNetworkReach> wave = new ArrayList<>();
+        for (LagKNetworkReach reach : reaches.values()) {
+            if (remainingUpstream.get(reach.getID()) == 0) {
+                wave.add(reach);
+            }
+        }
+        int count = 0;
+        while (!wave.isEmpty()) {
+            waves.add(wave);
+            count += wave.size();
+            Set<LagKNetworkReach> nextWave = new HashSet<>();
+            for (LagKNetworkReach reach : wave) {
+                reach.setWave(waves.size() - 1);
+                LagKNetworkReach downstream = (reach.getDownstreamID() == null) ? null : reaches.get(reach.getDownstreamID());
+                if (downstream != null) {
+                    int remaining = remainingUpstream.get(downstream.getID()) - 1;
+                    remainingUpstream.put(downstream.getID(), remaining);
+                    if (remaining == 0) {
+                        nextWave.add(downstream);
+                    }
+                }
+            }
+            // Keep the order in which reaches were added
+            List<LagKNetworkReach> orderedWave = new ArrayList<>();
+            for (LagKNetworkReach reach : reaches.values()) {
+                if (nextWave.contains(reach)) {
+                    orderedWave.add(reach);
+                }
+            }
+            wave = orderedWave;
+        }
+        if (count != reaches.size()) {
+            StringBuilder b = new StringBuilder();
+            for (LagKNetworkReach reach : reaches.values()) {
+                if (reach.getWave() < 0) {
+                    if (b.length() > 0) {
+                        b.append(", ");
+                    }
+                    b.append(reach.getID());
+                }
+            }
+            throw new RuntimeException("Reach network contains a loop - cannot route reaches: " + b);
+        }
+        return waves;
+    }
+
+    /**
+     * Route all reaches in the network.  The outflow and timing for each reach are available from
+     * the reach after routing.
+     * @exception Exception if the network cannot be routed, including the first error routing a reach.
+     */
+    public void route() throws Exception {
+        String routine = getClass().getSimpleName() + ".route";
+        List<List<LagKNetworkReach>> waves = getWaves();
+        Map<String,List<LagKNetworkReach>> upstreamReaches = getUpstreamReaches();
+        int maxWaveSize = 0;
+        for (List<LagKNetworkReach> wave : waves) {
+            maxWaveSize = Math.max(maxWaveSize, wave.size());
+        }
+        int nthreads = threads;
+        if (nthreads < 0) {
+            nthreads = Runtime.getRuntime().availableProcessors();
+        }
+        nthreads = Math.min(nthreads, maxWaveSize);
+        long t0 = System.currentTimeMillis();
+        for (int iwave = 0; iwave < waves.size(); iwave++) {
+            List<LagKNetworkReach> wave = waves.get(iwave);
+            long waveStart = System.currentTimeMillis();
+            if ((nthreads <= 1) || (wave.size() == 1)) {
+                for (LagKNetworkReach reach : wave) {
+                    routeReach(reach, upstreamReaches.get(reach.getID()));
+                }
+            }
+            else {
+                List<Callable<Object>> tasks = new ArrayList<>();
+                for (LagKNetworkReach reach : wave) {
+                    List<LagKNetworkReach> upstream = upstreamReaches.get(reach.getID());
+                    tasks.add(() -> {
+                        routeReach(reach, upstream);
+                        return null;
+                    });
+                }
+                for (Future<Object> future : DaemonThreadPool.invokeAll(tasks, nthreads)) {
+                    try {
+                        future.get();
+                    }
+                    catch (ExecutionException e) {
+                        Throwable cause = e.getCause();
+                        if (cause instanceof Exception) {
+                            throw (Exception)cause;
+                        }
+                        throw e;
+                    }
+                }
+            }
+            if (Message.isDebugOn) {
+                Message.printDebug(1, routine, "Routed wave " + iwave + " with " + wave.size() + " reaches in " +
+                    (System.currentTimeMillis() - waveStart) + " ms.");
+            }
+        }
+        Message.printStatus(2, routine, "Routed " + reaches.size() + " reaches in " + waves.size() + " waves using " +
+            Math.max(nthreads, 1) + " threads in " + (System.currentTimeMillis() - t0) + " ms.");
+        if (Message.isDebugOn) {
+            for (LagKNetworkReach reach : reaches.values()) {
+                Message.printDebug(1, routine, "Reach \"" + reach.getID() + "\" wave " + reach.getWave() +
+                    " routing time " + reach.getRoutingTimeMs() + " ms.");
+            }
+        }
+    }
+
+    /**
+     * Route one reach, after the upstream reaches have been routed.
+     * @param reach the reach to route.
+     * @param upstreamReaches the reaches directly upstream of the reach.
+     */
+    private void routeReach(LagKNetworkReach reach, List<LagKNetworkReach> upstreamReaches) throws Exception {
+        long t0 = System.currentTimeMillis();
+        List<TS> inflows = new ArrayList<>();
+        for (LagKNetworkReach upstream : upstreamReaches) {
+            inflows.add(upstream.getOutflowTS());
+        }
+        if (reach.getLocalInflowTS() != null) {
+            inflows.add(reach.getLocalInflowTS());
+        }
+        if (inflows.isEmpty()) {
+            throw new RuntimeException("Reach \"" + reach.getID() + "\" has no upstream reaches or local inflow.");
+        }
+        TS inflowTS;
+        if (inflows.size() == 1) {
+            // Route the upstream outflow or local inflow directly
+            inflowTS = inflows.get(0);
+        }
+        else {
+            inflowTS = (TS)inflows.get(0).clone();
+            inflowTS.setDescription("Total inflow for reach " + reach.getID());
+            TSUtil.add(inflowTS, inflows.subList(1, inflows.size()), TSUtil.SET_MISSING_IF_ANY_MISSING);
+        }
+        reach.setInflowTS(inflowTS);
+        LagK lagK = reach.getLagK();
+        if ((inflowTS.getDataIntervalBase() != lagK._t_int) || (inflowTS.getDataIntervalMult() != lagK._t_mult)) {
+            throw new RuntimeException("Inflow interval for reach \"" + reach.getID() +
+                "\" is not the same as the interval used to create the LagK object.");
+        }
+        lagK.setInflows(inflowTS);
+        TS outflowTS = TSUtil.newTimeSeries(inflowTS.getIdentifierString(), true);
+        outflowTS.copyHeader(inflowTS);
+        outflowTS.setDescription("Lag/K outflow for reach " + reach.getID());
+        outflowTS.allocateDataSpace();
+        TSIterator tsi = inflowTS.iterator();
+        lagK.initializeCarryoverForNegativeLag(tsi);
+        double previousOutflow = lagK._outflowCO;
+        while (tsi.next() != null) {
+            DateTime date = tsi.getDate();
+            double outflow = lagK.solveMethod(date, previousOutflow);
+            outflowTS.setDataValue(date, outflow);
+            previousOutflow = outflow;
+        }
+        outflowTS.addToGenesis("Routed inflow for reach \"" + reach.getID() + "\" using Lag/K.");
+        reach.setOutflowTS(outflowTS);
+        reach.setRoutingTimeMs(System.currentTimeMillis() - t0);
+    }
+
+    /**
+     * Set the downstream reach for each reach from the links in a network.  Features between reaches
+     * that are not reaches, such as confluence nodes, are skipped.  Reaches without a downstream reach in
+     * the network are set to be at the bottom of the network.
+     * @param network network with features having the same identifiers as reaches.
+     */
+    public void setDownstreamReaches(Network network) {
+        List<NetworkFeature> features = network.getFeatures();
+        for (NetworkFeature feature : features) {
+            LagKNetworkReach reach = reaches.get(feature.getID());
+            if (reach == null) {
+                continue;
+            }
+            NetworkFeature downstream = feature.getDownstreamFeature(0);
+            // Limit the search in case the network has a loop
+            for (int i = 0; (downstream != null) && (i < features.size()) && !reaches.containsKey(downstream.getID()); i++) {
+                downstream = downstream.getDownstreamFeature(0);
+            }
+            if ((downstream != null) && reaches.containsKey(downstream.getID())) {
+                reach.setDownstreamID(downstream.getID());
+            }
+            else {
+                reach.setDownstreamID(null);
+            }
+        }
+    }
+
+    /**
+     * Set the number of threads used to route reaches.
+     * @param threads number of threads, 1 to route in the calling thread, or -1 to use the number of processors.
+     */
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+}
@@ -0,0 +1,130 @@
+// LagKNetworkReach - reach in a LagKNetwork
+
+/* NoticeStart
+
+CDSS Common Java Library
+CDSS Common Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2019 Colorado Department of Natural Resources
+
+CDSS Common Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    CDSS Common Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with CDSS Common Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package riverside.ts.routing.lagk;
+
+import RTi.TS.TS;
+
+/**
+ * A reach routed by LagKNetwork.  The reach inflow is the sum of the outflow from upstream reaches and
+ * the local inflow, if any.
+ */
+public class LagKNetworkReach {
+
+    private String id;
+    private String downstreamID;
+    private TS localInflowTS;
+    private LagK lagK;
+    private TS inflowTS;
+    private TS outflowTS;
+    private int wave = -1;
+    private long routingTimeMs = 0;
+
+    /**
+     * Create a reach.
+     * @param id reach identifier.
+     * @param downstreamID identifier of the downstream reach, or null if the reach is at the bottom of the network.
+     * @param localInflowTS local inflow to the reach, or null if all inflow is from upstream reaches.
+     * @param lagK LagK object for the reach, created with LagKBuilder using a time series with the
+     * same interval as the network time series.
+     */
+    public LagKNetworkReach(String id, String downstreamID, TS localInflowTS, LagK lagK) {
+        this.id = id;
+        this.downstreamID = downstreamID;
+        this.localInflowTS = localInflowTS;
+        this.lagK = lagK;
+    }
+
+    /**
+     * Return the downstream reach identifier, or null if at the bottom of the network.
+     */
+    public String getDownstreamID() {
+        return downstreamID;
+    }
+
+    public String getID() {
+        return id;
+    }
+
+    /**
+     * Return the total inflow time series that was routed.  This is the upstream outflow or local inflow
+     * time series if there is only one inflow, not a copy.
+     */
+    public TS getInflowTS() {
+        return inflowTS;
+    }
+
+    public LagK getLagK() {
+        return lagK;
+    }
+
+    public TS getLocalInflowTS() {
+        return localInflowTS;
+    }
+
+    /**
+     * Return the routed outflow time series, or null if the reach has not been routed.
+     */
+    public TS getOutflowTS() {
+        return outflowTS;
+    }
+
+    /**
+     * Return the time to compute the inflow and route the reach, milliseconds.
+     */
+    public long getRoutingTimeMs() {
+        return routingTimeMs;
+    }
+
+    /**
+     * Return the wave (0+) in which the reach was routed, which is 0 for reaches without upstream reaches
+     * and otherwise one more than the largest upstream reach wave, or -1 if not scheduled.
+     */
+    public int getWave() {
+        return wave;
+    }
+
+    public void setDownstreamID(String downstreamID) {
+        this.downstreamID = downstreamID;
+    }
+
+    void setInflowTS(TS inflowTS) {
+        this.inflowTS = inflowTS;
+    }
+
+    void setOutflowTS(TS outflowTS) {
+        this.outflowTS = outflowTS;
+    }
+
+    void setRoutingTimeMs(long routingTimeMs) {
+        this.routingTimeMs = routingTimeMs;
+    }
+
+    void setWave(int wave) {
+        this.wave = wave;
+    }
+
+    public String toString() {
+        return id + " -> " + downstreamID;
+    }
+}
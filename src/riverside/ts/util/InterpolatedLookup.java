@@ -94,6 +94,15 @@ public class InterpolatedLookup {
     public double lookupValue(double key) {
         return _table.lookup(key, Table.GETCOLUMN_1, true, _interpolationMode);
     }
+
+    /**
+     * 
+     * @param keys the keys of the key-value relation.
+     * @param values array to receive the interpolated values, at least as long as keys.
+     */
+    public void lookupValues(double[] keys, double[] values) {
+        _table.lookup(keys, values, Table.GETCOLUMN_1, true, _interpolationMode);
+    }
     
     /**
      * 
@@ -103,6 +112,15 @@ public class InterpolatedLookup {
     public double lookupKey(double value) {
         return _table.lookup(value, Table.GETCOLUMN_2, true, _interpolationMode);
     }
+
+    /**
+     * 
+     * @param values the values of the key-value relation.
+     * @param keys array to receive the interpolated keys, at least as long as values.
+     */
+    public void lookupKeys(double[] values, double[] keys) {
+        _table.lookup(values, keys, Table.GETCOLUMN_2, true, _interpolationMode);
+    }
     
 }
 
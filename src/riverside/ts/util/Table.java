@@ -39,6 +39,8 @@ import java.util.List;
  * A 2-column lookup table implementation taken from the National Weater Service Streamflow Forecast System
  * ResJ operation C/C++ code. Modifications include
  * making it a bit more useful and less hazardous to use.
+ * Lookups use a binary search when the lookup column is sorted in ascending order, which is checked once
+ * after the table is modified, and otherwise scan the column.
  * @todo evaluate whether this thing should live...
  * @author iws
  */
@@ -49,6 +51,19 @@ public class Table {
     private String id;
     private double missingValue = -999;
     private boolean modified = false;
+    /**
+     * Whether each column is sorted in ascending order, as bits (1=column 1, 2=column 2), or -1 if not checked.
+     */
+    private int sortedColumns = -1;
+    /**
+     * Interpolation slopes for linear lookups, indexed by the lookup() column, if precomputed slopes are used.
+     */
+    private double[][] slopes = new double[2][];
+    /**
+     * Log10 of the values returned for logarithmic lookups, indexed by the lookup() column.
+     */
+    private double[][] logValues = new double[2][];
+    private boolean usePrecomputedSlopes = false;
     public static final int GETCOLUMN_1 = 0;
     public static final int GETCOLUMN_2 = 1;
 
@@ -65,6 +80,25 @@ public class Table {
         this.modified = modified;
     }
 
+    /**
+     * Indicate whether linear interpolation should use slopes that are computed once for each pair of rows.
+     * This is faster when many lookups are done on the same table but the result can differ from the
+     * default calculation in the last digits.
+     * @param usePrecomputedSlopes whether to use precomputed slopes for linear interpolation.
+     */
+    public void setUsePrecomputedSlopes(boolean usePrecomputedSlopes) {
+        this.usePrecomputedSlopes = usePrecomputedSlopes;
+    }
+
+    /**
+     * Clear the information saved to speed up lookups, called when the table data change.
+     */
+    private void clearLookupData() {
+        sortedColumns = -1;
+        slopes = new double[2][];
+        logValues = new double[2][];
+    }
+
     public void setMissingValue(double missing) {
         this.missingValue = missing;
     }
@@ -89,10 +123,12 @@ public class Table {
         Arrays.fill(column1, missingValue);
         Arrays.fill(column2, missingValue);
         modified = true;
+        clearLookupData();
     }
 
     public void freeDataSpace() {
         column1 = column2 = null;
+        clearLookupData();
     }
 
     public String getID() {
@@ -157,6 +193,7 @@ public class Table {
         column1[row] = c1;
         column2[row] = c2;
         modified = true;
+        clearLookupData();
     }
 
     public double getMin(int num) {
@@ -212,6 +249,9 @@ public class Table {
             }
             return missingValue;
         }
+        if (!Double.isNaN(val) && isSorted(col == 0 ? GETCOLUMN_2 : GETCOLUMN_1)) {
+            return lookupSorted(val, col, lookupColumn, valueColumn, mode, findRow(val, lookupColumn, -1));
+        }
         double retVal = missingValue;
         if (mode == null) {
             for (int i = 0; i < lookupColumn.length; i++) {
@@ -226,11 +266,215 @@ public class Table {
         return retVal;
     }
 
+    /**
+     * Lookup an array of values using linear interpolation.
+     * @param in values to look up.
+     * @param out array to receive the results, at least as long as the input array.
+     * @param col the column to return values from (the other column is searched).
+     * @param allowBounds if true, values outside the table return the end values, otherwise missing.
+     */
+    public void lookup(double[] in, double[] out, int col, boolean allowBounds) {
+        lookup(in, out, col, allowBounds, InterpolationMode.LINEAR);
+    }
+
+    /**
+     * Lookup an array of values, equivalent to calling lookup(double,int,boolean,InterpolationMode) for each value.
+     * Consecutive values that fall in the same table interval are found without searching the table again,
+     * which is the case for time series that change slowly.
+     * @param in values to look up.
+     * @param out array to receive the results, at least as long as the input array.
+     * @param col the column to return values from (the other column is searched).
+     * @param allowBounds if true, values outside the table return the end values, otherwise missing.
+     * @param mode interpolation mode, or null to only return values that exactly match a table value.
+     */
+    public void lookup(double[] in, double[] out, int col, boolean allowBounds, InterpolationMode mode) {
+        if (out.length < in.length) {
+            throw new IllegalArgumentException("Output array length " + out.length +
+                " is less than input array length " + in.length + ".");
+        }
+        double[] lookupColumn, valueColumn;
+        if (col == 0) {
+            lookupColumn = column2;
+            valueColumn = column1;
+        } else {
+            lookupColumn = column1;
+            valueColumn = column2;
+        }
+        if (!isSorted(col == 0 ? GETCOLUMN_2 : GETCOLUMN_1)) {
+            for (int i = 0; i < in.length; i++) {
+                out[i] = lookup(in[i], col, allowBounds, mode);
+            }
+            return;
+        }
+        int end = lookupColumn.length - 1;
+        int row = -1;
+        for (int i = 0; i < in.length; i++) {
+            double val = in[i];
+            if (Double.isNaN(val)) {
+                out[i] = lookup(val, col, allowBounds, mode);
+            } else if (val < lookupColumn[0]) {
+                out[i] = allowBounds ? valueColumn[0] : missingValue;
+            } else if (val > lookupColumn[end]) {
+                out[i] = allowBounds ? valueColumn[end] : missingValue;
+            } else {
+                row = findRow(val, lookupColumn, row);
+                out[i] = lookupSorted(val, col, lookupColumn, valueColumn, mode, row);
+            }
+        }
+    }
+
+    /**
+     * Find the row to use for a lookup in a sorted column, for a value within the range of the column.
+     * @param val value being looked up.
+     * @param d sorted lookup column.
+     * @param hint row found for a previous lookup, checked before searching, or -1.
+     * @return the first row having the value, or if no row matches, the last row with a smaller value.
+     */
+    private int findRow(double val, double[] d, int hint) {
+        if ((hint >= 0) && (hint < d.length - 1) && (d[hint] <= val) && (val < d[hint + 1])
+            && ((hint == 0) || (d[hint - 1] < val))) {
+            return hint;
+        }
+        int row = lowerBound(val, d);
+        if (d[row] == val) {
+            return row;
+        }
+        return row - 1;
+    }
+
+    /**
+     * Return the value for a lookup in a sorted column.
+     * @param row row from findRow().
+     */
+    private double lookupSorted(double val, int col, double[] lookupColumn, double[] valueColumn,
+        InterpolationMode mode, int row) {
+        if (lookupColumn[row] == val) {
+            return valueColumn[row];
+        }
+        if (mode == null) {
+            return missingValue;
+        }
+        double xmin = lookupColumn[row];
+        double xmax = lookupColumn[row + 1];
+        if (mode == InterpolationMode.LINEAR) {
+            if (usePrecomputedSlopes) {
+                return valueColumn[row] + getSlopes(col, lookupColumn, valueColumn)[row] * (val - xmin);
+            }
+            double ymin = valueColumn[row];
+            double ymax = valueColumn[row + 1];
+            if (xmax - xmin == 0) {
+                return ymin;
+            }
+            return ymin + (ymax - ymin) * (val - xmin) / (xmax - xmin);
+        }
+        double[] logs = getLogValues(col, valueColumn);
+        double bar = xmax - xmin == 0 ? 0 : (val - xmin) / (xmax - xmin);
+        return Math.pow(10, logs[row] + (logs[row + 1] - logs[row]) * bar);
+    }
+
+    /**
+     * Return the log10 of the values returned by lookup() for a column, computing if necessary.
+     */
+    private double[] getLogValues(int col, double[] valueColumn) {
+        double[] logs = logValues[col];
+        if (logs == null) {
+            logs = new double[valueColumn.length];
+            for (int i = 0; i < logs.length; i++) {
+                logs[i] = Math.log10(valueColumn[i]);
+            }
+            logValues[col] = logs;
+        }
+        return logs;
+    }
+
+    /**
+     * Return the slopes between rows for linear lookup() in a column, computing if necessary.
+     */
+    private double[] getSlopes(int col, double[] lookupColumn, double[] valueColumn) {
+        double[] s = slopes[col];
+        if (s == null) {
+            s = new double[Math.max(lookupColumn.length - 1, 0)];
+            for (int i = 0; i < s.length; i++) {
+                double dx = lookupColumn[i + 1] - lookupColumn[i];
+                s[i] = (dx == 0) ? 0 : (valueColumn[i + 1] - valueColumn[i]) / dx;
+            }
+            slopes[col] = s;
+        }
+        return s;
+    }
+
+    /**
+     * Determine whether a column is sorted in ascending order, with no NaN values.
+     * @param column GETCOLUMN_1 or GETCOLUMN_2.
+     */
+    private boolean isSorted(int column) {
+        int sorted = sortedColumns;
+        if (sorted < 0) {
+            sorted = 0;
+            if (isSorted(column1)) {
+                sorted |= 1;
+            }
+            if (isSorted(column2)) {
+                sorted |= 2;
+            }
+            sortedColumns = sorted;
+        }
+        return (sorted & (column == GETCOLUMN_1 ? 1 : 2)) != 0;
+    }
+
+    private static boolean isSorted(double[] d) {
+        if (d == null) {
+            return false;
+        }
+        for (int i = 1; i < d.length; i++) {
+            // Written so that NaN values indicate not sorted.
+            if (!(d[i - 1] <= d[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Return the first index in a sorted array having a value >= the given value, or the array length.
+     */
+    private static int lowerBound(double value, double[] d) {
+        int low = 0;
+        int high = d.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (d[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Return the first index in a sorted array having a value > the given value, or the array length.
+     */
+    private static int upperBound(double value, double[] d) {
+        int low = 0;
+        int high = d.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (d[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
     public void populate(double[] c1, double[] c2, int size) {
         allocateDataSpace(size);
         System.arraycopy(c1, 0, column1, 0, c1.length);
         System.arraycopy(c2, 0, column2, 0, c2.length);
         modified = true;
+        clearLookupData();
     }
 
     public void populate(int row, int col, double value) {
@@ -240,6 +484,7 @@ public class Table {
             column2[row] = value;
         }
         modified = true;
+        clearLookupData();
     }
 
     public void setID(String id) {
@@ -264,6 +509,7 @@ public class Table {
             column1[i] = row[0];
             column2[i] = row[1];
         }
+        clearLookupData();
     }
 
     /* TODO smalers 2019-06-01 evaluate use of function - this code is not actively used.
@@ -272,8 +518,14 @@ public class Table {
     }
     */
 
+    /**
+     * Return the last row having a value <= the given value, or 0 if no row.
+     */
     public int getSmallerIndex(double value, int column) {
         double[] d = column == GETCOLUMN_1 ? column1 : column2;
+        if (isSorted(column)) {
+            return Math.max(upperBound(value, d) - 1, 0);
+        }
         int idx = 0;
         for (int i = 0; i < d.length; i++) {
             if (value >= d[i]) {
@@ -283,8 +535,18 @@ public class Table {
         return idx;
     }
 
+    /**
+     * Return the first row having a value >= the given value, or the last row if no row.
+     */
     public int getLargerIndex(double value, int column) {
         double[] d = column == GETCOLUMN_1 ? column1 : column2;
+        if (isSorted(column)) {
+            int idx = lowerBound(value, d);
+            if ((idx == d.length) || !(value <= d[idx])) {
+                idx = d.length - 1;
+            }
+            return idx;
+        }
         int idx = d.length - 1;
         for (int i = d.length - 1; i >= 0; i--) {
             if (value <= d[i]) {
@@ -317,6 +579,7 @@ public class Table {
         }
         id = copy.id;
         missingValue = copy.missingValue;
+        usePrecomputedSlopes = copy.usePrecomputedSlopes;
     }
 
     public static Table create(double... data) {
@@ -0,0 +1,191 @@
+package RTi.DMI;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for DMIConnectionPool.
+ * An embedded database driver is not included in the library,
+ * so connections are simulated with proxies where each "query" takes a fixed time.
+ */
+public class DMIConnectionPoolTest extends TestCase {
+
+    private final AtomicInteger openCount = new AtomicInteger();
+    private final AtomicInteger maxOpenCount = new AtomicInteger();
+    private volatile boolean valid = true;
+    private volatile boolean failSetAutoCommit = false;
+    private final AtomicInteger rollbackCount = new AtomicInteger();
+
+    public DMIConnectionPoolTest(String testName) {
+        super(testName);
+    }
+
+    /**
+     * Create a simulated connection that tracks the number of open connections.
+     */
+    private Connection createConnection() {
+        int count = openCount.incrementAndGet();
+        maxOpenCount.accumulateAndGet(count, Math::max);
+        boolean [] closed = new boolean[1];
+        boolean [] autoCommit = { true };
+        return (Connection)Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class },
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "close":
+                        if (!closed[0]) {
+                            closed[0] = true;
+                            openCount.decrementAndGet();
+                        }
+                        return null;
+                    case "isClosed": return closed[0];
+                    case "isValid": return valid && !closed[0];
+                    case "getAutoCommit": return autoCommit[0];
+                    case "setAutoCommit":
+                        if (failSetAutoCommit) {
+                            throw new SQLException("setAutoCommit failed");
+                        }
+                        autoCommit[0] = (Boolean)args[0];
+                        return null;
+                    case "rollback":
+                        rollbackCount.incrementAndGet();
+                        return null;
+                    case "hashCode": return System.identityHashCode(proxy);
+                    case "equals": return proxy == args[0];
+                    default: return null;
+                }
+            });
+    }
+
+    /**
+     * Run queries from several threads, each borrowing a connection for each query.
+     * @return the maximum number of connections borrowed at the same time
+     */
+    private int runQueries(DMIConnectionPool pool, int nthreads, int nqueries, long queryTime) throws Exception {
+        List<Thread> threads = new ArrayList<>();
+        List<Exception> errors = new ArrayList<>();
+        AtomicInteger borrowed = new AtomicInteger();
+        AtomicInteger maxBorrowed = new AtomicInteger();
+        for (int i = 0; i < nthreads; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    for (int j = 0; j < nqueries; j++) {
+                        Connection connection = pool.borrowConnection();
+                        maxBorrowed.accumulateAndGet(borrowed.incrementAndGet(), Math::max);
+                        Thread.sleep(queryTime);
+                        borrowed.decrementAndGet();
+                        pool.returnConnection(connection);
+                    }
+                }
+                catch (Exception e) {
+                    synchronized (errors) {
+                        errors.add(e);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(errors.toString(), errors.isEmpty());
+        return maxBorrowed.get();
+    }
+
+    /**
+     * Check that connections are reused and that the number of connections is bounded by the pool size.
+     * The timing comparison with a single connection is in benchmark/src/RTi/DMI/DMIConnectionPoolBenchmark.java.
+     */
+    public void testConcurrentBorrow() throws Exception {
+        DMIConnectionPool single = new DMIConnectionPool(() -> createConnection(), 1, 0);
+        assertEquals(1, runQueries(single, 8, 10, 1));
+        assertEquals(1, single.getCreateCount());
+        assertEquals(80, single.getBorrowCount());
+        assertTrue(single.getWaitCount() > 0);
+        single.close();
+        assertEquals(1, maxOpenCount.get());
+        DMIConnectionPool pool = new DMIConnectionPool(() -> createConnection(), 8, 0);
+        assertTrue(runQueries(pool, 8, 10, 1) <= 8);
+        assertTrue(maxOpenCount.get() <= 8);
+        assertEquals(80, pool.getBorrowCount());
+        assertTrue(pool.getCreateCount() <= 8);
+        assertEquals(0, pool.getActiveCount());
+        assertEquals(pool.getCreateCount(), pool.getIdleCount());
+        pool.close();
+        assertEquals(0, openCount.get());
+    }
+
+    public void testReuseAndValidation() throws Exception {
+        DMIConnectionPool pool = new DMIConnectionPool(() -> createConnection(), 2, 0);
+        pool.setValidationInterval(0);
+        Connection c1 = pool.borrowConnection();
+        pool.returnConnection(c1);
+        assertSame(c1, pool.borrowConnection());
+        pool.returnConnection(c1);
+        // Invalid idle connections are discarded.
+        valid = false;
+        Connection c2 = pool.borrowConnection();
+        valid = true;
+        assertNotSame(c1, c2);
+        assertEquals(1, pool.getInvalidCount());
+        assertTrue(c1.isClosed());
+        pool.returnConnection(c2);
+        pool.close();
+    }
+
+    public void testReturnRestoresAutoCommit() throws Exception {
+        DMIConnectionPool pool = new DMIConnectionPool(() -> createConnection(), 2, 0);
+        Connection c1 = pool.borrowConnection();
+        c1.setAutoCommit(false);
+        pool.returnConnection(c1);
+        // The transaction is rolled back and the next borrower gets the connection in autoCommit mode.
+        assertEquals(1, rollbackCount.get());
+        Connection c2 = pool.borrowConnection();
+        assertSame(c1, c2);
+        assertTrue(c2.getAutoCommit());
+        // A connection that cannot be reset is discarded.
+        c2.setAutoCommit(false);
+        failSetAutoCommit = true;
+        pool.returnConnection(c2);
+        failSetAutoCommit = false;
+        assertTrue(c2.isClosed());
+        assertEquals(0, pool.getIdleCount());
+        assertEquals(0, pool.getActiveCount());
+        pool.close();
+    }
+
+    public void testIdleTimeout() throws Exception {
+        DMIConnectionPool pool = new DMIConnectionPool(() -> createConnection(), 2, 20);
+        Connection c1 = pool.borrowConnection();
+        pool.returnConnection(c1);
+        assertEquals(1, pool.getIdleCount());
+        Thread.sleep(50);
+        Connection c2 = pool.borrowConnection();
+        assertNotSame(c1, c2);
+        assertTrue(c1.isClosed());
+        pool.returnConnection(c2);
+        pool.close();
+    }
+
+    public void testWaitTimeout() throws Exception {
+        DMIConnectionPool pool = new DMIConnectionPool(() -> createConnection(), 1, 0);
+        pool.setMaxWait(50);
+        Connection c1 = pool.borrowConnection();
+        try {
+            pool.borrowConnection();
+            fail("Expected timeout");
+        }
+        catch (SQLException e) {
+            // Expected.
+        }
+        assertEquals(1, pool.getWaitCount());
+        pool.returnConnection(c1);
+        pool.close();
+    }
+}
@@ -0,0 +1,206 @@
+package RTi.DMI;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for DMI sessions, which must keep transaction state separate for each pooled connection.
+ * An embedded database driver is not included in the library,
+ * so a driver that creates simulated connections is registered for the test.
+ */
+public class DMISessionTest extends TestCase {
+
+    private static final String URL = "jdbc:dmisessiontest:db";
+
+    /**
+     * Calls made to each simulated connection, in order, for example "setAutoCommit(false)" and "commit".
+     */
+    private final List<List<String>> calls = Collections.synchronizedList(new ArrayList<>());
+
+    private Driver driver = null;
+
+    public DMISessionTest(String testName) {
+        super(testName);
+    }
+
+    protected void setUp() throws Exception {
+        driver = new Driver() {
+            public boolean acceptsURL(String url) { return url.startsWith("jdbc:dmisessiontest:"); }
+            public Connection connect(String url, Properties info) { return acceptsURL(url) ? createConnection() : null; }
+            public int getMajorVersion() { return 1; }
+            public int getMinorVersion() { return 0; }
+            public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) { return new DriverPropertyInfo[0]; }
+            public boolean jdbcCompliant() { return false; }
+            public Logger getParentLogger() throws SQLFeatureNotSupportedException { throw new SQLFeatureNotSupportedException(); }
+        };
+        DriverManager.registerDriver(driver);
+    }
+
+    protected void tearDown() throws Exception {
+        DriverManager.deregisterDriver(driver);
+    }
+
+    /**
+     * Create a simulated connection that records the transaction calls.
+     */
+    private Connection createConnection() {
+        List<String> connectionCalls = Collections.synchronizedList(new ArrayList<>());
+        calls.add(connectionCalls);
+        boolean [] autoCommit = { true };
+        return (Connection)Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class },
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "setAutoCommit":
+                        autoCommit[0] = (Boolean)args[0];
+                        connectionCalls.add("setAutoCommit(" + args[0] + ")");
+                        return null;
+                    case "getAutoCommit": return autoCommit[0];
+                    case "commit":
+                    case "rollback":
+                        connectionCalls.add(method.getName());
+                        return null;
+                    case "isClosed": return false;
+                    case "isValid": return true;
+                    case "hashCode": return System.identityHashCode(proxy);
+                    case "equals": return proxy == args[0];
+                    default: return null;
+                }
+            });
+    }
+
+    /**
+     * Create a DMI with a simulated shared connection and a connection pool.
+     */
+    private DMI createDMI() throws Exception {
+        DMI dmi = new GenericDMI("SQLServer", "server", "db", -1, "user", "password");
+        dmi.setConnection(DriverManager.getConnection(URL));
+        // The URL is normally saved when the DMI is opened.
+        Field field = DMI.class.getDeclaredField("__connectionUrl");
+        field.setAccessible(true);
+        field.set(dmi, URL);
+        dmi.setConnectionPool(2, 0);
+        return dmi;
+    }
+
+    public void testTransactionStateIsPerSession() throws Exception {
+        DMI dmi = createDMI();
+        List<String> sharedCalls = calls.get(0);
+        try (DMISession session = dmi.openSession()) {
+            assertTrue(session.isPooled());
+            dmi.setAutoCommit(false);
+            assertFalse(dmi.getAutoCommit());
+            // Another thread's session is not in a transaction and its commit does not affect this session.
+            List<Exception> errors = new ArrayList<>();
+            Thread thread = new Thread(() -> {
+                try (DMISession otherSession = dmi.openSession()) {
+                    assertNotSame(session, otherSession);
+                    assertTrue(dmi.getAutoCommit());
+                    dmi.setAutoCommit(false);
+                    assertFalse(dmi.getAutoCommit());
+                    dmi.commit();
+                    assertTrue(dmi.getAutoCommit());
+                }
+                catch (Throwable e) {
+                    errors.add(new Exception(e));
+                }
+            });
+            thread.start();
+            thread.join();
+            assertTrue(errors.toString(), errors.isEmpty());
+            assertFalse(dmi.getAutoCommit());
+            // Not using a session, so the shared connection state is used.
+            Thread sharedThread = new Thread(() -> {
+                if (!dmi.getAutoCommit()) {
+                    errors.add(new Exception("Shared connection autoCommit was changed."));
+                }
+            });
+            sharedThread.start();
+            sharedThread.join();
+            assertTrue(errors.toString(), errors.isEmpty());
+            dmi.commit();
+            assertTrue(dmi.getAutoCommit());
+        }
+        assertTrue(sharedCalls.toString(), sharedCalls.isEmpty());
+        assertEquals(3, calls.size());
+        assertEquals("[setAutoCommit(true), setAutoCommit(false), commit, setAutoCommit(true)]", calls.get(1).toString());
+        assertEquals("[setAutoCommit(true), setAutoCommit(false), commit, setAutoCommit(true)]", calls.get(2).toString());
+        dmi.close();
+    }
+
+    public void testCloseRollsBackTransaction() throws Exception {
+        DMI dmi = createDMI();
+        try (DMISession session = dmi.openSession()) {
+            assertTrue(session.isPooled());
+            dmi.setAutoCommit(false);
+        }
+        // The incomplete transaction is rolled back so the connection is returned in autoCommit mode.
+        assertEquals("[setAutoCommit(true), setAutoCommit(false), rollback, setAutoCommit(true)]", calls.get(1).toString());
+        try (DMISession session = dmi.openSession()) {
+            assertTrue(session.isPooled());
+            assertTrue(dmi.getAutoCommit());
+        }
+        assertEquals(2, calls.size());
+        dmi.close();
+    }
+
+    public void testCloseFromAnotherThread() throws Exception {
+        DMI dmi = createDMI();
+        DMISession[] session = new DMISession[1];
+        Thread thread = new Thread(() -> {
+            try {
+                session[0] = dmi.openSession();
+                dmi.setAutoCommit(false);
+            }
+            catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        thread.start();
+        thread.join();
+        session[0].close();
+        // The session's connection is rolled back, not the shared connection used by this thread.
+        assertEquals("[]", calls.get(0).toString());
+        assertEquals("[setAutoCommit(true), setAutoCommit(false), rollback, setAutoCommit(true)]", calls.get(1).toString());
+        assertEquals(0, dmi.getConnectionPool().getActiveCount());
+        dmi.close();
+    }
+
+    public void testCloseAfterPoolReplaced() throws Exception {
+        DMI dmi = createDMI();
+        DMISession session = dmi.openSession();
+        DMIConnectionPool pool1 = dmi.getConnectionPool();
+        assertEquals(1, pool1.getActiveCount());
+        // Replace the pool, as when reconnecting, and use the new pool from another thread.
+        dmi.setConnectionPool(2, 0);
+        Thread thread = new Thread(() -> {
+            try {
+                dmi.openSession().close();
+            }
+            catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        thread.start();
+        thread.join();
+        DMIConnectionPool pool2 = dmi.getConnectionPool();
+        assertNotSame(pool1, pool2);
+        session.close();
+        // The connection is returned to the pool that lent it.
+        assertEquals(0, pool1.getActiveCount());
+        assertEquals(0, pool2.getActiveCount());
+        assertEquals(1, pool2.getIdleCount());
+        dmi.close();
+    }
+}
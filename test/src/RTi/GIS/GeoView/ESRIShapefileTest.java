@@ -0,0 +1,157 @@
+package RTi.GIS.GeoView;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import RTi.GR.GRPolygon;
+import RTi.GR.GRPolygonList;
+import RTi.GR.GRShape;
+import RTi.Util.IO.PropList;
+import RTi.Util.Table.DataTable;
+import RTi.Util.Table.DbaseDataTable;
+import RTi.Util.Table.TableField;
+import RTi.Util.Table.TableRecord;
+import junit.framework.TestCase;
+
+/**
+ * Tests for reading shapefiles, including reading shapes on demand with ESRIShapefileShapeList.
+ */
+public class ESRIShapefileTest extends TestCase {
+
+    private static final int NX = 20;
+    private static final int NY = 20;
+    private static final int NPTS = 200;
+
+    private String base = null;
+
+    public ESRIShapefileTest(String testName) {
+        super(testName);
+    }
+
+    /**
+     * Write a grid of circular polygons, each with NPTS points.
+     */
+    protected void setUp() throws Exception {
+        File f = File.createTempFile("ESRIShapefileTest", "");
+        f.delete();
+        this.base = f.getPath();
+        List<GRShape> shapes = new ArrayList<>();
+        List<TableField> fields = new ArrayList<>();
+        fields.add(new TableField(TableField.DATA_TYPE_STRING, "ID", 12));
+        DataTable table = new DataTable(fields);
+        for (int i = 0; i < NX * NY; i++) {
+            double xc = (i % NX) * 10.0;
+            double yc = (i / NX) * 10.0;
+            GRPolygon polygon = new GRPolygon(NPTS);
+            for (int j = 0; j < NPTS; j++) {
+                double angle = 2.0 * Math.PI * j / (NPTS - 1);
+                polygon.setPoint(j, new RTi.GR.GRPoint(xc + 4.0 * Math.cos(angle), yc + 4.0 * Math.sin(angle)));
+            }
+            GRPolygonList polygonlist = new GRPolygonList(1);
+            polygonlist.setPolygon(0, polygon);
+            polygonlist.total_npts = NPTS;
+            polygonlist.index = i;
+            shapes.add(polygonlist);
+            TableRecord rec = new TableRecord(1);
+            rec.addFieldValue("ID" + i);
+            table.addRecord(rec);
+        }
+        ESRIShapefile.writeSHPAndSHX(this.base + ".shp", this.base + ".shx", shapes, false, false, null, null);
+        DbaseDataTable.write(this.base + ".dbf", table);
+    }
+
+    protected void tearDown() {
+        for (String ext : new String[] { ".shp", ".shx", ".dbf" }) {
+            new File(this.base + ext).delete();
+        }
+    }
+
+    private ESRIShapefile read(boolean onDemand, int cacheSize) throws Exception {
+        PropList props = new PropList("ESRIShapefile");
+        props.set("InputName", this.base + ".shp");
+        props.set("ReadShapesOnDemand", "" + onDemand);
+        props.set("ShapeCacheSize", "" + cacheSize);
+        return new ESRIShapefile(props);
+    }
+
+    public void testReadShapesOnDemand() throws Exception {
+        ESRIShapefile all = read(false, 0);
+        ESRIShapefile onDemand = read(true, 10);
+        assertFalse(all.getShapes() instanceof ESRIShapefileShapeList);
+        assertTrue(onDemand.getShapes() instanceof ESRIShapefileShapeList);
+        assertEquals(NX * NY, onDemand.getShapes().size());
+        assertEquals(all.getLimits().toString(), onDemand.getLimits().toString());
+        for (int i = 0; i < NX * NY; i++) {
+            GRPolygonList expected = (GRPolygonList)all.getShapes().get(i);
+            GRPolygonList actual = (GRPolygonList)onDemand.getShapes().get(i);
+            assertEquals(expected.index, actual.index);
+            assertEquals(expected.xmin, actual.xmin, 0.0);
+            assertEquals(expected.ymax, actual.ymax, 0.0);
+            assertEquals(expected.polygons[0].npts, actual.polygons[0].npts);
+            assertEquals(expected.polygons[0].pts[17].x, actual.polygons[0].pts[17].x, 0.0);
+        }
+        onDemand.computeLimits(true);
+        all.computeLimits(true);
+        assertEquals(all.getLimits().toString(), onDemand.getLimits().toString());
+    }
+
+    /**
+     * Shapes are removed from the cache unless they have been changed.
+     */
+    public void testCache() throws Exception {
+        ESRIShapefileShapeList shapes = (ESRIShapefileShapeList)read(true, 10).getShapes();
+        assertFalse(shapes.isShapeInMemory(3));
+        GRShape selected = shapes.get(3);
+        selected.is_selected = true;
+        assertTrue(shapes.isShapeInMemory(3));
+        for (int i = 20; i < 40; i++) {
+            shapes.get(i);
+        }
+        assertTrue(shapes.isShapeInMemory(3));
+        assertSame(selected, shapes.get(3));
+        assertFalse(shapes.isShapeInMemory(20));
+        assertTrue(shapes.isShapeInMemory(39));
+        // Removing shifts the positions but not the shapes.
+        GRShape removed = shapes.remove(2);
+        assertEquals(2, removed.index);
+        assertEquals(NX * NY - 1, shapes.size());
+        assertSame(selected, shapes.get(2));
+        assertEquals(4, shapes.get(3).index);
+    }
+
+    public void testIntersectsAndSimplify() throws Exception {
+        ESRIShapefileShapeList shapes = (ESRIShapefileShapeList)read(true, 10).getShapes();
+        // Shape 21 is centered at 10,10.
+        assertTrue(shapes.intersects(21, 0.0, 0.0, 7.0, 7.0));
+        assertFalse(shapes.intersects(21, 20.0, 20.0, 30.0, 30.0));
+        assertFalse(shapes.isShapeInMemory(21));
+        GRPolygonList full = (GRPolygonList)shapes.get(21);
+        GRPolygonList simplified = (GRPolygonList)shapes.getSimplifiedShape(21, 1.0);
+        assertTrue(simplified.polygons[0].npts < full.polygons[0].npts);
+        assertTrue(simplified.polygons[0].npts >= 4);
+        assertEquals(full.xmin, simplified.xmin, 0.1);
+        // Polygons smaller than the tolerance are still drawn with a few points.
+        assertEquals(4, ((GRPolygonList)shapes.getSimplifiedShape(21, 100.0)).polygons[0].npts);
+        assertSame(full, shapes.getSimplifiedShape(21, 0.0));
+    }
+
+    /**
+     * Check that reading shapes on demand gives the same shapes as reading all shapes,
+     * and that only the shapes in a small area are found.
+     */
+    public void testReadShapesInArea() throws Exception {
+        ESRIShapefile all = read(false, 0);
+        ESRIShapefile onDemand = read(true, ESRIShapefileShapeList.DEFAULT_CACHE_SIZE);
+        ESRIShapefileShapeList shapes = (ESRIShapefileShapeList)onDemand.getShapes();
+        assertEquals(all.getShapes().size(), shapes.size());
+        int count = 0;
+        for (int i = 0; i < shapes.size(); i++) {
+            if (shapes.intersects(i, 0.0, 0.0, 30.0, 30.0)) {
+                shapes.get(i);
+                ++count;
+            }
+        }
+        assertEquals(16, count);
+    }
+}
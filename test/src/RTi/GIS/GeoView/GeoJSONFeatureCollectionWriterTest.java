@@ -0,0 +1,133 @@
+package RTi.GIS.GeoView;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import RTi.GR.GRPoint;
+import RTi.GR.GRPolygon;
+import RTi.GR.GRShape;
+import RTi.Util.IO.PropList;
+import RTi.Util.Table.DataTable;
+import RTi.Util.Table.TableField;
+import RTi.Util.Table.TableRecord;
+import junit.framework.TestCase;
+
+/**
+ * Tests for writing GeoJSON with GeoJSONGeometryFormatter and GeoJSONFeatureCollectionWriter.
+ */
+public class GeoJSONFeatureCollectionWriterTest extends TestCase {
+
+    public GeoJSONFeatureCollectionWriterTest(String testName) {
+        super(testName);
+    }
+
+    /**
+     * Create a layer with points and polygons and an attribute table.
+     */
+    private GeoLayer createLayer(int count) throws Exception {
+        Random random = new Random(count);
+        List<TableField> fields = new ArrayList<>();
+        fields.add(new TableField(TableField.DATA_TYPE_STRING, "Name", 20));
+        fields.add(new TableField(TableField.DATA_TYPE_DOUBLE, "Value", 12));
+        fields.add(new TableField(TableField.DATA_TYPE_INT, "Count", 12));
+        DataTable table = new DataTable(fields);
+        List<GRShape> shapes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            GRShape shape;
+            double x = -109.0 + random.nextDouble() * 7.0;
+            double y = 37.0 + random.nextDouble() * 4.0;
+            if (i % 2 == 0) {
+                shape = new GRPoint(x, y);
+            }
+            else {
+                GRPolygon polygon = new GRPolygon(25);
+                for (int j = 0; j < 25; j++) {
+                    double angle = 2.0 * Math.PI * j / 24;
+                    polygon.setPoint(j, new GRPoint(x + 0.01 * Math.cos(angle), y + 0.01 * Math.sin(angle)));
+                }
+                shape = polygon;
+            }
+            // Attributes are in reverse order to check that the shape index is used.
+            shape.index = count - 1 - i;
+            shapes.add(shape);
+            TableRecord rec = new TableRecord(3);
+            int k = i;
+            rec.addFieldValue("Station \"" + k + "\"");
+            rec.addFieldValue((k % 5 == 0) ? Double.NaN : k * 1.5);
+            rec.addFieldValue(k);
+            table.addRecord(rec);
+        }
+        GeoLayer layer = new GeoLayer(new PropList(""));
+        layer.setShapes(shapes);
+        layer.setAttributeTable(table);
+        return layer;
+    }
+
+    public void testCoordinatePrecision() {
+        Random random = new Random(1);
+        for (int precision = 0; precision <= 8; precision++) {
+            GeoJSONGeometryFormatter formatter = new GeoJSONGeometryFormatter(2, precision, -1);
+            String format = "%." + precision + "f";
+            for (int i = 0; i < 20000; i++) {
+                double x = (i % 3 == 0) ? Math.round(random.nextDouble() * 1.0e6) / 1.0e6 - 0.5
+                    : random.nextGaussian() * Math.pow(10.0, random.nextInt(16) - 8);
+                String expected = "{\"type\": \"Point\",\"coordinates\": [" + String.format(Locale.US, format, x) + ", "
+                    + String.format(Locale.US, format, -x) + "]}";
+                assertEquals(expected, formatter.format(new GRPoint(x, -x), false, null));
+            }
+        }
+    }
+
+    public void testWriteLayer() throws Exception {
+        GeoLayer layer = createLayer(100);
+        GeoJSONGeometryFormatter formatter = new GeoJSONGeometryFormatter(2, 6, -1);
+        ObjectMapper mapper = new ObjectMapper();
+        for (boolean niceFormat : new boolean[] { true, false }) {
+            StringWriter out = new StringWriter();
+            GeoJSONFeatureCollectionWriter writer = new GeoJSONFeatureCollectionWriter(out, 2, 6, niceFormat);
+            writer.writeStart();
+            writer.writeLayer(layer);
+            writer.writeEnd();
+            assertEquals(100, writer.getFeatureCount());
+            if (niceFormat) {
+                // Geometry text is the same as from the formatter.
+                GRShape shape = layer.getShapes().get(3);
+                assertTrue(out.toString().contains("\"geometry\": " + formatter.format(shape, true, "      ")));
+            }
+            JsonNode root = mapper.readTree(out.toString());
+            assertEquals("FeatureCollection", root.get("type").asText());
+            JsonNode features = root.get("features");
+            assertEquals(100, features.size());
+            for (int i = 0; i < 100; i++) {
+                JsonNode feature = features.get(i);
+                int k = 99 - i;
+                JsonNode properties = feature.get("properties");
+                assertEquals("Station \"" + k + "\"", properties.get("Name").asText());
+                if (k % 5 == 0) {
+                    assertTrue(properties.get("Value").isNull());
+                }
+                else {
+                    assertEquals(k * 1.5, properties.get("Value").asDouble(), 0.0);
+                }
+                assertEquals(k, properties.get("Count").asInt());
+                JsonNode geometry = feature.get("geometry");
+                GRShape shape = layer.getShapes().get(i);
+                if (shape instanceof GRPoint) {
+                    assertEquals("Point", geometry.get("type").asText());
+                    assertEquals(Double.parseDouble(String.format(Locale.US, "%.6f", ((GRPoint)shape).x)),
+                        geometry.get("coordinates").get(0).asDouble(), 0.0);
+                }
+                else {
+                    assertEquals("Polygon", geometry.get("type").asText());
+                    assertEquals(25, geometry.get("coordinates").get(0).size());
+                }
+            }
+        }
+    }
+}
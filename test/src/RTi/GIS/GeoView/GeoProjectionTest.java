@@ -0,0 +1,176 @@
+package RTi.GIS.GeoView;
+
+import java.io.File;
+import java.util.List;
+import java.util.Random;
+import java.util.Vector;
+
+import RTi.GR.GRPoint;
+import RTi.GR.GRPolygon;
+import RTi.GR.GRShape;
+import junit.framework.TestCase;
+
+/**
+ * Tests for projecting points with arrays, projecting layers in parallel, and caching projected layers.
+ */
+public class GeoProjectionTest extends TestCase {
+
+    private File file = null;
+
+    public GeoProjectionTest(String testName) {
+        super(testName);
+    }
+
+    protected void tearDown() {
+        GeoLayerProjectionCache.clear();
+        if (file != null) {
+            file.delete();
+        }
+    }
+
+    /**
+     * Create a list of random polygons in Colorado, in longitude and latitude.
+     */
+    private List<GRShape> createPolygons(int count, int seed) {
+        Random random = new Random(seed);
+        List<GRShape> shapes = new Vector<>();
+        for (int i = 0; i < count; i++) {
+            GRPolygon polygon = new GRPolygon(20);
+            polygon.index = i;
+            double x0 = -109.0 + random.nextDouble() * 7.0;
+            double y0 = 37.0 + random.nextDouble() * 4.0;
+            for (int j = 0; j < polygon.npts; j++) {
+                double angle = 2.0 * Math.PI * j / polygon.npts;
+                polygon.setPoint(j, new GRPoint(x0 + .05 * Math.cos(angle), y0 + .05 * Math.sin(angle)));
+            }
+            shapes.add(polygon);
+        }
+        return shapes;
+    }
+
+    private GeoLayer createLayer(String filename, List<GRShape> shapes) {
+        GeoLayer layer = new GeoLayer(filename);
+        layer.setShapes(shapes);
+        layer.setProjection(new GeographicProjection());
+        return layer;
+    }
+
+    private void assertSameShapes(List<GRShape> expected, List<GRShape> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            GRPolygon p1 = (GRPolygon)expected.get(i);
+            GRPolygon p2 = (GRPolygon)actual.get(i);
+            assertEquals(p1.index, p2.index);
+            assertEquals(p1.xmin, p2.xmin, 0.0);
+            assertEquals(p1.ymax, p2.ymax, 0.0);
+            for (int j = 0; j < p1.npts; j++) {
+                assertEquals(p1.pts[j].x, p2.pts[j].x, 0.0);
+                assertEquals(p1.pts[j].y, p2.pts[j].y, 0.0);
+            }
+        }
+    }
+
+    public void testArrayProjection() throws Exception {
+        GeoProjection[] projections = { UTMProjection.parse("UTM,13"), new HRAPProjection(), new GeographicProjection() };
+        int n = 500;
+        for (GeoProjection projection : projections) {
+            double[] x = new double[n];
+            double[] y = new double[n];
+            Random random = new Random(1);
+            for (int i = 0; i < n; i++) {
+                x[i] = -109.0 + random.nextDouble() * 7.0;
+                y[i] = 37.0 + random.nextDouble() * 4.0;
+            }
+            double[] lon = x.clone();
+            double[] lat = y.clone();
+            projection.project(x, y, n);
+            for (int i = 0; i < n; i++) {
+                GRPoint p = projection.project(new GRPoint(lon[i], lat[i]), false);
+                assertEquals(p.x, x[i], 0.0);
+                assertEquals(p.y, y[i], 0.0);
+            }
+            projection.unProject(x, y, n);
+            for (int i = 0; i < n; i++) {
+                assertEquals(lon[i], x[i], 1.0e-6);
+                assertEquals(lat[i], y[i], 1.0e-6);
+            }
+        }
+        // Central meridian for UTM zone 13 is at the false easting.
+        GRPoint p = UTMProjection.parse("UTM,13").project(new GRPoint(-105.0, 39.75), false);
+        assertEquals(500000.0, p.x, 1.0e-6);
+    }
+
+    /**
+     * Compare projecting a large layer in parallel with projecting each point.
+     */
+    public void testProjectLayer() throws Exception {
+        GeoProjection utm = UTMProjection.parse("UTM,13");
+        GeoProjection geographic = new GeographicProjection();
+        List<GRShape> expected = createPolygons(20000, 2);
+        for (GRShape shape : expected) {
+            GRPolygon polygon = (GRPolygon)shape;
+            polygon.limits_found = false;
+            for (int j = 0; j < polygon.npts; j++) {
+                geographic.unProject(polygon.pts[j], true);
+                utm.project(polygon.pts[j], true);
+                polygon.setPoint(j, polygon.pts[j]);
+            }
+        }
+        GeoLayer layer = createLayer(null, createPolygons(20000, 2));
+        layer.project(utm);
+        assertSameShapes(expected, layer.getShapes());
+        assertSame(utm, layer.getProjection());
+    }
+
+    public void testProjectionCache() throws Exception {
+        file = File.createTempFile("GeoProjectionTest", ".shp");
+        GeoProjection utm = UTMProjection.parse("UTM,13");
+        GeoLayer layer1 = createLayer(file.getPath(), createPolygons(100, 3));
+        GeoLayerProjectionCache.project(layer1, utm);
+        assertEquals(1, GeoLayerProjectionCache.getLayerCount());
+        // Reading the same file again uses the cached shapes, which are copies.
+        GeoLayer layer2 = createLayer(file.getPath(), createPolygons(100, 3));
+        GeoLayerProjectionCache.project(layer2, utm);
+        assertSameShapes(layer1.getShapes(), layer2.getShapes());
+        assertNotSame(layer1.getShapes().get(0), layer2.getShapes().get(0));
+        assertEquals(layer1.getLimits().getMaxX(), layer2.getLimits().getMaxX(), 0.0);
+        assertSame(utm, layer2.getProjection());
+        ((GRPolygon)layer2.getShapes().get(0)).pts[0].x = 0.0;
+        GeoLayer layer3 = createLayer(file.getPath(), createPolygons(100, 3));
+        GeoLayerProjectionCache.project(layer3, utm);
+        assertSameShapes(layer1.getShapes(), layer3.getShapes());
+        // Changing the file modification time requires projecting again.
+        assertTrue(file.setLastModified(file.lastModified() - 10000));
+        GeoLayer layer4 = createLayer(file.getPath(), createPolygons(100, 4));
+        GeoLayerProjectionCache.project(layer4, utm);
+        GeoLayer expected = createLayer(null, createPolygons(100, 4));
+        expected.project(utm);
+        assertSameShapes(expected.getShapes(), layer4.getShapes());
+        assertEquals(2, GeoLayerProjectionCache.getLayerCount());
+        GeoLayerProjectionCache.setMaxLayerCount(1);
+        assertEquals(1, GeoLayerProjectionCache.getLayerCount());
+        GeoLayerProjectionCache.setMaxLayerCount(4);
+    }
+
+    /**
+     * Check that UTM projections in the same zone with different parameters are cached separately.
+     */
+    public void testProjectionCacheUsesProjectionParameters() throws Exception {
+        file = File.createTempFile("GeoProjectionTest", ".shp");
+        GeoProjection utm = UTMProjection.parse("UTM,13,NAD83");
+        GeoProjection utmOffset = UTMProjection.parse("UTM,13,NAD83,400000,100000");
+        GeoProjection utmScale = UTMProjection.parse("UTM,13,NAD83,500000,0,-105,0,1.0");
+        assertTrue(utm.equals(utmOffset));
+        GeoLayerProjectionCache.project(createLayer(file.getPath(), createPolygons(10, 3)), utm);
+        GeoLayerProjectionCache.project(createLayer(file.getPath(), createPolygons(10, 3)), UTMProjection.parse("UTM,13,NAD83"));
+        assertEquals(1, GeoLayerProjectionCache.getLayerCount());
+        for (GeoProjection projection : new GeoProjection[] { utmOffset, utmScale }) {
+            GeoLayer layer = createLayer(file.getPath(), createPolygons(10, 3));
+            GeoLayerProjectionCache.project(layer, projection);
+            GeoLayer expected = createLayer(null, createPolygons(10, 3));
+            expected.project(projection);
+            assertSameShapes(expected.getShapes(), layer.getShapes());
+        }
+        assertEquals(3, GeoLayerProjectionCache.getLayerCount());
+    }
+}
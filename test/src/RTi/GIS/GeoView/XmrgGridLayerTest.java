@@ -0,0 +1,114 @@
+package RTi.GIS.GeoView;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import RTi.Util.IO.TempFiles;
+import RTi.Util.Time.DateTime;
+import junit.framework.TestCase;
+
+/**
+ * Tests for reading XMRG grids, including reading a sequence of grids with XmrgFramePrefetcher.
+ */
+public class XmrgGridLayerTest extends TestCase {
+
+    private static final int XOR = 100;
+    private static final int YOR = 200;
+    private static final int MAXX = 160;
+    private static final int MAXY = 120;
+
+    private TempFiles tempFiles = new TempFiles("XmrgGridLayerTest");
+
+    public XmrgGridLayerTest(String testName) {
+        super(testName);
+    }
+
+    protected void tearDown() {
+        tempFiles.delete();
+    }
+
+    /**
+     * Write an XMRG file with random values, some of which are missing.
+     */
+    private String writeFile(int seed, boolean bigEndian) throws Exception {
+        Random random = new Random(seed);
+        DateTime date = new DateTime(DateTime.DATE_CURRENT);
+        XmrgGridLayer layer = new XmrgGridLayer(null, "test", date, "RTM24", date, XOR, YOR, MAXX, MAXY);
+        GeoGrid grid = layer.getGrid();
+        for (int r = YOR; r < YOR + MAXY; r++) {
+            for (int c = XOR; c < XOR + MAXX; c++) {
+                grid.setDataValue(c, r, (random.nextInt(10) == 0) ? -999.0 : random.nextInt(20000) / 100.0);
+            }
+        }
+        String filename = tempFiles.create(".xmrg").getPath();
+        layer.writeXmrgFile(filename, bigEndian);
+        return filename;
+    }
+
+    public void testReadGridData() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            String filename = writeFile(i, i == 0);
+            XmrgGridLayer layer = new XmrgGridLayer(filename, true, false);
+            XmrgGridLayer mapped = new XmrgGridLayer(filename, true, true);
+            XmrgGridLayer headerOnly = new XmrgGridLayer(filename, false, true);
+            assertEquals(i == 0, layer.isBigEndian());
+            GeoGrid grid = layer.getGrid();
+            assertEquals(MAXX, grid.getNumberOfColumnsFull());
+            int positive = 0;
+            for (int r = YOR; r < YOR + MAXY; r++) {
+                for (int c = XOR; c < XOR + MAXX; c++) {
+                    double value = headerOnly.readDataValue(c, r);
+                    assertEquals(value, mapped.readDataValue(c, r), 0.0);
+                    // Whole grids are stored as whole millimeters.
+                    double expected = (value < 0.0) ? value : Math.floor(value);
+                    assertEquals(expected, grid.getDataValue(c, r), 0.0);
+                    assertEquals(expected, mapped.getGrid().getDataValue(c, r), 0.0);
+                    if (expected > 0.0) {
+                        ++positive;
+                    }
+                }
+            }
+            assertEquals(positive, grid.getNumberOfPositiveValues());
+        }
+    }
+
+    public void testReadSubset() throws Exception {
+        String filename = writeFile(3, false);
+        XmrgGridLayer full = new XmrgGridLayer(filename, true, false);
+        XmrgGridLayer subset = new XmrgGridLayer(filename, true, false, XOR + 10, YOR + 5, XOR + 40, YOR + 30);
+        for (int r = YOR + 5; r <= YOR + 30; r++) {
+            for (int c = XOR + 10; c <= XOR + 40; c++) {
+                assertEquals(full.getGrid().getDataValue(c, r), subset.getGrid().getDataValue(c, r), 0.0);
+            }
+        }
+    }
+
+    /**
+     * Read two days of hourly grids, cycling through a day of files, checking that prefetching
+     * returns the same grids as reading on request.  The year-long timing comparison is in
+     * benchmark/src/RTi/GIS/GeoView/XmrgFramePrefetcherBenchmark.java.
+     */
+    public void testPrefetchHourlyGrids() throws Exception {
+        List<String> day = new ArrayList<>();
+        for (int hour = 0; hour < 24; hour++) {
+            day.add(writeFile(hour, (hour % 2) == 0));
+        }
+        List<String> frames = new ArrayList<>();
+        for (int i = 0; i < 2 * 24; i++) {
+            frames.add(day.get(i % 24));
+        }
+        XmrgFramePrefetcher prefetcher = new XmrgFramePrefetcher(frames, 8, 2);
+        try {
+            assertEquals(frames.size(), prefetcher.getFrameCount());
+            for (int i = 0; i < prefetcher.getFrameCount(); i++) {
+                assertEquals(frames.get(i), prefetcher.getFrameFilename(i));
+                XmrgGridLayer expected = new XmrgGridLayer(frames.get(i), true, false);
+                assertEquals(expected.getMaxValueHeader(), prefetcher.getFrame(i).getMaxValueHeader(), 0.0);
+            }
+        }
+        finally {
+            prefetcher.shutdown();
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package RTi.GR;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+
+import javax.imageio.ImageIO;
+
+import RTi.Util.IO.PropList;
+import RTi.Util.IO.TempFiles;
+import junit.framework.TestCase;
+
+/**
+ * Tests for GRImageWriter, which replaces JpegEncoder for saving images.
+ */
+public class GRImageWriterTest extends TestCase {
+
+    private TempFiles tempFiles = new TempFiles("GRImageWriterTest");
+
+    public GRImageWriterTest(String testName) {
+        super(testName);
+    }
+
+    protected void tearDown() {
+        tempFiles.delete();
+    }
+
+    /**
+     * Draw an image similar to a graph, with a background, grid lines and several time series lines.
+     */
+    private BufferedImage createGraphImage(int width, int height, int seed) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_4BYTE_ABGR);
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setColor(Color.white);
+        g.fillRect(0, 0, width, height);
+        g.setColor(Color.lightGray);
+        for (int x = 0; x < width; x += 50) {
+            g.drawLine(x, 0, x, height);
+        }
+        for (int y = 0; y < height; y += 50) {
+            g.drawLine(0, y, width, y);
+        }
+        Color[] colors = { Color.blue, Color.red, Color.green.darker(), Color.magenta };
+        g.setStroke(new BasicStroke(2.0F));
+        for (int ts = 0; ts < colors.length; ts++) {
+            g.setColor(colors[ts]);
+            int yPrev = height / 2;
+            for (int x = 1; x < width; x++) {
+                int y = (int)(height / 2 + (height / 3) * Math.sin((x + seed * 37 + ts * 200) / (40.0 + ts * 10)));
+                g.drawLine(x - 1, yPrev, x, y);
+                yPrev = y;
+            }
+        }
+        g.setColor(Color.black);
+        g.drawString("Graph " + seed, 20, 20);
+        g.dispose();
+        return image;
+    }
+
+    public void testGetFormatFromFilename() {
+        assertEquals("jpg", GRImageWriter.getFormatFromFilename("graph.JPEG"));
+        assertEquals("png", GRImageWriter.getFormatFromFilename("graph.png "));
+        assertEquals("gif", GRImageWriter.getFormatFromFilename("graph.gif"));
+        assertNull(GRImageWriter.getFormatFromFilename("graph.bmp"));
+    }
+
+    public void testWriteFormats() throws Exception {
+        BufferedImage image = createGraphImage(400, 300, 1);
+        for (String extension : new String[] { ".jpg", ".png", ".gif" }) {
+            File f = tempFiles.create(extension);
+            new GRImageWriter().write(image, f.getPath());
+            BufferedImage read = ImageIO.read(f);
+            assertEquals(400, read.getWidth());
+            assertEquals(300, read.getHeight());
+        }
+        // PNG is lossless.
+        File f = tempFiles.create(".png");
+        new GRImageWriter().write(image, f.getPath());
+        BufferedImage read = ImageIO.read(f);
+        assertEquals(image.getRGB(100, 150), read.getRGB(100, 150));
+        // Unrecognized extension is written as JPEG.
+        File noExt = tempFiles.create(".img");
+        File written = new GRImageWriter().write(image, noExt.getPath());
+        tempFiles.add(written);
+        assertEquals(noExt.getPath() + ".jpg", written.getPath());
+        assertNotNull(ImageIO.read(written));
+    }
+
+    public void testQualityAndCompressionLevel() throws Exception {
+        BufferedImage image = createGraphImage(800, 600, 2);
+        PropList props = new PropList("ImageProps");
+        props.set("Quality", "20");
+        props.set("PngCompressionLevel", "0");
+        GRImageWriter low = new GRImageWriter(props);
+        assertEquals(20, low.getQuality());
+        assertEquals(0, low.getPngCompressionLevel());
+        GRImageWriter high = new GRImageWriter();
+        high.setQuality(150);
+        assertEquals(100, high.getQuality());
+        high.setPngCompressionLevel(9);
+        File lowJpg = tempFiles.create(".jpg");
+        File highJpg = tempFiles.create(".jpg");
+        low.write(image, lowJpg.getPath());
+        high.write(image, highJpg.getPath());
+        assertTrue(lowJpg.length() < highJpg.length());
+        File lowPng = tempFiles.create(".png");
+        File highPng = tempFiles.create(".png");
+        low.write(image, lowPng.getPath());
+        high.write(image, highPng.getPath());
+        assertTrue(highPng.length() < lowPng.length());
+    }
+
+    /**
+     * The image is copied when writing asynchronously, so drawing after the call does not change the file.
+     */
+    public void testWriteAsync() throws Exception {
+        BufferedImage image = createGraphImage(400, 300, 3);
+        int rgb = image.getRGB(10, 290);
+        File f = tempFiles.create(".png");
+        Future<File> future = new GRImageWriter().writeAsync(image, f.getPath());
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.black);
+        g.fillRect(0, 0, 400, 300);
+        g.dispose();
+        assertEquals(f, future.get());
+        assertEquals(rgb, ImageIO.read(f).getRGB(10, 290));
+        try {
+            new GRImageWriter().writeAsync(image, new File(f.getParentFile(), "missing/graph.png").getPath()).get();
+            fail("Expected exception for missing folder.");
+        }
+        catch (Exception e) {
+            // Expected.
+        }
+    }
+
+    /**
+     * Check saving graph images, and saving asynchronously while the next image is drawn into the same buffer.
+     * The timing comparison with JpegEncoder is in benchmark/src/RTi/GR/GRImageWriterBenchmark.java.
+     */
+    public void testWriteImages() throws Exception {
+        int count = 3;
+        int width = 600;
+        int height = 400;
+        File f = tempFiles.create(".jpg");
+        GRImageWriter writer = new GRImageWriter();
+        for (int i = 0; i < count; i++) {
+            writer.write(createGraphImage(width, height, i), f.getPath());
+            assertTrue(f.length() > 0);
+        }
+        List<Future<File>> futures = new ArrayList<>();
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_4BYTE_ABGR);
+        for (int i = 0; i < count; i++) {
+            // Reuse the same buffer, similar to a device.
+            Graphics2D g = image.createGraphics();
+            g.drawImage(createGraphImage(width, height, i), 0, 0, null);
+            g.dispose();
+            futures.add(writer.writeAsync(image, tempFiles.create(".jpg").getPath()));
+        }
+        for (Future<File> future : futures) {
+            assertTrue(future.get().length() > 0);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package RTi.GRTS;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import RTi.TS.DayTS;
+import RTi.TS.TS;
+import RTi.TS.TSIdent;
+import RTi.TS.TSSupplier;
+import RTi.Util.IO.TempFiles;
+import RTi.Util.Time.DateTime;
+import junit.framework.TestCase;
+
+/**
+ * Tests for rendering time series products in parallel, which must work when headless.
+ */
+public class TSProductBatchRendererTest extends TestCase {
+
+    private TempFiles tempFiles = new TempFiles("TSProductBatchRendererTest");
+
+    /**
+     * Value of the java.awt.headless property before the test, restored after the test.
+     */
+    private String headless;
+
+    public TSProductBatchRendererTest(String testName) {
+        super(testName);
+    }
+
+    protected void setUp() {
+        headless = System.getProperty("java.awt.headless");
+        System.setProperty("java.awt.headless", "true");
+    }
+
+    protected void tearDown() {
+        tempFiles.delete();
+        if (headless == null) {
+            System.clearProperty("java.awt.headless");
+        }
+        else {
+            System.setProperty("java.awt.headless", headless);
+        }
+    }
+
+    /**
+     * Supplier that creates time series from the identifier, for example "Loc1..Streamflow.Day".
+     */
+    private static class TestSupplier implements TSSupplier {
+        public String getTSSupplierName() {
+            return "Test";
+        }
+
+        public TS readTimeSeries(String tsident, DateTime date1, DateTime date2, String units, boolean readData)
+            throws Exception {
+            DayTS ts = new DayTS();
+            ts.setIdentifier(tsident);
+            ts.setDate1(DateTime.parse("2020-01-01"));
+            ts.setDate2(DateTime.parse("2020-12-31"));
+            ts.setDataUnits("CFS");
+            ts.allocateDataSpace();
+            int seed = tsident.hashCode() % 50;
+            int i = 0;
+            for (DateTime date = new DateTime(ts.getDate1()); date.lessThanOrEqualTo(ts.getDate2()); date.addDay(1), i++) {
+                ts.setDataValue(date, 100 + seed + 50 * Math.sin(i / 20.0));
+            }
+            return ts;
+        }
+
+        public TS readTimeSeries(TS ts, String fname, DateTime date1, DateTime date2, String units, boolean readData) {
+            return null;
+        }
+
+        public List<TS> readTimeSeriesList(String fname, DateTime date1, DateTime date2, String units, boolean readData) {
+            return null;
+        }
+
+        public List<TS> readTimeSeriesList(TSIdent tsident, String fname, DateTime date1, DateTime date2, String units,
+            boolean readData) {
+            return null;
+        }
+    }
+
+    private String writeProduct(int i, String extension) throws Exception {
+        File tsp = tempFiles.create(".tsp");
+        File output = tempFiles.add(new File(tsp.getPath().replace(".tsp", extension)));
+        try (PrintWriter out = new PrintWriter(tsp)) {
+            out.println("[Product]");
+            out.println("ProductType = \"Graph\"");
+            out.println("TotalWidth = \"800\"");
+            out.println("TotalHeight = \"500\"");
+            out.println("MainTitleString = \"Product " + i + "\"");
+            out.println("OutputFile = \"" + output.getPath().replace('\\', '/') + "\"");
+            out.println("PreviewOutput = \"true\"");
+            out.println("[SubProduct 1]");
+            out.println("GraphType = \"Line\"");
+            out.println("[Data 1.1]");
+            out.println("TSID = \"Loc" + i + "..Streamflow.Day\"");
+            out.println("[Data 1.2]");
+            out.println("TSID = \"Loc" + (i + 1) + "..Streamflow.Day\"");
+        }
+        return tsp.getPath();
+    }
+
+    public void testRenderProductFiles() throws Exception {
+        List<String> productFiles = new ArrayList<>();
+        for (int i = 0; i < 24; i++) {
+            productFiles.add(writeProduct(i, (i == 23) ? ".svg" : ".png"));
+        }
+        TSProductBatchRenderer renderer = new TSProductBatchRenderer();
+        renderer.addTSSupplier(new TestSupplier());
+        renderer.setThreads(1);
+        List<TSProductRenderResult> results = renderer.renderProductFiles(productFiles, null);
+        List<byte[]> images = new ArrayList<>();
+        for (int i = 0; i < productFiles.size(); i++) {
+            TSProductRenderResult result = results.get(i);
+            assertTrue("" + result.getException(), result.isSuccess());
+            assertEquals(productFiles.get(i), result.getProductFile());
+            File output = new File(result.getOutputFile());
+            assertTrue(output.length() > 0);
+            images.add(Files.readAllBytes(output.toPath()));
+        }
+        // Rendering in parallel must produce the same images
+        renderer.setThreads(4);
+        // Add a product file that cannot be read
+        productFiles.add(productFiles.get(0) + ".missing");
+        results = renderer.renderProductFiles(productFiles, null);
+        assertEquals(productFiles.size(), results.size());
+        for (int i = 0; i < productFiles.size() - 2; i++) {
+            assertTrue(Arrays.equals(images.get(i), Files.readAllBytes(new File(results.get(i).getOutputFile()).toPath())));
+        }
+        assertFalse(results.get(productFiles.size() - 1).isSuccess());
+        assertNull(results.get(productFiles.size() - 1).getOutputFile());
+    }
+}
@@ -0,0 +1,160 @@
+package RTi.TS;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import RTi.Util.IO.TempFiles;
+import RTi.Util.Time.DateTime;
+import RTi.Util.Time.TimeInterval;
+import junit.framework.TestCase;
+
+/**
+ * Tests for the CompactBinaryTS file format, comparing with DateValueTS.
+ */
+public class CompactBinaryTSTest extends TestCase {
+
+    private TempFiles tempFiles = new TempFiles("CompactBinaryTSTest");
+
+    public CompactBinaryTSTest(String testName) {
+        super(testName);
+    }
+
+    protected void tearDown() {
+        tempFiles.delete();
+    }
+
+    private List<TS> createList() throws Exception {
+        List<TS> tslist = new ArrayList<>();
+        tslist.add(TSTestData.createTS(new DayTS(), "Loc1.USGS.Streamflow.Day", "2000-01-01", "2009-12-31", true));
+        HourTS hourTS = new HourTS();
+        hourTS.setDataInterval(TimeInterval.HOUR, 6);
+        tslist.add(TSTestData.createTS(hourTS, "Loc2.USGS.Streamflow.6Hour", "2000-01-01 00", "2009-12-31 18", false));
+        tslist.add(TSTestData.createTS(new MonthTS(), "Loc3.USGS.Streamflow.Month", "1950-01", "2019-12", false));
+        tslist.get(0).setDescription("Test Loc1");
+        tslist.get(0).setAlias("Alias1");
+        tslist.get(0).setProperty("Count", Integer.valueOf(3));
+        tslist.get(0).setProperty("Ratio", Double.valueOf(0.5));
+        tslist.get(0).setProperty("Station", "Upper");
+        tslist.get(0).addDataFlagMetadata(new TSDataFlagMetadata("E", "Estimated"));
+        return tslist;
+    }
+
+    private void checkSame(TS expected, TS actual, DateTime start, DateTime end) throws Exception {
+        assertEquals(expected.getIdentifier().toString(), actual.getIdentifier().toString());
+        assertEquals(expected.getDataUnits(), actual.getDataUnits());
+        assertEquals(expected.getDescription(), actual.getDescription());
+        assertEquals(expected.getAlias(), actual.getAlias());
+        assertEquals(expected.hasDataFlags(), actual.hasDataFlags());
+        TSData data1 = new TSData();
+        TSData data2 = new TSData();
+        int count = 0;
+        for (DateTime date = new DateTime(start); date.lessThanOrEqualTo(end);
+            date.addInterval(expected.getDataIntervalBase(), expected.getDataIntervalMult()), count++) {
+            data1 = expected.getDataPoint(date, data1);
+            data2 = actual.getDataPoint(date, data2);
+            if (expected.isDataMissing(data1.getDataValue())) {
+                assertTrue(actual.isDataMissing(data2.getDataValue()));
+            }
+            else {
+                assertEquals(data1.getDataValue(), data2.getDataValue(), 0.0);
+            }
+            if (expected.hasDataFlags()) {
+                assertEquals(data1.getDataFlag(), data2.getDataFlag());
+            }
+        }
+        assertTrue(count > 0);
+    }
+
+    public void testRoundTripWithDateValue() throws Exception {
+        List<TS> tslist = createList();
+        // DateValue files require the same interval so write one file per time series.
+        List<String> dvFiles = new ArrayList<>();
+        String binFile = tempFiles.create(".cbts").getPath();
+        for (TS ts : tslist) {
+            String dvFile = tempFiles.create(".dv").getPath();
+            DateValueTS.writeTimeSeries(ts, dvFile);
+            dvFiles.add(dvFile);
+        }
+        CompactBinaryTS.writeTimeSeriesList(tslist, binFile);
+        List<TS> dvList = new ArrayList<>();
+        for (String dvFile : dvFiles) {
+            dvList.addAll(DateValueTS.readTimeSeriesList(dvFile, null, null, null, true));
+        }
+        List<TS> binList = CompactBinaryTS.readTimeSeriesList(binFile, null, null, null, true);
+        assertTrue(CompactBinaryTS.isCompactBinaryTSFile(binFile));
+        assertFalse(CompactBinaryTS.isCompactBinaryTSFile(dvFiles.get(0)));
+        assertEquals(dvList.size(), binList.size());
+        for (int i = 0; i < tslist.size(); i++) {
+            TS ts = tslist.get(i);
+            checkSame(ts, binList.get(i), ts.getDate1(), ts.getDate2());
+            checkSame(dvList.get(i), binList.get(i), ts.getDate1(), ts.getDate2());
+            assertEquals(CompactBinaryTS.INPUT_TYPE, binList.get(i).getIdentifier().getInputType());
+        }
+        TS ts = binList.get(0);
+        assertEquals(Integer.valueOf(3), ts.getProperty("Count"));
+        assertEquals(Double.valueOf(0.5), ts.getProperty("Ratio"));
+        assertEquals("Upper", ts.getProperty("Station"));
+        assertEquals("Estimated", ts.getDataFlagMetadataList().get(0).getDescription());
+        // The static read methods do not memory-map the file, so it can be replaced right away, even on Windows.
+        CompactBinaryTS.writeTimeSeriesList(tslist.subList(0, 1), binFile);
+        assertEquals(1, CompactBinaryTS.readTimeSeriesList(binFile, null, null, null, false).size());
+    }
+
+    public void testReadPeriod() throws Exception {
+        List<TS> tslist = createList();
+        String binFile = tempFiles.create(".cbts").getPath();
+        // Use a small block size so that the period spans several blocks.
+        CompactBinaryTS.writeTimeSeriesList(tslist, binFile, 100);
+        DateTime start = DateTime.parse("2005-02-10");
+        DateTime end = DateTime.parse("2006-07-04");
+        for (boolean mapped : new boolean[] { false, true }) {
+            CompactBinaryTS file = new CompactBinaryTS(binFile, mapped);
+            try {
+                assertEquals(3, file.getTimeSeriesCount());
+                assertEquals(0, file.indexOf("Alias1"));
+                assertEquals(2, file.indexOf("loc3.usgs.streamflow.month"));
+                assertEquals(-1, file.indexOf("Missing.USGS.Streamflow.Day"));
+                TS ts = file.readTimeSeries(0, start, end, true);
+                assertEquals(start, ts.getDate1());
+                assertEquals(tslist.get(0).getDate1(), ts.getDate1Original());
+                checkSame(tslist.get(0), ts, start, end);
+                TS header = file.readTimeSeries(1, null, null, false);
+                assertFalse(header.hasData());
+                assertEquals(tslist.get(1).getDate2(), header.getDate2());
+            }
+            finally {
+                file.close();
+            }
+        }
+        // A period extending past the data is filled with missing values.
+        TS ts = CompactBinaryTS.readTimeSeries("Loc3.USGS.Streamflow.Month", binFile,
+            DateTime.parse("2019-06"), DateTime.parse("2020-06"), null, true);
+        checkSame(tslist.get(2), ts, DateTime.parse("2019-06"), DateTime.parse("2019-12"));
+        assertTrue(ts.isDataMissing(ts.getDataValue(DateTime.parse("2020-03"))));
+    }
+
+    public void testTimeSeriesWithoutPeriod() throws Exception {
+        List<TS> tslist = createList();
+        // A time series without a period must not prevent the other time series in the file from being read.
+        TS empty = TSUtil.newTimeSeries("Empty.USGS.Streamflow.Day", true);
+        empty.setIdentifier("Empty.USGS.Streamflow.Day");
+        tslist.add(1, empty);
+        String binFile = tempFiles.create(".cbts").getPath();
+        CompactBinaryTS.writeTimeSeriesList(tslist, binFile);
+        List<TS> binList = CompactBinaryTS.readTimeSeriesList(binFile, null, null, null, true);
+        assertEquals(tslist.size(), binList.size());
+        TS ts = binList.get(1);
+        assertEquals("Empty", ts.getLocation());
+        assertNull(ts.getDate1());
+        assertNull(ts.getDate2());
+        assertFalse(ts.hasData());
+        checkSame(tslist.get(2), binList.get(2), tslist.get(2).getDate1(), tslist.get(2).getDate2());
+        // A requested period is filled with missing values.
+        DateTime start = DateTime.parse("2000-01-01");
+        DateTime end = DateTime.parse("2000-01-31");
+        ts = CompactBinaryTS.readTimeSeries("Empty.USGS.Streamflow.Day", binFile, start, end, null, true);
+        assertEquals(start, ts.getDate1());
+        assertEquals(end, ts.getDate2());
+        assertTrue(ts.isDataMissing(ts.getDataValue(DateTime.parse("2000-01-15"))));
+    }
+}
@@ -0,0 +1,137 @@
+package RTi.TS;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import RTi.Util.IO.TempFiles;
+import RTi.Util.Time.DateTime;
+import RTi.Util.Time.TimeInterval;
+import junit.framework.TestCase;
+
+/**
+ * Tests for DateValueTSIncrementalReader, checking that appending data lines gives the same time series
+ * as reading the full file with DateValueTS.
+ */
+public class DateValueTSIncrementalReaderTest extends TestCase {
+
+    private TempFiles tempFiles = new TempFiles("DateValueTSIncrementalReaderTest");
+
+    public DateValueTSIncrementalReaderTest(String testName) {
+        super(testName);
+    }
+
+    protected void tearDown() {
+        tempFiles.delete();
+    }
+
+    /**
+     * Write time series for a period to a DateValue file.
+     */
+    private String writeFile(List<TS> tslist, String end) throws Exception {
+        List<TS> copies = new ArrayList<>();
+        for (TS ts : tslist) {
+            TS copy = (TS)ts.clone();
+            copy.changePeriodOfRecord(copy.getDate1(), DateTime.parse(end));
+            copies.add(copy);
+        }
+        String filename = tempFiles.create(".dv").getPath();
+        DateValueTS.writeTimeSeriesList(copies, filename);
+        return filename;
+    }
+
+    /**
+     * Return the data lines in a file after a date.
+     */
+    private String getDataLinesAfter(String filename, String date) throws Exception {
+        StringBuilder b = new StringBuilder();
+        for (String line : Files.readAllLines(new File(filename).toPath())) {
+            if (!line.isEmpty() && Character.isDigit(line.charAt(0)) && (line.compareTo(date) > 0)
+                && !line.startsWith(date)) {
+                b.append(line).append("\n");
+            }
+        }
+        return b.toString();
+    }
+
+    private void append(String filename, String text) throws Exception {
+        try (FileWriter out = new FileWriter(filename, true)) {
+            out.write(text);
+        }
+    }
+
+    private void checkSame(List<TS> expected, List<TS> actual) throws Exception {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            TS ts1 = expected.get(i);
+            TS ts2 = actual.get(i);
+            assertEquals(ts1.getIdentifierString(), ts2.getIdentifierString());
+            assertEquals(ts1.getDate1(), ts2.getDate1());
+            assertEquals(ts1.getDate2(), ts2.getDate2());
+            assertEquals(ts1.hasDataFlags(), ts2.hasDataFlags());
+            TSData data1 = new TSData();
+            TSData data2 = new TSData();
+            for (DateTime date = new DateTime(ts1.getDate1()); date.lessThanOrEqualTo(ts1.getDate2());
+                date.addInterval(ts1.getDataIntervalBase(), ts1.getDataIntervalMult())) {
+                data1 = ts1.getDataPoint(date, data1);
+                data2 = ts2.getDataPoint(date, data2);
+                assertEquals(date.toString(), data1.getDataValue(), data2.getDataValue(), 0.0);
+                if (ts1.hasDataFlags()) {
+                    assertEquals(date.toString(), data1.getDataFlag(), data2.getDataFlag());
+                }
+            }
+        }
+    }
+
+    public void testAppendDaily() throws Exception {
+        List<TS> tslist = new ArrayList<>();
+        tslist.add(TSTestData.createTS(new DayTS(), "Loc1.Test.Streamflow.Day", "2020-01-01", "2020-12-31", true));
+        tslist.add(TSTestData.createTS(new DayTS(), "Loc2.Test.Streamflow.Day", "2020-01-01", "2020-12-31", false));
+        String filename = writeFile(tslist, "2020-06-30");
+        String fullFilename = writeFile(tslist, "2020-12-31");
+
+        DateValueTSIncrementalReader reader = new DateValueTSIncrementalReader(filename);
+        assertTrue(reader.refresh());
+        checkSame(DateValueTS.readTimeSeriesList(filename, null, null, null, true), reader.getTimeSeriesList());
+        List<TS> readList = reader.getTimeSeriesList();
+        assertFalse(reader.refresh());
+
+        // Append a month and then the rest of the year, which extends the period past the End in the header.
+        String lines = getDataLinesAfter(fullFilename, "2020-06-30");
+        int pos = lines.indexOf("2020-08-01");
+        append(filename, lines.substring(0, pos));
+        assertTrue(reader.refresh());
+        assertEquals(DateTime.parse("2020-07-31"), readList.get(0).getDate2());
+        append(filename, lines.substring(pos));
+        assertTrue(reader.refresh());
+        assertSame(readList, reader.getTimeSeriesList());
+        assertEquals(1, reader.getReloadCount());
+        assertEquals(184, reader.getAppendedLineCount());
+        assertEquals(0, reader.getErrorCount());
+        checkSame(DateValueTS.readTimeSeriesList(fullFilename, null, null, null, true), readList);
+
+        // Rewriting the file with a new header causes a reload.
+        Files.copy(new File(fullFilename).toPath(), new File(filename).toPath(),
+            java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+        assertTrue(reader.refresh());
+        assertEquals(2, reader.getReloadCount());
+        checkSame(DateValueTS.readTimeSeriesList(fullFilename, null, null, null, true), reader.getTimeSeriesList());
+    }
+
+    public void testAppendHourly() throws Exception {
+        List<TS> tslist = new ArrayList<>();
+        HourTS hourTS = new HourTS();
+        hourTS.setDataInterval(TimeInterval.HOUR, 1);
+        tslist.add(TSTestData.createTS(hourTS, "Loc1.Test.Streamflow.Hour", "2020-01-01 00", "2020-01-10 23", false));
+        String filename = writeFile(tslist, "2020-01-05 23");
+        String fullFilename = writeFile(tslist, "2020-01-10 23");
+        DateValueTSIncrementalReader reader = new DateValueTSIncrementalReader(filename);
+        reader.refresh();
+        append(filename, getDataLinesAfter(fullFilename, "2020-01-05 23"));
+        assertTrue(reader.refresh());
+        assertEquals(1, reader.getReloadCount());
+        checkSame(DateValueTS.readTimeSeriesList(fullFilename, null, null, null, true), reader.getTimeSeriesList());
+    }
+}
@@ -0,0 +1,125 @@
+package RTi.TS;
+
+import java.io.File;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+import RTi.Util.Time.DateTime;
+import RTi.Util.Time.TimeInterval;
+
+/**
+ * Tests for PagedHourTS and TSPageFile, which must give the same results as HourTS.
+ */
+public class PagedHourTSTest extends TestCase {
+
+    private TSPageFile pageFile = null;
+
+    public PagedHourTSTest(String testName) {
+        super(testName);
+    }
+
+    protected void setUp() throws Exception {
+        File file = File.createTempFile("PagedHourTSTest-", ".bin");
+        // Small block size and memory limit so that blocks are paged.
+        pageFile = new TSPageFile(file, 256, 4*256*8);
+    }
+
+    protected void tearDown() throws Exception {
+        pageFile.close();
+    }
+
+    private void fill(HourTS ts) {
+        ts.setDataInterval(TimeInterval.HOUR, 1);
+        ts.setDate1(DateTime.parse("2000-01-01 00"));
+        ts.setDate2(DateTime.parse("2001-12-31 23"));
+        ts.allocateDataSpace();
+        int i = 0;
+        for (DateTime date = new DateTime(ts.getDate1()); date.lessThanOrEqualTo(ts.getDate2()); date.addHour(1), i++) {
+            if (i % 5 != 0) {
+                ts.setDataValue(date, i*0.5);
+            }
+        }
+    }
+
+    private void assertSameData(TS expected, TS actual) throws Exception {
+        assertEquals(expected.getDate1(), actual.getDate1());
+        assertEquals(expected.getDate2(), actual.getDate2());
+        TSIterator it = actual.iterator();
+        for (DateTime date = new DateTime(expected.getDate1()); date.lessThanOrEqualTo(expected.getDate2()); date.addHour(1)) {
+            assertEquals(date.toString(), expected.getDataValue(date), actual.getDataValue(date), 0.0);
+            TSData data = it.next();
+            assertEquals(date, data.getDate());
+            assertEquals(expected.getDataValue(date), data.getDataValue(), 0.0);
+        }
+        assertNull(it.next());
+        // Array copies of the data space must match the values by date.
+        assertTrue(Arrays.equals(expected.getDataValues(), actual.getDataValues()));
+        assertEquals(actual.getDataSize(), actual.getDataValues().length);
+    }
+
+    public void testSameAsHourTS() throws Exception {
+        HourTS hourTS = new HourTS();
+        PagedHourTS pagedTS = new PagedHourTS(pageFile);
+        fill(hourTS);
+        fill(pagedTS);
+        assertSameData(hourTS, pagedTS);
+        assertTrue(pageFile.getResidentBlockCount() <= 4);
+        assertTrue(pageFile.getPageOutCount() > 0);
+    }
+
+    public void testMissingBlocksNotStored() throws Exception {
+        PagedHourTS ts = new PagedHourTS(pageFile);
+        ts.setDataInterval(TimeInterval.HOUR, 1);
+        ts.setDate1(DateTime.parse("1950-01-01 00"));
+        ts.setDate2(DateTime.parse("2020-12-31 23"));
+        ts.allocateDataSpace();
+        ts.setDataValue(DateTime.parse("2000-06-01 12"), 3.0);
+        assertEquals(1, pageFile.getFileBlockCount());
+        assertTrue(ts.isDataMissing(ts.getDataValue(DateTime.parse("1960-01-01 00"))));
+        assertEquals(3.0, ts.getDataValue(DateTime.parse("2000-06-01 12")), 0.0);
+        ts.freeDataSpace();
+        assertEquals(0, pageFile.getFileBlockCount());
+    }
+
+    public void testCloneAndChangePeriod() throws Exception {
+        HourTS hourTS = new HourTS();
+        PagedHourTS pagedTS = new PagedHourTS(pageFile);
+        fill(hourTS);
+        fill(pagedTS);
+        PagedHourTS copy = (PagedHourTS)pagedTS.clone();
+        pagedTS.setDataValue(DateTime.parse("2000-03-01 05"), -1.0);
+        assertSameData(hourTS, copy);
+        hourTS.setDataValue(DateTime.parse("2000-03-01 05"), -1.0);
+        hourTS.changePeriodOfRecord(DateTime.parse("1999-11-01 00"), DateTime.parse("2000-08-15 10"));
+        pagedTS.changePeriodOfRecord(DateTime.parse("1999-11-01 00"), DateTime.parse("2000-08-15 10"));
+        assertSameData(hourTS, pagedTS);
+    }
+
+    public void testDataFlags() throws Exception {
+        PagedHourTS ts = new PagedHourTS(pageFile);
+        fill(ts);
+        DateTime date = DateTime.parse("2001-02-03 04");
+        ts.setDataValue(date, 7.0, "E", 0);
+        TSData data = ts.getDataPoint(date, null);
+        assertEquals(7.0, data.getDataValue(), 0.0);
+        assertEquals("E", data.getDataFlag());
+    }
+
+    public void testPagedDayTS() throws Exception {
+        DayTS dayTS = new DayTS();
+        PagedDayTS pagedTS = new PagedDayTS(pageFile);
+        for (DayTS ts : new DayTS[] { dayTS, pagedTS }) {
+            ts.setDataInterval(TimeInterval.DAY, 1);
+            ts.setDate1(DateTime.parse("1990-01-01"));
+            ts.setDate2(DateTime.parse("2009-12-31"));
+            ts.allocateDataSpace();
+            int i = 0;
+            for (DateTime date = new DateTime(ts.getDate1()); date.lessThanOrEqualTo(ts.getDate2()); date.addDay(1), i++) {
+                ts.setDataValue(date, i);
+            }
+        }
+        for (DateTime date = new DateTime(dayTS.getDate1()); date.lessThanOrEqualTo(dayTS.getDate2()); date.addDay(1)) {
+            assertEquals(dayTS.getDataValue(date), pagedTS.getDataValue(date), 0.0);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package RTi.TS;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.List;
+
+import RTi.Util.IO.TempFiles;
+import RTi.Util.Time.DateTime;
+import junit.framework.TestCase;
+
+/**
+ * Tests for reading selected runs and slots from a RiverWare RDF file using RiverWareRdfIndex.
+ */
+public class RiverWareRdfIndexTest extends TestCase {
+
+    private static final String[] SLOTS = { "Powell.Outflow", "Powell.Pool Elevation", "Mead.Outflow", "Mead.Storage" };
+
+    private TempFiles tempFiles = new TempFiles("RiverWareRdfIndexTest");
+
+    public RiverWareRdfIndexTest(String testName) {
+        super(testName);
+    }
+
+    protected void tearDown() {
+        tempFiles.delete();
+    }
+
+    /**
+     * Write a multi-run RDF file with monthly slots, some of which have missing values.
+     */
+    private String writeRdf(int runCount, int years, String lineEnd) throws Exception {
+        File f = tempFiles.create(".rdf");
+        tempFiles.add(new File(RiverWareRdfIndex.getIndexFilename(f.getPath())));
+        int timeSteps = years * 12;
+        try (PrintWriter out = new PrintWriter(new FileOutputStream(f))) {
+            out.print("name: CRSS" + lineEnd + "owner: test" + lineEnd + "description: Test output" + lineEnd
+                + "create_date: 2013-9-21 10:30" + lineEnd + "number_of_runs:" + runCount + lineEnd
+                + "END_PACKAGE_PREAMBLE" + lineEnd);
+            for (int run = 0; run < runCount; run++) {
+                out.print("start: 2000-1-31 24:00" + lineEnd + "end: " + (1999 + years) + "-12-31 24:00" + lineEnd
+                    + "time_step_unit: month" + lineEnd + "unit_quantity: 1" + lineEnd + "time_steps: " + timeSteps + lineEnd
+                    + "slot_set: Slots" + run + lineEnd + "rule_set: Rules" + lineEnd + "consecutive: 0" + lineEnd
+                    + "idx_sequential: 1" + lineEnd + "END_RUN_PREAMBLE" + lineEnd);
+                for (int step = 0; step < timeSteps; step++) {
+                    out.print((2000 + step / 12) + "-" + (step % 12 + 1) + "-28 24:00" + lineEnd);
+                }
+                for (int slot = 0; slot < SLOTS.length; slot++) {
+                    String[] parts = SLOTS[slot].split("\\.");
+                    out.print("object_type: Reservoir" + lineEnd + "object_name: " + parts[0] + lineEnd
+                        + "slot_name: " + parts[1] + lineEnd + "END_SLOT_PREAMBLE" + lineEnd
+                        + "units: acre-ft" + lineEnd + "scale: " + (slot + 1) + lineEnd);
+                    for (int step = 0; step < timeSteps; step++) {
+                        out.print((((step + run) % 23 == 0) ? "NaN" : ("" + (run * 1000 + slot * 100 + step * 0.5))) + lineEnd);
+                    }
+                    out.print("END_COLUMN" + lineEnd + "END_SLOT" + lineEnd);
+                }
+                out.print("END_RUN" + lineEnd);
+            }
+        }
+        return f.getPath();
+    }
+
+    private void checkSame(TS expected, TS ts) throws Exception {
+        assertEquals(expected.getIdentifierString(), ts.getIdentifierString());
+        assertEquals(expected.getDataUnits(), ts.getDataUnits());
+        assertEquals(expected.getDate1(), ts.getDate1());
+        assertEquals(expected.getDate2(), ts.getDate2());
+        assertEquals(expected.getDate1Original(), ts.getDate1Original());
+        assertEquals(expected.getProperties(), ts.getProperties());
+        for (DateTime date = new DateTime(expected.getDate1()); date.lessThanOrEqualTo(expected.getDate2());
+            date.addInterval(expected.getDataIntervalBase(), expected.getDataIntervalMult())) {
+            assertEquals(expected.getDataValue(date), ts.getDataValue(date), 0.0);
+        }
+    }
+
+    public void testReadSelected() throws Exception {
+        for (String lineEnd : new String[] { "\n", "\r\n" }) {
+            String filename = writeRdf(5, 3, lineEnd);
+            List<TS> all = RiverWareTS.readTimeSeriesListFromRdf(filename, null, null, null, true);
+            assertEquals(5 * SLOTS.length, all.size());
+            RiverWareRdfIndex index = RiverWareRdfIndex.build(filename);
+            assertEquals(5, index.getRunCount());
+            assertEquals(Arrays.asList(SLOTS), index.getSlotNames(2));
+            List<TS> indexed = index.readTimeSeriesList(null, null, null, null, true, 3);
+            assertEquals(all.size(), indexed.size());
+            for (int i = 0; i < all.size(); i++) {
+                checkSame(all.get(i), indexed.get(i));
+            }
+            List<TS> selected = RiverWareTS.readTimeSeriesListFromRdf(filename, Arrays.asList(3, 1),
+                Arrays.asList("mead.storage", "Powell.Outflow"), null, null, null, true);
+            assertEquals(4, selected.size());
+            checkSame(all.get(1 * SLOTS.length + 0), selected.get(0));
+            checkSame(all.get(1 * SLOTS.length + 3), selected.get(1));
+            checkSame(all.get(3 * SLOTS.length + 0), selected.get(2));
+            checkSame(all.get(3 * SLOTS.length + 3), selected.get(3));
+            assertTrue(new File(RiverWareRdfIndex.getIndexFilename(filename)).exists());
+        }
+    }
+
+    public void testIndexFile() throws Exception {
+        String filename = writeRdf(3, 2, "\n");
+        RiverWareRdfIndex index = RiverWareRdfIndex.getIndex(filename);
+        File indexFile = new File(RiverWareRdfIndex.getIndexFilename(filename));
+        long indexModified = indexFile.lastModified();
+        assertTrue(indexFile.exists());
+        // The index file is used when current.
+        RiverWareRdfIndex index2 = RiverWareRdfIndex.getIndex(filename);
+        assertEquals(indexModified, indexFile.lastModified());
+        List<TS> expected = index.readTimeSeriesList(null, null, null, null, true, 1);
+        List<TS> tslist = index2.readTimeSeriesList(null, null, null, null, true, 1);
+        assertEquals(expected.size(), tslist.size());
+        for (int i = 0; i < expected.size(); i++) {
+            checkSame(expected.get(i), tslist.get(i));
+        }
+        // The index is rebuilt when the file changes.
+        writeRdfTo(filename, writeRdf(4, 2, "\n"));
+        assertEquals(4, RiverWareRdfIndex.getIndex(filename).getRunCount());
+        try {
+            index.readTimeSeriesList(null, null, null, null, true, 1);
+            fail("Expected exception for changed file.");
+        }
+        catch (java.io.IOException e) {
+            // Expected.
+        }
+    }
+
+    private void writeRdfTo(String filename, String source) throws Exception {
+        File f = new File(filename);
+        java.nio.file.Files.copy(new File(source).toPath(), f.toPath(), java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+        f.setLastModified(f.lastModified() + 2000);
+    }
+
+    /**
+     * Check reading a few slots for a few runs of a large file with the index against reading the entire file.
+     */
+    public void testReadSelectedWithIndex() throws Exception {
+        String filename = writeRdf(100, 50, "\n");
+        List<TS> all = RiverWareTS.readTimeSeriesListFromRdf(filename, null, null, null, true);
+        RiverWareRdfIndex.getIndex(filename);
+        List<TS> selected = RiverWareTS.readTimeSeriesListFromRdf(filename, Arrays.asList(10, 50, 90),
+            Arrays.asList("Mead.Outflow"), null, null, null, true);
+        assertEquals(3, selected.size());
+        checkSame(all.get(50 * SLOTS.length + 2), selected.get(1));
+    }
+}
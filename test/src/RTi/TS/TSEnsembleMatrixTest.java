@@ -0,0 +1,240 @@
+package RTi.TS;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import RTi.Util.Math.MathUtil;
+import RTi.Util.Time.DateTime;
+import junit.framework.TestCase;
+
+/**
+ * Tests for TSEnsembleMatrix, comparing statistics with statistics computed from samples looked up by date/time.
+ */
+public class TSEnsembleMatrixTest extends TestCase {
+
+    public TSEnsembleMatrixTest(String testName) {
+        super(testName);
+    }
+
+    /**
+     * Create a daily trace with random values, some of which are missing.
+     */
+    private TS createTrace(TS ts, String start, String end, Random random) throws Exception {
+        ts.setDate1(DateTime.parse(start));
+        ts.setDate2(DateTime.parse(end));
+        ts.allocateDataSpace();
+        for (TSIterator it = ts.iterator(); it.next() != null; ) {
+            ts.setDataValue(it.getDate(), (random.nextInt(8) == 0) ? ts.getMissing() : random.nextInt(10000) / 100.0);
+        }
+        return ts;
+    }
+
+    /**
+     * Create an ensemble of daily traces.  Traces with even positions share a period and others are shifted.
+     */
+    private List<TS> createEnsemble(int traceCount, String start, String end) throws Exception {
+        Random random = new Random(traceCount);
+        List<TS> tslist = new ArrayList<>();
+        DateTime date1 = DateTime.parse(start);
+        DateTime date2 = DateTime.parse(end);
+        for (int i = 0; i < traceCount; i++) {
+            DateTime traceStart = new DateTime(date1);
+            DateTime traceEnd = new DateTime(date2);
+            if ((i % 2) == 1) {
+                traceStart.addDay(i);
+                traceEnd.addDay(-i);
+            }
+            tslist.add(createTrace(new DayTS(), traceStart.toString(), traceEnd.toString(), random));
+        }
+        return tslist;
+    }
+
+    /**
+     * Compute a statistic by looking up each trace by date/time, similar to the original ensemble statistic code.
+     */
+    private double[] computeByDate(List<TS> tslist, DateTime start, DateTime end, TSStatisticType statisticType,
+        double testValue, int allowMissingCount, int minimumSampleSize) {
+        List<Double> results = new ArrayList<>();
+        double[] sample = new double[tslist.size()];
+        for (DateTime date = new DateTime(start); date.lessThanOrEqualTo(end); date.addInterval(tslist.get(0).getDataIntervalBase(), 1)) {
+            int n = 0;
+            int missing = 0;
+            double sum = 0.0;
+            for (TS ts : tslist) {
+                double value = ts.getDataValue(date);
+                if (ts.isDataMissing(value)) {
+                    ++missing;
+                }
+                else {
+                    sample[n++] = value;
+                    sum += value;
+                }
+            }
+            double result = Double.NaN;
+            if (((allowMissingCount >= 0) && (missing > allowMissingCount)) || ((minimumSampleSize >= 0) && (n < minimumSampleSize))) {
+                results.add(result);
+                continue;
+            }
+            int count = 0;
+            for (int i = 0; i < n; i++) {
+                if (sample[i] >= testValue) {
+                    ++count;
+                }
+            }
+            if (statisticType == TSStatisticType.GE_COUNT) {
+                result = count;
+            }
+            else if ((statisticType == TSStatisticType.GE_PERCENT) && (n > 0)) {
+                result = 100.0 * count / n;
+            }
+            else if ((statisticType == TSStatisticType.EXCEEDANCE_PROBABILITY_30) && (n > 0)) {
+                result = MathUtil.exceedanceProbabilityValue(n, sample, .3);
+            }
+            else if ((statisticType == TSStatisticType.NONEXCEEDANCE_PROBABILITY) && (n > 0)) {
+                result = MathUtil.nonexceedanceProbabilityValue(n, sample, testValue);
+            }
+            else if ((statisticType == TSStatisticType.MAX) && (n > 0)) {
+                result = MathUtil.max(n, sample);
+            }
+            else if ((statisticType == TSStatisticType.MEAN) && (n > 0)) {
+                result = MathUtil.mean(n, sample);
+            }
+            else if ((statisticType == TSStatisticType.MEDIAN) && (n > 0)) {
+                result = MathUtil.median(n, sample);
+            }
+            else if ((statisticType == TSStatisticType.MIN) && (n > 0)) {
+                result = MathUtil.min(n, sample);
+            }
+            else if (statisticType == TSStatisticType.MISSING_PERCENT) {
+                result = 100.0 * missing / tslist.size();
+            }
+            else if (statisticType == TSStatisticType.NONMISSING_COUNT) {
+                result = n;
+            }
+            else if ((statisticType == TSStatisticType.STD_DEV) && (n >= 2)) {
+                result = MathUtil.standardDeviation(n, sample);
+            }
+            else if ((statisticType == TSStatisticType.TOTAL) && (n > 0)) {
+                result = sum;
+            }
+            results.add(result);
+        }
+        double[] array = new double[results.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = results.get(i);
+        }
+        return array;
+    }
+
+    private void checkStatistic(List<TS> tslist, DateTime start, DateTime end, TSStatisticType statisticType,
+        double testValue, int allowMissingCount, int minimumSampleSize) {
+        TSEnsembleMatrix matrix = new TSEnsembleMatrix(tslist, start, end);
+        double[] expected = computeByDate(tslist, start, end, statisticType, testValue, allowMissingCount, minimumSampleSize);
+        assertEquals(expected.length, matrix.getTimeCount());
+        for (int threadCount = 1; threadCount <= 4; threadCount += 3) {
+            double[] results = matrix.computeStatistic(statisticType, testValue, allowMissingCount, minimumSampleSize, threadCount);
+            for (int i = 0; i < expected.length; i++) {
+                assertEquals(statisticType + " at " + i, expected[i], results[i], 1.0e-9);
+            }
+        }
+    }
+
+    public void testMatrixValues() throws Exception {
+        List<TS> tslist = createEnsemble(6, "2000-01-01", "2001-12-31");
+        // Include a trace that is copied by date/time and a null trace.
+        tslist.add(createTrace(new PagedDayTS(TSPageFile.getDefault()), "1999-06-01", "2000-06-30", new Random(1)));
+        tslist.add(null);
+        TSEnsembleMatrix matrix = new TSEnsembleMatrix(tslist, DateTime.parse("1999-12-15"), DateTime.parse("2002-01-10"));
+        assertEquals(8, matrix.getTraceCount());
+        int step = 0;
+        for (DateTime date = DateTime.parse("1999-12-15"); date.lessThanOrEqualTo(DateTime.parse("2002-01-10")); date.addDay(1), step++) {
+            for (int trace = 0; trace < tslist.size(); trace++) {
+                TS ts = tslist.get(trace);
+                double value = (ts == null) ? Double.NaN : ts.getDataValue(date);
+                if ((ts == null) || ts.isDataMissing(value)) {
+                    assertTrue(Double.isNaN(matrix.getValue(step, trace)));
+                }
+                else {
+                    assertEquals(value, matrix.getValue(step, trace), 0.0);
+                }
+            }
+        }
+        assertEquals(step, matrix.getTimeCount());
+    }
+
+    public void testStatistics() throws Exception {
+        List<TS> tslist = createEnsemble(9, "2000-01-01", "2003-12-31");
+        DateTime start = DateTime.parse("1999-12-01");
+        DateTime end = DateTime.parse("2004-01-31");
+        TSStatisticType[] statistics = {
+            TSStatisticType.GE_COUNT, TSStatisticType.GE_PERCENT, TSStatisticType.EXCEEDANCE_PROBABILITY_30,
+            TSStatisticType.NONEXCEEDANCE_PROBABILITY, TSStatisticType.MAX, TSStatisticType.MEAN,
+            TSStatisticType.MEDIAN, TSStatisticType.MIN, TSStatisticType.MISSING_PERCENT,
+            TSStatisticType.NONMISSING_COUNT, TSStatisticType.STD_DEV, TSStatisticType.TOTAL
+        };
+        for (TSStatisticType statisticType : statistics) {
+            double testValue = (statisticType == TSStatisticType.NONEXCEEDANCE_PROBABILITY) ? .6 : 50.0;
+            checkStatistic(tslist, start, end, statisticType, testValue, -1, -1);
+            checkStatistic(tslist, start, end, statisticType, testValue, 2, -1);
+            checkStatistic(tslist, start, end, statisticType, testValue, -1, 7);
+        }
+    }
+
+    /**
+     * Check the total for traces that use different missing values.
+     * Before the matrix was used, the total started with the first trace's missing value,
+     * so -999 was added to the total if the first trace was missing and a later trace with NaN missing had a value.
+     * Now only non-missing values are added.
+     */
+    public void testTotalWithMixedMissingValues() throws Exception {
+        DayTS ts1 = new DayTS();
+        ts1.setMissing(-999.0);
+        createTrace(ts1, "2000-01-01", "2000-01-10", new Random(1));
+        DayTS ts2 = new DayTS();
+        ts2.setMissing(Double.NaN);
+        createTrace(ts2, "2000-01-01", "2000-01-10", new Random(2));
+        DateTime date = DateTime.parse("2000-01-05");
+        ts1.setDataValue(date, -999.0);
+        ts2.setDataValue(date, 5.0);
+        ts1.setDataValue(DateTime.parse("2000-01-06"), 1.0);
+        ts2.setDataValue(DateTime.parse("2000-01-06"), 2.0);
+        List<TS> tslist = new ArrayList<>();
+        tslist.add(ts1);
+        tslist.add(ts2);
+        DateTime start = DateTime.parse("2000-01-01");
+        DateTime end = DateTime.parse("2000-01-10");
+        TSEnsembleMatrix matrix = new TSEnsembleMatrix(tslist, start, end);
+        double[] totals = matrix.computeStatistic(TSStatisticType.TOTAL, 0.0, -1, -1, 1);
+        assertEquals(5.0, totals[4], 0.0);
+        assertEquals(3.0, totals[5], 0.0);
+        checkStatistic(tslist, start, end, TSStatisticType.TOTAL, 0.0, -1, -1);
+        // The statistic time series uses the matrix.
+        TSEnsemble ensemble = new TSEnsemble("Test", "Test", tslist);
+        TS totalTS = new TSUtil_NewStatisticTimeSeriesFromEnsemble(ensemble, start, end, null, null,
+            "Total.Test.Streamflow.Day", "Total", TSStatisticType.TOTAL, null, null, null).newStatisticTimeSeriesFromEnsemble(true);
+        assertEquals(5.0, totalTS.getDataValue(date), 0.0);
+    }
+
+    /**
+     * Check statistics for a synthetic ensemble computed with the matrix against computing by date/time.
+     * The timing comparison for a larger ensemble is in benchmark/src/RTi/TS/TSEnsembleMatrixBenchmark.java.
+     */
+    public void testSyntheticEnsemble() throws Exception {
+        List<TS> tslist = createEnsemble(30, "1990-01-01", "2009-12-31");
+        DateTime start = DateTime.parse("1990-01-01");
+        DateTime end = DateTime.parse("2009-12-31");
+        TSStatisticType[] statistics = { TSStatisticType.MEAN, TSStatisticType.EXCEEDANCE_PROBABILITY_30, TSStatisticType.MAX };
+        List<double[]> expected = new ArrayList<>();
+        for (TSStatisticType statisticType : statistics) {
+            expected.add(computeByDate(tslist, start, end, statisticType, 0.0, -1, -1));
+        }
+        TSEnsembleMatrix matrix = new TSEnsembleMatrix(tslist, start, end);
+        for (int i = 0; i < statistics.length; i++) {
+            double[] results = matrix.computeStatistic(statistics[i], 0.0, -1, -1, 0);
+            for (int step = 0; step < results.length; step++) {
+                assertEquals(expected.get(i)[step], results[step], 1.0e-9);
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package RTi.TS;
+
+import junit.framework.TestCase;
+import RTi.Util.Time.DateTime;
+
+/**
+ * Tests for the TSReadCache class.
+ */
+public class TSReadCacheTest extends TestCase {
+
+    private int readCount = 0;
+
+    public TSReadCacheTest(String testName) {
+        super(testName);
+    }
+
+    private TS readDayTS(String tsid) throws Exception {
+        ++readCount;
+        DayTS ts = new DayTS();
+        ts.setIdentifier(tsid);
+        ts.setDate1(DateTime.parse("2000-01-01"));
+        ts.setDate2(DateTime.parse("2000-12-31"));
+        ts.allocateDataSpace();
+        ts.setDataValue(DateTime.parse("2000-01-01"), 1.0);
+        return ts;
+    }
+
+    public void testHitAndCopy() throws Exception {
+        TSReadCache cache = new TSReadCache(1024*1024);
+        TS ts1 = cache.readTimeSeries("ds", "A.USGS.Streamflow.Day", null, null, null, true, () -> readDayTS("A.USGS.Streamflow.Day"));
+        ts1.setDataValue(DateTime.parse("2000-01-01"), 5.0);
+        TS ts2 = cache.readTimeSeries("ds", "A.USGS.Streamflow.Day", null, null, null, true, () -> readDayTS("A.USGS.Streamflow.Day"));
+        assertEquals(1, readCount);
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        // Modifying the returned time series must not modify the cache.
+        assertEquals(1.0, ts2.getDataValue(DateTime.parse("2000-01-01")), 0.0);
+        assertTrue(ts1 != ts2);
+    }
+
+    public void testPeriodIsPartOfKey() throws Exception {
+        TSReadCache cache = new TSReadCache(1024*1024);
+        cache.readTimeSeries("ds", "A.USGS.Streamflow.Day", null, null, null, true, () -> readDayTS("A.USGS.Streamflow.Day"));
+        cache.readTimeSeries("ds", "A.USGS.Streamflow.Day", DateTime.parse("2000-02-01"), null, null, true, () -> readDayTS("A.USGS.Streamflow.Day"));
+        assertEquals(2, readCount);
+        assertEquals(2, cache.getEntryCount());
+    }
+
+    public void testEviction() throws Exception {
+        long bytesPerTS = TSReadCache.estimateBytes(readDayTS("X"));
+        readCount = 0;
+        TSReadCache cache = new TSReadCache(bytesPerTS*2);
+        cache.readTimeSeries("ds", "A", null, null, null, true, () -> readDayTS("A"));
+        cache.readTimeSeries("ds", "B", null, null, null, true, () -> readDayTS("B"));
+        // Use A so that B is least recently used.
+        cache.readTimeSeries("ds", "A", null, null, null, true, () -> readDayTS("A"));
+        cache.readTimeSeries("ds", "C", null, null, null, true, () -> readDayTS("C"));
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(2, cache.getEntryCount());
+        assertTrue(cache.getBytes() <= cache.getMaxBytes());
+        cache.readTimeSeries("ds", "B", null, null, null, true, () -> readDayTS("B"));
+        assertEquals(4, readCount);
+    }
+
+    public void testInvalidate() throws Exception {
+        TSReadCache cache = new TSReadCache(1024*1024);
+        cache.readTimeSeries("ds1", "A", null, null, null, true, () -> readDayTS("A"));
+        cache.readTimeSeries("ds2", "A", null, null, null, true, () -> readDayTS("A"));
+        assertEquals(1, cache.invalidate("ds1"));
+        assertEquals(1, cache.getEntryCount());
+        cache.readTimeSeries("ds1", "A", null, null, null, true, () -> readDayTS("A"));
+        assertEquals(3, readCount);
+        cache.invalidateAll();
+        assertEquals(0, cache.getEntryCount());
+        assertEquals(0, cache.getBytes());
+    }
+
+    public void testInvalidateIgnoresDatastoreCase() throws Exception {
+        TSReadCache cache = new TSReadCache(1024*1024);
+        cache.readTimeSeries("HydroBase", "A", null, null, null, true, () -> readDayTS("A"));
+        cache.readTimeSeries("HydroBase", "B", null, null, null, true, () -> readDayTS("B"));
+        assertEquals(1, cache.invalidate("hydrobase", "A"));
+        assertEquals(1, cache.invalidate("HYDROBASE"));
+        assertEquals(0, cache.getEntryCount());
+    }
+
+    public void testInvalidateDuringRead() throws Exception {
+        TSReadCache cache = new TSReadCache(1024*1024);
+        // Invalidate while the time series is being read, as if another thread wrote the data.
+        TS ts = cache.readTimeSeries("ds", "A", null, null, null, true, () -> {
+            TS read = readDayTS("A");
+            cache.invalidate("ds");
+            return read;
+        });
+        assertNotNull(ts);
+        // The time series that was read before the invalidate() call is not cached.
+        assertEquals(0, cache.getEntryCount());
+        cache.readTimeSeries("ds", "A", null, null, null, true, () -> readDayTS("A"));
+        assertEquals(1, cache.getEntryCount());
+        assertEquals(2, readCount);
+    }
+
+    public void testConcurrentHits() throws Exception {
+        TSReadCache cache = new TSReadCache(1024*1024);
+        cache.readTimeSeries("ds", "A", null, null, null, true, () -> readDayTS("A"));
+        // Copies of the cached time series are made outside the lock, so check that concurrent hits get separate copies.
+        TS[] copies = new TS[8];
+        Thread[] threads = new Thread[copies.length];
+        for (int i = 0; i < threads.length; i++) {
+            int index = i;
+            threads[i] = new Thread(() -> {
+                try {
+                    copies[index] = cache.readTimeSeries("ds", "A", null, null, null, true, () -> readDayTS("A"));
+                    copies[index].setDataValue(DateTime.parse("2000-01-01"), index);
+                }
+                catch (Exception e) {
+                    // Checked below.
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (int i = 0; i < copies.length; i++) {
+            assertEquals(i, copies[i].getDataValue(DateTime.parse("2000-01-01")), 0.0);
+        }
+        assertEquals(1, readCount);
+        assertEquals(copies.length, cache.getHitCount());
+    }
+}
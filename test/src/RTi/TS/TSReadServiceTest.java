@@ -0,0 +1,118 @@
+package RTi.TS;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import RTi.Util.IO.TempFiles;
+import RTi.Util.Time.DateTime;
+import junit.framework.TestCase;
+
+/**
+ * Tests for the TSReadService class, which reads time series files in parallel.
+ */
+public class TSReadServiceTest extends TestCase {
+
+    private static final int FILE_COUNT = 6;
+
+    private TempFiles tempFiles = new TempFiles("TSReadServiceTest");
+
+    public TSReadServiceTest(String testName) {
+        super(testName);
+    }
+
+    protected void tearDown() {
+        tempFiles.delete();
+    }
+
+    /**
+     * Write a DateValue file with two daily time series.
+     */
+    private String writeFile(int i) throws Exception {
+        List<TS> tslist = new ArrayList<>();
+        for (int j = 0; j < 2; j++) {
+            tslist.add(TSTestData.createTS(new DayTS(), "Loc" + i + "_" + j + ".Test.Streamflow.Day",
+                "1999-01-01", "2001-12-31", false));
+        }
+        String filename = tempFiles.create(".dv").getPath();
+        DateValueTS.writeTimeSeriesList(tslist, filename);
+        return filename;
+    }
+
+    private void checkSame(List<TSReadService.Result> expected, List<TSReadService.Result> actual) throws Exception {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            TSReadService.Result r1 = expected.get(i);
+            TSReadService.Result r2 = actual.get(i);
+            assertSame(r1.getRequest(), r2.getRequest());
+            assertEquals(r1.getWarnings(), r2.getWarnings());
+            assertEquals(r1.getTimeSeriesList().size(), r2.getTimeSeriesList().size());
+            for (int j = 0; j < r1.getTimeSeriesList().size(); j++) {
+                TS ts1 = r1.getTimeSeriesList().get(j);
+                TS ts2 = r2.getTimeSeriesList().get(j);
+                assertEquals(ts1.getIdentifierString(), ts2.getIdentifierString());
+                assertEquals(ts1.getDate1(), ts2.getDate1());
+                assertEquals(ts1.getDate2(), ts2.getDate2());
+                TSIterator it1 = ts1.iterator();
+                TSIterator it2 = ts2.iterator();
+                while (it1.next() != null) {
+                    assertNotNull(it2.next());
+                    assertEquals(it1.getDataValue(), it2.getDataValue(), 0.0);
+                }
+            }
+        }
+    }
+
+    public void testReadMultipleFiles() throws Exception {
+        List<String> filenames = new ArrayList<>();
+        List<TSReadService.Request> requests = new ArrayList<>();
+        for (int i = 0; i < FILE_COUNT; i++) {
+            filenames.add(writeFile(i));
+            requests.add(new TSReadService.Request(filenames.get(i)));
+        }
+        // Add a missing file and a request for a single time series.
+        requests.add(new TSReadService.Request(filenames.get(0) + ".missing"));
+        requests.add(new TSReadService.Request(TSReadService.INPUT_TYPE_DATEVALUE, "Loc3_1.Test.Streamflow.Day",
+            filenames.get(3), DateTime.parse("2000-01-01"), DateTime.parse("2000-12-31"), null, true));
+
+        List<TSReadService.Result> serial = new TSReadService(1).readTimeSeries(requests);
+        List<TSReadService.Result> parallel = new TSReadService(4).readTimeSeries(requests);
+        checkSame(serial, parallel);
+
+        for (int i = 0; i < FILE_COUNT; i++) {
+            TSReadService.Result result = parallel.get(i);
+            assertFalse(result.hasWarnings());
+            assertEquals(TSReadService.INPUT_TYPE_DATEVALUE, result.getInputType());
+            assertEquals(2, result.getTimeSeriesList().size());
+            assertEquals("Loc" + i + "_1", result.getTimeSeriesList().get(1).getLocation());
+        }
+        TSReadService.Result missingResult = parallel.get(FILE_COUNT);
+        assertTrue(missingResult.hasWarnings());
+        assertTrue(missingResult.getWarnings().get(0).startsWith("File does not exist"));
+        assertEquals(0, missingResult.getTimeSeriesList().size());
+        TSReadService.Result single = parallel.get(FILE_COUNT + 1);
+        assertEquals(1, single.getTimeSeriesList().size());
+        TS ts = single.getTimeSeriesList().get(0);
+        assertEquals("Loc3_1", ts.getLocation());
+        assertEquals(DateTime.parse("2000-01-01"), ts.getDate1());
+        assertEquals(FILE_COUNT * 2 + 1, TSReadService.getTimeSeriesList(parallel).size());
+    }
+
+    public void testReaderWarningsAreAttachedToResult() throws Exception {
+        String good = writeFile(0);
+        String bad = writeFile(1);
+        // Append a data line with too few values, which the DateValue reader warns about before failing.
+        try (java.io.FileWriter fw = new java.io.FileWriter(bad, true)) {
+            fw.write("2019-12-31 1.0\n");
+        }
+        List<TSReadService.Request> requests = new ArrayList<>();
+        requests.add(new TSReadService.Request(good));
+        requests.add(new TSReadService.Request(bad));
+        List<TSReadService.Result> results = new TSReadService(2).readTimeSeries(requests);
+        assertFalse(results.get(0).hasWarnings());
+        TSReadService.Result badResult = results.get(1);
+        assertTrue(badResult.hasWarnings());
+        // The reader's own warning is listed before the service's summary of the error.
+        assertTrue(badResult.getWarnings().get(0).startsWith("Error in data format"));
+        assertTrue(badResult.getWarnings().get(badResult.getWarnings().size() - 1).startsWith("Error reading time series"));
+    }
+}
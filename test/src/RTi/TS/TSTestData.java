@@ -0,0 +1,36 @@
+package RTi.TS;
+
+import RTi.Util.Time.DateTime;
+
+/**
+ * Time series with test data, shared by the time series file tests.
+ */
+class TSTestData {
+
+    /**
+     * Fill a time series with values, with every 13th value missing,
+     * and if flags are used, an "E" flag for every third value.
+     * @param ts new time series, with the interval set if not the default
+     */
+    static TS createTS(TS ts, String tsid, String start, String end, boolean flags) throws Exception {
+        ts.setIdentifier(tsid);
+        ts.setDataUnits("CFS");
+        ts.setDate1(DateTime.parse(start));
+        ts.setDate2(DateTime.parse(end));
+        if (flags) {
+            ts.hasDataFlags(true, true);
+        }
+        ts.allocateDataSpace();
+        int i = 0;
+        for (TSIterator it = ts.iterator(); it.next() != null; i++) {
+            double value = ((i % 13) == 0) ? ts.getMissing() : (i % 101) / 4.0;
+            if (flags) {
+                ts.setDataValue(it.getDate(), value, ((i % 3) == 0) ? "E" : "", 1);
+            }
+            else {
+                ts.setDataValue(it.getDate(), value);
+            }
+        }
+        return ts;
+    }
+}
@@ -0,0 +1,190 @@
+package RTi.TS;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import RTi.Util.Time.DateTime;
+import RTi.Util.Time.TimeInterval;
+import RTi.Util.Time.TimeScaleType;
+import junit.framework.TestCase;
+
+/**
+ * Tests for TSUtil_ChangeInterval, comparing the array-based code for regular smaller to larger interval
+ * conversions with the iterator-based code.
+ */
+public class TSUtil_ChangeIntervalTest extends TestCase {
+
+    public TSUtil_ChangeIntervalTest(String testName) {
+        super(testName);
+    }
+
+    /**
+     * Create a time series with values that include single missing values and blocks of missing values.
+     */
+    private TS createTS(String interval, String start, String end, int seed) throws Exception {
+        TS ts = TSUtil.newTimeSeries("Loc.Source.Flow." + interval, true);
+        ts.setIdentifier("Loc.Source.Flow." + interval);
+        ts.setDate1(DateTime.parse(start));
+        ts.setDate2(DateTime.parse(end));
+        ts.setDataUnits("CFS");
+        ts.allocateDataSpace();
+        int i = 0;
+        for (TSIterator it = ts.iterator(); it.next() != null; i++) {
+            int r = (i * 7919 + seed * 104729) % 1000;
+            boolean missing = (r < 30) || ((i / 50) % 9 == 4 && (i % 50) < 12);
+            ts.setDataValue(it.getDate(), missing ? ts.getMissing() : (r % 97) + 0.25 * (i % 4));
+        }
+        return ts;
+    }
+
+    private TS changeInterval(TS ts, String interval, TimeScaleType oldScale, TimeScaleType newScale,
+        TSStatisticType statistic, TSUtil_ChangeInterval_HandleMissingInputHowType handleMissingInputHow,
+        Integer allowMissingCount, Double allowMissingPercent, boolean useInputArray) throws Exception {
+        TSUtil_ChangeInterval tsu = new TSUtil_ChangeInterval(ts, TimeInterval.parseInterval(interval), oldScale, newScale,
+            statistic, null, null, null, null, null, null, handleMissingInputHow, allowMissingCount, allowMissingPercent, null);
+        tsu.setUseInputArray(useInputArray);
+        return tsu.changeInterval(true);
+    }
+
+    /**
+     * Check that two time series have the same period and values.
+     */
+    private void checkSame(String message, TS expected, TS ts) throws Exception {
+        assertTrue(message, expected.getDate1().equals(ts.getDate1()));
+        assertTrue(message, expected.getDate2().equals(ts.getDate2()));
+        int count = 0;
+        for (TSIterator it = expected.iterator(); it.next() != null; count++) {
+            double value = it.getDataValue();
+            double value2 = ts.getDataValue(it.getDate());
+            if (expected.isDataMissing(value)) {
+                assertTrue(message + " " + it.getDate() + " expected missing, was " + value2, ts.isDataMissing(value2));
+            }
+            else {
+                assertEquals(message + " " + it.getDate(), value, value2, 1.0e-9);
+            }
+        }
+        assertTrue(message, count > 0);
+    }
+
+    /**
+     * Compare the array-based and iterator-based conversions.
+     */
+    private void checkConversion(TS ts, String interval, TimeScaleType oldScale, TimeScaleType newScale,
+        TSStatisticType statistic, TSUtil_ChangeInterval_HandleMissingInputHowType handleMissingInputHow,
+        Integer allowMissingCount, Double allowMissingPercent) throws Exception {
+        String message = ts.getIdentifierString() + " " + ts.getDate1() + " -> " + interval + " " + oldScale + "->" +
+            newScale + " " + statistic + " " + handleMissingInputHow + " count=" + allowMissingCount +
+            " percent=" + allowMissingPercent;
+        TS expected = changeInterval(ts, interval, oldScale, newScale, statistic, handleMissingInputHow,
+            allowMissingCount, allowMissingPercent, false);
+        TS actual = changeInterval(ts, interval, oldScale, newScale, statistic, handleMissingInputHow,
+            allowMissingCount, allowMissingPercent, true);
+        checkSame(message, expected, actual);
+    }
+
+    public void testSmallToLargeMatchesIterator() throws Exception {
+        List<TS> tslist = new ArrayList<>();
+        tslist.add(createTS("15Minute", "2020-01-30 10:45", "2020-03-02 06:15", 1));
+        tslist.add(createTS("Hour", "2019-12-30 05", "2020-04-03 17", 2));
+        tslist.add(createTS("6Hour", "2020-01-31 06", "2020-05-02 12", 3));
+        tslist.add(createTS("Day", "2019-02-10", "2021-03-05", 4));
+        tslist.add(createTS("Month", "2016-11", "2022-02", 5));
+        String [][] outputs = {
+            { "Hour", "6Hour", "Day", "Month" },
+            { "6Hour", "Day", "Month", "Year" },
+            { "Day", "Month" },
+            { "Month", "Year" },
+            { "Year" }
+        };
+        TimeScaleType [][] scales = {
+            { TimeScaleType.MEAN, TimeScaleType.MEAN },
+            { TimeScaleType.MEAN, TimeScaleType.ACCM },
+            { TimeScaleType.ACCM, TimeScaleType.ACCM },
+            { TimeScaleType.ACCM, TimeScaleType.MEAN },
+            { TimeScaleType.INST, TimeScaleType.MEAN },
+            { TimeScaleType.INST, TimeScaleType.INST }
+        };
+        TSUtil_ChangeInterval_HandleMissingInputHowType [] missingHows =
+            TSUtil_ChangeInterval_HandleMissingInputHowType.values();
+        for (int its = 0; its < tslist.size(); its++) {
+            TS ts = tslist.get(its);
+            for (String interval : outputs[its]) {
+                boolean year = interval.equals("Year");
+                for (TimeScaleType [] scale : scales) {
+                    for (TSUtil_ChangeInterval_HandleMissingInputHowType how : missingHows) {
+                        if (year && (scale[1] != TimeScaleType.INST) &&
+                            (how != TSUtil_ChangeInterval_HandleMissingInputHowType.KEEP_MISSING)) {
+                            // Not allowed.
+                            continue;
+                        }
+                        checkConversion(ts, interval, scale[0], scale[1], null, how, null, null);
+                        checkConversion(ts, interval, scale[0], scale[1], null, how, Integer.valueOf(3), null);
+                        checkConversion(ts, interval, scale[0], scale[1], null, how, null, Double.valueOf(25.0));
+                    }
+                }
+                TSStatisticType [] statistics = { TSStatisticType.COUNT, TSStatisticType.MAX, TSStatisticType.MIN };
+                for (TSStatisticType statistic : statistics) {
+                    checkConversion(ts, interval, TimeScaleType.INST, TimeScaleType.INST, statistic,
+                        null, null, null);
+                    checkConversion(ts, interval, TimeScaleType.INST, TimeScaleType.INST, statistic,
+                        null, Integer.valueOf(2), null);
+                }
+            }
+        }
+    }
+
+    /**
+     * Check that the input array is only used for input time series that it supports,
+     * and that the values are in date order.
+     */
+    public void testInputArray() throws Exception {
+        TS ts = createTS("6Hour", "2020-01-31 06", "2020-03-02 12", 3);
+        assertTrue(TSUtil_ChangeInterval_InputArray.isSupported(ts));
+        TSUtil_ChangeInterval_InputArray inputArray = new TSUtil_ChangeInterval_InputArray(ts);
+        assertEquals(ts.getDataSize(), inputArray.size());
+        int pos = 0;
+        for (TSIterator it = ts.iterator(); it.next() != null; pos++) {
+            assertEquals(it.getDataValue(), inputArray.getDataValue(pos), 0.0);
+            assertTrue(inputArray.isDateAt(pos, it.getDate()));
+            assertEquals(pos + 1, inputArray.getCountThrough(it.getDate()));
+        }
+        assertEquals(0, inputArray.getCountThrough(DateTime.parse("2020-01-31 05")));
+        assertEquals(1, inputArray.getCountThrough(DateTime.parse("2020-01-31 11")));
+        IrregularTS irregularTS = new IrregularTS();
+        irregularTS.setDate1(DateTime.parse("2020-01-01 00:00"));
+        irregularTS.setDate2(DateTime.parse("2020-01-01 02:00"));
+        assertFalse(TSUtil_ChangeInterval_InputArray.isSupported(irregularTS));
+    }
+
+    /**
+     * Change the interval of a list of time series in parallel and compare with processing one at a time,
+     * and check that an unsupported conversion throws an exception.
+     */
+    public void testChangeIntervalList() throws Exception {
+        List<TS> tslist = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            tslist.add(createTS("Hour", "2000-01-01 01", "2009-12-31 23", i));
+        }
+        List<TS> expected = new ArrayList<>();
+        for (TS ts : tslist) {
+            expected.add(changeInterval(ts, "Day", TimeScaleType.MEAN, TimeScaleType.MEAN, null, null,
+                null, Double.valueOf(10.0), false));
+        }
+        List<TS> newTSList = TSUtil_ChangeInterval.changeInterval(tslist, TimeInterval.parseInterval("Day"),
+            TimeScaleType.MEAN, TimeScaleType.MEAN, null, null, null, null, null, null, null, null,
+            null, Double.valueOf(10.0), null, 4);
+        assertEquals(tslist.size(), newTSList.size());
+        for (int i = 0; i < tslist.size(); i++) {
+            checkSame("list " + i, expected.get(i), newTSList.get(i));
+        }
+        try {
+            TSUtil_ChangeInterval.changeInterval(tslist, TimeInterval.parseInterval("Day"),
+                TimeScaleType.ACCM, TimeScaleType.INST, null, null, null, null, null, null, null, null,
+                null, null, null, 2);
+            fail("Expected exception for unsupported conversion.");
+        }
+        catch (Exception e) {
+            // Expected.
+        }
+    }
+}
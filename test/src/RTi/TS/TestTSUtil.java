@@ -1,5 +1,10 @@
 package RTi.TS;
 
+import RTi.Util.IO.DataDimension;
+import RTi.Util.IO.DataUnits;
+import RTi.Util.IO.DataUnitsConversion;
+import RTi.Util.Time.DateTime;
+import RTi.Util.Time.TimeInterval;
 import junit.framework.TestCase;
 
 /**
@@ -7,7 +12,98 @@ import junit.framework.TestCase;
  * - all methods below are alphabetized by method name
  */
 public class TestTSUtil extends TestCase {
-    
-	// Need to add tests.
-    
-}
\ No newline at end of file
+
+    protected void setUp() {
+        DataDimension.addDimension(new DataDimension("L3/T", "Discharge"));
+        DataDimension.addDimension(new DataDimension("TEMP", "Temperature"));
+        DataUnits.addUnits(new DataUnits("L3/T", 1, "CMS", "Cubic meters per second", 2, 1.0, 0.0));
+        DataUnits.addUnits(new DataUnits("L3/T", 0, "CFS", "Cubic feet per second", 2, 0.0283168, 0.0));
+        DataUnits.addUnits(new DataUnits("TEMP", 1, "DEGC", "Degrees Celsius", 1, 1.0, 0.0));
+        DataUnits.addUnits(new DataUnits("TEMP", 0, "DEGF", "Degrees Fahrenheit", 1, .555556, -17.7778));
+    }
+
+    /**
+     * Fill a regular time series with values and some missing values, for a partial first and last month.
+     */
+    private TS createTS(TS ts, String start, String end, String units) throws Exception {
+        ts.setDate1(DateTime.parse(start));
+        ts.setDate2(DateTime.parse(end));
+        ts.setDataUnits(units);
+        ts.allocateDataSpace();
+        int i = 0;
+        for (TSIterator it = ts.iterator(); it.next() != null; i++) {
+            ts.setDataValue(it.getDate(), ((i % 11) == 0) ? ts.getMissing() : (i % 97) + .5);
+        }
+        return ts;
+    }
+
+    /**
+     * Check that the converted time series has the same values as converting each value.
+     */
+    private void checkConvertUnits(TS ts, String units) throws Exception {
+        TS original = (TS)ts.clone();
+        DataUnitsConversion c = DataUnits.getConversion(ts.getDataUnits(), units);
+        TSUtil.convertUnits(ts, units);
+        assertEquals(units, ts.getDataUnits());
+        DateTime end = ts.getDate2();
+        int count = 0;
+        for (DateTime date = new DateTime(ts.getDate1()); date.lessThanOrEqualTo(end);
+            date.addInterval(ts.getDataIntervalBase(), ts.getDataIntervalMult()), count++) {
+            double value = original.getDataValue(date);
+            if (original.isDataMissing(value)) {
+                assertTrue(ts.isDataMissing(ts.getDataValue(date)));
+            }
+            else {
+                assertEquals(c.getAddFactor() + value * c.getMultFactor(), ts.getDataValue(date), 1.0e-12);
+            }
+        }
+        assertTrue(count > 0);
+    }
+
+    public void testConvertUnits() throws Exception {
+        checkConvertUnits(createTS(new DayTS(), "2020-02-10", "2021-03-05", "CFS"), "CMS");
+        HourTS hourTS = new HourTS();
+        hourTS.setDataInterval(TimeInterval.HOUR, 6);
+        checkConvertUnits(createTS(hourTS, "2020-01-31 03", "2020-04-02 15", "DEGF"), "DEGC");
+        checkConvertUnits(createTS(new MonthTS(), "2019-11", "2022-02", "cfs"), "cms");
+        checkConvertUnits(createTS(new PagedDayTS(TSPageFile.getDefault()), "2020-02-10", "2021-03-05", "CFS"), "CMS");
+        IrregularTS irregularTS = new IrregularTS();
+        irregularTS.setDataUnits("CMS");
+        irregularTS.setDate1(DateTime.parse("2020-01-01 00:00"));
+        irregularTS.setDate2(DateTime.parse("2020-01-01 02:00"));
+        irregularTS.allocateDataSpace();
+        irregularTS.setDataValue(DateTime.parse("2020-01-01 00:00"), 1.0);
+        irregularTS.setDataValue(DateTime.parse("2020-01-01 01:13"), irregularTS.getMissing());
+        irregularTS.setDataValue(DateTime.parse("2020-01-01 02:00"), 10.0);
+        TSUtil.convertUnits(irregularTS, "CFS");
+        assertEquals(10.0 / 0.0283168, irregularTS.getDataValue(DateTime.parse("2020-01-01 02:00")), 1.0e-9);
+        assertTrue(irregularTS.isDataMissing(irregularTS.getDataValue(DateTime.parse("2020-01-01 01:13"))));
+    }
+
+    public void testGetConversion() throws Exception {
+        DataUnitsConversion c = DataUnits.getConversion("CFS", "CMS");
+        assertEquals(0.0283168, c.getMultFactor(), 1.0e-12);
+        // Returned conversions are copies so can be modified by the caller.
+        c.setMultFactor(2.0);
+        assertEquals(0.0283168, DataUnits.getConversion("CFS", "CMS").getMultFactor(), 1.0e-12);
+        assertSame(DataUnits.lookupUnits("CFS"), DataUnits.lookupUnits("cfs"));
+        // Changing units in the list clears cached conversions.
+        DataUnits.lookupUnits("CFS").setMultFactor(0.03);
+        assertEquals(0.03, DataUnits.getConversion("CFS", "CMS").getMultFactor(), 1.0e-12);
+        try {
+            DataUnits.getConversion("CFS", "DEGC");
+            fail("Expected exception for incompatible units.");
+        }
+        catch (Exception e) {
+            // Expected.
+        }
+        // Units must be added with addUnits() so that the index and conversion cache are updated.
+        try {
+            DataUnits.getUnitsData().add(new DataUnits("L3/T", 0, "AFD", "Acre-feet per day", 2, 0.0142764, 0.0));
+            fail("Expected exception modifying units list.");
+        }
+        catch (UnsupportedOperationException e) {
+            // Expected.
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package RTi.Util.GUI;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+
+import RTi.DMI.DMIUtil;
+import RTi.Util.Math.MathUtil;
+import RTi.Util.String.StringUtil;
+import junit.framework.TestCase;
+
+/**
+ * Tests for sorting worksheet columns with JWorksheet_ColumnSorter and providing rows with JWorksheet_RowProvider.
+ */
+public class JWorksheet_ColumnSorterTest extends TestCase {
+
+    public JWorksheet_ColumnSorterTest(String testName) {
+        super(testName);
+    }
+
+    /**
+     * Table model with an integer, double, and string column.
+     */
+    @SuppressWarnings("serial")
+    private static class TestTableModel extends JWorksheet_AbstractRowTableModel<Object[]> {
+
+        public int getColumnCount() {
+            return 3;
+        }
+
+        public String getFormat(int column) {
+            return "%s";
+        }
+
+        public int getRowCount() {
+            return _rows;
+        }
+
+        public Object getValueAt(int row, int col) {
+            return getRowData(row)[col];
+        }
+    }
+
+    /**
+     * Provides rows computed from the row number, counting the requests.
+     */
+    private static class TestRowProvider implements JWorksheet_RowProvider<Object[]> {
+        private int rowCount;
+        private int requestCount = 0;
+
+        public TestRowProvider(int rowCount) {
+            this.rowCount = rowCount;
+        }
+
+        public int getRowCount() {
+            return rowCount;
+        }
+
+        public void getRows(int firstRow, int count, List<Object[]> rows) {
+            ++requestCount;
+            for (int row = firstRow; row < firstRow + count; row++) {
+                rows.add(createRow(row));
+            }
+        }
+    }
+
+    private static Object[] createRow(int row) {
+        Random random = new Random(row);
+        return new Object[] {
+            (row % 17 == 0) ? null : random.nextInt(100),
+            (row % 13 == 0) ? null : random.nextDouble(),
+            "S" + random.nextInt(1000)
+        };
+    }
+
+    private TestTableModel createModel(int rowCount) {
+        TestTableModel model = new TestTableModel();
+        for (int row = 0; row < rowCount; row++) {
+            model.addRow(createRow(row));
+        }
+        return model;
+    }
+
+    public void testSortMatchesDirectSort() {
+        int rowCount = 5000;
+        TestTableModel model = createModel(rowCount);
+        int[] intValues = new int[rowCount];
+        double[] doubleValues = new double[rowCount];
+        List<String> stringValues = new ArrayList<>();
+        for (int row = 0; row < rowCount; row++) {
+            Object[] data = model.getRowData(row);
+            intValues[row] = (data[0] == null) ? DMIUtil.MISSING_INT : (Integer)data[0];
+            doubleValues[row] = (data[1] == null) ? DMIUtil.MISSING_DOUBLE : (Double)data[1];
+            stringValues.add((String)data[2]);
+        }
+        int[] expectedInt = new int[rowCount];
+        MathUtil.sort(intValues, MathUtil.SORT_QUICK, StringUtil.SORT_ASCENDING, expectedInt, true);
+        int[] expectedDouble = new int[rowCount];
+        MathUtil.sort(doubleValues, MathUtil.SORT_QUICK, StringUtil.SORT_DESCENDING, expectedDouble, true);
+        int[] expectedString = new int[rowCount];
+        StringUtil.sortStringList(stringValues, StringUtil.SORT_ASCENDING, expectedString, true, true);
+
+        int[] sortOrder = new JWorksheet_ColumnSorter(model, 0, Integer.class, rowCount, null, StringUtil.SORT_ASCENDING).sort();
+        assertTrue(java.util.Arrays.equals(expectedInt, sortOrder));
+        // Sorting a table that is already sorted reads values in the original order.
+        model.setSortedOrder(sortOrder);
+        assertTrue(java.util.Arrays.equals(expectedDouble, new JWorksheet_ColumnSorter(model, 1, Double.class,
+            rowCount, model.getSortOrder(), StringUtil.SORT_DESCENDING).sort()));
+        assertTrue(java.util.Arrays.equals(expectedString, new JWorksheet_ColumnSorter(model, 2, String.class,
+            rowCount, model.getSortOrder(), StringUtil.SORT_ASCENDING).sort()));
+    }
+
+    public void testCancel() {
+        TestTableModel model = createModel(100);
+        JWorksheet_ColumnSorter sorter = new JWorksheet_ColumnSorter(model, 1, Double.class, 100, null, StringUtil.SORT_ASCENDING);
+        Thread.currentThread().interrupt();
+        try {
+            sorter.sort();
+            fail("Expected sort to be canceled.");
+        }
+        catch (CancellationException e) {
+            // Expected.
+        }
+        finally {
+            Thread.interrupted();
+        }
+        assertFalse(sorter.isRead());
+    }
+
+    public void testRowProvider() {
+        int rowCount = 500000;
+        TestTableModel model = new TestTableModel();
+        TestRowProvider provider = new TestRowProvider(rowCount);
+        model.setRowProvider(provider);
+        assertEquals(rowCount, model.getRowCount());
+        assertEquals(0, provider.requestCount);
+        // Rows in a window are requested once.
+        for (int row = 256; row < 512; row++) {
+            assertEquals(createRow(row)[2], model.getValueAt(row, 2));
+        }
+        assertEquals(1, provider.requestCount);
+        assertEquals(createRow(rowCount - 1)[1], model.getValueAt(rowCount - 1, 1));
+        assertEquals(2, provider.requestCount);
+        // Sort the large table and check that sorted rows come from the provider.
+        int[] sortOrder = new JWorksheet_ColumnSorter(model, 0, Integer.class, rowCount, null, StringUtil.SORT_ASCENDING).sort();
+        model.setSortedOrder(sortOrder);
+        int previous = Integer.MIN_VALUE;
+        for (int row = 0; row < rowCount; row += 97) {
+            Integer value = (Integer)model.getValueAt(row, 0);
+            if (value != null) {
+                assertTrue(value >= previous);
+                previous = value;
+            }
+        }
+        model.refreshRowProvider();
+        assertNull(model.getSortOrder());
+    }
+}
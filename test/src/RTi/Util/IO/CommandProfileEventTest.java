@@ -0,0 +1,59 @@
+package RTi.Util.IO;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import junit.framework.TestCase;
+
+/**
+ * Tests for CommandProfileEvent, committed by CommandProfile.end() when Java Flight Recorder is recording.
+ */
+public class CommandProfileEventTest extends TestCase {
+
+    public CommandProfileEventTest(String testName) {
+        super(testName);
+    }
+
+    public void testEventIsRecorded() throws Exception {
+        GenericCommand command = new GenericCommand();
+        command.setCommandName("ReadTable");
+        command.setCommandString("ReadTable(TableID=\"Test\")");
+        CommandProfile profile = command.getCommandProfile(CommandPhaseType.RUN);
+        Path path = Files.createTempFile("CommandProfileEventTest", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("RTi.Util.IO.CommandProfile");
+            recording.start();
+            profile.start(command, CommandPhaseType.RUN);
+            profile.addBytesRead(123);
+            profile.end();
+            recording.stop();
+            recording.dump(path);
+            List<RecordedEvent> events = RecordingFile.readAllEvents(path);
+            assertEquals(1, events.size());
+            RecordedEvent event = events.get(0);
+            assertEquals("RTi.Util.IO.CommandProfile", event.getEventType().getName());
+            assertEquals("ReadTable", event.getString("commandName"));
+            assertEquals("ReadTable(TableID=\"Test\")", event.getString("commandString"));
+            assertEquals(CommandPhaseType.RUN.toString(), event.getString("phase"));
+            assertEquals(profile.getRunTime(), event.getLong("runTime"));
+            assertEquals(123, event.getLong("bytesRead"));
+            assertEquals(-1, event.getLong("bytesWritten"));
+        }
+        finally {
+            Files.delete(path);
+        }
+    }
+
+    public void testNoEventWhenNotRecording() {
+        assertFalse(new CommandProfileEvent().isEnabled());
+        // Profiling works without a recording and without a command.
+        CommandProfile profile = new CommandProfile();
+        profile.start(null, null);
+        profile.end();
+        assertTrue(profile.getEndTime() >= profile.getStartTime());
+    }
+}
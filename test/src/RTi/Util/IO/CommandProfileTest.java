@@ -0,0 +1,169 @@
+package RTi.Util.IO;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import RTi.TS.DateValueTS;
+import RTi.TS.DayTS;
+import RTi.TS.TS;
+import RTi.Util.Table.DataTable;
+import RTi.Util.Table.TableField;
+import RTi.Util.Table.TableRecord;
+import RTi.Util.Time.DateTime;
+import junit.framework.TestCase;
+
+/**
+ * Tests for CommandProfile, including bytes read and written by readers and writers while a profile is current.
+ */
+public class CommandProfileTest extends TestCase {
+
+    private File file = null;
+
+    public CommandProfileTest(String testName) {
+        super(testName);
+    }
+
+    protected void setUp() throws Exception {
+        file = File.createTempFile("CommandProfileTest", ".csv");
+    }
+
+    protected void tearDown() {
+        file.delete();
+        new File(file.getPath() + ".gz").delete();
+        new File(file.getPath() + ".zip").delete();
+    }
+
+    /**
+     * Write a DateValue file with a year of daily values and return its length.
+     */
+    private long writeDateValueFile() throws Exception {
+        DayTS ts = new DayTS();
+        ts.setIdentifier("Loc1.Test.Streamflow.Day");
+        ts.setDate1(DateTime.parse("2000-01-01"));
+        ts.setDate2(DateTime.parse("2000-12-31"));
+        ts.allocateDataSpace();
+        List<TS> tslist = new ArrayList<>();
+        tslist.add(ts);
+        DateValueTS.writeTimeSeriesList(tslist, file.getPath());
+        return file.length();
+    }
+
+    private DataTable createTable(int rows) throws Exception {
+        List<TableField> fields = new ArrayList<>();
+        fields.add(new TableField(TableField.DATA_TYPE_STRING, "ID", 12));
+        fields.add(new TableField(TableField.DATA_TYPE_DOUBLE, "Value", 12, 2));
+        DataTable table = new DataTable(fields);
+        for (int i = 0; i < rows; i++) {
+            TableRecord rec = new TableRecord(2);
+            rec.addFieldValue("ID" + i);
+            rec.addFieldValue(Double.valueOf(i * 1.5));
+            table.addRecord(rec);
+        }
+        return table;
+    }
+
+    public void testStartEnd() throws Exception {
+        CommandProfile profile = new CommandProfile();
+        long before = System.currentTimeMillis();
+        profile.start(null, CommandPhaseType.RUN);
+        assertSame(profile, CommandProfile.getCurrent());
+        List<double[]> arrays = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            arrays.add(new double[10000]);
+        }
+        profile.end();
+        long after = System.currentTimeMillis();
+        assertNull(CommandProfile.getCurrent());
+        assertEquals(100, arrays.size());
+        assertTrue(profile.getStartTime() >= before);
+        assertTrue(profile.getEndTime() <= after);
+        assertEquals(profile.getEndTime() - profile.getStartTime(), profile.getRunTime());
+        assertTrue(profile.getStartHeap() > 0);
+        assertTrue(profile.getEndHeap() > 0);
+        assertTrue(profile.getCpuTime() >= -1);
+        if (profile.getAllocatedBytes() >= 0) {
+            // At least the arrays were allocated by the thread.
+            assertTrue(profile.getAllocatedBytes() >= 100L * 10000 * 8);
+        }
+        assertTrue(profile.getGcCount() >= -1);
+        assertTrue(profile.getGcTime() >= -1);
+        // No input or output was done.
+        assertEquals(-1, profile.getBytesRead());
+        assertEquals(-1, profile.getBytesWritten());
+    }
+
+    public void testBytesReadAndWritten() throws Exception {
+        DataTable table = createTable(500);
+        CommandProfile profile = new CommandProfile();
+        profile.start(null, CommandPhaseType.RUN);
+        table.writeDelimitedFile(file.getPath(), ",", true, null, "#", false, null, null);
+        DataTable read = DataTable.parseFile(file.getPath(), new PropList("test"));
+        profile.end();
+        assertEquals(500, read.getNumberOfRecords());
+        assertTrue(file.length() > 0);
+        assertEquals(file.length(), profile.getBytesWritten());
+        assertEquals(file.length(), profile.getBytesRead());
+        // The profile is no longer current so the following are not recorded.
+        DataTable.parseFile(file.getPath(), new PropList("test"));
+        assertEquals(file.length(), profile.getBytesRead());
+        // Starting the profile again resets the counts.
+        profile.start(null, CommandPhaseType.RUN);
+        profile.end();
+        assertEquals(-1, profile.getBytesRead());
+    }
+
+    /**
+     * Check that the uncompressed bytes are counted when reading compressed files.
+     */
+    public void testBytesReadFromCompressedFiles() throws Exception {
+        long length = writeDateValueFile();
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        try (GZIPOutputStream gz = new GZIPOutputStream(new FileOutputStream(file.getPath() + ".gz"))) {
+            gz.write(bytes);
+        }
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(file.getPath() + ".zip"))) {
+            zip.putNextEntry(new ZipEntry("data/test.dv"));
+            zip.write(bytes);
+            zip.closeEntry();
+        }
+        for (String path : new String[] { file.getPath() + ".gz", file.getPath() + ".zip", file.getPath() + ".zip!/data/test.dv" }) {
+            CommandProfile profile = new CommandProfile();
+            profile.start(null, CommandPhaseType.RUN);
+            assertEquals(1, DateValueTS.readTimeSeriesList(path, null, null, null, true).size());
+            profile.end();
+            assertEquals(path, length, profile.getBytesRead());
+        }
+    }
+
+    /**
+     * Check that bytes read by tasks run in the shared thread pool are counted for the command that runs them.
+     */
+    public void testBytesReadInPoolThreads() throws Exception {
+        long length = writeDateValueFile();
+        List<Callable<List<TS>>> tasks = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            tasks.add(() -> DateValueTS.readTimeSeriesList(file.getPath(), null, null, null, true));
+        }
+        CommandProfile profile = new CommandProfile();
+        profile.start(null, CommandPhaseType.RUN);
+        DaemonThreadPool.invokeAll(tasks, 2);
+        profile.end();
+        assertEquals(4 * length, profile.getBytesRead());
+        // Pool threads do not keep the profile after running the tasks.
+        List<Callable<CommandProfile>> current = new ArrayList<>();
+        for (int i = 0; i < 2 * DaemonThreadPool.getThreadCount(); i++) {
+            current.add(() -> CommandProfile.getCurrent());
+        }
+        for (Future<CommandProfile> future : DaemonThreadPool.invokeAll(current, 0)) {
+            assertNull(future.get());
+        }
+    }
+}
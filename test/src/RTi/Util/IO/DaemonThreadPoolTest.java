@@ -0,0 +1,99 @@
+package RTi.Util.IO;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for the shared DaemonThreadPool.
+ */
+public class DaemonThreadPoolTest extends TestCase {
+
+    public DaemonThreadPoolTest(String testName) {
+        super(testName);
+    }
+
+    public void testInvokeAllResultsInOrder() throws Exception {
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            int value = i;
+            tasks.add(() -> {
+                if (value == 7) {
+                    throw new IllegalStateException("task 7");
+                }
+                return value * value;
+            });
+        }
+        List<Future<Integer>> futures = DaemonThreadPool.invokeAll(tasks, 4);
+        assertEquals(tasks.size(), futures.size());
+        for (int i = 0; i < futures.size(); i++) {
+            assertTrue(futures.get(i).isDone());
+            if (i == 7) {
+                try {
+                    futures.get(i).get();
+                    fail("Expected exception");
+                }
+                catch (ExecutionException e) {
+                    assertEquals("task 7", e.getCause().getMessage());
+                }
+            }
+            else {
+                assertEquals(Integer.valueOf(i * i), futures.get(i).get());
+            }
+        }
+    }
+
+    public void testInvokeAllThreadCount() throws Exception {
+        AtomicInteger running = new AtomicInteger(0);
+        AtomicInteger maxRunning = new AtomicInteger(0);
+        List<Callable<Object>> tasks = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            tasks.add(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                Thread.sleep(5);
+                running.decrementAndGet();
+                return null;
+            });
+        }
+        DaemonThreadPool.invokeAll(tasks, 2);
+        assertTrue(maxRunning.get() <= 2);
+        String name = Thread.currentThread().getName();
+        List<Callable<String>> serial = new ArrayList<>();
+        serial.add(() -> Thread.currentThread().getName());
+        assertEquals(name, DaemonThreadPool.invokeAll(serial, 1).get(0).get());
+    }
+
+    public void testNestedInvokeAll() throws Exception {
+        // Use more outer tasks than pool threads, each waiting for inner tasks, which must not deadlock.
+        List<Callable<Integer>> outer = new ArrayList<>();
+        for (int i = 0; i < 2 * DaemonThreadPool.getThreadCount() + 1; i++) {
+            outer.add(() -> {
+                List<Callable<Integer>> inner = new ArrayList<>();
+                for (int j = 0; j < 10; j++) {
+                    inner.add(() -> 1);
+                }
+                int total = 0;
+                for (Future<Integer> future : DaemonThreadPool.invokeAll(inner, 0)) {
+                    total += future.get();
+                }
+                return total;
+            });
+        }
+        for (Future<Integer> future : DaemonThreadPool.invokeAll(outer, 0)) {
+            assertEquals(Integer.valueOf(10), future.get());
+        }
+    }
+
+    public void testSubmit() throws Exception {
+        Future<String> future = DaemonThreadPool.submit(() -> "done");
+        assertEquals("done", future.get());
+        Thread t = DaemonThreadPool.newThreadFactory("Test").newThread(() -> {});
+        assertTrue(t.isDaemon());
+        assertEquals("Test-1", t.getName());
+    }
+}
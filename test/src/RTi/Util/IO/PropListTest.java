@@ -0,0 +1,123 @@
+package RTi.Util.IO;
+
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for PropList lookups, which use a key index for larger lists.
+ */
+public class PropListTest extends TestCase {
+
+    public PropListTest(String testName) {
+        super(testName);
+    }
+
+    private PropList createList(int size) {
+        PropList props = new PropList("test");
+        for (int i = 0; i < size; i++) {
+            props.set("Prop" + i, "" + i);
+        }
+        return props;
+    }
+
+    public void testFindPropIgnoresCase() {
+        PropList props = createList(20);
+        assertEquals(5, props.findProp("prop5"));
+        assertEquals(5, props.findProp("PROP5"));
+        assertEquals("19", props.getValue("pRoP19"));
+        assertEquals(-1, props.findProp("Prop20"));
+        assertNull(props.getValue("Missing"));
+    }
+
+    public void testMultipleInstances() {
+        PropList props = createList(20);
+        props.set("Prop3", "a", false);
+        props.set("PROP3", "b", false);
+        assertEquals(3, props.getPropCount("prop3"));
+        assertEquals("3", props.getValue("Prop3"));
+        assertEquals("a", props.getValue("Prop3", 1));
+        assertEquals("b", props.getValue("Prop3", 2));
+        assertNull(props.getValue("Prop3", 3));
+        props.unSet("Prop3");
+        assertEquals("a", props.getValue("Prop3"));
+        assertEquals(3, props.findProp("Prop4"));
+        props.unSetAll("Prop3");
+        assertEquals(-1, props.findProp("Prop3"));
+        assertEquals(19, props.size());
+    }
+
+    public void testListChangesAreDetected() {
+        PropList props = createList(20);
+        assertEquals(10, props.findProp("Prop10"));
+        List<Prop> list = props.getList();
+        list.add(0, new Prop("First", "f"));
+        assertEquals(0, props.findProp("first"));
+        assertEquals(11, props.findProp("Prop10"));
+        list.set(1, new Prop("Replaced", "r"));
+        assertEquals(-1, props.findProp("Prop0"));
+        assertEquals(1, props.findProp("replaced"));
+        props.propAt(2).setKey("Renamed");
+        assertEquals(-1, props.findProp("Prop1"));
+        assertEquals(2, props.findProp("RENAMED"));
+        int modCount = props.getModificationCount();
+        props.set("Prop5", "changed");
+        assertTrue(modCount != props.getModificationCount());
+        props.sortList();
+        assertEquals("changed", props.getValue("Prop5"));
+        assertEquals(props.getList().indexOf(props.getProp("Prop5")), props.findProp("Prop5"));
+    }
+
+    public void testDirectPropChanges() {
+        PropList props = createList(20);
+        PropList other = createList(20);
+        assertEquals(10, props.findProp("Prop10"));
+        int modCount = props.getModificationCount();
+        int otherModCount = other.getModificationCount();
+        // Changes made directly to a Prop are seen by the list that contains it.
+        props.getProp("Prop3").setValue("changed");
+        assertTrue(modCount != props.getModificationCount());
+        modCount = props.getModificationCount();
+        props.getProp("Prop4").setContents("changed");
+        assertTrue(modCount != props.getModificationCount());
+        modCount = props.getModificationCount();
+        props.getProp("Prop10").setKey("Renamed");
+        assertTrue(modCount != props.getModificationCount());
+        assertEquals(10, props.findProp("renamed"));
+        assertEquals(-1, props.findProp("Prop10"));
+        // Other lists are not affected.
+        assertEquals(otherModCount, other.getModificationCount());
+        assertEquals(10, other.findProp("Prop10"));
+        // A Prop added through getList() is also seen.
+        Prop prop = new Prop("Added", "a");
+        props.getList().add(prop);
+        modCount = props.getModificationCount();
+        prop.setValue("b");
+        assertTrue(modCount != props.getModificationCount());
+    }
+
+    public void testReadDoesNotModify() {
+        PropList props = new PropList("test", PropList.FORMAT_PROPERTIES);
+        props.set("Prop1", "1");
+        props.set("Prop2", "2");
+        // The first read resolves the value, after which reads must not look like modifications.
+        assertEquals("2", props.getValue("Prop2"));
+        int modCount = props.getModificationCount();
+        assertEquals("2", props.getValue("Prop2"));
+        assertNotNull(props.getProp("Prop2"));
+        assertEquals(modCount, props.getModificationCount());
+        props.set("Prop2", "3");
+        assertTrue(modCount != props.getModificationCount());
+    }
+
+    public void testNonAsciiKeys() {
+        PropList props = createList(20);
+        // The Kelvin sign matches "k" when case is ignored, so the index cannot be used.
+        props.set("\u212a", "kelvin");
+        props.set("k", "k", false);
+        assertEquals("kelvin", props.getValue("k"));
+        assertEquals(20, props.findProp("K"));
+        assertEquals("k", props.getValue("k", 1));
+        assertEquals("7", props.getValue("PROP7"));
+    }
+}
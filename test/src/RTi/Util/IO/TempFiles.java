@@ -0,0 +1,47 @@
+package RTi.Util.IO;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Temporary files created by a test, which the test deletes in tearDown().
+ */
+public class TempFiles {
+
+    private final String prefix;
+    private final List<File> files = new ArrayList<>();
+
+    /**
+     * @param prefix prefix for temporary file names, typically the test class name
+     */
+    public TempFiles(String prefix) {
+        this.prefix = prefix;
+    }
+
+    /**
+     * Add a file that was created by the test, so that it is deleted with the temporary files.
+     */
+    public File add(File f) {
+        files.add(f);
+        return f;
+    }
+
+    /**
+     * Create an empty temporary file.
+     */
+    public File create(String suffix) throws IOException {
+        return add(File.createTempFile(prefix, suffix));
+    }
+
+    /**
+     * Delete the files.
+     */
+    public void delete() {
+        for (File f : files) {
+            f.delete();
+        }
+        files.clear();
+    }
+}
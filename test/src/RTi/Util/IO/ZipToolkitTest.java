@@ -0,0 +1,165 @@
+package RTi.Util.IO;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import RTi.Util.Table.DataTable;
+import junit.framework.TestCase;
+
+/**
+ * Tests for reading files in zip and gzip files without extracting them.
+ */
+public class ZipToolkitTest extends TestCase {
+
+    private File folder;
+
+    public ZipToolkitTest(String testName) {
+        super(testName);
+    }
+
+    protected void setUp() throws Exception {
+        folder = Files.createTempDirectory("ZipToolkitTest").toFile();
+    }
+
+    protected void tearDown() {
+        deleteFolder(folder);
+    }
+
+    private void deleteFolder(File f) {
+        File[] files = f.listFiles();
+        if (files != null) {
+            for (File child : files) {
+                deleteFolder(child);
+            }
+        }
+        f.delete();
+    }
+
+    private String createCsv(int rows, int seed) {
+        StringBuilder b = new StringBuilder("Name,Value,Count\n");
+        for (int i = 0; i < rows; i++) {
+            b.append("Row" + i + "," + (i * 0.25 + seed) + "," + (i % 7) + "\n");
+        }
+        return b.toString();
+    }
+
+    private String readAll(InputStream in) throws Exception {
+        try (InputStream in2 = in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1000];
+            int count;
+            while ((count = in2.read(buffer)) > 0) {
+                out.write(buffer, 0, count);
+            }
+            return out.toString();
+        }
+    }
+
+    private String writeZip(List<String> names, List<String> contents) throws Exception {
+        File f = new File(folder, "data.zip");
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(f))) {
+            for (int i = 0; i < names.size(); i++) {
+                out.putNextEntry(new ZipEntry(names.get(i)));
+                out.write(contents.get(i).getBytes());
+                out.closeEntry();
+            }
+        }
+        return f.getPath();
+    }
+
+    public void testReadZipMember() throws Exception {
+        List<String> names = new ArrayList<>();
+        List<String> contents = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            names.add("folder/data" + i + ".csv");
+            contents.add(createCsv(1000 + i, i));
+        }
+        String zipFile = writeZip(names, contents);
+        for (int i = 0; i < names.size(); i++) {
+            String path = zipFile + ZipToolkit.MEMBER_SEPARATOR + names.get(i);
+            assertTrue(IOUtil.fileExists(path));
+            assertTrue(IOUtil.fileReadable(path));
+            assertEquals(contents.get(i), readAll(IOUtil.getInputStream(path)));
+        }
+        assertFalse(IOUtil.fileExists(zipFile + "!/folder/missing.csv"));
+        try {
+            IOUtil.getInputStream(zipFile + "!/folder/missing.csv");
+            fail("Expected exception for missing file in zip file.");
+        }
+        catch (java.io.IOException e) {
+            // Expected.
+        }
+        // A table read from the zip file is the same as from the extracted file.
+        File csv = new File(folder, "data2.csv");
+        Files.write(csv.toPath(), contents.get(2).getBytes());
+        PropList props = new PropList("");
+        props.set("ColumnDataTypes", "Auto");
+        DataTable expected = DataTable.parseFile(csv.getPath(), props);
+        DataTable table = DataTable.parseFile(zipFile + "!/folder/data2.csv", props);
+        assertEquals(expected.getNumberOfRecords(), table.getNumberOfRecords());
+        for (int row = 0; row < expected.getNumberOfRecords(); row++) {
+            for (int col = 0; col < 3; col++) {
+                assertEquals(expected.getFieldValue(row, col), table.getFieldValue(row, col));
+            }
+        }
+    }
+
+    public void testReadSingleFile() throws Exception {
+        String content = createCsv(20000, 3);
+        List<String> names = new ArrayList<>();
+        names.add("data.csv");
+        List<String> contents = new ArrayList<>();
+        contents.add(content);
+        String zipFile = writeZip(names, contents);
+        StringBuilder b = new StringBuilder();
+        try (BufferedReader in = new ZipToolkit().openBufferedReaderForSingleFile(zipFile, 0)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                b.append(line).append("\n");
+            }
+        }
+        assertEquals(content, b.toString());
+        File gz = new File(folder, "data.csv.gz");
+        try (GZIPOutputStream out = new GZIPOutputStream(new FileOutputStream(gz))) {
+            out.write(content.getBytes());
+        }
+        assertEquals(content, readAll(IOUtil.getInputStream(gz.getPath())));
+        b.setLength(0);
+        try (BufferedReader in = new GzipToolkit().openBufferedReaderForSingleFile(gz.getPath(), 0)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                b.append(line).append("\n");
+            }
+        }
+        assertEquals(content, b.toString());
+    }
+
+    public void testUnzipParallel() throws Exception {
+        List<String> names = new ArrayList<>();
+        List<String> contents = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            names.add(((i % 3 == 0) ? "" : "sub" + (i % 3) + "/") + "file" + i + ".csv");
+            contents.add(createCsv(500 * (i + 1), i));
+        }
+        String zipFile = writeZip(names, contents);
+        String out1 = new File(folder, "out1").getPath();
+        String out2 = new File(folder, "out2").getPath();
+        List<String> files1 = new ZipToolkit().unzipFileToFolder(zipFile, out1, true);
+        List<String> files2 = new ZipToolkit().unzipFileToFolder(zipFile, out2, true, 4);
+        assertEquals(names.size(), files1.size());
+        assertEquals(names.size(), files2.size());
+        for (int i = 0; i < names.size(); i++) {
+            assertEquals(contents.get(i), new String(Files.readAllBytes(new File(files1.get(i)).toPath())));
+            assertEquals(contents.get(i), new String(Files.readAllBytes(new File(files2.get(i)).toPath())));
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package RTi.Util.String;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for NumberFormatter, which must give the same output as StringUtil.formatString().
+ */
+public class NumberFormatterTest extends TestCase {
+
+    private static final String[] FORMATS = {
+        "%f", "%.0f", "%.1f", "%.2f", "%.3f", "%.6f", "%10.2f", "%-10.2f", "%010.2f", "%#.0f", "%#8.0f",
+        "%F", "%.17f", "%d", "%5d", "%-5d", "%05d", "%-05d", "%s", "%10.10s", "%-10.10s", "%.3s",
+        " %10.2f", "%8.3f,", "%%%6.1f%%", "%c", "no specifier", "%.2f %.2f", "%y", "%"
+    };
+
+    public NumberFormatterTest(String testName) {
+        super(testName);
+    }
+
+    private double[] createValues() {
+        Random random = new Random(42);
+        double[] values = new double[5000];
+        double[] special = { 0.0, -0.0, 1.0, -1.0, 0.5, 1.005, 2.675, 0.995, -0.995, 9.995, 99.995, -99.5, 0.125,
+            1.0e-5, 1.234e-4, 12345678.9, 1.0e7, 9.9999999e6, 1.0e20, -3.5e-3, Double.NaN,
+            Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, 0.1 + 0.2, 1.0 / 3.0, 2.0 / 3.0, 123456.789 };
+        System.arraycopy(special, 0, values, 0, special.length);
+        for (int i = special.length; i < values.length; i++) {
+            double scale = Math.pow(10, random.nextInt(12) - 4);
+            values[i] = (random.nextDouble() - 0.3) * scale;
+            if (i % 5 == 0) {
+                // Values with few decimal digits, as read from data files.
+                values[i] = Math.round(values[i] * 1000) / 1000.0;
+            }
+        }
+        return values;
+    }
+
+    public void testDouble() {
+        for (String format : FORMATS) {
+            NumberFormatter formatter = new NumberFormatter(format);
+            for (double value : createValues()) {
+                assertEquals(format + " " + value, StringUtil.formatString(value, format), formatter.format(value));
+            }
+        }
+    }
+
+    public void testOtherTypes() {
+        Random random = new Random(7);
+        for (String format : FORMATS) {
+            NumberFormatter formatter = NumberFormatter.getInstance(format);
+            StringBuilder b = new StringBuilder();
+            for (int i = 0; i < 1000; i++) {
+                int intValue = random.nextInt(200000) - 100000;
+                float floatValue = (float)(random.nextGaussian() * 1000);
+                long longValue = random.nextLong();
+                b.setLength(0);
+                assertEquals(format, StringUtil.formatString(intValue, format), formatter.append(b, intValue).toString());
+                b.setLength(0);
+                assertEquals(format, StringUtil.formatString(floatValue, format), formatter.append(b, floatValue).toString());
+                b.setLength(0);
+                assertEquals(format, StringUtil.formatString(longValue, format), formatter.append(b, longValue).toString());
+            }
+            assertEquals(format, StringUtil.formatString((Object)"abc", format), formatter.format("abc"));
+            assertEquals(format, StringUtil.formatString((Object)"", format), formatter.format(""));
+            if (!format.equals("%c")) {
+                assertEquals(format, StringUtil.formatString((Object)null, format), formatter.format((Object)null));
+            }
+        }
+    }
+
+    /**
+     * Check that appending many values to a reused buffer gives the same result as StringUtil.formatString().
+     */
+    public void testAppendReusedBuffer() {
+        double[] values = createValues();
+        String format = "%10.2f";
+        NumberFormatter formatter = new NumberFormatter(format);
+        StringBuilder b = new StringBuilder();
+        for (double value : values) {
+            b.setLength(0);
+            assertEquals(StringUtil.formatString(value, format), formatter.append(b, value).toString());
+        }
+    }
+}
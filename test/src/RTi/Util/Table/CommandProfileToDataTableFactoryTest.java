@@ -0,0 +1,74 @@
+package RTi.Util.Table;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import RTi.Util.IO.Command;
+import RTi.Util.IO.CommandPhaseType;
+import RTi.Util.IO.CommandProfile;
+import RTi.Util.IO.GenericCommand;
+import junit.framework.TestCase;
+
+/**
+ * Tests for CommandProfileToDataTableFactory.
+ */
+public class CommandProfileToDataTableFactoryTest extends TestCase {
+
+    public CommandProfileToDataTableFactoryTest(String testName) {
+        super(testName);
+    }
+
+    private GenericCommand createCommand(String name) {
+        GenericCommand command = new GenericCommand();
+        command.setCommandName(name);
+        command.setCommandString(name + "()");
+        return command;
+    }
+
+    public void testCreateDataTable() throws Exception {
+        List<Command> commands = new ArrayList<>();
+        GenericCommand read = createCommand("ReadTable");
+        CommandProfile discovery = read.getCommandProfile(CommandPhaseType.DISCOVERY);
+        discovery.start(read, CommandPhaseType.DISCOVERY);
+        discovery.end();
+        CommandProfile run = read.getCommandProfile(CommandPhaseType.RUN);
+        run.start(read, CommandPhaseType.RUN);
+        run.addBytesRead(1000);
+        run.end();
+        commands.add(read);
+        // A command that was not run does not have a row.
+        commands.add(createCommand("WriteTable"));
+        GenericCommand free = createCommand("Free");
+        free.getCommandProfile(CommandPhaseType.RUN).start(free, CommandPhaseType.RUN);
+        free.getCommandProfile(CommandPhaseType.RUN).end();
+        commands.add(free);
+
+        DataTable table = new CommandProfileToDataTableFactory().createDataTable(commands,
+            new CommandPhaseType[] { CommandPhaseType.DISCOVERY, CommandPhaseType.RUN }, "Profiles");
+        assertEquals("Profiles", table.getTableID());
+        assertEquals(3, table.getNumberOfRecords());
+        int numberCol = table.getFieldIndex("CommandNumber");
+        int nameCol = table.getFieldIndex("CommandName");
+        int phaseCol = table.getFieldIndex("Phase");
+        int runTimeCol = table.getFieldIndex("RunTimeMs");
+        int bytesReadCol = table.getFieldIndex("BytesRead");
+        int bytesWrittenCol = table.getFieldIndex("BytesWritten");
+        int commandCol = table.getFieldIndex("Command");
+        assertEquals(Integer.valueOf(1), table.getFieldValue(0, numberCol));
+        assertEquals("ReadTable", table.getFieldValue(0, nameCol));
+        assertEquals(CommandPhaseType.DISCOVERY.toString(), table.getFieldValue(0, phaseCol));
+        assertEquals(CommandPhaseType.RUN.toString(), table.getFieldValue(1, phaseCol));
+        assertEquals(Long.valueOf(run.getRunTime()), table.getFieldValue(1, runTimeCol));
+        assertEquals(Long.valueOf(1000), table.getFieldValue(1, bytesReadCol));
+        // Values that are not known are null.
+        assertNull(table.getFieldValue(1, bytesWrittenCol));
+        assertNull(table.getFieldValue(0, bytesReadCol));
+        assertEquals("ReadTable()", table.getFieldValue(1, commandCol));
+        assertEquals(Integer.valueOf(3), table.getFieldValue(2, numberCol));
+        assertEquals("Free", table.getFieldValue(2, nameCol));
+
+        // By default only the run phase is included.
+        table = new CommandProfileToDataTableFactory().createDataTable(commands, null, "Run");
+        assertEquals(2, table.getNumberOfRecords());
+    }
+}
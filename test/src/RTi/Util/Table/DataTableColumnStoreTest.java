@@ -0,0 +1,143 @@
+package RTi.Util.Table;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for DataTable column storage, which must behave the same as row storage.
+ */
+public class DataTableColumnStoreTest extends TestCase {
+
+    public DataTableColumnStoreTest(String testName) {
+        super(testName);
+    }
+
+    private DataTable createTable(boolean useColumnStore) throws Exception {
+        List<TableField> fields = new ArrayList<>();
+        fields.add(new TableField(TableField.DATA_TYPE_STRING, "ID", 12));
+        fields.add(new TableField(TableField.DATA_TYPE_DOUBLE, "Value", 12, 2));
+        fields.add(new TableField(TableField.DATA_TYPE_INT, "Count", 12));
+        fields.add(new TableField(TableField.DATA_TYPE_LONG, "Total", 12));
+        DataTable table = new DataTable(fields);
+        table.setUseColumnStore(useColumnStore);
+        for (int i = 0; i < 100; i++) {
+            TableRecord rec = new TableRecord(4);
+            rec.addFieldValue("ID" + (i % 7));
+            rec.addFieldValue((i % 10 == 0) ? null : Double.valueOf(i * 1.5));
+            rec.addFieldValue(Integer.valueOf(100 - i));
+            rec.addFieldValue(Long.valueOf(i * 1000L));
+            table.addRecord(rec);
+        }
+        return table;
+    }
+
+    private void assertTablesEqual(DataTable expected, DataTable actual) throws Exception {
+        assertEquals(expected.getNumberOfRecords(), actual.getNumberOfRecords());
+        assertEquals(expected.getNumberOfFields(), actual.getNumberOfFields());
+        for (int row = 0; row < expected.getNumberOfRecords(); row++) {
+            for (int col = 0; col < expected.getNumberOfFields(); col++) {
+                assertEquals("[" + row + "][" + col + "]", expected.getFieldValue(row, col), actual.getFieldValue(row, col));
+            }
+        }
+    }
+
+    public void testGetFieldValue() throws Exception {
+        DataTable table = createTable(true);
+        assertTrue(table.usesColumnStore());
+        assertTablesEqual(createTable(false), table);
+        assertNull(table.getFieldValue(0, 1));
+        assertEquals(Double.valueOf(1.5), table.getFieldValue(1, 1));
+        assertEquals("ID1", table.getRecord(1).getFieldValueString(0));
+    }
+
+    public void testTypedAccessors() throws Exception {
+        DataTable table = createTable(true);
+        assertTrue(Double.isNaN(table.getDouble(0, 1)));
+        assertEquals(3.0, table.getDouble(2, 1), 0.0);
+        assertEquals(98, table.getInt(2, 2));
+        assertEquals(2000L, table.getLong(2, 3));
+        table.setDouble(0, 1, 12.5);
+        table.setInt(0, 2, 7);
+        table.setLong(0, 3, 8L);
+        assertEquals(Double.valueOf(12.5), table.getFieldValue(0, 1));
+        assertEquals(Integer.valueOf(7), table.getFieldValue(0, 2));
+        assertEquals(Long.valueOf(8L), table.getFieldValue(0, 3));
+    }
+
+    public void testSetDoubleCreateRows() throws Exception {
+        DataTable rowTable = createTable(false);
+        DataTable columnTable = createTable(true);
+        // Rows after the end of the table are created, as with setFieldValue().
+        rowTable.setDouble(103, 1, 2.5, true);
+        columnTable.setDouble(103, 1, 2.5, true);
+        assertEquals(104, columnTable.getNumberOfRecords());
+        assertNull(columnTable.getFieldValue(101, 1));
+        assertEquals(Double.valueOf(2.5), columnTable.getFieldValue(103, 1));
+        assertTablesEqual(rowTable, columnTable);
+    }
+
+    public void testSetFieldValueOtherType() throws Exception {
+        DataTable rowTable = createTable(false);
+        DataTable columnTable = createTable(true);
+        // A value that does not match the column type must be retained as is.
+        rowTable.setFieldValue(3, 1, "text");
+        columnTable.setFieldValue(3, 1, "text");
+        columnTable.getRecord(4).setFieldValue(2, Double.valueOf(4.5));
+        rowTable.getRecord(4).setFieldValue(2, Double.valueOf(4.5));
+        assertTablesEqual(rowTable, columnTable);
+    }
+
+    public void testDeleteAndInsertRecord() throws Exception {
+        DataTable rowTable = createTable(false);
+        DataTable columnTable = createTable(true);
+        TableRecord deleted = columnTable.getRecord(5);
+        rowTable.deleteRecord(5);
+        columnTable.deleteRecord(5);
+        // Removed record can still be used.
+        assertEquals("ID5", deleted.getFieldValue(0));
+        rowTable.insertRecord(2, rowTable.emptyRecord(), false);
+        columnTable.insertRecord(2, columnTable.emptyRecord(), false);
+        rowTable.addRecord(rowTable.emptyRecord());
+        columnTable.addRecord(columnTable.emptyRecord());
+        assertTablesEqual(rowTable, columnTable);
+    }
+
+    public void testAddDeleteReorderFields() throws Exception {
+        DataTable rowTable = createTable(false);
+        DataTable columnTable = createTable(true);
+        rowTable.addField(1, new TableField(TableField.DATA_TYPE_INT, "Row", 6), null, DataTableFunctionType.ROW);
+        columnTable.addField(1, new TableField(TableField.DATA_TYPE_INT, "Row", 6), null, DataTableFunctionType.ROW);
+        rowTable.addField(new TableField(TableField.DATA_TYPE_STRING, "Note", 6), "x");
+        columnTable.addField(new TableField(TableField.DATA_TYPE_STRING, "Note", 6), "x");
+        assertTablesEqual(rowTable, columnTable);
+        rowTable.deleteField(0);
+        columnTable.deleteField(0);
+        assertTablesEqual(rowTable, columnTable);
+        List<String> problems = new ArrayList<>();
+        rowTable.reorderFields(new String[] { "Note", "Total" }, problems);
+        columnTable.reorderFields(new String[] { "Note", "Total" }, problems);
+        assertTablesEqual(rowTable, columnTable);
+    }
+
+    public void testSortTable() throws Exception {
+        DataTable rowTable = createTable(false);
+        DataTable columnTable = createTable(true);
+        rowTable.sortTable(new String[] { "ID", "Count" }, new int[] { 1, -1 });
+        columnTable.sortTable(new String[] { "ID", "Count" }, new int[] { 1, -1 });
+        assertTablesEqual(rowTable, columnTable);
+    }
+
+    public void testConvertStorage() throws Exception {
+        DataTable table = createTable(false);
+        table.setUseColumnStore(true);
+        assertTablesEqual(createTable(false), table);
+        table.setUseColumnStore(false);
+        assertFalse(table.usesColumnStore());
+        assertTablesEqual(createTable(false), table);
+        TableRecord copy = new TableRecord(createTable(true).getRecord(3));
+        assertEquals(4, copy.getNumberOfFields());
+        assertEquals(Double.valueOf(4.5), copy.getFieldValue(1));
+    }
+}
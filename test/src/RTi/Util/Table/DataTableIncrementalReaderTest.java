@@ -0,0 +1,151 @@
+package RTi.Util.Table;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import RTi.Util.IO.PropList;
+import junit.framework.TestCase;
+
+/**
+ * Tests for DataTableIncrementalReader, checking that appending rows gives the same table as reading the full file.
+ */
+public class DataTableIncrementalReaderTest extends TestCase {
+
+    private File file;
+
+    public DataTableIncrementalReaderTest(String testName) {
+        super(testName);
+    }
+
+    protected void setUp() throws IOException {
+        file = File.createTempFile("DataTableIncrementalReaderTest", ".csv");
+        writeFile();
+    }
+
+    private void writeFile() throws IOException {
+        try (PrintWriter out = new PrintWriter(new FileWriter(file))) {
+            out.println("# Comment");
+            out.println("\"ID\",\"Value\",\"Count\"");
+        }
+        appendRows(0, 100);
+    }
+
+    protected void tearDown() {
+        file.delete();
+    }
+
+    private void appendRows(int first, int count) throws IOException {
+        appendText(rows(first, count));
+    }
+
+    private void appendText(String text) throws IOException {
+        try (FileWriter out = new FileWriter(file, true)) {
+            out.write(text);
+        }
+    }
+
+    private String rows(int first, int count) {
+        StringBuilder b = new StringBuilder();
+        for (int i = first; i < first + count; i++) {
+            b.append("\"ID" + i + "\"," + (i * 1.5) + "," + (i % 17) + "\n");
+        }
+        return b.toString();
+    }
+
+    private PropList props() {
+        PropList props = new PropList("");
+        props.set("CommentLineIndicator", "#");
+        props.set("ColumnDataTypes", "Auto");
+        return props;
+    }
+
+    private void assertTablesEqual(DataTable expected, DataTable actual) throws Exception {
+        assertEquals(expected.getNumberOfFields(), actual.getNumberOfFields());
+        assertEquals(expected.getNumberOfRecords(), actual.getNumberOfRecords());
+        for (int col = 0; col < expected.getNumberOfFields(); col++) {
+            assertEquals(expected.getFieldName(col), actual.getFieldName(col));
+            assertEquals(expected.getFieldDataType(col), actual.getFieldDataType(col));
+            assertEquals(expected.getFieldWidth(col), actual.getFieldWidth(col));
+            assertEquals(expected.getFieldPrecision(col), actual.getFieldPrecision(col));
+        }
+        for (int row = 0; row < expected.getNumberOfRecords(); row++) {
+            for (int col = 0; col < expected.getNumberOfFields(); col++) {
+                assertEquals("[" + row + "][" + col + "]", expected.getFieldValue(row, col), actual.getFieldValue(row, col));
+            }
+        }
+    }
+
+    public void testAppend() throws Exception {
+        DataTableIncrementalReader reader = new DataTableIncrementalReader(file.getPath(), props());
+        assertTrue(reader.refresh());
+        DataTable table = reader.getTable();
+        assertEquals(100, table.getNumberOfRecords());
+        assertFalse(reader.refresh());
+        appendRows(100, 2000);
+        assertTrue(reader.refresh());
+        assertSame(table, reader.getTable());
+        assertEquals(1, reader.getReloadCount());
+        assertEquals(2000, reader.getAppendedLineCount());
+        assertTablesEqual(DataTable.parseFile(file.getPath(), props()), table);
+
+        // A partial line is not read until the line ending is written.
+        String row = rows(2100, 1);
+        appendText(row.substring(0, 5));
+        assertFalse(reader.refresh());
+        appendText(row.substring(5));
+        assertTrue(reader.refresh());
+        assertEquals(2101, table.getNumberOfRecords());
+        assertTablesEqual(DataTable.parseFile(file.getPath(), props()), table);
+    }
+
+    public void testReload() throws Exception {
+        DataTableIncrementalReader reader = new DataTableIncrementalReader(file.getPath(), props());
+        reader.refresh();
+        // A double in the integer column changes the column type so the file is read again.
+        appendText("\"X\",1.5,2.5\n");
+        assertTrue(reader.refresh());
+        assertEquals(2, reader.getReloadCount());
+        assertEquals(TableField.DATA_TYPE_DOUBLE, reader.getTable().getFieldDataType(2));
+        assertTablesEqual(DataTable.parseFile(file.getPath(), props()), reader.getTable());
+
+        // Truncated file.
+        writeFile();
+        assertTrue(reader.refresh());
+        assertEquals(3, reader.getReloadCount());
+        assertEquals(100, reader.getTable().getNumberOfRecords());
+
+        // Same length but rewritten with a different header.
+        String text = new String(java.nio.file.Files.readAllBytes(file.toPath())).replace("\"Count\"", "\"Total\"");
+        try (FileWriter out = new FileWriter(file)) {
+            out.write(text);
+        }
+        assertTrue(reader.refresh());
+        assertEquals(4, reader.getReloadCount());
+        assertEquals("Total", reader.getTable().getFieldName(2));
+    }
+
+    public void testFollow() throws Exception {
+        DataTableIncrementalReader reader = new DataTableIncrementalReader(file.getPath(), props());
+        CountDownLatch latch = new CountDownLatch(2);
+        reader.startFollowing(10, latch::countDown);
+        try {
+            // Wait for the first read before appending so that the append is detected.
+            for (int i = 0; (i < 500) && (latch.getCount() == 2); i++) {
+                Thread.sleep(10);
+            }
+            appendRows(100, 10);
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        }
+        finally {
+            reader.stopFollowing();
+        }
+        assertFalse(reader.isFollowing());
+        synchronized (reader) {
+            assertEquals(110, reader.getTable().getNumberOfRecords());
+        }
+    }
+}
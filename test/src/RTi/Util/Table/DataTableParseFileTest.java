@@ -0,0 +1,87 @@
+package RTi.Util.Table;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import RTi.Util.IO.PropList;
+import junit.framework.TestCase;
+
+/**
+ * Tests for DataTable.parseFile(), checking that sampled column types and parallel parsing
+ * give the same result as examining all data in one thread.
+ */
+public class DataTableParseFileTest extends TestCase {
+
+    private File file;
+
+    public DataTableParseFileTest(String testName) {
+        super(testName);
+    }
+
+    protected void setUp() throws IOException {
+        file = File.createTempFile("DataTableParseFileTest", ".csv");
+        try (PrintWriter out = new PrintWriter(new FileWriter(file))) {
+            out.println("# Comment");
+            out.println("\"ID\",\"Value\",\"Count\"");
+            for (int i = 0; i < 10000; i++) {
+                // Value is integer until near the end, then double, so a small sample gives the wrong type.
+                String value = (i < 9000) ? ("" + i) : (i + ".25");
+                out.println("\"" + i + "\"," + value + "," + (i % 17));
+            }
+            // Extra column not in the header.
+            out.println("x,1,2,extra");
+        }
+    }
+
+    protected void tearDown() {
+        file.delete();
+    }
+
+    private DataTable parse(String... properties) throws Exception {
+        PropList props = new PropList("");
+        props.set("CommentLineIndicator", "#");
+        for (int i = 0; i < properties.length; i += 2) {
+            props.set(properties[i], properties[i + 1]);
+        }
+        return DataTable.parseFile(file.getPath(), props);
+    }
+
+    private void assertTablesEqual(DataTable expected, DataTable actual) throws Exception {
+        assertEquals(expected.getNumberOfFields(), actual.getNumberOfFields());
+        assertEquals(expected.getNumberOfRecords(), actual.getNumberOfRecords());
+        for (int col = 0; col < expected.getNumberOfFields(); col++) {
+            assertEquals(expected.getFieldName(col), actual.getFieldName(col));
+            assertEquals(expected.getFieldDataType(col), actual.getFieldDataType(col));
+            assertEquals(expected.getFieldWidth(col), actual.getFieldWidth(col));
+            assertEquals(expected.getFieldPrecision(col), actual.getFieldPrecision(col));
+        }
+        for (int row = 0; row < expected.getNumberOfRecords(); row++) {
+            for (int col = 0; col < expected.getNumberOfFields(); col++) {
+                assertEquals("[" + row + "][" + col + "]", expected.getFieldValue(row, col), actual.getFieldValue(row, col));
+            }
+        }
+    }
+
+    public void testAutoColumnTypes() throws Exception {
+        DataTable table = parse("ColumnDataTypes", "Auto");
+        assertEquals(4, table.getNumberOfFields());
+        assertEquals(10001, table.getNumberOfRecords());
+        assertEquals("Field_4", table.getFieldName(3));
+        assertEquals(TableField.DATA_TYPE_STRING, table.getFieldDataType(0));
+        assertEquals(TableField.DATA_TYPE_DOUBLE, table.getFieldDataType(1));
+        assertEquals(TableField.DATA_TYPE_INT, table.getFieldDataType(2));
+        assertEquals(Double.valueOf(9000.25), table.getFieldValue(9000, 1));
+        assertEquals("", table.getFieldValue(0, 3));
+    }
+
+    public void testSampledColumnTypes() throws Exception {
+        assertTablesEqual(parse("ColumnDataTypes", "Auto"), parse("ColumnDataTypes", "Auto", "ColumnTypeSampleSize", "100"));
+    }
+
+    public void testParallel() throws Exception {
+        assertTablesEqual(parse("ColumnDataTypes", "Auto"), parse("ColumnDataTypes", "Auto", "ParseThreads", "4"));
+        assertTablesEqual(parse(), parse("ParseThreads", "3"));
+    }
+}
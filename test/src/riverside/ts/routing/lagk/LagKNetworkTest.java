@@ -0,0 +1,117 @@
+package riverside.ts.routing.lagk;
+
+import java.util.List;
+
+import RTi.TS.HourTS;
+import RTi.TS.TS;
+import RTi.Util.IO.Network;
+import RTi.Util.IO.Node;
+import RTi.Util.Time.DateTime;
+import junit.framework.TestCase;
+import riverside.ts.util.Table;
+
+/**
+ * Tests for routing a network of Lag/K reaches.
+ */
+public class LagKNetworkTest extends TestCase {
+
+    public LagKNetworkTest(String testName) {
+        super(testName);
+    }
+
+    private TS createInflow(String id, double base, double peak) throws Exception {
+        HourTS ts = new HourTS();
+        ts.setIdentifier(id + "..Streamflow.Hour");
+        ts.setDate1(DateTime.parse("2020-01-01 00"));
+        ts.setDate2(DateTime.parse("2020-03-01 00"));
+        ts.allocateDataSpace();
+        int i = 0;
+        for (DateTime date = new DateTime(ts.getDate1()); date.lessThanOrEqualTo(ts.getDate2()); date.addHour(1), i++) {
+            ts.setDataValue(date, base + peak * Math.exp(-Math.pow(((i % 240) - 48) / 12.0, 2)));
+        }
+        return ts;
+    }
+
+    private LagK createLagK(TS ts, double lagScale) {
+        LagKBuilder builder = new LagKBuilder(ts);
+        builder.setLagIn(Table.create(0, 6 * lagScale, 500, 3 * lagScale));
+        builder.setKOut(Table.create(0, 4, 500, 2));
+        return builder.create(null, null, null, null);
+    }
+
+    private LagKNetwork createNetwork() throws Exception {
+        TS template = createInflow("Template", 0, 0);
+        LagKNetwork network = new LagKNetwork();
+        network.addReach(new LagKNetworkReach("A", "C", createInflow("A", 10, 200), createLagK(template, 1)));
+        network.addReach(new LagKNetworkReach("B", "C", createInflow("B", 5, 100), createLagK(template, 2)));
+        network.addReach(new LagKNetworkReach("C", "D", createInflow("C", 1, 20), createLagK(template, 1)));
+        network.addReach(new LagKNetworkReach("D", null, null, createLagK(template, 1)));
+        network.addReach(new LagKNetworkReach("E", null, createInflow("E", 2, 50), createLagK(template, 1)));
+        return network;
+    }
+
+    public void testGetWaves() throws Exception {
+        LagKNetwork network = createNetwork();
+        List<List<LagKNetworkReach>> waves = network.getWaves();
+        assertEquals(3, waves.size());
+        assertEquals("[A -> C, B -> C, E -> null]", waves.get(0).toString());
+        assertEquals(1, network.getReach("C").getWave());
+        assertEquals(2, network.getReach("D").getWave());
+        network.getReach("D").setDownstreamID("A");
+        try {
+            network.getWaves();
+            fail("Expected exception for network with a loop.");
+        }
+        catch (RuntimeException e) {
+            // Expected.
+        }
+    }
+
+    public void testRouteParallelMatchesSequential() throws Exception {
+        LagKNetwork sequential = createNetwork();
+        sequential.setThreads(1);
+        sequential.route();
+        LagKNetwork parallel = createNetwork();
+        parallel.setThreads(4);
+        parallel.route();
+        for (LagKNetworkReach reach : sequential.getReaches()) {
+            TS expected = reach.getOutflowTS();
+            TS actual = parallel.getReach(reach.getID()).getOutflowTS();
+            for (DateTime date = new DateTime(expected.getDate1()); date.lessThanOrEqualTo(expected.getDate2()); date.addHour(1)) {
+                assertEquals(expected.getDataValue(date), actual.getDataValue(date), 0.0);
+            }
+        }
+        // The only inflow to D is the outflow from C, which is used without copying
+        assertSame(parallel.getReach("C").getOutflowTS(), parallel.getReach("D").getInflowTS());
+        // Outflow from the confluence is delayed and attenuated relative to the total inflow
+        LagKNetworkReach c = parallel.getReach("C");
+        assertTrue(c.getOutflowTS().getDataValue(DateTime.parse("2020-01-02 21")) <
+            c.getInflowTS().getDataValue(DateTime.parse("2020-01-02 21")));
+        assertTrue(c.getRoutingTimeMs() >= 0);
+    }
+
+    public void testSetDownstreamReaches() throws Exception {
+        LagKNetwork network = createNetwork();
+        Network nodes = new Network();
+        Node a = new Node("A", "A", "Reach");
+        Node b = new Node("B", "B", "Reach");
+        Node confluence = new Node("Confluence", "Confluence", "Node");
+        Node c = new Node("C", "C", "Reach");
+        Node d = new Node("D", "D", "Reach");
+        a.addDownstreamFeature(confluence);
+        b.addDownstreamFeature(confluence);
+        confluence.addDownstreamFeature(d);
+        c.addDownstreamFeature(d);
+        nodes.addFeature(a);
+        nodes.addFeature(b);
+        nodes.addFeature(confluence);
+        nodes.addFeature(c);
+        nodes.addFeature(d);
+        network.setDownstreamReaches(nodes);
+        assertEquals("D", network.getReach("A").getDownstreamID());
+        assertEquals("D", network.getReach("B").getDownstreamID());
+        assertEquals("D", network.getReach("C").getDownstreamID());
+        assertNull(network.getReach("D").getDownstreamID());
+        assertEquals(2, network.getWaves().size());
+    }
+}
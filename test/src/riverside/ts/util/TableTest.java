@@ -120,4 +120,113 @@ public class TableTest extends TestCase {
         assertEquals(2,t.getLargerIndex(3.5,0));
     }
 
+    public void testSortedLookupMatchesScan() {
+        Table t = Table.create(
+            1,10,
+            2,20,
+            2,25,
+            4,40,
+            8,80
+            );
+        double[] values = new double[] {0,1,1.5,2,3,4,7.5,8,9};
+        Table.InterpolationMode[] modes = new Table.InterpolationMode[] {
+            null,Table.InterpolationMode.LINEAR,Table.InterpolationMode.LOGARITHMIC};
+        for (Table.InterpolationMode mode : modes) {
+            double[] out = new double[values.length];
+            t.lookup(values,out,1,false,mode);
+            for (int i = 0; i < values.length; i++) {
+                assertEquals(lookupScan(t,values[i],mode),t.lookup(values[i],1,false,mode));
+                assertEquals(lookupScan(t,values[i],mode),out[i]);
+                assertEquals(smallerIndexScan(t,values[i]),t.getSmallerIndex(values[i],0));
+            }
+        }
+        assertEquals(20d,t.lookup(2,1,false,Table.InterpolationMode.LINEAR));
+        assertEquals(-999d,t.lookup(9,1,false,Table.InterpolationMode.LINEAR));
+        assertEquals(80d,t.lookup(9,1,true,Table.InterpolationMode.LINEAR));
+        // Modifying the table must be reflected in lookups, including when no longer sorted
+        t.set(4,3,30);
+        assertEquals(-999d,t.lookup(5,1,false,Table.InterpolationMode.LINEAR));
+        assertEquals(3,t.getLargerIndex(3.5,0));
+        assertEquals(4,t.getSmallerIndex(3.5,0));
+    }
+
+    /**
+     * Lookup by scanning the table, as done before using a binary search.
+     */
+    private double lookupScan(Table t, double x, Table.InterpolationMode mode) {
+        double[] c1 = t.getColumn(0);
+        double[] c2 = t.getColumn(1);
+        if (x < c1[0] || x > c1[c1.length - 1]) {
+            return t.getMissingValue();
+        }
+        for (int i = 0; i < c1.length; i++) {
+            if (x == c1[i]) {
+                return c2[i];
+            }
+            if (mode != null && i < c1.length - 1 && x > c1[i] && x < c1[i + 1]) {
+                double bar = (x - c1[i]) / (c1[i + 1] - c1[i]);
+                if (mode == Table.InterpolationMode.LINEAR) {
+                    return c2[i] + (c2[i + 1] - c2[i]) * (x - c1[i]) / (c1[i + 1] - c1[i]);
+                }
+                return Math.pow(10, Math.log10(c2[i]) + (Math.log10(c2[i + 1]) - Math.log10(c2[i])) * bar);
+            }
+        }
+        return t.getMissingValue();
+    }
+
+    private int smallerIndexScan(Table t, double value) {
+        int idx = 0;
+        for (int i = 0; i < t.getNRows(); i++) {
+            if (value >= t.get(i,0)) {
+                idx = i;
+            }
+        }
+        return idx;
+    }
+
+    /**
+     * Check single and batch lookups in a 1000-row rating table against a linear scan.
+     * The timing comparison is in benchmark/src/riverside/ts/util/TableLookupBenchmark.java.
+     */
+    public void testLookupRatingTable() {
+        int nRows = 1000;
+        Table t = new Table(nRows);
+        for (int i = 0; i < nRows; i++) {
+            double stage = i * .01;
+            t.set(i,stage,35.0 * Math.pow(stage,1.6));
+        }
+        int nValues = 24 * 365 * 10;
+        double[] stages = new double[nValues];
+        for (int i = 0; i < nValues; i++) {
+            stages[i] = 5.0 + 4.9 * Math.sin(i * 2.0 * Math.PI / (24 * 30));
+        }
+        double[] column1 = t.getColumn(0);
+        double[] column2 = t.getColumn(1);
+        double[] expected = new double[nValues];
+        for (int i = 0; i < nValues; i++) {
+            // Linear scan as previously done for all lookups
+            double x = stages[i];
+            for (int j = 0; j < nRows - 1; j++) {
+                if (x >= column1[j] && x < column1[j + 1]) {
+                    expected[i] = column2[j] + (column2[j + 1] - column2[j]) * (x - column1[j]) / (column1[j + 1] - column1[j]);
+                    break;
+                }
+            }
+        }
+        double[] single = new double[nValues];
+        for (int i = 0; i < nValues; i++) {
+            single[i] = t.lookup(stages[i],1,true);
+        }
+        double[] batch = new double[nValues];
+        t.lookup(stages,batch,1,true);
+        t.setUsePrecomputedSlopes(true);
+        double[] slopes = new double[nValues];
+        t.lookup(stages,slopes,1,true);
+        for (int i = 0; i < nValues; i++) {
+            assertEquals(expected[i],single[i],0.0);
+            assertEquals(expected[i],batch[i],0.0);
+            assertEquals(expected[i],slopes[i],1.0e-9);
+        }
+    }
+
 }